@@ -521,6 +521,29 @@ public class BinaryStatePredicateManager {
 		return result;
 	}
 
+	/**
+	 * @return true iff the conjunction of the supporting invariants of the current termination argument holds after
+	 *         the stem
+	 */
+	public boolean checkSupportingInvariantsAfterStem(final NestedWord<? extends IIcfgTransition<?>> stem) {
+		if (isTrue(mSiConjunction)) {
+			return true;
+		}
+		final IPredicate truePredicate = mPredicateFactory.newPredicate(mManagedScript.getScript().term("true"));
+		return createTraceCheck(truePredicate, mSiConjunction, stem).isCorrect() == LBool.UNSAT;
+	}
+
+	/**
+	 * @return true iff the conjunction of the supporting invariants of the current termination argument is preserved by
+	 *         the loop
+	 */
+	public boolean checkSupportingInvariantsConsecution(final NestedWord<? extends IIcfgTransition<?>> loop) {
+		if (isTrue(mSiConjunction)) {
+			return true;
+		}
+		return createTraceCheck(mSiConjunction, mSiConjunction, loop).isCorrect() == LBool.UNSAT;
+	}
+
 	public boolean checkRankDecrease(final NestedWord<? extends IIcfgTransition<?>> loop) {
 		return createTraceCheck(mRankEqualityAndSi, mRankDecreaseAndBound, loop).isCorrect() == LBool.UNSAT;
 	}
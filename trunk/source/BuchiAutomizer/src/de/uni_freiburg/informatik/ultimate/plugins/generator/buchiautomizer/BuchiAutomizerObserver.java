@@ -31,9 +31,11 @@ package de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Supplier;
 
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.NestedLassoRun;
@@ -74,6 +76,7 @@ import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.variables.I
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.IPredicate;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.ISLPredicate;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.PredicateFactory;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.ManagedScript;
 import de.uni_freiburg.informatik.ultimate.logic.Rational;
 import de.uni_freiburg.informatik.ultimate.logic.Term;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer.cegar.AbstractBuchiCegarLoop;
@@ -103,6 +106,11 @@ public class BuchiAutomizerObserver implements IUnmanagedObserver {
 	private final List<AutomataTestFileAST> mAutomataTestFileAsts;
 	private boolean mLastModel;
 	private ModelType mCurrentGraphType;
+	/**
+	 * The rank variables are declared in the solver, hence Büchi programs that share a solver (batch mode) have to
+	 * share them.
+	 */
+	private final Map<ManagedScript, RankVarConstructor> mRankVarConstructors;
 
 	public BuchiAutomizerObserver(final IUltimateServiceProvider services) {
 		mServices = services;
@@ -110,6 +118,7 @@ public class BuchiAutomizerObserver implements IUnmanagedObserver {
 		mLastModel = false;
 		mIcfgs = new ArrayList<>();
 		mAutomataTestFileAsts = new ArrayList<>();
+		mRankVarConstructors = new IdentityHashMap<>();
 	}
 
 	@Override
@@ -133,7 +142,8 @@ public class BuchiAutomizerObserver implements IUnmanagedObserver {
 			final INestedWordAutomaton<WitnessEdge, WitnessNode> witnessAutomaton) throws IOException, AssertionError {
 		final TAPreferences taPrefs = new TAPreferences(mServices);
 
-		final RankVarConstructor rankVarConstructor = new RankVarConstructor(icfg.getCfgSmtToolkit());
+		final RankVarConstructor rankVarConstructor = mRankVarConstructors.computeIfAbsent(
+				icfg.getCfgSmtToolkit().getManagedScript(), a -> new RankVarConstructor(icfg.getCfgSmtToolkit()));
 		final PredicateFactory predicateFactory =
 				new PredicateFactory(mServices, icfg.getCfgSmtToolkit().getManagedScript(),
 						rankVarConstructor.getCsToolkitWithRankVariables().getSymbolTable());
@@ -361,6 +371,29 @@ public class BuchiAutomizerObserver implements IUnmanagedObserver {
 				witnessAutomaton = new WitnessModelToAutomatonTransformer(mWitnessNode, mServices).getResult();
 			}
 			mRootOfNewModel = doTerminationAnalysis(rcfgRootNode, witnessAutomaton);
+
+			final BuchiProgramBatch batch = BuchiProgramBatch.getAnnotation(rcfgRootNode);
+			if (batch != null) {
+				analyzeRemainingPrograms(batch, witnessAutomaton);
+			}
+		}
+	}
+
+	/**
+	 * Batch mode: analyze the Büchi programs of the remaining properties one after the other. Each one reports its own
+	 * results.
+	 */
+	private void analyzeRemainingPrograms(final BuchiProgramBatch batch,
+			final INestedWordAutomaton<WitnessEdge, WitnessNode> witnessAutomaton) throws IOException {
+		final int total = batch.getRemainingPrograms().size() + 1;
+		int current = 1;
+		for (final Supplier<IIcfg<?>> program : batch.getRemainingPrograms()) {
+			++current;
+			final IIcfg<?> icfg = program.get();
+			final LTLPropertyCheck ltlAnnot = LTLPropertyCheck.getAnnotation(icfg);
+			mLogger.info(String.format("Analyzing property %s of %s: %s", current, total,
+					ltlAnnot == null ? icfg.getIdentifier() : ltlAnnot.getUltimateLTLProperty()));
+			doTerminationAnalysis(icfg, witnessAutomaton);
 		}
 	}
 
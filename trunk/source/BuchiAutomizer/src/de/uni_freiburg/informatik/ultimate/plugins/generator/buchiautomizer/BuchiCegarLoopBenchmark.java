@@ -31,7 +31,9 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import de.uni_freiburg.informatik.ultimate.lassoranker.LassoAnalysis.PreprocessingBenchmark;
@@ -61,6 +63,10 @@ public class BuchiCegarLoopBenchmark extends CegarStatisticsType {
 	public static final String INTERPOLANT_COVERING_CAPABILITY_BUCHI = "InterpolantCoveringCapabilityBuchi";
 	public static final String LASSO_PREPROCESSING_BENCHMARKS = "LassoPreprocessingBenchmarks";
 	public static final String LASSO_TERMINATION_ANALYSIS_BENCHMARKS = "LassoTerminationAnalysisBenchmarks";
+	public static final String LASSO_TEMPLATE_TIMES = "LassoTemplateTimes";
+	public static final String TERMINATION_ARGUMENT_CACHE_HITS = "TerminationArgumentCacheHits";
+	public static final String TERMINATION_ARGUMENT_CACHE_MISSES = "TerminationArgumentCacheMisses";
+	public static final String SKIPPED_DIFFERENCES = "SkippedDifferences";
 	public static final String LASSO_NONTERMINATION_ANALYSIS_BENCHMARKS = "LassoNonterminationAnalysisBenchmarks";
 	public static final String LASSO_NONTERMINATION_ANALYSIS_SAT_FIXPOINT = "LassoNonterminationAnalysisSatFixpoint";
 	public static final String LASSO_NONTERMINATION_ANALYSIS_SAT_UNBOUNDED = "LassoNonterminationAnalysisSatUnbounded";
@@ -87,6 +93,10 @@ public class BuchiCegarLoopBenchmark extends CegarStatisticsType {
 		keyList.add(INTERPOLANT_COVERING_CAPABILITY_BUCHI);
 		keyList.add(LASSO_PREPROCESSING_BENCHMARKS);
 		keyList.add(LASSO_TERMINATION_ANALYSIS_BENCHMARKS);
+		keyList.add(LASSO_TEMPLATE_TIMES);
+		keyList.add(TERMINATION_ARGUMENT_CACHE_HITS);
+		keyList.add(TERMINATION_ARGUMENT_CACHE_MISSES);
+		keyList.add(SKIPPED_DIFFERENCES);
 		keyList.add(LASSO_NONTERMINATION_ANALYSIS_SAT_FIXPOINT);
 		keyList.add(LASSO_NONTERMINATION_ANALYSIS_SAT_UNBOUNDED);
 		keyList.add(LASSO_NONTERMINATION_ANALYSIS_UNSAT);
@@ -128,6 +138,19 @@ public class BuchiCegarLoopBenchmark extends CegarStatisticsType {
 			}
 			return result;
 		}
+		case LASSO_TEMPLATE_TIMES: {
+			@SuppressWarnings("unchecked")
+			final Map<String, Long> times1 = (Map<String, Long>) value1;
+			@SuppressWarnings("unchecked")
+			final Map<String, Long> times2 = (Map<String, Long>) value2;
+			final Map<String, Long> result = new LinkedHashMap<>(times1);
+			times2.forEach((template, time) -> result.merge(template, time, Long::sum));
+			return result;
+		}
+		case TERMINATION_ARGUMENT_CACHE_HITS:
+		case TERMINATION_ARGUMENT_CACHE_MISSES:
+		case SKIPPED_DIFFERENCES:
+			return (int) value1 + (int) value2;
 		case INTERPOLANT_COVERING_CAPABILITY_FINITE:
 		case INTERPOLANT_COVERING_CAPABILITY_BUCHI:
 			final BackwardCoveringInformation bci1 = (BackwardCoveringInformation) value1;
@@ -265,6 +288,32 @@ public class BuchiCegarLoopBenchmark extends CegarStatisticsType {
 		sb.append(LASSO_TERMINATION_ANALYSIS_BENCHMARKS);
 		sb.append(": ");
 
+		sb.append(LASSO_TEMPLATE_TIMES);
+		sb.append(": ");
+		final Map<String, Long> templateTimes = (Map<String, Long>) benchmarkData.getValue(LASSO_TEMPLATE_TIMES);
+		for (final Map.Entry<String, Long> entry : templateTimes.entrySet()) {
+			sb.append(entry.getKey());
+			sb.append(" ");
+			sb.append(prettyprintNanoseconds(entry.getValue()));
+			sb.append(" ");
+		}
+		sb.append("\t");
+
+		sb.append(TERMINATION_ARGUMENT_CACHE_HITS);
+		sb.append(": ");
+		sb.append(benchmarkData.getValue(TERMINATION_ARGUMENT_CACHE_HITS));
+		sb.append("\t");
+
+		sb.append(TERMINATION_ARGUMENT_CACHE_MISSES);
+		sb.append(": ");
+		sb.append(benchmarkData.getValue(TERMINATION_ARGUMENT_CACHE_MISSES));
+		sb.append("\t");
+
+		sb.append(SKIPPED_DIFFERENCES);
+		sb.append(": ");
+		sb.append(benchmarkData.getValue(SKIPPED_DIFFERENCES));
+		sb.append("\t");
+
 		sb.append(LASSO_NONTERMINATION_ANALYSIS_SAT_FIXPOINT);
 		sb.append(": ");
 		sb.append(benchmarkData.getValue(LASSO_NONTERMINATION_ANALYSIS_SAT_FIXPOINT));
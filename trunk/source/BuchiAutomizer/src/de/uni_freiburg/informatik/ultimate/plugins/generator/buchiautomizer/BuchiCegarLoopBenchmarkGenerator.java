@@ -28,7 +28,9 @@ package de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import de.uni_freiburg.informatik.ultimate.lassoranker.LassoAnalysis.PreprocessingBenchmark;
 import de.uni_freiburg.informatik.ultimate.lassoranker.termination.NonterminationAnalysisBenchmark;
@@ -53,6 +55,10 @@ public class BuchiCegarLoopBenchmarkGenerator extends CegarLoopStatisticsGenerat
 	private final List<PreprocessingBenchmark> mPreprocessingBenchmarks = new ArrayList<>();
 	private final List<TerminationAnalysisBenchmark> mTerminationAnalysisBenchmarks = new ArrayList<>();
 	private final List<NonterminationAnalysisBenchmark> mNonterminationAnalysisBenchmarks = new ArrayList<>();
+	private final Map<String, Long> mLassoTemplateTimes = new LinkedHashMap<>();
+	private int mTerminationArgumentCacheHits;
+	private int mTerminationArgumentCacheMisses;
+	private int mSkippedDifferences;
 	private int mLassoNonterminationAnalysisSATFixpoint;
 	private int mLassoNonterminationAnalysisSATUnbounded;
 	private int mLassoNonterminationAnalysisUNSAT;
@@ -114,6 +120,14 @@ public class BuchiCegarLoopBenchmarkGenerator extends CegarLoopStatisticsGenerat
 			return mPreprocessingBenchmarks;
 		case BuchiCegarLoopBenchmark.LASSO_TERMINATION_ANALYSIS_BENCHMARKS:
 			return mTerminationAnalysisBenchmarks;
+		case BuchiCegarLoopBenchmark.LASSO_TEMPLATE_TIMES:
+			return mLassoTemplateTimes;
+		case BuchiCegarLoopBenchmark.TERMINATION_ARGUMENT_CACHE_HITS:
+			return mTerminationArgumentCacheHits;
+		case BuchiCegarLoopBenchmark.TERMINATION_ARGUMENT_CACHE_MISSES:
+			return mTerminationArgumentCacheMisses;
+		case BuchiCegarLoopBenchmark.SKIPPED_DIFFERENCES:
+			return mSkippedDifferences;
 		case BuchiCegarLoopBenchmark.LASSO_NONTERMINATION_ANALYSIS_SAT_FIXPOINT:
 			return mLassoNonterminationAnalysisSATFixpoint;
 		case BuchiCegarLoopBenchmark.LASSO_NONTERMINATION_ANALYSIS_SAT_UNBOUNDED:
@@ -138,6 +152,8 @@ public class BuchiCegarLoopBenchmarkGenerator extends CegarLoopStatisticsGenerat
 		mPreprocessingBenchmarks.addAll(lassoCheck.getPreprocessingBenchmarks());
 		mTerminationAnalysisBenchmarks.addAll(lassoCheck.getTerminationAnalysisBenchmarks());
 		mNonterminationAnalysisBenchmarks.addAll(lassoCheck.getNonterminationAnalysisBenchmarks());
+		lassoCheck.getTemplateTimes()
+				.forEach((template, time) -> mLassoTemplateTimes.merge(template, time, Long::sum));
 		for (final NonterminationAnalysisBenchmark nab : lassoCheck.getNonterminationAnalysisBenchmarks()) {
 			switch (nab.getConstraintsSatisfiability()) {
 			case SAT:
@@ -224,6 +240,18 @@ public class BuchiCegarLoopBenchmarkGenerator extends CegarLoopStatisticsGenerat
 		mHighestRank = Math.max(mHighestRank, highestRank);
 	}
 
+	public void reportTerminationArgumentCacheHit() {
+		mTerminationArgumentCacheHits++;
+	}
+
+	public void reportTerminationArgumentCacheMiss() {
+		mTerminationArgumentCacheMisses++;
+	}
+
+	public void reportSkippedDifference() {
+		mSkippedDifferences++;
+	}
+
 	public void reportMinimizationOfDetAutom() {
 		mMinimizationOfDetAutom++;
 	}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE BuchiAutomizer plug-in.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE BuchiAutomizer plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE BuchiAutomizer plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE BuchiAutomizer plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+
+package de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import de.uni_freiburg.informatik.ultimate.core.lib.models.annotation.ModernAnnotations;
+import de.uni_freiburg.informatik.ultimate.core.model.models.IElement;
+import de.uni_freiburg.informatik.ultimate.core.model.models.ModelUtils;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IIcfg;
+
+/**
+ * Batch mode: annotates the Büchi program of the first property with the Büchi programs of the remaining properties
+ * that should be checked against the same program.
+ *
+ * The remaining Büchi programs are only constructed on demand, because they may share their ICFG (and its SMT solver)
+ * with the Büchi program that is currently analyzed. A supplier must only be called after the analysis of the
+ * previously supplied program has finished.
+ */
+public class BuchiProgramBatch extends ModernAnnotations {
+
+	private static final long serialVersionUID = 1L;
+	private static final String KEY = BuchiProgramBatch.class.getSimpleName();
+
+	private final transient List<Supplier<IIcfg<?>>> mRemainingPrograms;
+
+	public BuchiProgramBatch(final List<Supplier<IIcfg<?>>> remainingPrograms) {
+		mRemainingPrograms = Collections.unmodifiableList(new ArrayList<>(remainingPrograms));
+	}
+
+	public List<Supplier<IIcfg<?>>> getRemainingPrograms() {
+		return mRemainingPrograms;
+	}
+
+	public void annotate(final IElement elem) {
+		elem.getPayload().getAnnotations().put(KEY, this);
+	}
+
+	public static BuchiProgramBatch getAnnotation(final IElement elem) {
+		return ModelUtils.getAnnotation(elem, KEY, a -> (BuchiProgramBatch) a);
+	}
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE BuchiAutomizer plug-in.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE BuchiAutomizer plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE BuchiAutomizer plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE BuchiAutomizer plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.ToolchainCanceledException;
+import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.ToolchainExceptionWrapper;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IProgressAwareTimer;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.icfgtransformer.transformulatransformers.TermException;
+import de.uni_freiburg.informatik.ultimate.lassoranker.nontermination.NonTerminationArgument;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.TerminationArgument;
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
+
+/**
+ * Runs the nontermination analysis and the termination analysis with several ranking function templates of one lasso
+ * concurrently. Every analysis constructs its own solver, the lasso itself has to be preprocessed before (the
+ * preprocessing uses the solver of the CFG and must not run concurrently).
+ *
+ * The first conclusive result wins. The remaining analyses are cancelled via the progress monitor of
+ * {@link #getServices()}, which the analyses have to use for the construction of their solvers. An analysis that
+ * fails with an {@link SMTLIBException}, a {@link TermException} or an {@link IOException} is inconclusive, the other
+ * analyses keep running.
+ */
+final class LassoAnalysisPortfolio {
+
+	private static final String NONTERMINATION = "nontermination";
+
+	private final IUltimateServiceProvider mServices;
+	private final ILogger mLogger;
+	private final int mThreads;
+	private final CancelableTimer mTimer;
+	private IUltimateServiceProvider mPortfolioServices;
+
+	private final Map<String, Callable<?>> mAnalyses = new LinkedHashMap<>();
+	private final List<String> mNames = new ArrayList<>();
+	private final Map<String, Long> mStartTimes = new ConcurrentHashMap<>();
+	private final Map<String, Long> mTimes = new ConcurrentHashMap<>();
+	private final Set<String> mFailed = ConcurrentHashMap.newKeySet();
+	private long mEndTime;
+
+	private String mWinner;
+	private TerminationArgument mTerminationArgument;
+	private NonTerminationArgument mNonTerminationArgument;
+
+	LassoAnalysisPortfolio(final IUltimateServiceProvider services, final ILogger logger, final int threads) {
+		mServices = services;
+		mLogger = logger;
+		mThreads = threads;
+		mTimer = new CancelableTimer(services.getProgressMonitorService().getChildTimer(1.0));
+		mPortfolioServices = services.getProgressMonitorService().registerChildTimer(services, mTimer);
+	}
+
+	/**
+	 * @return the services whose progress monitor stops once the portfolio has a result
+	 */
+	IUltimateServiceProvider getServices() {
+		assert mPortfolioServices != null : "portfolio already finished";
+		return mPortfolioServices;
+	}
+
+	void addNonterminationAnalysis(final Callable<NonTerminationArgument> analysis) {
+		mAnalyses.put(NONTERMINATION, analysis);
+		mNames.add(NONTERMINATION);
+	}
+
+	/**
+	 * Adds the termination analysis with one template. Templates that are added first are started first.
+	 */
+	void addTemplate(final String templateName, final Callable<TerminationArgument> analysis) {
+		mAnalyses.put(templateName, analysis);
+		mNames.add(templateName);
+	}
+
+	/**
+	 * Runs all analyses until one is conclusive or all are finished. Afterwards the child timer of the portfolio is
+	 * cancelled and the portfolio drops its services and analyses, such that the timer is no longer reachable from
+	 * the portfolio.
+	 *
+	 * @param runningTaskInfo
+	 *            description of the task in case the toolchain is cancelled
+	 */
+	void run(final String runningTaskInfo) {
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(mThreads, mAnalyses.size()));
+		final CompletionService<AnalysisResult> completion = new ExecutorCompletionService<>(executor);
+		final List<Future<AnalysisResult>> futures = new ArrayList<>();
+		try {
+			for (final Map.Entry<String, Callable<?>> entry : mAnalyses.entrySet()) {
+				futures.add(completion.submit(() -> runAnalysis(entry.getKey(), entry.getValue())));
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				final AnalysisResult finished = completion.take().get();
+				if (finished.mResult == null) {
+					continue;
+				}
+				mWinner = finished.mName;
+				if (finished.mResult instanceof NonTerminationArgument) {
+					mNonTerminationArgument = (NonTerminationArgument) finished.mResult;
+				} else {
+					mTerminationArgument = (TerminationArgument) finished.mResult;
+				}
+				mLogger.info("Lasso analysis portfolio: " + mWinner + " was conclusive first");
+				break;
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ToolchainCanceledException(getClass(), runningTaskInfo);
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof ToolchainCanceledException) {
+				throw (ToolchainCanceledException) cause;
+			}
+			throw new ToolchainExceptionWrapper(Activator.PLUGIN_ID, cause);
+		} finally {
+			mEndTime = System.nanoTime();
+			mTimer.cancel();
+			executor.shutdownNow();
+			awaitTermination(executor);
+			mAnalyses.clear();
+			mPortfolioServices = null;
+		}
+		if (mWinner == null && !mServices.getProgressMonitorService().continueProcessing()) {
+			throw new ToolchainCanceledException(getClass(), runningTaskInfo);
+		}
+	}
+
+	/**
+	 * Waits until the cancelled analyses have stopped, such that none of them still uses its solver after the
+	 * portfolio returned. Waits at most as long as the toolchain may still run.
+	 */
+	private void awaitTermination(final ExecutorService executor) {
+		final long timeout = mServices.getProgressMonitorService().remainingTime();
+		final long remaining = timeout < 0 ? Long.MAX_VALUE : timeout;
+		try {
+			if (!executor.awaitTermination(remaining, TimeUnit.MILLISECONDS)) {
+				mLogger.warn("Lasso analysis portfolio: cancelled analyses did not stop within " + remaining + "ms");
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private AnalysisResult runAnalysis(final String name, final Callable<?> analysis) throws Exception {
+		final long startTime = System.nanoTime();
+		mStartTimes.put(name, startTime);
+		try {
+			return new AnalysisResult(name, analysis.call());
+		} catch (final ToolchainCanceledException e) {
+			if (isStoppedByPortfolio()) {
+				// another analysis was conclusive
+				return new AnalysisResult(name, null);
+			}
+			throw e;
+		} catch (final SMTLIBException | TermException | IOException e) {
+			if (!isStoppedByPortfolio()) {
+				// e.g., the solver of this analysis does not support the lasso, the other analyses may still succeed
+				mLogger.warn(String.format("Lasso analysis portfolio: %s failed: %s", name, e));
+				mFailed.add(name);
+			}
+			return new AnalysisResult(name, null);
+		} finally {
+			mTimes.put(name, System.nanoTime() - startTime);
+		}
+	}
+
+	private boolean isStoppedByPortfolio() {
+		return mTimer.isCanceled() && mServices.getProgressMonitorService().continueProcessing();
+	}
+
+	/**
+	 * @return the names of the analyses that failed with an exception
+	 */
+	Set<String> getFailedAnalyses() {
+		return Collections.unmodifiableSet(mFailed);
+	}
+
+	/**
+	 * @return the name of the conclusive analysis, or null if no analysis was conclusive
+	 */
+	String getWinner() {
+		return mWinner;
+	}
+
+	TerminationArgument getTerminationArgument() {
+		return mTerminationArgument;
+	}
+
+	NonTerminationArgument getNonTerminationArgument() {
+		return mNonTerminationArgument;
+	}
+
+	/**
+	 * @return the time in nanoseconds that each template that was started ran until it finished or until the portfolio
+	 *         had a result
+	 */
+	Map<String, Long> getTemplateTimes() {
+		final Map<String, Long> rtr = new LinkedHashMap<>();
+		for (final String name : mNames) {
+			if (NONTERMINATION.equals(name)) {
+				continue;
+			}
+			final Long time = mTimes.get(name);
+			final Long startTime = mStartTimes.get(name);
+			if (time != null) {
+				rtr.put(name, time);
+			} else if (startTime != null) {
+				rtr.put(name, mEndTime - startTime);
+			}
+		}
+		return rtr;
+	}
+
+	private static final class AnalysisResult {
+		private final String mName;
+		private final Object mResult;
+
+		private AnalysisResult(final String name, final Object result) {
+			mName = name;
+			mResult = result;
+		}
+	}
+
+	/**
+	 * A timer that expires when its parent expires or when it is cancelled.
+	 */
+	private static final class CancelableTimer implements IProgressAwareTimer {
+		private final IProgressAwareTimer mTimer;
+		private volatile boolean mCanceled;
+
+		private CancelableTimer(final IProgressAwareTimer timer) {
+			mTimer = timer;
+		}
+
+		void cancel() {
+			mCanceled = true;
+		}
+
+		boolean isCanceled() {
+			return mCanceled;
+		}
+
+		@Override
+		public boolean continueProcessing() {
+			return !mCanceled && mTimer.continueProcessing();
+		}
+
+		@Override
+		public IProgressAwareTimer getChildTimer(final long timeout) {
+			return mTimer.getChildTimer(timeout);
+		}
+
+		@Override
+		public IProgressAwareTimer getChildTimer(final double percentage) {
+			return mTimer.getChildTimer(percentage);
+		}
+
+		@Override
+		public IProgressAwareTimer getTimer(final long timeout) {
+			return mTimer.getTimer(timeout);
+		}
+
+		@Override
+		public IProgressAwareTimer getParent() {
+			return mTimer.getParent();
+		}
+
+		@Override
+		public long getDeadline() {
+			return mTimer.getDeadline();
+		}
+
+		@Override
+		public long remainingTime() {
+			return mCanceled ? 0 : mTimer.remainingTime();
+		}
+	}
+}
@@ -29,7 +29,9 @@ package de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import de.uni_freiburg.informatik.ultimate.automata.IAutomaton;
@@ -39,7 +41,6 @@ import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomat
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.NestedLassoRun;
 import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.RunningTaskInfo;
 import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.ToolchainCanceledException;
-import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.ToolchainExceptionWrapper;
 import de.uni_freiburg.informatik.ultimate.core.lib.results.StatisticsResult;
 import de.uni_freiburg.informatik.ultimate.core.model.preferences.IPreferenceProvider;
 import de.uni_freiburg.informatik.ultimate.core.model.results.IResult;
@@ -73,6 +74,7 @@ import de.uni_freiburg.informatik.ultimate.lassoranker.variables.InequalityConve
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.CfgSmtToolkit;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.SmtFunctionsAndAxioms;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IIcfgTransition;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IcfgLocation;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.transitions.TransFormulaBuilder;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.transitions.UnmodifiableTransFormula;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.variables.IProgramNonOldVar;
@@ -150,6 +152,12 @@ public class LassoCheck<L extends IIcfgTransition<?>> {
 	 */
 	private final boolean mTemplateBenchmarkMode;
 
+	/**
+	 * Number of threads used to run the nontermination analysis and the templates of the termination analysis
+	 * concurrently, or 0 if they are run one after another.
+	 */
+	private final int mPortfolioThreads;
+
 	// ////////////////////////////// input /////////////////////////////////
 	/**
 	 * Intermediate layer to encapsulate communication with SMT solvers.
@@ -193,6 +201,7 @@ public class LassoCheck<L extends IIcfgTransition<?>> {
 
 	private final List<TerminationAnalysisBenchmark> mTerminationAnalysisBenchmarks = new ArrayList<>();
 	private final List<NonterminationAnalysisBenchmark> mNonterminationAnalysisBenchmarks = new ArrayList<>();
+	private final Map<String, Long> mTemplateTimes = new LinkedHashMap<>();
 
 	private final StrategyFactory<L> mRefinementStrategyFactory;
 
@@ -207,13 +216,16 @@ public class LassoCheck<L extends IIcfgTransition<?>> {
 
 	private final PredicateFactoryForInterpolantAutomata mStateFactoryForInterpolantAutomaton;
 
+	private final TerminationArgumentCache<L> mTerminationArgumentCache;
+
 	public LassoCheck(final CfgSmtToolkit csToolkit, final PredicateFactory predicateFactory,
 			final SmtFunctionsAndAxioms smtSymbols, final BinaryStatePredicateManager bspm,
 			final NestedLassoRun<L, IPredicate> counterexample, final String lassoCheckIdentifier,
 			final IUltimateServiceProvider services, final SimplificationTechnique simplificationTechnique,
 			final XnfConversionTechnique xnfConversionTechnique, final StrategyFactory<L> refinementStrategyFactory,
 			final IAutomaton<L, IPredicate> abstraction, final TaskIdentifier taskIdentifier,
-			final BuchiCegarLoopBenchmarkGenerator cegarStatistics) throws IOException {
+			final BuchiCegarLoopBenchmarkGenerator cegarStatistics,
+			final TerminationArgumentCache<L> terminationArgumentCache) throws IOException {
 		mServices = services;
 		mSimplificationTechnique = simplificationTechnique;
 		mXnfConversionTechnique = xnfConversionTechnique;
@@ -227,6 +239,12 @@ public class LassoCheck<L extends IIcfgTransition<?>> {
 
 		mTemplateBenchmarkMode = baPref.getBoolean(BuchiAutomizerPreferenceInitializer.LABEL_TEMPLATE_BENCHMARK_MODE);
 		mTrySimplificationTerminationArgument = baPref.getBoolean(BuchiAutomizerPreferenceInitializer.LABEL_SIMPLIFY);
+		if (baPref.getBoolean(BuchiAutomizerPreferenceInitializer.LABEL_LASSO_ANALYSIS_PORTFOLIO)) {
+			mPortfolioThreads =
+					baPref.getInt(BuchiAutomizerPreferenceInitializer.LABEL_LASSO_ANALYSIS_PORTFOLIO_THREADS);
+		} else {
+			mPortfolioThreads = 0;
+		}
 		mTryTwofoldRefinement = baPref.getBoolean(BuchiAutomizerPreferenceInitializer.LABEL_TRY_TWOFOLD_REFINEMENT);
 		mCsToolkit = csToolkit;
 		mBspm = bspm;
@@ -237,6 +255,7 @@ public class LassoCheck<L extends IIcfgTransition<?>> {
 		mAbstraction = abstraction;
 		mTaskIdentifier = taskIdentifier;
 		mCegarStatistics = cegarStatistics;
+		mTerminationArgumentCache = terminationArgumentCache;
 
 		mPredicateFactory = predicateFactory;
 		// TODO: I am unsure about the following flag
@@ -309,6 +328,13 @@ public class LassoCheck<L extends IIcfgTransition<?>> {
 		return mNonterminationAnalysisBenchmarks;
 	}
 
+	/**
+	 * @return for each ranking function template that was tried, the time in nanoseconds that was spent on it
+	 */
+	public Map<String, Long> getTemplateTimes() {
+		return mTemplateTimes;
+	}
+
 	/**
 	 * Compute TransFormula that represents the stem.
 	 */
@@ -539,6 +565,13 @@ public class LassoCheck<L extends IIcfgTransition<?>> {
 		if (!withStem) {
 			stemTF = TransFormulaBuilder.getTrivialTransFormula(mCsToolkit.getManagedScript());
 		}
+		if (mTerminationArgumentCache != null) {
+			if (reuseTerminationArgument(withStem, stemTF, loopTF, modifiableGlobalsAtHonda)) {
+				mCegarStatistics.reportTerminationArgumentCacheHit();
+				return SynthesisResult.TERMINATING;
+			}
+			mCegarStatistics.reportTerminationArgumentCacheMiss();
+		}
 		// TODO: present this somewhere else
 		// int loopVars = loopTF.getFormula().getFreeVars().length;
 		// if (stemTF == null) {
@@ -561,6 +594,10 @@ public class LassoCheck<L extends IIcfgTransition<?>> {
 		final boolean doNonterminationAnalysis =
 				(!AVOID_NONTERMINATION_CHECK_IF_ARRAYS_ARE_CONTAINED || !containsArrays);
 
+		if (mPortfolioThreads > 0 && !mTemplateBenchmarkMode) {
+			return synthesizeInPortfolio(withStem, stemTF, loopTF, modifiableGlobalsAtHonda, doNonterminationAnalysis);
+		}
+
 		NonTerminationArgument nonTermArgument = null;
 		if (doNonterminationAnalysis) {
 			LassoAnalysis laNT = null;
@@ -571,21 +608,14 @@ public class LassoCheck<L extends IIcfgTransition<?>> {
 								NlaHandling.UNDERAPPROXIMATE, AnalysisTechnique.GEOMETRIC_NONTERMINATION_ARGUMENTS),
 						mServices, mSimplificationTechnique, mXnfConversionTechnique);
 				mPreprocessingBenchmarks.add(laNT.getPreprocessingBenchmark());
-			} catch (final TermException e) {
-				e.printStackTrace();
-				throw new AssertionError("TermException " + e);
-			}
-			try {
 				final NonTerminationAnalysisSettings settings = constructNTASettings();
 				nonTermArgument = laNT.checkNonTermination(settings);
 				final List<NonterminationAnalysisBenchmark> benchs = laNT.getNonterminationAnalysisBenchmarks();
 				mNonterminationAnalysisBenchmarks.addAll(benchs);
-			} catch (final SMTLIBException e) {
-				e.printStackTrace();
-				throw new AssertionError("SMTLIBException " + e);
-			} catch (final TermException e) {
-				e.printStackTrace();
-				throw new AssertionError("TermException " + e);
+			} catch (final SMTLIBException | TermException e) {
+				// like a failed template, a failed nontermination analysis is inconclusive
+				mLogger.warn("Nontermination analysis failed: " + e);
+				nonTermArgument = null;
 			}
 			if (withStem) {
 				mNonterminationArgument = nonTermArgument;
@@ -608,6 +638,140 @@ public class LassoCheck<L extends IIcfgTransition<?>> {
 			throw new AssertionError("TermException " + e);
 		}
 
+		final List<RankingTemplate> rankingFunctionTemplates = constructRankingTemplates();
+		final TerminationArgument termArg =
+				tryTemplatesAndComputePredicates(withStem, laT, rankingFunctionTemplates, stemTF, loopTF);
+		assert nonTermArgument == null || termArg == null : " terminating and nonterminating";
+		if (termArg != null) {
+			if (mTerminationArgumentCache != null) {
+				mTerminationArgumentCache.put(mCounterexample.getLoop().getWord(), getHonda(), modifiableGlobalsAtHonda,
+						withStem, termArg);
+			}
+			return SynthesisResult.TERMINATING;
+		}
+		if (nonTermArgument != null) {
+			return SynthesisResult.NONTERMINATING;
+		}
+		return SynthesisResult.UNKNOWN;
+	}
+
+	/**
+	 * Runs the nontermination analysis and the termination analysis with all templates concurrently and uses the
+	 * result that was found first.
+	 */
+	private SynthesisResult synthesizeInPortfolio(final boolean withStem, final UnmodifiableTransFormula stemTF,
+			final UnmodifiableTransFormula loopTF, final Set<IProgramNonOldVar> modifiableGlobalsAtHonda,
+			final boolean doNonterminationAnalysis) throws IOException {
+		final LassoAnalysisPortfolio portfolio = new LassoAnalysisPortfolio(mServices, mLogger, mPortfolioThreads);
+		// the lassos are preprocessed here, only the synthesis runs concurrently
+		LassoAnalysis laNT = null;
+		LassoAnalysis laT = null;
+		if (doNonterminationAnalysis) {
+			try {
+				laNT = new LassoAnalysis(mCsToolkit, stemTF, loopTF, modifiableGlobalsAtHonda, mSmtSymbols,
+						constructLassoRankerPreferences(withStem, false, NlaHandling.UNDERAPPROXIMATE,
+								AnalysisTechnique.GEOMETRIC_NONTERMINATION_ARGUMENTS),
+						portfolio.getServices(), mSimplificationTechnique, mXnfConversionTechnique);
+				mPreprocessingBenchmarks.add(laNT.getPreprocessingBenchmark());
+				final LassoAnalysis nonterminationAnalysis = laNT;
+				final NonTerminationAnalysisSettings settings = constructNTASettings();
+				portfolio.addNonterminationAnalysis(() -> nonterminationAnalysis.checkNonTermination(settings));
+			} catch (final TermException e) {
+				// as in the sequential mode, the portfolio then only runs the termination analyses
+				mLogger.warn("Preprocessing of the lasso for the nontermination analysis failed: " + e);
+				laNT = null;
+			}
+		}
+		try {
+			laT = new LassoAnalysis(mCsToolkit, stemTF, loopTF, modifiableGlobalsAtHonda, mSmtSymbols,
+					constructLassoRankerPreferences(withStem, true, NlaHandling.OVERAPPROXIMATE,
+							AnalysisTechnique.RANKING_FUNCTIONS_SUPPORTING_INVARIANTS),
+					portfolio.getServices(), mSimplificationTechnique, mXnfConversionTechnique);
+			mPreprocessingBenchmarks.add(laT.getPreprocessingBenchmark());
+		} catch (final TermException e) {
+			mLogger.error("Preprocessing of the lasso for the portfolio failed", e);
+			throw new AssertionError("TermException " + e);
+		}
+		final LassoAnalysis terminationAnalysis = laT;
+		for (final RankingTemplate rft : constructRankingTemplates()) {
+			final TerminationAnalysisSettings settings = constructTASettings();
+			portfolio.addTemplate(rft.getName(), () -> terminationAnalysis.tryTemplateConcurrently(rft, settings));
+		}
+
+		portfolio.run("applying lasso analysis portfolio, stem dagsize " + new DagSizePrinter(stemTF.getFormula())
+				+ ", loop dagsize " + new DagSizePrinter(loopTF.getFormula()));
+
+		if (laNT != null) {
+			mNonterminationAnalysisBenchmarks.addAll(laNT.getNonterminationAnalysisBenchmarks());
+		}
+		mTerminationAnalysisBenchmarks.addAll(laT.getTerminationAnalysisBenchmarks());
+		portfolio.getTemplateTimes().forEach((template, time) -> mTemplateTimes.merge(template, time, Long::sum));
+
+		final NonTerminationArgument nonTermArgument = portfolio.getNonTerminationArgument();
+		if (nonTermArgument != null) {
+			if (withStem) {
+				mNonterminationArgument = nonTermArgument;
+			}
+			return SynthesisResult.NONTERMINATING;
+		}
+		final TerminationArgument termArg = portfolio.getTerminationArgument();
+		if (termArg != null) {
+			assert termArg.getRankingFunction() != null;
+			assert termArg.getSupportingInvariants() != null;
+			mBspm.computePredicates(!withStem, termArg, mRemoveSuperfluousSupportingInvariants, stemTF, loopTF,
+					modifiableGlobalsAtHonda);
+			assert mBspm.providesPredicates();
+			assert isRankingFunctionCorrect() : "incorrect ranking function with " + portfolio.getWinner();
+			if (mTerminationArgumentCache != null) {
+				mTerminationArgumentCache.put(mCounterexample.getLoop().getWord(), getHonda(), modifiableGlobalsAtHonda,
+						withStem, termArg);
+			}
+			return SynthesisResult.TERMINATING;
+		}
+		return SynthesisResult.UNKNOWN;
+	}
+
+	/**
+	 * Tries to reuse a termination argument that was synthesized for the same loop in an earlier iteration. Before a
+	 * cached argument is accepted, the decrease of its ranking function and the consecution of its supporting
+	 * invariants are checked for the loop, and for an argument of a lasso also the initiation of its supporting
+	 * invariants after the current stem.
+	 *
+	 * @return true iff a termination argument was found and the predicates were computed for it
+	 */
+	private boolean reuseTerminationArgument(final boolean withStem, final UnmodifiableTransFormula stemTF,
+			final UnmodifiableTransFormula loopTF, final Set<IProgramNonOldVar> modifiableGlobalsAtHonda) {
+		final NestedWord<L> loop = mCounterexample.getLoop().getWord();
+		final TerminationArgument termArg = mTerminationArgumentCache.lookup(loop, getHonda(),
+				modifiableGlobalsAtHonda, withStem, cached -> {
+					mBspm.computePredicates(!withStem, cached, mRemoveSuperfluousSupportingInvariants, stemTF, loopTF,
+							modifiableGlobalsAtHonda);
+					if (isRankingFunctionCorrect() && mBspm.checkSupportingInvariantsConsecution(loop)) {
+						return true;
+					}
+					mLogger.info("Termination argument from an earlier iteration is not valid for this loop");
+					mBspm.clearPredicates();
+					return false;
+				}, cached -> {
+					if (mBspm.checkSupportingInvariantsAfterStem(mCounterexample.getStem().getWord())) {
+						return true;
+					}
+					mLogger.info("Termination argument from an earlier iteration is not valid for this stem");
+					mBspm.clearPredicates();
+					return false;
+				});
+		if (termArg == null) {
+			return false;
+		}
+		mLogger.info("Reusing termination argument from an earlier iteration");
+		return true;
+	}
+
+	private IcfgLocation getHonda() {
+		return ((ISLPredicate) mCounterexample.getLoop().getStateAtPosition(0)).getProgramPoint();
+	}
+
+	private List<RankingTemplate> constructRankingTemplates() {
 		final List<RankingTemplate> rankingFunctionTemplates = new ArrayList<>();
 		rankingFunctionTemplates.add(new AffineTemplate());
 
@@ -645,17 +809,7 @@ public class LassoCheck<L extends IIcfgTransition<?>> {
 			rankingFunctionTemplates.add(new PiecewiseTemplate(4));
 		}
 		// }
-
-		final TerminationArgument termArg =
-				tryTemplatesAndComputePredicates(withStem, laT, rankingFunctionTemplates, stemTF, loopTF);
-		assert nonTermArgument == null || termArg == null : " terminating and nonterminating";
-		if (termArg != null) {
-			return SynthesisResult.TERMINATING;
-		}
-		if (nonTermArgument != null) {
-			return SynthesisResult.NONTERMINATING;
-		}
-		return SynthesisResult.UNKNOWN;
+		return rankingFunctionTemplates;
 	}
 
 	/**
@@ -681,7 +835,9 @@ public class LassoCheck<L extends IIcfgTransition<?>> {
 			TerminationArgument termArg;
 			try {
 				final TerminationAnalysisSettings settings = constructTASettings();
+				final long startTime = System.nanoTime();
 				termArg = la.tryTemplate(rft, settings);
+				mTemplateTimes.merge(rft.getName(), System.nanoTime() - startTime, Long::sum);
 				if (!mServices.getProgressMonitorService().continueProcessing()) {
 					throw new ToolchainCanceledException(this.getClass(), generateRunningTaskInfo(stemTF, loopTF, rft));
 				}
@@ -695,7 +851,8 @@ public class LassoCheck<L extends IIcfgTransition<?>> {
 					}
 				}
 			} catch (final SMTLIBException | TermException e) {
-				throw new ToolchainExceptionWrapper(Activator.PLUGIN_ID, e);
+				mLogger.warn(String.format("Termination analysis with %s template failed: %s", rft.getName(), e));
+				continue;
 			}
 			if (termArg != null) {
 				assert termArg.getRankingFunction() != null;
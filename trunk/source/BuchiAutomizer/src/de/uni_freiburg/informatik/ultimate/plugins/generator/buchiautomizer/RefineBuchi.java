@@ -35,11 +35,13 @@ import java.util.TreeMap;
 
 import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
 import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
 import de.uni_freiburg.informatik.ultimate.automata.AutomatonDefinitionPrinter.Format;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.IGeneralizedNwaOutgoingLetterAndTransitionProvider;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.INwaOutgoingLetterAndTransitionProvider;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWord;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomataUtils;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.AbstractBuchiDifference;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.AbstractGeneralizedBuchiDifference;
@@ -47,11 +49,13 @@ import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.BuchiAccept
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.BuchiComplementFKV;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.BuchiDifferenceFKV;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.BuchiDifferenceNCSB;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.BuchiDifferenceNCSBBitSet;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.BuchiDifferenceNCSBLazy;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.BuchiDifferenceNCSBLazy2;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.BuchiDifferenceNCSBLazy3;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.BuchiDifferenceNCSBSimple;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.BuchiIntersect;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.BuchiIsIncludedNCSBAntichain;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.BuchiToGeneralizedBuchi;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.GeneralizedBuchiDifferenceFKV;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.GeneralizedBuchiDifferenceNCSBAntichain;
@@ -69,6 +73,7 @@ import de.uni_freiburg.informatik.ultimate.automata.statefactory.IEmptyStackStat
 import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.RunningTaskInfo;
 import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.ToolchainCanceledException;
 import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IProgressMonitorService;
 import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.CfgSmtToolkit;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IIcfgTransition;
@@ -119,6 +124,11 @@ public class RefineBuchi<LETTER extends IIcfgTransition<?>> {
 	private BackwardCoveringInformation mBci;
 	private final NcsbImplementation mNcsbImplementation;
 	private final String mIdentifier;
+	/**
+	 * Time in milliseconds for the inclusion check that may replace the difference, 0 if this check is disabled.
+	 */
+	private final long mInclusionCheckTimeout;
+	private boolean mDifferenceSkipped;
 
 	/**
 	 * Interpolant automaton of this iteration.
@@ -134,7 +144,7 @@ public class RefineBuchi<LETTER extends IIcfgTransition<?>> {
 			final String dumpPath, final Format format, final InterpolationTechnique interpolation,
 			final IUltimateServiceProvider services, final ILogger logger,
 			final SimplificationTechnique simplificationTechnique, final XnfConversionTechnique xnfConversionTechnique,
-			final NcsbImplementation ncsbImplementation, final String identifier) {
+			final NcsbImplementation ncsbImplementation, final String identifier, final long inclusionCheckTimeout) {
 		mServices = services;
 		mLogger = logger;
 		mCsToolkit = csToolkit;
@@ -151,6 +161,7 @@ public class RefineBuchi<LETTER extends IIcfgTransition<?>> {
 		mXnfConversionTechnique = xnfConversionTechnique;
 		mNcsbImplementation = ncsbImplementation;
 		mIdentifier = identifier;
+		mInclusionCheckTimeout = inclusionCheckTimeout;
 	}
 
 	public INwaOutgoingLetterAndTransitionProvider<LETTER, IPredicate> getInterpolAutomatonUsedInRefinement() {
@@ -161,6 +172,14 @@ public class RefineBuchi<LETTER extends IIcfgTransition<?>> {
 		return mBci;
 	}
 
+	/**
+	 * @return true iff the last refinement did not compute the difference because the language of the abstraction is
+	 *         included in the language of the interpolant automaton (the result is then the empty automaton)
+	 */
+	public boolean isDifferenceSkipped() {
+		return mDifferenceSkipped;
+	}
+
 	private int mIteration;
 
 	public INestedWordAutomaton<LETTER, IPredicate> refineBuchi(
@@ -170,6 +189,7 @@ public class RefineBuchi<LETTER extends IIcfgTransition<?>> {
 			final InterpolationTechnique interpolation, final BuchiCegarLoopBenchmarkGenerator benchmarkGenerator,
 			final BuchiComplementationConstruction complementationConstruction) throws AutomataLibraryException {
 		mIteration = iteration;
+		mDifferenceSkipped = false;
 		final NestedWord<LETTER> stem = mCounterexample.getStem().getWord();
 		final NestedWord<LETTER> loop = mCounterexample.getLoop().getWord();
 
@@ -232,7 +252,16 @@ public class RefineBuchi<LETTER extends IIcfgTransition<?>> {
 		if (mDifference) {
 			if (complementationConstruction == BuchiComplementationConstruction.NCSB) {
 				if (setting.isAlwaysSemiDeterministic()) {
-					newAbstraction = nsbcDifference(abstraction, setting, benchmarkGenerator);
+					if (isIncludedInInterpolantAutomaton(abstraction)) {
+						// the difference is empty
+						finishComputation(mInterpolAutomatonUsedInRefinement, setting);
+						benchmarkGenerator.reportSkippedDifference();
+						mDifferenceSkipped = true;
+						newAbstraction = new NestedWordAutomaton<>(new AutomataLibraryServices(mServices),
+								abstraction.getVpAlphabet(), mStateFactoryForRefinement);
+					} else {
+						newAbstraction = nsbcDifference(abstraction, setting, benchmarkGenerator);
+					}
 				} else {
 					final FkvOptimization optimization = FkvOptimization.ELASTIC;
 					newAbstraction = rankBasedOptimization(abstraction, setting, benchmarkGenerator, stateDeterminizer,
@@ -392,6 +421,39 @@ public class RefineBuchi<LETTER extends IIcfgTransition<?>> {
 		}
 	}
 
+	/**
+	 * Antichain-based check whether the language of the abstraction is included in the language of the (semi-
+	 * deterministic) interpolant automaton. The check gets only {@link #mInclusionCheckTimeout} milliseconds, if it does
+	 * not finish in time the difference is computed as usual.
+	 */
+	private boolean isIncludedInInterpolantAutomaton(
+			final INwaOutgoingLetterAndTransitionProvider<LETTER, IPredicate> abstraction)
+			throws AutomataLibraryException {
+		if (mInclusionCheckTimeout <= 0 || !NestedWordAutomataUtils.isFiniteAutomaton(abstraction)
+				|| !NestedWordAutomataUtils.isFiniteAutomaton(mInterpolAutomatonUsedInRefinement)) {
+			return false;
+		}
+		final IProgressMonitorService progressMonitor = mServices.getProgressMonitorService();
+		final IUltimateServiceProvider budgetServices =
+				progressMonitor.registerChildTimer(mServices, progressMonitor.getChildTimer(mInclusionCheckTimeout));
+		try {
+			final boolean isIncluded =
+					new BuchiIsIncludedNCSBAntichain<>(new AutomataLibraryServices(budgetServices),
+							mStateFactoryForRefinement, abstraction, mInterpolAutomatonUsedInRefinement).getResult();
+			if (isIncluded) {
+				mLogger.info("Language of abstraction is included in language of interpolant automaton, "
+						+ "skipping difference");
+			}
+			return isIncluded;
+		} catch (final AutomataOperationCanceledException | ToolchainCanceledException e) {
+			if (!progressMonitor.continueProcessing()) {
+				throw e;
+			}
+			mLogger.info("Inclusion check did not finish within " + mInclusionCheckTimeout + "ms");
+			return false;
+		}
+	}
+
 	private INestedWordAutomaton<LETTER, IPredicate> nsbcDifference(
 			final INwaOutgoingLetterAndTransitionProvider<LETTER, IPredicate> abstraction,
 			final BuchiInterpolantAutomatonConstructionStyle setting,
@@ -482,6 +544,10 @@ public class RefineBuchi<LETTER extends IIcfgTransition<?>> {
 			diff = new BuchiDifferenceNCSBLazy3<>(new AutomataLibraryServices(mServices), mStateFactoryForRefinement,
 					abstraction, mInterpolAutomatonUsedInRefinement);
 			break;
+		case INTSET_BITSET:
+			diff = new BuchiDifferenceNCSBBitSet<>(new AutomataLibraryServices(mServices), mStateFactoryForRefinement,
+					abstraction, mInterpolAutomatonUsedInRefinement);
+			break;
 		case ORIGINAL:
 			diff = new BuchiDifferenceNCSB<>(new AutomataLibraryServices(mServices), mStateFactoryForRefinement,
 					abstraction, mInterpolAutomatonUsedInRefinement);
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE BuchiAutomizer plug-in.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE BuchiAutomizer plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE BuchiAutomizer plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE BuchiAutomizer plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWord;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.TerminationArgument;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IcfgLocation;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.variables.IProgramNonOldVar;
+
+/**
+ * Remembers the termination arguments that were synthesized for the loops of lassos in previous iterations of the
+ * CEGAR loop. A loop is identified by its nested word (the letters and the nesting relation), its honda, and the
+ * global variables that are modifiable at the honda.
+ *
+ * A cached argument is never trusted blindly, every lookup has to check that the ranking function decreases and that
+ * the supporting invariants are inductive for the loop. For an argument that was synthesized together with a stem
+ * the initiation of the supporting invariants has to be checked for the new stem in addition.
+ *
+ * @param <L>
+ *            letter type
+ */
+public class TerminationArgumentCache<L> {
+
+	private final Map<LoopKey<L>, TerminationArgument> mLoopArguments = new HashMap<>();
+	private final Map<LoopKey<L>, TerminationArgument> mLassoArguments = new HashMap<>();
+
+	/**
+	 * Looks for a termination argument of this loop. An argument that was synthesized for the loop alone is preferred,
+	 * an argument that was synthesized together with a (maybe different) stem is only considered if the current lasso
+	 * has a stem.
+	 *
+	 * @param isValidForLoop
+	 *            checks that the ranking function of an argument decreases and that its supporting invariants are
+	 *            inductive for the loop
+	 * @param holdsAfterStem
+	 *            checks that the supporting invariants of an argument hold after the current stem, is only applied to
+	 *            arguments that passed {@code isValidForLoop}
+	 * @return a cached termination argument that passed the checks, or null
+	 */
+	public TerminationArgument lookup(final NestedWord<L> loop, final IcfgLocation honda,
+			final Set<IProgramNonOldVar> modifiableGlobals, final boolean withStem,
+			final Predicate<TerminationArgument> isValidForLoop, final Predicate<TerminationArgument> holdsAfterStem) {
+		final LoopKey<L> key = new LoopKey<>(loop, honda, modifiableGlobals);
+		final TerminationArgument loopArgument = mLoopArguments.get(key);
+		if (loopArgument != null && isValidForLoop.test(loopArgument)) {
+			return loopArgument;
+		}
+		if (!withStem) {
+			return null;
+		}
+		final TerminationArgument lassoArgument = mLassoArguments.get(key);
+		if (lassoArgument != null && isValidForLoop.test(lassoArgument) && holdsAfterStem.test(lassoArgument)) {
+			return lassoArgument;
+		}
+		return null;
+	}
+
+	public void put(final NestedWord<L> loop, final IcfgLocation honda, final Set<IProgramNonOldVar> modifiableGlobals,
+			final boolean withStem, final TerminationArgument termArg) {
+		final LoopKey<L> key = new LoopKey<>(loop, honda, modifiableGlobals);
+		if (withStem) {
+			mLassoArguments.put(key, termArg);
+		} else {
+			mLoopArguments.put(key, termArg);
+		}
+	}
+
+	/**
+	 * {@link NestedWord} does not implement equals, the key therefore copies the letters and the nesting relation.
+	 */
+	private static final class LoopKey<L> {
+		private final List<L> mLetters;
+		private final int[] mNestingRelation;
+		private final IcfgLocation mHonda;
+		private final Set<IProgramNonOldVar> mModifiableGlobals;
+		private final int mHashCode;
+
+		private LoopKey(final NestedWord<L> loop, final IcfgLocation honda,
+				final Set<IProgramNonOldVar> modifiableGlobals) {
+			mLetters = new ArrayList<>(loop.asList());
+			mNestingRelation = new int[loop.length()];
+			for (int i = 0; i < loop.length(); i++) {
+				if (loop.isInternalPosition(i)) {
+					mNestingRelation[i] = NestedWord.INTERNAL_POSITION;
+				} else if (loop.isCallPosition(i)) {
+					mNestingRelation[i] = loop.getReturnPosition(i);
+				} else {
+					mNestingRelation[i] = loop.getCallPosition(i);
+				}
+			}
+			mHonda = honda;
+			mModifiableGlobals = Set.copyOf(modifiableGlobals);
+			mHashCode = Objects.hash(mLetters, Arrays.hashCode(mNestingRelation), mHonda, mModifiableGlobals);
+		}
+
+		@Override
+		public int hashCode() {
+			return mHashCode;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof LoopKey)) {
+				return false;
+			}
+			final LoopKey<?> other = (LoopKey<?>) obj;
+			return mHashCode == other.mHashCode && mLetters.equals(other.mLetters)
+					&& Arrays.equals(mNestingRelation, other.mNestingRelation) && mHonda.equals(other.mHonda)
+					&& mModifiableGlobals.equals(other.mModifiableGlobals);
+		}
+	}
+}
@@ -41,6 +41,7 @@ import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutoma
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.BuchiClosureNwa;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.BuchiIsEmpty;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.BuchiIsEmptyOnTheFly;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.GeneralizedBuchiIsEmpty;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.NestedLassoRun;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.Difference;
@@ -103,6 +104,9 @@ public class BuchiAutomatonCegarLoop<L extends IIcfgTransition<?>>
 	private final BuchiComplementationConstruction mComplementationConstruction;
 	private final Minimization mAutomataMinimizationAfterFeasbilityBasedRefinement;
 	private final Minimization mAutomataMinimizationAfterRankBasedRefinement;
+	private final int mEmptinessCheckSccThreads;
+	private final int mMinimizationThreads;
+	private final boolean mOnTheFlyEmptinessCheck;
 
 	public BuchiAutomatonCegarLoop(final IIcfg<?> icfg, final RankVarConstructor rankVarConstructor,
 			final PredicateFactory predicateFactory, final TAPreferences taPrefs,
@@ -124,7 +128,8 @@ public class BuchiAutomatonCegarLoop<L extends IIcfgTransition<?>>
 		mRefineBuchi = new RefineBuchi<>(mCsToolkitWithRankVars, predicateFactory, mPref.dumpAutomata(), difference,
 				mDefaultStateFactory, mStateFactoryForRefinement, useDoubleDeckers, mPref.dumpPath(),
 				mPref.getAutomataFormat(), mInterpolation, mServices, mLogger, SIMPLIFICATION_TECHNIQUE,
-				XNF_CONVERSION_TECHNIQUE, ncsbImplementation, mIdentifier);
+				XNF_CONVERSION_TECHNIQUE, ncsbImplementation, mIdentifier,
+				baPref.getInt(BuchiAutomizerPreferenceInitializer.LABEL_INCLUSION_CHECK_TIMEOUT));
 		mBiaConstructionStyleSequence =
 				baPref.getEnum(BuchiAutomizerPreferenceInitializer.LABEL_BIA_CONSTRUCTION_STRATEGY,
 						BuchiInterpolantAutomatonConstructionStrategy.class).getBiaConstrucionStyleSequence(baPref);
@@ -137,6 +142,11 @@ public class BuchiAutomatonCegarLoop<L extends IIcfgTransition<?>>
 		mAutomataMinimizationAfterRankBasedRefinement = baPref.getEnum(
 				BuchiAutomizerPreferenceInitializer.LABEL_AUTOMATA_MINIMIZATION_AFTER_RANK_BASED_REFINEMENT,
 				Minimization.class);
+		mEmptinessCheckSccThreads =
+				baPref.getInt(BuchiAutomizerPreferenceInitializer.LABEL_EMPTINESS_CHECK_SCC_THREADS);
+		mMinimizationThreads = baPref.getInt(BuchiAutomizerPreferenceInitializer.LABEL_MINIMIZATION_THREADS);
+		mOnTheFlyEmptinessCheck =
+				baPref.getBoolean(BuchiAutomizerPreferenceInitializer.LABEL_ON_THE_FLY_EMPTINESS_CHECK);
 	}
 
 	@Override
@@ -157,9 +167,16 @@ public class BuchiAutomatonCegarLoop<L extends IIcfgTransition<?>>
 					return true;
 				}
 				mCounterexample = ec.getAcceptingNestedLassoRun();
+			} else if (mOnTheFlyEmptinessCheck) {
+				final BuchiIsEmptyOnTheFly<L, IPredicate> ec =
+						new BuchiIsEmptyOnTheFly<>(new AutomataLibraryServices(mServices), abstraction);
+				if (ec.getResult()) {
+					return true;
+				}
+				mCounterexample = ec.getAcceptingNestedLassoRun();
 			} else {
-				final BuchiIsEmpty<L, IPredicate> ec =
-						new BuchiIsEmpty<>(new AutomataLibraryServices(mServices), abstraction);
+				final BuchiIsEmpty<L, IPredicate> ec = new BuchiIsEmpty<>(new AutomataLibraryServices(mServices),
+						abstraction, mEmptinessCheckSccThreads);
 				if (ec.getResult()) {
 					return true;
 				}
@@ -318,6 +335,10 @@ public class BuchiAutomatonCegarLoop<L extends IIcfgTransition<?>>
 				}
 				mBenchmarkGenerator.stop(CegarLoopStatisticsDefinitions.AutomataDifference.toString());
 				mBenchmarkGenerator.addBackwardCoveringInformationBuchi(mRefineBuchi.getBci());
+				if (mRefineBuchi.isDifferenceSkipped()) {
+					// the new abstraction is empty, nothing to minimize
+					return result;
+				}
 				return reduceAbstractionSize(result, mAutomataMinimizationAfterRankBasedRefinement);
 			}
 			stage++;
@@ -374,7 +395,7 @@ public class BuchiAutomatonCegarLoop<L extends IIcfgTransition<?>>
 				try {
 					am = new AutomataMinimization<>(mServices, result, automataMinimization, false, mIteration,
 							mStateFactoryForRefinement, -1, null, null, -1, mPredicateFactoryResultChecking,
-							locProvider, false);
+							locProvider, false, mMinimizationThreads);
 				} catch (final AutomataMinimizationTimeout e) {
 					mBenchmarkGenerator.addAutomataMinimizationData(e.getStatistics());
 					throw e.getAutomataOperationCanceledException();
@@ -73,7 +73,7 @@ public class BuchiAutomizerPreferenceInitializer extends UltimatePreferenceIniti
 
 	public enum NcsbImplementation {
 		ORIGINAL, INTSET, INTSET_GBA, INTSET_GBA_LAZY, INTSET_GBA_ANTICHAIN, INTSET_GBA_LAZY_ANTICHAIN, INTSET_LAZY,
-		INTSET_LAZY2, INTSET_LAZY3
+		INTSET_LAZY2, INTSET_LAZY3, INTSET_BITSET
 	}
 
 	public static final String LABEL_IGNORE_DOWN_STATES = "Ignore down states";
@@ -102,6 +102,32 @@ public class BuchiAutomizerPreferenceInitializer extends UltimatePreferenceIniti
 	public static final String LABEL_GNTA_DIRECTIONS = "Number of GNTA directions";
 	private static final int DEF_GNTA_DIRECTIONS = 3;
 	public static final String LABEL_TEMPLATE_BENCHMARK_MODE = "Template benchmark mode";
+	public static final String LABEL_LASSO_ANALYSIS_PORTFOLIO = "Run lasso analyses as portfolio";
+	private static final String DESC_LASSO_ANALYSIS_PORTFOLIO = "Run the nontermination analysis and the termination "
+			+ "analysis with the different ranking function templates concurrently, each with its own solver, and use "
+			+ "the first conclusive result. Ignored in template benchmark mode.";
+	public static final String LABEL_LASSO_ANALYSIS_PORTFOLIO_THREADS = "Threads of the lasso analysis portfolio";
+	private static final int DEF_LASSO_ANALYSIS_PORTFOLIO_THREADS = 4;
+	public static final String LABEL_CACHE_TERMINATION_ARGUMENTS = "Reuse termination arguments of equal loops";
+	private static final String DESC_CACHE_TERMINATION_ARGUMENTS = "Before a ranking function is synthesized for a "
+			+ "lasso, try the termination arguments that were found for the same loop in earlier iterations.";
+	public static final String LABEL_EMPTINESS_CHECK_SCC_THREADS = "Threads of the SCC computation in emptiness checks";
+	private static final String DESC_EMPTINESS_CHECK_SCC_THREADS = "If greater than 1, the strongly connected "
+			+ "components of the abstraction are computed by a parallel forward-backward algorithm instead of Tarjan's "
+			+ "algorithm. The counterexamples do not change.";
+	public static final String LABEL_MINIMIZATION_THREADS = "Threads of the parallel minimization";
+	private static final String DESC_MINIMIZATION_THREADS = "Number of threads that compute the signatures of the "
+			+ "states if the abstraction is minimized by the parallel bisimulation minimization. The result does not "
+			+ "depend on this number.";
+	public static final String LABEL_ON_THE_FLY_EMPTINESS_CHECK = "On-the-fly emptiness check";
+	private static final String DESC_ON_THE_FLY_EMPTINESS_CHECK = "Search the abstraction depth-first and stop at the "
+			+ "first accepting lasso instead of computing all strongly connected components. The counterexamples may "
+			+ "differ, the number of threads of the SCC computation is ignored.";
+	public static final String LABEL_INCLUSION_CHECK_TIMEOUT = "Timeout of inclusion check before difference (ms)";
+	private static final String DESC_INCLUSION_CHECK_TIMEOUT = "If greater than 0, an antichain-based inclusion check "
+			+ "tests for this many milliseconds whether the language of the abstraction is included in the language of "
+			+ "a semideterministic interpolant automaton. If so, the difference and the minimization are skipped "
+			+ "because the new abstraction is empty. Calls and returns are not supported.";
 	public static final String LABEL_DUMP_SCRIPT_TO_FILE = "Dump SMT script to file";
 	public static final String LABEL_DUMP_SCRIPT_PATH = "To the following directory";
 	private static final String DEF_DUMP_SCRIPT_PATH = "";
@@ -177,6 +203,21 @@ public class BuchiAutomizerPreferenceInitializer extends UltimatePreferenceIniti
 						AnalysisType.values()),
 				new UltimatePreferenceItem<>(LABEL_GNTA_DIRECTIONS, DEF_GNTA_DIRECTIONS, PreferenceType.Integer),
 				new UltimatePreferenceItem<>(LABEL_TEMPLATE_BENCHMARK_MODE, false, PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_LASSO_ANALYSIS_PORTFOLIO, false, DESC_LASSO_ANALYSIS_PORTFOLIO,
+						PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_LASSO_ANALYSIS_PORTFOLIO_THREADS,
+						DEF_LASSO_ANALYSIS_PORTFOLIO_THREADS, PreferenceType.Integer,
+						new IUltimatePreferenceItemValidator.IntegerValidator(1, 64)),
+				new UltimatePreferenceItem<>(LABEL_CACHE_TERMINATION_ARGUMENTS, false, DESC_CACHE_TERMINATION_ARGUMENTS,
+						PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_EMPTINESS_CHECK_SCC_THREADS, 1, DESC_EMPTINESS_CHECK_SCC_THREADS,
+						PreferenceType.Integer, new IUltimatePreferenceItemValidator.IntegerValidator(1, 64)),
+				new UltimatePreferenceItem<>(LABEL_MINIMIZATION_THREADS, 4, DESC_MINIMIZATION_THREADS,
+						PreferenceType.Integer, new IUltimatePreferenceItemValidator.IntegerValidator(1, 64)),
+				new UltimatePreferenceItem<>(LABEL_ON_THE_FLY_EMPTINESS_CHECK, false, DESC_ON_THE_FLY_EMPTINESS_CHECK,
+						PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_INCLUSION_CHECK_TIMEOUT, 0, DESC_INCLUSION_CHECK_TIMEOUT,
+						PreferenceType.Integer, new IUltimatePreferenceItemValidator.IntegerValidator(0, 60_000)),
 				new UltimatePreferenceItem<>(LABEL_DUMP_SCRIPT_TO_FILE, false, PreferenceType.Boolean),
 				new UltimatePreferenceItem<>(LABEL_DUMP_SCRIPT_PATH, DEF_DUMP_SCRIPT_PATH, PreferenceType.Directory),
 				new UltimatePreferenceItem<>(LABEL_CONSTRUCT_TERMCOMP_PROOF, false, PreferenceType.Boolean),
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE BuchiAutomizer plug-in.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE BuchiAutomizer plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE BuchiAutomizer plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE BuchiAutomizer plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.AffineFunction;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.TerminationArgument;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.rankingfunctions.LinearRankingFunction;
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Runs a {@link LassoAnalysisPortfolio} whose analyses fail, succeed or are inconclusive.
+ */
+public class LassoAnalysisPortfolioTest {
+
+	private IUltimateServiceProvider mServices;
+	private ILogger mLogger;
+
+	@Before
+	public void setUp() {
+		mServices = UltimateMocks.createUltimateServiceProviderMock();
+		mLogger = mServices.getLoggingService().getLogger(Activator.PLUGIN_ID);
+	}
+
+	@Test
+	public void failingTemplateDoesNotStopOthers() {
+		final TerminationArgument argument = createTerminationArgument();
+		final LassoAnalysisPortfolio portfolio = new LassoAnalysisPortfolio(mServices, mLogger, 2);
+		portfolio.addTemplate("failing", () -> {
+			throw new SMTLIBException("unsupported logic");
+		});
+		portfolio.addTemplate("succeeding", () -> {
+			// make sure that the failure is seen first
+			Thread.sleep(100);
+			return argument;
+		});
+		portfolio.run("test");
+
+		Assert.assertEquals("succeeding", portfolio.getWinner());
+		Assert.assertSame(argument, portfolio.getTerminationArgument());
+		Assert.assertEquals(Set.of("failing"), portfolio.getFailedAnalyses());
+		Assert.assertEquals(Set.of("failing", "succeeding"), portfolio.getTemplateTimes().keySet());
+	}
+
+	@Test
+	public void allAnalysesFailing() {
+		final LassoAnalysisPortfolio portfolio = new LassoAnalysisPortfolio(mServices, mLogger, 2);
+		portfolio.addNonterminationAnalysis(() -> {
+			throw new SMTLIBException("unsupported logic");
+		});
+		portfolio.addTemplate("failing", () -> {
+			throw new SMTLIBException("unsupported logic");
+		});
+		portfolio.addTemplate("inconclusive", () -> null);
+		portfolio.run("test");
+
+		Assert.assertNull(portfolio.getWinner());
+		Assert.assertNull(portfolio.getTerminationArgument());
+		Assert.assertNull(portfolio.getNonTerminationArgument());
+		Assert.assertEquals(Set.of("nontermination", "failing"), portfolio.getFailedAnalyses());
+	}
+
+	private static TerminationArgument createTerminationArgument() {
+		return new TerminationArgument(new LinearRankingFunction(new AffineFunction()), Collections.emptyList(),
+				Collections.emptySet());
+	}
+}
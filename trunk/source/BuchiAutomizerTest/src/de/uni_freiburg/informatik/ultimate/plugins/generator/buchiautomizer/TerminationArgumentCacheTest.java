@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE BuchiAutomizer plug-in.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE BuchiAutomizer plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE BuchiAutomizer plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE BuchiAutomizer plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWord;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.AffineFunction;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.TerminationArgument;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.rankingfunctions.LinearRankingFunction;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IcfgLocation;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.debugidentifiers.StringDebugIdentifier;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.variables.IProgramNonOldVar;
+
+/**
+ * Stores termination arguments in a {@link TerminationArgumentCache} and checks for which loops they are found and
+ * that every found argument is checked before it is returned.
+ */
+public class TerminationArgumentCacheTest {
+
+	private static final IcfgLocation HONDA = new IcfgLocation(new StringDebugIdentifier("honda"), "main");
+	private static final Set<IProgramNonOldVar> NO_GLOBALS = Collections.emptySet();
+	private static final Predicate<TerminationArgument> VALID = arg -> true;
+	private static final Predicate<TerminationArgument> INVALID = arg -> false;
+
+	@Test
+	public void hit() {
+		final TerminationArgumentCache<String> cache = new TerminationArgumentCache<>();
+		final TerminationArgument argument = createTerminationArgument();
+		cache.put(callAndReturn(), HONDA, NO_GLOBALS, false, argument);
+
+		final AtomicInteger loopChecks = new AtomicInteger();
+		final TerminationArgument found = cache.lookup(callAndReturn(), HONDA, NO_GLOBALS, true, arg -> {
+			loopChecks.incrementAndGet();
+			return true;
+		}, INVALID);
+		Assert.assertSame(argument, found);
+		Assert.assertEquals(1, loopChecks.get());
+	}
+
+	@Test
+	public void missIfOnlyNestingDiffers() {
+		final TerminationArgumentCache<String> cache = new TerminationArgumentCache<>();
+		cache.put(callAndReturn(), HONDA, NO_GLOBALS, false, createTerminationArgument());
+		cache.put(callAndReturn(), HONDA, NO_GLOBALS, true, createTerminationArgument());
+
+		Assert.assertNull(cache.lookup(internals(), HONDA, NO_GLOBALS, true, VALID, VALID));
+	}
+
+	@Test
+	public void missIfHondaDiffers() {
+		final TerminationArgumentCache<String> cache = new TerminationArgumentCache<>();
+		cache.put(callAndReturn(), HONDA, NO_GLOBALS, false, createTerminationArgument());
+		final IcfgLocation otherHonda = new IcfgLocation(new StringDebugIdentifier("other"), "main");
+
+		Assert.assertNull(cache.lookup(callAndReturn(), otherHonda, NO_GLOBALS, false, VALID, VALID));
+	}
+
+	@Test
+	public void missIfLoopCheckFails() {
+		final TerminationArgumentCache<String> cache = new TerminationArgumentCache<>();
+		cache.put(callAndReturn(), HONDA, NO_GLOBALS, false, createTerminationArgument());
+
+		Assert.assertNull(cache.lookup(callAndReturn(), HONDA, NO_GLOBALS, false, INVALID, VALID));
+	}
+
+	@Test
+	public void missIfStemInitiationFails() {
+		final TerminationArgumentCache<String> cache = new TerminationArgumentCache<>();
+		final TerminationArgument argument = createTerminationArgument();
+		cache.put(callAndReturn(), HONDA, NO_GLOBALS, true, argument);
+
+		final AtomicInteger stemChecks = new AtomicInteger();
+		Assert.assertNull(cache.lookup(callAndReturn(), HONDA, NO_GLOBALS, true, VALID, arg -> {
+			stemChecks.incrementAndGet();
+			return false;
+		}));
+		Assert.assertEquals(1, stemChecks.get());
+		Assert.assertSame(argument, cache.lookup(callAndReturn(), HONDA, NO_GLOBALS, true, VALID, VALID));
+		// an argument of a lasso is not used for a loop without stem
+		Assert.assertNull(cache.lookup(callAndReturn(), HONDA, NO_GLOBALS, false, VALID, VALID));
+	}
+
+	private static NestedWord<String> callAndReturn() {
+		return new NestedWord<>(new String[] { "call", "return" }, new int[] { 1, 0 });
+	}
+
+	private static NestedWord<String> internals() {
+		return new NestedWord<>(new String[] { "call", "return" },
+				new int[] { NestedWord.INTERNAL_POSITION, NestedWord.INTERNAL_POSITION });
+	}
+
+	private static TerminationArgument createTerminationArgument() {
+		return new TerminationArgument(new LinearRankingFunction(new AffineFunction()), Collections.emptyList(),
+				Collections.emptySet());
+	}
+}
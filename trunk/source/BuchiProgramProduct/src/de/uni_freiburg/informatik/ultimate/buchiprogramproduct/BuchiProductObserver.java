@@ -27,18 +27,27 @@
  */
 package de.uni_freiburg.informatik.ultimate.buchiprogramproduct;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomataSizeBenchmark;
 import de.uni_freiburg.informatik.ultimate.boogie.annotation.LTLPropertyCheck;
+import de.uni_freiburg.informatik.ultimate.buchiprogramproduct.preferences.PreferenceInitializer;
 import de.uni_freiburg.informatik.ultimate.buchiprogramproduct.productgenerator.ProductGenerator;
+import de.uni_freiburg.informatik.ultimate.buchiprogramproduct.productgenerator.RcfgStructureSnapshot;
 import de.uni_freiburg.informatik.ultimate.core.model.models.IElement;
 import de.uni_freiburg.informatik.ultimate.core.model.models.ModelType;
 import de.uni_freiburg.informatik.ultimate.core.model.observers.IUnmanagedObserver;
 import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
 import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IIcfg;
 import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.SmtUtils.SimplificationTechnique;
 import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.SmtUtils.XnfConversionTechnique;
+import de.uni_freiburg.informatik.ultimate.ltl2aut.never2nwa.LTLPropertyBatch;
 import de.uni_freiburg.informatik.ultimate.ltl2aut.never2nwa.NWAContainer;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer.BuchiProgramBatch;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.BoogieIcfgContainer;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.CodeBlock;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.util.IcfgSizeBenchmark;
@@ -62,6 +71,8 @@ public class BuchiProductObserver implements IUnmanagedObserver {
 	private final ProductBacktranslator mBacktranslator;
 	private final XnfConversionTechnique mXnfConversionTechnique;
 	private final SimplificationTechnique mSimplificationTechnique;
+	private final boolean mOnTheFly;
+	private final boolean mReuseTransFormulas;
 
 	public BuchiProductObserver(final ILogger logger, final IUltimateServiceProvider services,
 			final ProductBacktranslator backtranslator) {
@@ -73,6 +84,10 @@ public class BuchiProductObserver implements IUnmanagedObserver {
 		mBacktranslator = backtranslator;
 		mSimplificationTechnique = SIMPLIFICATION_TECHNIQUE;
 		mXnfConversionTechnique = XNF_CONVERSION_TECHNIQUE;
+		mOnTheFly = mServices.getPreferenceProvider(Activator.PLUGIN_ID)
+				.getBoolean(PreferenceInitializer.LABEL_ON_THE_FLY_PRODUCT);
+		mReuseTransFormulas = mServices.getPreferenceProvider(Activator.PLUGIN_ID)
+				.getBoolean(PreferenceInitializer.LABEL_REUSE_TRANSFORMULAS);
 	}
 
 	@Override
@@ -90,12 +105,35 @@ public class BuchiProductObserver implements IUnmanagedObserver {
 		reportSizeBenchmark("Initial property automaton", mNeverClaimNWAContainer.getValue());
 		reportSizeBenchmark("Initial RCFG", mRcfg);
 
+		// the snapshot has to be taken before the first product rewires the RCFG
+		final RcfgStructureSnapshot snapshot = new RcfgStructureSnapshot(mRcfg);
+		mProduct = createProduct(mNeverClaimNWAContainer, snapshot);
+
+		final LTLPropertyBatch batch = LTLPropertyBatch.getAnnotation(mNeverClaimNWAContainer);
+		if (batch == null || batch.getRemainingProperties().isEmpty()) {
+			return;
+		}
+		// the remaining products share the RCFG with the first one, so each is built only after the analysis of the
+		// previous one has finished
+		final List<Supplier<IIcfg<?>>> remaining = new ArrayList<>();
+		for (final NWAContainer property : batch.getRemainingProperties()) {
+			remaining.add(() -> {
+				reportSizeBenchmark("Initial property automaton", property.getValue());
+				return createProduct(property, snapshot);
+			});
+		}
+		new BuchiProgramBatch(remaining).annotate(mProduct);
+	}
+
+	private BoogieIcfgContainer createProduct(final NWAContainer property, final RcfgStructureSnapshot snapshot) {
 		mLogger.info("Beginning generation of product automaton");
-		final LTLPropertyCheck ltlAnnot = LTLPropertyCheck.getAnnotation(mNeverClaimNWAContainer);
-		mProduct = new ProductGenerator(mNeverClaimNWAContainer.getValue(), mRcfg, ltlAnnot, mServices, mBacktranslator,
-				mSimplificationTechnique, mXnfConversionTechnique).getProductRcfg();
+		final LTLPropertyCheck ltlAnnot = LTLPropertyCheck.getAnnotation(property);
+		final BoogieIcfgContainer product = new ProductGenerator(property.getValue(), snapshot, ltlAnnot, mServices,
+				mBacktranslator, mSimplificationTechnique, mXnfConversionTechnique, mOnTheFly, mReuseTransFormulas)
+						.getProductRcfg();
 		mLogger.info("Finished generation of product automaton successfully");
-		reportSizeBenchmark("BuchiProgram size", mProduct);
+		reportSizeBenchmark("BuchiProgram size", product);
+		return product;
 	}
 
 	private void reportSizeBenchmark(final String message, final INestedWordAutomaton<CodeBlock, String> nwa) {
@@ -31,6 +31,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import de.uni_freiburg.informatik.ultimate.buchiprogramproduct.preferences.PreferenceInitializer;
 import de.uni_freiburg.informatik.ultimate.core.lib.results.CounterExampleResult;
 import de.uni_freiburg.informatik.ultimate.core.lib.results.ResultUtil;
 import de.uni_freiburg.informatik.ultimate.core.model.IGenerator;
@@ -144,8 +145,7 @@ public class BuchiProgramProduct implements IGenerator {
 
 	@Override
 	public IPreferenceInitializer getPreferences() {
-		// currently no preferences
-		return null;
+		return new PreferenceInitializer();
 	}
 
 	@Override
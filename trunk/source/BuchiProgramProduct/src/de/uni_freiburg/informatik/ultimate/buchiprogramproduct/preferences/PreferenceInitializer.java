@@ -28,6 +28,7 @@ package de.uni_freiburg.informatik.ultimate.buchiprogramproduct.preferences;
 
 import de.uni_freiburg.informatik.ultimate.buchiprogramproduct.Activator;
 import de.uni_freiburg.informatik.ultimate.core.lib.preferences.UltimatePreferenceInitializer;
+import de.uni_freiburg.informatik.ultimate.core.model.preferences.PreferenceType;
 import de.uni_freiburg.informatik.ultimate.core.model.preferences.UltimatePreferenceItem;
 
 /**
@@ -37,6 +38,18 @@ import de.uni_freiburg.informatik.ultimate.core.model.preferences.UltimatePrefer
  */
 public class PreferenceInitializer extends UltimatePreferenceInitializer {
 
+	public static final String LABEL_ON_THE_FLY_PRODUCT = "Construct only the reachable part of the product";
+	private static final boolean DEF_ON_THE_FLY_PRODUCT = false;
+	private static final String DESC_ON_THE_FLY_PRODUCT = "Explore the product from its initial locations and only "
+			+ "create the product locations and edges (and their transition formulas) that are reachable, instead of "
+			+ "multiplying every location of the program with every state of the property automaton.";
+
+	public static final String LABEL_REUSE_TRANSFORMULAS = "Share transition formulas of product copies";
+	private static final boolean DEF_REUSE_TRANSFORMULAS = false;
+	private static final String DESC_REUSE_TRANSFORMULAS = "Build the transition formula of a product edge from the "
+			+ "transition formula of the program edge and the one of the automaton letter, and share it between all "
+			+ "product copies with the same program edge and letter.";
+
 	public PreferenceInitializer() {
 		super(Activator.PLUGIN_ID, Activator.PLUGIN_NAME);
 	}
@@ -44,7 +57,9 @@ public class PreferenceInitializer extends UltimatePreferenceInitializer {
 	@Override
 	protected UltimatePreferenceItem<?>[] initDefaultPreferences() {
 		return new UltimatePreferenceItem<?>[] {
-
-		};
+				new UltimatePreferenceItem<>(LABEL_ON_THE_FLY_PRODUCT, DEF_ON_THE_FLY_PRODUCT, DESC_ON_THE_FLY_PRODUCT,
+						PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_REUSE_TRANSFORMULAS, DEF_REUSE_TRANSFORMULAS,
+						DESC_REUSE_TRANSFORMULAS, PreferenceType.Boolean), };
 	}
 }
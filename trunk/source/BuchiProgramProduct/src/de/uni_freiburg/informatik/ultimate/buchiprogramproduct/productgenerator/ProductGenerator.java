@@ -27,6 +27,7 @@
  */
 package de.uni_freiburg.informatik.ultimate.buchiprogramproduct.productgenerator;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
@@ -56,7 +57,6 @@ import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
 import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IActionWithBranchEncoders;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IcfgEdge;
-import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IcfgEdgeIterator;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IcfgLocation;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.debugidentifiers.DebugIdentifier;
 import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.SmtUtils.SimplificationTechnique;
@@ -93,7 +93,6 @@ public final class ProductGenerator {
 	private final ProductLocationNameGenerator mNameGenerator;
 
 	private final Set<BoogieIcfgLocation> mRCFGLocations;
-	private final Set<BoogieIcfgLocation> mRcfgSinks;
 	private final Set<BoogieIcfgLocation> mHelperProductStates;
 	private final Map<DebugIdentifier, BoogieIcfgLocation> mProductLocations;
 	private final Map<BoogieIcfgLocation, List<Call>> mOrigRcfgCallLocs2CallEdges;
@@ -101,17 +100,47 @@ public final class ProductGenerator {
 	private final XnfConversionTechnique mXnfConversionTechnique;
 	private final boolean mEverythingIsAStep;
 
+	// only used if the product is constructed on-the-fly
+	private final boolean mOnTheFly;
+	private final Deque<ProductState> mWorklist;
+	private final List<PendingReturn> mPendingReturns;
+	private ArrayList<IcfgLocation> mFinalStates;
+
+	// null if every product edge gets its own transition formula
+	private final ProductTransFormulaCache mTransFormulaCache;
+
 	public ProductGenerator(final INestedWordAutomaton<CodeBlock, String> nwa, final BoogieIcfgContainer rcfg,
 			final LTLPropertyCheck ltlAnnot, final IUltimateServiceProvider services,
 			final ProductBacktranslator backtrans, final SimplificationTechnique simplificationTechnique,
 			final XnfConversionTechnique xnfConversionTechnique) {
+		this(nwa, new RcfgStructureSnapshot(rcfg), ltlAnnot, services, backtrans, simplificationTechnique,
+				xnfConversionTechnique, false, false);
+	}
+
+	/**
+	 * Builds the product from an RCFG that may already have been used for another product (batch mode). The RCFG is
+	 * reset to the given snapshot first.
+	 *
+	 * @param onTheFly
+	 *            If true, the product is explored from its initial locations and only the product locations and edges
+	 *            that are reachable are created. Otherwise, every RCFG location is multiplied with every state of the
+	 *            automaton.
+	 * @param reuseTransFormulas
+	 *            If true, all product copies of an RCFG edge with the same letter share one transition formula, which
+	 *            is composed from the transition formula of the RCFG edge and the one of the letter.
+	 */
+	public ProductGenerator(final INestedWordAutomaton<CodeBlock, String> nwa, final RcfgStructureSnapshot rcfg,
+			final LTLPropertyCheck ltlAnnot, final IUltimateServiceProvider services,
+			final ProductBacktranslator backtrans, final SimplificationTechnique simplificationTechnique,
+			final XnfConversionTechnique xnfConversionTechnique, final boolean onTheFly,
+			final boolean reuseTransFormulas) {
 		// services and logger
 		mServices = services;
 		mLogger = mServices.getLoggingService().getLogger(Activator.PLUGIN_ID);
 
 		// save parameters
 		mNWA = nwa;
-		mRcfgRoot = rcfg;
+		mRcfgRoot = rcfg.restore();
 		mCodeblockFactory = mRcfgRoot.getCodeBlockFactory();
 		mBacktranslator = backtrans;
 		mXnfConversionTechnique = xnfConversionTechnique;
@@ -122,12 +151,15 @@ public final class ProductGenerator {
 		mProductLocations = new HashMap<>();
 		mOrigRcfgCallLocs2CallEdges = new HashMap<>();
 		mAcceptingNodeAnnotation = new BuchiProgramAcceptingStateAnnotation();
-		mRcfgSinks = new HashSet<>();
 		mHelperProductStates = new HashSet<>();
 		mNameGenerator = new ProductLocationNameGenerator();
+		mOnTheFly = onTheFly;
+		mWorklist = new ArrayDeque<>();
+		mPendingReturns = new ArrayList<>();
+		mTransFormulaCache = reuseTransFormulas ? new ProductTransFormulaCache(mRcfgRoot, mServices, mLogger,
+				mSimplificationTechnique, mXnfConversionTechnique) : null;
 
-		mEverythingIsAStep = new IcfgEdgeIterator(mRcfgRoot).asStream()
-				.allMatch(a -> LTLStepAnnotation.getAnnotation(a) == null);
+		mEverythingIsAStep = rcfg.isEverythingAStep();
 		if (mEverythingIsAStep) {
 			mLogger.info("The program has no step specification, so we assume maximum atomicity");
 		}
@@ -148,8 +180,12 @@ public final class ProductGenerator {
 
 		// start product generation
 		collectRcfgLocations();
-		createProductStates();
-		createEdges();
+		if (mOnTheFly) {
+			createReachableProduct();
+		} else {
+			createProductStates();
+			createEdges();
+		}
 
 		generateTransFormulas();
 	}
@@ -187,7 +223,6 @@ public final class ProductGenerator {
 					&& !currentPoint.getOutgoingEdges().stream()
 					.filter(a -> !isNonProductNode((BoogieIcfgLocation) a.getTarget()))
 					.findAny().isPresent()) {
-				mRcfgSinks.add(currentPoint);
 				AssumeStatement stmtTrue = generateNeverClaimAssumeStatement(new BooleanLiteral(null, true));
 				IcfgEdge newEdge = mCodeblockFactory.constructStatementSequence(currentPoint, currentPoint, stmtTrue);
 				new LTLStepAnnotation().annotate(newEdge);
@@ -202,27 +237,155 @@ public final class ProductGenerator {
 	 */
 	private void createProductStates() {
 		mLogger.info("Creating Product States...");
-		ArrayList<IcfgLocation> finalStates = getCFGFinalStates();
+		mFinalStates = getCFGFinalStates();
 		for (final BoogieIcfgLocation origpp : mRCFGLocations) {
 			if (isNonProductNode(origpp)) {
-				final BoogieIcfgLocation newPP = createProductProgramPoint(
-						ProductLocationNameGenerator.generateStateName(origpp), origpp);
-				updateProductStates(newPP, ProductLocationNameGenerator.generateStateName(origpp));
+				createProductState(origpp, null);
 				continue;
 			}
 
 			for (final String nwaState : mNWA.getStates()) {
-				final BoogieIcfgLocation newPP = createProductProgramPoint(
-						ProductLocationNameGenerator.generateStateName(origpp, nwaState), origpp);
-				updateProductStates(newPP, ProductLocationNameGenerator.generateStateName(origpp, nwaState));
-
-				// accepting states are marked with AcceptingNodeAnnotation
-				if (mNWA.isFinal(nwaState) && isCFGFinalState(finalStates, origpp)) {
-//				if (mNWA.isFinal(nwaState)) {
-					mAcceptingNodeAnnotation.annotate(newPP);
+				createProductState(origpp, nwaState);
+			}
+		}
+	}
+
+	/**
+	 * Creates the product location of an RCFG location and a state of the automaton, or the only copy of an RCFG
+	 * location that does not belong to the product if the state is null.
+	 */
+	private BoogieIcfgLocation createProductState(final BoogieIcfgLocation origpp, final String nwaState) {
+		final DebugIdentifier name = nwaState == null ? ProductLocationNameGenerator.generateStateName(origpp)
+				: ProductLocationNameGenerator.generateStateName(origpp, nwaState);
+		final BoogieIcfgLocation newPP = createProductProgramPoint(name, origpp);
+		updateProductStates(newPP, name);
+
+		// accepting states are marked with AcceptingNodeAnnotation
+		if (nwaState != null && mNWA.isFinal(nwaState) && isCFGFinalState(mFinalStates, origpp)) {
+//		if (mNWA.isFinal(nwaState)) {
+			mAcceptingNodeAnnotation.annotate(newPP);
+		}
+		return newPP;
+	}
+
+	/**
+	 * Returns the product location of an RCFG location and a state of the automaton (or of an RCFG location that does
+	 * not belong to the product if the state is null). If the product is constructed on-the-fly, the location is
+	 * created when it is reached for the first time and its outgoing edges are created later.
+	 */
+	private BoogieIcfgLocation getProductLocation(final BoogieIcfgLocation origpp, final String nwaState) {
+		final BoogieIcfgLocation rtr = mProductLocations.get(nwaState == null
+				? ProductLocationNameGenerator.generateStateName(origpp)
+				: ProductLocationNameGenerator.generateStateName(origpp, nwaState));
+		if (rtr != null || !mOnTheFly) {
+			return rtr;
+		}
+		final BoogieIcfgLocation newPP = createProductState(origpp, nwaState);
+		mWorklist.add(new ProductState(origpp, nwaState, newPP));
+		return newPP;
+	}
+
+	/**
+	 * Creates the part of the product that is reachable from the RCFG locations that do not belong to the product and
+	 * from the initial locations. The product locations are explored in a worklist. Return edges are created after
+	 * the worklist is empty, because they depend on all call edges of their caller; as exploring a return may reach
+	 * new locations and new calls, this is repeated until nothing changes.
+	 */
+	private void createReachableProduct() {
+		mLogger.info("Creating reachable part of the product on-the-fly...");
+		mFinalStates = getCFGFinalStates();
+		final List<IcfgLocation> initialNodes = new ArrayList<>(mProductRoot.getInitialNodes());
+		for (final BoogieIcfgLocation origpp : mRCFGLocations) {
+			if (isNonProductNode(origpp)) {
+				getProductLocation(origpp, null);
+			}
+		}
+		for (final IcfgLocation init : initialNodes) {
+			final BoogieIcfgLocation origpp = (BoogieIcfgLocation) init;
+			if (!isNonProductNode(origpp)) {
+				for (final String nwaState : mNWA.getInitialStates()) {
+					getProductLocation(origpp, nwaState);
+				}
+			}
+		}
+
+		while (!mWorklist.isEmpty() || createPendingReturnEdges()) {
+			while (!mWorklist.isEmpty()) {
+				createOutgoingEdges(mWorklist.removeFirst());
+			}
+		}
+
+		// RCFG locations that were never reached must not remain in the root annotation
+		mProductRoot.getLoopLocations().removeAll(mRCFGLocations);
+		mProductRoot.getInitialNodes().removeAll(mRCFGLocations);
+		mProductRoot.getProcedureEntryNodes().values().removeIf(mRCFGLocations::contains);
+		mProductRoot.getProcedureExitNodes().values().removeIf(mRCFGLocations::contains);
+
+		int productStates = 0;
+		for (final BoogieIcfgLocation origpp : mRCFGLocations) {
+			productStates += isNonProductNode(origpp) ? 1 : mNWA.size();
+		}
+		mLogger.info(String.format("Created %s of %s product locations", mProductLocations.size(), productStates));
+	}
+
+	private void createOutgoingEdges(final ProductState state) {
+		final BoogieIcfgLocation origRcfgSourceLoc = state.mOrigLoc;
+		for (final IcfgEdge rcfgEdge : origRcfgSourceLoc.getOutgoingEdges()) {
+			if (rcfgEdge instanceof Summary && ((Summary) rcfgEdge).calledProcedureHasImplementation()) {
+				// we ignore summaries for which procedures have
+				// implementations
+				continue;
+			}
+			final BoogieIcfgLocation origRcfgTargetLoc = (BoogieIcfgLocation) rcfgEdge.getTarget();
+			if (rcfgEdge instanceof Return) {
+				// return edges are created as soon as the corresponding calls exist
+				mPendingReturns.add(new PendingReturn(state, (Return) rcfgEdge));
+			} else if (state.mNwaState == null && isNonProductNode(origRcfgTargetLoc)) {
+				createEdgesNonProduct(origRcfgSourceLoc, rcfgEdge, origRcfgTargetLoc);
+			} else if (state.mNwaState == null) {
+				createEdgeFromNonProductToProduct(origRcfgSourceLoc, rcfgEdge);
+			} else if (isNonProductNode(origRcfgTargetLoc)) {
+				createEdgeFromProductToNonProduct(origRcfgSourceLoc, state.mProductLoc, rcfgEdge, origRcfgTargetLoc);
+			} else {
+				createEdgeProduct(origRcfgSourceLoc, state.mProductLoc, state.mNwaState, rcfgEdge);
+			}
+		}
+	}
+
+	/**
+	 * Creates the return edges for the calls of their caller that were created since the last invocation.
+	 *
+	 * @return true iff an edge was created
+	 */
+	private boolean createPendingReturnEdges() {
+		boolean changed = false;
+		for (final PendingReturn pending : mPendingReturns) {
+			final Return returnEdge = pending.mReturn;
+			final List<Call> calls = mOrigRcfgCallLocs2CallEdges.get(returnEdge.getCallerProgramPoint());
+			if (calls == null || calls.size() == pending.mHandledCalls) {
+				continue;
+			}
+			final ProductState source = pending.mSource;
+			final BoogieIcfgLocation origRcfgTargetLoc = (BoogieIcfgLocation) returnEdge.getTarget();
+			if (source.mNwaState == null) {
+				// the caller does not belong to the product, so all of its calls were created together
+				if (isNonProductNode(origRcfgTargetLoc)) {
+					createReturnEdgesNonProduct(source.mOrigLoc, origRcfgTargetLoc, returnEdge);
+				} else {
+					createReturnEdgesNonProductToProduct(source.mOrigLoc, origRcfgTargetLoc, returnEdge);
+				}
+			} else {
+				if (pending.mHelper == null) {
+					pending.mHelper = createReturnHelper(source.mNwaState, returnEdge, false);
+				}
+				for (int i = pending.mHandledCalls; i < calls.size(); ++i) {
+					createNewReturnEdge(source.mProductLoc, returnEdge, pending.mHelper, calls.get(i));
 				}
 			}
+			pending.mHandledCalls = calls.size();
+			changed = true;
 		}
+		return changed;
 	}
 	
 	/*
@@ -382,8 +545,7 @@ public final class ProductGenerator {
 		assert mOrigRcfgCallLocs2CallEdges.get(returnEdge.getCallerProgramPoint()).size() == 1;
 
 		for (final String nwaLoc : mNWA.getStates()) {
-			final BoogieIcfgLocation productTargetLoc = mProductLocations
-					.get(ProductLocationNameGenerator.generateStateName(origRcfgTargetLoc, nwaLoc));
+			final BoogieIcfgLocation productTargetLoc = getProductLocation(origRcfgTargetLoc, nwaLoc);
 			createNewReturnEdge(productSourceLoc, returnEdge, productTargetLoc,
 					mOrigRcfgCallLocs2CallEdges.get(returnEdge.getCallerProgramPoint()).get(0));
 		}
@@ -408,29 +570,33 @@ public final class ProductGenerator {
 	}
 
 	private void createEdgesProduct(final BoogieIcfgLocation origRcfgSourceLoc, final IcfgEdge rcfgEdge) {
-		final boolean isProgramStep = mEverythingIsAStep || LTLStepAnnotation.getAnnotation(rcfgEdge) != null;
 		// if the source is a product state, we know that the
 		// target is also a product state
 		// this is the normal case
 		for (final String nwaLoc : mNWA.getStates()) {
 			final BoogieIcfgLocation productSourceLoc = mProductLocations
 					.get(ProductLocationNameGenerator.generateStateName(origRcfgSourceLoc, nwaLoc));
+			createEdgeProduct(origRcfgSourceLoc, productSourceLoc, nwaLoc, rcfgEdge);
+		}
+	}
 
-			if (rcfgEdge instanceof StatementSequence) {
-				mLogger.info(ProductLocationNameGenerator.generateStateName(origRcfgSourceLoc, nwaLoc) + " --> "
-						+ ProductLocationNameGenerator.generateStateName(origRcfgSourceLoc, nwaLoc));
-				handleEdgeStatementSequence(productSourceLoc, nwaLoc, (StatementSequence) rcfgEdge, isProgramStep);
-			} else if (rcfgEdge instanceof Call) {
-				handleEdgeCall(productSourceLoc, nwaLoc, (Call) rcfgEdge, origRcfgSourceLoc, isProgramStep);
-			} else if (rcfgEdge instanceof Summary) {
-				handleEdgeSummary(productSourceLoc, nwaLoc, (Summary) rcfgEdge);
-			} else {
-				// we encounted an unhandled edge type and have
-				// to abort
-				throw new UnsupportedOperationException("BuchiProgramProduct does not support RCFGEdges of type "
-						+ rcfgEdge.getClass().getSimpleName()
-						+ "(EdgeSrc: "+origRcfgSourceLoc.toString()+")");
-			}
+	private void createEdgeProduct(final BoogieIcfgLocation origRcfgSourceLoc,
+			final BoogieIcfgLocation productSourceLoc, final String nwaLoc, final IcfgEdge rcfgEdge) {
+		final boolean isProgramStep = mEverythingIsAStep || LTLStepAnnotation.getAnnotation(rcfgEdge) != null;
+		if (rcfgEdge instanceof StatementSequence) {
+			mLogger.info(ProductLocationNameGenerator.generateStateName(origRcfgSourceLoc, nwaLoc) + " --> "
+					+ ProductLocationNameGenerator.generateStateName(origRcfgSourceLoc, nwaLoc));
+			handleEdgeStatementSequence(productSourceLoc, nwaLoc, (StatementSequence) rcfgEdge, isProgramStep);
+		} else if (rcfgEdge instanceof Call) {
+			handleEdgeCall(productSourceLoc, nwaLoc, (Call) rcfgEdge, origRcfgSourceLoc, isProgramStep);
+		} else if (rcfgEdge instanceof Summary) {
+			handleEdgeSummary(productSourceLoc, nwaLoc, (Summary) rcfgEdge);
+		} else {
+			// we encounted an unhandled edge type and have
+			// to abort
+			throw new UnsupportedOperationException("BuchiProgramProduct does not support RCFGEdges of type "
+					+ rcfgEdge.getClass().getSimpleName()
+					+ "(EdgeSrc: "+origRcfgSourceLoc.toString()+")");
 		}
 	}
 
@@ -444,20 +610,25 @@ public final class ProductGenerator {
 		for (final String nwaLoc : mNWA.getStates()) {
 			final BoogieIcfgLocation productSourceLoc = mProductLocations
 					.get(ProductLocationNameGenerator.generateStateName(origRcfgSourceLoc, nwaLoc));
-			final BoogieIcfgLocation productTargetLoc = mProductLocations
-					.get(ProductLocationNameGenerator.generateStateName(origRcfgTargetLoc));
+			createEdgeFromProductToNonProduct(origRcfgSourceLoc, productSourceLoc, origRcfgEdge, origRcfgTargetLoc);
+		}
+	}
 
-			assert productSourceLoc != null;
-			assert productTargetLoc != null;
+	private void createEdgeFromProductToNonProduct(final BoogieIcfgLocation origRcfgSourceLoc,
+			final BoogieIcfgLocation productSourceLoc, final IcfgEdge origRcfgEdge,
+			final BoogieIcfgLocation origRcfgTargetLoc) throws AssertionError {
+		final BoogieIcfgLocation productTargetLoc = getProductLocation(origRcfgTargetLoc, null);
 
-			if (origRcfgEdge instanceof Call) {
-				createNewCallEdge(origRcfgSourceLoc, productSourceLoc, (Call) origRcfgEdge, productTargetLoc);
-			} else if (origRcfgEdge instanceof Summary) {
-				createNewSummaryEdge(productSourceLoc, (Summary) origRcfgEdge, productTargetLoc);
-			} else {
-				throw new AssertionError("You cannot go from product to non-product parts "
-						+ "without using Call, Return or Summary edges");
-			}
+		assert productSourceLoc != null;
+		assert productTargetLoc != null;
+
+		if (origRcfgEdge instanceof Call) {
+			createNewCallEdge(origRcfgSourceLoc, productSourceLoc, (Call) origRcfgEdge, productTargetLoc);
+		} else if (origRcfgEdge instanceof Summary) {
+			createNewSummaryEdge(productSourceLoc, (Summary) origRcfgEdge, productTargetLoc);
+		} else {
+			throw new AssertionError("You cannot go from product to non-product parts "
+					+ "without using Call, Return or Summary edges");
 		}
 	}
 
@@ -597,9 +768,16 @@ public final class ProductGenerator {
 				}
 			}
 		}
+		if (mTransFormulaCache != null) {
+			mLogger.info("Product transition formulas: " + mTransFormulaCache);
+		}
 	}
 
-	private static void generateTransformula(final TransFormulaBuilder tfb, final String procId, final IcfgEdge edge) {
+	private void generateTransformula(final TransFormulaBuilder tfb, final String procId, final IcfgEdge edge) {
+		if (mTransFormulaCache != null && edge instanceof StatementSequence
+				&& mTransFormulaCache.addTransFormula((StatementSequence) edge, procId)) {
+			return;
+		}
 		if (edge instanceof StatementSequence || edge instanceof Summary) {
 			tfb.addTransFormula((CodeBlock) edge, procId);
 		}
@@ -613,15 +791,13 @@ public final class ProductGenerator {
 		if (isProgramStep) {
 			for (final OutgoingInternalTransition<CodeBlock, String> autTrans : mNWA.internalSuccessors(nwaLoc)) {
 				// add no edges if this is not a program step or not the program flow
-				targetpp = mProductLocations.get(ProductLocationNameGenerator
-						.generateStateName((BoogieIcfgLocation) rcfgEdge.getTarget(), autTrans.getSucc()));
+				targetpp = getProductLocation((BoogieIcfgLocation) rcfgEdge.getTarget(), autTrans.getSucc());
 				// append statements of rcfg and ltl
 				createNewStatementSequence(productLoc, rcfgEdge, targetpp, autTrans.getLetter(), isProgramStep);
 			}
 		} else {
 			// add no edges if this is not a program step or not the program flow
-			targetpp = mProductLocations.get(
-					ProductLocationNameGenerator.generateStateName((BoogieIcfgLocation) rcfgEdge.getTarget(), nwaLoc));
+			targetpp = getProductLocation((BoogieIcfgLocation) rcfgEdge.getTarget(), nwaLoc);
 			// append statements of rcfg and ltl
 			createNewStatementSequence(productLoc, rcfgEdge, targetpp, null, isProgramStep);
 		}
@@ -654,15 +830,22 @@ public final class ProductGenerator {
 			return;
 		}
 
+		final BoogieIcfgLocation helper = createReturnHelper(nwaLoc, returnEdge, isProgramStep);
+		for (final Call call : mOrigRcfgCallLocs2CallEdges.get(caller)) {
+			createNewReturnEdge(productLoc, returnEdge, helper, call);
+		}
+	}
+
+	/**
+	 * Creates the helper location that is the target of the return edges and its outgoing edges.
+	 */
+	private BoogieIcfgLocation createReturnHelper(final String nwaLoc, final Return returnEdge,
+			final boolean isProgramStep) {
 		final BoogieIcfgLocation origRcfgTargetLoc = (BoogieIcfgLocation) returnEdge.getTarget();
 		final DebugIdentifier helperName = mNameGenerator
 				.generateHelperStateName(origRcfgTargetLoc.getDebugIdentifier());
 		final BoogieIcfgLocation helper = createProductProgramPoint(helperName, origRcfgTargetLoc);
 
-		for (final Call call : mOrigRcfgCallLocs2CallEdges.get(caller)) {
-			createNewReturnEdge(productLoc, returnEdge, helper, call);
-		}
-
 		// From the helpernode, the original call target is
 		// connected with a new
 		// edge with the fitting assumption of the call. The
@@ -672,15 +855,13 @@ public final class ProductGenerator {
 			if (!isProgramStep && !autTrans.getSucc().equals(nwaLoc)) {
 				continue;
 			}
-			BoogieIcfgLocation targetpp = mProductLocations
-					.get(ProductLocationNameGenerator.generateStateName(origRcfgTargetLoc, autTrans.getSucc()));
-			if (targetpp == null) {
-				// returns may connect with multiple edges to a single state
-				// that is part of the non-product states
-				targetpp = mProductLocations.get(ProductLocationNameGenerator.generateStateName(origRcfgTargetLoc));
-			}
+			// returns may connect with multiple edges to a single state
+			// that is part of the non-product states
+			final BoogieIcfgLocation targetpp = getProductLocation(origRcfgTargetLoc,
+					isNonProductNode(origRcfgTargetLoc) ? null : autTrans.getSucc());
 			createNewStatementSequence(helper, null, targetpp, autTrans.getLetter(), isProgramStep);
 		}
+		return helper;
 	}
 
 	private void handleEdgeSummary(final BoogieIcfgLocation productSourceLoc, final String nwaLoc,
@@ -694,8 +875,7 @@ public final class ProductGenerator {
 
 		BoogieIcfgLocation targetpp;
 		for (final OutgoingInternalTransition<CodeBlock, String> autTrans : mNWA.internalSuccessors(nwaLoc)) {
-			targetpp = mProductLocations.get(ProductLocationNameGenerator
-					.generateStateName((BoogieIcfgLocation) summary.getTarget(), autTrans.getSucc()));
+			targetpp = getProductLocation((BoogieIcfgLocation) summary.getTarget(), autTrans.getSucc());
 			final List<CodeBlock> sumAndSs = new ArrayList<>();
 			final StatementSequence seq = mCodeblockFactory.constructStatementSequence(productSourceLoc, targetpp,
 					checkLetter(autTrans.getLetter()), Origin.IMPLEMENTATION);
@@ -713,8 +893,7 @@ public final class ProductGenerator {
 	private void handleEdgeSummaryFromNonProduct(final BoogieIcfgLocation productSourceLoc, final Summary rcfgEdge) {
 		final BoogieIcfgLocation origRcfgTargetLoc = (BoogieIcfgLocation) rcfgEdge.getTarget();
 		for (final String initialNWAState : mNWA.getInitialStates()) {
-			final BoogieIcfgLocation productTargetLoc = mProductLocations
-					.get(ProductLocationNameGenerator.generateStateName(origRcfgTargetLoc, initialNWAState));
+			final BoogieIcfgLocation productTargetLoc = getProductLocation(origRcfgTargetLoc, initialNWAState);
 			createNewSummaryEdge(productSourceLoc, rcfgEdge, productTargetLoc);
 		}
 
@@ -736,13 +915,12 @@ public final class ProductGenerator {
 		// edge is calculated
 		// like any other edge in the graph.
 		for (final OutgoingInternalTransition<CodeBlock, String> autTrans : mNWA.internalSuccessors(nwaSourceState)) {
-			final BoogieIcfgLocation targetpp = mProductLocations
-					.get(ProductLocationNameGenerator.generateStateName(origRcfgTargetLoc, autTrans.getSucc()));
 			// if the transition would lead into another BA state and is no program step
 			// continue
 			if (!isProgramStep && !autTrans.getSucc().equals(nwaSourceState)) {
 				continue;
 			}
+			final BoogieIcfgLocation targetpp = getProductLocation(origRcfgTargetLoc, autTrans.getSucc());
 			createNewStatementSequence(helper, null, targetpp, autTrans.getLetter(), isProgramStep);
 		}
 	}
@@ -751,8 +929,7 @@ public final class ProductGenerator {
 			final BoogieIcfgLocation origRcfgSourceLoc) {
 		final BoogieIcfgLocation origRcfgTargetLoc = (BoogieIcfgLocation) origRcfgEdge.getTarget();
 		for (final String initialNWAState : mNWA.getInitialStates()) {
-			final BoogieIcfgLocation productTargetLoc = mProductLocations
-					.get(ProductLocationNameGenerator.generateStateName(origRcfgTargetLoc, initialNWAState));
+			final BoogieIcfgLocation productTargetLoc = getProductLocation(origRcfgTargetLoc, initialNWAState);
 			createNewCallEdge(origRcfgSourceLoc, productSourceLoc, origRcfgEdge, productTargetLoc);
 		}
 	}
@@ -827,6 +1004,13 @@ public final class ProductGenerator {
 		}
 		prog2programPoints.put(debugIdentifier, rtr);
 
+		if (ProductLocationNameGenerator.isHelperState(rtr)) {
+			// helpers never replace the original location in the root annotation; if the product is constructed
+			// on-the-fly, they may be created before any product location of the original location
+			mHelperProductStates.add(rtr);
+			return rtr;
+		}
+
 		if (mProductRoot.getLoopLocations().remove(originalState)) {
 			mProductRoot.getLoopLocations().add(rtr);
 		}
@@ -849,10 +1033,6 @@ public final class ProductGenerator {
 			mProductRoot.getProcedureExitNodes().put(originalState.getProcedure(), rtr);
 		}
 
-		if (ProductLocationNameGenerator.isHelperState(rtr)) {
-			mHelperProductStates.add(rtr);
-		}
-
 		return rtr;
 	}
 
@@ -877,6 +1057,11 @@ public final class ProductGenerator {
 		}
 
 		mapNewEdge2OldEdge(newSS, originalSS);
+		if (mTransFormulaCache != null) {
+			// checkLetter ensured that the letter is a statement sequence
+			mTransFormulaCache.registerProductEdge(newSS, originalSS,
+					isProgramStep ? (StatementSequence) letter : null);
+		}
 		return newSS;
 	}
 
@@ -899,4 +1084,37 @@ public final class ProductGenerator {
 	private static AssumeStatement generateNeverClaimAssumeStatement(final Expression expr) {
 		return new AssumeStatement(null, expr);
 	}
+
+	/**
+	 * A product location whose outgoing edges still have to be created.
+	 */
+	private static final class ProductState {
+		private final BoogieIcfgLocation mOrigLoc;
+		// null if the location does not belong to the product
+		private final String mNwaState;
+		private final BoogieIcfgLocation mProductLoc;
+
+		private ProductState(final BoogieIcfgLocation origLoc, final String nwaState,
+				final BoogieIcfgLocation productLoc) {
+			mOrigLoc = origLoc;
+			mNwaState = nwaState;
+			mProductLoc = productLoc;
+		}
+	}
+
+	/**
+	 * A return edge of the RCFG leaving a reached product location, together with the number of calls of its caller
+	 * for which product return edges were already created.
+	 */
+	private static final class PendingReturn {
+		private final ProductState mSource;
+		private final Return mReturn;
+		private BoogieIcfgLocation mHelper;
+		private int mHandledCalls;
+
+		private PendingReturn(final ProductState source, final Return returnEdge) {
+			mSource = source;
+			mReturn = returnEdge;
+		}
+	}
 }
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE BuchiProgramProduct plug-in.
+ *
+ * The ULTIMATE BuchiProgramProduct plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE BuchiProgramProduct plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE BuchiProgramProduct plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE BuchiProgramProduct plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE BuchiProgramProduct plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.buchiprogramproduct.productgenerator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Statement;
+import de.uni_freiburg.informatik.ultimate.core.lib.models.annotation.Overapprox;
+import de.uni_freiburg.informatik.ultimate.core.model.models.ILocation;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.boogie.Boogie2SMT;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.boogie.Statements2TransFormula.TranslationResult;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.transitions.TransFormulaUtils;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.transitions.UnmodifiableTransFormula;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.ManagedScript;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.SmtUtils.SimplificationTechnique;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.SmtUtils.XnfConversionTechnique;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.BoogieIcfgContainer;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.BoogieIcfgLocation;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.StatementSequence;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.Pair;
+
+/**
+ * Provides the transition formulas of the statement sequences of the product. A product statement sequence consists
+ * of the statements of an original RCFG edge followed by the assume statement of a letter of the property automaton,
+ * so all product copies of one original edge with the same letter have the same transition formula.
+ *
+ * Instead of translating the statements of every product edge, the transition formula of the original edge (which
+ * the RCFG already has) is reused and sequentially composed with the transition formula of the letter, which is
+ * translated once per letter and procedure. The result is shared by all copies.
+ */
+final class ProductTransFormulaCache {
+
+	private final ILogger mLogger;
+	private final IUltimateServiceProvider mServices;
+	private final Boogie2SMT mBoogie2Smt;
+	private final ManagedScript mMgdScript;
+	private final SimplificationTechnique mSimplificationTechnique;
+	private final XnfConversionTechnique mXnfConversionTechnique;
+
+	private final Map<StatementSequence, ProductEdgeParts> mProductEdges;
+	private final Map<ProductEdgeParts, TranslationResult> mTransFormulas;
+	private final Map<Pair<StatementSequence, String>, TranslationResult> mLetterTransFormulas;
+
+	private int mReused;
+	private int mTranslated;
+	private int mComposed;
+
+	ProductTransFormulaCache(final BoogieIcfgContainer root, final IUltimateServiceProvider services,
+			final ILogger logger, final SimplificationTechnique simplificationTechnique,
+			final XnfConversionTechnique xnfConversionTechnique) {
+		mServices = services;
+		mLogger = logger;
+		mBoogie2Smt = root.getBoogie2SMT();
+		mMgdScript = root.getCfgSmtToolkit().getManagedScript();
+		mSimplificationTechnique = simplificationTechnique;
+		mXnfConversionTechnique = xnfConversionTechnique;
+		mProductEdges = new IdentityHashMap<>();
+		mTransFormulas = new HashMap<>();
+		mLetterTransFormulas = new HashMap<>();
+	}
+
+	/**
+	 * Remembers that a product edge consists of the statements of an original edge and a letter.
+	 *
+	 * @param originalEdge
+	 *            the original edge, or null if the product edge only consists of the letter
+	 * @param letter
+	 *            the letter, or null if the product edge is no program step
+	 */
+	void registerProductEdge(final StatementSequence productEdge, final StatementSequence originalEdge,
+			final StatementSequence letter) {
+		final String procId = ((BoogieIcfgLocation) productEdge.getSource()).getProcedure();
+		mProductEdges.put(productEdge, new ProductEdgeParts(originalEdge, letter, procId));
+	}
+
+	/**
+	 * Sets the transition formula of a product edge that was registered before.
+	 *
+	 * @return false iff the edge was not registered
+	 */
+	boolean addTransFormula(final StatementSequence productEdge, final String procId) {
+		final ProductEdgeParts parts = mProductEdges.get(productEdge);
+		if (parts == null || !parts.mProcId.equals(procId)) {
+			return false;
+		}
+		TranslationResult result = mTransFormulas.get(parts);
+		if (result == null) {
+			result = construct(parts.mOriginalEdge, parts.mLetter, procId);
+			mTransFormulas.put(parts, result);
+		} else {
+			mReused++;
+		}
+		if (!result.getOverapproximations().isEmpty()) {
+			new Overapprox(result.getOverapproximations()).annotate(productEdge);
+		}
+		productEdge.setTransitionFormula(result.getTransFormula());
+		return true;
+	}
+
+	private TranslationResult construct(final StatementSequence originalEdge, final StatementSequence letter,
+			final String procId) {
+		if (originalEdge == null && letter == null) {
+			return translate(Collections.emptyList(), procId);
+		}
+		if (letter == null) {
+			return getOriginalTransFormula(originalEdge, procId);
+		}
+		final Pair<StatementSequence, String> letterKey = new Pair<>(letter, procId);
+		TranslationResult letterTf = mLetterTransFormulas.get(letterKey);
+		if (letterTf == null) {
+			letterTf = translate(letter.getStatements(), procId);
+			mLetterTransFormulas.put(letterKey, letterTf);
+		}
+		if (originalEdge == null) {
+			return letterTf;
+		}
+		final TranslationResult originalTf = getOriginalTransFormula(originalEdge, procId);
+		final UnmodifiableTransFormula composition = TransFormulaUtils.sequentialComposition(mLogger, mServices,
+				mMgdScript, false, false, false, mXnfConversionTechnique, mSimplificationTechnique,
+				Arrays.asList(originalTf.getTransFormula(), letterTf.getTransFormula()));
+		mComposed++;
+		final Map<String, ILocation> overapproximations = new HashMap<>(originalTf.getOverapproximations());
+		overapproximations.putAll(letterTf.getOverapproximations());
+		return new TranslationResult(composition, overapproximations);
+	}
+
+	private TranslationResult getOriginalTransFormula(final StatementSequence originalEdge, final String procId) {
+		if (originalEdge.getTransformula() == null) {
+			// e.g., the self loops that were added to the sinks of the RCFG
+			return translate(originalEdge.getStatements(), procId);
+		}
+		final Overapprox overapprox = Overapprox.getAnnotation(originalEdge);
+		return new TranslationResult(originalEdge.getTransformula(),
+				overapprox == null ? Collections.emptyMap() : overapprox.getOverapproximatedLocations());
+	}
+
+	private TranslationResult translate(final List<Statement> statements, final String procId) {
+		mTranslated++;
+		return mBoogie2Smt.getStatements2TransFormula().statementSequence(SimplificationTechnique.NONE, procId,
+				statements);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s transition formulas reused, %s translated, %s composed", mReused, mTranslated,
+				mComposed);
+	}
+
+	/**
+	 * The original edge and the letter a product edge consists of (either may be null), and its procedure.
+	 */
+	private static final class ProductEdgeParts {
+		private final StatementSequence mOriginalEdge;
+		private final StatementSequence mLetter;
+		private final String mProcId;
+
+		private ProductEdgeParts(final StatementSequence originalEdge, final StatementSequence letter,
+				final String procId) {
+			mOriginalEdge = originalEdge;
+			mLetter = letter;
+			mProcId = procId;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(mOriginalEdge, mLetter, mProcId);
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ProductEdgeParts)) {
+				return false;
+			}
+			final ProductEdgeParts other = (ProductEdgeParts) obj;
+			return mOriginalEdge == other.mOriginalEdge && mLetter == other.mLetter && mProcId.equals(other.mProcId);
+		}
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE BuchiProgramProduct plug-in.
+ *
+ * The ULTIMATE BuchiProgramProduct plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE BuchiProgramProduct plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE BuchiProgramProduct plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE BuchiProgramProduct plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE BuchiProgramProduct plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.buchiprogramproduct.productgenerator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.core.lib.models.annotation.LTLStepAnnotation;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IcfgEdge;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IcfgEdgeIterator;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IcfgLocationIterator;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.debugidentifiers.DebugIdentifier;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.BoogieIcfgContainer;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.BoogieIcfgLocation;
+
+/**
+ * The {@link ProductGenerator} rewires the location maps of the {@link BoogieIcfgContainer} it is given and adds self
+ * loops to the sinks of the original RCFG. This class remembers the location maps and the edges of the original RCFG
+ * such that further products (batch mode) can be built from the same RCFG.
+ */
+public final class RcfgStructureSnapshot {
+
+	private final BoogieIcfgContainer mRcfg;
+	private final Map<String, Map<DebugIdentifier, BoogieIcfgLocation>> mProgramPoints;
+	private final Map<String, BoogieIcfgLocation> mEntryNodes;
+	private final Map<String, BoogieIcfgLocation> mExitNodes;
+	private final Set<BoogieIcfgLocation> mLoopLocations;
+	private final Set<BoogieIcfgLocation> mInitialNodes;
+	private final Map<BoogieIcfgLocation, Set<IcfgEdge>> mOutgoingEdges;
+	private final boolean mEverythingIsAStep;
+
+	public RcfgStructureSnapshot(final BoogieIcfgContainer rcfg) {
+		mRcfg = rcfg;
+		mProgramPoints = new LinkedHashMap<>();
+		for (final Entry<String, Map<DebugIdentifier, BoogieIcfgLocation>> entry : rcfg.getProgramPoints()
+				.entrySet()) {
+			mProgramPoints.put(entry.getKey(), new HashMap<>(entry.getValue()));
+		}
+		mEntryNodes = new LinkedHashMap<>(rcfg.getProcedureEntryNodes());
+		mExitNodes = new LinkedHashMap<>(rcfg.getProcedureExitNodes());
+		mLoopLocations = new LinkedHashSet<>(rcfg.getLoopLocations());
+		mInitialNodes = new LinkedHashSet<>(rcfg.getInitialNodes());
+		mOutgoingEdges = new HashMap<>();
+		new IcfgLocationIterator<>(mEntryNodes.values()).asStream()
+				.forEach(a -> mOutgoingEdges.put(a, new LinkedHashSet<>(a.getOutgoingEdges())));
+		// has to be computed before the first product adds its self loops (which are steps) to the sinks
+		mEverythingIsAStep = new IcfgEdgeIterator(rcfg).asStream()
+				.allMatch(a -> LTLStepAnnotation.getAnnotation(a) == null);
+	}
+
+	/**
+	 * @return true iff the original RCFG has no step specification
+	 */
+	public boolean isEverythingAStep() {
+		return mEverythingIsAStep;
+	}
+
+	/**
+	 * Makes the container describe the original RCFG again. The edges that a previous product added to the locations
+	 * of the original RCFG are removed.
+	 *
+	 * @return the container
+	 */
+	public BoogieIcfgContainer restore() {
+		for (final Entry<BoogieIcfgLocation, Set<IcfgEdge>> entry : mOutgoingEdges.entrySet()) {
+			final List<IcfgEdge> added = new ArrayList<>(entry.getKey().getOutgoingEdges());
+			added.removeAll(entry.getValue());
+			for (final IcfgEdge edge : added) {
+				edge.disconnectSource();
+				edge.disconnectTarget();
+			}
+		}
+		mRcfg.getProgramPoints().clear();
+		for (final Entry<String, Map<DebugIdentifier, BoogieIcfgLocation>> entry : mProgramPoints.entrySet()) {
+			mRcfg.getProgramPoints().put(entry.getKey(), new HashMap<>(entry.getValue()));
+		}
+		mRcfg.getProcedureEntryNodes().clear();
+		mRcfg.getProcedureEntryNodes().putAll(mEntryNodes);
+		mRcfg.getProcedureExitNodes().clear();
+		mRcfg.getProcedureExitNodes().putAll(mExitNodes);
+		mRcfg.getLoopLocations().clear();
+		mRcfg.getLoopLocations().addAll(mLoopLocations);
+		mRcfg.getInitialNodes().clear();
+		mRcfg.getInitialNodes().addAll(mInitialNodes);
+		return mRcfg;
+	}
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE BuchiProgramProduct plug-in.
+ *
+ * The ULTIMATE BuchiProgramProduct plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE BuchiProgramProduct plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE BuchiProgramProduct plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE BuchiProgramProduct plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE BuchiProgramProduct plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.buchiprogramproduct.productgenerator;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.boogie.annotation.LTLPropertyCheck;
+import de.uni_freiburg.informatik.ultimate.boogie.annotation.LTLPropertyCheck.CheckableExpression;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Attribute;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.CallStatement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Declaration;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Expression;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Procedure;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Specification;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.VarList;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.VariableLHS;
+import de.uni_freiburg.informatik.ultimate.buchiprogramproduct.ProductBacktranslator;
+import de.uni_freiburg.informatik.ultimate.core.lib.models.annotation.BuchiProgramAcceptingStateAnnotation;
+import de.uni_freiburg.informatik.ultimate.core.lib.models.annotation.DefaultLocation;
+import de.uni_freiburg.informatik.ultimate.core.model.models.ILocation;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.boogie.Boogie2SMT;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.boogie.BoogieDeclarations;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.ConcurrencyInformation;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IcfgEdge;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IcfgLocation;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.debugidentifiers.StringDebugIdentifier;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.ManagedScript;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.SmtUtils.SimplificationTechnique;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.SmtUtils.XnfConversionTechnique;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.solverbuilder.SolverBuilder;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.solverbuilder.SolverBuilder.SolverMode;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.BoogieIcfgContainer;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.BoogieIcfgLocation;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.Call;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.CodeBlock;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.CodeBlockFactory;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.Return;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Builds the product of an RCFG with procedure calls eagerly and on-the-fly and checks that both have the same
+ * reachable part.
+ */
+public class OnTheFlyProductTest {
+
+	private static final ILocation LOC = new DefaultLocation();
+	private static final String START = "ULTIMATE.start";
+	private static final String MAIN = "main";
+	private static final String FOO = "foo";
+
+	private IUltimateServiceProvider mServices;
+	private ILogger mLogger;
+
+	@Before
+	public void setUp() {
+		mServices = RcfgStructureSnapshotTest.withoutPreferences(UltimateMocks.createUltimateServiceProviderMock());
+		mLogger = mServices.getLoggingService().getLogger(getClass());
+	}
+
+	/**
+	 * The return to the second call site of foo is found only after the return to the first call site was created,
+	 * because the second call is reachable only from there.
+	 */
+	@Test
+	public void sameReachablePartWithLateReturn() {
+		final BoogieIcfgContainer eagerRcfg = createRcfg();
+		final Set<String> eager = describeReachable(createProduct(eagerRcfg, false));
+		final BoogieIcfgContainer onTheFlyRcfg = createRcfg();
+		final Set<String> onTheFly = describeReachable(createProduct(onTheFlyRcfg, true));
+
+		Assert.assertTrue("the return to the second call site is reachable",
+				onTheFly.stream().anyMatch(a -> a.contains("-> l2_")));
+		Assert.assertEquals(eager, onTheFly);
+	}
+
+	private BoogieIcfgContainer createProduct(final BoogieIcfgContainer rcfg, final boolean onTheFly) {
+		final NestedWordAutomaton<CodeBlock, String> nwa = RcfgStructureSnapshotTest.createEventuallyAutomaton(rcfg);
+		return new ProductGenerator(nwa, new RcfgStructureSnapshot(rcfg),
+				new LTLPropertyCheck("F(AP0)",
+						Collections.singletonMap("AP0",
+								new CheckableExpression(RcfgStructureSnapshotTest.assumeTrue().getFormula(),
+										Collections.emptyList())),
+						Collections.emptyList()),
+				mServices, new ProductBacktranslator(IcfgEdge.class, Term.class), SimplificationTechnique.SIMPLIFY_DDA,
+				XnfConversionTechnique.BOTTOM_UP_WITH_LOCAL_SIMPLIFICATION, onTheFly, false).getProductRcfg();
+	}
+
+	/**
+	 * ULTIMATE.start calls main, which does not belong to the product. mainENTRY calls foo and returns to l1, l1 calls
+	 * foo again and returns to l2, l2 -> mainEXIT. foo consists of fooENTRY -> fooEXIT.
+	 */
+	private BoogieIcfgContainer createRcfg() {
+		final Script script = SolverBuilder.buildAndInitializeSolver(mServices,
+				SolverBuilder.constructSolverSettings().setSolverMode(SolverMode.Internal_SMTInterpol), "Test");
+		final ManagedScript mgdScript = new ManagedScript(mServices, script);
+		final BoogieDeclarations declarations =
+				new BoogieDeclarations(new Declaration[] { createProcedure(START), createProcedure(MAIN), createProcedure(FOO) }, mLogger);
+		final BoogieIcfgContainer rcfg = new BoogieIcfgContainer(mServices, declarations,
+				new Boogie2SMT(mgdScript, declarations, mServices, false),
+				new ConcurrencyInformation(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyList()));
+
+		final BoogieIcfgLocation startEntry = createLocation(rcfg, START, "startENTRY");
+		final BoogieIcfgLocation startExit = createLocation(rcfg, START, "startEXIT");
+		final BoogieIcfgLocation mainEntry = createLocation(rcfg, MAIN, "mainENTRY");
+		final BoogieIcfgLocation l1 = createLocation(rcfg, MAIN, "l1");
+		final BoogieIcfgLocation l2 = createLocation(rcfg, MAIN, "l2");
+		final BoogieIcfgLocation mainExit = createLocation(rcfg, MAIN, "mainEXIT");
+		final BoogieIcfgLocation fooEntry = createLocation(rcfg, FOO, "fooENTRY");
+		final BoogieIcfgLocation fooExit = createLocation(rcfg, FOO, "fooEXIT");
+		final CodeBlockFactory factory = rcfg.getCodeBlockFactory();
+		final Call mainCall = factory.constructCall(startEntry, mainEntry, call(MAIN));
+		final Call firstCall = factory.constructCall(mainEntry, fooEntry, call(FOO));
+		final Call secondCall = factory.constructCall(l1, fooEntry, call(FOO));
+		factory.constructStatementSequence(fooEntry, fooExit, RcfgStructureSnapshotTest.assumeTrue());
+		factory.constructReturn(fooExit, l1, firstCall);
+		factory.constructReturn(fooExit, l2, secondCall);
+		factory.constructStatementSequence(l2, mainExit, RcfgStructureSnapshotTest.assumeTrue());
+		factory.constructReturn(mainExit, startExit, mainCall);
+		rcfg.getProcedureEntryNodes().put(START, startEntry);
+		rcfg.getProcedureExitNodes().put(START, startExit);
+		rcfg.getProcedureEntryNodes().put(MAIN, mainEntry);
+		rcfg.getProcedureExitNodes().put(MAIN, mainExit);
+		rcfg.getProcedureEntryNodes().put(FOO, fooEntry);
+		rcfg.getProcedureExitNodes().put(FOO, fooExit);
+		rcfg.getInitialNodes().add(startEntry);
+		return rcfg;
+	}
+
+	private static Procedure createProcedure(final String name) {
+		return new Procedure(LOC, new Attribute[0], name, new String[0], new VarList[0], new VarList[0],
+				new Specification[0], null);
+	}
+
+	private static CallStatement call(final String proc) {
+		return new CallStatement(LOC, false, new VariableLHS[0], proc, new Expression[0]);
+	}
+
+	private static BoogieIcfgLocation createLocation(final BoogieIcfgContainer rcfg, final String proc,
+			final String name) {
+		final StringDebugIdentifier id = new StringDebugIdentifier(name);
+		final BoogieIcfgLocation loc = new BoogieIcfgLocation(id, proc, false, null);
+		rcfg.getProgramPoints().computeIfAbsent(proc, a -> new HashMap<>()).put(id, loc);
+		return loc;
+	}
+
+	/**
+	 * Explores the product from its initial locations, where a return edge is only followed if the source of its call
+	 * is reachable. Helper locations get fresh names in each product, so an edge into a helper location is described
+	 * together with the outgoing edges of the helper.
+	 *
+	 * @return the reachable edges by the names of their locations, and the reachable accepting locations
+	 */
+	private static Set<String> describeReachable(final BoogieIcfgContainer product) {
+		final Set<IcfgLocation> reachable = new HashSet<>();
+		final Deque<IcfgLocation> worklist = new ArrayDeque<>(product.getInitialNodes());
+		final Set<Return> blockedReturns = new HashSet<>();
+		boolean changed = true;
+		while (changed) {
+			while (!worklist.isEmpty()) {
+				final IcfgLocation loc = worklist.removeFirst();
+				if (!reachable.add(loc)) {
+					continue;
+				}
+				for (final IcfgEdge edge : loc.getOutgoingEdges()) {
+					if (edge instanceof Return) {
+						blockedReturns.add((Return) edge);
+					} else {
+						worklist.add(edge.getTarget());
+					}
+				}
+			}
+			changed = false;
+			for (final Return ret : new HashSet<>(blockedReturns)) {
+				if (reachable.contains(ret.getCallerProgramPoint())) {
+					blockedReturns.remove(ret);
+					worklist.add(ret.getTarget());
+					changed = true;
+				}
+			}
+		}
+
+		final Set<String> result = new TreeSet<>();
+		for (final IcfgLocation loc : reachable) {
+			final BoogieIcfgLocation bLoc = (BoogieIcfgLocation) loc;
+			if (ProductLocationNameGenerator.isHelperState(bLoc)) {
+				continue;
+			}
+			if (BuchiProgramAcceptingStateAnnotation.getAnnotation(bLoc) != null) {
+				result.add("accepting " + bLoc);
+			}
+			for (final IcfgEdge edge : bLoc.getOutgoingEdges()) {
+				if (blockedReturns.contains(edge)) {
+					continue;
+				}
+				final String prefix = edge instanceof Return
+						? bLoc + " -return from " + ((Return) edge).getCallerProgramPoint() + "-> "
+						: bLoc + " -" + edge.getClass().getSimpleName() + "-> ";
+				final BoogieIcfgLocation target = (BoogieIcfgLocation) edge.getTarget();
+				if (ProductLocationNameGenerator.isHelperState(target)) {
+					for (final IcfgEdge helperEdge : target.getOutgoingEdges()) {
+						result.add(prefix + "helper -> " + helperEdge.getTarget());
+					}
+				} else {
+					result.add(prefix + target);
+				}
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE BuchiProgramProduct plug-in.
+ *
+ * The ULTIMATE BuchiProgramProduct plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE BuchiProgramProduct plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE BuchiProgramProduct plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE BuchiProgramProduct plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE BuchiProgramProduct plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.buchiprogramproduct.productgenerator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.boogie.DeclarationInformation;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.AssignmentStatement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.AssumeStatement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Attribute;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.BinaryExpression;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Declaration;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Expression;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.IdentifierExpression;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.IntegerLiteral;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.LeftHandSide;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.ModifiesSpecification;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Procedure;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Specification;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Statement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.VarList;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.VariableDeclaration;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.VariableLHS;
+import de.uni_freiburg.informatik.ultimate.boogie.type.BoogieType;
+import de.uni_freiburg.informatik.ultimate.core.lib.models.annotation.DefaultLocation;
+import de.uni_freiburg.informatik.ultimate.core.model.models.ILocation;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.boogie.Boogie2SMT;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.boogie.BoogieDeclarations;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.ConcurrencyInformation;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.debugidentifiers.StringDebugIdentifier;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.transitions.TransFormulaUtils;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.transitions.UnmodifiableTransFormula;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.ManagedScript;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.SmtUtils.SimplificationTechnique;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.SmtUtils.XnfConversionTechnique;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.solverbuilder.SolverBuilder;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.solverbuilder.SolverBuilder.SolverMode;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.BoogieIcfgContainer;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.BoogieIcfgLocation;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.CodeBlockFactory;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.StatementSequence;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Checks that the transition formulas that {@link ProductTransFormulaCache} composes from the transition formula of
+ * the original edge and the letter are equivalent to the translation of the statements of the product edge.
+ */
+public class ProductTransFormulaCacheTest {
+
+	private static final ILocation LOC = new DefaultLocation();
+	private static final String MAIN = "main";
+	private static final String FOO = "foo";
+	private static final String VAR = "x";
+
+	private IUltimateServiceProvider mServices;
+	private ILogger mLogger;
+	private BoogieIcfgContainer mRcfg;
+	private CodeBlockFactory mFactory;
+	private ProductTransFormulaCache mCache;
+	private StatementSequence mLetter;
+
+	@Before
+	public void setUp() {
+		mServices = RcfgStructureSnapshotTest.withoutPreferences(UltimateMocks.createUltimateServiceProviderMock());
+		mLogger = mServices.getLoggingService().getLogger(getClass());
+		mRcfg = createRcfg();
+		mFactory = mRcfg.getCodeBlockFactory();
+		mCache = new ProductTransFormulaCache(mRcfg, mServices, mLogger, SimplificationTechnique.SIMPLIFY_DDA,
+				XnfConversionTechnique.BOTTOM_UP_WITH_LOCAL_SIMPLIFICATION);
+		// assume x > 0
+		mLetter = mFactory.constructStatementSequence(null, null, new AssumeStatement(LOC,
+				new BinaryExpression(LOC, BoogieType.TYPE_BOOL, BinaryExpression.Operator.COMPGT, var(), literal())));
+	}
+
+	@Test
+	public void composedEqualsTranslated() {
+		final StatementSequence original = createOriginalEdge(MAIN);
+		final StatementSequence first = createProductEdge(MAIN, original, mLetter);
+		final StatementSequence second = createProductEdge(MAIN, original, mLetter);
+
+		assertEquivalentToTranslation(MAIN, first);
+		Assert.assertSame("copies of one edge share the transition formula", first.getTransformula(),
+				second.getTransformula());
+	}
+
+	/**
+	 * The letter belongs to no procedure, so the product edges of two procedures share it; each one must be
+	 * translated in its own procedure.
+	 */
+	@Test
+	public void procedureSharingTheLetter() {
+		final StatementSequence inMain = createProductEdge(MAIN, createOriginalEdge(MAIN), mLetter);
+		final StatementSequence inFoo = createProductEdge(FOO, createOriginalEdge(FOO), mLetter);
+		final StatementSequence onlyLetterInMain = createProductEdge(MAIN, null, mLetter);
+		final StatementSequence onlyLetterInFoo = createProductEdge(FOO, null, mLetter);
+
+		assertEquivalentToTranslation(MAIN, inMain);
+		assertEquivalentToTranslation(FOO, inFoo);
+		assertEquivalentToTranslation(MAIN, onlyLetterInMain);
+		assertEquivalentToTranslation(FOO, onlyLetterInFoo);
+		Assert.assertNotSame(inMain.getTransformula(), inFoo.getTransformula());
+	}
+
+	@Test
+	public void edgeOfAnotherProcedureIsRejected() {
+		final StatementSequence edge =
+				mFactory.constructStatementSequence(createLocation(MAIN), createLocation(MAIN), mLetter.getStatements(),
+						StatementSequence.Origin.IMPLEMENTATION);
+		mCache.registerProductEdge(edge, null, mLetter);
+		Assert.assertFalse(mCache.addTransFormula(edge, FOO));
+		Assert.assertNull(edge.getTransformula());
+	}
+
+	/**
+	 * @return an edge x := x + 1 of the given procedure with the transition formula the RCFG builder would give it
+	 */
+	private StatementSequence createOriginalEdge(final String proc) {
+		final StatementSequence edge = mFactory.constructStatementSequence(createLocation(proc), createLocation(proc),
+				new AssignmentStatement(LOC,
+						new LeftHandSide[] {
+								new VariableLHS(LOC, BoogieType.TYPE_INT, VAR,
+										DeclarationInformation.DECLARATIONINFO_GLOBAL) },
+						new Expression[] { new BinaryExpression(LOC, BoogieType.TYPE_INT,
+								BinaryExpression.Operator.ARITHPLUS, var(), literal()) }));
+		edge.setTransitionFormula(translate(proc, edge.getStatements()));
+		return edge;
+	}
+
+	private StatementSequence createProductEdge(final String proc, final StatementSequence original,
+			final StatementSequence letter) {
+		final List<Statement> statements = new ArrayList<>();
+		if (original != null) {
+			statements.addAll(original.getStatements());
+		}
+		statements.addAll(letter.getStatements());
+		final StatementSequence edge = mFactory.constructStatementSequence(createLocation(proc), createLocation(proc),
+				statements, StatementSequence.Origin.IMPLEMENTATION);
+		mCache.registerProductEdge(edge, original, letter);
+		Assert.assertTrue(mCache.addTransFormula(edge, proc));
+		return edge;
+	}
+
+	private void assertEquivalentToTranslation(final String proc, final StatementSequence edge) {
+		final UnmodifiableTransFormula cached = edge.getTransformula();
+		final UnmodifiableTransFormula translated = translate(proc, edge.getStatements());
+		final ManagedScript mgdScript = mRcfg.getCfgSmtToolkit().getManagedScript();
+		Assert.assertEquals(LBool.UNSAT, TransFormulaUtils.checkImplication(cached, translated, mgdScript));
+		Assert.assertEquals(LBool.UNSAT, TransFormulaUtils.checkImplication(translated, cached, mgdScript));
+	}
+
+	private UnmodifiableTransFormula translate(final String proc, final List<Statement> statements) {
+		return mRcfg.getBoogie2SMT().getStatements2TransFormula()
+				.statementSequence(SimplificationTechnique.NONE, proc, statements).getTransFormula();
+	}
+
+	/**
+	 * A global variable x and two procedures main and foo that modify it.
+	 */
+	private BoogieIcfgContainer createRcfg() {
+		final Script script = SolverBuilder.buildAndInitializeSolver(mServices,
+				SolverBuilder.constructSolverSettings().setSolverMode(SolverMode.Internal_SMTInterpol), "Test");
+		final ManagedScript mgdScript = new ManagedScript(mServices, script);
+		final VariableDeclaration global = new VariableDeclaration(LOC, new Attribute[0],
+				new VarList[] { new VarList(LOC, new String[] { VAR }, BoogieType.TYPE_INT.toASTType(LOC)) });
+		final BoogieDeclarations declarations = new BoogieDeclarations(
+				new Declaration[] { global, createProcedure(MAIN), createProcedure(FOO) }, mLogger);
+		return new BoogieIcfgContainer(mServices, declarations,
+				new Boogie2SMT(mgdScript, declarations, mServices, false),
+				new ConcurrencyInformation(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyList()));
+	}
+
+	private static Procedure createProcedure(final String name) {
+		final Specification modifies = new ModifiesSpecification(LOC, false, new VariableLHS[] {
+				new VariableLHS(LOC, BoogieType.TYPE_INT, VAR, DeclarationInformation.DECLARATIONINFO_GLOBAL) });
+		return new Procedure(LOC, new Attribute[0], name, new String[0], new VarList[0], new VarList[0],
+				new Specification[] { modifies }, null);
+	}
+
+	private BoogieIcfgLocation createLocation(final String proc) {
+		final StringDebugIdentifier id = new StringDebugIdentifier(proc + mRcfg.getProgramPoints().size()
+				+ mRcfg.getProgramPoints().getOrDefault(proc, Collections.emptyMap()).size());
+		final BoogieIcfgLocation loc = new BoogieIcfgLocation(id, proc, false, null);
+		mRcfg.getProgramPoints().computeIfAbsent(proc, a -> new HashMap<>()).put(id, loc);
+		return loc;
+	}
+
+	private static IdentifierExpression var() {
+		return new IdentifierExpression(LOC, BoogieType.TYPE_INT, VAR, DeclarationInformation.DECLARATIONINFO_GLOBAL);
+	}
+
+	private static IntegerLiteral literal() {
+		return new IntegerLiteral(LOC, BoogieType.TYPE_INT, "1");
+	}
+}
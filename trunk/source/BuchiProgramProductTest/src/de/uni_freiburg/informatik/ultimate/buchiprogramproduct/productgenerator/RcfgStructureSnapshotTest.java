@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE BuchiProgramProduct plug-in.
+ *
+ * The ULTIMATE BuchiProgramProduct plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE BuchiProgramProduct plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE BuchiProgramProduct plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE BuchiProgramProduct plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE BuchiProgramProduct plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.buchiprogramproduct.productgenerator;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.VpAlphabet;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.boogie.annotation.LTLPropertyCheck;
+import de.uni_freiburg.informatik.ultimate.boogie.annotation.LTLPropertyCheck.CheckableExpression;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.AssumeStatement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Attribute;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.BooleanLiteral;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Declaration;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Procedure;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Specification;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.VarList;
+import de.uni_freiburg.informatik.ultimate.boogie.type.BoogieType;
+import de.uni_freiburg.informatik.ultimate.buchiprogramproduct.ProductBacktranslator;
+import de.uni_freiburg.informatik.ultimate.core.lib.models.annotation.BuchiProgramAcceptingStateAnnotation;
+import de.uni_freiburg.informatik.ultimate.core.lib.models.annotation.DefaultLocation;
+import de.uni_freiburg.informatik.ultimate.core.model.models.ILocation;
+import de.uni_freiburg.informatik.ultimate.core.model.preferences.IPreferenceProvider;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.boogie.Boogie2SMT;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.boogie.BoogieDeclarations;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.ConcurrencyInformation;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IcfgEdge;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.debugidentifiers.StringDebugIdentifier;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.ManagedScript;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.SmtUtils.SimplificationTechnique;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.SmtUtils.XnfConversionTechnique;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.solverbuilder.SolverBuilder;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.solverbuilder.SolverBuilder.SolverMode;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.BoogieIcfgContainer;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.BoogieIcfgLocation;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.CodeBlock;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.CodeBlockFactory;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Builds two products from the same RCFG (batch mode) and checks that the second one is the same as the product that
+ * is built from a fresh RCFG.
+ */
+public class RcfgStructureSnapshotTest {
+
+	private static final ILocation LOC = new DefaultLocation();
+	private static final String PROC = "main";
+
+	private IUltimateServiceProvider mServices;
+	private ILogger mLogger;
+
+	@Before
+	public void setUp() {
+		mServices = withoutPreferences(UltimateMocks.createUltimateServiceProviderMock());
+		mLogger = mServices.getLoggingService().getLogger(getClass());
+	}
+
+	@Test
+	public void secondProductDoesNotDependOnFirst() {
+		final BoogieIcfgContainer rcfg = createRcfg();
+		final BoogieIcfgLocation exit = rcfg.getProcedureExitNodes().get(PROC);
+		final RcfgStructureSnapshot snapshot = new RcfgStructureSnapshot(rcfg);
+
+		createProduct(snapshot, createInfinitelyOftenAutomaton(rcfg));
+		Assert.assertEquals("the first product adds a self loop to the sink", 1, exit.getOutgoingEdges().size());
+		final Set<String> second = describe(createProduct(snapshot, createEventuallyAutomaton(rcfg)));
+
+		final BoogieIcfgContainer fresh = createRcfg();
+		final Set<String> expected =
+				describe(createProduct(new RcfgStructureSnapshot(fresh), createEventuallyAutomaton(fresh)));
+		Assert.assertEquals(expected, second);
+	}
+
+	@Test
+	public void restoreRemovesSelfLoopsOfSinks() {
+		final BoogieIcfgContainer rcfg = createRcfg();
+		final BoogieIcfgLocation exit = rcfg.getProcedureExitNodes().get(PROC);
+		final RcfgStructureSnapshot snapshot = new RcfgStructureSnapshot(rcfg);
+		createProduct(snapshot, createInfinitelyOftenAutomaton(rcfg));
+
+		snapshot.restore();
+		Assert.assertTrue(exit.getOutgoingEdges().isEmpty());
+		Assert.assertEquals(1, exit.getIncomingEdges().size());
+		Assert.assertEquals(Collections.singleton(PROC), rcfg.getProgramPoints().keySet());
+		Assert.assertEquals(3, rcfg.getProgramPoints().get(PROC).size());
+	}
+
+	/**
+	 * The mock has no preferences, but the transition formulas of the product depend on whether the RCFG builder
+	 * simplifies code blocks. We answer every yes/no question with no.
+	 */
+	static IUltimateServiceProvider withoutPreferences(final IUltimateServiceProvider services) {
+		final ClassLoader loader = RcfgStructureSnapshotTest.class.getClassLoader();
+		final IPreferenceProvider prefs = (IPreferenceProvider) Proxy.newProxyInstance(loader,
+				new Class<?>[] { IPreferenceProvider.class }, (proxy, method, args) -> {
+					if (method.getReturnType() == boolean.class) {
+						return false;
+					}
+					throw new UnsupportedOperationException(method.getName());
+				});
+		return (IUltimateServiceProvider) Proxy.newProxyInstance(loader,
+				new Class<?>[] { IUltimateServiceProvider.class },
+				(proxy, method, args) -> "getPreferenceProvider".equals(method.getName()) ? prefs
+						: method.invoke(services, args));
+	}
+
+	private BoogieIcfgContainer createProduct(final RcfgStructureSnapshot snapshot,
+			final NestedWordAutomaton<CodeBlock, String> nwa) {
+		return new ProductGenerator(nwa, snapshot,
+				new LTLPropertyCheck("F(AP0)",
+						Collections.singletonMap("AP0",
+								new CheckableExpression(assumeTrue().getFormula(), Collections.emptyList())),
+						Collections.emptyList()),
+				mServices,
+				new ProductBacktranslator(IcfgEdge.class, Term.class), SimplificationTechnique.SIMPLIFY_DDA,
+				XnfConversionTechnique.BOTTOM_UP_WITH_LOCAL_SIMPLIFICATION, false, false).getProductRcfg();
+	}
+
+	/**
+	 * mainENTRY -> loop -> loop -> mainEXIT, where mainEXIT is a sink.
+	 */
+	private BoogieIcfgContainer createRcfg() {
+		final Script script = SolverBuilder.buildAndInitializeSolver(mServices,
+				SolverBuilder.constructSolverSettings().setSolverMode(SolverMode.Internal_SMTInterpol), "Test");
+		final ManagedScript mgdScript = new ManagedScript(mServices, script);
+		final Procedure main = new Procedure(LOC, new Attribute[0], PROC, new String[0], new VarList[0],
+				new VarList[0], new Specification[0], null);
+		final BoogieDeclarations declarations = new BoogieDeclarations(new Declaration[] { main }, mLogger);
+		final BoogieIcfgContainer rcfg = new BoogieIcfgContainer(mServices, declarations,
+				new Boogie2SMT(mgdScript, declarations, mServices, false),
+				new ConcurrencyInformation(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyList()));
+
+		final BoogieIcfgLocation entry = createLocation(rcfg, "mainENTRY");
+		final BoogieIcfgLocation loop = createLocation(rcfg, "loop");
+		final BoogieIcfgLocation exit = createLocation(rcfg, "mainEXIT");
+		final CodeBlockFactory factory = rcfg.getCodeBlockFactory();
+		factory.constructStatementSequence(entry, loop, assumeTrue());
+		factory.constructStatementSequence(loop, loop, assumeTrue());
+		factory.constructStatementSequence(loop, exit, assumeTrue());
+		rcfg.getProcedureEntryNodes().put(PROC, entry);
+		rcfg.getProcedureExitNodes().put(PROC, exit);
+		rcfg.getInitialNodes().add(entry);
+		return rcfg;
+	}
+
+	private static BoogieIcfgLocation createLocation(final BoogieIcfgContainer rcfg, final String name) {
+		final StringDebugIdentifier id = new StringDebugIdentifier(name);
+		final BoogieIcfgLocation loc = new BoogieIcfgLocation(id, PROC, false, null);
+		rcfg.getProgramPoints().computeIfAbsent(PROC, a -> new HashMap<>()).put(id, loc);
+		return loc;
+	}
+
+	/**
+	 * One state with a self loop that is accepting.
+	 */
+	private static NestedWordAutomaton<CodeBlock, String> createInfinitelyOftenAutomaton(
+			final BoogieIcfgContainer rcfg) {
+		final CodeBlock letter = rcfg.getCodeBlockFactory().constructStatementSequence(null, null, assumeTrue());
+		final NestedWordAutomaton<CodeBlock, String> nwa = createAutomaton(letter);
+		nwa.addState(true, true, "q0");
+		nwa.addInternalTransition("q0", letter, "q0");
+		return nwa;
+	}
+
+	/**
+	 * An accepting state that is reached after one step.
+	 */
+	static NestedWordAutomaton<CodeBlock, String> createEventuallyAutomaton(final BoogieIcfgContainer rcfg) {
+		final CodeBlock letter = rcfg.getCodeBlockFactory().constructStatementSequence(null, null, assumeTrue());
+		final NestedWordAutomaton<CodeBlock, String> nwa = createAutomaton(letter);
+		nwa.addState(true, false, "q0");
+		nwa.addState(false, true, "q1");
+		nwa.addInternalTransition("q0", letter, "q1");
+		nwa.addInternalTransition("q1", letter, "q1");
+		return nwa;
+	}
+
+	private static NestedWordAutomaton<CodeBlock, String> createAutomaton(final CodeBlock letter) {
+		return new NestedWordAutomaton<>(new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock()),
+				new VpAlphabet<>(Collections.singleton(letter)), new StringFactory());
+	}
+
+	static AssumeStatement assumeTrue() {
+		return new AssumeStatement(LOC, new BooleanLiteral(LOC, BoogieType.TYPE_BOOL, true));
+	}
+
+	/**
+	 * @return the edges of the product by the names of their locations, and the accepting locations
+	 */
+	private static Set<String> describe(final BoogieIcfgContainer product) {
+		final Set<String> result = new TreeSet<>();
+		for (final Map<?, BoogieIcfgLocation> locations : product.getProgramPoints().values()) {
+			for (final BoogieIcfgLocation loc : locations.values()) {
+				if (BuchiProgramAcceptingStateAnnotation.getAnnotation(loc) != null) {
+					result.add("accepting " + loc);
+				}
+				for (final IcfgEdge edge : loc.getOutgoingEdges()) {
+					result.add(edge.getSource() + " -> " + edge.getTarget());
+				}
+			}
+		}
+		return result;
+	}
+}
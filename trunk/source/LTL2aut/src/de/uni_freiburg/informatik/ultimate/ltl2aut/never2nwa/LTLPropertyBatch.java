@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE LTL2Aut plug-in.
+ *
+ * The ULTIMATE LTL2Aut plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE LTL2Aut plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE LTL2Aut plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE LTL2Aut plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE LTL2Aut plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.ltl2aut.never2nwa;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.uni_freiburg.informatik.ultimate.core.lib.models.annotation.ModernAnnotations;
+import de.uni_freiburg.informatik.ultimate.core.model.models.IElement;
+import de.uni_freiburg.informatik.ultimate.core.model.models.ModelUtils;
+import de.uni_freiburg.informatik.ultimate.core.model.models.annotation.Visualizable;
+
+/**
+ * Annotates the {@link NWAContainer} of the first property of a batch with the automata of all remaining properties.
+ * Each of these {@link NWAContainer}s carries its own
+ * {@link de.uni_freiburg.informatik.ultimate.boogie.annotation.LTLPropertyCheck}, and all of them are checked against
+ * the same program.
+ */
+public class LTLPropertyBatch extends ModernAnnotations {
+
+	private static final long serialVersionUID = 1L;
+	private static final String KEY = LTLPropertyBatch.class.getSimpleName();
+
+	@Visualizable
+	private final List<NWAContainer> mRemainingProperties;
+
+	public LTLPropertyBatch(final List<NWAContainer> remainingProperties) {
+		mRemainingProperties = Collections.unmodifiableList(new ArrayList<>(remainingProperties));
+	}
+
+	public List<NWAContainer> getRemainingProperties() {
+		return mRemainingProperties;
+	}
+
+	public void annotate(final IElement elem) {
+		elem.getPayload().getAnnotations().put(KEY, this);
+	}
+
+	public static LTLPropertyBatch getAnnotation(final IElement elem) {
+		return ModelUtils.getAnnotation(elem, KEY, a -> (LTLPropertyBatch) a);
+	}
+}
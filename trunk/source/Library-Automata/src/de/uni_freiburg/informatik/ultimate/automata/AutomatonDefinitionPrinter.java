@@ -28,6 +28,7 @@
 package de.uni_freiburg.informatik.ultimate.automata;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -47,10 +48,12 @@ import de.uni_freiburg.informatik.ultimate.automata.counting.datastructures.Coun
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.INwaOutgoingLetterAndTransitionProvider;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomataUtils;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.ReadNwaBinary;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.reachablestates.NestedWordAutomatonReachableStates;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.visualization.BaFormatWriter;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.visualization.GoalFormatWriter;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.visualization.HanoiFormatWriter;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.visualization.NwaBinaryWriter;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.visualization.NwaWriterToString;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.visualization.NwaWriterToStringWithHash;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.visualization.NwaWriterUniqueId;
@@ -118,7 +121,12 @@ public class AutomatonDefinitionPrinter<LETTER, STATE> {
 		/**
 		 * The <tt>Hanoi Omega Automaton</tt> format.
 		 */
-		HOA("hoa");
+		HOA("hoa"),
+		/**
+		 * Compact binary format for nested word automata (see {@link NwaBinaryWriter}) that {@link ReadNwaBinary}
+		 * reads back. A file contains exactly one automaton.
+		 */
+		NWA_BINARY(NwaBinaryWriter.FILE_ENDING);
 
 		private final String mFileEnding;
 
@@ -168,6 +176,10 @@ public class AutomatonDefinitionPrinter<LETTER, STATE> {
 			final String fileName, final Format format, final String message, final boolean append,
 			final IAutomaton<?, ?>... automata) {
 		this(services);
+		if (format == Format.NWA_BINARY) {
+			writeBinaryFile(automatonName, fileName, append, automata);
+			return;
+		}
 		final FileWriter fileWriter = getFileWriterWithOptionalAppend(fileName, format, append);
 		if (fileWriter != null) {
 			if (mLogger.isWarnEnabled()) {
@@ -247,6 +259,34 @@ public class AutomatonDefinitionPrinter<LETTER, STATE> {
 		new AutomatonDefinitionPrinter<>(services, fileNamePrefix, fileName, Format.ATS_NUMERATE, message, automata);
 	}
 
+	private void writeBinaryFile(final String automatonName, final String fileName, final boolean append,
+			final IAutomaton<?, ?>... automata) {
+		if (append || automata.length != ONE
+				|| !(automata[0] instanceof INwaOutgoingLetterAndTransitionProvider)) {
+			if (mLogger.isErrorEnabled()) {
+				mLogger.error(String.format(
+						"Not dumping automaton %s: %s format stores exactly one nested word automaton per file",
+						automatonName, Format.NWA_BINARY));
+			}
+			return;
+		}
+		final File file = new File(fileName + '.' + Format.NWA_BINARY.getFileEnding());
+		if (mLogger.isWarnEnabled()) {
+			mLogger.warn(String.format("Dumping automaton %s to %s", automatonName, file));
+		}
+		final INestedWordAutomaton<?, ?> nwa =
+				toNestedWordAutomaton(mServices, (INwaOutgoingLetterAndTransitionProvider<?, ?>) automata[0]);
+		try (FileOutputStream output = new FileOutputStream(file)) {
+			new NwaBinaryWriter<>(output, nwa);
+		} catch (final IOException | IllegalArgumentException e) {
+			if (mLogger.isErrorEnabled()) {
+				mLogger.error("Writing binary automaton did not work.", e);
+			}
+			// do not leave a truncated file that cannot be read back
+			file.delete();
+		}
+	}
+
 	/**
 	 * @param append
 	 *
@@ -380,16 +420,7 @@ public class AutomatonDefinitionPrinter<LETTER, STATE> {
 	private static <LETTER, STATE> void printNestedWordAutomaton(final AutomataLibraryServices services,
 			final String name, final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> automaton,
 			final Format format, final PrintWriter printWriter) throws AssertionError {
-		INestedWordAutomaton<LETTER, STATE> nwa;
-		if (automaton instanceof INestedWordAutomaton) {
-			nwa = (INestedWordAutomaton<LETTER, STATE>) automaton;
-		} else {
-			try {
-				nwa = new NestedWordAutomatonReachableStates<>(services, automaton);
-			} catch (final AutomataOperationCanceledException e) {
-				throw new AssertionError("Timeout while preparing automaton for printing.");
-			}
-		}
+		final INestedWordAutomaton<LETTER, STATE> nwa = toNestedWordAutomaton(services, automaton);
 		switch (format) {
 		case ATS:
 			new NwaWriterToString<>(printWriter, name, nwa);
@@ -426,6 +457,19 @@ public class AutomatonDefinitionPrinter<LETTER, STATE> {
 		}
 	}
 
+	private static <LETTER, STATE> INestedWordAutomaton<LETTER, STATE> toNestedWordAutomaton(
+			final AutomataLibraryServices services,
+			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> automaton) {
+		if (automaton instanceof INestedWordAutomaton) {
+			return (INestedWordAutomaton<LETTER, STATE>) automaton;
+		}
+		try {
+			return new NestedWordAutomatonReachableStates<>(services, automaton);
+		} catch (final AutomataOperationCanceledException e) {
+			throw new AssertionError("Timeout while preparing automaton for printing.");
+		}
+	}
+
 	private static <LETTER, STATE> void printCountingAutomaton(final String name,
 			final CountingAutomaton<LETTER, STATE> automaton, final Format format, final PrintWriter printWriter) {
 		switch (format) {
@@ -210,6 +210,16 @@ public enum StatisticsType {
 	 * If the operation has timed out.
 	 */
 	HAS_TIMED_OUT,
+	/**
+	 * Measured heap memory of a {@link de.uni_freiburg.informatik.ultimate.automata.nestedword.CompactNestedWordAutomaton
+	 * CompactNestedWordAutomaton}.
+	 */
+	HEAP_BYTES_COMPACT,
+	/**
+	 * Measured heap memory of a {@link de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton
+	 * NestedWordAutomaton} with the same transitions.
+	 */
+	HEAP_BYTES_NESTED_WORD_AUTOMATON,
 	/**
 	 * Result of an inclusion check.
 	 */
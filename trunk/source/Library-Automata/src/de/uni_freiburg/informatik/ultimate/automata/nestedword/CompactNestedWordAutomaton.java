@@ -0,0 +1,845 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomatonDefinitionPrinter;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.IncomingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.IncomingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.IncomingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.SummaryReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.IStateFactory;
+import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.RunningTaskInfo;
+import gnu.trove.impl.Constants;
+import gnu.trove.map.hash.TObjectIntHashMap;
+
+/**
+ * Immutable implementation of the {@link INestedWordAutomaton} interface that stores its transitions in primitive
+ * arrays.
+ * <p>
+ * States and letters are numbered densely. For each kind of transition and each direction the transitions are stored
+ * in compressed sparse row form: the transitions of the state with number i occupy the positions offsets[i] to
+ * offsets[i+1]-1 of a few int arrays and are sorted lexicographically, hence all transitions of a state with a given
+ * letter (and hierarchical predecessor) form a contiguous range that is found by binary search. In contrast to the
+ * nested hash maps of {@link NestedWordAutomaton} no map entries or sets are allocated per transition, transition
+ * objects are only created during the iteration.
+ * <p>
+ * The constructor serves as adapter from any {@link INestedWordAutomaton}. The state factory, the alphabet and the
+ * empty stack state are taken from that automaton. {@link NestedWordAutomataMemoryBenchmark} compares the memory of
+ * both representations.
+ *
+ * @param <LETTER>
+ *            letter type
+ * @param <STATE>
+ *            state type
+ */
+public class CompactNestedWordAutomaton<LETTER, STATE> implements INestedWordAutomaton<LETTER, STATE> {
+	private static final int NO_ID = -1;
+	private static final String STATE2 = "State ";
+	private static final String UNKNOWN = " unknown";
+
+	private final AutomataLibraryServices mServices;
+	private final VpAlphabet<LETTER> mVpAlphabet;
+	private final IStateFactory<STATE> mStateFactory;
+	private final STATE mEmptyStackState;
+
+	private final Object[] mStates;
+	private final TObjectIntHashMap<STATE> mStateIds;
+	private final Object[] mLetters;
+	private final TObjectIntHashMap<LETTER> mLetterIds;
+	private final BitSet mInitialStates;
+	private final BitSet mFinalStates;
+
+	/**
+	 * Internal transitions stored as PREs -> (LETTER, SUCC).
+	 */
+	private final TransitionTable mInternalOut;
+	/**
+	 * Internal transitions stored as SUCCs -> (LETTER, PRE).
+	 */
+	private final TransitionTable mInternalIn;
+	/**
+	 * Call transitions stored as PREs -> (LETTER, SUCC).
+	 */
+	private final TransitionTable mCallOut;
+	/**
+	 * Call transitions stored as SUCCs -> (LETTER, PRE).
+	 */
+	private final TransitionTable mCallIn;
+	/**
+	 * Return transitions stored as LinPREs -> (HierPRE, LETTER, SUCC).
+	 */
+	private final TransitionTable mReturnOut;
+	/**
+	 * Return transitions stored as SUCCs -> (LETTER, HierPRE, LinPRE).
+	 */
+	private final TransitionTable mReturnIn;
+	/**
+	 * Return transitions stored as HierPREs -> (LETTER, LinPRE, SUCC).
+	 */
+	private final TransitionTable mReturnSummary;
+
+	/**
+	 * Constructor that copies all states and transitions of an automaton.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param nwa
+	 *            nested word automaton
+	 * @throws AutomataOperationCanceledException
+	 *             if timeout exceeds
+	 * @throws IllegalArgumentException
+	 *             if a transition uses a letter that is not in the alphabet or a state that is not a state of the
+	 *             automaton
+	 */
+	public CompactNestedWordAutomaton(final AutomataLibraryServices services,
+			final INestedWordAutomaton<LETTER, STATE> nwa) throws AutomataOperationCanceledException {
+		mServices = services;
+		mVpAlphabet = nwa.getVpAlphabet();
+		mStateFactory = nwa.getStateFactory();
+		mEmptyStackState = nwa.getEmptyStackState();
+
+		final Set<STATE> states = nwa.getStates();
+		mStates = new Object[states.size()];
+		mStateIds = new TObjectIntHashMap<>(states.size(), Constants.DEFAULT_LOAD_FACTOR, NO_ID);
+		mInitialStates = new BitSet(mStates.length);
+		mFinalStates = new BitSet(mStates.length);
+		for (final STATE state : states) {
+			final int id = mStateIds.size();
+			mStates[id] = state;
+			mStateIds.put(state, id);
+			if (nwa.isInitial(state)) {
+				mInitialStates.set(id);
+			}
+			if (nwa.isFinal(state)) {
+				mFinalStates.set(id);
+			}
+		}
+
+		final Set<LETTER> letters = new HashSet<>(mVpAlphabet.getInternalAlphabet());
+		letters.addAll(mVpAlphabet.getCallAlphabet());
+		letters.addAll(mVpAlphabet.getReturnAlphabet());
+		mLetters = new Object[letters.size()];
+		mLetterIds = new TObjectIntHashMap<>(letters.size(), Constants.DEFAULT_LOAD_FACTOR, NO_ID);
+		for (final LETTER letter : letters) {
+			final int id = mLetterIds.size();
+			mLetters[id] = letter;
+			mLetterIds.put(letter, id);
+		}
+
+		final int numberOfStates = mStates.length;
+		final int numberOfLetters = mLetters.length;
+		final TransitionTableBuilder internalOut =
+				new TransitionTableBuilder(numberOfStates, numberOfLetters, numberOfStates);
+		final TransitionTableBuilder internalIn =
+				new TransitionTableBuilder(numberOfStates, numberOfLetters, numberOfStates);
+		final TransitionTableBuilder callOut =
+				new TransitionTableBuilder(numberOfStates, numberOfLetters, numberOfStates);
+		final TransitionTableBuilder callIn =
+				new TransitionTableBuilder(numberOfStates, numberOfLetters, numberOfStates);
+		final TransitionTableBuilder returnOut =
+				new TransitionTableBuilder(numberOfStates, numberOfStates, numberOfLetters, numberOfStates);
+		final TransitionTableBuilder returnIn =
+				new TransitionTableBuilder(numberOfStates, numberOfLetters, numberOfStates, numberOfStates);
+		final TransitionTableBuilder returnSummary =
+				new TransitionTableBuilder(numberOfStates, numberOfLetters, numberOfStates, numberOfStates);
+		for (int pred = 0; pred < numberOfStates; pred++) {
+			if (!mServices.getProgressAwareTimer().continueProcessing()) {
+				final String taskDescription = "constructing compact automaton (input had " + numberOfStates
+						+ " states, " + pred + " of them were already copied)";
+				throw new AutomataOperationCanceledException(new RunningTaskInfo(getClass(), taskDescription));
+			}
+			final STATE state = getState(pred);
+			for (final OutgoingInternalTransition<LETTER, STATE> trans : nwa.internalSuccessors(state)) {
+				final int letter = getLetterId(trans.getLetter());
+				final int succ = getStateId(trans.getSucc());
+				internalOut.add(pred, letter, succ);
+				internalIn.add(succ, letter, pred);
+			}
+			for (final OutgoingCallTransition<LETTER, STATE> trans : nwa.callSuccessors(state)) {
+				final int letter = getLetterId(trans.getLetter());
+				final int succ = getStateId(trans.getSucc());
+				callOut.add(pred, letter, succ);
+				callIn.add(succ, letter, pred);
+			}
+			for (final OutgoingReturnTransition<LETTER, STATE> trans : nwa.returnSuccessors(state)) {
+				final int hier = getStateId(trans.getHierPred());
+				final int letter = getLetterId(trans.getLetter());
+				final int succ = getStateId(trans.getSucc());
+				returnOut.add(pred, hier, letter, succ);
+				returnIn.add(succ, letter, hier, pred);
+				returnSummary.add(hier, letter, pred, succ);
+			}
+		}
+		mInternalOut = internalOut.build();
+		mInternalIn = internalIn.build();
+		mCallOut = callOut.build();
+		mCallIn = callIn.build();
+		mReturnOut = returnOut.build();
+		mReturnIn = returnIn.build();
+		mReturnSummary = returnSummary.build();
+	}
+
+	@SuppressWarnings("unchecked")
+	private STATE getState(final int id) {
+		return (STATE) mStates[id];
+	}
+
+	@SuppressWarnings("unchecked")
+	private LETTER getLetter(final int id) {
+		return (LETTER) mLetters[id];
+	}
+
+	private int getStateId(final STATE state) {
+		final int id = mStateIds.get(state);
+		if (id == NO_ID) {
+			throw new IllegalArgumentException(STATE2 + state + UNKNOWN);
+		}
+		return id;
+	}
+
+	private int getLetterId(final LETTER letter) {
+		final int id = mLetterIds.get(letter);
+		if (id == NO_ID) {
+			throw new IllegalArgumentException("Letter " + letter + " not in alphabet");
+		}
+		return id;
+	}
+
+	@Override
+	public VpAlphabet<LETTER> getVpAlphabet() {
+		return mVpAlphabet;
+	}
+
+	@Override
+	public IStateFactory<STATE> getStateFactory() {
+		return mStateFactory;
+	}
+
+	@Override
+	public STATE getEmptyStackState() {
+		return mEmptyStackState;
+	}
+
+	@Override
+	public int size() {
+		return mStates.length;
+	}
+
+	@Override
+	public String sizeInformation() {
+		return mStates.length + " states, " + (mInternalOut.size() + mCallOut.size() + mReturnOut.size())
+				+ " transitions.";
+	}
+
+	@Override
+	public Set<STATE> getStates() {
+		return new StateSet(null);
+	}
+
+	@Override
+	public Set<STATE> getInitialStates() {
+		return new StateSet(mInitialStates);
+	}
+
+	@Override
+	public Set<STATE> getFinalStates() {
+		return new StateSet(mFinalStates);
+	}
+
+	@Override
+	public boolean isInitial(final STATE state) {
+		return mInitialStates.get(getStateId(state));
+	}
+
+	@Override
+	public boolean isFinal(final STATE state) {
+		return mFinalStates.get(getStateId(state));
+	}
+
+	@Override
+	public Set<LETTER> lettersInternal(final STATE state) {
+		final int id = getStateId(state);
+		return new LetterSet(mInternalOut, 0, mInternalOut.from(id), mInternalOut.to(id));
+	}
+
+	@Override
+	public Set<LETTER> lettersCall(final STATE state) {
+		final int id = getStateId(state);
+		return new LetterSet(mCallOut, 0, mCallOut.from(id), mCallOut.to(id));
+	}
+
+	@Override
+	public Set<LETTER> lettersReturn(final STATE state, final STATE hier) {
+		final int id = getStateId(state);
+		final int hierId = mStateIds.get(hier);
+		if (hierId == NO_ID) {
+			return Collections.emptySet();
+		}
+		final int from = mReturnOut.lowerBound(0, mReturnOut.from(id), mReturnOut.to(id), hierId);
+		final int to = mReturnOut.upperBound(0, from, mReturnOut.to(id), hierId);
+		return new LetterSet(mReturnOut, 1, from, to);
+	}
+
+	@Override
+	public Set<LETTER> lettersReturn(final STATE state) {
+		final int id = getStateId(state);
+		final Set<LETTER> result = new HashSet<>();
+		for (int i = mReturnOut.from(id); i < mReturnOut.to(id); i++) {
+			result.add(getLetter(mReturnOut.get(1, i)));
+		}
+		return result;
+	}
+
+	@Override
+	public Set<LETTER> lettersInternalIncoming(final STATE state) {
+		final int id = getStateId(state);
+		return new LetterSet(mInternalIn, 0, mInternalIn.from(id), mInternalIn.to(id));
+	}
+
+	@Override
+	public Set<LETTER> lettersCallIncoming(final STATE state) {
+		final int id = getStateId(state);
+		return new LetterSet(mCallIn, 0, mCallIn.from(id), mCallIn.to(id));
+	}
+
+	@Override
+	public Set<LETTER> lettersReturnIncoming(final STATE state) {
+		final int id = getStateId(state);
+		return new LetterSet(mReturnIn, 0, mReturnIn.from(id), mReturnIn.to(id));
+	}
+
+	@Override
+	public Set<LETTER> lettersSummary(final STATE state) {
+		final int id = getStateId(state);
+		return new LetterSet(mReturnSummary, 0, mReturnSummary.from(id), mReturnSummary.to(id));
+	}
+
+	@Override
+	public Iterable<OutgoingInternalTransition<LETTER, STATE>> internalSuccessors(final STATE state,
+			final LETTER letter) {
+		final int id = getStateId(state);
+		final int letterId = mLetterIds.get(letter);
+		if (letterId == NO_ID) {
+			return Collections.emptySet();
+		}
+		final int from = mInternalOut.lowerBound(0, mInternalOut.from(id), mInternalOut.to(id), letterId);
+		final int to = mInternalOut.upperBound(0, from, mInternalOut.to(id), letterId);
+		return transitions(from, to, i -> new OutgoingInternalTransition<>(letter, getState(mInternalOut.get(1, i))));
+	}
+
+	@Override
+	public Iterable<OutgoingInternalTransition<LETTER, STATE>> internalSuccessors(final STATE state) {
+		final int id = getStateId(state);
+		return transitions(mInternalOut.from(id), mInternalOut.to(id), i -> new OutgoingInternalTransition<>(
+				getLetter(mInternalOut.get(0, i)), getState(mInternalOut.get(1, i))));
+	}
+
+	@Override
+	public Iterable<OutgoingCallTransition<LETTER, STATE>> callSuccessors(final STATE state, final LETTER letter) {
+		final int id = getStateId(state);
+		final int letterId = mLetterIds.get(letter);
+		if (letterId == NO_ID) {
+			return Collections.emptySet();
+		}
+		final int from = mCallOut.lowerBound(0, mCallOut.from(id), mCallOut.to(id), letterId);
+		final int to = mCallOut.upperBound(0, from, mCallOut.to(id), letterId);
+		return transitions(from, to, i -> new OutgoingCallTransition<>(letter, getState(mCallOut.get(1, i))));
+	}
+
+	@Override
+	public Iterable<OutgoingCallTransition<LETTER, STATE>> callSuccessors(final STATE state) {
+		final int id = getStateId(state);
+		return transitions(mCallOut.from(id), mCallOut.to(id), i -> new OutgoingCallTransition<>(
+				getLetter(mCallOut.get(0, i)), getState(mCallOut.get(1, i))));
+	}
+
+	@Override
+	public Iterable<OutgoingReturnTransition<LETTER, STATE>> returnSuccessors(final STATE state, final STATE hier,
+			final LETTER letter) {
+		final int id = getStateId(state);
+		final int hierId = mStateIds.get(hier);
+		final int letterId = mLetterIds.get(letter);
+		if (hierId == NO_ID || letterId == NO_ID) {
+			return Collections.emptySet();
+		}
+		final int fromHier = mReturnOut.lowerBound(0, mReturnOut.from(id), mReturnOut.to(id), hierId);
+		final int toHier = mReturnOut.upperBound(0, fromHier, mReturnOut.to(id), hierId);
+		final int from = mReturnOut.lowerBound(1, fromHier, toHier, letterId);
+		final int to = mReturnOut.upperBound(1, from, toHier, letterId);
+		return transitions(from, to,
+				i -> new OutgoingReturnTransition<>(hier, letter, getState(mReturnOut.get(2, i))));
+	}
+
+	@Override
+	public Iterable<OutgoingReturnTransition<LETTER, STATE>> returnSuccessorsGivenHier(final STATE state,
+			final STATE hier) {
+		final int id = getStateId(state);
+		final int hierId = mStateIds.get(hier);
+		if (hierId == NO_ID) {
+			return Collections.emptySet();
+		}
+		final int from = mReturnOut.lowerBound(0, mReturnOut.from(id), mReturnOut.to(id), hierId);
+		final int to = mReturnOut.upperBound(0, from, mReturnOut.to(id), hierId);
+		return transitions(from, to, i -> new OutgoingReturnTransition<>(hier, getLetter(mReturnOut.get(1, i)),
+				getState(mReturnOut.get(2, i))));
+	}
+
+	@Override
+	public Iterable<OutgoingReturnTransition<LETTER, STATE>> returnSuccessors(final STATE state) {
+		final int id = getStateId(state);
+		return transitions(mReturnOut.from(id), mReturnOut.to(id),
+				i -> new OutgoingReturnTransition<>(getState(mReturnOut.get(0, i)), getLetter(mReturnOut.get(1, i)),
+						getState(mReturnOut.get(2, i))));
+	}
+
+	@Override
+	public Iterable<IncomingInternalTransition<LETTER, STATE>> internalPredecessors(final STATE succ,
+			final LETTER letter) {
+		final int id = getStateId(succ);
+		final int letterId = mLetterIds.get(letter);
+		if (letterId == NO_ID) {
+			return Collections.emptySet();
+		}
+		final int from = mInternalIn.lowerBound(0, mInternalIn.from(id), mInternalIn.to(id), letterId);
+		final int to = mInternalIn.upperBound(0, from, mInternalIn.to(id), letterId);
+		return transitions(from, to, i -> new IncomingInternalTransition<>(getState(mInternalIn.get(1, i)), letter));
+	}
+
+	@Override
+	public Iterable<IncomingInternalTransition<LETTER, STATE>> internalPredecessors(final STATE succ) {
+		final int id = getStateId(succ);
+		return transitions(mInternalIn.from(id), mInternalIn.to(id), i -> new IncomingInternalTransition<>(
+				getState(mInternalIn.get(1, i)), getLetter(mInternalIn.get(0, i))));
+	}
+
+	@Override
+	public Iterable<IncomingCallTransition<LETTER, STATE>> callPredecessors(final STATE succ, final LETTER letter) {
+		final int id = getStateId(succ);
+		final int letterId = mLetterIds.get(letter);
+		if (letterId == NO_ID) {
+			return Collections.emptySet();
+		}
+		final int from = mCallIn.lowerBound(0, mCallIn.from(id), mCallIn.to(id), letterId);
+		final int to = mCallIn.upperBound(0, from, mCallIn.to(id), letterId);
+		return transitions(from, to, i -> new IncomingCallTransition<>(getState(mCallIn.get(1, i)), letter));
+	}
+
+	@Override
+	public Iterable<IncomingCallTransition<LETTER, STATE>> callPredecessors(final STATE succ) {
+		final int id = getStateId(succ);
+		return transitions(mCallIn.from(id), mCallIn.to(id), i -> new IncomingCallTransition<>(
+				getState(mCallIn.get(1, i)), getLetter(mCallIn.get(0, i))));
+	}
+
+	@Override
+	public Iterable<IncomingReturnTransition<LETTER, STATE>> returnPredecessors(final STATE succ, final STATE hier,
+			final LETTER letter) {
+		final int id = getStateId(succ);
+		final int hierId = mStateIds.get(hier);
+		final int letterId = mLetterIds.get(letter);
+		if (hierId == NO_ID || letterId == NO_ID) {
+			return Collections.emptySet();
+		}
+		final int fromLetter = mReturnIn.lowerBound(0, mReturnIn.from(id), mReturnIn.to(id), letterId);
+		final int toLetter = mReturnIn.upperBound(0, fromLetter, mReturnIn.to(id), letterId);
+		final int from = mReturnIn.lowerBound(1, fromLetter, toLetter, hierId);
+		final int to = mReturnIn.upperBound(1, from, toLetter, hierId);
+		return transitions(from, to,
+				i -> new IncomingReturnTransition<>(getState(mReturnIn.get(2, i)), hier, letter));
+	}
+
+	@Override
+	public Iterable<IncomingReturnTransition<LETTER, STATE>> returnPredecessors(final STATE succ,
+			final LETTER letter) {
+		final int id = getStateId(succ);
+		final int letterId = mLetterIds.get(letter);
+		if (letterId == NO_ID) {
+			return Collections.emptySet();
+		}
+		final int from = mReturnIn.lowerBound(0, mReturnIn.from(id), mReturnIn.to(id), letterId);
+		final int to = mReturnIn.upperBound(0, from, mReturnIn.to(id), letterId);
+		return transitions(from, to, i -> new IncomingReturnTransition<>(getState(mReturnIn.get(2, i)),
+				getState(mReturnIn.get(1, i)), letter));
+	}
+
+	@Override
+	public Iterable<IncomingReturnTransition<LETTER, STATE>> returnPredecessors(final STATE succ) {
+		final int id = getStateId(succ);
+		return transitions(mReturnIn.from(id), mReturnIn.to(id),
+				i -> new IncomingReturnTransition<>(getState(mReturnIn.get(2, i)), getState(mReturnIn.get(1, i)),
+						getLetter(mReturnIn.get(0, i))));
+	}
+
+	@Override
+	public Iterable<SummaryReturnTransition<LETTER, STATE>> summarySuccessors(final STATE hier, final LETTER letter) {
+		final int id = getStateId(hier);
+		final int letterId = mLetterIds.get(letter);
+		if (letterId == NO_ID) {
+			return Collections.emptySet();
+		}
+		final int from = mReturnSummary.lowerBound(0, mReturnSummary.from(id), mReturnSummary.to(id), letterId);
+		final int to = mReturnSummary.upperBound(0, from, mReturnSummary.to(id), letterId);
+		return transitions(from, to, i -> new SummaryReturnTransition<>(getState(mReturnSummary.get(1, i)), letter,
+				getState(mReturnSummary.get(2, i))));
+	}
+
+	@Override
+	public Iterable<SummaryReturnTransition<LETTER, STATE>> summarySuccessors(final STATE hier) {
+		final int id = getStateId(hier);
+		return transitions(mReturnSummary.from(id), mReturnSummary.to(id),
+				i -> new SummaryReturnTransition<>(getState(mReturnSummary.get(1, i)),
+						getLetter(mReturnSummary.get(0, i)), getState(mReturnSummary.get(2, i))));
+	}
+
+	private static <T> Iterable<T> transitions(final int from, final int to, final IntFunction<T> transition) {
+		return () -> new Iterator<T>() {
+			private int mNext = from;
+
+			@Override
+			public boolean hasNext() {
+				return mNext < to;
+			}
+
+			@Override
+			public T next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return transition.apply(mNext++);
+			}
+		};
+	}
+
+	/**
+	 * @return number of internal, call, and return transitions
+	 */
+	public int getNumberOfTransitions() {
+		return mInternalOut.size() + mCallOut.size() + mReturnOut.size();
+	}
+
+	/**
+	 * Set of all states or of the states in a bit set.
+	 */
+	private final class StateSet extends AbstractSet<STATE> {
+		private final BitSet mMembers;
+
+		private StateSet(final BitSet members) {
+			mMembers = members;
+		}
+
+		@Override
+		public boolean contains(final Object obj) {
+			final int id = mStateIds.get(obj);
+			return id != NO_ID && (mMembers == null || mMembers.get(id));
+		}
+
+		@Override
+		public int size() {
+			return mMembers == null ? mStates.length : mMembers.cardinality();
+		}
+
+		@Override
+		public Iterator<STATE> iterator() {
+			return new Iterator<STATE>() {
+				private int mNext = nextId(0);
+
+				private int nextId(final int from) {
+					if (mMembers == null) {
+						return from < mStates.length ? from : NO_ID;
+					}
+					return mMembers.nextSetBit(from);
+				}
+
+				@Override
+				public boolean hasNext() {
+					return mNext != NO_ID;
+				}
+
+				@Override
+				public STATE next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					final STATE result = getState(mNext);
+					mNext = nextId(mNext + 1);
+					return result;
+				}
+			};
+		}
+	}
+
+	/**
+	 * Set of the letters in a range of a sorted column of a transition table.
+	 */
+	private final class LetterSet extends AbstractSet<LETTER> {
+		private final TransitionTable mTable;
+		private final int mColumn;
+		private final int mFrom;
+		private final int mTo;
+
+		private LetterSet(final TransitionTable table, final int column, final int from, final int to) {
+			mTable = table;
+			mColumn = column;
+			mFrom = from;
+			mTo = to;
+		}
+
+		@Override
+		public boolean contains(final Object obj) {
+			final int id = mLetterIds.get(obj);
+			if (id == NO_ID) {
+				return false;
+			}
+			final int index = mTable.lowerBound(mColumn, mFrom, mTo, id);
+			return index < mTo && mTable.get(mColumn, index) == id;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return mFrom == mTo;
+		}
+
+		@Override
+		public int size() {
+			int result = 0;
+			for (int i = mFrom; i < mTo; i = mTable.upperBound(mColumn, i, mTo, mTable.get(mColumn, i))) {
+				result++;
+			}
+			return result;
+		}
+
+		@Override
+		public Iterator<LETTER> iterator() {
+			return new Iterator<LETTER>() {
+				private int mNext = mFrom;
+
+				@Override
+				public boolean hasNext() {
+					return mNext < mTo;
+				}
+
+				@Override
+				public LETTER next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					final int id = mTable.get(mColumn, mNext);
+					mNext = mTable.upperBound(mColumn, mNext, mTo, id);
+					return getLetter(id);
+				}
+			};
+		}
+	}
+
+	/**
+	 * Relation between a state (the row) and tuples of ints (the columns) in compressed sparse row form. The tuples of
+	 * each row are sorted lexicographically.
+	 */
+	private static final class TransitionTable {
+		private final int[] mOffsets;
+		private final int[][] mColumns;
+
+		private TransitionTable(final int[] offsets, final int[][] columns) {
+			mOffsets = offsets;
+			mColumns = columns;
+		}
+
+		int size() {
+			return mOffsets[mOffsets.length - 1];
+		}
+
+		int from(final int row) {
+			return mOffsets[row];
+		}
+
+		int to(final int row) {
+			return mOffsets[row + 1];
+		}
+
+		int get(final int column, final int index) {
+			return mColumns[column][index];
+		}
+
+		/**
+		 * @return the first index in [from, to) whose value in the column is at least key, or to; the values of the
+		 *         column have to be sorted in [from, to)
+		 */
+		int lowerBound(final int column, final int from, final int to, final int key) {
+			final int[] values = mColumns[column];
+			int low = from;
+			int high = to;
+			while (low < high) {
+				final int mid = (low + high) >>> 1;
+				if (values[mid] < key) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+		/**
+		 * @return the first index in [from, to) whose value in the column is greater than key, or to; the values of
+		 *         the column have to be sorted in [from, to)
+		 */
+		int upperBound(final int column, final int from, final int to, final int key) {
+			final int[] values = mColumns[column];
+			int low = from;
+			int high = to;
+			while (low < high) {
+				final int mid = (low + high) >>> 1;
+				if (values[mid] <= key) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+	}
+
+	/**
+	 * Collects the tuples of a {@link TransitionTable}.
+	 */
+	private static final class TransitionTableBuilder {
+		private static final int INITIAL_CAPACITY = 16;
+
+		private final int mRows;
+		private final int[] mColumnRanges;
+		private int[] mRowOf;
+		private final int[][] mColumns;
+		private int mSize;
+
+		/**
+		 * @param rows
+		 *            number of rows
+		 * @param columnRanges
+		 *            for each column an upper bound (exclusive) of its values
+		 */
+		private TransitionTableBuilder(final int rows, final int... columnRanges) {
+			mRows = rows;
+			mColumnRanges = columnRanges;
+			mRowOf = new int[INITIAL_CAPACITY];
+			mColumns = new int[columnRanges.length][INITIAL_CAPACITY];
+		}
+
+		private void add(final int row, final int first, final int second) {
+			assert mColumns.length == 2;
+			ensureCapacity();
+			mRowOf[mSize] = row;
+			mColumns[0][mSize] = first;
+			mColumns[1][mSize] = second;
+			mSize++;
+		}
+
+		private void add(final int row, final int first, final int second, final int third) {
+			assert mColumns.length == 3;
+			ensureCapacity();
+			mRowOf[mSize] = row;
+			mColumns[0][mSize] = first;
+			mColumns[1][mSize] = second;
+			mColumns[2][mSize] = third;
+			mSize++;
+		}
+
+		private void ensureCapacity() {
+			if (mSize < mRowOf.length) {
+				return;
+			}
+			final int capacity = 2 * mRowOf.length;
+			mRowOf = Arrays.copyOf(mRowOf, capacity);
+			for (int column = 0; column < mColumns.length; column++) {
+				mColumns[column] = Arrays.copyOf(mColumns[column], capacity);
+			}
+		}
+
+		/**
+		 * Sorts the tuples by a stable counting sort for each column, starting with the last one and ending with the
+		 * row.
+		 */
+		private TransitionTable build() {
+			int[] order = new int[mSize];
+			for (int i = 0; i < mSize; i++) {
+				order[i] = i;
+			}
+			for (int column = mColumns.length - 1; column >= 0; column--) {
+				order = countingSort(order, mColumns[column], mColumnRanges[column]);
+			}
+			order = countingSort(order, mRowOf, mRows);
+
+			final int[] offsets = new int[mRows + 1];
+			for (int i = 0; i < mSize; i++) {
+				offsets[mRowOf[i] + 1]++;
+			}
+			for (int row = 0; row < mRows; row++) {
+				offsets[row + 1] += offsets[row];
+			}
+			final int[][] columns = new int[mColumns.length][mSize];
+			for (int column = 0; column < mColumns.length; column++) {
+				for (int i = 0; i < mSize; i++) {
+					columns[column][i] = mColumns[column][order[i]];
+				}
+			}
+			return new TransitionTable(offsets, columns);
+		}
+
+		private int[] countingSort(final int[] order, final int[] keys, final int range) {
+			final int[] start = new int[range + 1];
+			for (final int index : order) {
+				start[keys[index] + 1]++;
+			}
+			for (int key = 0; key < range; key++) {
+				start[key + 1] += start[key];
+			}
+			final int[] result = new int[order.length];
+			for (final int index : order) {
+				result[start[keys[index]]++] = index;
+			}
+			return result;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return AutomatonDefinitionPrinter.toString(mServices, "nwa", this);
+	}
+}
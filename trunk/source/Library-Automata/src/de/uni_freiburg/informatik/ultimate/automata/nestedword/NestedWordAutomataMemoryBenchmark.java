@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword;
+
+import java.lang.ref.Reference;
+import java.util.Arrays;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.core.lib.results.StatisticsResult;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IResultService;
+import de.uni_freiburg.informatik.ultimate.util.csv.ICsvProvider;
+import de.uni_freiburg.informatik.ultimate.util.csv.ICsvProviderProvider;
+import de.uni_freiburg.informatik.ultimate.util.csv.SimpleCsvProvider;
+
+/**
+ * Compares the heap memory of a {@link NestedWordAutomaton} and of a {@link CompactNestedWordAutomaton} that are both
+ * copies of the same automaton.
+ * <p>
+ * The memory of each copy is measured as the increase of the used heap after a garbage collection. The states and
+ * letters are shared with the original automaton and hence not counted. The measurement is repeated and the median
+ * is taken, because a single measurement may be distorted by allocations of other threads or by a garbage collection
+ * that does not free all unreachable objects.
+ *
+ * @param <E>
+ *            letter type
+ * @param <V>
+ *            state type
+ */
+public class NestedWordAutomataMemoryBenchmark<E, V> implements ICsvProviderProvider<Long> {
+
+	private static final long KIB = 1024;
+	private static final int REPETITIONS = 5;
+	private static final int GARBAGE_COLLECTIONS = 3;
+
+	private final String mLabel;
+	private final long mStates;
+	private final long mTransitions;
+	private final long mNestedWordAutomatonBytes;
+	private final long mCompactBytes;
+
+	/**
+	 * @param services
+	 *            Ultimate services
+	 * @param nwa
+	 *            automaton whose copies are measured
+	 * @param label
+	 *            prefix of the column names
+	 * @throws AutomataOperationCanceledException
+	 *             if timeout exceeds
+	 */
+	public NestedWordAutomataMemoryBenchmark(final AutomataLibraryServices services,
+			final INestedWordAutomaton<E, V> nwa, final String label) throws AutomataOperationCanceledException {
+		mLabel = label;
+		mStates = nwa.size();
+		mNestedWordAutomatonBytes = measure(() -> copy(services, nwa));
+		final CompactNestedWordAutomaton<E, V> compact = new CompactNestedWordAutomaton<>(services, nwa);
+		mTransitions = compact.getNumberOfTransitions();
+		mCompactBytes = measure(() -> new CompactNestedWordAutomaton<>(services, nwa));
+	}
+
+	/**
+	 * @return a {@link NestedWordAutomaton} with the same states and transitions
+	 */
+	static <E, V> NestedWordAutomaton<E, V> copy(final AutomataLibraryServices services,
+			final INestedWordAutomaton<E, V> nwa) {
+		final NestedWordAutomaton<E, V> result =
+				new NestedWordAutomaton<>(services, nwa.getVpAlphabet(), nwa::getEmptyStackState);
+		for (final V state : nwa.getStates()) {
+			result.addState(nwa.isInitial(state), nwa.isFinal(state), state);
+		}
+		for (final V state : nwa.getStates()) {
+			for (final OutgoingInternalTransition<E, V> trans : nwa.internalSuccessors(state)) {
+				result.addInternalTransition(state, trans.getLetter(), trans.getSucc());
+			}
+			for (final OutgoingCallTransition<E, V> trans : nwa.callSuccessors(state)) {
+				result.addCallTransition(state, trans.getLetter(), trans.getSucc());
+			}
+			for (final OutgoingReturnTransition<E, V> trans : nwa.returnSuccessors(state)) {
+				result.addReturnTransition(state, trans.getHierPred(), trans.getLetter(), trans.getSucc());
+			}
+		}
+		return result;
+	}
+
+	private static long measure(final IAutomatonConstructor constructor) throws AutomataOperationCanceledException {
+		final long[] results = new long[REPETITIONS];
+		for (int i = 0; i < REPETITIONS; i++) {
+			results[i] = measureOnce(constructor);
+		}
+		Arrays.sort(results);
+		return results[REPETITIONS / 2];
+	}
+
+	/**
+	 * Separate method such that the automaton of the previous repetition is not kept alive by a local variable.
+	 */
+	private static long measureOnce(final IAutomatonConstructor constructor)
+			throws AutomataOperationCanceledException {
+		final long before = getUsedHeap();
+		final Object automaton = constructor.construct();
+		final long after = getUsedHeap();
+		Reference.reachabilityFence(automaton);
+		return after - before;
+	}
+
+	private static long getUsedHeap() {
+		final Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < GARBAGE_COLLECTIONS; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	public long getNestedWordAutomatonBytes() {
+		return mNestedWordAutomatonBytes;
+	}
+
+	public long getCompactBytes() {
+		return mCompactBytes;
+	}
+
+	@Override
+	public ICsvProvider<Long> createCsvProvider() {
+		final SimpleCsvProvider<Long> rtr = new SimpleCsvProvider<>(Arrays.asList(mLabel + " States",
+				mLabel + " Transitions", mLabel + " NestedWordAutomatonBytes", mLabel + " CompactBytes"));
+		rtr.addRow(Arrays.asList(mStates, mTransitions, mNestedWordAutomatonBytes, mCompactBytes));
+		return rtr;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s states, %s transitions, NestedWordAutomaton %s KiB, compact %s KiB", mStates,
+				mTransitions, mNestedWordAutomatonBytes / KIB, mCompactBytes / KIB);
+	}
+
+	public void reportBenchmarkResult(final IResultService resultService, final String pluginId, final String message) {
+		resultService.reportResult(pluginId, new StatisticsResult<>(pluginId, message, this));
+	}
+
+	/**
+	 * Constructs the automaton whose memory is measured.
+	 */
+	@FunctionalInterface
+	private interface IAutomatonConstructor {
+		Object construct() throws AutomataOperationCanceledException;
+	}
+}
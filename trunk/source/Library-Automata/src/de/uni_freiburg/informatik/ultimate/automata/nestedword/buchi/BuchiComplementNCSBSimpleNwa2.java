@@ -80,7 +80,6 @@ public class BuchiComplementNCSBSimpleNwa2<LETTER, STATE> implements INwaSuccess
 	private final Map<STATE, Integer> mStateIdMap;
 
 	private final NwaToBuchiWrapper<LETTER, STATE> mOperandBuchi;
-	private final Map<LevelRankingState<LETTER, STATE>, STATE> mDet2res = new HashMap<>();
 	private final Map<Integer, LevelRankingState<LETTER, STATE>> mInt2LevelRanks = new HashMap<>();
 	/**
 	 * Constructor.
@@ -148,9 +147,8 @@ public class BuchiComplementNCSBSimpleNwa2<LETTER, STATE> implements INwaSuccess
 	
 	protected STATE getRelatedSTATE(int sId) {
 		LevelRankingState<LETTER, STATE> lvlrk = constructLevelRankingState(sId);
-		STATE resState = mStateFactory.buchiComplementNcsb(lvlrk);
-		mDet2res.put(lvlrk, resState);
-		return resState;
+		// the level ranking is only needed by the state factory, keeping it would double the memory per state
+		return mStateFactory.buchiComplementNcsb(lvlrk);
 	}
 	private StateWithRankInfo<STATE> getStackState(int downState) {
 		StateWithRankInfo<STATE> stackState = null;
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INwaOutgoingLetterAndTransitionProvider;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NwaOutgoingLetterAndTransitionAdapter;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.optncsb.Options;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.IBuchiComplementNcsbStateFactory;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.IBuchiIntersectStateFactory;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.IEmptyStackStateFactory;
+
+/**
+ * Buchi difference "<tt>NCSBLazy</tt>" whose complement states store the sets N, C, S, and B as bit sets.
+ * <p>
+ * The states of the second operand and their down states are numbered, so each of the four sets is a
+ * {@link java.util.BitSet} over these numbers. The complement is a {@link BuchiComplementNCSBLazyNwa3} whose states are
+ * hash-consed by their NCSB tuple. Hashing and equality of these states are then operations on machine words, which
+ * needs much less time and memory than sets of objects if the second operand is large.
+ * <p>
+ * The set type of the optncsb package is global ({@link Options#setChoice}). It is set to bit sets only while the
+ * difference is constructed and restored afterwards, hence other NCSB constructions keep their set type.
+ *
+ * @param <LETTER>
+ *            letter type
+ * @param <STATE>
+ *            state type
+ */
+public final class BuchiDifferenceNCSBBitSet<LETTER, STATE> extends AbstractBuchiDifference<LETTER, STATE> {
+	/**
+	 * Value of {@link Options#setChoice} that selects bit sets.
+	 */
+	private static final int BIT_SET_CHOICE = 0;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param stateFactory
+	 *            state factory
+	 * @param fstOperand
+	 *            first operand
+	 * @param sndOperand
+	 *            second operand
+	 * @throws AutomataLibraryException
+	 *             if construction fails
+	 */
+	public <SF extends IBuchiComplementNcsbStateFactory<STATE> & IBuchiIntersectStateFactory<STATE> & IEmptyStackStateFactory<STATE>> BuchiDifferenceNCSBBitSet(
+			final AutomataLibraryServices services, final SF stateFactory,
+			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> fstOperand,
+			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> sndOperand) throws AutomataLibraryException {
+		super(services, fstOperand, sndOperand);
+
+		if (mLogger.isInfoEnabled()) {
+			mLogger.info(startMessage());
+		}
+		constructResult(stateFactory);
+		if (mLogger.isInfoEnabled()) {
+			mLogger.info(exitMessage());
+		}
+	}
+
+	private <SF extends IBuchiComplementNcsbStateFactory<STATE> & IBuchiIntersectStateFactory<STATE> & IEmptyStackStateFactory<STATE>>
+			void constructResult(final SF stateFactory) throws AutomataLibraryException {
+		// all complement states that are ever needed are constructed together with the difference, afterwards only
+		// its size is asked for
+		final int oldSetChoice = Options.setChoice;
+		Options.setChoice = BIT_SET_CHOICE;
+		try {
+			final BuchiComplementNCSBLazyNwa3<LETTER, STATE> onDemandComplemented =
+					new BuchiComplementNCSBLazyNwa3<>(mServices, stateFactory, mSndOperand);
+			mSndComplemented = new NwaOutgoingLetterAndTransitionAdapter<>(onDemandComplemented);
+			constructDifferenceFromComplement(stateFactory);
+		} finally {
+			Options.setChoice = oldSetChoice;
+		}
+	}
+}
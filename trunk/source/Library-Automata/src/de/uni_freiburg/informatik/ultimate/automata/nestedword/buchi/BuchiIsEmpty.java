@@ -65,6 +65,24 @@ public final class BuchiIsEmpty<LETTER, STATE> extends UnaryNwaOperation<LETTER,
 	 */
 	public BuchiIsEmpty(final AutomataLibraryServices services, final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> operand)
 			throws AutomataOperationCanceledException {
+		this(services, operand, 1);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param services
+	 *            Ultimate services
+	 * @param operand
+	 *            operand
+	 * @param sccThreads
+	 *            number of threads for the SCC computation
+	 * @throws AutomataOperationCanceledException
+	 *             if operation was canceled
+	 */
+	public BuchiIsEmpty(final AutomataLibraryServices services,
+			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> operand, final int sccThreads)
+			throws AutomataOperationCanceledException {
 		super(services);
 		mOperand = operand;
 
@@ -77,7 +95,7 @@ public final class BuchiIsEmpty<LETTER, STATE> extends UnaryNwaOperation<LETTER,
 			} else {
 				mReach = new NestedWordAutomatonReachableStates<>(mServices, mOperand);
 			}
-			mSccs = mReach.getOrComputeAcceptingComponents();
+			mSccs = mReach.getOrComputeAcceptingComponents(sccThreads);
 			mResult = mSccs.buchiIsEmpty();
 		} catch (final AutomataOperationCanceledException oce) {
 			throw new AutomataOperationCanceledException(getClass());
@@ -0,0 +1,607 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INwaOutgoingLetterAndTransitionProvider;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedRun;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWord;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.UnaryNwaOperation;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.reachablestates.AcceptingComponentsAnalysis;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.reachablestates.NestedWordAutomatonReachableStates;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.IStateFactory;
+import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.RunningTaskInfo;
+
+/**
+ * Buchi emptiness check for nested word automata that works on the fly. In contrast to {@link BuchiIsEmpty} the operand
+ * is not materialized as {@link NestedWordAutomatonReachableStates}. The search explores the operand depth-first and
+ * stops at the first accepting lasso. If the operand is constructed on demand (e.g., the {@link BuchiIntersectNwa} of a
+ * difference), only the states that the search visits are constructed.
+ * <p>
+ * The search is Couvreur's SCC-based emptiness check on the graph that {@link AcceptingComponentsAnalysis} uses: its
+ * edges are internal transitions, call transitions (pending calls) and summaries of a call and a matching return. An
+ * edge is accepting if its target is accepting or if the run of the summary visits an accepting state. Summaries are
+ * computed on demand by a tabulation of same-level runs, but only for the calls that the search reaches. As in
+ * {@link NestedWordAutomatonReachableStates}, returns whose hierarchical predecessor is the empty stack state are not
+ * taken.
+ *
+ * @param <LETTER>
+ *            letter type
+ * @param <STATE>
+ *            state type
+ */
+public final class BuchiIsEmptyOnTheFly<LETTER, STATE>
+		extends UnaryNwaOperation<LETTER, STATE, IStateFactory<STATE>> {
+	private static final int DEAD = -1;
+
+	private final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> mOperand;
+	private final SummaryComputation mSummaryComputation = new SummaryComputation();
+
+	private final Map<STATE, Integer> mDfsNumbers = new HashMap<>();
+	private final ArrayDeque<Frame> mPath = new ArrayDeque<>();
+	private final ArrayDeque<Root> mRoots = new ArrayDeque<>();
+	private final ArrayDeque<STATE> mLive = new ArrayDeque<>();
+	private int mDfsCounter;
+
+	private final Boolean mResult;
+	private NestedLassoRun<LETTER, STATE> mAcceptingNestedLassoRun;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param operand
+	 *            operand
+	 * @throws AutomataOperationCanceledException
+	 *             if operation was canceled
+	 */
+	public BuchiIsEmptyOnTheFly(final AutomataLibraryServices services,
+			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> operand)
+			throws AutomataOperationCanceledException {
+		super(services);
+		mOperand = operand;
+
+		if (mLogger.isInfoEnabled()) {
+			mLogger.info(startMessage());
+		}
+		mResult = !search();
+		if (!mResult) {
+			mAcceptingNestedLassoRun = constructLasso();
+		}
+		if (mLogger.isInfoEnabled()) {
+			mLogger.info(exitMessage());
+		}
+	}
+
+	@Override
+	public String exitMessage() {
+		return "Finished " + getOperationName() + ". Result is " + mResult + ". Visited " + mDfsNumbers.size()
+				+ " states, tabulated " + mSummaryComputation.getNumberOfEntries() + " call successors.";
+	}
+
+	@Override
+	protected INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> getOperand() {
+		return mOperand;
+	}
+
+	@Override
+	public Boolean getResult() {
+		return mResult;
+	}
+
+	/**
+	 * @return An accepting nested lasso run, null if the language of the operand is empty.
+	 */
+	public NestedLassoRun<LETTER, STATE> getAcceptingNestedLassoRun() {
+		if (mResult) {
+			if (mLogger.isInfoEnabled()) {
+				mLogger.info("There is no accepting nested lasso run");
+			}
+			return null;
+		}
+		return mAcceptingNestedLassoRun;
+	}
+
+	@Override
+	public boolean checkResult(final IStateFactory<STATE> stateFactory) throws AutomataLibraryException {
+		if (mLogger.isInfoEnabled()) {
+			mLogger.info("Start testing correctness of " + getOperationName());
+		}
+		final BuchiIsEmpty<LETTER, STATE> buchiIsEmpty = new BuchiIsEmpty<>(mServices, mOperand);
+		boolean correct = buchiIsEmpty.getResult().equals(mResult);
+		assert correct : getOperationName() + " wrong result!";
+		if (!mResult) {
+			correct &= new BuchiAccepts<>(mServices, mOperand, mAcceptingNestedLassoRun.getNestedLassoWord())
+					.getResult();
+			assert correct : getOperationName() + " lasso is not accepted!";
+		}
+		if (mLogger.isInfoEnabled()) {
+			mLogger.info("Finished testing correctness of " + getOperationName());
+		}
+		return correct;
+	}
+
+	/**
+	 * @return true iff an accepting SCC was found, the SCC is then the top of {@link #mRoots}
+	 */
+	private boolean search() throws AutomataOperationCanceledException {
+		for (final STATE initial : mOperand.getInitialStates()) {
+			if (!mDfsNumbers.containsKey(initial) && searchFrom(initial)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean searchFrom(final STATE start) throws AutomataOperationCanceledException {
+		push(start, null);
+		while (!mPath.isEmpty()) {
+			checkTimeout();
+			final Frame frame = mPath.peek();
+			final Edge edge = frame.nextEdge();
+			if (edge != null) {
+				final Integer dfsNumber = mDfsNumbers.get(edge.mTarget);
+				if (dfsNumber == null) {
+					push(edge.mTarget, edge);
+				} else if (dfsNumber != DEAD) {
+					// the target is in the SCC of some root on the stack, merge all SCCs above this root
+					boolean accepting = edge.mAccepting;
+					Root root = mRoots.pop();
+					while (root.mDfsNumber > dfsNumber) {
+						accepting |= root.mAccepting || root.mIncomingAccepting;
+						root = mRoots.pop();
+					}
+					root.mAccepting |= accepting;
+					mRoots.push(root);
+					if (root.mAccepting) {
+						return true;
+					}
+				}
+			} else {
+				mPath.pop();
+				if (mRoots.peek().mState.equals(frame.mState)) {
+					// the SCC of this state is complete and does not contain an accepting edge
+					mRoots.pop();
+					STATE state;
+					do {
+						state = mLive.pop();
+						mDfsNumbers.put(state, DEAD);
+					} while (!state.equals(frame.mState));
+				}
+			}
+		}
+		return false;
+	}
+
+	private void push(final STATE state, final Edge incoming) {
+		mDfsCounter++;
+		mDfsNumbers.put(state, mDfsCounter);
+		mLive.push(state);
+		mRoots.push(new Root(state, mDfsCounter, incoming != null && incoming.mAccepting));
+		mPath.push(new Frame(state, incoming));
+	}
+
+	private void checkTimeout() throws AutomataOperationCanceledException {
+		if (!mServices.getProgressAwareTimer().continueProcessing()) {
+			final String taskDescription = "searching accepting lasso (visited " + mDfsNumbers.size()
+					+ " states, tabulated " + mSummaryComputation.getNumberOfEntries() + " call successors)";
+			throw new AutomataOperationCanceledException(new RunningTaskInfo(getClass(), taskDescription));
+		}
+	}
+
+	/**
+	 * Constructs a lasso whose loop is in the accepting SCC on top of {@link #mRoots}. The loop starts at the root of the
+	 * SCC, the stem is the path of the depth-first search to the root.
+	 */
+	private NestedLassoRun<LETTER, STATE> constructLasso() throws AutomataOperationCanceledException {
+		final STATE root = mRoots.peek().mState;
+		final Set<STATE> scc = new HashSet<>();
+		for (final STATE state : mLive) {
+			scc.add(state);
+			if (state.equals(root)) {
+				break;
+			}
+		}
+
+		final Iterator<Frame> it = mPath.descendingIterator();
+		Frame frame = it.next();
+		final RunBuilder stem = new RunBuilder(frame.mState);
+		while (!frame.mState.equals(root)) {
+			frame = it.next();
+			stem.append(frame.mIncoming);
+		}
+
+		STATE acceptingSource = null;
+		Edge acceptingEdge = null;
+		for (final STATE state : scc) {
+			for (final Edge edge : getEdges(state)) {
+				if (edge.mAccepting && scc.contains(edge.mTarget)) {
+					acceptingSource = state;
+					acceptingEdge = edge;
+					break;
+				}
+			}
+			if (acceptingEdge != null) {
+				break;
+			}
+		}
+		assert acceptingEdge != null : "SCC does not contain accepting edge";
+
+		final RunBuilder loop = new RunBuilder(root);
+		for (final Edge edge : findPath(root, acceptingSource, scc)) {
+			loop.append(edge);
+		}
+		loop.append(acceptingEdge);
+		for (final Edge edge : findPath(acceptingEdge.mTarget, root, scc)) {
+			loop.append(edge);
+		}
+		return new NestedLassoRun<>(stem.build(), loop.build());
+	}
+
+	/**
+	 * Breadth-first search for a shortest path inside an SCC.
+	 */
+	private List<Edge> findPath(final STATE source, final STATE target, final Set<STATE> scc)
+			throws AutomataOperationCanceledException {
+		final Map<STATE, Edge> incoming = new HashMap<>();
+		final Map<STATE, STATE> predecessor = new HashMap<>();
+		final ArrayDeque<STATE> worklist = new ArrayDeque<>();
+		predecessor.put(source, null);
+		worklist.add(source);
+		while (!worklist.isEmpty() && !predecessor.containsKey(target)) {
+			checkTimeout();
+			final STATE state = worklist.poll();
+			for (final Edge edge : getEdges(state)) {
+				if (scc.contains(edge.mTarget) && !predecessor.containsKey(edge.mTarget)) {
+					predecessor.put(edge.mTarget, state);
+					incoming.put(edge.mTarget, edge);
+					worklist.add(edge.mTarget);
+				}
+			}
+		}
+		final List<Edge> path = new ArrayList<>();
+		for (STATE state = target; !state.equals(source); state = predecessor.get(state)) {
+			path.add(incoming.get(state));
+		}
+		Collections.reverse(path);
+		return path;
+	}
+
+	private List<Edge> getEdges(final STATE state) throws AutomataOperationCanceledException {
+		final List<Edge> result = getEdgesWithoutSummaries(state);
+		result.addAll(getSummaryEdges(state));
+		return result;
+	}
+
+	/**
+	 * @return the edges that do not need a tabulation of same-level runs
+	 */
+	private List<Edge> getEdgesWithoutSummaries(final STATE state) {
+		final List<Edge> result = new ArrayList<>();
+		for (final OutgoingInternalTransition<LETTER, STATE> trans : mOperand.internalSuccessors(state)) {
+			result.add(new Edge(EdgeKind.INTERNAL, trans.getLetter(), trans.getSucc(), mOperand.isFinal(trans.getSucc()),
+					null, null));
+		}
+		for (final OutgoingCallTransition<LETTER, STATE> trans : mOperand.callSuccessors(state)) {
+			result.add(new Edge(EdgeKind.CALL, trans.getLetter(), trans.getSucc(), mOperand.isFinal(trans.getSucc()),
+					null, null));
+		}
+		return result;
+	}
+
+	private List<Edge> getSummaryEdges(final STATE state) throws AutomataOperationCanceledException {
+		final List<Edge> result = new ArrayList<>();
+		for (final OutgoingCallTransition<LETTER, STATE> trans : mOperand.callSuccessors(state)) {
+			for (final PathEdge exit : mSummaryComputation.getPathEdges(trans.getSucc())) {
+				for (final OutgoingReturnTransition<LETTER, STATE> ret : mOperand
+						.returnSuccessorsGivenHier(exit.mTarget, state)) {
+					final boolean accepting = exit.mAccepting || mOperand.isFinal(ret.getSucc());
+					result.add(new Edge(EdgeKind.SUMMARY, trans.getLetter(), ret.getSucc(), accepting, exit,
+							ret.getLetter()));
+				}
+			}
+		}
+		return result;
+	}
+
+	private enum EdgeKind {
+		INTERNAL, CALL, SUMMARY
+	}
+
+	/**
+	 * Edge of the search graph. For summaries the letter is the letter of the call.
+	 */
+	private final class Edge {
+		private final EdgeKind mKind;
+		private final LETTER mLetter;
+		private final STATE mTarget;
+		private final boolean mAccepting;
+		private final PathEdge mSummarized;
+		private final LETTER mReturnLetter;
+
+		private Edge(final EdgeKind kind, final LETTER letter, final STATE target, final boolean accepting,
+				final PathEdge summarized, final LETTER returnLetter) {
+			mKind = kind;
+			mLetter = letter;
+			mTarget = target;
+			mAccepting = accepting;
+			mSummarized = summarized;
+			mReturnLetter = returnLetter;
+		}
+	}
+
+	/**
+	 * State on the path of the depth-first search. The summary edges are computed only after all other edges of the
+	 * state were explored.
+	 */
+	private final class Frame {
+		private final STATE mState;
+		private final Edge mIncoming;
+		private Iterator<Edge> mEdges;
+		private boolean mSummariesAdded;
+
+		private Frame(final STATE state, final Edge incoming) {
+			mState = state;
+			mIncoming = incoming;
+			mEdges = getEdgesWithoutSummaries(state).iterator();
+		}
+
+		private Edge nextEdge() throws AutomataOperationCanceledException {
+			if (!mEdges.hasNext() && !mSummariesAdded) {
+				mSummariesAdded = true;
+				mEdges = getSummaryEdges(mState).iterator();
+			}
+			return mEdges.hasNext() ? mEdges.next() : null;
+		}
+	}
+
+	/**
+	 * Root of a (not yet complete) SCC.
+	 */
+	private final class Root {
+		private final STATE mState;
+		private final int mDfsNumber;
+		private final boolean mIncomingAccepting;
+		private boolean mAccepting;
+
+		private Root(final STATE state, final int dfsNumber, final boolean incomingAccepting) {
+			mState = state;
+			mDfsNumber = dfsNumber;
+			mIncomingAccepting = incomingAccepting;
+		}
+	}
+
+	/**
+	 * Same-level run from a call successor (the entry) to some state. The path edge remembers how it was constructed from
+	 * a shorter path edge (its predecessor) such that the run can be reconstructed.
+	 */
+	private final class PathEdge {
+		private final STATE mEntry;
+		private final STATE mTarget;
+		private final boolean mAccepting;
+		private final PathEdge mPredecessor;
+		private final LETTER mLetter;
+		private final PathEdge mSummarized;
+		private final LETTER mReturnLetter;
+
+		private PathEdge(final STATE entry, final STATE target, final boolean accepting, final PathEdge predecessor,
+				final LETTER letter, final PathEdge summarized, final LETTER returnLetter) {
+			mEntry = entry;
+			mTarget = target;
+			mAccepting = accepting;
+			mPredecessor = predecessor;
+			mLetter = letter;
+			mSummarized = summarized;
+			mReturnLetter = returnLetter;
+		}
+	}
+
+	/**
+	 * Call of the operand inside a same-level run.
+	 */
+	private final class CallSite {
+		private final PathEdge mCaller;
+		private final LETTER mLetter;
+
+		private CallSite(final PathEdge caller, final LETTER letter) {
+			mCaller = caller;
+			mLetter = letter;
+		}
+	}
+
+	/**
+	 * Tabulation of same-level runs (in the style of Reps, Horwitz, Sagiv). For each entry that was requested and each
+	 * entry of a call inside one of its runs, we store for each reachable state one path edge. A path edge that visits an
+	 * accepting state replaces one that does not.
+	 */
+	private final class SummaryComputation {
+		private final Map<STATE, Map<STATE, PathEdge>> mPathEdges = new HashMap<>();
+		private final Map<STATE, List<CallSite>> mCallSites = new HashMap<>();
+		private final ArrayDeque<PathEdge> mWorklist = new ArrayDeque<>();
+
+		private int getNumberOfEntries() {
+			return mPathEdges.size();
+		}
+
+		/**
+		 * @return the path edges of all same-level runs that start in the entry
+		 */
+		private Iterable<PathEdge> getPathEdges(final STATE entry) throws AutomataOperationCanceledException {
+			addEntry(entry);
+			while (!mWorklist.isEmpty()) {
+				checkTimeout();
+				process(mWorklist.poll());
+			}
+			return new ArrayList<>(mPathEdges.get(entry).values());
+		}
+
+		private void addEntry(final STATE entry) {
+			if (!mPathEdges.containsKey(entry)) {
+				mPathEdges.put(entry, new HashMap<>());
+				add(new PathEdge(entry, entry, mOperand.isFinal(entry), null, null, null, null));
+			}
+		}
+
+		private void add(final PathEdge pathEdge) {
+			final Map<STATE, PathEdge> pathEdges = mPathEdges.get(pathEdge.mEntry);
+			final PathEdge old = pathEdges.get(pathEdge.mTarget);
+			if (old == null || !old.mAccepting && pathEdge.mAccepting) {
+				pathEdges.put(pathEdge.mTarget, pathEdge);
+				mWorklist.add(pathEdge);
+			}
+		}
+
+		private void process(final PathEdge pathEdge) {
+			if (mPathEdges.get(pathEdge.mEntry).get(pathEdge.mTarget) != pathEdge) {
+				// was replaced by a path edge that visits an accepting state
+				return;
+			}
+			final STATE state = pathEdge.mTarget;
+			for (final OutgoingInternalTransition<LETTER, STATE> trans : mOperand.internalSuccessors(state)) {
+				add(new PathEdge(pathEdge.mEntry, trans.getSucc(),
+						pathEdge.mAccepting || mOperand.isFinal(trans.getSucc()), pathEdge, trans.getLetter(), null,
+						null));
+			}
+			for (final OutgoingCallTransition<LETTER, STATE> trans : mOperand.callSuccessors(state)) {
+				final CallSite callSite = new CallSite(pathEdge, trans.getLetter());
+				mCallSites.computeIfAbsent(trans.getSucc(), x -> new ArrayList<>()).add(callSite);
+				addEntry(trans.getSucc());
+				for (final PathEdge exit : new ArrayList<>(mPathEdges.get(trans.getSucc()).values())) {
+					addReturns(callSite, exit);
+				}
+			}
+			final List<CallSite> callSites = mCallSites.get(pathEdge.mEntry);
+			if (callSites != null) {
+				for (final CallSite callSite : new ArrayList<>(callSites)) {
+					addReturns(callSite, pathEdge);
+				}
+			}
+		}
+
+		private void addReturns(final CallSite callSite, final PathEdge exit) {
+			final PathEdge caller = callSite.mCaller;
+			for (final OutgoingReturnTransition<LETTER, STATE> trans : mOperand.returnSuccessorsGivenHier(exit.mTarget,
+					caller.mTarget)) {
+				final boolean accepting = caller.mAccepting || exit.mAccepting || mOperand.isFinal(trans.getSucc());
+				add(new PathEdge(caller.mEntry, trans.getSucc(), accepting, caller, callSite.mLetter, exit,
+						trans.getLetter()));
+			}
+		}
+	}
+
+	/**
+	 * Constructs a {@link NestedRun} step by step. A return is nested with the last pending call.
+	 */
+	private final class RunBuilder {
+		private final List<LETTER> mLetters = new ArrayList<>();
+		private final List<Integer> mNestingRelation = new ArrayList<>();
+		private final ArrayList<STATE> mStates = new ArrayList<>();
+		private final ArrayDeque<Integer> mPendingCalls = new ArrayDeque<>();
+
+		private RunBuilder(final STATE state) {
+			mStates.add(state);
+		}
+
+		private void append(final Edge edge) {
+			switch (edge.mKind) {
+			case INTERNAL:
+				addInternal(edge.mLetter, edge.mTarget);
+				break;
+			case CALL:
+				addCall(edge.mLetter, edge.mTarget);
+				break;
+			case SUMMARY:
+				addCall(edge.mLetter, edge.mSummarized.mEntry);
+				append(edge.mSummarized);
+				addReturn(edge.mReturnLetter, edge.mTarget);
+				break;
+			default:
+				throw new AssertionError("unknown edge kind " + edge.mKind);
+			}
+		}
+
+		private void append(final PathEdge pathEdge) {
+			final List<PathEdge> steps = new ArrayList<>();
+			for (PathEdge current = pathEdge; current.mPredecessor != null; current = current.mPredecessor) {
+				steps.add(current);
+			}
+			Collections.reverse(steps);
+			for (final PathEdge step : steps) {
+				if (step.mSummarized == null) {
+					addInternal(step.mLetter, step.mTarget);
+				} else {
+					addCall(step.mLetter, step.mSummarized.mEntry);
+					append(step.mSummarized);
+					addReturn(step.mReturnLetter, step.mTarget);
+				}
+			}
+		}
+
+		private void addInternal(final LETTER letter, final STATE succ) {
+			mLetters.add(letter);
+			mNestingRelation.add(NestedWord.INTERNAL_POSITION);
+			mStates.add(succ);
+		}
+
+		private void addCall(final LETTER letter, final STATE succ) {
+			mPendingCalls.push(mLetters.size());
+			mLetters.add(letter);
+			mNestingRelation.add(NestedWord.PLUS_INFINITY);
+			mStates.add(succ);
+		}
+
+		private void addReturn(final LETTER letter, final STATE succ) {
+			final int call = mPendingCalls.pop();
+			mNestingRelation.set(call, mLetters.size());
+			mNestingRelation.add(call);
+			mLetters.add(letter);
+			mStates.add(succ);
+		}
+
+		private NestedRun<LETTER, STATE> build() {
+			@SuppressWarnings("unchecked")
+			final LETTER[] word = (LETTER[]) mLetters.toArray();
+			final int[] nestingRelation = mNestingRelation.stream().mapToInt(Integer::intValue).toArray();
+			return new NestedRun<>(new NestedWord<>(word, nestingRelation), mStates);
+		}
+	}
+}
@@ -33,14 +33,20 @@ import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationStatistics;
 import de.uni_freiburg.informatik.ultimate.automata.StatisticsType;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.BinaryNwaOperation;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.INwaOutgoingLetterAndTransitionProvider;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NwaOutgoingLetterAndTransitionAdapter;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.MultiOptimizationLevelRankingGenerator.FkvOptimization;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.IsDeterministic;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.IsSemiDeterministic;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.PowersetDeterminizer;
 import de.uni_freiburg.informatik.ultimate.automata.statefactory.IStateFactory;
 import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
 
 /**
  * Operation that checks if the language of the first Buchi automaton is included in the language of the second Buchi
  * automaton.
+ * <p>
+ * Optionally, the complement of the second operand and the difference are constructed on demand, and
+ * {@link BuchiIsEmptyOnTheFly} constructs them only until it finds the first counterexample.
  * 
  * @author Matthias Heizmann (heizmann@informatik.uni-freiburg.de)
  * @param <LETTER>
@@ -74,6 +80,31 @@ public final class BuchiIsIncluded<LETTER, STATE> extends BinaryNwaOperation<LET
 			final IBuchiNwaInclusionStateFactory<STATE> stateFactory,
 			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> fstOperand,
 			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> sndOperand) throws AutomataLibraryException {
+		this(services, stateFactory, fstOperand, sndOperand, false);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param services
+	 *            Ultimate services
+	 * @param stateFactory
+	 *            state factory
+	 * @param fstOperand
+	 *            first operand
+	 * @param sndOperand
+	 *            second operand
+	 * @param onTheFly
+	 *            true iff the complement and the difference are only constructed as far as the emptiness check
+	 *            explores them
+	 * @throws AutomataLibraryException
+	 *             if construction fails
+	 */
+	public BuchiIsIncluded(final AutomataLibraryServices services,
+			final IBuchiNwaInclusionStateFactory<STATE> stateFactory,
+			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> fstOperand,
+			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> sndOperand, final boolean onTheFly)
+			throws AutomataLibraryException {
 		super(services);
 		mFstOperand = fstOperand;
 		mSndOperand = sndOperand;
@@ -82,14 +113,26 @@ public final class BuchiIsIncluded<LETTER, STATE> extends BinaryNwaOperation<LET
 			mLogger.info(startMessage());
 		}
 
-		final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> sndComplement =
-				(new BuchiComplementFKV<>(mServices, stateFactory, mSndOperand)).getResult();
-		final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> difference =
-				(new BuchiIntersectDD<>(mServices, stateFactory, mFstOperand, sndComplement, true)).getResult();
-		final BuchiIsEmpty<LETTER, STATE> emptinessCheck = new BuchiIsEmpty<>(mServices, difference);
-
-		mResult = emptinessCheck.getResult();
-		mCounterexample = emptinessCheck.getAcceptingNestedLassoRun();
+		if (onTheFly) {
+			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> sndComplement =
+					new NwaOutgoingLetterAndTransitionAdapter<>(new BuchiComplementFKVNwa<>(mServices, mSndOperand,
+							new PowersetDeterminizer<>(mSndOperand, true, stateFactory), stateFactory,
+							FkvOptimization.HEIMAT2, Integer.MAX_VALUE));
+			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> difference =
+					new BuchiIntersectNwa<>(mFstOperand, sndComplement, stateFactory);
+			final BuchiIsEmptyOnTheFly<LETTER, STATE> emptinessCheck =
+					new BuchiIsEmptyOnTheFly<>(mServices, difference);
+			mResult = emptinessCheck.getResult();
+			mCounterexample = emptinessCheck.getAcceptingNestedLassoRun();
+		} else {
+			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> sndComplement =
+					(new BuchiComplementFKV<>(mServices, stateFactory, mSndOperand)).getResult();
+			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> difference =
+					(new BuchiIntersectDD<>(mServices, stateFactory, mFstOperand, sndComplement, true)).getResult();
+			final BuchiIsEmpty<LETTER, STATE> emptinessCheck = new BuchiIsEmpty<>(mServices, difference);
+			mResult = emptinessCheck.getResult();
+			mCounterexample = emptinessCheck.getAcceptingNestedLassoRun();
+		}
 
 		if (mLogger.isInfoEnabled()) {
 			mLogger.info(exitMessage());
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationStatistics;
+import de.uni_freiburg.informatik.ultimate.automata.AutomatonDefinitionPrinter;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.BinaryNwaOperation;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.IGeneralizedNwaOutgoingLetterAndTransitionProvider;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INwaOutgoingLetterAndTransitionProvider;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomataUtils;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.optncsb.inclusion.AbstractGeneralizedAutomatonReachableStates;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.IBuchiComplementNcsbStateFactory;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.IBuchiIntersectStateFactory;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.IEmptyStackStateFactory;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.IStateFactory;
+
+/**
+ * Operation that checks if the language of the first Buchi automaton is included in the language of the second Buchi
+ * automaton.
+ * <p>
+ * Uses the lazy NCSB algorithm for complementation of semideterministic Büchi automata and explores the product of the
+ * first operand and the complement on demand. Product states that are subsumed by an already explored product state
+ * (same state of the first operand, covered NCSB tuple) are not explored, so usually only a small part of the
+ * difference is constructed. Is unsound if rhs operand is not semideterministic. Calls and returns are not supported.
+ *
+ * @param <LETTER>
+ *            letter type
+ * @param <STATE>
+ *            state type
+ */
+public final class BuchiIsIncludedNCSBAntichain<LETTER, STATE>
+		extends BinaryNwaOperation<LETTER, STATE, IStateFactory<STATE>> {
+	private final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> mFstOperand;
+	private final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> mSndOperand;
+
+	private final Boolean mResult;
+
+	private final NestedLassoRun<LETTER, STATE> mCounterexample;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param stateFactory
+	 *            state factory
+	 * @param fstOperand
+	 *            first operand
+	 * @param sndOperand
+	 *            second operand
+	 * @throws AutomataLibraryException
+	 *             if construction fails
+	 */
+	public <FACTORY extends IBuchiIntersectStateFactory<STATE> & IBuchiComplementNcsbStateFactory<STATE> & IEmptyStackStateFactory<STATE>> BuchiIsIncludedNCSBAntichain(
+			final AutomataLibraryServices services, final FACTORY stateFactory,
+			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> fstOperand,
+			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> sndOperand) throws AutomataLibraryException {
+		super(services);
+		mFstOperand = fstOperand;
+		mSndOperand = sndOperand;
+
+		if (!NestedWordAutomataUtils.isFiniteAutomaton(fstOperand)
+				|| !NestedWordAutomataUtils.isFiniteAutomaton(sndOperand)) {
+			throw new UnsupportedOperationException("Calls and returns are not yet supported.");
+		}
+
+		if (mLogger.isInfoEnabled()) {
+			mLogger.info(startMessage());
+		}
+
+		final IGeneralizedNwaOutgoingLetterAndTransitionProvider<LETTER, STATE> fstGeneralized;
+		if (mFstOperand instanceof IGeneralizedNwaOutgoingLetterAndTransitionProvider) {
+			fstGeneralized = (IGeneralizedNwaOutgoingLetterAndTransitionProvider<LETTER, STATE>) mFstOperand;
+		} else {
+			fstGeneralized = new BuchiToGeneralizedBuchi<>(mFstOperand);
+		}
+		final GeneralizedBuchiDifferenceNCSBAntichain<LETTER, STATE> difference =
+				new GeneralizedBuchiDifferenceNCSBAntichain<>(mServices, stateFactory, fstGeneralized, mSndOperand,
+						true);
+		final AbstractGeneralizedAutomatonReachableStates<LETTER, STATE> reach =
+				(AbstractGeneralizedAutomatonReachableStates<LETTER, STATE>) difference.getResult();
+
+		mResult = reach.isEmpty();
+		mCounterexample = reach.getNestedLassoRun();
+
+		if (mLogger.isInfoEnabled()) {
+			mLogger.info(exitMessage());
+		}
+	}
+
+	@Override
+	public String exitMessage() {
+		return "Finished " + getOperationName() + ". Language is " + (mResult ? "" : "not ") + "included";
+	}
+
+	@Override
+	public INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> getFirstOperand() {
+		return mFstOperand;
+	}
+
+	@Override
+	public INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> getSecondOperand() {
+		return mSndOperand;
+	}
+
+	@Override
+	public Boolean getResult() {
+		return mResult;
+	}
+
+	/**
+	 * @return a lasso run of the difference, its word is accepted by the first operand but not by the second operand
+	 *         ({@code null} if the language is included)
+	 */
+	public NestedLassoRun<LETTER, STATE> getCounterexample() {
+		return mCounterexample;
+	}
+
+	@Override
+	public boolean checkResult(final IStateFactory<STATE> stateFactory) throws AutomataLibraryException {
+		if (mLogger.isInfoEnabled()) {
+			mLogger.info("Start testing correctness of " + getOperationName());
+		}
+		final boolean fkvResult = new BuchiIsIncluded<>(mServices,
+				(IBuchiNwaInclusionStateFactory<STATE>) stateFactory, mFstOperand, mSndOperand).getResult();
+		boolean correct = fkvResult == mResult;
+		if (!mResult && mCounterexample != null) {
+			final NestedLassoWord<LETTER> word = mCounterexample.getNestedLassoWord();
+			correct &= new BuchiAccepts<>(mServices, mFstOperand, word).getResult();
+			correct &= !new BuchiAccepts<>(mServices, mSndOperand, word).getResult();
+		}
+		if (!correct) {
+			AutomatonDefinitionPrinter.writeToFileIfPreferred(mServices, getOperationName() + "Failed",
+					"inclusion check differs from " + BuchiIsIncluded.class.getSimpleName(), mFstOperand,
+					mSndOperand);
+		}
+		if (mLogger.isInfoEnabled()) {
+			mLogger.info("Finished testing correctness of " + getOperationName());
+		}
+		return correct;
+	}
+
+	@Override
+	public AutomataOperationStatistics getAutomataOperationStatistics() {
+		return BuchiIsIncluded.constructBasicInclusionStatistics(mServices, mLogger, this);
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationStatistics;
+import de.uni_freiburg.informatik.ultimate.automata.AutomatonDefinitionPrinter;
+import de.uni_freiburg.informatik.ultimate.automata.StatisticsType;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.CompactNestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INwaInclusionStateFactory;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INwaOutgoingLetterAndTransitionProvider;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomataMemoryBenchmark;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.UnaryNwaOperation;
+
+/**
+ * Copies a nested word automaton to a {@link CompactNestedWordAutomaton}. Optionally the heap memory of the copy is
+ * compared with the heap memory of a {@link de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton
+ * NestedWordAutomaton} by a {@link NestedWordAutomataMemoryBenchmark}.
+ *
+ * @param <LETTER>
+ *            letter type
+ * @param <STATE>
+ *            state type
+ */
+public final class Compact<LETTER, STATE>
+		extends UnaryNwaOperation<LETTER, STATE, INwaInclusionStateFactory<STATE>> {
+	private final INestedWordAutomaton<LETTER, STATE> mOperand;
+	private final CompactNestedWordAutomaton<LETTER, STATE> mResult;
+	private final NestedWordAutomataMemoryBenchmark<LETTER, STATE> mMemoryBenchmark;
+
+	/**
+	 * Constructor without memory benchmark.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param operand
+	 *            operand
+	 * @throws AutomataOperationCanceledException
+	 *             if timeout exceeds
+	 */
+	public Compact(final AutomataLibraryServices services, final INestedWordAutomaton<LETTER, STATE> operand)
+			throws AutomataOperationCanceledException {
+		this(services, operand, false);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param operand
+	 *            operand
+	 * @param measureMemory
+	 *            if true, the heap memory of the result is compared with a nested word automaton
+	 * @throws AutomataOperationCanceledException
+	 *             if timeout exceeds
+	 */
+	public Compact(final AutomataLibraryServices services, final INestedWordAutomaton<LETTER, STATE> operand,
+			final boolean measureMemory) throws AutomataOperationCanceledException {
+		super(services);
+		mOperand = operand;
+		if (mLogger.isInfoEnabled()) {
+			mLogger.info(startMessage());
+		}
+
+		mResult = new CompactNestedWordAutomaton<>(mServices, operand);
+		if (measureMemory) {
+			mMemoryBenchmark = new NestedWordAutomataMemoryBenchmark<>(mServices, operand, getOperationName());
+			if (mLogger.isInfoEnabled()) {
+				mLogger.info(mMemoryBenchmark);
+			}
+		} else {
+			mMemoryBenchmark = null;
+		}
+
+		if (mLogger.isInfoEnabled()) {
+			mLogger.info(exitMessage());
+		}
+	}
+
+	@Override
+	public String exitMessage() {
+		return "Finished " + getOperationName() + " Result " + mResult.sizeInformation();
+	}
+
+	@Override
+	protected INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> getOperand() {
+		return mOperand;
+	}
+
+	@Override
+	public CompactNestedWordAutomaton<LETTER, STATE> getResult() {
+		return mResult;
+	}
+
+	@Override
+	public AutomataOperationStatistics getAutomataOperationStatistics() {
+		final AutomataOperationStatistics result = new AutomataOperationStatistics();
+		result.addKeyValuePair(StatisticsType.STATES_OUTPUT, mResult.size());
+		result.addKeyValuePair(StatisticsType.TRANSITIONS_OUTPUT, mResult.getNumberOfTransitions());
+		if (mMemoryBenchmark != null) {
+			result.addKeyValuePair(StatisticsType.HEAP_BYTES_NESTED_WORD_AUTOMATON,
+					mMemoryBenchmark.getNestedWordAutomatonBytes());
+			result.addKeyValuePair(StatisticsType.HEAP_BYTES_COMPACT, mMemoryBenchmark.getCompactBytes());
+		}
+		return result;
+	}
+
+	@Override
+	public boolean checkResult(final INwaInclusionStateFactory<STATE> stateFactory) throws AutomataLibraryException {
+		if (mLogger.isInfoEnabled()) {
+			mLogger.info("Start testing correctness of " + getOperationName());
+		}
+
+		final IsEquivalent<LETTER, STATE> equivalenceCheck =
+				new IsEquivalent<>(mServices, stateFactory, mOperand, mResult);
+		final boolean correct = equivalenceCheck.getResult()
+				&& new NumberOfTransitions<>(mServices, mOperand).getResult() == mResult.getNumberOfTransitions();
+		assert correct;
+
+		if (mLogger.isInfoEnabled()) {
+			mLogger.info("Finished testing correctness of " + getOperationName());
+		}
+		if (!correct) {
+			AutomatonDefinitionPrinter.writeToFileIfPreferred(mServices, getOperationName() + "Failed",
+					equivalenceCheck.getViolationMessage(), mOperand);
+		}
+		return correct;
+	}
+}
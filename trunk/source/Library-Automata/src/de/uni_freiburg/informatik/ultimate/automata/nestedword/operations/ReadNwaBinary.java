@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.GeneralOperation;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.VpAlphabet;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.visualization.NwaBinaryWriter;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.IStateFactory;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.util.VarIntUtils;
+
+/**
+ * Reads a nested word automaton that was written by {@link NwaBinaryWriter}.
+ * <p>
+ * The file is mapped into memory and decoded directly from the mapping, there is neither a text parser nor an
+ * intermediate copy of the file on the heap. Letters and states of the result are the names that were written.
+ */
+public final class ReadNwaBinary extends GeneralOperation<String, String, IStateFactory<String>> {
+	private final String mFileName;
+	private final NestedWordAutomaton<String, String> mResult;
+
+	/**
+	 * @param services
+	 *            Ultimate services
+	 * @param fileName
+	 *            name of the file
+	 * @throws AutomataLibraryException
+	 *             if the file cannot be read or is not in the binary format
+	 */
+	public ReadNwaBinary(final AutomataLibraryServices services, final String fileName)
+			throws AutomataLibraryException {
+		super(services);
+		mFileName = fileName;
+
+		if (mLogger.isInfoEnabled()) {
+			mLogger.info(startMessage());
+		}
+
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			mResult = read(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+		} catch (final IOException e) {
+			throw new AutomataLibraryException(getClass(), "Unable to read " + fileName + ": " + e.getMessage());
+		} catch (final BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new AutomataLibraryException(getClass(), fileName + " is truncated or corrupted");
+		}
+
+		if (mLogger.isInfoEnabled()) {
+			mLogger.info(exitMessage());
+		}
+	}
+
+	@Override
+	public String startMessage() {
+		return "Start " + getOperationName() + ". File " + mFileName;
+	}
+
+	@Override
+	public String exitMessage() {
+		return "Finished " + getOperationName() + ". Result " + mResult.sizeInformation();
+	}
+
+	@Override
+	public INestedWordAutomaton<String, String> getResult() {
+		return mResult;
+	}
+
+	private NestedWordAutomaton<String, String> read(final ByteBuffer buffer) throws AutomataLibraryException {
+		if (buffer.getInt() != NwaBinaryWriter.MAGIC) {
+			throw new AutomataLibraryException(getClass(), mFileName + " is not a binary automaton file");
+		}
+		final int version = VarIntUtils.read(buffer);
+		if (version != NwaBinaryWriter.VERSION) {
+			throw new AutomataLibraryException(getClass(), "Unsupported version " + version + " of " + mFileName);
+		}
+
+		final String[] letters = new String[VarIntUtils.read(buffer)];
+		final Set<String> internalAlphabet = new HashSet<>();
+		final Set<String> callAlphabet = new HashSet<>();
+		final Set<String> returnAlphabet = new HashSet<>();
+		for (int i = 0; i < letters.length; i++) {
+			letters[i] = readName(buffer);
+			final byte flags = buffer.get();
+			if ((flags & NwaBinaryWriter.INTERNAL_LETTER) != 0) {
+				internalAlphabet.add(letters[i]);
+			}
+			if ((flags & NwaBinaryWriter.CALL_LETTER) != 0) {
+				callAlphabet.add(letters[i]);
+			}
+			if ((flags & NwaBinaryWriter.RETURN_LETTER) != 0) {
+				returnAlphabet.add(letters[i]);
+			}
+		}
+		final NestedWordAutomaton<String, String> result = new NestedWordAutomaton<>(mServices,
+				new VpAlphabet<>(internalAlphabet, callAlphabet, returnAlphabet), new StringFactory());
+
+		final String[] states = new String[VarIntUtils.read(buffer)];
+		for (int i = 0; i < states.length; i++) {
+			states[i] = readName(buffer);
+			final byte flags = buffer.get();
+			result.addState((flags & NwaBinaryWriter.INITIAL_STATE) != 0, (flags & NwaBinaryWriter.FINAL_STATE) != 0,
+					states[i]);
+		}
+
+		for (final String pred : states) {
+			checkTimeout();
+			final int internals = VarIntUtils.read(buffer);
+			for (int j = 0; j < internals; j++) {
+				final String letter = letters[VarIntUtils.read(buffer)];
+				result.addInternalTransition(pred, letter, states[VarIntUtils.read(buffer)]);
+			}
+			final int calls = VarIntUtils.read(buffer);
+			for (int j = 0; j < calls; j++) {
+				final String letter = letters[VarIntUtils.read(buffer)];
+				result.addCallTransition(pred, letter, states[VarIntUtils.read(buffer)]);
+			}
+			final int returns = VarIntUtils.read(buffer);
+			for (int j = 0; j < returns; j++) {
+				final String hier = states[VarIntUtils.read(buffer)];
+				final String letter = letters[VarIntUtils.read(buffer)];
+				result.addReturnTransition(pred, hier, letter, states[VarIntUtils.read(buffer)]);
+			}
+		}
+		if (buffer.hasRemaining()) {
+			throw new AutomataLibraryException(getClass(), mFileName + " contains trailing data");
+		}
+		return result;
+	}
+
+	private void checkTimeout() throws AutomataOperationCanceledException {
+		if (!mServices.getProgressAwareTimer().continueProcessing()) {
+			throw new AutomataOperationCanceledException(getClass());
+		}
+	}
+
+	private static String readName(final ByteBuffer buffer) {
+		final int length = VarIntUtils.read(buffer);
+		final ByteBuffer name = buffer.slice();
+		name.limit(length);
+		buffer.position(buffer.position() + length);
+		return StandardCharsets.UTF_8.decode(name).toString();
+	}
+}
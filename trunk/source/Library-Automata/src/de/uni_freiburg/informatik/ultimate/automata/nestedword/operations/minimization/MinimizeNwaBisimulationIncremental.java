@@ -0,0 +1,300 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.util.NwaTransitionSignatures;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.util.NwaTransitionSignatures.Signature;
+import de.uni_freiburg.informatik.ultimate.automata.util.PartitionBackedSetOfPairs;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.Pair;
+
+/**
+ * Minimization of (possibly nondeterministic) nested word automata by partition refinement that starts from the
+ * partition of a previous minimization.
+ * <p>
+ * In a CEGAR loop the new abstraction is the difference of the (minimized) old abstraction and an interpolant
+ * automaton. The states that stem from the same state of the old abstraction are often equivalent. Hence the refinement
+ * starts with one block per state of the old abstraction (the <i>previous partition</i>) and only splits the blocks
+ * that are affected by the interpolant automaton.
+ * <p>
+ * The refinement uses a work list of blocks. A block is split according to the signatures of its states (see
+ * {@link NwaTransitionSignatures}). The largest part keeps the block number, so only the states of the other parts
+ * change their block, and only the blocks of the states that depend on them are checked again. After the first check of
+ * all blocks the effort is thus proportional to the part of the automaton that is affected by splits.
+ * <p>
+ * The result is a quotient with respect to a bisimulation that separates final and nonfinal states, so it recognizes
+ * the same language of finite words and the same Büchi language as the operand. It is the coarsest such bisimulation
+ * that refines the previous partition; states of different blocks of the previous partition are never merged.
+ *
+ * @param <LETTER>
+ *            letter type
+ * @param <STATE>
+ *            state type
+ */
+public final class MinimizeNwaBisimulationIncremental<LETTER, STATE> extends AbstractMinimizeNwa<LETTER, STATE> {
+	private final INestedWordAutomaton<LETTER, STATE> mOperand;
+	private int mSplits;
+	private long mSignatureComputations;
+
+	/**
+	 * Constructor without initial and previous partition that does not compute the map from old to new states.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param stateFactory
+	 *            state factory
+	 * @param operand
+	 *            input nested word automaton
+	 * @throws AutomataOperationCanceledException
+	 *             if timeout exceeds
+	 */
+	public MinimizeNwaBisimulationIncremental(final AutomataLibraryServices services,
+			final IMinimizationStateFactory<STATE> stateFactory, final INestedWordAutomaton<LETTER, STATE> operand)
+			throws AutomataOperationCanceledException {
+		this(services, stateFactory, operand, null, null, false);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param stateFactory
+	 *            state factory
+	 * @param operand
+	 *            input nested word automaton
+	 * @param initialPartition
+	 *            states that must not be merged are in different blocks of this partition; states that are in no block
+	 *            are not merged at all ({@code null} means that all states may be merged)
+	 * @param previousPartition
+	 *            blocks of states that are likely equivalent, e.g., the states that stem from the same state of the
+	 *            previous abstraction; states that are not contained in this partition form one more block, states that
+	 *            are not in the operand are ignored ({@code null} means that refinement starts from scratch)
+	 * @param addMapOldState2newState
+	 *            true iff the map from old to new states should be computed
+	 * @throws AutomataOperationCanceledException
+	 *             if timeout exceeds
+	 */
+	public MinimizeNwaBisimulationIncremental(final AutomataLibraryServices services,
+			final IMinimizationStateFactory<STATE> stateFactory, final INestedWordAutomaton<LETTER, STATE> operand,
+			final PartitionBackedSetOfPairs<STATE> initialPartition,
+			final PartitionBackedSetOfPairs<STATE> previousPartition, final boolean addMapOldState2newState)
+			throws AutomataOperationCanceledException {
+		super(services, stateFactory);
+		mOperand = operand;
+
+		printStartMessage();
+
+		if (mOperand.size() == 0) {
+			directResultConstruction(mOperand);
+		} else {
+			minimize(initialPartition, previousPartition, addMapOldState2newState);
+		}
+
+		printExitMessage();
+	}
+
+	@Override
+	protected INestedWordAutomaton<LETTER, STATE> getOperand() {
+		return mOperand;
+	}
+
+	/**
+	 * @return number of block splits
+	 */
+	public int getSplits() {
+		return mSplits;
+	}
+
+	/**
+	 * @return number of computed state signatures
+	 */
+	public long getSignatureComputations() {
+		return mSignatureComputations;
+	}
+
+	private void minimize(final PartitionBackedSetOfPairs<STATE> initialPartition,
+			final PartitionBackedSetOfPairs<STATE> previousPartition, final boolean addMapOldState2newState)
+			throws AutomataOperationCanceledException {
+		final List<STATE> states = new ArrayList<>(mOperand.getStates());
+		final Map<STATE, Integer> stateIds = new HashMap<>();
+		for (final STATE state : states) {
+			stateIds.put(state, stateIds.size());
+		}
+		final NwaTransitionSignatures<LETTER, STATE> transitions =
+				new NwaTransitionSignatures<>(mOperand, states, stateIds, true);
+		final int size = states.size();
+
+		// initial blocks: the blocks of both partitions together with finality
+		final int[] given = blockNumbers(initialPartition, stateIds, size, true);
+		final int[] previous = blockNumbers(previousPartition, stateIds, size, false);
+		final Signature[] keys = new Signature[size];
+		for (int i = 0; i < size; ++i) {
+			keys[i] = new Signature(new int[] { given[i], previous[i], mOperand.isFinal(states.get(i)) ? 1 : 0 });
+		}
+		final int[] blocks = new int[size];
+		final int initialNumberOfBlocks = NwaTransitionSignatures.renumber(keys, blocks);
+
+		final List<int[]> members = new ArrayList<>(initialNumberOfBlocks);
+		final int[] blockSizes = new int[initialNumberOfBlocks];
+		for (final int block : blocks) {
+			++blockSizes[block];
+		}
+		for (int block = 0; block < initialNumberOfBlocks; ++block) {
+			members.add(new int[blockSizes[block]]);
+		}
+		Arrays.fill(blockSizes, 0);
+		for (int i = 0; i < size; ++i) {
+			members.get(blocks[i])[blockSizes[blocks[i]]++] = i;
+		}
+
+		// every block has to be checked once
+		final ArrayDeque<Integer> workList = new ArrayDeque<>();
+		final BitSet inWorkList = new BitSet();
+		for (int block = 0; block < initialNumberOfBlocks; ++block) {
+			workList.add(block);
+			inWorkList.set(block);
+		}
+
+		while (!workList.isEmpty()) {
+			checkForContinuation();
+			final int block = workList.poll();
+			inWorkList.clear(block);
+			final int[] blockMembers = members.get(block);
+			if (blockMembers.length == 1) {
+				continue;
+			}
+			final Map<Signature, List<Integer>> parts = new LinkedHashMap<>();
+			for (final int state : blockMembers) {
+				parts.computeIfAbsent(transitions.computeSignature(state, blocks), x -> new ArrayList<>()).add(state);
+			}
+			mSignatureComputations += blockMembers.length;
+			if (parts.size() == 1) {
+				continue;
+			}
+			++mSplits;
+
+			// the largest part keeps the block number
+			List<Integer> largest = null;
+			for (final List<Integer> part : parts.values()) {
+				if (largest == null || part.size() > largest.size()) {
+					largest = part;
+				}
+			}
+			members.set(block, toArray(largest));
+			final List<Integer> movedStates = new ArrayList<>();
+			for (final List<Integer> part : parts.values()) {
+				if (part == largest) {
+					continue;
+				}
+				final int newBlock = members.size();
+				members.add(toArray(part));
+				for (final int state : part) {
+					blocks[state] = newBlock;
+				}
+				movedStates.addAll(part);
+			}
+
+			// only states that depend on a moved state may have a different signature now
+			for (final int state : movedStates) {
+				for (final int dependent : transitions.getDependents(state)) {
+					final int dependentBlock = blocks[dependent];
+					if (!inWorkList.get(dependentBlock)) {
+						workList.add(dependentBlock);
+						inWorkList.set(dependentBlock);
+					}
+				}
+			}
+		}
+
+		if (mLogger.isInfoEnabled()) {
+			mLogger.info("Partition refinement started with " + initialNumberOfBlocks + " blocks, needed " + mSplits
+					+ " splits and " + mSignatureComputations + " signature computations for " + size + " states.");
+		}
+		constructResultFromPartition(NwaTransitionSignatures.toPartition(states, blocks, members.size()),
+				addMapOldState2newState);
+	}
+
+	/**
+	 * @param separateUncovered
+	 *            true iff every state that is in no block gets a block of its own, otherwise all these states share
+	 *            one block
+	 * @return block number of each state in the partition (0 for all states if the partition is {@code null})
+	 */
+	private int[] blockNumbers(final PartitionBackedSetOfPairs<STATE> partition, final Map<STATE, Integer> stateIds,
+			final int size, final boolean separateUncovered) {
+		final int[] result = new int[size];
+		if (partition == null) {
+			return result;
+		}
+		Arrays.fill(result, -1);
+		int numberOfBlocks = 0;
+		for (final Set<STATE> block : partition.getRelation()) {
+			for (final STATE state : block) {
+				final Integer id = stateIds.get(state);
+				if (id != null) {
+					result[id] = numberOfBlocks;
+				}
+			}
+			++numberOfBlocks;
+		}
+		if (separateUncovered) {
+			for (int i = 0; i < size; ++i) {
+				if (result[i] == -1) {
+					result[i] = numberOfBlocks++;
+				}
+			}
+		}
+		return result;
+	}
+
+	private static int[] toArray(final List<Integer> list) {
+		final int[] result = new int[list.size()];
+		for (int i = 0; i < result.length; ++i) {
+			result[i] = list.get(i);
+		}
+		return result;
+	}
+
+	@Override
+	protected Pair<Boolean, String> checkResultHelper(final IMinimizationCheckResultStateFactory<STATE> stateFactory)
+			throws AutomataLibraryException {
+		return checkLanguageEquivalence(stateFactory);
+	}
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.parallel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.AbstractMinimizeNwa;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.IMinimizationCheckResultStateFactory;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.IMinimizationStateFactory;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.ShrinkNwa;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.util.NwaTransitionSignatures;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.util.NwaTransitionSignatures.Signature;
+import de.uni_freiburg.informatik.ultimate.automata.util.PartitionBackedSetOfPairs;
+import de.uni_freiburg.informatik.ultimate.util.ParallelUtils;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.Pair;
+
+/**
+ * Minimization of (possibly nondeterministic) nested word automata by multi-threaded partition refinement.
+ * <p>
+ * The states are partitioned into blocks such that two states of the same block agree on being final and have, for
+ * each letter, successors in the same blocks (i.e., the partition is a bisimulation). The quotient hence recognizes the
+ * same language of finite words and the same Büchi language as the operand.
+ * <p>
+ * The refinement works with signatures (see {@link NwaTransitionSignatures}). In each round the signature of every
+ * state is computed in parallel. The states with equal signatures form the blocks of the next round. The refinement
+ * stops as soon as no block is split anymore.
+ * <p>
+ * Unlike {@link ShrinkNwa} this operation does not take the down states into account, so the result may be larger.
+ *
+ * @param <LETTER>
+ *            letter type
+ * @param <STATE>
+ *            state type
+ */
+public final class MinimizeNwaBisimulationParallel<LETTER, STATE> extends AbstractMinimizeNwa<LETTER, STATE> {
+	/**
+	 * Number of states that one task of the parallel signature computation handles at least.
+	 */
+	private static final int GRAIN = 256;
+
+	private final INestedWordAutomaton<LETTER, STATE> mOperand;
+	private final int mThreads;
+	private int mRounds;
+
+	/**
+	 * Constructor that uses all available processors and does not compute the map from old to new states.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param stateFactory
+	 *            state factory
+	 * @param operand
+	 *            input nested word automaton
+	 * @throws AutomataOperationCanceledException
+	 *             if timeout exceeds
+	 */
+	public MinimizeNwaBisimulationParallel(final AutomataLibraryServices services,
+			final IMinimizationStateFactory<STATE> stateFactory, final INestedWordAutomaton<LETTER, STATE> operand)
+			throws AutomataOperationCanceledException {
+		this(services, stateFactory, operand, null, false, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param stateFactory
+	 *            state factory
+	 * @param operand
+	 *            input nested word automaton
+	 * @param initialPartition
+	 *            states that must not be merged are in different blocks of this partition; states that are in no block
+	 *            are not merged at all ({@code null} means that all states may be merged)
+	 * @param addMapOldState2newState
+	 *            true iff the map from old to new states should be computed
+	 * @param threads
+	 *            number of threads for the signature computation
+	 * @throws AutomataOperationCanceledException
+	 *             if timeout exceeds
+	 */
+	public MinimizeNwaBisimulationParallel(final AutomataLibraryServices services,
+			final IMinimizationStateFactory<STATE> stateFactory, final INestedWordAutomaton<LETTER, STATE> operand,
+			final PartitionBackedSetOfPairs<STATE> initialPartition, final boolean addMapOldState2newState,
+			final int threads) throws AutomataOperationCanceledException {
+		super(services, stateFactory);
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one thread is needed, got " + threads);
+		}
+		mOperand = operand;
+		mThreads = threads;
+
+		printStartMessage();
+
+		if (mOperand.size() == 0) {
+			directResultConstruction(mOperand);
+		} else {
+			final ForkJoinPool pool = new ForkJoinPool(mThreads);
+			try {
+				minimize(pool, initialPartition, addMapOldState2newState);
+			} finally {
+				pool.shutdownNow();
+			}
+		}
+
+		printExitMessage();
+	}
+
+	@Override
+	protected INestedWordAutomaton<LETTER, STATE> getOperand() {
+		return mOperand;
+	}
+
+	/**
+	 * @return number of refinement rounds
+	 */
+	public int getRounds() {
+		return mRounds;
+	}
+
+	private void minimize(final ForkJoinPool pool, final PartitionBackedSetOfPairs<STATE> initialPartition,
+			final boolean addMapOldState2newState) throws AutomataOperationCanceledException {
+		final List<STATE> states = new ArrayList<>(mOperand.getStates());
+		final Map<STATE, Integer> stateIds = new HashMap<>();
+		for (final STATE state : states) {
+			stateIds.put(state, stateIds.size());
+		}
+		final NwaTransitionSignatures<LETTER, STATE> transitions =
+				new NwaTransitionSignatures<>(mOperand, states, stateIds, false);
+		final int size = states.size();
+
+		// initial blocks: the block of the given partition together with finality
+		final int[] given = new int[size];
+		Arrays.fill(given, -1);
+		int givenBlocks = 0;
+		if (initialPartition != null) {
+			for (final Set<STATE> block : initialPartition.getRelation()) {
+				for (final STATE state : block) {
+					given[stateIds.get(state)] = givenBlocks;
+				}
+				++givenBlocks;
+			}
+		}
+		final Signature[] signatures = new Signature[size];
+		for (int i = 0; i < size; ++i) {
+			if (initialPartition != null && given[i] == -1) {
+				// the state may not be merged with any other state
+				given[i] = givenBlocks++;
+			}
+			signatures[i] = new Signature(new int[] { given[i], mOperand.isFinal(states.get(i)) ? 1 : 0 });
+		}
+		int[] blocks = new int[size];
+		int numberOfBlocks = NwaTransitionSignatures.renumber(signatures, blocks);
+
+		while (true) {
+			checkForContinuation();
+			++mRounds;
+			final int[] currentBlocks = blocks;
+			ParallelUtils.parallelFor(pool, size, GRAIN,
+					i -> signatures[i] = transitions.computeSignature(i, currentBlocks));
+			final int[] newBlocks = new int[size];
+			final int newNumberOfBlocks = NwaTransitionSignatures.renumber(signatures, newBlocks);
+			if (newNumberOfBlocks == numberOfBlocks) {
+				// every signature contains the old block, so the partition did not change
+				break;
+			}
+			blocks = newBlocks;
+			numberOfBlocks = newNumberOfBlocks;
+		}
+
+		if (mLogger.isInfoEnabled()) {
+			mLogger.info("Partition refinement with " + mThreads + " threads needed " + mRounds + " rounds.");
+		}
+		constructResultFromPartition(NwaTransitionSignatures.toPartition(states, blocks, numberOfBlocks),
+				addMapOldState2newState);
+	}
+
+	@Override
+	protected Pair<Boolean, String> checkResultHelper(final IMinimizationCheckResultStateFactory<STATE> stateFactory)
+			throws AutomataLibraryException {
+		return checkLanguageEquivalence(stateFactory);
+	}
+}
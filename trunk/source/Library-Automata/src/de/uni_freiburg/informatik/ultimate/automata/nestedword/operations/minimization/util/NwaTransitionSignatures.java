@@ -0,0 +1,408 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.IPartition;
+
+/**
+ * The transitions of a nested word automaton as arrays over state and letter numbers, used for partition refinement
+ * by signatures.
+ * <p>
+ * The signature of a state with respect to a numbering of blocks consists of the block of the state and, for each
+ * letter, of the blocks of the internal and call successors. For returns it contains, for each letter and each
+ * hierarchical predecessor, the blocks of the successors and, for each letter and each linear predecessor of a return
+ * that uses the state as hierarchical predecessor, the blocks of the successors. A partition in which all states of a
+ * block have the same signature is a bisimulation.
+ * <p>
+ * After construction the object is only read, so signatures may be computed concurrently.
+ *
+ * @param <LETTER>
+ *            letter type
+ * @param <STATE>
+ *            state type
+ */
+public final class NwaTransitionSignatures<LETTER, STATE> {
+	private final TransitionTable mInternal = new TransitionTable();
+	private final TransitionTable mCall = new TransitionTable();
+	private final TransitionTable mReturnByLinPred = new TransitionTable();
+	private final TransitionTable mReturnByHierPred = new TransitionTable();
+
+	private int[] mDependentOffsets;
+	private int[] mDependents;
+
+	/**
+	 * @param operand
+	 *            nested word automaton
+	 * @param states
+	 *            states of the operand in the order of their numbers
+	 * @param stateIds
+	 *            numbers of the states
+	 * @param computeDependents
+	 *            true iff {@link #getDependents(int)} is used
+	 */
+	public NwaTransitionSignatures(final INestedWordAutomaton<LETTER, STATE> operand, final List<STATE> states,
+			final Map<STATE, Integer> stateIds, final boolean computeDependents) {
+		final Map<LETTER, Integer> letterIds = new HashMap<>();
+		for (int i = 0; i < states.size(); ++i) {
+			final STATE state = states.get(i);
+			for (final OutgoingInternalTransition<LETTER, STATE> trans : operand.internalSuccessors(state)) {
+				mInternal.add(i, id(letterIds, trans.getLetter()), 0, stateIds.get(trans.getSucc()));
+			}
+			for (final OutgoingCallTransition<LETTER, STATE> trans : operand.callSuccessors(state)) {
+				mCall.add(i, id(letterIds, trans.getLetter()), 0, stateIds.get(trans.getSucc()));
+			}
+			for (final OutgoingReturnTransition<LETTER, STATE> trans : operand.returnSuccessors(state)) {
+				final int letter = id(letterIds, trans.getLetter());
+				final int hier = stateIds.get(trans.getHierPred());
+				final int succ = stateIds.get(trans.getSucc());
+				mReturnByLinPred.add(i, letter, hier, succ);
+				mReturnByHierPred.add(hier, letter, i, succ);
+			}
+		}
+		final int size = states.size();
+		mInternal.finish(size);
+		mCall.finish(size);
+		mReturnByLinPred.finish(size);
+		mReturnByHierPred.finish(size);
+
+		if (computeDependents) {
+			// a state depends on all states that occur as targets in one of its groups
+			final IntList targetList = new IntList();
+			final IntList dependentList = new IntList();
+			mInternal.addDependents(targetList, dependentList);
+			mCall.addDependents(targetList, dependentList);
+			mReturnByLinPred.addDependents(targetList, dependentList);
+			mReturnByHierPred.addDependents(targetList, dependentList);
+			final int[] targets = targetList.toArray();
+			final int[] dependents = dependentList.toArray();
+			mDependentOffsets = new int[size + 1];
+			for (final int target : targets) {
+				++mDependentOffsets[target + 1];
+			}
+			for (int i = 0; i < size; ++i) {
+				mDependentOffsets[i + 1] += mDependentOffsets[i];
+			}
+			final int[] next = Arrays.copyOf(mDependentOffsets, size);
+			mDependents = new int[targets.length];
+			for (int i = 0; i < targets.length; ++i) {
+				mDependents[next[targets[i]]++] = dependents[i];
+			}
+		}
+	}
+
+	private int id(final Map<LETTER, Integer> letterIds, final LETTER letter) {
+		return letterIds.computeIfAbsent(letter, x -> letterIds.size());
+	}
+
+	/**
+	 * @param state
+	 *            state number
+	 * @param blocks
+	 *            block number of each state
+	 * @return signature of the state
+	 */
+	public Signature computeSignature(final int state, final int[] blocks) {
+		final IntList signature = new IntList();
+		signature.add(blocks[state]);
+		mInternal.appendSignature(state, blocks, signature);
+		mCall.appendSignature(state, blocks, signature);
+		mReturnByLinPred.appendSignature(state, blocks, signature);
+		mReturnByHierPred.appendSignature(state, blocks, signature);
+		return new Signature(signature.toArray());
+	}
+
+	/**
+	 * Only available if the object was constructed with {@code computeDependents}.
+	 *
+	 * @param state
+	 *            state number
+	 * @return numbers of the states whose signature contains the block of the given state (may contain duplicates)
+	 */
+	public int[] getDependents(final int state) {
+		return Arrays.copyOfRange(mDependents, mDependentOffsets[state], mDependentOffsets[state + 1]);
+	}
+
+	/**
+	 * Assigns consecutive block numbers to the signatures in the order of the states.
+	 *
+	 * @param signatures
+	 *            signature of each state
+	 * @param blocks
+	 *            output: block number of each state
+	 * @return number of blocks
+	 */
+	public static int renumber(final Signature[] signatures, final int[] blocks) {
+		final Map<Signature, Integer> signature2block = new HashMap<>();
+		for (int i = 0; i < signatures.length; ++i) {
+			Integer block = signature2block.get(signatures[i]);
+			if (block == null) {
+				block = signature2block.size();
+				signature2block.put(signatures[i], block);
+			}
+			blocks[i] = block;
+		}
+		return signature2block.size();
+	}
+
+	/**
+	 * @param states
+	 *            states in the order of their numbers
+	 * @param blocks
+	 *            block number of each state
+	 * @param numberOfBlocks
+	 *            number of blocks (block numbers are smaller)
+	 * @param <STATE>
+	 *            state type
+	 * @return the partition given by the block numbers
+	 */
+	public static <STATE> IPartition<STATE> toPartition(final List<STATE> states, final int[] blocks,
+			final int numberOfBlocks) {
+		return new BlockPartition<>(states, blocks, numberOfBlocks);
+	}
+
+	/**
+	 * Transitions of one kind, grouped by source and sorted by a pair of keys (the letter and, for returns, the other
+	 * predecessor). The targets of one group are the successors with respect to these keys.
+	 */
+	private static final class TransitionTable {
+		private final IntList mSources = new IntList();
+		private final IntList mFirstKeys = new IntList();
+		private final IntList mSecondKeys = new IntList();
+		private final IntList mTargetList = new IntList();
+
+		private int[] mOffsets;
+		private int[] mFirst;
+		private int[] mSecond;
+		private int[] mTargets;
+
+		void add(final int source, final int firstKey, final int secondKey, final int target) {
+			mSources.add(source);
+			mFirstKeys.add(firstKey);
+			mSecondKeys.add(secondKey);
+			mTargetList.add(target);
+		}
+
+		void finish(final int numberOfStates) {
+			final int size = mSources.size();
+			final int[] sources = mSources.toArray();
+			final int[] first = mFirstKeys.toArray();
+			final int[] second = mSecondKeys.toArray();
+			final int[] targets = mTargetList.toArray();
+			final Integer[] order = new Integer[size];
+			for (int i = 0; i < size; ++i) {
+				order[i] = i;
+			}
+			final Comparator<Integer> bySource = Comparator.comparingInt(i -> sources[i]);
+			Arrays.sort(order, bySource.thenComparingInt(i -> first[i]).thenComparingInt(i -> second[i]));
+
+			mOffsets = new int[numberOfStates + 1];
+			mFirst = new int[size];
+			mSecond = new int[size];
+			mTargets = new int[size];
+			for (int i = 0; i < size; ++i) {
+				final int index = order[i];
+				++mOffsets[sources[index] + 1];
+				mFirst[i] = first[index];
+				mSecond[i] = second[index];
+				mTargets[i] = targets[index];
+			}
+			for (int i = 0; i < numberOfStates; ++i) {
+				mOffsets[i + 1] += mOffsets[i];
+			}
+		}
+
+		/**
+		 * Adds, for each transition, the pair (target, source) to the given lists.
+		 */
+		void addDependents(final IntList targets, final IntList sources) {
+			for (int source = 0; source + 1 < mOffsets.length; ++source) {
+				for (int i = mOffsets[source]; i < mOffsets[source + 1]; ++i) {
+					targets.add(mTargets[i]);
+					sources.add(source);
+				}
+			}
+		}
+
+		/**
+		 * Appends the number of groups of the state and, for each group, both keys and the sorted set of target
+		 * blocks.
+		 */
+		void appendSignature(final int state, final int[] blocks, final IntList signature) {
+			final int countPosition = signature.size();
+			signature.add(0);
+			int groups = 0;
+			final int end = mOffsets[state + 1];
+			int i = mOffsets[state];
+			while (i < end) {
+				final int first = mFirst[i];
+				final int second = mSecond[i];
+				signature.add(first);
+				signature.add(second);
+				final int setPosition = signature.size();
+				signature.add(0);
+				final int setStart = signature.size();
+				for (; i < end && mFirst[i] == first && mSecond[i] == second; ++i) {
+					signature.add(blocks[mTargets[i]]);
+				}
+				final int setSize = signature.sortAndRemoveDuplicates(setStart);
+				signature.set(setPosition, setSize);
+				++groups;
+			}
+			signature.set(countPosition, groups);
+		}
+	}
+
+	/**
+	 * Growable list of ints.
+	 */
+	private static final class IntList {
+		private int[] mData = new int[16];
+		private int mSize;
+
+		void add(final int value) {
+			if (mSize == mData.length) {
+				mData = Arrays.copyOf(mData, 2 * mSize);
+			}
+			mData[mSize++] = value;
+		}
+
+		void set(final int index, final int value) {
+			mData[index] = value;
+		}
+
+		int size() {
+			return mSize;
+		}
+
+		/**
+		 * Sorts the elements from the given position on and removes duplicates among them.
+		 *
+		 * @return number of remaining elements from the given position on
+		 */
+		int sortAndRemoveDuplicates(final int from) {
+			Arrays.sort(mData, from, mSize);
+			int newSize = from;
+			for (int i = from; i < mSize; ++i) {
+				if (newSize == from || mData[newSize - 1] != mData[i]) {
+					mData[newSize++] = mData[i];
+				}
+			}
+			mSize = newSize;
+			return newSize - from;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(mData, mSize);
+		}
+	}
+
+	/**
+	 * Signature of a state, compared by content.
+	 */
+	public static final class Signature {
+		private final int[] mData;
+		private final int mHashCode;
+
+		/**
+		 * @param data
+		 *            content of the signature
+		 */
+		public Signature(final int[] data) {
+			mData = data;
+			mHashCode = Arrays.hashCode(data);
+		}
+
+		@Override
+		public int hashCode() {
+			return mHashCode;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Signature)) {
+				return false;
+			}
+			final Signature other = (Signature) obj;
+			return mHashCode == other.mHashCode && Arrays.equals(mData, other.mData);
+		}
+	}
+
+	/**
+	 * Partition given by a block number for each state.
+	 *
+	 * @param <STATE>
+	 *            state type
+	 */
+	private static final class BlockPartition<STATE> implements IPartition<STATE> {
+		private final List<Set<STATE>> mBlocks;
+		private final Map<STATE, Set<STATE>> mState2Block;
+
+		BlockPartition(final List<STATE> states, final int[] blocks, final int numberOfBlocks) {
+			mBlocks = new ArrayList<>(numberOfBlocks);
+			for (int i = 0; i < numberOfBlocks; ++i) {
+				mBlocks.add(new HashSet<>());
+			}
+			mState2Block = new HashMap<>();
+			for (int i = 0; i < blocks.length; ++i) {
+				final Set<STATE> block = mBlocks.get(blocks[i]);
+				block.add(states.get(i));
+				mState2Block.put(states.get(i), block);
+			}
+		}
+
+		@Override
+		public Iterator<Set<STATE>> iterator() {
+			return mBlocks.iterator();
+		}
+
+		@Override
+		public Set<STATE> getContainingSet(final STATE elem) {
+			return mState2Block.get(elem);
+		}
+
+		@Override
+		public int size() {
+			return mBlocks.size();
+		}
+	}
+}
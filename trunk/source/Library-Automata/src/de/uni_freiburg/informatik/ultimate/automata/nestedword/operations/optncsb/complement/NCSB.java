@@ -29,6 +29,7 @@
 package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.optncsb.complement;
 
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.optncsb.Options;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.optncsb.util.IntIterator;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.optncsb.util.IntSet;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.optncsb.util.UtilIntSet;
 
@@ -190,8 +191,10 @@ public class NCSB {
 	private int hashValue(IntSet set) {
 		final int prime = 31;
         int result = 1;
-        for(final int n : set.iterable()) {
-        	result = prime * result + n;
+        // no boxing of the elements
+        final IntIterator iter = set.iterator();
+        while(iter.hasNext()) {
+        	result = prime * result + iter.next();
         }
         return result;
 	}
@@ -128,10 +128,14 @@ public class IntSetBits implements IntSet {
 			System.err.println("OPERAND should be BitSet");
 			System.exit(-1);
 		}
-		BitSet temp = (BitSet) this.mSet.clone();
+		// no copy of this set, subsumption checks of the antichains are frequent
 		BitSet bits = (BitSet) set.get();
-		temp.andNot(bits);
-		return temp.isEmpty();
+		for(int i = mSet.nextSetBit(0); i >= 0; i = mSet.nextSetBit(i + 1)) {
+			if(! bits.get(i)) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	@Override
@@ -154,15 +158,21 @@ public class IntSetBits implements IntSet {
 		return mSet.toString();
 	}
 	
+	@Override
 	public boolean equals(Object obj) {
+		if(this == obj) return true;
 		if(! (obj instanceof IntSetBits)) {
-			System.err.println("OPERAND should be BitSet");
-			System.exit(-1);
+			return false;
 		}
 		IntSetBits bits = (IntSetBits)obj;
 		return this.contentEq(bits);
 	}
 	
+	@Override
+	public int hashCode() {
+		return mSet.hashCode();
+	}
+	
 	public static class SparseBitsIterator implements IntIterator {
 
 		private BitSet mBits;
@@ -48,6 +48,7 @@ import de.uni_freiburg.informatik.ultimate.util.scc.SccComputation;
 import de.uni_freiburg.informatik.ultimate.util.scc.SccComputation.IStronglyConnectedComponentFactory;
 import de.uni_freiburg.informatik.ultimate.util.scc.SccComputation.ISuccessorProvider;
 import de.uni_freiburg.informatik.ultimate.util.scc.SccComputationNonRecursive;
+import de.uni_freiburg.informatik.ultimate.util.scc.SccComputationParallel;
 import de.uni_freiburg.informatik.ultimate.util.scc.StronglyConnectedComponent;
 
 /**
@@ -105,6 +106,29 @@ public class AcceptingComponentsAnalysis<LETTER, STATE> {
 			final NestedWordAutomatonReachableStates<LETTER, STATE> nwars,
 			final NestedWordAutomatonReachableStates<LETTER, STATE>.AcceptingSummariesComputation asc,
 			final Set<STATE> allStates, final Set<STATE> startStates) {
+		this(services, nwars, asc, allStates, startStates, 1);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param services
+	 *            Ultimate services
+	 * @param nwars
+	 *            nested word automaton with reachable states information
+	 * @param asc
+	 *            accepting summary computation
+	 * @param allStates
+	 *            states that are considered in this SCC computation
+	 * @param startStates
+	 *            states to start
+	 * @param threads
+	 *            number of threads for the SCC computation, if greater than 1 {@link SccComputationParallel} is used
+	 */
+	public AcceptingComponentsAnalysis(final AutomataLibraryServices services,
+			final NestedWordAutomatonReachableStates<LETTER, STATE> nwars,
+			final NestedWordAutomatonReachableStates<LETTER, STATE>.AcceptingSummariesComputation asc,
+			final Set<STATE> allStates, final Set<STATE> startStates, final int threads) {
 		mServices = services;
 		mLogger = mServices.getLoggingService().getLogger(LibraryIdentifiers.PLUGIN_ID);
 		mNwars = nwars;
@@ -115,8 +139,13 @@ public class AcceptingComponentsAnalysis<LETTER, STATE> {
 			final StateContainer<LETTER, STATE> sc = nwars.getStateContainer(state);
 			startNodes.add(sc);
 		}
-		mSccComputation = new SccComputationNonRecursive<>(mLogger, mNwarsSuccessorProvider, mScComponentFactory,
-				allStates.size(), startNodes);
+		if (threads > 1) {
+			mSccComputation = new SccComputationParallel<>(mLogger, mNwarsSuccessorProvider, mScComponentFactory,
+					allStates.size(), startNodes, threads);
+		} else {
+			mSccComputation = new SccComputationNonRecursive<>(mLogger, mNwarsSuccessorProvider, mScComponentFactory,
+					allStates.size(), startNodes);
+		}
 		mTransitionFilter = new StateBasedTransitionFilterPredicateProvider<>(allStates);
 		mAcceptingSummaries = asc.getAcceptingSummaries();
 
@@ -278,8 +278,17 @@ public class NestedWordAutomatonReachableStates<LETTER, STATE>
 	 * @return The accepting components.
 	 */
 	public final AcceptingComponentsAnalysis<LETTER, STATE> getOrComputeAcceptingComponents() {
+		return getOrComputeAcceptingComponents(1);
+	}
+
+	/**
+	 * @param sccThreads
+	 *            number of threads that are used if the accepting components are not yet computed
+	 * @return The accepting components.
+	 */
+	public final AcceptingComponentsAnalysis<LETTER, STATE> getOrComputeAcceptingComponents(final int sccThreads) {
 		if (mAcceptingComponentsAnalysis == null) {
-			computeAcceptingComponents();
+			computeAcceptingComponents(sccThreads);
 		}
 		return mAcceptingComponentsAnalysis;
 	}
@@ -636,13 +645,23 @@ public class NestedWordAutomatonReachableStates<LETTER, STATE>
 	 * Computes the accepting components.
 	 */
 	public void computeAcceptingComponents() {
+		computeAcceptingComponents(1);
+	}
+
+	/**
+	 * Computes the accepting components.
+	 *
+	 * @param sccThreads
+	 *            number of threads for the SCC computation
+	 */
+	public void computeAcceptingComponents(final int sccThreads) {
 		if (mAcceptingComponentsAnalysis != null) {
 			throw new AssertionError("SCCs are already computed");
 		}
 		assert mAcceptingSummaries == null;
 		mAcceptingSummaries = new AcceptingSummariesComputation();
 		mAcceptingComponentsAnalysis = new AcceptingComponentsAnalysis<>(mServices, this, mAcceptingSummaries,
-				mStates.keySet(), mInitialStates);
+				mStates.keySet(), mInitialStates, sccThreads);
 	}
 
 	/**
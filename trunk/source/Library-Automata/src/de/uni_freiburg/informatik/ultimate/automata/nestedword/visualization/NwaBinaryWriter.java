@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.visualization;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.IEpsilonNestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.VpAlphabet;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.ReadNwaBinary;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.util.VarIntUtils;
+
+/**
+ * Writer for a compact binary format of nested word automata that {@link ReadNwaBinary} reads back.
+ * <p>
+ * Like the {@link NwaWriterToString ATS format} the {@link #toString()} representations of letters and states are
+ * used as names. Each name is written only once; transitions refer to letters and states by their index. Since the
+ * reader identifies letters and states by their names, the writer refuses automata in which two letters or two states
+ * have the same name. All numbers are unsigned variable-length quantities (see {@link VarIntUtils}). The file layout
+ * (version {@value #VERSION}) is:
+ * <ol>
+ * <li>the magic bytes {@code UNWB} and the version,
+ * <li>the number of letters, and for each letter its name and a byte of flags ({@value #INTERNAL_LETTER}: internal,
+ * {@value #CALL_LETTER}: call, {@value #RETURN_LETTER}: return),
+ * <li>the number of states, and for each state its name and a byte of flags ({@value #INITIAL_STATE}: initial,
+ * {@value #FINAL_STATE}: final),
+ * <li>for each state (in the same order) the number of outgoing internal transitions followed by pairs (letter,
+ * successor), the number of outgoing call transitions followed by pairs (letter, successor), and the number of
+ * outgoing return transitions followed by triples (hierarchical predecessor, letter, successor).
+ * </ol>
+ * A name is its length in bytes followed by its UTF-8 encoding. The transitions are written in one pass over the
+ * states; the successors of a state are iterated twice, once to count them and once to write them, so the writer does
+ * not need memory proportional to the number of transitions.
+ *
+ * @param <LETTER>
+ *            letter type
+ * @param <STATE>
+ *            state type
+ */
+public final class NwaBinaryWriter<LETTER, STATE> {
+	/**
+	 * File ending.
+	 */
+	public static final String FILE_ENDING = "nwab";
+	/**
+	 * The bytes {@code UNWB} as big-endian int.
+	 */
+	public static final int MAGIC = 0x554E5742;
+	public static final int VERSION = 1;
+
+	public static final int INTERNAL_LETTER = 1;
+	public static final int CALL_LETTER = 2;
+	public static final int RETURN_LETTER = 4;
+	public static final int INITIAL_STATE = 1;
+	public static final int FINAL_STATE = 2;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final OutputStream mOutput;
+	private final ByteBuffer mBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private final INestedWordAutomaton<LETTER, STATE> mNwa;
+	private final Map<LETTER, Integer> mLetter2Index = new HashMap<>();
+	private final Map<STATE, Integer> mState2Index = new HashMap<>();
+
+	/**
+	 * Writes the automaton to the stream. The stream is flushed but not closed.
+	 *
+	 * @param output
+	 *            output stream
+	 * @param nwa
+	 *            nested word automaton without epsilon transitions
+	 * @throws IOException
+	 *             if writing fails
+	 * @throws IllegalArgumentException
+	 *             if the automaton has epsilon transitions or if two letters or two states have the same name; nothing
+	 *             is written in this case
+	 */
+	public NwaBinaryWriter(final OutputStream output, final INestedWordAutomaton<LETTER, STATE> nwa)
+			throws IOException {
+		if (nwa instanceof IEpsilonNestedWordAutomaton) {
+			throw new IllegalArgumentException("epsilon transitions are not supported by the binary format");
+		}
+		mOutput = output;
+		mNwa = nwa;
+		final Map<LETTER, Integer> letter2Flags = getLetterFlags();
+		final String[] letterNames = getNames(letter2Flags.keySet(), "letters");
+		final String[] stateNames = getNames(mNwa.getStates(), "states");
+
+		mBuffer.putInt(MAGIC);
+		writeVarInt(VERSION);
+		writeLetters(letter2Flags, letterNames);
+		writeStates(stateNames);
+		for (final STATE state : mNwa.getStates()) {
+			writeTransitions(state);
+		}
+		flushBuffer();
+		mOutput.flush();
+	}
+
+	private Map<LETTER, Integer> getLetterFlags() {
+		final VpAlphabet<LETTER> alphabet = mNwa.getVpAlphabet();
+		final Map<LETTER, Integer> letter2Flags = new LinkedHashMap<>();
+		for (final LETTER letter : alphabet.getInternalAlphabet()) {
+			letter2Flags.merge(letter, INTERNAL_LETTER, (x, y) -> x | y);
+		}
+		for (final LETTER letter : alphabet.getCallAlphabet()) {
+			letter2Flags.merge(letter, CALL_LETTER, (x, y) -> x | y);
+		}
+		for (final LETTER letter : alphabet.getReturnAlphabet()) {
+			letter2Flags.merge(letter, RETURN_LETTER, (x, y) -> x | y);
+		}
+		return letter2Flags;
+	}
+
+	/**
+	 * @return the names of the objects in iteration order
+	 * @throws IllegalArgumentException
+	 *             if two objects have the same name
+	 */
+	private static String[] getNames(final Collection<?> objects, final String kind) {
+		final String[] names = new String[objects.size()];
+		final Set<String> seen = new HashSet<>();
+		int i = 0;
+		for (final Object object : objects) {
+			names[i] = String.valueOf(object);
+			if (!seen.add(names[i])) {
+				throw new IllegalArgumentException(
+						"the binary format cannot distinguish " + kind + " with the same name " + names[i]);
+			}
+			++i;
+		}
+		return names;
+	}
+
+	private void writeLetters(final Map<LETTER, Integer> letter2Flags, final String[] names) throws IOException {
+		writeVarInt(letter2Flags.size());
+		for (final Map.Entry<LETTER, Integer> entry : letter2Flags.entrySet()) {
+			final int index = mLetter2Index.size();
+			mLetter2Index.put(entry.getKey(), index);
+			writeName(names[index]);
+			writeByte(entry.getValue());
+		}
+	}
+
+	private void writeStates(final String[] names) throws IOException {
+		writeVarInt(names.length);
+		for (final STATE state : mNwa.getStates()) {
+			final int index = mState2Index.size();
+			mState2Index.put(state, index);
+			writeName(names[index]);
+			int flags = 0;
+			if (mNwa.isInitial(state)) {
+				flags |= INITIAL_STATE;
+			}
+			if (mNwa.isFinal(state)) {
+				flags |= FINAL_STATE;
+			}
+			writeByte(flags);
+		}
+	}
+
+	private void writeTransitions(final STATE state) throws IOException {
+		writeVarInt(count(mNwa.internalSuccessors(state)));
+		for (final OutgoingInternalTransition<LETTER, STATE> trans : mNwa.internalSuccessors(state)) {
+			writeVarInt(mLetter2Index.get(trans.getLetter()));
+			writeVarInt(mState2Index.get(trans.getSucc()));
+		}
+
+		writeVarInt(count(mNwa.callSuccessors(state)));
+		for (final OutgoingCallTransition<LETTER, STATE> trans : mNwa.callSuccessors(state)) {
+			writeVarInt(mLetter2Index.get(trans.getLetter()));
+			writeVarInt(mState2Index.get(trans.getSucc()));
+		}
+
+		writeVarInt(count(mNwa.returnSuccessors(state)));
+		for (final OutgoingReturnTransition<LETTER, STATE> trans : mNwa.returnSuccessors(state)) {
+			writeVarInt(mState2Index.get(trans.getHierPred()));
+			writeVarInt(mLetter2Index.get(trans.getLetter()));
+			writeVarInt(mState2Index.get(trans.getSucc()));
+		}
+	}
+
+	private static int count(final Iterable<?> transitions) {
+		int result = 0;
+		for (final Iterator<?> iterator = transitions.iterator(); iterator.hasNext(); iterator.next()) {
+			++result;
+		}
+		return result;
+	}
+
+	private void writeName(final String name) throws IOException {
+		final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(bytes.length);
+		if (mBuffer.remaining() < bytes.length) {
+			flushBuffer();
+		}
+		if (bytes.length > mBuffer.capacity()) {
+			mOutput.write(bytes);
+		} else {
+			mBuffer.put(bytes);
+		}
+	}
+
+	private void writeByte(final int value) throws IOException {
+		if (!mBuffer.hasRemaining()) {
+			flushBuffer();
+		}
+		mBuffer.put((byte) value);
+	}
+
+	private void writeVarInt(final int value) throws IOException {
+		if (mBuffer.remaining() < VarIntUtils.MAX_BYTES) {
+			flushBuffer();
+		}
+		VarIntUtils.write(mBuffer, value);
+	}
+
+	private void flushBuffer() throws IOException {
+		mOutput.write(mBuffer.array(), 0, mBuffer.position());
+		mBuffer.clear();
+	}
+}
@@ -32,6 +32,7 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -52,8 +53,11 @@ import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.HashRela
  */
 public class ConditionEventsCoRelation<LETTER, PLACE> implements ICoRelation<LETTER, PLACE> {
 	private static final boolean EXTENDED_ASSERTION_CHECKING = false;
-	private long mQueryCounterYes;
-	private long mQueryCounterNo;
+	/**
+	 * The counters are updated by concurrent queries of a {@link PetriNetUnfolder} that uses several threads.
+	 */
+	private final LongAdder mQueryCounterYes = new LongAdder();
+	private final LongAdder mQueryCounterNo = new LongAdder();
 
 	/**
 	 * TODO schaetzc 2018-08-16: This does not seem to store all co-relations between conditions and events.
@@ -79,12 +83,12 @@ public class ConditionEventsCoRelation<LETTER, PLACE> implements ICoRelation<LET
 
 	@Override
 	public long getQueryCounterYes() {
-		return mQueryCounterYes;
+		return mQueryCounterYes.sum();
 	}
 
 	@Override
 	public long getQueryCounterNo() {
-		return mQueryCounterNo;
+		return mQueryCounterNo.sum();
 	}
 
 
@@ -169,9 +173,9 @@ public class ConditionEventsCoRelation<LETTER, PLACE> implements ICoRelation<LET
 		assert result == isInCoRelationNaive(c1, c2) :
 				String.format("contradictory co-Relation for %s,%s: normal=%b != %b=naive", c1, c2, result, !result);
 		if (result) {
-			mQueryCounterYes++;
+			mQueryCounterYes.increment();
 		} else {
-			mQueryCounterNo++;
+			mQueryCounterNo.increment();
 		}
 		return result;
 	}
@@ -32,6 +32,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
 import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
@@ -100,6 +101,32 @@ public final class PetriNetUnfolder<L, P> {
 	public PetriNetUnfolder(final AutomataLibraryServices services, final IPetriNetSuccessorProvider<L, P> operand,
 			final EventOrderEnum order, final boolean sameTransitionCutOff, final boolean stopIfAcceptingRunFound)
 			throws AutomataOperationCanceledException, PetriNetNot1SafeException {
+		this(services, operand, order, sameTransitionCutOff, stopIfAcceptingRunFound, 1);
+	}
+
+	/**
+	 * Build the finite Prefix of PetriNet net.
+	 *
+	 * @param order
+	 *            the order on events and configurations respectively is used to determine cut-off events.
+	 * @param sameTransitionCutOff
+	 *            if true, an additional condition for cut-off events is used: An event and its companion must belong to
+	 *            the same transition from the net.
+	 * @param stopIfAcceptingRunFound
+	 *            if false, the complete finite Prefix will be build.
+	 * @param threads
+	 *            number of threads that search co-sets for the possible extensions; events are still added one by one
+	 *            in the given order, hence the finite prefix does not depend on the number of threads
+	 * @throws AutomataOperationCanceledException
+	 *             if timeout exceeds
+	 * @throws PetriNetNot1SafeException
+	 */
+	public PetriNetUnfolder(final AutomataLibraryServices services, final IPetriNetSuccessorProvider<L, P> operand,
+			final EventOrderEnum order, final boolean sameTransitionCutOff, final boolean stopIfAcceptingRunFound,
+			final int threads) throws AutomataOperationCanceledException, PetriNetNot1SafeException {
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one thread is needed, got " + threads);
+		}
 		mServices = services;
 		mLogger = mServices.getLoggingService().getLogger(LibraryIdentifiers.PLUGIN_ID);
 		mOperand = operand;
@@ -122,10 +149,17 @@ public final class PetriNetUnfolder<L, P> {
 			throw new IllegalArgumentException();
 		}
 		mUnfolding = new BranchingProcess<>(mServices, operand, mOrder, USE_FIRSTBORN_CUTOFF_CHECK, B32_OPTIMIZATION);
+		final ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
 		mPossibleExtensions =
-				new PossibleExtensions<>(mUnfolding, mOrder, USE_FIRSTBORN_CUTOFF_CHECK, B32_OPTIMIZATION);
+				new PossibleExtensions<>(mUnfolding, mOrder, USE_FIRSTBORN_CUTOFF_CHECK, B32_OPTIMIZATION, pool);
 
-		computeUnfolding();
+		try {
+			computeUnfolding();
+		} finally {
+			if (pool != null) {
+				pool.shutdownNow();
+			}
+		}
 		mLogger.info(mStatistics.prettyprintCutOffInformation());
 		mLogger.info(mStatistics.prettyprintCoRelationInformation());
 		if (DEBUG_LOG_CO_RELATION_DEGREE_HISTOGRAM) {
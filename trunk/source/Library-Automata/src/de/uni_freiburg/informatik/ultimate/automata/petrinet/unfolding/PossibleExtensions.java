@@ -40,6 +40,7 @@ import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import de.uni_freiburg.informatik.ultimate.automata.petrinet.IPetriNet;
@@ -94,9 +95,27 @@ public class PossibleExtensions<LETTER, PLACE> implements IPossibleExtensions<LE
 	private int mUsefulExtensionCandidates = 0;
 	private int mUselessExtensionCandidates = 0;
 
+	/**
+	 * Pool in which the candidates are evolved, {@code null} if they are evolved sequentially.
+	 */
+	private final ForkJoinPool mPool;
+
 	public PossibleExtensions(final BranchingProcess<LETTER, PLACE> branchingProcess,
 			final ConfigurationOrder<LETTER, PLACE> order, final boolean useFirstbornCutoffCheck,
 			final boolean useB32Optimization) {
+		this(branchingProcess, order, useFirstbornCutoffCheck, useB32Optimization, null);
+	}
+
+	/**
+	 * @param pool
+	 *            if not {@code null}, the co-sets of the candidates of one update are searched concurrently in this
+	 *            pool; the possible extensions are the same as in the sequential search and they are added in the
+	 *            same order
+	 */
+	public PossibleExtensions(final BranchingProcess<LETTER, PLACE> branchingProcess,
+			final ConfigurationOrder<LETTER, PLACE> order, final boolean useFirstbornCutoffCheck,
+			final boolean useB32Optimization, final ForkJoinPool pool) {
+		mPool = pool;
 		mUseFirstbornCutoffCheck = useFirstbornCutoffCheck;
 		mBranchingProcess = branchingProcess;
 		if (USE_PQ) {
@@ -126,6 +145,10 @@ public class PossibleExtensions<LETTER, PLACE> implements IPossibleExtensions<LE
 	@Override
 	public void update(final Event<LETTER, PLACE> event) throws PetriNetNot1SafeException {
 		final Collection<Candidate<LETTER, PLACE>> candidates = computeCandidates(event);
+		if (mPool != null && !USE_FORWARD_CHECKING && candidates.size() > 1) {
+			updateConcurrently(new ArrayList<>(candidates));
+			return;
+		}
 		for (final Candidate<LETTER, PLACE> candidate : candidates) {
 			if (candidate.getInstantiated().isEmpty()) {
 				throw new AssertionError("at least one place has to be instantiated");
@@ -144,6 +167,55 @@ public class PossibleExtensions<LETTER, PLACE> implements IPossibleExtensions<LE
 		}
 	}
 
+	/**
+	 * The search for co-sets only queries the co-relation and each task modifies only its own candidate, hence the
+	 * candidates are evolved concurrently. Events are constructed afterwards in the order of the candidates because
+	 * their construction modifies the branching process and their numbers must not depend on the scheduling.
+	 */
+	private void updateConcurrently(final List<Candidate<LETTER, PLACE>> candidates)
+			throws PetriNetNot1SafeException {
+		for (final Candidate<LETTER, PLACE> candidate : candidates) {
+			if (candidate.getInstantiated().isEmpty()) {
+				throw new AssertionError("at least one place has to be instantiated");
+			}
+		}
+		final List<List<List<Condition<LETTER, PLACE>>>> cosetsOfCandidates = mPool.submit(
+				() -> candidates.parallelStream().map(this::computeCosets).collect(Collectors.toList())).join();
+		for (int i = 0; i < candidates.size(); i++) {
+			final int possibleExtensionsBefore = size();
+			for (final List<Condition<LETTER, PLACE>> coset : cosetsOfCandidates.get(i)) {
+				addExtensions(candidates.get(i).getTransition(), coset);
+			}
+			if (size() > possibleExtensionsBefore) {
+				mUsefulExtensionCandidates++;
+			} else {
+				mUselessExtensionCandidates++;
+			}
+		}
+	}
+
+	/**
+	 * @return The instantiations of all ways to evolve the {@code Candidate}, in the order in which
+	 *         {@link #evolveCandidate} visits them.
+	 */
+	private List<List<Condition<LETTER, PLACE>>> computeCosets(final Candidate<LETTER, PLACE> cand) {
+		final List<List<Condition<LETTER, PLACE>>> result = new ArrayList<>();
+		computeCosets(cand, result);
+		return result;
+	}
+
+	private void computeCosets(final Candidate<LETTER, PLACE> cand, final List<List<Condition<LETTER, PLACE>>> result) {
+		if (cand.isFullyInstantiated()) {
+			result.add(new ArrayList<>(cand.getInstantiated()));
+			return;
+		}
+		for (final Condition<LETTER, PLACE> c : computeInstantiationsOfNextPlace(cand)) {
+			cand.instantiateNext(c);
+			computeCosets(cand, result);
+			cand.undoOneInstantiation();
+		}
+	}
+
 	private boolean firstbornCutoffCheck(final Event<LETTER, PLACE> newEvent) {
 		final Event<LETTER, PLACE> eventWithSameMarking = mMarkingEventMap.get(newEvent.getMark());
 		if (eventWithSameMarking == null) {
@@ -168,9 +240,14 @@ public class PossibleExtensions<LETTER, PLACE> implements IPossibleExtensions<LE
 	 */
 
 	private void addFullyInstantiatedCandidate(final Candidate<LETTER, PLACE> cand) throws PetriNetNot1SafeException {
-		for (final ITransition<LETTER, PLACE> trans : cand.getTransition().getTransitions()) {
+		addExtensions(cand.getTransition(), cand.getInstantiated());
+	}
+
+	private void addExtensions(final ISuccessorTransitionProvider<LETTER, PLACE> transitionProvider,
+			final List<Condition<LETTER, PLACE>> predecessors) throws PetriNetNot1SafeException {
+		for (final ITransition<LETTER, PLACE> trans : transitionProvider.getTransitions()) {
 			mNumberOfGeneratedExtensions ++;
-			final Event<LETTER, PLACE> newEvent = new Event<>(cand.getInstantiated(), trans, mBranchingProcess, mNumberOfGeneratedExtensions);
+			final Event<LETTER, PLACE> newEvent = new Event<>(predecessors, trans, mBranchingProcess, mNumberOfGeneratedExtensions);
 			if (mUseFirstbornCutoffCheck) {
 				if (firstbornCutoffCheck(newEvent)) {
 					mFastpathCutoffEventList.add(newEvent);
@@ -197,6 +274,19 @@ public class PossibleExtensions<LETTER, PLACE> implements IPossibleExtensions<LE
 			addFullyInstantiatedCandidate(cand);
 			return;
 		}
+		for (final Condition<LETTER, PLACE> c : computeInstantiationsOfNextPlace(cand)) {
+			cand.instantiateNext(c);
+			evolveCandidate(cand);
+			cand.undoOneInstantiation();
+		}
+	}
+
+	/**
+	 * @return The possible instantiations of the next uninstantiated place that are in co-relation with all conditions
+	 *         that were instantiated so far.
+	 */
+	@SuppressWarnings("squid:S1698")
+	private Set<Condition<LETTER, PLACE>> computeInstantiationsOfNextPlace(final Candidate<LETTER, PLACE> cand) {
 		final PLACE nextUninstantiated = cand.getNextUninstantiatedPlace();
 		final ICoRelation<LETTER, PLACE> coRelation = mBranchingProcess.getCoRelation();
 		final List<Condition<LETTER, PLACE>> yetInstantiated = cand.getInstantiatedButNotInitially();
@@ -208,10 +298,8 @@ public class PossibleExtensions<LETTER, PLACE> implements IPossibleExtensions<LE
 			// equality intended here
 			assert c.getPlace().equals(nextUninstantiated);
 			assert !cand.getInstantiated().contains(c);
-			cand.instantiateNext(c);
-			evolveCandidate(cand);
-			cand.undoOneInstantiation();
 		}
+		return inCoRelationWithAllInstantiated;
 	}
 
 	private void evolveCandidateWithForwardChecking(final Candidate<LETTER, PLACE> cand) throws PetriNetNot1SafeException  {
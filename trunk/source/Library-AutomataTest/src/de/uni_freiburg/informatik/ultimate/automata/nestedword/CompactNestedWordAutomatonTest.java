@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.Compact;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.GetRandomNwa;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.IsEquivalent;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.SummaryReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Compares {@link CompactNestedWordAutomaton}s with {@link NestedWordAutomaton}s that have the same transitions.
+ */
+public class CompactNestedWordAutomatonTest {
+
+	private AutomataLibraryServices mServices;
+
+	@Before
+	public void setUp() {
+		mServices = new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+	}
+
+	@Test
+	public void sameQueriesAsNestedWordAutomaton() throws AutomataLibraryException {
+		for (long seed = 0; seed < 10; seed++) {
+			final INestedWordAutomaton<String, String> random =
+					new GetRandomNwa(mServices, 4, 15, 0.1, 0.05, 0.02, 0.3, seed).getResult();
+			final NestedWordAutomaton<String, String> nwa = NestedWordAutomataMemoryBenchmark.copy(mServices, random);
+			assertSameQueries(nwa, new CompactNestedWordAutomaton<>(mServices, nwa));
+		}
+	}
+
+	@Test
+	public void roundTrip() throws AutomataLibraryException {
+		final INestedWordAutomaton<String, String> random =
+				new GetRandomNwa(mServices, 3, 20, 0.1, 0.05, 0.02, 0.3, 7).getResult();
+		final CompactNestedWordAutomaton<String, String> compact = new CompactNestedWordAutomaton<>(mServices, random);
+		final NestedWordAutomaton<String, String> nwa = NestedWordAutomataMemoryBenchmark.copy(mServices, compact);
+		assertSameQueries(nwa, compact);
+		assertSameQueries(nwa, new CompactNestedWordAutomaton<>(mServices, compact));
+	}
+
+	@Test
+	public void equivalent() throws AutomataLibraryException {
+		final StringFactory factory = new StringFactory();
+		for (long seed = 0; seed < 5; seed++) {
+			final INestedWordAutomaton<String, String> random =
+					new GetRandomNwa(mServices, 2, 8, 0.2, 0, 0, 0.3, seed).getResult();
+			final NestedWordAutomaton<String, String> nwa = NestedWordAutomataMemoryBenchmark.copy(mServices, random);
+			final Compact<String, String> compact = new Compact<>(mServices, nwa);
+			assertTrue(new IsEquivalent<>(mServices, factory, nwa, compact.getResult()).getResult());
+			assertTrue(compact.checkResult(factory));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void letterOutsideAlphabet() throws AutomataLibraryException {
+		final Set<String> internal = new HashSet<>(Set.of("a", "b"));
+		final NestedWordAutomaton<String, String> nwa =
+				new NestedWordAutomaton<>(mServices, new VpAlphabet<>(internal), new StringFactory());
+		nwa.addState(true, false, "q0");
+		nwa.addState(false, true, "q1");
+		nwa.addInternalTransition("q0", "a", "q1");
+		nwa.addInternalTransition("q0", "b", "q0");
+		internal.remove("b");
+		new CompactNestedWordAutomaton<>(mServices, nwa);
+	}
+
+	@Test
+	public void memoryBenchmark() throws AutomataLibraryException {
+		final INestedWordAutomaton<String, String> random =
+				new GetRandomNwa(mServices, 10, 200, 0.05, 0, 0, 0.2, 42).getResult();
+		final NestedWordAutomataMemoryBenchmark<String, String> benchmark =
+				new NestedWordAutomataMemoryBenchmark<>(mServices, random, "Random");
+		assertTrue(benchmark.toString(), benchmark.getCompactBytes() > 0);
+		assertTrue(benchmark.toString(), benchmark.getCompactBytes() < benchmark.getNestedWordAutomatonBytes());
+	}
+
+	private static void assertSameQueries(final INestedWordAutomaton<String, String> expected,
+			final INestedWordAutomaton<String, String> actual) {
+		assertEquals(expected.getStates(), actual.getStates());
+		assertEquals(expected.getInitialStates(), actual.getInitialStates());
+		assertEquals(expected.getFinalStates(), actual.getFinalStates());
+		final Set<String> letters = new HashSet<>(expected.getVpAlphabet().getInternalAlphabet());
+		letters.addAll(expected.getVpAlphabet().getCallAlphabet());
+		letters.addAll(expected.getVpAlphabet().getReturnAlphabet());
+		for (final String state : expected.getStates()) {
+			assertEquals(expected.isInitial(state), actual.isInitial(state));
+			assertEquals(expected.isFinal(state), actual.isFinal(state));
+			assertEquals(expected.lettersInternal(state), actual.lettersInternal(state));
+			assertEquals(expected.lettersCall(state), actual.lettersCall(state));
+			assertEquals(expected.lettersReturn(state), actual.lettersReturn(state));
+			assertEquals(expected.lettersInternalIncoming(state), actual.lettersInternalIncoming(state));
+			assertEquals(expected.lettersCallIncoming(state), actual.lettersCallIncoming(state));
+			assertEquals(expected.lettersReturnIncoming(state), actual.lettersReturnIncoming(state));
+			assertEquals(expected.lettersSummary(state), actual.lettersSummary(state));
+			assertEquals(asSet(expected.internalSuccessors(state)), asSet(actual.internalSuccessors(state)));
+			assertEquals(asSet(expected.callSuccessors(state)), asSet(actual.callSuccessors(state)));
+			assertEquals(asSet(expected.returnSuccessors(state)), asSet(actual.returnSuccessors(state)));
+			assertEquals(asSet(expected.internalPredecessors(state)), asSet(actual.internalPredecessors(state)));
+			assertEquals(asSet(expected.callPredecessors(state)), asSet(actual.callPredecessors(state)));
+			assertEquals(asSet(expected.returnPredecessors(state)), asSet(actual.returnPredecessors(state)));
+			assertEquals(summaries(expected.summarySuccessors(state)), summaries(actual.summarySuccessors(state)));
+			for (final String letter : letters) {
+				assertEquals(asSet(expected.internalSuccessors(state, letter)),
+						asSet(actual.internalSuccessors(state, letter)));
+				assertEquals(asSet(expected.callSuccessors(state, letter)), asSet(actual.callSuccessors(state, letter)));
+				assertEquals(asSet(expected.internalPredecessors(state, letter)),
+						asSet(actual.internalPredecessors(state, letter)));
+				assertEquals(asSet(expected.callPredecessors(state, letter)),
+						asSet(actual.callPredecessors(state, letter)));
+				assertEquals(asSet(expected.returnPredecessors(state, letter)),
+						asSet(actual.returnPredecessors(state, letter)));
+				assertEquals(summaries(expected.summarySuccessors(state, letter)),
+						summaries(actual.summarySuccessors(state, letter)));
+			}
+			for (final String hier : expected.getStates()) {
+				assertEquals(expected.lettersReturn(state, hier), actual.lettersReturn(state, hier));
+				assertEquals(asSet(expected.returnSuccessorsGivenHier(state, hier)),
+						asSet(actual.returnSuccessorsGivenHier(state, hier)));
+				for (final String letter : letters) {
+					assertEquals(asSet(expected.returnSuccessors(state, hier, letter)),
+							asSet(actual.returnSuccessors(state, hier, letter)));
+					assertEquals(asSet(expected.returnPredecessors(state, hier, letter)),
+							asSet(actual.returnPredecessors(state, hier, letter)));
+				}
+			}
+		}
+	}
+
+	private static Set<String> asSet(final Iterable<?> transitions) {
+		final Set<String> result = new HashSet<>();
+		transitions.forEach(trans -> result.add(trans.toString()));
+		return result;
+	}
+
+	private static Set<String> summaries(final Iterable<SummaryReturnTransition<String, String>> transitions) {
+		final Set<String> result = new HashSet<>();
+		transitions.forEach(trans -> result.add(trans.getLinPred() + " " + trans.getLetter() + " " + trans.getSucc()));
+		return result;
+	}
+}
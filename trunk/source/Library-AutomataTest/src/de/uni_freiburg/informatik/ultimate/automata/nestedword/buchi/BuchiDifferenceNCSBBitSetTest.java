@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INwaOutgoingLetterAndTransitionProvider;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.VpAlphabet;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.BuchiIsEquivalent.TestMode;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.GetRandomNwa;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.optncsb.Options;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Compares {@link BuchiDifferenceNCSBBitSet} with {@link BuchiDifferenceNCSBLazy3}, which is the same construction on
+ * the default set type (tree sets).
+ */
+public class BuchiDifferenceNCSBBitSetTest {
+
+	private static final int SEEDS = 20;
+	private static final VpAlphabet<String> ALPHABET =
+			new VpAlphabet<>(Set.of("a", "b"), Set.of("c"), Set.of("r"));
+
+	private AutomataLibraryServices mServices;
+	private StringFactory mFactory;
+
+	@Before
+	public void setUp() {
+		mServices = new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+		mFactory = new StringFactory();
+	}
+
+	@Test
+	public void sameLanguageAsTreeSets() throws AutomataLibraryException {
+		for (int seed = 0; seed < SEEDS; seed++) {
+			final INestedWordAutomaton<String, String> fst = randomAutomaton(seed);
+			final INestedWordAutomaton<String, String> snd = randomAutomaton(SEEDS + seed);
+			assertSameLanguage(fst, snd, false);
+		}
+	}
+
+	@Test
+	public void sameLanguageAsTreeSetsWithCallsAndReturns() throws AutomataLibraryException {
+		// all words that call a procedure infinitely often
+		final NestedWordAutomaton<String, String> fst = new NestedWordAutomaton<>(mServices, ALPHABET, mFactory);
+		fst.addState(true, false, "p0");
+		fst.addState(false, true, "p1");
+		fst.addInternalTransition("p0", "a", "p0");
+		fst.addInternalTransition("p0", "b", "p0");
+		fst.addCallTransition("p0", "c", "p1");
+		fst.addInternalTransition("p1", "a", "p0");
+		fst.addInternalTransition("p1", "b", "p0");
+		fst.addReturnTransition("p0", "p1", "r", "p0");
+		fst.addReturnTransition("p1", "p0", "r", "p0");
+		fst.addReturnTransition("p0", "p0", "r", "p0");
+		fst.addReturnTransition("p1", "p1", "r", "p0");
+
+		// all words that eventually read only a inside of procedures
+		final NestedWordAutomaton<String, String> snd = new NestedWordAutomaton<>(mServices, ALPHABET, mFactory);
+		snd.addState(true, false, "q0");
+		snd.addState(false, true, "q1");
+		snd.addInternalTransition("q0", "a", "q0");
+		snd.addInternalTransition("q0", "b", "q0");
+		snd.addCallTransition("q0", "c", "q0");
+		snd.addReturnTransition("q0", "q0", "r", "q0");
+		snd.addCallTransition("q0", "c", "q1");
+		snd.addCallTransition("q1", "c", "q1");
+		snd.addInternalTransition("q1", "a", "q1");
+		snd.addReturnTransition("q1", "q1", "r", "q1");
+		snd.addReturnTransition("q1", "q0", "r", "q1");
+
+		assertSameLanguage(fst, snd, true);
+		assertSameLanguage(snd, fst, true);
+	}
+
+	private INestedWordAutomaton<String, String> randomAutomaton(final long seed) {
+		return new GetRandomNwa(mServices, 2, 6, 0.3, 0, 0, 0.3, seed).getResult();
+	}
+
+	private void assertSameLanguage(final INestedWordAutomaton<String, String> fst,
+			final INestedWordAutomaton<String, String> snd, final boolean complete) throws AutomataLibraryException {
+		final int setChoice = Options.setChoice;
+		final INwaOutgoingLetterAndTransitionProvider<String, String> bitSets =
+				new BuchiDifferenceNCSBBitSet<>(mServices, mFactory, fst, snd).getResult();
+		// the bit sets must not leak into the next construction
+		assertEquals(setChoice, Options.setChoice);
+		final INwaOutgoingLetterAndTransitionProvider<String, String> treeSets =
+				new BuchiDifferenceNCSBLazy3<>(mServices, mFactory, fst, snd).getResult();
+		// both differences are built by the same construction, hence they have the same size
+		assertEquals(treeSets.size(), bitSets.size());
+		if (complete) {
+			assertTrue(new BuchiIsIncluded<>(mServices, mFactory, bitSets, treeSets, true).getResult());
+			assertTrue(new BuchiIsIncluded<>(mServices, mFactory, treeSets, bitSets, true).getResult());
+		} else {
+			assertTrue(new BuchiIsEquivalent<>(mServices, mFactory, bitSets, treeSets, TestMode.INCOMPLETE).getResult());
+		}
+	}
+}
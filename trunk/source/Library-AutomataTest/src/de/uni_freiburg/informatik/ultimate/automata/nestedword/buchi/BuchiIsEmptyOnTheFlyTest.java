@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.VpAlphabet;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.GetRandomNwa;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Compares {@link BuchiIsEmptyOnTheFly} with {@link BuchiIsEmpty}, and the on-the-fly variant of
+ * {@link BuchiIsIncluded} with the default one.
+ */
+public class BuchiIsEmptyOnTheFlyTest {
+
+	private static final int SEEDS = 50;
+	private static final VpAlphabet<String> ALPHABET =
+			new VpAlphabet<>(Set.of("a", "b"), Set.of("c"), Set.of("r"));
+
+	private AutomataLibraryServices mServices;
+	private StringFactory mFactory;
+
+	@Before
+	public void setUp() {
+		mServices = new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+		mFactory = new StringFactory();
+	}
+
+	@Test
+	public void randomFiniteAutomata() throws AutomataLibraryException {
+		for (int seed = 0; seed < SEEDS; seed++) {
+			assertSameResult(new GetRandomNwa(mServices, 2, 8, 0.15, 0, 0, 0.2, seed).getResult());
+		}
+	}
+
+	@Test
+	public void randomAutomataWithCallsAndReturns() throws AutomataLibraryException {
+		for (int seed = 0; seed < SEEDS; seed++) {
+			assertSameResult(new GetRandomNwa(mServices, 2, 8, 0.1, 0.05, 0.05, 0.2, seed).getResult());
+		}
+	}
+
+	/**
+	 * The accepting state is only visited inside of a procedure, hence the loop of the lasso needs a summary.
+	 */
+	@Test
+	public void acceptingLassoThroughSummary() throws AutomataLibraryException {
+		final NestedWordAutomaton<String, String> nwa = new NestedWordAutomaton<>(mServices, ALPHABET, mFactory);
+		nwa.addState(true, false, "q0");
+		nwa.addState(false, true, "q1");
+		nwa.addState(false, false, "q2");
+		nwa.addCallTransition("q0", "c", "q1");
+		nwa.addInternalTransition("q1", "a", "q2");
+		nwa.addReturnTransition("q2", "q0", "r", "q0");
+		// the accepting state also has a pending call that never returns to an accepting state
+		nwa.addCallTransition("q1", "c", "q2");
+		assertTrue(assertSameResult(nwa));
+	}
+
+	/**
+	 * The accepting state is only visited in an infinite sequence of pending calls.
+	 */
+	@Test
+	public void acceptingLassoWithPendingCalls() throws AutomataLibraryException {
+		final NestedWordAutomaton<String, String> nwa = new NestedWordAutomaton<>(mServices, ALPHABET, mFactory);
+		nwa.addState(true, false, "q0");
+		nwa.addState(false, true, "q1");
+		nwa.addInternalTransition("q0", "a", "q0");
+		nwa.addCallTransition("q0", "c", "q1");
+		nwa.addInternalTransition("q1", "b", "q0");
+		assertTrue(assertSameResult(nwa));
+	}
+
+	/**
+	 * The accepting state can only be left by a return whose call was never taken, hence the language is empty.
+	 */
+	@Test
+	public void noLassoThroughUnmatchedReturn() throws AutomataLibraryException {
+		final NestedWordAutomaton<String, String> nwa = new NestedWordAutomaton<>(mServices, ALPHABET, mFactory);
+		nwa.addState(true, false, "q0");
+		nwa.addState(false, true, "q1");
+		nwa.addState(false, false, "q2");
+		nwa.addInternalTransition("q0", "a", "q1");
+		nwa.addReturnTransition("q1", "q2", "r", "q0");
+		nwa.addCallTransition("q2", "c", "q2");
+		assertTrue(!assertSameResult(nwa));
+	}
+
+	@Test
+	public void inclusionOnTheFly() throws AutomataLibraryException {
+		for (int seed = 0; seed < SEEDS; seed++) {
+			final INestedWordAutomaton<String, String> fst =
+					new GetRandomNwa(mServices, 2, 4, 0.3, 0, 0, 0.3, seed).getResult();
+			final INestedWordAutomaton<String, String> snd =
+					new GetRandomNwa(mServices, 2, 4, 0.3, 0, 0, 0.3, SEEDS + seed).getResult();
+			final BuchiIsIncluded<String, String> expected =
+					new BuchiIsIncluded<>(mServices, mFactory, fst, snd, false);
+			final BuchiIsIncluded<String, String> actual = new BuchiIsIncluded<>(mServices, mFactory, fst, snd, true);
+			assertEquals(expected.getResult(), actual.getResult());
+			if (actual.getResult()) {
+				assertNull(actual.getCounterexample());
+			} else {
+				final NestedLassoWord<String> word = actual.getCounterexample().getNestedLassoWord();
+				assertTrue(new BuchiAccepts<>(mServices, fst, word).getResult());
+				assertTrue(!new BuchiAccepts<>(mServices, snd, word).getResult());
+			}
+		}
+	}
+
+	/**
+	 * @return true iff the language of the automaton is not empty
+	 */
+	private boolean assertSameResult(final INestedWordAutomaton<String, String> nwa)
+			throws AutomataLibraryException {
+		final boolean expected = new BuchiIsEmpty<>(mServices, nwa).getResult();
+		final BuchiIsEmptyOnTheFly<String, String> onTheFly = new BuchiIsEmptyOnTheFly<>(mServices, nwa);
+		assertEquals(expected, onTheFly.getResult());
+		if (!expected) {
+			final NestedLassoWord<String> word = onTheFly.getAcceptingNestedLassoRun().getNestedLassoWord();
+			assertTrue(new BuchiAccepts<>(mServices, nwa, word).getResult());
+		}
+		return !expected;
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.VpAlphabet;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.GetRandomNwa;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Compares {@link BuchiIsIncludedNCSBAntichain} with {@link BuchiIsIncluded} on finite automata whose second operand
+ * is semideterministic.
+ */
+public class BuchiIsIncludedNCSBAntichainTest {
+
+	private static final int SEEDS = 20;
+	private static final VpAlphabet<String> ALPHABET = new VpAlphabet<>(Set.of("a0", "a1"));
+
+	private AutomataLibraryServices mServices;
+	private StringFactory mFactory;
+
+	@Before
+	public void setUp() {
+		mServices = new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+		mFactory = new StringFactory();
+	}
+
+	/**
+	 * All words with infinitely many a0, the automaton is deterministic.
+	 */
+	private NestedWordAutomaton<String, String> infinitelyManyA0() {
+		final NestedWordAutomaton<String, String> nwa = new NestedWordAutomaton<>(mServices, ALPHABET, mFactory);
+		nwa.addState(true, false, "s0");
+		nwa.addState(false, true, "s1");
+		nwa.addInternalTransition("s0", "a0", "s1");
+		nwa.addInternalTransition("s0", "a1", "s0");
+		nwa.addInternalTransition("s1", "a0", "s1");
+		nwa.addInternalTransition("s1", "a1", "s0");
+		return nwa;
+	}
+
+	/**
+	 * All words with finitely many a1, the automaton is semideterministic.
+	 */
+	private NestedWordAutomaton<String, String> finitelyManyA1() {
+		final NestedWordAutomaton<String, String> nwa = new NestedWordAutomaton<>(mServices, ALPHABET, mFactory);
+		nwa.addState(true, false, "q0");
+		nwa.addState(false, true, "q1");
+		nwa.addInternalTransition("q0", "a0", "q0");
+		nwa.addInternalTransition("q0", "a1", "q0");
+		nwa.addInternalTransition("q0", "a0", "q1");
+		nwa.addInternalTransition("q1", "a0", "q1");
+		return nwa;
+	}
+
+	@Test
+	public void included() throws AutomataLibraryException {
+		final BuchiIsIncludedNCSBAntichain<String, String> inclusion =
+				new BuchiIsIncludedNCSBAntichain<>(mServices, mFactory, finitelyManyA1(), infinitelyManyA0());
+		assertTrue(inclusion.getResult());
+		assertNull(inclusion.getCounterexample());
+		assertTrue(inclusion.checkResult(mFactory));
+	}
+
+	@Test
+	public void notIncluded() throws AutomataLibraryException {
+		final INestedWordAutomaton<String, String> fst = infinitelyManyA0();
+		final INestedWordAutomaton<String, String> snd = finitelyManyA1();
+		final BuchiIsIncludedNCSBAntichain<String, String> inclusion =
+				new BuchiIsIncludedNCSBAntichain<>(mServices, mFactory, fst, snd);
+		assertFalse(inclusion.getResult());
+		final NestedLassoRun<String, String> counterexample = inclusion.getCounterexample();
+		assertNotNull(counterexample);
+		assertTrue(new BuchiAccepts<>(mServices, fst, counterexample.getNestedLassoWord()).getResult());
+		assertFalse(new BuchiAccepts<>(mServices, snd, counterexample.getNestedLassoWord()).getResult());
+		assertTrue(inclusion.checkResult(mFactory));
+	}
+
+	@Test
+	public void sameResultAsBuchiIsIncluded() throws AutomataLibraryException {
+		int included = 0;
+		for (int seed = 0; seed < SEEDS; seed++) {
+			final INestedWordAutomaton<String, String> fst =
+					new GetRandomNwa(mServices, 2, 6, 0.3, 0, 0, 0.3, seed).getResult();
+			for (final INestedWordAutomaton<String, String> snd : List.of(infinitelyManyA0(), finitelyManyA1())) {
+				final BuchiIsIncludedNCSBAntichain<String, String> inclusion =
+						new BuchiIsIncludedNCSBAntichain<>(mServices, mFactory, fst, snd);
+				assertEquals("seed " + seed, new BuchiIsIncluded<>(mServices, mFactory, fst, snd).getResult(),
+						inclusion.getResult());
+				assertTrue("seed " + seed, inclusion.checkResult(mFactory));
+				if (inclusion.getResult()) {
+					included++;
+				}
+			}
+		}
+		// both outcomes occur
+		assertTrue(included > 0 && included < 2 * SEEDS);
+	}
+}
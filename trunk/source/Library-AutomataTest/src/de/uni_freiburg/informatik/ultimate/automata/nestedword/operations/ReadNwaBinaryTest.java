@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomatonDefinitionPrinter;
+import de.uni_freiburg.informatik.ultimate.automata.AutomatonDefinitionPrinter.Format;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.VpAlphabet;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.visualization.NwaBinaryWriter;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.netdatastructures.BoundedPetriNet;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Writes nested word automata with {@link NwaBinaryWriter} and reads them back with {@link ReadNwaBinary}.
+ * Automata that are not nested word automata and automata whose states cannot be told apart by their names are not
+ * written.
+ */
+public class ReadNwaBinaryTest {
+
+	private AutomataLibraryServices mServices;
+
+	@Before
+	public void setUp() {
+		mServices = new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+	}
+
+	@Test
+	public void testNestedWordAutomaton() throws IOException, AutomataLibraryException {
+		final NestedWordAutomaton<String, String> nwa = new NestedWordAutomaton<>(mServices,
+				new VpAlphabet<>(Set.of("a", "b"), Set.of("c"), Set.of("r")), new StringFactory());
+		nwa.addState(true, false, "q0");
+		nwa.addState(false, false, "q1");
+		nwa.addState(false, true, "q\u00e4 with space");
+		nwa.addInternalTransition("q0", "a", "q0");
+		nwa.addInternalTransition("q0", "b", "q1");
+		nwa.addCallTransition("q1", "c", "q0");
+		nwa.addReturnTransition("q0", "q1", "r", "q\u00e4 with space");
+		assertRoundTrip(nwa);
+	}
+
+	@Test
+	public void testLargeFiniteAutomaton() throws IOException, AutomataLibraryException {
+		final INestedWordAutomaton<String, String> nwa =
+				new GetRandomNwa(mServices, 20, 500, 0.1, 0, 0, 0.2, 42).getResult();
+		assertRoundTrip(nwa);
+	}
+
+	@Test
+	public void testLongName() throws IOException, AutomataLibraryException {
+		// longer than the buffer of the writer
+		final String name = "q".repeat(100_000);
+		final NestedWordAutomaton<String, String> nwa = new NestedWordAutomaton<>(mServices,
+				new VpAlphabet<>(Set.of("a"), Set.of(), Set.of()), new StringFactory());
+		nwa.addState(true, false, "q0");
+		nwa.addState(false, true, name);
+		nwa.addInternalTransition("q0", "a", name);
+		nwa.addInternalTransition(name, "a", "q0");
+		assertRoundTrip(nwa);
+	}
+
+	@Test
+	public void testStatesWithSameNameAreRefused() throws IOException {
+		final NestedWordAutomaton<String, Named> nwa = new NestedWordAutomaton<>(mServices,
+				new VpAlphabet<>(Set.of("a"), Set.of(), Set.of()), () -> new Named("empty"));
+		final Named first = new Named("q");
+		final Named second = new Named("q");
+		nwa.addState(true, false, first);
+		nwa.addState(false, true, second);
+		nwa.addInternalTransition(first, "a", second);
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try {
+			new NwaBinaryWriter<>(output, nwa);
+			fail("the reader would merge the two states");
+		} catch (final IllegalArgumentException e) {
+			assertEquals(0, output.size());
+		}
+	}
+
+	@Test
+	public void testPetriNetIsSkipped() {
+		final String fileName = new File(System.getProperty("java.io.tmpdir"), "petriNet").getPath();
+		final File file = new File(fileName + '.' + Format.NWA_BINARY.getFileEnding());
+		file.delete();
+		new AutomatonDefinitionPrinter<>(mServices, "net", fileName, Format.NWA_BINARY, "",
+				new BoundedPetriNet<String, String>(mServices, Set.of("a"), true));
+		assertFalse(file.exists());
+	}
+
+	private void assertRoundTrip(final INestedWordAutomaton<String, String> nwa)
+			throws IOException, AutomataLibraryException {
+		final File file = File.createTempFile("automaton", '.' + NwaBinaryWriter.FILE_ENDING);
+		try {
+			try (FileOutputStream output = new FileOutputStream(file)) {
+				new NwaBinaryWriter<>(output, nwa);
+			}
+			final INestedWordAutomaton<String, String> read =
+					new ReadNwaBinary(mServices, file.getPath()).getResult();
+			assertEquals(nwa.getVpAlphabet().getInternalAlphabet(), read.getVpAlphabet().getInternalAlphabet());
+			assertEquals(nwa.getVpAlphabet().getCallAlphabet(), read.getVpAlphabet().getCallAlphabet());
+			assertEquals(nwa.getVpAlphabet().getReturnAlphabet(), read.getVpAlphabet().getReturnAlphabet());
+			assertEquals(nwa.getStates(), read.getStates());
+			assertEquals(nwa.getInitialStates(), read.getInitialStates());
+			assertEquals(nwa.getFinalStates(), read.getFinalStates());
+			for (final String state : nwa.getStates()) {
+				assertEquals(transitions(nwa, state), transitions(read, state));
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Object whose equality is identity, so that distinct instances can have the same {@link #toString()}.
+	 */
+	private static final class Named {
+		private final String mName;
+
+		private Named(final String name) {
+			mName = name;
+		}
+
+		@Override
+		public String toString() {
+			return mName;
+		}
+	}
+
+	private static Set<String> transitions(final INestedWordAutomaton<String, String> nwa, final String state) {
+		final Set<String> result = new HashSet<>();
+		nwa.internalSuccessors(state).forEach(t -> result.add("internal " + t));
+		nwa.callSuccessors(state).forEach(t -> result.add("call " + t));
+		nwa.returnSuccessors(state).forEach(t -> result.add("return " + t));
+		return result;
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.GetRandomDfa;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.GetRandomNwa;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.automata.util.PartitionBackedSetOfPairs;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Minimizes sample automata with {@link MinimizeNwaBisimulationIncremental} from scratch and seeded with a previous
+ * partition, and checks that both give the same quotient.
+ */
+public class MinimizeNwaBisimulationIncrementalTest {
+
+	private AutomataLibraryServices mServices;
+	private StringFactory mFactory;
+
+	@Before
+	public void setUp() {
+		mServices = new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+		mFactory = new StringFactory();
+	}
+
+	@Test
+	public void testRandomDfas() throws AutomataLibraryException {
+		for (long seed = 0; seed < 10; ++seed) {
+			assertSameQuotient(new GetRandomDfa(mServices, 60, 3, 10, 80, seed, true, true, true).getResult(), seed);
+		}
+	}
+
+	@Test
+	public void testRandomNwas() throws AutomataLibraryException {
+		for (long seed = 0; seed < 10; ++seed) {
+			assertSameQuotient(new GetRandomNwa(mServices, 2, 40, 0.05, 0.02, 0.02, 0.3, seed).getResult(), seed);
+		}
+	}
+
+	/**
+	 * Like in a CEGAR loop, the previous abstraction is minimized, the operand has two copies of each of its states,
+	 * and the previous partition consists of the copies of each state. The refinement is also seeded with a partition
+	 * in which random pairs of blocks of the result from scratch are merged.
+	 */
+	private void assertSameQuotient(final INestedWordAutomaton<String, String> sample, final long seed)
+			throws AutomataLibraryException {
+		final INestedWordAutomaton<String, String> nwa =
+				new MinimizeNwaBisimulationIncremental<>(mServices, mFactory, sample).getResult();
+		final INestedWordAutomaton<String, String> operand = duplicate(nwa);
+		final MinimizeNwaBisimulationIncremental<String, String> scratch =
+				new MinimizeNwaBisimulationIncremental<>(mServices, mFactory, operand, null, null, true);
+		final Collection<Set<String>> quotient = toPartition(operand, scratch.getOldState2newState());
+
+		final Collection<Set<String>> copies = new ArrayList<>();
+		for (final String state : nwa.getStates()) {
+			copies.add(Set.of(copy(state, 0), copy(state, 1)));
+		}
+		final MinimizeNwaBisimulationIncremental<String, String> seeded = new MinimizeNwaBisimulationIncremental<>(
+				mServices, mFactory, operand, null, new PartitionBackedSetOfPairs<>(copies), true);
+		assertEquals(quotient, toPartition(operand, seeded.getOldState2newState()));
+		assertEquals(scratch.getResult().size(), seeded.getResult().size());
+
+		final MinimizeNwaBisimulationIncremental<String, String> coarser =
+				new MinimizeNwaBisimulationIncremental<>(mServices, mFactory, operand, null,
+						new PartitionBackedSetOfPairs<>(mergeRandomBlocks(quotient, seed)), true);
+		assertEquals(quotient, toPartition(operand, coarser.getOldState2newState()));
+	}
+
+	/**
+	 * @return automaton with the states (q, 0) and (q, 1) for each state q that alternates between the copies
+	 */
+	private INestedWordAutomaton<String, String> duplicate(final INestedWordAutomaton<String, String> nwa) {
+		final NestedWordAutomaton<String, String> result =
+				new NestedWordAutomaton<>(mServices, nwa.getVpAlphabet(), mFactory);
+		for (final String state : nwa.getStates()) {
+			result.addState(nwa.isInitial(state), nwa.isFinal(state), copy(state, 0));
+			result.addState(false, nwa.isFinal(state), copy(state, 1));
+		}
+		for (final String state : nwa.getStates()) {
+			for (int i = 0; i < 2; ++i) {
+				final String source = copy(state, i);
+				final int next = 1 - i;
+				nwa.internalSuccessors(state).forEach(
+						t -> result.addInternalTransition(source, t.getLetter(), copy(t.getSucc(), next)));
+				nwa.callSuccessors(state)
+						.forEach(t -> result.addCallTransition(source, t.getLetter(), copy(t.getSucc(), next)));
+				for (final OutgoingReturnTransition<String, String> t : nwa.returnSuccessors(state)) {
+					for (int j = 0; j < 2; ++j) {
+						result.addReturnTransition(source, copy(t.getHierPred(), j), t.getLetter(),
+								copy(t.getSucc(), next));
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	private static String copy(final String state, final int index) {
+		return "(" + state + ", " + index + ")";
+	}
+
+	private static Collection<Set<String>> mergeRandomBlocks(final Collection<Set<String>> partition,
+			final long seed) {
+		final List<Set<String>> blocks = new ArrayList<>(partition);
+		final Random random = new Random(seed);
+		final List<Set<String>> result = new ArrayList<>();
+		while (!blocks.isEmpty()) {
+			final Set<String> block = new HashSet<>(blocks.remove(random.nextInt(blocks.size())));
+			if (!blocks.isEmpty()) {
+				block.addAll(blocks.remove(random.nextInt(blocks.size())));
+			}
+			result.add(block);
+		}
+		return result;
+	}
+
+	private static Collection<Set<String>> toPartition(final INestedWordAutomaton<String, String> operand,
+			final Map<String, String> oldState2newState) {
+		final Map<String, Set<String>> blocks = new HashMap<>();
+		for (final String state : operand.getStates()) {
+			blocks.computeIfAbsent(oldState2newState.get(state), x -> new HashSet<>()).add(state);
+		}
+		return new HashSet<>(blocks.values());
+	}
+}
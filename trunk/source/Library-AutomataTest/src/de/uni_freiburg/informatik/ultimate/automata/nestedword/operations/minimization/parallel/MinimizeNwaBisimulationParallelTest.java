@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.parallel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.VpAlphabet;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.GetRandomDfa;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.GetRandomNwa;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.IsEquivalent;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.RemoveUnreachable;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.ShrinkNwa;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Minimizes sample automata with {@link MinimizeNwaBisimulationParallel} and {@link ShrinkNwa} and checks that both
+ * results have the same number of states and the language of the operand.
+ */
+public class MinimizeNwaBisimulationParallelTest {
+
+	private static final int THREADS = 4;
+
+	private AutomataLibraryServices mServices;
+	private StringFactory mFactory;
+
+	@Before
+	public void setUp() {
+		mServices = new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+		mFactory = new StringFactory();
+	}
+
+	@Test
+	public void testNestedWordAutomaton() throws AutomataLibraryException {
+		final NestedWordAutomaton<String, String> nwa = createNwa();
+		// q1 and q2 as well as p1 and p2 behave the same
+		nwa.addInternalTransition("p1", "a", "p3");
+		nwa.addInternalTransition("p2", "a", "p3");
+		nwa.addReturnTransition("p3", "q1", "r", "qf");
+		nwa.addReturnTransition("p3", "q2", "r", "qf");
+		assertEquals(5, assertSameAsShrinkNwa(nwa));
+	}
+
+	@Test
+	public void testDownStatesAreIgnored() throws AutomataLibraryException {
+		final NestedWordAutomaton<String, String> nwa = createNwa();
+		// ShrinkNwa merges p1 and p2 because each of them only returns to the state that called it
+		nwa.addInternalTransition("p1", "a", "p3");
+		nwa.addInternalTransition("p2", "a", "p3");
+		nwa.addReturnTransition("p1", "q1", "r", "qf");
+		nwa.addReturnTransition("p2", "q2", "r", "qf");
+		final INestedWordAutomaton<String, String> operand = new RemoveUnreachable<>(mServices, nwa).getResult();
+		final INestedWordAutomaton<String, String> parallel =
+				new MinimizeNwaBisimulationParallel<>(mServices, mFactory, operand, null, false, THREADS).getResult();
+		assertEquals(5, new ShrinkNwa<>(mServices, mFactory, operand).getResult().size());
+		assertEquals(7, parallel.size());
+		assertTrue(new IsEquivalent<>(mServices, mFactory, operand, parallel).getResult());
+	}
+
+	@Test
+	public void testRandomDfas() throws AutomataLibraryException {
+		for (long seed = 0; seed < 10; ++seed) {
+			assertSameAsShrinkNwa(new GetRandomDfa(mServices, 60, 3, 10, 80, seed, true, true, true).getResult());
+		}
+	}
+
+	@Test
+	public void testRandomNfas() throws AutomataLibraryException {
+		for (long seed = 0; seed < 10; ++seed) {
+			assertSameAsShrinkNwa(new GetRandomNwa(mServices, 2, 30, 0.1, 0, 0, 0.2, seed).getResult());
+		}
+	}
+
+	private NestedWordAutomaton<String, String> createNwa() {
+		final NestedWordAutomaton<String, String> nwa = new NestedWordAutomaton<>(mServices,
+				new VpAlphabet<>(Set.of("a", "b"), Set.of("c"), Set.of("r")), mFactory);
+		nwa.addState(true, false, "q0");
+		nwa.addState(false, false, "q1");
+		nwa.addState(false, false, "q2");
+		nwa.addState(false, false, "p1");
+		nwa.addState(false, false, "p2");
+		nwa.addState(false, false, "p3");
+		nwa.addState(false, true, "qf");
+		nwa.addInternalTransition("q0", "a", "q1");
+		nwa.addInternalTransition("q0", "b", "q2");
+		nwa.addCallTransition("q1", "c", "p1");
+		nwa.addCallTransition("q2", "c", "p2");
+		return nwa;
+	}
+
+	private int assertSameAsShrinkNwa(final INestedWordAutomaton<String, String> operand)
+			throws AutomataLibraryException {
+		// ShrinkNwa needs the down states of automata with calls and returns
+		final INestedWordAutomaton<String, String> nwa = new RemoveUnreachable<>(mServices, operand).getResult();
+		final INestedWordAutomaton<String, String> parallel =
+				new MinimizeNwaBisimulationParallel<>(mServices, mFactory, nwa, null, false, THREADS).getResult();
+		final INestedWordAutomaton<String, String> shrink = new ShrinkNwa<>(mServices, mFactory, nwa).getResult();
+		assertEquals(shrink.size(), parallel.size());
+		assertTrue(new IsEquivalent<>(mServices, mFactory, nwa, parallel).getResult());
+		return parallel.size();
+	}
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.petrinet.unfolding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.netdatastructures.BoundedPetriNet;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.unfolding.PetriNetUnfolder.EventOrderEnum;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.ImmutableSet;
+
+/**
+ * Unfolds a suite of Petri nets with one and with several threads and checks that the finite prefixes are identical,
+ * i.e., that the events are created in the same order, from the same conditions, and with the same cut-off events and
+ * companions. The nets are the examples generated by the scripts in examples/Automata/PetriNet and random products of
+ * state machines.
+ */
+public class PetriNetUnfolderThreadsTest {
+
+	private static final int THREADS = 4;
+	private static final int RANDOM_NETS = 40;
+
+	private AutomataLibraryServices mServices;
+
+	@Before
+	public void setUp() {
+		mServices = new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+	}
+
+	@Test
+	public void slottedRingProtocol() throws AutomataLibraryException {
+		for (int nodes = 2; nodes <= 4; nodes++) {
+			assertSameUnfolding(slottedRingProtocol(nodes));
+		}
+	}
+
+	@Test
+	public void cyclicScheduler() throws AutomataLibraryException {
+		for (int processes = 2; processes <= 6; processes++) {
+			assertSameUnfolding(cyclicScheduler(processes));
+		}
+	}
+
+	@Test
+	public void flower() throws AutomataLibraryException {
+		assertSameUnfolding(flower(5, 8));
+	}
+
+	@Test
+	public void randomProductsOfStateMachines() throws AutomataLibraryException {
+		final Random random = new Random(42);
+		for (int i = 0; i < RANDOM_NETS; i++) {
+			assertSameUnfolding(randomProductOfStateMachines(random, 2 + random.nextInt(3), 2 + random.nextInt(3),
+					4 + random.nextInt(8)));
+		}
+	}
+
+	private void assertSameUnfolding(final BoundedPetriNet<String, String> net) throws AutomataLibraryException {
+		for (final EventOrderEnum order : EventOrderEnum.values()) {
+			for (final boolean sameTransitionCutOff : new boolean[] { false, true }) {
+				final BranchingProcess<String, String> sequential =
+						new PetriNetUnfolder<>(mServices, net, order, sameTransitionCutOff, false, 1)
+								.getFinitePrefix();
+				final BranchingProcess<String, String> concurrent =
+						new PetriNetUnfolder<>(mServices, net, order, sameTransitionCutOff, false, THREADS)
+								.getFinitePrefix();
+				final String message = order + ", sameTransitionCutOff " + sameTransitionCutOff;
+				Assert.assertEquals(message, describeEvents(sequential), describeEvents(concurrent));
+				Assert.assertEquals(message, describeConditions(sequential), describeConditions(concurrent));
+			}
+		}
+	}
+
+	private static List<String> describeEvents(final BranchingProcess<String, String> bp) {
+		return bp.getEvents().stream().sorted((e1, e2) -> Integer.compare(e1.getSerialNumber(), e2.getSerialNumber()))
+				.map(PetriNetUnfolderThreadsTest::describe).collect(Collectors.toList());
+	}
+
+	private static String describe(final Event<String, String> event) {
+		// the dummy root event has no transition
+		final String result = event.getSerialNumber() + ":" + event.getTransition() + " pre "
+				+ sortedStrings(event.getPredecessorConditions()) + " post "
+				+ sortedStrings(event.getSuccessorConditions());
+		if (event.isCutoffEvent()) {
+			return result + " cut-off with companion " + event.getCompanion().getSerialNumber();
+		}
+		return result;
+	}
+
+	private static List<String> describeConditions(final BranchingProcess<String, String> bp) {
+		return sortedStrings(bp.getConditions().stream()
+				.map(c -> c + " from " + c.getPredecessorEvent().getSerialNumber()).collect(Collectors.toList()));
+	}
+
+	private static List<String> sortedStrings(final Iterable<?> objects) {
+		final List<String> result = new ArrayList<>();
+		objects.forEach(o -> result.add(o.toString()));
+		Collections.sort(result);
+		return result;
+	}
+
+	private BoundedPetriNet<String, String> createNet(final String... letters) {
+		return new BoundedPetriNet<>(mServices, new HashSet<>(Arrays.asList(letters)), true);
+	}
+
+	private static void addTransition(final BoundedPetriNet<String, String> net, final String letter,
+			final List<String> preds, final List<String> succs) {
+		net.addTransition(letter, ImmutableSet.copyOf(preds), ImmutableSet.copyOf(succs));
+	}
+
+	/**
+	 * Same net as generateSlottedRingProtocol.sh.
+	 */
+	private BoundedPetriNet<String, String> slottedRingProtocol(final int nodes) {
+		final BoundedPetriNet<String, String> net = createNet("a");
+		for (int i = 1; i <= nodes; i++) {
+			for (int p = 1; p <= 10; p++) {
+				net.addPlace(i + "_" + p, p == 2 || p == 6, false);
+			}
+		}
+		for (int i = 1; i <= nodes; i++) {
+			final int next = i % nodes + 1;
+			final int prev = (i + nodes - 2) % nodes + 1;
+			addTransition(net, "a", List.of(i + "_1", i + "_4"), List.of(i + "_2", i + "_3"));
+			addTransition(net, "a", List.of(i + "_2", i + "_6"), List.of(i + "_5", next + "_8"));
+			addTransition(net, "a", List.of(i + "_3"), List.of(prev + "_6"));
+			addTransition(net, "a", List.of(i + "_5"), List.of(i + "_4"));
+			addTransition(net, "a", List.of(i + "_7"), List.of(i + "_9"));
+			addTransition(net, "a", List.of(i + "_7"), List.of(i + "_8"));
+			addTransition(net, "a", List.of(i + "_8"), List.of(i + "_1"));
+			addTransition(net, "a", List.of(i + "_8"), List.of(i + "_9"));
+			addTransition(net, "a", List.of(i + "_4", i + "_9"), List.of(i + "_3", i + "_10"));
+			addTransition(net, "a", List.of(i + "_6", i + "_10"), List.of(i + "_5", next + "_7"));
+		}
+		return net;
+	}
+
+	/**
+	 * Same net as generateCyclicScheduler.sh.
+	 */
+	private BoundedPetriNet<String, String> cyclicScheduler(final int processes) {
+		final BoundedPetriNet<String, String> net = createNet("start", "finish");
+		for (int i = 1; i <= processes; i++) {
+			net.addPlace("s" + i, i == 1, false);
+			net.addPlace("p" + i, true, false);
+			net.addPlace("q" + i, false, true);
+		}
+		for (int i = 1; i <= processes; i++) {
+			final int next = i % processes + 1;
+			addTransition(net, "start", List.of("s" + i, "p" + i), List.of("s" + next, "q" + i));
+			addTransition(net, "finish", List.of("q" + i), List.of("p" + i));
+		}
+		return net;
+	}
+
+	/**
+	 * Same net as generateFlower.sh.
+	 */
+	private BoundedPetriNet<String, String> flower(final int stalk, final int petals) {
+		final BoundedPetriNet<String, String> net = createNet("s", "p");
+		for (int i = 0; i <= stalk; i++) {
+			net.addPlace("s" + i, i == 0, i == stalk);
+		}
+		for (int i = 0; i < stalk; i++) {
+			addTransition(net, "s", List.of("s" + i), List.of("s" + (i + 1)));
+		}
+		for (int i = 0; i < petals; i++) {
+			addTransition(net, "p", List.of("s" + stalk), List.of("s" + stalk));
+		}
+		return net;
+	}
+
+	/**
+	 * A net whose places are the states of several state machines with exactly one token each; every transition
+	 * synchronizes one or two of the machines. Such nets are 1-safe.
+	 */
+	private BoundedPetriNet<String, String> randomProductOfStateMachines(final Random random, final int machines,
+			final int states, final int transitions) {
+		final BoundedPetriNet<String, String> net = createNet("a", "b");
+		for (int m = 0; m < machines; m++) {
+			for (int s = 0; s < states; s++) {
+				net.addPlace("m" + m + "s" + s, s == 0, s == states - 1);
+			}
+		}
+		for (int t = 0; t < transitions; t++) {
+			final Set<Integer> participants = new HashSet<>();
+			final int number = 1 + random.nextInt(Math.min(2, machines));
+			while (participants.size() < number) {
+				participants.add(random.nextInt(machines));
+			}
+			final List<String> preds = new ArrayList<>();
+			final List<String> succs = new ArrayList<>();
+			for (final int m : participants) {
+				preds.add("m" + m + "s" + random.nextInt(states));
+				succs.add("m" + m + "s" + random.nextInt(states));
+			}
+			addTransition(net, random.nextBoolean() ? "a" : "b", preds, succs);
+		}
+		return net;
+	}
+}
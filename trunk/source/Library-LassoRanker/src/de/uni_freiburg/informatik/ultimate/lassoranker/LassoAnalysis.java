@@ -32,6 +32,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -159,6 +160,8 @@ public class LassoAnalysis {
 
 	/**
 	 * Benchmark data from last nontermination analysis.
+	 *
+	 * Both lists are synchronized because the analyses may run concurrently to each other (and to the reader).
 	 */
 	private final List<NonterminationAnalysisBenchmark> mLassoNonterminationAnalysisBenchmarks;
 
@@ -216,9 +219,9 @@ public class LassoAnalysis {
 		mCfgSmtToolkit = csToolkit;
 		mSymbolTable = csToolkit.getSymbolTable();
 
-		mLassoTerminationAnalysisBenchmarks = new ArrayList<>();
+		mLassoTerminationAnalysisBenchmarks = Collections.synchronizedList(new ArrayList<>());
 
-		mLassoNonterminationAnalysisBenchmarks = new ArrayList<>();
+		mLassoNonterminationAnalysisBenchmarks = Collections.synchronizedList(new ArrayList<>());
 
 		mStemTransition = stemTransition;
 		mLoopTransition = loopTransition;
@@ -486,6 +489,20 @@ public class LassoAnalysis {
 	 */
 	public TerminationArgument tryTemplate(final RankingTemplate template, final TerminationAnalysisSettings settings)
 			throws SMTLIBException, TermException, IOException {
+		return tryTemplate(template, settings, true);
+	}
+
+	/**
+	 * Like {@link #tryTemplate(RankingTemplate, TerminationAnalysisSettings)}, but does not use the solver of the
+	 * {@link CfgSmtToolkit}. Hence different templates can be tried concurrently, each synthesizer uses its own solver.
+	 */
+	public TerminationArgument tryTemplateConcurrently(final RankingTemplate template,
+			final TerminationAnalysisSettings settings) throws SMTLIBException, TermException, IOException {
+		return tryTemplate(template, settings, false);
+	}
+
+	private TerminationArgument tryTemplate(final RankingTemplate template, final TerminationAnalysisSettings settings,
+			final boolean useCfgScript) throws SMTLIBException, TermException, IOException {
 		// ignore stem
 		mLogger.info("Using template '" + template.getName() + "'.");
 		if (mLogger.isDebugEnabled()) {
@@ -513,7 +530,7 @@ public class LassoAnalysis {
 				mLogger.info("Proved termination.");
 				final TerminationArgument ta = tas.getArgument();
 				mLogger.info(ta);
-				if (mLogger.isDebugEnabled()) {
+				if (useCfgScript && mLogger.isDebugEnabled()) {
 					final Term[] lexTerm = ta.getRankingFunction().asLexTerm(mMgdScript.getScript());
 					for (final Term t : lexTerm) {
 						mLogger.debug(new DebugMessage("{0}", new SMTPrettyPrinter(t)));
@@ -122,6 +122,10 @@ public class TerminationAnalysisBenchmark
 		return mMotzkinApplications;
 	}
 	
+	public long getTime() {
+		return mTime;
+	}
+	
 	@Override
 	public String toString() {
 		final StringBuilder sb = new StringBuilder();
@@ -124,7 +124,10 @@ public class RefinementEngineStatisticsGenerator implements IStatisticsDataProvi
 		ACCELERATED_INTERPOLATION(StatisticsData.class, StatisticsType.STATISTICS_DATA_AGGREGATION,
 				StatisticsType.KEY_BEFORE_DATA),
 
-		SIFA(StatisticsData.class, StatisticsType.STATISTICS_DATA_AGGREGATION, StatisticsType.KEY_BEFORE_DATA);
+		SIFA(StatisticsData.class, StatisticsType.STATISTICS_DATA_AGGREGATION, StatisticsType.KEY_BEFORE_DATA),
+
+		SOLVER_POOL(StatisticsData.class, StatisticsType.STATISTICS_DATA_AGGREGATION,
+				StatisticsType.KEY_BEFORE_DATA);
 
 		private final Class<?> mClazz;
 		private final Function<Object, Function<Object, Object>> mAggr;
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE ModelCheckerUtilsTest Library.
+ *
+ * The ULTIMATE ModelCheckerUtilsTest Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE ModelCheckerUtilsTest Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE ModelCheckerUtilsTest Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE ModelCheckerUtilsTest Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE ModelCheckerUtilsTest Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.solverbuilder.SatisfiabilityCache;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.solverbuilder.SatisfiabilityCachingScript;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.solverbuilder.SolverBuilder;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.solverbuilder.SolverBuilder.SolverMode;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.solverbuilder.SolverBuilder.SolverSettings;
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
+import de.uni_freiburg.informatik.ultimate.logic.WrapperScript;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.SMTInterpol;
+import de.uni_freiburg.informatik.ultimate.smtsolver.external.SmtInterpolLogProxyWrapper;
+import de.uni_freiburg.informatik.ultimate.smtsolver.external.TermParseUtils;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Checks that a {@link SatisfiabilityCachingScript} reuses results of checks that differ only in names and in the
+ * order of commutative arguments, and that it does not reuse results of other checks.
+ */
+public class SatisfiabilityCacheTest {
+
+	private ILogger mLogger;
+	private SatisfiabilityCache mCache;
+
+	@Before
+	public void setUp() {
+		final IUltimateServiceProvider services = UltimateMocks.createUltimateServiceProviderMock();
+		mLogger = services.getLoggingService().getLogger("SatisfiabilityCacheTest");
+		mCache = new SatisfiabilityCache(mLogger, SatisfiabilityCache.DEFAULT_MAX_CHARACTERS);
+	}
+
+	private Script createScript(final String... intConstants) {
+		return createScript(new SMTInterpol(new SmtInterpolLogProxyWrapper(mLogger)), intConstants);
+	}
+
+	private Script createScript(final Script solver, final String... intConstants) {
+		solver.setOption(":produce-models", true);
+		final Script script = new SatisfiabilityCachingScript(solver, mCache);
+		script.setLogic("QF_LIA");
+		final Sort intSort = script.sort("Int");
+		for (final String name : intConstants) {
+			script.declareFun(name, new Sort[0], intSort);
+		}
+		return script;
+	}
+
+	private static LBool check(final Script script, final String... assertions) {
+		script.push(1);
+		for (final String assertion : assertions) {
+			script.assertTerm(TermParseUtils.parseTerm(script, assertion));
+		}
+		return script.checkSat();
+	}
+
+	private int getHits() {
+		return getCounter("Hits");
+	}
+
+	private int getCounter(final String key) {
+		return (int) mCache.getStatistics().getValue(key);
+	}
+
+	@Test
+	public void renamedAndCommutedFormula() {
+		final Script first = createScript("x", "y");
+		Assert.assertEquals(LBool.UNSAT, check(first, "(< x y)", "(= x (+ y 1))"));
+		Assert.assertEquals(0, getHits());
+
+		final Script second = createScript("b", "a");
+		Assert.assertEquals(LBool.UNSAT, check(second, "(= (+ 1 b) a)", "(< a b)"));
+		Assert.assertEquals(1, getHits());
+	}
+
+	@Test
+	public void differentFormula() {
+		final Script first = createScript("x", "y");
+		Assert.assertEquals(LBool.UNSAT, check(first, "(< x y)", "(= x (+ y 1))"));
+
+		final Script second = createScript("x", "y");
+		Assert.assertEquals(LBool.SAT, check(second, "(< x y)", "(= x (- y 1))"));
+		Assert.assertEquals(0, getHits());
+	}
+
+	@Test
+	public void modelAfterHit() {
+		final Script first = createScript("x", "y");
+		Assert.assertEquals(LBool.SAT, check(first, "(< x y)"));
+
+		final Script second = createScript("u", "v");
+		Assert.assertEquals(LBool.SAT, check(second, "(< u v)"));
+		Assert.assertEquals(1, getHits());
+		final Term u = TermParseUtils.parseTerm(second, "u");
+		final Term v = TermParseUtils.parseTerm(second, "v");
+		final Term lessThan = second.term("<", second.getModel().evaluate(u), second.getModel().evaluate(v));
+		Assert.assertEquals(second.term("true"), second.getModel().evaluate(lessThan));
+	}
+
+	@Test
+	public void cacheIsASetting() {
+		final SolverSettings settings = SolverBuilder.constructSolverSettings();
+		Assert.assertFalse(settings.useSatisfiabilityCache());
+		final SolverSettings enabled = settings.setUseSatisfiabilityCache(true);
+		Assert.assertTrue(enabled.useSatisfiabilityCache());
+		Assert.assertTrue(enabled.setSolverMode(SolverMode.Internal_SMTInterpol).useSatisfiabilityCache());
+		Assert.assertFalse(enabled.setUseSatisfiabilityCache(false).useSatisfiabilityCache());
+	}
+
+	@Test
+	public void uncacheableUntilPop() {
+		final Script script = createScript("x", "y");
+		final Term x = TermParseUtils.parseTerm(script, "x");
+		final TermVariable z = script.variable("z", script.sort("Int"));
+		script.push(1);
+		// lets have no canonical form
+		script.assertTerm(script.let(new TermVariable[] { z }, new Term[] { x }, script.term("<", z, x)));
+		Assert.assertEquals(LBool.UNSAT, script.checkSat());
+		Assert.assertEquals(LBool.UNSAT, check(script, "(< x y)"));
+		script.pop(1);
+		Assert.assertEquals(LBool.UNSAT, script.checkSat());
+		Assert.assertEquals(3, getCounter("Uncacheable"));
+		Assert.assertEquals(0, getCounter("Misses"));
+
+		script.pop(1);
+		Assert.assertEquals(LBool.SAT, check(script, "(< x y)"));
+		Assert.assertEquals(3, getCounter("Uncacheable"));
+		Assert.assertEquals(1, getCounter("Misses"));
+	}
+
+	@Test(expected = SMTLIBException.class)
+	public void wrongCachedResult() {
+		final Script wrong = new WrapperScript(new SMTInterpol(new SmtInterpolLogProxyWrapper(mLogger))) {
+			@Override
+			public LBool checkSat() {
+				super.checkSat();
+				return LBool.UNSAT;
+			}
+		};
+		Assert.assertEquals(LBool.UNSAT, check(createScript(wrong, "x", "y"), "(< x y)"));
+
+		final Script second = createScript("u", "v");
+		Assert.assertEquals(LBool.UNSAT, check(second, "(< u v)"));
+		Assert.assertEquals(1, getHits());
+		second.getModel();
+	}
+}
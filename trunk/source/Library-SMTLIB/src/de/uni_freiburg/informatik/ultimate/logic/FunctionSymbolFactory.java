@@ -88,11 +88,10 @@ public abstract class FunctionSymbolFactory {
 		final int hash = Arrays.hashCode(indices)
 			^ Arrays.hashCode(paramSorts)
 			^ (resultSort == null ? 0 : resultSort.hashCode());
+		final Sort[] params = paramSorts;
+		final Sort requestedSort = resultSort;
 		for (final FunctionSymbol func : mInstances.iterateHashCode(hash)) {
-			if (Arrays.equals(func.mIndices, indices)
-				&& Arrays.equals(func.mParamSort, paramSorts)
-				&& (resultSort == null
-						|| func.mReturnSort == resultSort)) {
+			if (isInstance(func, indices, params, requestedSort)) {
 				return func;
 			}
 		}
@@ -122,8 +121,17 @@ public abstract class FunctionSymbolFactory {
 		final FunctionSymbol func = new FunctionSymbol(
 				mFuncName, indices, paramSorts, resultSort,
 					defVars, definition, flags);
-		mInstances.put(hash, func);
-		return func;
+		// another thread may have created the same instance in the meantime
+		return mInstances.unify(hash,
+				other -> isInstance(other, indices, params, requestedSort),
+				() -> func);
+	}
+
+	private static boolean isInstance(FunctionSymbol func, String[] indices,
+			Sort[] paramSorts, Sort resultSort) {
+		return Arrays.equals(func.mIndices, indices)
+			&& Arrays.equals(func.mParamSort, paramSorts)
+			&& (resultSort == null || func.mReturnSort == resultSort);
 	}
 
 	@Override
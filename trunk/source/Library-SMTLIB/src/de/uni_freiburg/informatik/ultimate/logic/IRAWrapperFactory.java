@@ -15,7 +15,21 @@ import de.uni_freiburg.informatik.ultimate.util.datastructures.UnifyHash;
  * @author Jochen Hoenicke
  */
 public class IRAWrapperFactory {
-	final UnifyHash<FunctionSymbol> mInstances = new UnifyHash<>();
+	final UnifyHash<FunctionSymbol> mInstances;
+
+	public IRAWrapperFactory() {
+		this(new UnifyHash<>());
+	}
+
+	/**
+	 * Create a wrapper factory that unifies the wrapper functions in the given hash.
+	 *
+	 * @param instances
+	 *            the (empty) unifier for the created wrapper functions.
+	 */
+	public IRAWrapperFactory(final UnifyHash<FunctionSymbol> instances) {
+		mInstances = instances;
+	}
 
 	/**
 	 * Create an IRA wrapper function for name for the given parameter sorts. This is a new function symbol whose
@@ -104,9 +118,13 @@ public class IRAWrapperFactory {
 		assert definition != null;
 
 		/* Create the function symbol */
-		FunctionSymbol wrapper = new FunctionSymbol(fsym.getName(), fsym.getIndices(), paramSorts, fsym.getReturnSort(),
-				defVars, definition, (fsym.mFlags & ~FunctionSymbol.ASSOCMASK));
-		mInstances.put(hash, wrapper);
-		return wrapper;
+		final FunctionSymbol wrapper = new FunctionSymbol(fsym.getName(), fsym.getIndices(), paramSorts,
+				fsym.getReturnSort(), defVars, definition, (fsym.mFlags & ~FunctionSymbol.ASSOCMASK));
+		final Sort[] params = paramSorts;
+		// another thread may have created the same wrapper in the meantime
+		return mInstances.unify(hash,
+				func -> ((ApplicationTerm) func.getDefinition()).getFunction() == fsym
+						&& Arrays.equals(func.mParamSort, params),
+				() -> wrapper);
 	}
 }
@@ -18,8 +18,22 @@
  */
 package de.uni_freiburg.informatik.ultimate.logic;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Counts how often the sub terms of a term occur in it. The counts are stored in {@link Term#mTmpCtr} and have to be
+ * cleared by {@link #reset(Term)}. Terms of a {@link Theory#isConcurrent() concurrent theory} may be shared with other
+ * threads, so their counts are kept in a map of this counter instead, which {@link #reset(Term)} discards. In both
+ * cases the counts are read with {@link #getCount(Term)}.
+ */
 public class OccurrenceCounter extends NonRecursive {
 
+	/**
+	 * The counts of the current {@link #count(Term)} if the term belongs to a concurrent theory, null otherwise.
+	 */
+	private Map<Term, Integer> mCounts;
+
 	private static class CountWalker extends TermWalker {
 
 		public CountWalker(final Term term) {
@@ -40,7 +54,7 @@ public class OccurrenceCounter extends NonRecursive {
 		@Override
 		public void walk(final NonRecursive walker, final ApplicationTerm term) {
 			final OccurrenceCounter occ = (OccurrenceCounter) walker;
-			if (++term.mTmpCtr == 1) {
+			if (occ.increment(term) == 1) {
 				for (final Term t : term.getParameters()) {
 					occ.enqueueWalker(new CountWalker(t));
 				}
@@ -55,7 +69,7 @@ public class OccurrenceCounter extends NonRecursive {
 		@Override
 		public void walk(final NonRecursive walker, final QuantifiedFormula term) {
 			final OccurrenceCounter occ = (OccurrenceCounter) walker;
-			if (++term.mTmpCtr == 1) {
+			if (occ.increment(term) == 1) {
 				occ.enqueueWalker(new CountWalker(term.getSubformula()));
 			}
 		}
@@ -63,20 +77,20 @@ public class OccurrenceCounter extends NonRecursive {
 		@Override
 		public void walk(final NonRecursive walker, final LambdaTerm term) {
 			final OccurrenceCounter occ = (OccurrenceCounter) walker;
-			if (++term.mTmpCtr == 1) {
+			if (occ.increment(term) == 1) {
 				occ.enqueueWalker(new CountWalker(term.getSubterm()));
 			}
 		}
 
 		@Override
 		public void walk(final NonRecursive walker, final TermVariable term) {
-			++term.mTmpCtr;
+			((OccurrenceCounter) walker).increment(term);
 		}
 
 		@Override
 		public void walk(final NonRecursive walker, final MatchTerm term) {
 			final OccurrenceCounter occ = (OccurrenceCounter) walker;
-			if (++term.mTmpCtr == 1) {
+			if (occ.increment(term) == 1) {
 				occ.enqueueWalker(new CountWalker(term.getDataTerm()));
 				for (final Term t : term.getCases()) {
 					occ.enqueueWalker(new CountWalker(t));
@@ -158,17 +172,44 @@ public class OccurrenceCounter extends NonRecursive {
 
 	/**
 	 * Compute the occurrence counter for the sub terms.  This method does not
-	 * keep any state in this object.  This should prevent memory leaks since
-	 * this object can be kept alive and the garbage collector is still free to
-	 * collect the counter map.
+	 * keep any state in this object unless the term belongs to a concurrent
+	 * theory.  This should prevent memory leaks since this object can be kept
+	 * alive and the garbage collector is still free to collect the counter map.
 	 * @param t The term to count.
 	 */
 	public void count(final Term t) {
+		if (t.getTheory().isConcurrent() && mCounts == null) {
+			mCounts = new IdentityHashMap<>();
+		}
 		run(new CountWalker(t));
 	}
 
 	public void reset(final Term t) {
-		run(new ResetWalker(t));
+		if (mCounts != null) {
+			mCounts = null;
+		} else {
+			run(new ResetWalker(t));
+		}
+	}
+
+	/**
+	 * Get the number of occurrences counted since the last {@link #reset(Term)}.
+	 * @param t A sub term of a counted term.
+	 * @return The number of occurrences of t.
+	 */
+	public int getCount(final Term t) {
+		if (mCounts != null) {
+			final Integer count = mCounts.get(t);
+			return count == null ? 0 : count;
+		}
+		return t.mTmpCtr;
+	}
+
+	private int increment(final Term t) {
+		if (mCounts != null) {
+			return mCounts.merge(t, 1, Integer::sum);
+		}
+		return ++t.mTmpCtr;
 	}
 
 }
@@ -111,7 +111,7 @@ public class SortSymbol {
 			|| ((mFlags & INDEXED) == 0 && mNumParams == 0)) {
 			mSorts = new Sort(this, null, new Sort[0]);
 		} else {
-			mSorts = new UnifyHash<Sort>();
+			mSorts = theory.createUnifyHash();
 		}
 	}
 
@@ -183,15 +183,10 @@ public class SortSymbol {
 		}
 		final UnifyHash<Sort> sortCache = (UnifyHash<Sort>) mSorts;
 		final int hash = Arrays.hashCode(indices) ^ Arrays.hashCode(args);
-		for (final Sort sort : sortCache.iterateHashCode(hash)) {
-			if (Arrays.equals(sort.getArguments(), args)
-				&& Arrays.equals(sort.getIndices(), indices)) {
-				return sort;
-			}
-		}
-		final Sort sort = new Sort(this, indices, args);
-		sortCache.put(hash, sort);
-		return sort;
+		return sortCache.unify(hash,
+				sort -> Arrays.equals(sort.getArguments(), args)
+					&& Arrays.equals(sort.getIndices(), indices),
+				() -> new Sort(this, indices, args));
 	}
 
 	/**
@@ -49,12 +49,19 @@ public abstract class Term {
 
 	/**
 	 * A temporary counter used e.g. to count the number of occurrences of this
-	 * term in a bigger term.
+	 * term in a bigger term.  It is not used for terms of a concurrent theory,
+	 * see {@link OccurrenceCounter}.
 	 * Don't use this!!!!
 	 */
 	public int mTmpCtr;
 
-	TermVariable[] mFreeVars;
+	/**
+	 * The free variables, computed lazily by {@link #getFreeVars()}. Terms of a
+	 * concurrent theory are shared between threads, hence the field is volatile.
+	 * Only complete arrays are assigned, so a thread either sees null and
+	 * computes the same array again or sees the complete array.
+	 */
+	volatile TermVariable[] mFreeVars;
 
 	/**
 	 * Create a term.
@@ -25,8 +25,10 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import de.uni_freiburg.informatik.ultimate.util.HashUtils;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.ConcurrentUnifyHash;
 import de.uni_freiburg.informatik.ultimate.util.datastructures.ScopedHashMap;
 import de.uni_freiburg.informatik.ultimate.util.datastructures.UnifyHash;
 
@@ -41,6 +43,10 @@ import de.uni_freiburg.informatik.ultimate.util.datastructures.UnifyHash;
  * The theory also defines all predefined function symbols required by the logic that was set with setLogic(). It allows
  * creating new function and sort symbols.
  *
+ * A theory that is created in concurrent mode unifies terms, term variables, sorts and function symbols in lock-striped
+ * hash tables, so several threads may build terms at the same time. Declarations, definitions, and push/pop must still
+ * be done by a single thread while no other thread uses the theory.
+ *
  * @author Jochen Hoenicke
  */
 public class Theory {
@@ -94,14 +100,18 @@ public class Theory {
 	private SortSymbol mBitVecSort, mFloatingPointSort;
 	private Sort mRoundingModeSort;
 	private final ScopedHashMap<String, FunctionSymbolFactory> mFunFactory = new ScopedHashMap<>();
-	private final UnifyHash<FunctionSymbol> mModelValueCache = new UnifyHash<>();
+	private final UnifyHash<FunctionSymbol> mModelValueCache;
 
 	private final ScopedHashMap<String, SortSymbol> mDeclaredSorts = new ScopedHashMap<>();
 	private final ScopedHashMap<String, FunctionSymbol> mDeclaredFuns = new ScopedHashMap<>();
 
-	private final UnifyHash<LetTerm> mLetCache = new UnifyHash<>();
-	private final UnifyHash<Term> mTermCache = new UnifyHash<>();
-	private final UnifyHash<TermVariable> mTvUnify = new UnifyHash<>();
+	/**
+	 * True if the unifiers may be used by several threads.
+	 */
+	private final boolean mConcurrent;
+	private final UnifyHash<LetTerm> mLetCache;
+	private final UnifyHash<Term> mTermCache;
+	private final UnifyHash<TermVariable> mTvUnify;
 	/**
 	 * Factory for to_real wrapper function symbol, if IRA logic is used.
 	 */
@@ -124,7 +134,7 @@ public class Theory {
 	private final static String MODEL_VALUE_PATTERN = "@\\d+";
 	private final static String BITVEC_CONST_PATTERN = "bv\\d+";
 
-	private int mTvarCtr = 0;
+	private final AtomicInteger mTvarCtr = new AtomicInteger();
 
 	private int mSkolemCounter = 0;
 	private int mAuxCounter = 0;
@@ -132,6 +142,11 @@ public class Theory {
 	private boolean mGlobalDecls;
 
 	public Theory() {
+		mConcurrent = false;
+		mModelValueCache = createUnifyHash();
+		mLetCache = createUnifyHash();
+		mTermCache = createUnifyHash();
+		mTvUnify = createUnifyHash();
 		mTrue = mFalse = null;
 		mAnd = mOr = mNot = mImplies = mXor = null;
 		mEquals = mDistinct = null;
@@ -151,6 +166,25 @@ public class Theory {
 	 *            The solver-specific setup delegate.
 	 */
 	public Theory(final Logics logic, final SolverSetup solverSetup) {
+		this(logic, solverSetup, false);
+	}
+
+	/**
+	 * Create the term factory.
+	 *
+	 * @param logic
+	 *            The logic to use.
+	 * @param solverSetup
+	 *            The solver-specific setup delegate.
+	 * @param concurrent
+	 *            true if several threads should be able to create terms in this theory at the same time.
+	 */
+	public Theory(final Logics logic, final SolverSetup solverSetup, final boolean concurrent) {
+		mConcurrent = concurrent;
+		mModelValueCache = createUnifyHash();
+		mLetCache = createUnifyHash();
+		mTermCache = createUnifyHash();
+		mTvUnify = createUnifyHash();
 		mSolverSetup = solverSetup;
 		final Sort[] noarg = new Sort[0];
 		mBooleanSort = declareInternalSort("Bool", 0, 0).getSort(null, noarg);
@@ -175,6 +209,20 @@ public class Theory {
 		setLogic(logic);
 	}
 
+	/**
+	 * Check if several threads may create terms in this theory at the same time.
+	 */
+	public boolean isConcurrent() {
+		return mConcurrent;
+	}
+
+	/**
+	 * Create a unifier for objects of this theory that is thread-safe if the theory is concurrent.
+	 */
+	<E> UnifyHash<E> createUnifyHash() {
+		return mConcurrent ? new ConcurrentUnifyHash<>() : new UnifyHash<>();
+	}
+
 	/**
 	 * Method to check if indices is a numeral or symbol. If numeral return as BigInteger, if symbol return null
 	 */
@@ -315,32 +363,24 @@ public class Theory {
 
 	public Term lambda(final TermVariable[] vars, final Term subterm) {
 		final int hash = LambdaTerm.hashLambda(vars, subterm);
-		for (final Term term : mTermCache.iterateHashCode(hash)) {
+		return mTermCache.unify(hash, term -> {
 			if (term instanceof LambdaTerm) {
 				final LambdaTerm lambda = (LambdaTerm) term;
-				if (lambda.getSubterm() == subterm && Arrays.equals(lambda.getVariables(), vars)) {
-					return lambda;
-				}
+				return lambda.getSubterm() == subterm && Arrays.equals(lambda.getVariables(), vars);
 			}
-		}
-		final LambdaTerm lambda = new LambdaTerm(vars, subterm, hash);
-		mTermCache.put(hash, lambda);
-		return lambda;
+			return false;
+		}, () -> new LambdaTerm(vars, subterm, hash));
 	}
 
 	private Term quantify(final int quant, final TermVariable[] vars, final Term f) {
 		final int hash = QuantifiedFormula.hashQuantifier(quant, vars, f);
-		for (final Term term : mTermCache.iterateHashCode(hash)) {
+		return mTermCache.unify(hash, term -> {
 			if (term instanceof QuantifiedFormula) {
 				final QuantifiedFormula qf = (QuantifiedFormula) term;
-				if (qf.getQuantifier() == quant && qf.getSubformula() == f && Arrays.equals(vars, qf.getVariables())) {
-					return qf;
-				}
+				return qf.getQuantifier() == quant && qf.getSubformula() == f && Arrays.equals(vars, qf.getVariables());
 			}
-		}
-		final QuantifiedFormula qf = new QuantifiedFormula(quant, vars, f, hash);
-		mTermCache.put(hash, qf);
-		return qf;
+			return false;
+		}, () -> new QuantifiedFormula(quant, vars, f, hash));
 	}
 
 	public Term exists(final TermVariable[] vars, final Term f) {
@@ -355,19 +395,15 @@ public class Theory {
 			final DataType.Constructor[] constructors) {
 
 		final int hash = MatchTerm.hashMatch(dataArg, vars, cases);
-		for (final Term t : mTermCache.iterateHashCode(hash)) {
+		return mTermCache.unify(hash, t -> {
 			if (t instanceof MatchTerm) {
 				final MatchTerm mt = (MatchTerm) t;
-				if (mt.getDataTerm() == dataArg && Arrays.equals(mt.getCases(), cases)
+				return mt.getDataTerm() == dataArg && Arrays.equals(mt.getCases(), cases)
 						&& Arrays.deepEquals(mt.getVariables(), vars)
-						&& Arrays.equals(mt.getConstructors(), constructors)) {
-					return mt;
-				}
+						&& Arrays.equals(mt.getConstructors(), constructors);
 			}
-		}
-		final MatchTerm mt = new MatchTerm(hash, dataArg, vars, cases, constructors);
-		mTermCache.put(hash, mt);
-		return mt;
+			return false;
+		}, () -> new MatchTerm(hash, dataArg, vars, cases, constructors));
 	}
 
 	public Term let(final TermVariable[] vars, final Term[] values, final Term subform) {
@@ -376,15 +412,10 @@ public class Theory {
 			return subform;
 		}
 		final int hash = LetTerm.hashLet(vars, values, subform);
-		for (final LetTerm lt : mLetCache.iterateHashCode(hash)) {
-			if (lt.getSubTerm() == subform && Arrays.equals(lt.getVariables(), vars)
-					&& Arrays.equals(lt.getValues(), values)) {
-				return lt;
-			}
-		}
-		final LetTerm lf = new LetTerm(vars, values, subform, hash);
-		mLetCache.put(hash, lf);
-		return lf;
+		return mLetCache.unify(hash,
+				lt -> lt.getSubTerm() == subform && Arrays.equals(lt.getVariables(), vars)
+						&& Arrays.equals(lt.getValues(), values),
+				() -> new LetTerm(vars, values, subform, hash));
 	}
 
 	public Term let(final TermVariable var, final Term value, final Term subform) {
@@ -471,17 +502,13 @@ public class Theory {
 			}
 		}
 		final int hash = ConstantTerm.hashConstant(value, sort);
-		for (final Term t : mTermCache.iterateHashCode(hash)) {
+		return mTermCache.unify(hash, t -> {
 			if (t instanceof ConstantTerm) {
 				final ConstantTerm nt = (ConstantTerm) t;
-				if (nt.getSort() == sort && value.equals(nt.getValue())) {
-					return nt;
-				}
+				return nt.getSort() == sort && value.equals(nt.getValue());
 			}
-		}
-		final ConstantTerm nt = new ConstantTerm(value, sort, hash);
-		mTermCache.put(hash, nt);
-		return nt;
+			return false;
+		}, () -> new ConstantTerm(value, sort, hash));
 	}
 
 	public Term numeral(final BigInteger num) {
@@ -685,7 +712,7 @@ public class Theory {
 	}
 
 	private void createIRAOperators() {
-		mIRAWrappers = new IRAWrapperFactory();
+		mIRAWrappers = new IRAWrapperFactory(createUnifyHash());
 		class BinArithFactory extends FunctionSymbolFactory {
 			Sort mReturnSort;
 			int mFlags;
@@ -769,6 +796,7 @@ public class Theory {
 	}
 
 	private void createBitVecSort() {
+		mBitVecConstCache = createUnifyHash();
 		mBitVecSort = new SortSymbol(this, "BitVec", 0, null, SortSymbol.INTERNAL | SortSymbol.INDEXED) {
 			@Override
 			public void checkArity(final String[] indices, final int arity) {
@@ -1438,6 +1466,9 @@ public class Theory {
 	/******************** FUNCTIONS SYMBOLS AND FUNCTION TERMS ************/
 
 	private void defineFunction(final FunctionSymbolFactory factory) {
+		if (mConcurrent) {
+			factory.mInstances = createUnifyHash();
+		}
 		if (mFunFactory.put(factory.mFuncName, factory) != null) {
 			throw new AssertionError();
 		}
@@ -1525,15 +1556,9 @@ public class Theory {
 
 	private FunctionSymbol getModelValueSymbol(final String name, final Sort sort) {
 		final int hash = HashUtils.hashJenkins(name.hashCode(), sort);
-		for (final FunctionSymbol symb : mModelValueCache.iterateHashCode(hash)) {
-			if (symb.getName().equals(name) && symb.getReturnSort() == sort) {
-				return symb;
-			}
-		}
-		final FunctionSymbol symb = new FunctionSymbol(name, null, EMPTY_SORT_ARRAY, sort, null, null,
-				FunctionSymbol.RETURNOVERLOAD | FunctionSymbol.INTERNAL | FunctionSymbol.MODELVALUE);
-		mModelValueCache.put(hash, symb);
-		return symb;
+		return mModelValueCache.unify(hash, symb -> symb.getName().equals(name) && symb.getReturnSort() == sort,
+				() -> new FunctionSymbol(name, null, EMPTY_SORT_ARRAY, sort, null, null,
+						FunctionSymbol.RETURNOVERLOAD | FunctionSymbol.INTERNAL | FunctionSymbol.MODELVALUE));
 	}
 
 	public FunctionSymbol getFunctionWithResult(final String name, final String[] indices, final Sort resultType,
@@ -1568,20 +1593,11 @@ public class Theory {
 	}
 
 	private FunctionSymbol getBitVecConstant(final String name, final String[] indices) {
-		if (mBitVecConstCache == null) {
-			mBitVecConstCache = new UnifyHash<>();
-		}
 		final int hash = HashUtils.hashJenkins(name.hashCode(), (Object[]) indices);
-		for (final FunctionSymbol symb : mBitVecConstCache.iterateHashCode(hash)) {
-			if (symb.getName().equals(name) && symb.getIndices()[0].equals(indices[0])) {
-				return symb;
-			}
-		}
-		final Sort sort = mBitVecSort.getSort(indices);
-		final FunctionSymbol symb =
-				new FunctionSymbol(name, indices, EMPTY_SORT_ARRAY, sort, null, null, FunctionSymbol.INTERNAL);
-		mBitVecConstCache.put(hash, symb);
-		return symb;
+		return mBitVecConstCache.unify(hash,
+				symb -> symb.getName().equals(name) && symb.getIndices()[0].equals(indices[0]),
+				() -> new FunctionSymbol(name, indices, EMPTY_SORT_ARRAY, mBitVecSort.getSort(indices), null, null,
+						FunctionSymbol.INTERNAL));
 	}
 
 	public Term term(final FunctionSymbolFactory factory, final Term... parameters) {
@@ -1670,18 +1686,15 @@ public class Theory {
 		if (parameters.length == 0) {
 			parameters = EMPTY_TERM_ARRAY;
 		}
-		final int hash = ApplicationTerm.hashApplication(func, parameters);
-		for (final Term t : mTermCache.iterateHashCode(hash)) {
+		final Term[] params = parameters;
+		final int hash = ApplicationTerm.hashApplication(func, params);
+		return mTermCache.unify(hash, t -> {
 			if (t instanceof ApplicationTerm) {
 				final ApplicationTerm app = (ApplicationTerm) t;
-				if (func == app.getFunction() && Arrays.equals(app.getParameters(), parameters)) {
-					return app;
-				}
+				return func == app.getFunction() && Arrays.equals(app.getParameters(), params);
 			}
-		}
-		final ApplicationTerm app = new ApplicationTerm(func, parameters, hash);
-		mTermCache.put(hash, app);
-		return app;
+			return false;
+		}, () -> new ApplicationTerm(func, params, hash));
 	}
 
 	/******************** TERM VARIABLES AND VARIABLE TERMS *****************/
@@ -1696,7 +1709,7 @@ public class Theory {
 	 * @return a fresh term variable.
 	 */
 	public TermVariable createFreshTermVariable(final String prefix, final Sort sort) {
-		final String name = "." + prefix + "." + mTvarCtr++;
+		final String name = "." + prefix + "." + mTvarCtr.getAndIncrement();
 		return new TermVariable(name, sort, TermVariable.hashVariable(name, sort));
 	}
 
@@ -1711,14 +1724,8 @@ public class Theory {
 	 */
 	public TermVariable createTermVariable(final String name, final Sort sort) {
 		final int hash = TermVariable.hashVariable(name, sort);
-		for (final TermVariable tv : mTvUnify.iterateHashCode(hash)) {
-			if (tv.getSort().equals(sort) && tv.getName().equals(name)) {
-				return tv;
-			}
-		}
-		final TermVariable tv = new TermVariable(name, sort, hash);
-		mTvUnify.put(hash, tv);
-		return tv;
+		return mTvUnify.unify(hash, tv -> tv.getSort().equals(sort) && tv.getName().equals(name),
+				() -> new TermVariable(name, sort, hash));
 	}
 
 	public DataType.Constructor createConstructor(final String name, final String[] selectors,
@@ -1754,17 +1761,13 @@ public class Theory {
 
 	public Term annotatedTerm(final Annotation[] annots, final Term sub) {
 		final int hash = AnnotatedTerm.hashAnnotations(annots, sub);
-		for (final Term t : mTermCache.iterateHashCode(hash)) {
+		return mTermCache.unify(hash, t -> {
 			if (t instanceof AnnotatedTerm) {
 				final AnnotatedTerm annot = (AnnotatedTerm) t;
-				if (sub == annot.getSubterm() && Arrays.equals(annot.getAnnotations(), annots)) {
-					return annot;
-				}
+				return sub == annot.getSubterm() && Arrays.equals(annot.getAnnotations(), annots);
 			}
-		}
-		final AnnotatedTerm annot = new AnnotatedTerm(annots, sub, hash);
-		mTermCache.put(hash, annot);
-		return annot;
+			return false;
+		}, () -> new AnnotatedTerm(annots, sub, hash));
 	}
 
 	/******************** ASSERTION STACK *********************************/
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of SMTInterpol.
+ *
+ * SMTInterpol is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SMTInterpol is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SMTInterpol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_freiburg.informatik.ultimate.logic;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Builds the same terms from several threads in a concurrent theory and checks that they are unified, and inspects
+ * shared terms from several threads.
+ */
+@RunWith(JUnit4.class)
+public class ConcurrentTheoryTest {
+
+	private static final int THREADS = 4;
+	private static final int TERMS = 200;
+	private static final int SHARED_DEPTH = 40;
+
+	private static Term[] buildTerms(final Theory theory) {
+		final Sort intSort = theory.getSort("Int");
+		final Sort arraySort = theory.getSort("Array", intSort, intSort);
+		final Term a = theory.term("a");
+		final Term[] result = new Term[TERMS];
+		for (int i = 0; i < TERMS; i++) {
+			final Term idx = theory.term("+", theory.term("x"), theory.numeral(BigInteger.valueOf(i)));
+			final Term select = theory.term("select", a, idx);
+			final TermVariable tv = theory.createTermVariable("v" + i, intSort);
+			final Term body = theory.term("<=", select, tv);
+			result[i] = theory.forall(new TermVariable[] { tv }, body);
+			Assert.assertSame(arraySort, a.getSort());
+		}
+		return result;
+	}
+
+	@Test
+	public void testUnification() throws InterruptedException, ExecutionException {
+		final Theory theory = new Theory(Logics.AUFLIA, null, true);
+		Assert.assertTrue(theory.isConcurrent());
+		final Sort intSort = theory.getSort("Int");
+		theory.declareFunction("x", Script.EMPTY_SORT_ARRAY, intSort);
+		theory.declareFunction("a", Script.EMPTY_SORT_ARRAY, theory.getSort("Array", intSort, intSort));
+
+		final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			final List<Future<Term[]>> futures = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				final Callable<Term[]> task = () -> buildTerms(theory);
+				futures.add(executor.submit(task));
+			}
+			final Term[] expected = buildTerms(theory);
+			for (final Future<Term[]> future : futures) {
+				final Term[] terms = future.get();
+				for (int i = 0; i < TERMS; i++) {
+					Assert.assertSame(expected[i], terms[i]);
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Builds terms s_0 = v0 and s_i = (+ s_{i-1} s_{i-1} vi) and returns the formulas (<= s_i x). Printing s_i without
+	 * lets would take exponential time.
+	 */
+	private static Term[] buildSharedFormulas(final Theory theory, final TermVariable[] vars) {
+		final Term[] result = new Term[SHARED_DEPTH];
+		Term sum = vars[0];
+		for (int i = 0; i < SHARED_DEPTH; i++) {
+			if (i > 0) {
+				sum = theory.term("+", sum, sum, vars[i]);
+			}
+			result[i] = theory.term("<=", sum, theory.term("x"));
+		}
+		return result;
+	}
+
+	/**
+	 * Inspects the formulas in the given order and returns for each formula its string, its free variables, and the
+	 * occurrence counts of s_i and, for i > 0, of s_{i-1}.
+	 */
+	private static String[] inspect(final Term[] formulas, final boolean reverse, final CyclicBarrier start)
+			throws Exception {
+		start.await();
+		final String[] result = new String[formulas.length];
+		for (int k = 0; k < formulas.length; k++) {
+			final int i = reverse ? formulas.length - 1 - k : k;
+			final Term sum = ((ApplicationTerm) formulas[i]).getParameters()[0];
+			final OccurrenceCounter counter = new OccurrenceCounter();
+			counter.count(formulas[i]);
+			result[i] = formulas[i].toString() + " " + new HashSet<>(Arrays.asList(formulas[i].getFreeVars())) + " "
+					+ counter.getCount(sum);
+			if (i > 0) {
+				result[i] += " " + counter.getCount(((ApplicationTerm) sum).getParameters()[0]);
+			}
+			counter.reset(formulas[i]);
+			Assert.assertEquals(0, counter.getCount(sum));
+		}
+		return result;
+	}
+
+	@Test
+	public void testSharedTerms() throws InterruptedException, ExecutionException {
+		final Theory theory = new Theory(Logics.QF_LIA, null, true);
+		final Sort intSort = theory.getSort("Int");
+		theory.declareFunction("x", Script.EMPTY_SORT_ARRAY, intSort);
+		final TermVariable[] vars = new TermVariable[SHARED_DEPTH];
+		for (int i = 0; i < SHARED_DEPTH; i++) {
+			vars[i] = theory.createTermVariable("v" + i, intSort);
+		}
+		final Term[] formulas = buildSharedFormulas(theory, vars);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		final List<String[]> results = new ArrayList<>();
+		try {
+			final CyclicBarrier start = new CyclicBarrier(THREADS);
+			final List<Future<String[]>> futures = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				final boolean reverse = t % 2 == 1;
+				final Callable<String[]> task = () -> inspect(formulas, reverse, start);
+				futures.add(executor.submit(task));
+			}
+			for (final Future<String[]> future : futures) {
+				results.add(future.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		for (int i = 0; i < SHARED_DEPTH; i++) {
+			final Set<TermVariable> expectedVars = new HashSet<>(Arrays.asList(vars).subList(0, i + 1));
+			Assert.assertEquals(expectedVars, new HashSet<>(Arrays.asList(formulas[i].getFreeVars())));
+			// s_i occurs once in the formula, s_{i-1} twice in s_i
+			final String expected = formulas[i].toString() + " " + expectedVars + (i == 0 ? " 1" : " 1 2");
+			for (final String[] result : results) {
+				Assert.assertEquals(expected, result[i]);
+			}
+		}
+		Assert.assertEquals(0, vars[0].mTmpCtr);
+	}
+}
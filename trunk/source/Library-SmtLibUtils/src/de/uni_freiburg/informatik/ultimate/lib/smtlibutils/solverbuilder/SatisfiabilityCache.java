@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE ModelCheckerUtils Library.
+ *
+ * The ULTIMATE ModelCheckerUtils Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE ModelCheckerUtils Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE ModelCheckerUtils Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE ModelCheckerUtils Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE ModelCheckerUtils Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.lib.smtlibutils.solverbuilder;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IStorable;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IToolchainStorage;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.SmtLibUtils;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.util.statistics.AbstractStatisticsDataProvider;
+import de.uni_freiburg.informatik.ultimate.util.statistics.IStatisticsDataProvider;
+import de.uni_freiburg.informatik.ultimate.util.statistics.KeyType;
+
+/**
+ * Results of satisfiability checks that are shared by all solvers of a toolchain. The results are stored for the
+ * canonical form of the asserted formulas that {@link SatisfiabilityCachingScript} computes, hence a result can be
+ * reused by every solver that checks the same formulas up to renaming of the uninterpreted symbols and reordering of
+ * the arguments of commutative functions.
+ *
+ * Only sat and unsat are stored. The memory is bounded by the total length of the stored keys; if the bound is
+ * exceeded, the least recently used results are removed.
+ */
+public final class SatisfiabilityCache implements IStorable {
+
+	private static final String STORAGE_KEY = SatisfiabilityCache.class.getName();
+
+	/**
+	 * The default bound on the total length of all stored keys.
+	 */
+	public static final long DEFAULT_MAX_CHARACTERS = 1L << 23;
+
+	private final ILogger mLogger;
+	private final long mMaxCharacters;
+	private final LinkedHashMap<String, LBool> mResults = new LinkedHashMap<>(16, 0.75f, true);
+	private final SatisfiabilityCacheStatistics mStatistics = new SatisfiabilityCacheStatistics();
+	private long mCharacters;
+
+	public SatisfiabilityCache(final ILogger logger, final long maxCharacters) {
+		mLogger = logger;
+		mMaxCharacters = maxCharacters;
+	}
+
+	/**
+	 * Get the cache of the current toolchain; it is created on demand.
+	 */
+	public static SatisfiabilityCache getInstance(final IUltimateServiceProvider services) {
+		final IToolchainStorage storage = services.getStorage();
+		synchronized (SatisfiabilityCache.class) {
+			SatisfiabilityCache cache = (SatisfiabilityCache) storage.getStorable(STORAGE_KEY);
+			if (cache == null) {
+				cache = new SatisfiabilityCache(services.getLoggingService().getLogger(SmtLibUtils.PLUGIN_ID),
+						DEFAULT_MAX_CHARACTERS);
+				storage.putStorable(STORAGE_KEY, cache);
+			}
+			return cache;
+		}
+	}
+
+	/**
+	 * @return the stored result for the given canonical form or null if there is none.
+	 */
+	public synchronized LBool get(final String key) {
+		final LBool result = mResults.get(key);
+		if (result == null) {
+			mStatistics.mMisses++;
+		} else {
+			mStatistics.mHits++;
+		}
+		return result;
+	}
+
+	public synchronized void put(final String key, final LBool result) {
+		assert result != LBool.UNKNOWN;
+		if (key.length() > mMaxCharacters) {
+			return;
+		}
+		if (mResults.put(key, result) == null) {
+			mCharacters += key.length();
+		}
+		final Iterator<Entry<String, LBool>> iter = mResults.entrySet().iterator();
+		while (mCharacters > mMaxCharacters) {
+			final Entry<String, LBool> eldest = iter.next();
+			mCharacters -= eldest.getKey().length();
+			iter.remove();
+			mStatistics.mEvictions++;
+		}
+	}
+
+	/**
+	 * Record a satisfiability check whose formulas have no canonical form, e.g., because they are too large.
+	 */
+	public synchronized void reportUncacheable() {
+		mStatistics.mUncacheable++;
+	}
+
+	public synchronized IStatisticsDataProvider getStatistics() {
+		return mStatistics;
+	}
+
+	@Override
+	public synchronized void destroy() {
+		mLogger.info("Satisfiability cache: %s", mStatistics);
+		mResults.clear();
+		mCharacters = 0;
+	}
+
+	private static final class SatisfiabilityCacheStatistics extends AbstractStatisticsDataProvider {
+
+		private int mHits;
+		private int mMisses;
+		private int mUncacheable;
+		private int mEvictions;
+
+		private SatisfiabilityCacheStatistics() {
+			declare("Hits", () -> mHits, KeyType.COUNTER);
+			declare("Misses", () -> mMisses, KeyType.COUNTER);
+			declare("Uncacheable", () -> mUncacheable, KeyType.COUNTER);
+			declare("Evictions", () -> mEvictions, KeyType.COUNTER);
+		}
+	}
+}
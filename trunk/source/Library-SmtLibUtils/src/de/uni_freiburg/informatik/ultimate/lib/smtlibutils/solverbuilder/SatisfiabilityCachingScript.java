@@ -0,0 +1,522 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE ModelCheckerUtils Library.
+ *
+ * The ULTIMATE ModelCheckerUtils Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE ModelCheckerUtils Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE ModelCheckerUtils Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE ModelCheckerUtils Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE ModelCheckerUtils Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.lib.smtlibutils.solverbuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.logic.AnnotatedTerm;
+import de.uni_freiburg.informatik.ultimate.logic.ApplicationTerm;
+import de.uni_freiburg.informatik.ultimate.logic.Assignments;
+import de.uni_freiburg.informatik.ultimate.logic.ConstantTerm;
+import de.uni_freiburg.informatik.ultimate.logic.FunctionSymbol;
+import de.uni_freiburg.informatik.ultimate.logic.Model;
+import de.uni_freiburg.informatik.ultimate.logic.QuantifiedFormula;
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
+import de.uni_freiburg.informatik.ultimate.logic.WrapperScript;
+
+/**
+ * A {@link Script} that answers satisfiability checks from a {@link SatisfiabilityCache} if the same formulas were
+ * already checked by some solver of the toolchain.
+ *
+ * The key of a check is a canonical form of the conjunction of all asserted formulas and assumptions. In this form,
+ * the uninterpreted function symbols and the bound variables are renamed in the order of their first occurrence, the
+ * conjuncts and the arguments of commutative functions are ordered by a hash of their structure that does not depend
+ * on names, and annotations are omitted. The declarations of the renamed symbols are part of the key. Checks whose
+ * formulas contain lets, datatypes, defined functions, free variables, or that are too large are not cached.
+ *
+ * If a check is answered from the cache, the backing solver has not checked its assertions. The check is done before
+ * the first command that depends on it, e.g., {@link #getModel()}, {@link #getUnsatCore()}, or
+ * {@link #getInterpolants(Term[])}, and an exception is thrown if its result differs from the cached one.
+ *
+ * If the assertions of some stack level have no canonical form, the canonical form is not computed again until this
+ * level is popped, because further assertions cannot make the formulas cacheable.
+ */
+public class SatisfiabilityCachingScript extends WrapperScript {
+
+	private static final int MAX_DEPTH = 1000;
+	private static final int MAX_KEY_LENGTH = 1 << 16;
+	private static final int MAX_SHAPES = 1 << 17;
+
+	/**
+	 * Marks a pending check that was a {@link #checkSat()} and not a {@link #checkSatAssuming(Term...)}.
+	 */
+	private static final Term[] CHECK_SAT = new Term[0];
+
+	private static final Set<String> COMMUTATIVE_FUNCTIONS = new HashSet<>(Arrays.asList("and", "or", "xor", "=",
+			"distinct", "+", "*", "bvadd", "bvmul", "bvand", "bvor", "bvxor"));
+
+	private final SatisfiabilityCache mCache;
+	private final List<List<Term>> mAssertionStack = new ArrayList<>();
+	private final Map<Term, Integer> mShapes = new HashMap<>();
+	private Term[] mPendingCheck;
+	private LBool mPendingResult;
+
+	/**
+	 * The lowest stack level whose assertions have no canonical form, or -1 if there is none.
+	 */
+	private int mUncacheableLevel = -1;
+
+	public SatisfiabilityCachingScript(final Script script, final SatisfiabilityCache cache) {
+		super(script);
+		mCache = cache;
+		mAssertionStack.add(new ArrayList<>());
+	}
+
+	@Override
+	public void push(final int levels) throws SMTLIBException {
+		super.push(levels);
+		mPendingCheck = null;
+		for (int i = 0; i < levels; i++) {
+			mAssertionStack.add(new ArrayList<>());
+		}
+	}
+
+	@Override
+	public void pop(final int levels) throws SMTLIBException {
+		super.pop(levels);
+		mPendingCheck = null;
+		for (int i = 0; i < levels; i++) {
+			mAssertionStack.remove(mAssertionStack.size() - 1);
+		}
+		if (mUncacheableLevel >= mAssertionStack.size()) {
+			mUncacheableLevel = -1;
+		}
+	}
+
+	@Override
+	public LBool assertTerm(final Term term) throws SMTLIBException {
+		final LBool result = super.assertTerm(term);
+		mPendingCheck = null;
+		mAssertionStack.get(mAssertionStack.size() - 1).add(term);
+		return result;
+	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		clearAssertionStack();
+	}
+
+	@Override
+	public void resetAssertions() {
+		super.resetAssertions();
+		clearAssertionStack();
+	}
+
+	private void clearAssertionStack() {
+		mPendingCheck = null;
+		mAssertionStack.clear();
+		mAssertionStack.add(new ArrayList<>());
+		mShapes.clear();
+		mUncacheableLevel = -1;
+	}
+
+	@Override
+	public LBool checkSat() throws SMTLIBException {
+		return checkSatCached(CHECK_SAT);
+	}
+
+	@Override
+	public LBool checkSatAssuming(final Term... assumptions) throws SMTLIBException {
+		return checkSatCached(assumptions);
+	}
+
+	private LBool checkSatCached(final Term[] assumptions) {
+		mPendingCheck = null;
+		final String key = mUncacheableLevel == -1 ? computeKey(assumptions) : null;
+		if (key == null) {
+			if (assumptions == CHECK_SAT && mUncacheableLevel == -1) {
+				mUncacheableLevel = mAssertionStack.size() - 1;
+			}
+			mCache.reportUncacheable();
+			return runCheck(assumptions);
+		}
+		final LBool cached = mCache.get(key);
+		if (cached != null) {
+			mPendingCheck = assumptions;
+			mPendingResult = cached;
+			return cached;
+		}
+		final LBool result = runCheck(assumptions);
+		if (result != LBool.UNKNOWN) {
+			mCache.put(key, result);
+		}
+		return result;
+	}
+
+	private LBool runCheck(final Term[] assumptions) {
+		return assumptions == CHECK_SAT ? super.checkSat() : super.checkSatAssuming(assumptions);
+	}
+
+	/**
+	 * Let the backing solver do the last check if it was answered from the cache.
+	 *
+	 * @throws SMTLIBException
+	 *             if the backing solver contradicts the cached result
+	 */
+	private void runPendingCheck() {
+		if (mPendingCheck != null) {
+			final Term[] assumptions = mPendingCheck;
+			mPendingCheck = null;
+			final LBool result = runCheck(assumptions);
+			if (result != LBool.UNKNOWN && result != mPendingResult) {
+				throw new SMTLIBException("Satisfiability cache answered " + mPendingResult
+						+ " but the solver answered " + result + " for the same assertions");
+			}
+		}
+	}
+
+	@Override
+	public Model getModel() throws SMTLIBException, UnsupportedOperationException {
+		runPendingCheck();
+		return super.getModel();
+	}
+
+	@Override
+	public Map<Term, Term> getValue(final Term[] terms) throws SMTLIBException, UnsupportedOperationException {
+		runPendingCheck();
+		return super.getValue(terms);
+	}
+
+	@Override
+	public Assignments getAssignment() throws SMTLIBException, UnsupportedOperationException {
+		runPendingCheck();
+		return super.getAssignment();
+	}
+
+	@Override
+	public Term[] getUnsatCore() throws SMTLIBException, UnsupportedOperationException {
+		runPendingCheck();
+		return super.getUnsatCore();
+	}
+
+	@Override
+	public Term[] getUnsatAssumptions() throws SMTLIBException, UnsupportedOperationException {
+		runPendingCheck();
+		return super.getUnsatAssumptions();
+	}
+
+	@Override
+	public Term getProof() throws SMTLIBException, UnsupportedOperationException {
+		runPendingCheck();
+		return super.getProof();
+	}
+
+	@Override
+	public Term[] getInterpolants(final Term[] partition) throws SMTLIBException, UnsupportedOperationException {
+		runPendingCheck();
+		return super.getInterpolants(partition);
+	}
+
+	@Override
+	public Term[] getInterpolants(final Term[] partition, final int[] startOfSubtree)
+			throws SMTLIBException, UnsupportedOperationException {
+		runPendingCheck();
+		return super.getInterpolants(partition, startOfSubtree);
+	}
+
+	@Override
+	public Term[] getInterpolants(final Term[] partition, final int[] startOfSubtree, final Term proofTree)
+			throws SMTLIBException, UnsupportedOperationException {
+		runPendingCheck();
+		return super.getInterpolants(partition, startOfSubtree, proofTree);
+	}
+
+	/**
+	 * @return the canonical form of the current assertions together with the given assumptions, or null if they have
+	 *         none.
+	 */
+	private String computeKey(final Term[] assumptions) {
+		if (mShapes.size() > MAX_SHAPES) {
+			mShapes.clear();
+		}
+		final Set<Term> conjuncts = new LinkedHashSet<>();
+		try {
+			for (final List<Term> level : mAssertionStack) {
+				for (final Term assertion : level) {
+					addConjuncts(assertion, conjuncts, 0);
+				}
+			}
+			for (final Term assumption : assumptions) {
+				addConjuncts(assumption, conjuncts, 0);
+			}
+			return new KeyBuilder().build(sortByShape(conjuncts.toArray(new Term[conjuncts.size()])));
+		} catch (final UncacheableException e) {
+			return null;
+		}
+	}
+
+	private static void addConjuncts(final Term term, final Set<Term> conjuncts, final int depth) {
+		if (depth > MAX_DEPTH) {
+			throw UncacheableException.INSTANCE;
+		}
+		final Term stripped = stripAnnotations(term);
+		if (stripped instanceof ApplicationTerm) {
+			final ApplicationTerm appTerm = (ApplicationTerm) stripped;
+			if (appTerm.getFunction().isIntern() && "and".equals(appTerm.getFunction().getName())) {
+				for (final Term param : appTerm.getParameters()) {
+					addConjuncts(param, conjuncts, depth + 1);
+				}
+				return;
+			}
+			if (appTerm.getFunction().isIntern() && "true".equals(appTerm.getFunction().getName())) {
+				return;
+			}
+		}
+		conjuncts.add(stripped);
+	}
+
+	private static Term stripAnnotations(final Term term) {
+		Term result = term;
+		while (result instanceof AnnotatedTerm) {
+			result = ((AnnotatedTerm) result).getSubterm();
+		}
+		return result;
+	}
+
+	private static boolean isCommutative(final FunctionSymbol fsym) {
+		return fsym.isIntern() && COMMUTATIVE_FUNCTIONS.contains(fsym.getName());
+	}
+
+	/**
+	 * Uninterpreted function symbols are renamed in the key. Model values are not renamed, they denote fixed values.
+	 */
+	private static boolean isRenamed(final FunctionSymbol fsym) {
+		return !fsym.isIntern() && !fsym.isModelValue();
+	}
+
+	private static void checkSupported(final Sort sort) {
+		if (sort.getRealSort().getSortSymbol().isDatatype()) {
+			throw UncacheableException.INSTANCE;
+		}
+	}
+
+	private static void checkSupported(final FunctionSymbol fsym) {
+		if (fsym.getDefinition() != null || fsym.isConstructor() || fsym.isSelector()) {
+			throw UncacheableException.INSTANCE;
+		}
+		checkSupported(fsym.getReturnSort());
+	}
+
+	private Term[] sortByShape(final Term[] terms) {
+		final int[] shapes = new int[terms.length];
+		for (int i = 0; i < terms.length; i++) {
+			shapes[i] = computeShape(terms[i], 0);
+		}
+		final Integer[] order = new Integer[terms.length];
+		for (int i = 0; i < terms.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparingInt(i -> shapes[i]));
+		final Term[] result = new Term[terms.length];
+		for (int i = 0; i < terms.length; i++) {
+			result[i] = terms[order[i]];
+		}
+		return result;
+	}
+
+	/**
+	 * Compute a hash of the structure of a term that does not depend on the names of uninterpreted function symbols
+	 * and bound variables, on annotations, and on the order of the arguments of commutative functions. Unlike
+	 * {@link Object#hashCode()} of terms, the hash is the same in every {@link Script}.
+	 */
+	private int computeShape(final Term term, final int depth) {
+		if (depth > MAX_DEPTH) {
+			throw UncacheableException.INSTANCE;
+		}
+		final Integer memo = mShapes.get(term);
+		if (memo != null) {
+			return memo;
+		}
+		final int shape;
+		if (term instanceof ApplicationTerm) {
+			final ApplicationTerm appTerm = (ApplicationTerm) term;
+			final FunctionSymbol fsym = appTerm.getFunction();
+			checkSupported(fsym);
+			final Term[] params = appTerm.getParameters();
+			int hash = isRenamed(fsym) ? fsym.getReturnSort().hashCode() : fsym.hashCode();
+			hash = 31 * hash + params.length;
+			if (isCommutative(fsym)) {
+				final int[] paramShapes = new int[params.length];
+				for (int i = 0; i < params.length; i++) {
+					paramShapes[i] = computeShape(params[i], depth + 1);
+				}
+				Arrays.sort(paramShapes);
+				for (final int paramShape : paramShapes) {
+					hash = 31 * hash + paramShape;
+				}
+			} else {
+				for (final Term param : params) {
+					hash = 31 * hash + computeShape(param, depth + 1);
+				}
+			}
+			shape = hash;
+		} else if (term instanceof ConstantTerm) {
+			shape = term.hashCode();
+		} else if (term instanceof TermVariable) {
+			checkSupported(term.getSort());
+			shape = 17 * term.getSort().hashCode() + 1;
+		} else if (term instanceof QuantifiedFormula) {
+			final QuantifiedFormula quant = (QuantifiedFormula) term;
+			int hash = 37 * quant.getQuantifier() + quant.getVariables().length;
+			for (final TermVariable var : quant.getVariables()) {
+				checkSupported(var.getSort());
+				hash = 31 * hash + var.getSort().hashCode();
+			}
+			shape = 31 * hash + computeShape(quant.getSubformula(), depth + 1);
+		} else if (term instanceof AnnotatedTerm) {
+			shape = computeShape(((AnnotatedTerm) term).getSubterm(), depth + 1);
+		} else {
+			throw UncacheableException.INSTANCE;
+		}
+		mShapes.put(term, shape);
+		return shape;
+	}
+
+	/**
+	 * Prints the canonical form of a conjunction.
+	 */
+	private final class KeyBuilder {
+		private final StringBuilder mDeclarations = new StringBuilder();
+		private final StringBuilder mBody = new StringBuilder();
+		private final Map<FunctionSymbol, String> mRenamedSymbols = new HashMap<>();
+		private final Map<TermVariable, String> mBoundVariables = new HashMap<>();
+		private int mBindingDepth;
+
+		private String build(final Term[] conjuncts) {
+			for (final Term conjunct : conjuncts) {
+				append(conjunct, 0);
+				mBody.append(' ');
+			}
+			return mDeclarations.length() + "#" + mDeclarations + mBody;
+		}
+
+		private void append(final Term term, final int depth) {
+			if (depth > MAX_DEPTH || mBody.length() + mDeclarations.length() > MAX_KEY_LENGTH) {
+				throw UncacheableException.INSTANCE;
+			}
+			if (term instanceof ApplicationTerm) {
+				final ApplicationTerm appTerm = (ApplicationTerm) term;
+				final FunctionSymbol fsym = appTerm.getFunction();
+				Term[] params = appTerm.getParameters();
+				if (params.length > 0) {
+					mBody.append('(');
+				}
+				if (isRenamed(fsym)) {
+					mBody.append(mRenamedSymbols.computeIfAbsent(fsym, this::declare));
+				} else if (fsym.isModelValue()) {
+					mBody.append("(as ").append(fsym.getApplicationString()).append(' ').append(fsym.getReturnSort())
+							.append(')');
+				} else {
+					mBody.append(fsym.getApplicationString());
+				}
+				if (params.length > 0) {
+					if (isCommutative(fsym)) {
+						params = sortByShape(params);
+					}
+					for (final Term param : params) {
+						mBody.append(' ');
+						append(param, depth + 1);
+					}
+					mBody.append(')');
+				}
+			} else if (term instanceof ConstantTerm) {
+				mBody.append("(as ").append(term).append(' ').append(term.getSort()).append(')');
+			} else if (term instanceof TermVariable) {
+				final String name = mBoundVariables.get(term);
+				if (name == null) {
+					// free variables are not declared in the solver
+					throw UncacheableException.INSTANCE;
+				}
+				mBody.append(name);
+			} else if (term instanceof QuantifiedFormula) {
+				appendQuantifiedFormula((QuantifiedFormula) term, depth);
+			} else if (term instanceof AnnotatedTerm) {
+				append(((AnnotatedTerm) term).getSubterm(), depth + 1);
+			} else {
+				throw UncacheableException.INSTANCE;
+			}
+		}
+
+		private void appendQuantifiedFormula(final QuantifiedFormula quant, final int depth) {
+			final TermVariable[] vars = quant.getVariables();
+			final String[] shadowed = new String[vars.length];
+			mBody.append(quant.getQuantifier() == QuantifiedFormula.EXISTS ? "(exists (" : "(forall (");
+			for (int i = 0; i < vars.length; i++) {
+				final String name = "%" + mBindingDepth++;
+				shadowed[i] = mBoundVariables.put(vars[i], name);
+				mBody.append('(').append(name).append(' ').append(vars[i].getSort()).append(')');
+			}
+			mBody.append(") ");
+			append(quant.getSubformula(), depth + 1);
+			mBody.append(')');
+			mBindingDepth -= vars.length;
+			for (int i = vars.length - 1; i >= 0; i--) {
+				if (shadowed[i] == null) {
+					mBoundVariables.remove(vars[i]);
+				} else {
+					mBoundVariables.put(vars[i], shadowed[i]);
+				}
+			}
+		}
+
+		private String declare(final FunctionSymbol fsym) {
+			final String name = "?" + mRenamedSymbols.size();
+			mDeclarations.append('(').append(name).append(" (");
+			for (final Sort paramSort : fsym.getParameterSorts()) {
+				checkSupported(paramSort);
+				mDeclarations.append(paramSort).append(' ');
+			}
+			mDeclarations.append(") ").append(fsym.getReturnSort()).append(')');
+			return name;
+		}
+	}
+
+	/**
+	 * Thrown if formulas have no canonical form. The exception has no stack trace, it is only used to leave the
+	 * recursion.
+	 */
+	private static final class UncacheableException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+		private static final UncacheableException INSTANCE = new UncacheableException();
+
+		private UncacheableException() {
+			super(null, null, false, false);
+		}
+	}
+}
@@ -109,7 +109,7 @@ public final class SolverBuilder {
 	 */
 	public static SolverSettings constructSolverSettings() throws AssertionError {
 		return new SolverSettings(SolverMode.Internal_SMTInterpol, false, false, null, null, -1, null, false, false,
-				false, null, null, false, false, null, false, Collections.emptyMap(), null, false);
+				false, null, null, false, false, null, false, Collections.emptyMap(), null, false, false);
 	}
 
 	/**
@@ -162,6 +162,11 @@ public final class SolverBuilder {
 			script = new LoggingScriptForMainTrackBenchmarks(script, settings.getBaseNameOfDumpedScript(),
 					settings.getPathOfDumpedScript());
 		}
+		if (settings.useSatisfiabilityCache() && !settings.dumpSmtScriptToFile() && !settings.dumpFeatureExtractionVector()
+				&& !settings.dumpUnsatCoreTrackBenchmark() && !settings.dumpMainTrackBenchmark()) {
+			// dumped scripts and benchmarks have to contain every check
+			script = new SatisfiabilityCachingScript(script, SatisfiabilityCache.getInstance(services));
+		}
 		return new HistoryRecordingScript(script);
 	}
 
@@ -394,6 +399,8 @@ public final class SolverBuilder {
 
 		private final boolean mUseMinimalUnsatCoreEnumerationForSmtInterpol;
 
+		private final boolean mUseSatisfiabilityCache;
+
 		private SolverSettings(final SolverMode solverMode, final boolean fakeNonIncrementalScript,
 				final boolean useExternalSolver, final String commandExternalSolver, final Logics solverLogic,
 				final long timeoutSmtInterpol, final ExternalInterpolator externalInterpolator,
@@ -402,7 +409,7 @@ public final class SolverBuilder {
 				final String baseNameOfDumpedScript, final boolean useDiffWrapper, final boolean dumpFeatureVector,
 				final String featureVectorDumpPath, final boolean compressDumpedScript,
 				final Map<String, String> additionalOptions, final ILogger logger,
-				final boolean useMinimalUnsatCoreEnumerationForSmtInterpol) {
+				final boolean useMinimalUnsatCoreEnumerationForSmtInterpol, final boolean useSatisfiabilityCache) {
 			mSolverMode = solverMode;
 			mFakeNonIncrementalScript = fakeNonIncrementalScript;
 			mUseExternalSolver = useExternalSolver;
@@ -422,6 +429,7 @@ public final class SolverBuilder {
 			mAdditionalOptions = additionalOptions;
 			mSolverLogger = logger;
 			mUseMinimalUnsatCoreEnumerationForSmtInterpol = useMinimalUnsatCoreEnumerationForSmtInterpol;
+			mUseSatisfiabilityCache = useSatisfiabilityCache;
 		}
 
 		public boolean fakeNonIncrementalScript() {
@@ -487,6 +495,10 @@ public final class SolverBuilder {
 			return mUseMinimalUnsatCoreEnumerationForSmtInterpol;
 		}
 
+		public boolean useSatisfiabilityCache() {
+			return mUseSatisfiabilityCache;
+		}
+
 		public boolean dumpFeatureExtractionVector() {
 			return mDumpFeatureVector;
 		}
@@ -521,7 +533,8 @@ public final class SolverBuilder {
 					mExternalSolverCommand, mSolverLogics, mTimeoutSmtInterpol, mExternalInterpolator, enabled,
 					mDumpUnsatCoreTrackBenchmark, mDumpMainTrackBenchmark, folderPathOfDumpedFile, basenameOfDumpedFile,
 					mUseDiffWrapper, mDumpFeatureVector, mFeatureVectorDumpPath, compressScript, mAdditionalOptions,
-					mSolverLogger, mUseMinimalUnsatCoreEnumerationForSmtInterpol);
+					mSolverLogger, mUseMinimalUnsatCoreEnumerationForSmtInterpol,
+					mUseSatisfiabilityCache);
 		}
 
 		public SolverSettings setDumpUnsatCoreTrackBenchmark(final boolean enable) {
@@ -530,7 +543,8 @@ public final class SolverBuilder {
 					mExternalSolverCommand, mSolverLogics, mTimeoutSmtInterpol, mExternalInterpolator,
 					mDumpSmtScriptToFile, enable, mDumpMainTrackBenchmark, mPathOfDumpedScript, mBaseNameOfDumpedScript,
 					mUseDiffWrapper, mDumpFeatureVector, mFeatureVectorDumpPath, mCompressDumpedScript,
-					mAdditionalOptions, mSolverLogger, mUseMinimalUnsatCoreEnumerationForSmtInterpol);
+					mAdditionalOptions, mSolverLogger, mUseMinimalUnsatCoreEnumerationForSmtInterpol,
+					mUseSatisfiabilityCache);
 		}
 
 		public SolverSettings setDumpMainTrackBenchmark(final boolean enable) {
@@ -540,7 +554,8 @@ public final class SolverBuilder {
 					mDumpSmtScriptToFile, mDumpUnsatCoreTrackBenchmark, enable, mPathOfDumpedScript,
 					mBaseNameOfDumpedScript, mUseDiffWrapper, mDumpFeatureVector, mFeatureVectorDumpPath,
 					mCompressDumpedScript, mAdditionalOptions, mSolverLogger,
-					mUseMinimalUnsatCoreEnumerationForSmtInterpol);
+					mUseMinimalUnsatCoreEnumerationForSmtInterpol,
+					mUseSatisfiabilityCache);
 		}
 
 		public SolverSettings setDumpFeatureVectors(final boolean enabled, final String dumpPath) {
@@ -548,7 +563,8 @@ public final class SolverBuilder {
 					mExternalSolverCommand, mSolverLogics, mTimeoutSmtInterpol, mExternalInterpolator,
 					mDumpSmtScriptToFile, mDumpUnsatCoreTrackBenchmark, mDumpMainTrackBenchmark, mPathOfDumpedScript,
 					mBaseNameOfDumpedScript, mUseDiffWrapper, enabled, dumpPath, mCompressDumpedScript,
-					mAdditionalOptions, mSolverLogger, mUseMinimalUnsatCoreEnumerationForSmtInterpol);
+					mAdditionalOptions, mSolverLogger, mUseMinimalUnsatCoreEnumerationForSmtInterpol,
+					mUseSatisfiabilityCache);
 		}
 
 		/**
@@ -567,7 +583,8 @@ public final class SolverBuilder {
 					mDumpSmtScriptToFile, mDumpUnsatCoreTrackBenchmark, mDumpMainTrackBenchmark, mPathOfDumpedScript,
 					mBaseNameOfDumpedScript, mUseDiffWrapper, mDumpFeatureVector, mFeatureVectorDumpPath,
 					mCompressDumpedScript, mAdditionalOptions, mSolverLogger,
-					mUseMinimalUnsatCoreEnumerationForSmtInterpol);
+					mUseMinimalUnsatCoreEnumerationForSmtInterpol,
+					mUseSatisfiabilityCache);
 		}
 
 		public SolverSettings setUseExternalSolver(final boolean enable, final String externalSolverCommand,
@@ -576,7 +593,8 @@ public final class SolverBuilder {
 					externalSolverLogics, mTimeoutSmtInterpol, mExternalInterpolator, mDumpSmtScriptToFile,
 					mDumpUnsatCoreTrackBenchmark, mDumpMainTrackBenchmark, mPathOfDumpedScript, mBaseNameOfDumpedScript,
 					mUseDiffWrapper, mDumpFeatureVector, mFeatureVectorDumpPath, mCompressDumpedScript,
-					mAdditionalOptions, mSolverLogger, mUseMinimalUnsatCoreEnumerationForSmtInterpol);
+					mAdditionalOptions, mSolverLogger, mUseMinimalUnsatCoreEnumerationForSmtInterpol,
+					mUseSatisfiabilityCache);
 		}
 
 		/**
@@ -632,7 +650,8 @@ public final class SolverBuilder {
 					mTimeoutSmtInterpol, mExternalInterpolator, mDumpSmtScriptToFile, mDumpUnsatCoreTrackBenchmark,
 					mDumpMainTrackBenchmark, mPathOfDumpedScript, mBaseNameOfDumpedScript, mUseDiffWrapper,
 					mDumpFeatureVector, mFeatureVectorDumpPath, mCompressDumpedScript, mAdditionalOptions,
-					mSolverLogger, mUseMinimalUnsatCoreEnumerationForSmtInterpol);
+					mSolverLogger, mUseMinimalUnsatCoreEnumerationForSmtInterpol,
+					mUseSatisfiabilityCache);
 		}
 
 		public SolverSettings setSolverLogics(final Logics logics) {
@@ -640,7 +659,8 @@ public final class SolverBuilder {
 					mExternalSolverCommand, logics, mTimeoutSmtInterpol, mExternalInterpolator, mDumpSmtScriptToFile,
 					mDumpUnsatCoreTrackBenchmark, mDumpMainTrackBenchmark, mPathOfDumpedScript, mBaseNameOfDumpedScript,
 					mUseDiffWrapper, mDumpFeatureVector, mFeatureVectorDumpPath, mCompressDumpedScript,
-					mAdditionalOptions, mSolverLogger, mUseMinimalUnsatCoreEnumerationForSmtInterpol);
+					mAdditionalOptions, mSolverLogger, mUseMinimalUnsatCoreEnumerationForSmtInterpol,
+					mUseSatisfiabilityCache);
 		}
 
 		public SolverSettings setUseMinimalUnsatCoreEnumerationForSmtInterpol(final boolean enable) {
@@ -648,7 +668,20 @@ public final class SolverBuilder {
 					mExternalSolverCommand, mSolverLogics, mTimeoutSmtInterpol, mExternalInterpolator,
 					mDumpSmtScriptToFile, mDumpUnsatCoreTrackBenchmark, mDumpMainTrackBenchmark, mPathOfDumpedScript,
 					mBaseNameOfDumpedScript, mUseDiffWrapper, mDumpFeatureVector, mFeatureVectorDumpPath,
-					mCompressDumpedScript, mAdditionalOptions, mSolverLogger, enable);
+					mCompressDumpedScript, mAdditionalOptions, mSolverLogger, enable, mUseSatisfiabilityCache);
+		}
+
+		/**
+		 * Answer satisfiability checks whose formulas were already checked by some solver of the toolchain from the
+		 * {@link SatisfiabilityCache} of the toolchain. The cache is not used if scripts or benchmarks are dumped.
+		 */
+		public SolverSettings setUseSatisfiabilityCache(final boolean enable) {
+			return new SolverSettings(mSolverMode, mFakeNonIncrementalScript, mUseExternalSolver,
+					mExternalSolverCommand, mSolverLogics, mTimeoutSmtInterpol, mExternalInterpolator,
+					mDumpSmtScriptToFile, mDumpUnsatCoreTrackBenchmark, mDumpMainTrackBenchmark, mPathOfDumpedScript,
+					mBaseNameOfDumpedScript, mUseDiffWrapper, mDumpFeatureVector, mFeatureVectorDumpPath,
+					mCompressDumpedScript, mAdditionalOptions, mSolverLogger,
+					mUseMinimalUnsatCoreEnumerationForSmtInterpol, enable);
 		}
 
 		/**
@@ -674,7 +707,8 @@ public final class SolverBuilder {
 						mDumpSmtScriptToFile, mDumpUnsatCoreTrackBenchmark, mDumpMainTrackBenchmark,
 						mPathOfDumpedScript, mBaseNameOfDumpedScript, mUseDiffWrapper, mDumpFeatureVector,
 						mFeatureVectorDumpPath, mCompressDumpedScript, mAdditionalOptions, mSolverLogger,
-						mUseMinimalUnsatCoreEnumerationForSmtInterpol);
+						mUseMinimalUnsatCoreEnumerationForSmtInterpol,
+					mUseSatisfiabilityCache);
 			}
 
 			final boolean useExternalSolver;
@@ -736,7 +770,8 @@ public final class SolverBuilder {
 					logics, timeoutSmtInterpol, externalInterpolator, mDumpSmtScriptToFile,
 					mDumpUnsatCoreTrackBenchmark, mDumpMainTrackBenchmark, mPathOfDumpedScript, mBaseNameOfDumpedScript,
 					useDiffWrapper, mDumpFeatureVector, mFeatureVectorDumpPath, mCompressDumpedScript,
-					mAdditionalOptions, mSolverLogger, mUseMinimalUnsatCoreEnumerationForSmtInterpol);
+					mAdditionalOptions, mSolverLogger, mUseMinimalUnsatCoreEnumerationForSmtInterpol,
+					mUseSatisfiabilityCache);
 		}
 
 		public SolverSettings setAdditionalOptions(final Map<String, String> additionalOptions) {
@@ -745,7 +780,8 @@ public final class SolverBuilder {
 					mDumpSmtScriptToFile, mDumpUnsatCoreTrackBenchmark, mDumpMainTrackBenchmark, mPathOfDumpedScript,
 					mBaseNameOfDumpedScript, mUseDiffWrapper, mDumpFeatureVector, mFeatureVectorDumpPath,
 					mCompressDumpedScript, Objects.requireNonNull(additionalOptions), mSolverLogger,
-					mUseMinimalUnsatCoreEnumerationForSmtInterpol);
+					mUseMinimalUnsatCoreEnumerationForSmtInterpol,
+					mUseSatisfiabilityCache);
 		}
 
 		public SolverSettings setSolverLogger(final ILogger logger) {
@@ -753,7 +789,8 @@ public final class SolverBuilder {
 					mExternalSolverCommand, mSolverLogics, mTimeoutSmtInterpol, mExternalInterpolator,
 					mDumpSmtScriptToFile, mDumpUnsatCoreTrackBenchmark, mDumpMainTrackBenchmark, mPathOfDumpedScript,
 					mBaseNameOfDumpedScript, mUseDiffWrapper, mDumpFeatureVector, mFeatureVectorDumpPath,
-					mCompressDumpedScript, mAdditionalOptions, logger, mUseMinimalUnsatCoreEnumerationForSmtInterpol);
+					mCompressDumpedScript, mAdditionalOptions, logger, mUseMinimalUnsatCoreEnumerationForSmtInterpol,
+					mUseSatisfiabilityCache);
 		}
 
 		@Override
@@ -804,33 +841,36 @@ public final class SolverBuilder {
 
 	/**
 	 * Enumeration that provides default command line strings for SMT solvers in different modes as well as their
-	 * default logics and -- if available -- commands for setting a timeout.
+	 * default logics and -- if available -- commands and options for setting a timeout.
 	 *
 	 * @author Daniel Dietsch (dietsch@informatik.uni-freiburg.de)
 	 *
 	 */
 	public enum ExternalSolver {
-		Z3("z3 -smt2 -in SMTLIB2_COMPLIANT=true", "z3 -smt2 -in SMTLIB2_COMPLIANT=true" + " -t:%d", Logics.ALL),
+		Z3("z3 -smt2 -in SMTLIB2_COMPLIANT=true", "z3 -smt2 -in SMTLIB2_COMPLIANT=true" + " -t:%d", ":timeout",
+				Logics.ALL),
 
 		CVC4("cvc4 --incremental --print-success --lang smt",
-				"cvc4 --incremental --print-success --lang smt" + " --tlimit-per=%d", Logics.ALL),
+				"cvc4 --incremental --print-success --lang smt" + " --tlimit-per=%d", ":tlimit-per", Logics.ALL),
 
-		MATHSAT("mathsat -unsat_core_generation=3", null, Logics.ALL),
+		MATHSAT("mathsat -unsat_core_generation=3", null, null, Logics.ALL),
 
-		MATHSAT_INTERPOLATION("mathsat -theory.bv.eager=false -theory.fp.enabled=false", null, Logics.ALL),
+		MATHSAT_INTERPOLATION("mathsat -theory.bv.eager=false -theory.fp.enabled=false", null, null, Logics.ALL),
 
-		SMTINTERPOL(null, null, Logics.ALL),
+		SMTINTERPOL(null, null, ":timeout", Logics.ALL),
 
-		PRINCESS(null, null, null);
+		PRINCESS(null, null, null, null);
 
 		private final String mSolverCommand;
 		private final String mSolverCommandTimeoutFormatString;
+		private final String mTimeoutOption;
 		private final Logics mDefaultLogic;
 
 		ExternalSolver(final String solverCommand, final String solverCommandTimeoutFormatString,
-				final Logics defaultLogic) {
+				final String timeoutOption, final Logics defaultLogic) {
 			mSolverCommand = solverCommand;
 			mSolverCommandTimeoutFormatString = solverCommandTimeoutFormatString;
+			mTimeoutOption = timeoutOption;
 			mDefaultLogic = defaultLogic;
 		}
 
@@ -855,6 +895,14 @@ public final class SolverBuilder {
 			return String.format(mSolverCommandTimeoutFormatString, timeout);
 		}
 
+		/**
+		 * @return The option that sets the timeout in milliseconds of each check of a running solver, or null if the
+		 *         timeout cannot be changed after the solver was started.
+		 */
+		public String getTimeoutOption() {
+			return mTimeoutOption;
+		}
+
 		public Logics getDefaultLogic() {
 			return mDefaultLogic;
 		}
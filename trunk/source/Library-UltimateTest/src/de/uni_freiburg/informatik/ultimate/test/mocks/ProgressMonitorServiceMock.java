@@ -52,12 +52,14 @@ final class ProgressMonitorServiceMock implements IProgressMonitorService {
 
 	@Override
 	public IProgressAwareTimer getChildTimer(final long timeout) {
-		throw new UnsupportedOperationException();
+		// mock, the child timer expires with the deadline of this mock
+		return this;
 	}
 
 	@Override
 	public IProgressAwareTimer getChildTimer(final double percentage) {
-		throw new UnsupportedOperationException();
+		// mock, the child timer expires with the deadline of this mock
+		return this;
 	}
 
 	@Override
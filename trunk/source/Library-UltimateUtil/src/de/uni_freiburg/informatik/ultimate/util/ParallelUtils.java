@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Util Library.
+ *
+ * The ULTIMATE Util Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Util Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Util Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Util Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Util Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Helpers for data-parallel loops on a {@link ForkJoinPool}.
+ */
+public final class ParallelUtils {
+
+	private ParallelUtils() {
+		// do not instantiate utility class
+	}
+
+	/**
+	 * Runs {@code body} for every index from 0 (inclusive) to {@code size} (exclusive) in {@code pool} and returns when
+	 * all indices are done. The range is split in halves until a part has at most {@code grain} indices, these parts
+	 * are run sequentially.
+	 */
+	public static void parallelFor(final ForkJoinPool pool, final int size, final int grain, final IntConsumer body) {
+		pool.invoke(new ParallelForAction(0, size, grain, body));
+	}
+
+	private static final class ParallelForAction extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int mFrom;
+		private final int mTo;
+		private final int mGrain;
+		private final transient IntConsumer mBody;
+
+		private ParallelForAction(final int from, final int to, final int grain, final IntConsumer body) {
+			mFrom = from;
+			mTo = to;
+			mGrain = grain;
+			mBody = body;
+		}
+
+		@Override
+		protected void compute() {
+			if (mTo - mFrom <= mGrain) {
+				for (int i = mFrom; i < mTo; i++) {
+					mBody.accept(i);
+				}
+				return;
+			}
+			final int mid = (mFrom + mTo) >>> 1;
+			invokeAll(new ParallelForAction(mFrom, mid, mGrain, mBody), new ParallelForAction(mid, mTo, mGrain, mBody));
+		}
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Util Library.
+ *
+ * The ULTIMATE Util Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Util Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Util Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Util Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Util Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encoding of ints as unsigned variable-length quantities: 7 bits per byte, least significant group first, the highest
+ * bit of a byte is set if another byte follows. Small non-negative values take a single byte, negative values take
+ * {@value #MAX_BYTES} bytes.
+ */
+public final class VarIntUtils {
+	/**
+	 * Maximal number of bytes of an encoded int.
+	 */
+	public static final int MAX_BYTES = 5;
+
+	private VarIntUtils() {
+		// do not instantiate utility class
+	}
+
+	/**
+	 * Write the encoding of {@code value} at the current position of {@code buffer}.
+	 */
+	public static void write(final ByteBuffer buffer, final int value) {
+		int rest = value;
+		while ((rest & ~0x7F) != 0) {
+			buffer.put((byte) ((rest & 0x7F) | 0x80));
+			rest >>>= 7;
+		}
+		buffer.put((byte) rest);
+	}
+
+	/**
+	 * Read an encoded int at the current position of {@code buffer}.
+	 */
+	public static int read(final ByteBuffer buffer) {
+		int result = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = buffer.get();
+			result |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return result;
+	}
+}
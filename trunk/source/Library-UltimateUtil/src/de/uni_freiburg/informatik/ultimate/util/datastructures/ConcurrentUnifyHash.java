@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Util Library.
+ *
+ * The ULTIMATE Util Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Util Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Util Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Util Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Util Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.util.datastructures;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A thread-safe {@link UnifyHash}. The objects are distributed by their hash code over a fixed number of stripes,
+ * each stripe is a {@link UnifyHash} that is guarded by its own lock. Threads that unify objects in different stripes
+ * do not block each other.
+ *
+ * Use {@link #unify(int, Predicate, Supplier)} to look up or create an object atomically; the iterate-and-put loop
+ * from the description of {@link UnifyHash} is not atomic and may create duplicates if two threads create the same
+ * object at the same time. The iterators of this class iterate over a snapshot.
+ *
+ * @param <E>
+ *            the type of the objects.
+ */
+public class ConcurrentUnifyHash<E> extends UnifyHash<E> {
+
+	/**
+	 * The default number of stripes.
+	 */
+	private static final int DEFAULT_STRIPES = 64;
+
+	private final UnifyHash<E>[] mStripes;
+
+	/**
+	 * Creates a new concurrent unify hash.
+	 *
+	 * @param stripes
+	 *            The number of stripes, i.e., the number of threads that can modify this hash at the same time. This
+	 *            is rounded up to a power of two.
+	 */
+	@SuppressWarnings("unchecked")
+	public ConcurrentUnifyHash(final int stripes) {
+		super(1);
+		final int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+		mStripes = new UnifyHash[size];
+		for (int i = 0; i < size; i++) {
+			mStripes[i] = new UnifyHash<>();
+		}
+	}
+
+	/**
+	 * Creates a new concurrent unify hash with the default number of stripes.
+	 */
+	public ConcurrentUnifyHash() {
+		this(DEFAULT_STRIPES);
+	}
+
+	private UnifyHash<E> getStripe(final int hash) {
+		// the stripes use the low bits; mix in the high bits as they are used for the buckets of the stripe
+		return mStripes[(hash ^ (hash >>> 16)) & (mStripes.length - 1)];
+	}
+
+	@Override
+	public int size() {
+		int size = 0;
+		for (final UnifyHash<E> stripe : mStripes) {
+			synchronized (stripe) {
+				stripe.cleanUp();
+				size += stripe.size();
+			}
+		}
+		return size;
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		final List<E> snapshot = new ArrayList<>();
+		for (final UnifyHash<E> stripe : mStripes) {
+			synchronized (stripe) {
+				for (final E o : stripe) {
+					snapshot.add(o);
+				}
+			}
+		}
+		return Collections.unmodifiableList(snapshot).iterator();
+	}
+
+	@Override
+	public Iterable<E> iterateHashCode(final int hash) {
+		final UnifyHash<E> stripe = getStripe(hash);
+		final List<E> snapshot = new ArrayList<>();
+		synchronized (stripe) {
+			for (final E o : stripe.iterateHashCode(hash)) {
+				snapshot.add(o);
+			}
+		}
+		return Collections.unmodifiableList(snapshot);
+	}
+
+	@Override
+	public void put(final int hash, final E o) {
+		final UnifyHash<E> stripe = getStripe(hash);
+		synchronized (stripe) {
+			stripe.put(hash, o);
+		}
+	}
+
+	@Override
+	public boolean remove(final int hash, final E o) {
+		final UnifyHash<E> stripe = getStripe(hash);
+		synchronized (stripe) {
+			return stripe.remove(hash, o);
+		}
+	}
+
+	@Override
+	public E unify(final E o, final int hash, final Comparator<E> comparator) {
+		final UnifyHash<E> stripe = getStripe(hash);
+		synchronized (stripe) {
+			return stripe.unify(o, hash, comparator);
+		}
+	}
+
+	@Override
+	public E unify(final E o) {
+		final UnifyHash<E> stripe = getStripe(o.hashCode());
+		synchronized (stripe) {
+			return stripe.unify(o);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The object is created without holding the lock, so the creator may unify other objects in this hash. If another
+	 * thread adds an equal object in the meantime, the created object is dropped and the other one is returned.
+	 */
+	@Override
+	public E unify(final int hash, final Predicate<? super E> isEqual, final Supplier<? extends E> creator) {
+		final UnifyHash<E> stripe = getStripe(hash);
+		synchronized (stripe) {
+			for (final E old : stripe.iterateHashCode(hash)) {
+				if (isEqual.test(old)) {
+					return old;
+				}
+			}
+		}
+		final E o = creator.get();
+		synchronized (stripe) {
+			for (final E old : stripe.iterateHashCode(hash)) {
+				if (isEqual.test(old)) {
+					return old;
+				}
+			}
+			stripe.put(hash, o);
+		}
+		return o;
+	}
+}
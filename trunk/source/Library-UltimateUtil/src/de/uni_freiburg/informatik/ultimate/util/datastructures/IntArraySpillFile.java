@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Util Library.
+ *
+ * The ULTIMATE Util Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Util Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Util Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Util Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Util Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.util.datastructures;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import de.uni_freiburg.informatik.ultimate.util.VarIntUtils;
+
+/**
+ * Append-only store for int arrays in a memory-mapped temporary file.
+ * <p>
+ * {@link #write(int[])} appends a record and returns a handle, {@link #read(long)} decodes the record again. Each int
+ * is stored as unsigned variable-length quantity (7 bits per byte), so small non-negative numbers like indices need
+ * only one or two bytes. The file is mapped in segments; the operating system pages a segment in when it is read and
+ * may page it out again if memory gets scarce, hence the records do not occupy the Java heap.
+ * <p>
+ * The temporary file is deleted by {@link #close()}. Instances are not thread-safe.
+ */
+public final class IntArraySpillFile implements Closeable {
+
+	private static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+
+	private final Path mPath;
+	private final FileChannel mChannel;
+	private final int mSegmentSize;
+	/**
+	 * Mapped segments indexed by their offset in the file.
+	 */
+	private final TreeMap<Long, MappedByteBuffer> mSegments = new TreeMap<>();
+	private MappedByteBuffer mCurrentSegment;
+	private long mCurrentSegmentOffset;
+	private long mEndOfFile;
+	private long mBytesWritten;
+	private int mRecords;
+
+	public IntArraySpillFile(final String prefix) throws IOException {
+		this(prefix, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * @param prefix
+	 *            prefix of the name of the temporary file
+	 * @param segmentSize
+	 *            number of bytes that are mapped at once (records that are larger get a segment of their own)
+	 */
+	public IntArraySpillFile(final String prefix, final int segmentSize) throws IOException {
+		if (segmentSize <= 0) {
+			throw new IllegalArgumentException("segment size must be positive");
+		}
+		mSegmentSize = segmentSize;
+		mPath = Files.createTempFile(prefix, ".spill");
+		try {
+			mChannel = FileChannel.open(mPath, StandardOpenOption.READ, StandardOpenOption.WRITE,
+					StandardOpenOption.DELETE_ON_CLOSE);
+		} catch (final IOException e) {
+			Files.deleteIfExists(mPath);
+			throw e;
+		}
+	}
+
+	/**
+	 * Append a record.
+	 *
+	 * @return handle that {@link #read(long)} accepts
+	 */
+	public long write(final int[] values) {
+		final int maxSize = (values.length + 1) * VarIntUtils.MAX_BYTES;
+		if (mCurrentSegment == null || mCurrentSegment.remaining() < maxSize) {
+			newSegment(maxSize);
+		}
+		final int start = mCurrentSegment.position();
+		VarIntUtils.write(mCurrentSegment, values.length);
+		for (final int value : values) {
+			VarIntUtils.write(mCurrentSegment, value);
+		}
+		mBytesWritten += mCurrentSegment.position() - start;
+		++mRecords;
+		return mCurrentSegmentOffset + start;
+	}
+
+	/**
+	 * Decode a record that was written by {@link #write(int[])}.
+	 */
+	public int[] read(final long handle) {
+		final Entry<Long, MappedByteBuffer> segment = mSegments.floorEntry(handle);
+		if (segment == null) {
+			throw new IllegalArgumentException("unknown handle " + handle);
+		}
+		final ByteBuffer buffer = segment.getValue().duplicate();
+		buffer.position((int) (handle - segment.getKey()));
+		final int[] result = new int[VarIntUtils.read(buffer)];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = VarIntUtils.read(buffer);
+		}
+		return result;
+	}
+
+	/**
+	 * @return number of records written so far
+	 */
+	public int getNumberOfRecords() {
+		return mRecords;
+	}
+
+	/**
+	 * @return number of bytes that the records occupy in the file, without the unused ends of the segments
+	 */
+	public long getBytesWritten() {
+		return mBytesWritten;
+	}
+
+	@Override
+	public void close() throws IOException {
+		mSegments.clear();
+		mCurrentSegment = null;
+		mChannel.close();
+	}
+
+	private void newSegment(final int minimalSize) {
+		final int size = Math.max(mSegmentSize, minimalSize);
+		try {
+			// segments are mapped consecutively, a partially used segment is never written again
+			mCurrentSegment = mChannel.map(MapMode.READ_WRITE, mEndOfFile, size);
+		} catch (final IOException e) {
+			throw new UncheckedIOException("unable to extend spill file " + mPath, e);
+		}
+		mCurrentSegmentOffset = mEndOfFile;
+		mEndOfFile += size;
+		mSegments.put(mCurrentSegmentOffset, mCurrentSegment);
+	}
+}
@@ -36,6 +36,8 @@ import java.util.Comparator;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * A UnifyHash is a collection that helps to implement the fly-weight design
@@ -431,6 +433,31 @@ public class UnifyHash<E> extends AbstractCollection<E> {
 		return o;
 	}
 
+	/**
+	 * Returns an object with the given hash code that is equal to the object
+	 * described by the caller, or creates it and adds it to this collection.
+	 * This is the same as the iterate-and-put loop in the class description,
+	 * but subclasses may perform it atomically.
+	 * 
+	 * @param hash
+	 *            the hash code of the object.
+	 * @param isEqual
+	 *            checks if an object in this hash is the requested object.
+	 * @param creator
+	 *            creates the object if there is no equal object in this hash.
+	 * @return the unique object with this hash code that satisfies isEqual.
+	 */
+	public E unify(final int hash, final Predicate<? super E> isEqual, final Supplier<? extends E> creator) {
+		for (final E old : iterateHashCode(hash)) {
+			if (isEqual.test(old)) {
+				return old;
+			}
+		}
+		final E o = creator.get();
+		put(hash, o);
+		return o;
+	}
+
 	private void writeObject(ObjectOutputStream oos) throws IOException {
 		oos.defaultWriteObject();
 		oos.writeInt(mBuckets.length);
@@ -87,12 +87,24 @@ public class SccComputation<NODE, COMP extends StronglyConnectedComponent<NODE>>
 	public SccComputation(final ILogger logger, final ISuccessorProvider<NODE> successorProvider,
 			final IStronglyConnectedComponentFactory<NODE, COMP> sccFac, final int numberOfAllNodes,
 			final Set<NODE> startNodes) {
+		this(logger, successorProvider, sccFac, numberOfAllNodes);
+		computeSccs(startNodes);
+	}
+
+	/**
+	 * Constructor for subclasses that need to be initialized before the SCCs are computed by
+	 * {@link #computeSccs(Set)}.
+	 */
+	protected SccComputation(final ILogger logger, final ISuccessorProvider<NODE> successorProvider,
+			final IStronglyConnectedComponentFactory<NODE, COMP> sccFac, final int numberOfAllNodes) {
 		super();
 		mLogger = logger;
 		mSccFactory = sccFac;
 		mSuccessorProvider = successorProvider;
 		mNumberOfAllStates = numberOfAllNodes;
+	}
 
+	protected void computeSccs(final Set<NODE> startNodes) {
 		for (final NODE node : startNodes) {
 			if (!mIndices.containsKey(node)) {
 				strongconnect(node);
@@ -289,14 +301,25 @@ public class SccComputation<NODE, COMP extends StronglyConnectedComponent<NODE>>
 
 	protected void establishNewComponent(final NODE v) {
 		NODE w;
-		final COMP scc = mSccFactory.constructNewSCComponent();
+		final COMP scc = constructNewSCComponent();
 		do {
 			w = mNoScc.pop();
 			scc.addNode(w);
 		} while (v != w);
 		scc.setRootNode(w);
+		addComponent(scc, isBall(scc));
+	}
+
+	protected COMP constructNewSCComponent() {
+		return mSccFactory.constructNewSCComponent();
+	}
+
+	/**
+	 * Adds a finished SCC. SCCs have to be added in reverse topological order.
+	 */
+	protected void addComponent(final COMP scc, final boolean isBall) {
 		mSCCs.add(scc);
-		if (isBall(scc)) {
+		if (isBall) {
 			mBalls.add(scc);
 		} else {
 			mNumberOfNonBallSCCs++;
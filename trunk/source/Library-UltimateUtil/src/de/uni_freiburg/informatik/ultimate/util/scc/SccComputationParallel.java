@@ -0,0 +1,447 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Util Library.
+ *
+ * The ULTIMATE Util Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Util Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Util Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Util Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Util Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.util.scc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.util.ParallelUtils;
+
+/**
+ * Multi-threaded implementation of {@link SccComputation}.
+ * <p>
+ * First, the graph that is reachable from the start nodes is explored level by level, the successors of the nodes of
+ * one level are computed in parallel and stored in int arrays. Then the SCCs are computed by the forward-backward
+ * algorithm with trimming (Fleischer, Hendrickson, Pinar 2000; McLendon et al. 2005): nodes without predecessors or
+ * without successors are trivial SCCs, all other nodes are split by a pivot into its SCC, the nodes that are only
+ * reachable from the pivot, the nodes that only reach the pivot, and the remaining nodes. No SCC crosses these parts,
+ * hence they are decomposed in parallel. Small parts are decomposed by Tarjan's algorithm.
+ * <p>
+ * The SCCs themselves are constructed in the calling thread and in reverse topological order as in
+ * {@link SccComputation}, hence only the {@link ISuccessorProvider} has to be thread-safe.
+ *
+ * @param <NODE>
+ *            Type of objects that represent nodes of the graph.
+ * @param <COMP>
+ *            Type of objects that represent strongly connected components.
+ */
+public class SccComputationParallel<NODE, COMP extends StronglyConnectedComponent<NODE>>
+		extends SccComputation<NODE, COMP> {
+
+	/**
+	 * Parts with at most this many nodes are decomposed sequentially.
+	 */
+	private static final int SEQUENTIAL_THRESHOLD = 4096;
+	/**
+	 * Number of nodes per task while the successors are computed.
+	 */
+	private static final int EXPLORATION_GRAIN = 256;
+	private static final int UNVISITED = -1;
+	private static final int FINISHED = -1;
+
+	private final int mThreads;
+
+	private List<NODE> mNodes;
+	private int[] mSuccOffsets;
+	private int[] mSuccs;
+	private int[] mPredOffsets;
+	private int[] mPreds;
+
+	/**
+	 * The part of the decomposition to which a node belongs, or {@link #FINISHED} if its SCC was already found. Each
+	 * part has its own color and parts are disjoint, hence concurrent tasks write the entries of different nodes. A
+	 * task reads the colors of nodes of other parts only to see that they differ from its own color, and the colors
+	 * of other parts never change to the color of this task.
+	 */
+	private int[] mColors;
+	private final AtomicInteger mNextColor = new AtomicInteger(1);
+	private int[] mInDegrees;
+	private int[] mOutDegrees;
+	private int[] mTarjanIndices;
+	private int[] mTarjanLowLinks;
+	private int[] mTarjanEdges;
+	private boolean[] mTarjanOnStack;
+	private final Queue<int[]> mComponents = new ConcurrentLinkedQueue<>();
+
+	public SccComputationParallel(final ILogger logger, final ISuccessorProvider<NODE> successorProvider,
+			final IStronglyConnectedComponentFactory<NODE, COMP> sccFac, final int numberOfAllNodes,
+			final Set<NODE> startNodes, final int threads) {
+		super(logger, successorProvider, sccFac, numberOfAllNodes);
+		mThreads = threads;
+		computeSccs(startNodes);
+	}
+
+	@Override
+	protected void computeSccs(final Set<NODE> startNodes) {
+		final ForkJoinPool pool = new ForkJoinPool(mThreads);
+		try {
+			exploreGraph(pool, startNodes);
+			final int numberOfNodes = mNodes.size();
+			mColors = new int[numberOfNodes];
+			mInDegrees = new int[numberOfNodes];
+			mOutDegrees = new int[numberOfNodes];
+			mTarjanIndices = new int[numberOfNodes];
+			Arrays.fill(mTarjanIndices, UNVISITED);
+			mTarjanLowLinks = new int[numberOfNodes];
+			mTarjanEdges = new int[numberOfNodes];
+			mTarjanOnStack = new boolean[numberOfNodes];
+			final int[] allNodes = new int[numberOfNodes];
+			Arrays.setAll(allNodes, i -> i);
+			pool.invoke(new DecompositionTask(allNodes, 0));
+		} finally {
+			pool.shutdown();
+		}
+		addComponentsInReverseTopologicalOrder();
+		mNodes = null;
+		mSuccOffsets = mSuccs = mPredOffsets = mPreds = null;
+		mColors = mInDegrees = mOutDegrees = mTarjanIndices = mTarjanLowLinks = mTarjanEdges = null;
+		mTarjanOnStack = null;
+		assert automatonPartitionedBySCCs();
+	}
+
+	private void exploreGraph(final ForkJoinPool pool, final Set<NODE> startNodes) {
+		final ConcurrentHashMap<NODE, Integer> ids = new ConcurrentHashMap<>();
+		final List<NODE> nodes = new ArrayList<>();
+		final List<int[]> successors = new ArrayList<>();
+		for (final NODE node : startNodes) {
+			if (ids.putIfAbsent(node, nodes.size()) == null) {
+				nodes.add(node);
+			}
+		}
+		int levelStart = 0;
+		while (levelStart < nodes.size()) {
+			final int levelEnd = nodes.size();
+			final List<NODE> level = nodes.subList(levelStart, levelEnd);
+			final int[][] levelSuccessors = new int[level.size()][];
+			final AtomicInteger nextId = new AtomicInteger(levelEnd);
+			final Queue<NODE> discovered = new ConcurrentLinkedQueue<>();
+			ParallelUtils.parallelFor(pool, level.size(), EXPLORATION_GRAIN, i -> {
+				int[] succs = new int[4];
+				int size = 0;
+				final Iterator<NODE> it = mSuccessorProvider.getSuccessors(level.get(i));
+				while (it.hasNext()) {
+					final int id = ids.computeIfAbsent(it.next(), succ -> {
+						discovered.add(succ);
+						return nextId.getAndIncrement();
+					});
+					if (size == succs.length) {
+						succs = Arrays.copyOf(succs, 2 * size);
+					}
+					succs[size++] = id;
+				}
+				levelSuccessors[i] = Arrays.copyOf(succs, size);
+			});
+			successors.addAll(Arrays.asList(levelSuccessors));
+			final Object[] newNodes = new Object[nextId.get() - levelEnd];
+			for (final NODE node : discovered) {
+				newNodes[ids.get(node) - levelEnd] = node;
+			}
+			for (final Object node : newNodes) {
+				@SuppressWarnings("unchecked")
+				final NODE newNode = (NODE) node;
+				nodes.add(newNode);
+			}
+			levelStart = levelEnd;
+		}
+		mNodes = nodes;
+
+		final int numberOfNodes = nodes.size();
+		mSuccOffsets = new int[numberOfNodes + 1];
+		for (int node = 0; node < numberOfNodes; node++) {
+			mSuccOffsets[node + 1] = mSuccOffsets[node] + successors.get(node).length;
+		}
+		mSuccs = new int[mSuccOffsets[numberOfNodes]];
+		mPredOffsets = new int[numberOfNodes + 1];
+		for (int node = 0; node < numberOfNodes; node++) {
+			final int[] succs = successors.get(node);
+			System.arraycopy(succs, 0, mSuccs, mSuccOffsets[node], succs.length);
+			for (final int succ : succs) {
+				mPredOffsets[succ + 1]++;
+			}
+		}
+		for (int node = 0; node < numberOfNodes; node++) {
+			mPredOffsets[node + 1] += mPredOffsets[node];
+		}
+		mPreds = new int[mSuccs.length];
+		final int[] next = Arrays.copyOf(mPredOffsets, numberOfNodes);
+		for (int node = 0; node < numberOfNodes; node++) {
+			for (int i = mSuccOffsets[node]; i < mSuccOffsets[node + 1]; i++) {
+				mPreds[next[mSuccs[i]]++] = node;
+			}
+		}
+	}
+
+	/**
+	 * Decomposes the nodes of one color into SCCs.
+	 */
+	private final class DecompositionTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int[] mMembers;
+		private final int mColor;
+
+		private DecompositionTask(final int[] members, final int color) {
+			mMembers = members;
+			mColor = color;
+		}
+
+		@Override
+		protected void compute() {
+			final int[] members = trim(mMembers, mColor);
+			if (members.length <= SEQUENTIAL_THRESHOLD) {
+				tarjan(members, mColor);
+				return;
+			}
+			final int pivot = members[0];
+			final int forwardColor = mNextColor.getAndIncrement();
+			final int backwardColor = mNextColor.getAndIncrement();
+			final int[] queue = new int[members.length];
+
+			int head = 0;
+			int tail = 0;
+			mColors[pivot] = forwardColor;
+			queue[tail++] = pivot;
+			while (head < tail) {
+				final int node = queue[head++];
+				for (int i = mSuccOffsets[node]; i < mSuccOffsets[node + 1]; i++) {
+					final int succ = mSuccs[i];
+					if (mColors[succ] == mColor) {
+						mColors[succ] = forwardColor;
+						queue[tail++] = succ;
+					}
+				}
+			}
+
+			// nodes that are reachable from the pivot and reach the pivot form its SCC
+			final int[] component = new int[members.length];
+			int componentSize = 0;
+			head = 0;
+			tail = 0;
+			mColors[pivot] = FINISHED;
+			component[componentSize++] = pivot;
+			queue[tail++] = pivot;
+			while (head < tail) {
+				final int node = queue[head++];
+				for (int i = mPredOffsets[node]; i < mPredOffsets[node + 1]; i++) {
+					final int pred = mPreds[i];
+					if (mColors[pred] == forwardColor) {
+						mColors[pred] = FINISHED;
+						component[componentSize++] = pred;
+						queue[tail++] = pred;
+					} else if (mColors[pred] == mColor) {
+						mColors[pred] = backwardColor;
+						queue[tail++] = pred;
+					}
+				}
+			}
+			mComponents.add(Arrays.copyOf(component, componentSize));
+
+			final List<DecompositionTask> parts = new ArrayList<>(3);
+			for (final int color : new int[] { forwardColor, backwardColor, mColor }) {
+				final int[] part = Arrays.stream(members).filter(node -> mColors[node] == color).toArray();
+				if (part.length > 0) {
+					parts.add(new DecompositionTask(part, color));
+				}
+			}
+			invokeAll(parts);
+		}
+	}
+
+	/**
+	 * Removes the nodes of a color that have no predecessor or no successor of this color, these nodes are SCCs of
+	 * their own. Repeats until all remaining nodes have predecessors and successors.
+	 *
+	 * @return the remaining nodes
+	 */
+	private int[] trim(final int[] members, final int color) {
+		final int[] queue = new int[members.length];
+		int head = 0;
+		int tail = 0;
+		for (final int node : members) {
+			mOutDegrees[node] = 0;
+			for (int i = mSuccOffsets[node]; i < mSuccOffsets[node + 1]; i++) {
+				if (mColors[mSuccs[i]] == color) {
+					mOutDegrees[node]++;
+				}
+			}
+			mInDegrees[node] = 0;
+			for (int i = mPredOffsets[node]; i < mPredOffsets[node + 1]; i++) {
+				if (mColors[mPreds[i]] == color) {
+					mInDegrees[node]++;
+				}
+			}
+		}
+		for (final int node : members) {
+			if (mOutDegrees[node] == 0 || mInDegrees[node] == 0) {
+				mColors[node] = FINISHED;
+				queue[tail++] = node;
+			}
+		}
+		while (head < tail) {
+			final int node = queue[head++];
+			mComponents.add(new int[] { node });
+			for (int i = mSuccOffsets[node]; i < mSuccOffsets[node + 1]; i++) {
+				final int succ = mSuccs[i];
+				if (mColors[succ] == color && --mInDegrees[succ] == 0) {
+					mColors[succ] = FINISHED;
+					queue[tail++] = succ;
+				}
+			}
+			for (int i = mPredOffsets[node]; i < mPredOffsets[node + 1]; i++) {
+				final int pred = mPreds[i];
+				if (mColors[pred] == color && --mOutDegrees[pred] == 0) {
+					mColors[pred] = FINISHED;
+					queue[tail++] = pred;
+				}
+			}
+		}
+		if (tail == 0) {
+			return members;
+		}
+		return Arrays.stream(members).filter(node -> mColors[node] == color).toArray();
+	}
+
+	/**
+	 * Non-recursive Tarjan algorithm on the nodes of a color.
+	 */
+	private void tarjan(final int[] members, final int color) {
+		final int[] stack = new int[members.length];
+		int stackSize = 0;
+		final int[] callStack = new int[members.length];
+		int callStackSize = 0;
+		int index = 0;
+		for (final int root : members) {
+			if (mTarjanIndices[root] != UNVISITED) {
+				continue;
+			}
+			mTarjanIndices[root] = mTarjanLowLinks[root] = index++;
+			mTarjanEdges[root] = mSuccOffsets[root];
+			mTarjanOnStack[root] = true;
+			stack[stackSize++] = root;
+			callStack[callStackSize++] = root;
+			while (callStackSize > 0) {
+				final int node = callStack[callStackSize - 1];
+				if (mTarjanEdges[node] < mSuccOffsets[node + 1]) {
+					final int succ = mSuccs[mTarjanEdges[node]++];
+					if (mColors[succ] != color) {
+						continue;
+					}
+					if (mTarjanIndices[succ] == UNVISITED) {
+						mTarjanIndices[succ] = mTarjanLowLinks[succ] = index++;
+						mTarjanEdges[succ] = mSuccOffsets[succ];
+						mTarjanOnStack[succ] = true;
+						stack[stackSize++] = succ;
+						callStack[callStackSize++] = succ;
+					} else if (mTarjanOnStack[succ]) {
+						mTarjanLowLinks[node] = Math.min(mTarjanLowLinks[node], mTarjanIndices[succ]);
+					}
+					continue;
+				}
+				callStackSize--;
+				if (mTarjanLowLinks[node] == mTarjanIndices[node]) {
+					int start = stackSize;
+					do {
+						start--;
+						mTarjanOnStack[stack[start]] = false;
+						mColors[stack[start]] = FINISHED;
+					} while (stack[start] != node);
+					// the root of the SCC is the first node of the component
+					mComponents.add(Arrays.copyOfRange(stack, start, stackSize));
+					stackSize = start;
+				}
+				if (callStackSize > 0) {
+					final int pred = callStack[callStackSize - 1];
+					mTarjanLowLinks[pred] = Math.min(mTarjanLowLinks[pred], mTarjanLowLinks[node]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Constructs the SCCs such that an SCC is added after all SCCs that are reachable from it.
+	 */
+	private void addComponentsInReverseTopologicalOrder() {
+		final List<int[]> components = new ArrayList<>(mComponents);
+		final int[] componentOf = new int[mNodes.size()];
+		for (int component = 0; component < components.size(); component++) {
+			for (final int node : components.get(component)) {
+				componentOf[node] = component;
+			}
+		}
+		final int[] outDegrees = new int[components.size()];
+		for (int node = 0; node < mNodes.size(); node++) {
+			for (int i = mSuccOffsets[node]; i < mSuccOffsets[node + 1]; i++) {
+				if (componentOf[mSuccs[i]] != componentOf[node]) {
+					outDegrees[componentOf[node]]++;
+				}
+			}
+		}
+		final int[] order = new int[components.size()];
+		int head = 0;
+		int tail = 0;
+		for (int component = 0; component < components.size(); component++) {
+			if (outDegrees[component] == 0) {
+				order[tail++] = component;
+			}
+		}
+		while (head < tail) {
+			final int component = order[head++];
+			final int[] nodes = components.get(component);
+			final COMP scc = constructNewSCComponent();
+			for (final int node : nodes) {
+				scc.addNode(mNodes.get(node));
+				for (int i = mPredOffsets[node]; i < mPredOffsets[node + 1]; i++) {
+					final int predComponent = componentOf[mPreds[i]];
+					if (predComponent != component && --outDegrees[predComponent] == 0) {
+						order[tail++] = predComponent;
+					}
+				}
+			}
+			scc.setRootNode(mNodes.get(nodes[0]));
+			addComponent(scc, nodes.length > 1 || hasSelfLoop(nodes[0]));
+		}
+		assert tail == components.size() : "SCCs do not form a DAG";
+	}
+
+	private boolean hasSelfLoop(final int node) {
+		for (int i = mSuccOffsets[node]; i < mSuccOffsets[node + 1]; i++) {
+			if (mSuccs[i] == node) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
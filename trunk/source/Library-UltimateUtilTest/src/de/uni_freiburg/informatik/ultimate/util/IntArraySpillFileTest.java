@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Util Library.
+ *
+ * The ULTIMATE Util Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Util Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Util Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Util Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Util Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.util.datastructures.IntArraySpillFile;
+
+/**
+ * Some basic tests for {@link IntArraySpillFile}.
+ */
+public class IntArraySpillFileTest {
+
+	@Test
+	public void testEmptyAndExtremeValues() throws IOException {
+		try (final IntArraySpillFile file = new IntArraySpillFile("test")) {
+			final int[] empty = {};
+			final int[] extreme = { 0, 127, 128, Integer.MAX_VALUE, Integer.MIN_VALUE, -1 };
+			final long emptyHandle = file.write(empty);
+			final long extremeHandle = file.write(extreme);
+			assertArrayEquals(empty, file.read(emptyHandle));
+			assertArrayEquals(extreme, file.read(extremeHandle));
+			assertEquals(2, file.getNumberOfRecords());
+			// one byte for each length, 0 and 127 need one byte, 128 needs two, the others five
+			assertEquals(2 + 1 + 1 + 2 + 5 + 5 + 5, file.getBytesWritten());
+		}
+	}
+
+	@Test
+	public void testRecordsInSeveralSegments() throws IOException {
+		final Random random = new Random(42);
+		final List<int[]> records = new ArrayList<>();
+		final List<Long> handles = new ArrayList<>();
+		// small segments such that some records are larger than a segment
+		try (final IntArraySpillFile file = new IntArraySpillFile("test", 64)) {
+			for (int i = 0; i < 500; i++) {
+				final int[] record = new int[random.nextInt(50)];
+				for (int j = 0; j < record.length; j++) {
+					record[j] = random.nextInt(1000);
+				}
+				records.add(record);
+				handles.add(file.write(record));
+			}
+			for (int i = 0; i < records.size(); i++) {
+				assertArrayEquals(records.get(i), file.read(handles.get(i)));
+			}
+			// the unused ends of the segments do not count
+			long bytes = 0;
+			for (final int[] record : records) {
+				bytes += 1 + Arrays.stream(record).map(value -> value < 128 ? 1 : 2).sum();
+			}
+			assertEquals(bytes, file.getBytesWritten());
+		}
+	}
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ * Copyright (C) 2019 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Util Library.
+ *
+ * The ULTIMATE Util Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Util Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Util Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Util Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Util Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.util.scc;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.test.mocks.ConsoleLogger;
+import de.uni_freiburg.informatik.ultimate.util.scc.SccComputation.ISuccessorProvider;
+
+/**
+ * Compares {@link SccComputationParallel} with {@link SccComputationNonRecursive} on random graphs. Graphs with more
+ * than 4096 reachable nodes are split by the forward-backward algorithm, smaller ones are handled by Tarjan's algorithm
+ * only.
+ */
+public class SccComputationParallelTest {
+
+	private static final int THREADS = 4;
+
+	private final ILogger mLogger = new ConsoleLogger();
+
+	@Test
+	public void smallGraphs() {
+		final Random random = new Random(42);
+		for (int i = 0; i < 200; i++) {
+			final int nodes = 1 + random.nextInt(100);
+			assertSameSccs(randomGraph(random, nodes, random.nextDouble() * 3), randomStartNodes(random, nodes, 3));
+		}
+	}
+
+	@Test
+	public void largeSparseGraphs() {
+		final Random random = new Random(4711);
+		for (int i = 0; i < 10; i++) {
+			final int nodes = 5_000 + random.nextInt(20_000);
+			assertSameSccs(randomGraph(random, nodes, 0.8 + random.nextDouble()), randomStartNodes(random, nodes, 20));
+		}
+	}
+
+	@Test
+	public void largeDenseGraphs() {
+		final Random random = new Random(1337);
+		for (int i = 0; i < 5; i++) {
+			final int nodes = 5_000 + random.nextInt(10_000);
+			assertSameSccs(randomGraph(random, nodes, 2 + 3 * random.nextDouble()), randomStartNodes(random, nodes, 1));
+		}
+	}
+
+	/**
+	 * Many small cycles that are connected in a chain, hence there are many non-trivial SCCs and a deep DAG of SCCs.
+	 */
+	@Test
+	public void chainOfCycles() {
+		final Random random = new Random(7);
+		final int nodes = 30_000;
+		final List<List<Integer>> graph = new ArrayList<>();
+		for (int node = 0; node < nodes; node++) {
+			final List<Integer> succs = new ArrayList<>();
+			if (node % 10 != 9) {
+				succs.add(node + 1);
+			} else {
+				succs.add(node - 9);
+				if (node + 1 < nodes) {
+					succs.add(node + 1);
+				}
+			}
+			if (random.nextInt(100) == 0) {
+				succs.add(random.nextInt(nodes));
+			}
+			graph.add(succs);
+		}
+		final Set<Integer> start = new HashSet<>();
+		start.add(0);
+		assertSameSccs(graph, start);
+	}
+
+	private static List<List<Integer>> randomGraph(final Random random, final int nodes,
+			final double averageOutDegree) {
+		final List<List<Integer>> graph = new ArrayList<>(nodes);
+		for (int node = 0; node < nodes; node++) {
+			graph.add(new ArrayList<>());
+		}
+		final long edges = Math.round(nodes * averageOutDegree);
+		for (long i = 0; i < edges; i++) {
+			graph.get(random.nextInt(nodes)).add(random.nextInt(nodes));
+		}
+		return graph;
+	}
+
+	private static Set<Integer> randomStartNodes(final Random random, final int nodes, final int number) {
+		final Set<Integer> result = new HashSet<>();
+		for (int i = 0; i < number; i++) {
+			result.add(random.nextInt(nodes));
+		}
+		return result;
+	}
+
+	private void assertSameSccs(final List<List<Integer>> graph, final Set<Integer> start) {
+		final ISuccessorProvider<Integer> successors = node -> graph.get(node).iterator();
+		final int reachable = countReachableNodes(graph, start);
+		final SccComputation<Integer, StronglyConnectedComponent<Integer>> expected = new SccComputationNonRecursive<>(
+				mLogger, successors, StronglyConnectedComponent::new, reachable, start);
+		final SccComputation<Integer, StronglyConnectedComponent<Integer>> actual = new SccComputationParallel<>(
+				mLogger, successors, StronglyConnectedComponent::new, reachable, start, THREADS);
+
+		Assert.assertEquals(nodeSets(expected.getSCCs()), nodeSets(actual.getSCCs()));
+		Assert.assertEquals(nodeSets(expected.getBalls()), nodeSets(actual.getBalls()));
+		Assert.assertEquals(nodeSets(expected.getRootComponents()), nodeSets(actual.getRootComponents()));
+		for (final StronglyConnectedComponent<Integer> scc : actual.getSCCs()) {
+			Assert.assertTrue(scc.getNodes().contains(scc.getRootNode()));
+		}
+		assertReverseTopologicalOrder(actual);
+	}
+
+	private static int countReachableNodes(final List<List<Integer>> graph, final Set<Integer> start) {
+		final Set<Integer> visited = new HashSet<>(start);
+		final Deque<Integer> worklist = new ArrayDeque<>(start);
+		while (!worklist.isEmpty()) {
+			for (final Integer succ : graph.get(worklist.pop())) {
+				if (visited.add(succ)) {
+					worklist.push(succ);
+				}
+			}
+		}
+		return visited.size();
+	}
+
+	/**
+	 * Every SCC is added after the SCCs that are reachable from it.
+	 */
+	private static void assertReverseTopologicalOrder(
+			final SccComputation<Integer, StronglyConnectedComponent<Integer>> sccs) {
+		final Map<StronglyConnectedComponent<Integer>, Integer> position = new HashMap<>();
+		for (final StronglyConnectedComponent<Integer> scc : sccs.getSCCs()) {
+			position.put(scc, position.size());
+		}
+		final ISuccessorProvider<StronglyConnectedComponent<Integer>> successors =
+				sccs.getComponentsSuccessorsProvider();
+		for (final StronglyConnectedComponent<Integer> scc : sccs.getSCCs()) {
+			successors.getSuccessors(scc)
+					.forEachRemaining(succ -> Assert.assertTrue(position.get(succ) < position.get(scc)));
+		}
+	}
+
+	private static Set<Set<Integer>> nodeSets(final Collection<StronglyConnectedComponent<Integer>> sccs) {
+		final Set<Set<Integer>> result = new HashSet<>();
+		for (final StronglyConnectedComponent<Integer> scc : sccs) {
+			Assert.assertTrue("SCC occurs twice", result.add(scc.getNodes()));
+		}
+		return result;
+	}
+}
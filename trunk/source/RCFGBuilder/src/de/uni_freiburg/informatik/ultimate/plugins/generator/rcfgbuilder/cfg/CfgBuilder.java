@@ -380,13 +380,15 @@ public class CfgBuilder {
 
 		final Logics logicForExternalSolver =
 				Logics.valueOf(prefs.getString(RcfgPreferenceInitializer.LABEL_EXT_SOLVER_LOGIC));
+		final boolean useSatisfiabilityCache = prefs.getBoolean(RcfgPreferenceInitializer.LABEL_SATISFIABILITY_CACHE);
 		final SolverSettings solverSettings =
 				SolverBuilder.constructSolverSettings().setUseFakeIncrementalScript(fakeNonIncrementalScript)
 						.setDumpSmtScriptToFile(dumpSmtScriptToFile, pathOfDumpedScript, filename, compressSmtScript)
 						.setDumpUnsatCoreTrackBenchmark(dumpUnsatCoreTrackBenchmark)
 						.setDumpMainTrackBenchmark(dumpMainTrackBenchmark)
 						.setUseExternalSolver(true, commandExternalSolver, logicForExternalSolver)
-						.setSolverMode(solverMode).setAdditionalOptions(additionalSmtOptions);
+						.setSolverMode(solverMode).setAdditionalOptions(additionalSmtOptions)
+						.setUseSatisfiabilityCache(useSatisfiabilityCache);
 
 		return SolverBuilder.buildAndInitializeSolver(services, solverSettings, "CfgBuilderScript");
 	}
@@ -98,6 +98,11 @@ public class RcfgPreferenceInitializer extends UltimatePreferenceInitializer {
 	public static final boolean DEF_SIMPLE_PARTIAL_SKOLEMIZATION = true;
 	public static final String LABEL_ADDITIONAL_SMT_OPTIONS = "Additional SMT options";
 	public static final Map<String, String> DEF_ADDITIONAL_SMT_OPTIONS = Collections.emptyMap();
+	public static final String LABEL_SATISFIABILITY_CACHE = "Cache satisfiability results";
+	public static final boolean DEF_SATISFIABILITY_CACHE = true;
+	private static final String DESC_SATISFIABILITY_CACHE =
+			"Answer satisfiability checks of the solver of the control flow graph from a cache shared by all solvers of "
+					+ "the toolchain if the same formulas were already checked up to renaming.";
 	public static final String LABEL_REMOVE_ASSUME_TRUE = "Remove assume true statements";
 	private static final boolean DEF_REMOVE_ASSUME_TRUE = true;
 	private static final String DESC_REMOVE_ASSUME_TRUE =
@@ -134,6 +139,8 @@ public class RcfgPreferenceInitializer extends UltimatePreferenceInitializer {
 				new UltimatePreferenceItem<>(LABEL_DUMP_PATH, DEF_DUMP_PATH, PreferenceType.Directory),
 				new UltimatePreferenceItem<>(LABEL_ADDITIONAL_SMT_OPTIONS, DEF_ADDITIONAL_SMT_OPTIONS,
 						PreferenceType.KeyValue),
+				new UltimatePreferenceItem<>(LABEL_SATISFIABILITY_CACHE, DEF_SATISFIABILITY_CACHE,
+						DESC_SATISFIABILITY_CACHE, PreferenceType.Boolean),
 
 		};
 	}
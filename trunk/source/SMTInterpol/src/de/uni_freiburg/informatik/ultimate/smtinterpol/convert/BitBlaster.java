@@ -0,0 +1,874 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of SMTInterpol.
+ *
+ * SMTInterpol is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SMTInterpol is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SMTInterpol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_freiburg.informatik.ultimate.smtinterpol.convert;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.uni_freiburg.informatik.ultimate.logic.AnnotatedTerm;
+import de.uni_freiburg.informatik.ultimate.logic.ApplicationTerm;
+import de.uni_freiburg.informatik.ultimate.logic.FormulaUnLet;
+import de.uni_freiburg.informatik.ultimate.logic.FunctionSymbol;
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBConstants;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.TermTransformer;
+import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
+import de.uni_freiburg.informatik.ultimate.logic.Theory;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.model.BitVectorSortInterpretation;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.model.FunctionValue;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.model.Model;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.ScopedHashMap;
+
+/**
+ * Translate the quantifier-free theory of fixed-size bit-vectors into propositional logic.
+ *
+ * Every atom with bit-vector arguments is replaced by a formula over the bits of the arguments before the formula is
+ * compiled. The bits of an uninterpreted bit-vector constant are fresh Boolean constants. The circuits for the
+ * bit-vector operations are built from and-, xor-, and ite-gates; each gate is represented by a fresh Boolean constant
+ * whose defining clauses are returned by {@link #getNewDefinitions()}. Gates are hashed structurally and simplified if
+ * an input is constant or two inputs are equal, which also performs the usual word-level simplifications like constant
+ * folding, {@code (bvsub x x) = 0}, or extraction from a concatenation.
+ *
+ * All caches are scoped, bits and gates that were created after a push are forgotten by the corresponding pop. The
+ * function symbols of the forgotten bits are reused, so the number of declared bits does not grow with the number of
+ * push/pop pairs.
+ *
+ * The translation is eager: all circuits of a formula are built when the formula is asserted.
+ *
+ * Only QF_BV is supported. Bit-vector atoms are rejected if interpolants or proofs are produced (the definitions of
+ * the gates are neither partitioned nor explained by proof rules), and bit-vectors must not occur as arguments of
+ * uninterpreted functions or arrays. Interpolating trace checks and programs over arrays of bit-vectors therefore still
+ * need an external solver.
+ */
+public class BitBlaster {
+
+	private static final String BIT_PREFIX = "@bit";
+
+	private final Theory mTheory;
+	/**
+	 * The bits of the bit-vector terms that were translated so far, the least significant bit first.
+	 */
+	private final ScopedHashMap<Term, Term[]> mBits = new ScopedHashMap<>();
+	/**
+	 * The gates that were created so far and the Boolean constant that represents the output of the gate.
+	 */
+	private final ScopedHashMap<Term, Term> mGates = new ScopedHashMap<>();
+	/**
+	 * The defining clauses of the gates that were created since the last call of {@link #getNewDefinitions()}.
+	 */
+	private final List<Term> mDefinitions = new ArrayList<>();
+	private int mBitCounter = 0;
+	/**
+	 * The value of {@link #mBitCounter} at each push.
+	 */
+	private final ArrayDeque<Integer> mBitCounterStack = new ArrayDeque<>();
+	/**
+	 * The feature that cannot be combined with bit-vectors, or null if bit-vector atoms are translated.
+	 */
+	private String mUnsupportedFeature;
+
+	public BitBlaster(final Theory theory) {
+		mTheory = theory;
+	}
+
+	public static boolean isBitSymbol(final FunctionSymbol fsym) {
+		return fsym.isIntern() && fsym.getName().startsWith(BIT_PREFIX);
+	}
+
+	/**
+	 * Reject every formula that contains a bit-vector atom. This is needed if the solver has to justify its result,
+	 * since the definitions of the gates are neither named nor explained by proof rules.
+	 *
+	 * @param feature
+	 *            the feature that cannot be combined with bit-vectors, e.g., "interpolation".
+	 */
+	public void disable(final String feature) {
+		mUnsupportedFeature = feature;
+	}
+
+	public void push() {
+		assert mDefinitions.isEmpty();
+		mBits.beginScope();
+		mGates.beginScope();
+		mBitCounterStack.push(mBitCounter);
+	}
+
+	public void pop() {
+		assert mDefinitions.isEmpty();
+		mBits.endScope();
+		mGates.endScope();
+		// no bit that was created after the push is used anymore
+		mBitCounter = mBitCounterStack.pop();
+	}
+
+	/**
+	 * Replace all atoms with bit-vector arguments by their propositional encoding.
+	 *
+	 * @param formula
+	 *            a let-free formula.
+	 * @return the encoded formula. It is only equisatisfiable together with the clauses returned by
+	 *         {@link #getNewDefinitions()}.
+	 */
+	public Term blast(final Term formula) {
+		return new AtomTranslator().transform(formula);
+	}
+
+	/**
+	 * Get the clauses that define the gates that were created since the last call.
+	 */
+	public List<Term> getNewDefinitions() {
+		final List<Term> result = new ArrayList<>(mDefinitions);
+		mDefinitions.clear();
+		return result;
+	}
+
+	/**
+	 * Assign to each uninterpreted bit-vector constant the value of its bits.
+	 */
+	public void fillInModel(final Model model) {
+		for (final Map.Entry<Term, Term[]> entry : mBits.entrySet()) {
+			if (!(entry.getKey() instanceof ApplicationTerm)) {
+				continue;
+			}
+			final ApplicationTerm constant = (ApplicationTerm) entry.getKey();
+			final FunctionSymbol fsym = constant.getFunction();
+			if (fsym.isIntern() || fsym.getDefinition() != null || constant.getParameters().length > 0) {
+				continue;
+			}
+			final Term[] bits = entry.getValue();
+			BigInteger value = BigInteger.ZERO;
+			for (int i = 0; i < bits.length; i++) {
+				final FunctionValue bitValue =
+						model.getFunctionValue(((ApplicationTerm) bits[i]).getFunction());
+				if (bitValue != null && bitValue.getDefault() == mTheory.mTrue) {
+					value = value.setBit(i);
+				}
+			}
+			model.map(fsym, BitVectorSortInterpretation.toTerm(value, fsym.getReturnSort()));
+		}
+	}
+
+	/**
+	 * Translates the Boolean structure of a formula and replaces the atoms over bit-vectors.
+	 */
+	private class AtomTranslator extends TermTransformer {
+		@Override
+		protected void convert(final Term term) {
+			if (BitVectorSortInterpretation.isBitVecSort(term.getSort())) {
+				throw unsupported(term);
+			}
+			if (term instanceof ApplicationTerm) {
+				final ApplicationTerm appTerm = (ApplicationTerm) term;
+				if (hasBitVecParameter(appTerm)) {
+					if (mUnsupportedFeature != null) {
+						throw new UnsupportedOperationException(
+								"Bit-vectors are not supported together with " + mUnsupportedFeature);
+					}
+					if (appTerm.getFunction().getDefinition() != null) {
+						pushTerm(expandDefinition(appTerm));
+					} else {
+						setResult(translateAtom(appTerm));
+					}
+					return;
+				}
+			}
+			super.convert(term);
+		}
+	}
+
+	private static boolean hasBitVecParameter(final ApplicationTerm appTerm) {
+		for (final Term param : appTerm.getParameters()) {
+			if (BitVectorSortInterpretation.isBitVecSort(param.getSort())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Term expandDefinition(final ApplicationTerm appTerm) {
+		final FunctionSymbol fsym = appTerm.getFunction();
+		final Term[] params = appTerm.getParameters();
+		final HashMap<TermVariable, Term> substs = new HashMap<>();
+		for (int i = 0; i < params.length; i++) {
+			substs.put(fsym.getDefinitionVars()[i], params[i]);
+		}
+		final FormulaUnLet unletter = new FormulaUnLet();
+		unletter.addSubstitutions(substs);
+		return unletter.unlet(fsym.getDefinition());
+	}
+
+	private static UnsupportedOperationException unsupported(final Term term) {
+		// e.g., bit-vectors as arguments of uninterpreted functions or arrays
+		return new UnsupportedOperationException("Unsupported bit-vector term " + term);
+	}
+
+	private Term translateAtom(final ApplicationTerm atom) {
+		final FunctionSymbol fsym = atom.getFunction();
+		final Term[] params = atom.getParameters();
+		if (!fsym.isIntern()) {
+			throw unsupported(atom);
+		}
+		if (fsym.getName() == SMTLIBConstants.DISTINCT) {
+			final Term[] conjuncts = new Term[params.length * (params.length - 1) / 2];
+			int pos = 0;
+			for (int i = 0; i < params.length; i++) {
+				for (int j = i + 1; j < params.length; j++) {
+					conjuncts[pos++] = not(translateComparison(SMTLIBConstants.EQUALS, params[i], params[j]));
+				}
+			}
+			return conjunction(conjuncts);
+		}
+		// all other predicates are chainable
+		final Term[] conjuncts = new Term[params.length - 1];
+		for (int i = 0; i < params.length - 1; i++) {
+			conjuncts[i] = translateComparison(fsym.getName(), params[i], params[i + 1]);
+		}
+		return conjunction(conjuncts);
+	}
+
+	private Term translateComparison(final String predicate, final Term lhs, final Term rhs) {
+		if (lhs == rhs) {
+			switch (predicate) {
+			case SMTLIBConstants.EQUALS:
+			case "bvule":
+			case "bvuge":
+			case "bvsle":
+			case "bvsge":
+				return mTheory.mTrue;
+			case "bvult":
+			case "bvugt":
+			case "bvslt":
+			case "bvsgt":
+				return mTheory.mFalse;
+			default:
+				throw new UnsupportedOperationException("Unsupported bit-vector predicate " + predicate);
+			}
+		}
+		final Term[] a = getBits(lhs);
+		final Term[] b = getBits(rhs);
+		switch (predicate) {
+		case SMTLIBConstants.EQUALS:
+			return equal(a, b);
+		case "bvult":
+			return lessThan(a, b);
+		case "bvule":
+			return not(lessThan(b, a));
+		case "bvugt":
+			return lessThan(b, a);
+		case "bvuge":
+			return not(lessThan(a, b));
+		case "bvslt":
+			return lessThan(flipSign(a), flipSign(b));
+		case "bvsle":
+			return not(lessThan(flipSign(b), flipSign(a)));
+		case "bvsgt":
+			return lessThan(flipSign(b), flipSign(a));
+		case "bvsge":
+			return not(lessThan(flipSign(a), flipSign(b)));
+		default:
+			throw new UnsupportedOperationException("Unsupported bit-vector predicate " + predicate);
+		}
+	}
+
+	/**
+	 * Get the bits of a bit-vector term. The bits of all sub-terms are computed first, without recursion.
+	 */
+	private Term[] getBits(final Term term) {
+		final ArrayDeque<Term> todo = new ArrayDeque<>();
+		todo.push(term);
+		while (!todo.isEmpty()) {
+			final Term current = todo.peek();
+			if (mBits.containsKey(current)) {
+				todo.pop();
+				continue;
+			}
+			boolean ready = true;
+			for (final Term sub : getBitVecSubterms(current)) {
+				if (!mBits.containsKey(sub)) {
+					todo.push(sub);
+					ready = false;
+				}
+			}
+			if (ready) {
+				todo.pop();
+				final Term[] bits = computeBits(current);
+				assert bits.length == BitVectorSortInterpretation.getWidth(current.getSort());
+				mBits.put(current, bits);
+			}
+		}
+		return mBits.get(term);
+	}
+
+	private static Term[] getBitVecSubterms(final Term term) {
+		if (term instanceof AnnotatedTerm) {
+			return new Term[] { ((AnnotatedTerm) term).getSubterm() };
+		}
+		if (term instanceof ApplicationTerm) {
+			final ApplicationTerm appTerm = (ApplicationTerm) term;
+			if (appTerm.getFunction().getDefinition() != null) {
+				return new Term[] { expandDefinition(appTerm) };
+			}
+			final ArrayList<Term> result = new ArrayList<>();
+			for (final Term param : appTerm.getParameters()) {
+				if (BitVectorSortInterpretation.isBitVecSort(param.getSort())) {
+					result.add(param);
+				}
+			}
+			return result.toArray(new Term[result.size()]);
+		}
+		return new Term[0];
+	}
+
+	/**
+	 * Compute the bits of a bit-vector term whose bit-vector sub-terms are already translated.
+	 */
+	private Term[] computeBits(final Term term) {
+		final int width = BitVectorSortInterpretation.getWidth(term.getSort());
+		final BigInteger value = BitVectorSortInterpretation.getValue(term);
+		if (value != null) {
+			final Term[] bits = new Term[width];
+			for (int i = 0; i < width; i++) {
+				bits[i] = value.testBit(i) ? mTheory.mTrue : mTheory.mFalse;
+			}
+			return bits;
+		}
+		if (term instanceof AnnotatedTerm) {
+			return mBits.get(((AnnotatedTerm) term).getSubterm());
+		}
+		if (!(term instanceof ApplicationTerm)) {
+			throw unsupported(term);
+		}
+		final ApplicationTerm appTerm = (ApplicationTerm) term;
+		final FunctionSymbol fsym = appTerm.getFunction();
+		final Term[] params = appTerm.getParameters();
+		if (fsym.getDefinition() != null) {
+			return mBits.get(expandDefinition(appTerm));
+		}
+		if (!fsym.isIntern()) {
+			if (params.length > 0) {
+				throw unsupported(term);
+			}
+			final Term[] bits = new Term[width];
+			for (int i = 0; i < width; i++) {
+				bits[i] = createBit();
+			}
+			return bits;
+		}
+		switch (fsym.getName()) {
+		case SMTLIBConstants.ITE: {
+			final Term cond = toLiteral(new AtomTranslator().transform(params[0]));
+			final Term[] thenBits = mBits.get(params[1]);
+			final Term[] elseBits = mBits.get(params[2]);
+			final Term[] bits = new Term[width];
+			for (int i = 0; i < width; i++) {
+				bits[i] = ite(cond, thenBits[i], elseBits[i]);
+			}
+			return bits;
+		}
+		case "bvnot": {
+			final Term[] a = mBits.get(params[0]);
+			final Term[] bits = new Term[width];
+			for (int i = 0; i < width; i++) {
+				bits[i] = not(a[i]);
+			}
+			return bits;
+		}
+		case "bvand":
+		case "bvor":
+		case "bvxor":
+		case "bvadd":
+		case "bvmul": {
+			Term[] bits = mBits.get(params[0]);
+			for (int i = 1; i < params.length; i++) {
+				bits = applyBinary(fsym.getName(), bits, mBits.get(params[i]));
+			}
+			return bits;
+		}
+		case "bvnand":
+			return applyNot(applyBinary("bvand", mBits.get(params[0]), mBits.get(params[1])));
+		case "bvnor":
+			return applyNot(applyBinary("bvor", mBits.get(params[0]), mBits.get(params[1])));
+		case "bvxnor":
+			return applyNot(applyBinary("bvxor", mBits.get(params[0]), mBits.get(params[1])));
+		case "bvneg":
+			return negate(mBits.get(params[0]));
+		case "bvsub":
+			return add(mBits.get(params[0]), applyNot(mBits.get(params[1])), mTheory.mTrue);
+		case "bvcomp":
+			return new Term[] { equal(mBits.get(params[0]), mBits.get(params[1])) };
+		case "bvudiv":
+			return divide(mBits.get(params[0]), mBits.get(params[1]), true);
+		case "bvurem":
+			return divide(mBits.get(params[0]), mBits.get(params[1]), false);
+		case "bvsdiv":
+		case "bvsrem":
+		case "bvsmod":
+			return signedDivide(fsym.getName(), mBits.get(params[0]), mBits.get(params[1]));
+		case "bvshl":
+		case "bvlshr":
+		case "bvashr":
+			return shift(fsym.getName(), mBits.get(params[0]), mBits.get(params[1]));
+		case "concat": {
+			final Term[] bits = new Term[width];
+			int pos = 0;
+			for (int i = params.length - 1; i >= 0; i--) {
+				final Term[] part = mBits.get(params[i]);
+				System.arraycopy(part, 0, bits, pos, part.length);
+				pos += part.length;
+			}
+			return bits;
+		}
+		case "extract": {
+			final int low = Integer.parseInt(fsym.getIndices()[1]);
+			return Arrays.copyOfRange(mBits.get(params[0]), low, low + width);
+		}
+		case "zero_extend":
+		case "sign_extend": {
+			final Term[] a = mBits.get(params[0]);
+			final Term[] bits = Arrays.copyOf(a, width);
+			final Term fill = fsym.getName() == "sign_extend" ? a[a.length - 1] : mTheory.mFalse;
+			Arrays.fill(bits, a.length, width, fill);
+			return bits;
+		}
+		case "repeat": {
+			final Term[] a = mBits.get(params[0]);
+			final Term[] bits = new Term[width];
+			for (int i = 0; i < width; i++) {
+				bits[i] = a[i % a.length];
+			}
+			return bits;
+		}
+		case "rotate_left":
+		case "rotate_right": {
+			final Term[] a = mBits.get(params[0]);
+			int distance = new BigInteger(fsym.getIndices()[0]).mod(BigInteger.valueOf(width)).intValue();
+			if (fsym.getName() == "rotate_right") {
+				distance = (width - distance) % width;
+			}
+			final Term[] bits = new Term[width];
+			for (int i = 0; i < width; i++) {
+				bits[(i + distance) % width] = a[i];
+			}
+			return bits;
+		}
+		default:
+			throw unsupported(term);
+		}
+	}
+
+	private Term[] applyBinary(final String function, final Term[] a, final Term[] b) {
+		switch (function) {
+		case "bvadd":
+			return add(a, b, mTheory.mFalse);
+		case "bvmul":
+			return multiply(a, b);
+		default:
+			final Term[] bits = new Term[a.length];
+			for (int i = 0; i < a.length; i++) {
+				switch (function) {
+				case "bvand":
+					bits[i] = and(a[i], b[i]);
+					break;
+				case "bvor":
+					bits[i] = or(a[i], b[i]);
+					break;
+				case "bvxor":
+					bits[i] = xor(a[i], b[i]);
+					break;
+				default:
+					throw new AssertionError();
+				}
+			}
+			return bits;
+		}
+	}
+
+	private Term[] applyNot(final Term[] a) {
+		final Term[] bits = new Term[a.length];
+		for (int i = 0; i < a.length; i++) {
+			bits[i] = not(a[i]);
+		}
+		return bits;
+	}
+
+	private Term[] flipSign(final Term[] a) {
+		final Term[] bits = a.clone();
+		bits[bits.length - 1] = not(bits[bits.length - 1]);
+		return bits;
+	}
+
+	/**
+	 * Ripple-carry adder.
+	 */
+	private Term[] add(final Term[] a, final Term[] b, final Term carryIn) {
+		final Term[] bits = new Term[a.length];
+		addWithCarry(a, b, carryIn, bits);
+		return bits;
+	}
+
+	/**
+	 * Ripple-carry adder that stores the sum in {@code result}.
+	 *
+	 * @return the carry out of the most significant bit.
+	 */
+	private Term addWithCarry(final Term[] a, final Term[] b, final Term carryIn, final Term[] result) {
+		Term carry = carryIn;
+		for (int i = 0; i < a.length; i++) {
+			final Term halfSum = xor(a[i], b[i]);
+			result[i] = xor(halfSum, carry);
+			carry = ite(halfSum, carry, a[i]);
+		}
+		return carry;
+	}
+
+	private Term[] negate(final Term[] a) {
+		final Term[] zero = new Term[a.length];
+		Arrays.fill(zero, mTheory.mFalse);
+		return add(applyNot(a), zero, mTheory.mTrue);
+	}
+
+	/**
+	 * Shift-and-add multiplier; the partial products of constant zero bits are skipped.
+	 */
+	private Term[] multiply(final Term[] a, final Term[] b) {
+		Term[] result = new Term[a.length];
+		Arrays.fill(result, mTheory.mFalse);
+		for (int i = 0; i < b.length; i++) {
+			if (b[i] == mTheory.mFalse) {
+				continue;
+			}
+			final Term[] partial = new Term[a.length];
+			for (int j = 0; j < a.length; j++) {
+				partial[j] = j < i ? mTheory.mFalse : and(a[j - i], b[i]);
+			}
+			result = add(result, partial, mTheory.mFalse);
+		}
+		return result;
+	}
+
+	/**
+	 * Restoring division. For a zero divisor the quotient has all bits set and the remainder is the dividend, as
+	 * required by the SMT-LIB semantics.
+	 *
+	 * @return the quotient if {@code quotient} is true, otherwise the remainder.
+	 */
+	private Term[] divide(final Term[] a, final Term[] b, final boolean quotient) {
+		final int width = a.length;
+		final Term[] q = new Term[width];
+		Term[] r = new Term[width];
+		Arrays.fill(r, mTheory.mFalse);
+		final Term[] notB = new Term[width + 1];
+		for (int j = 0; j < width; j++) {
+			notB[j] = not(b[j]);
+		}
+		notB[width] = mTheory.mTrue;
+		for (int i = width - 1; i >= 0; i--) {
+			final Term[] shifted = new Term[width + 1];
+			shifted[0] = a[i];
+			System.arraycopy(r, 0, shifted, 1, width);
+			final Term[] difference = new Term[width + 1];
+			// shifted >= b iff there is no borrow, i.e., shifted + ~b + 1 has a carry out
+			final Term greaterEqual = addWithCarry(shifted, notB, mTheory.mTrue, difference);
+			q[i] = greaterEqual;
+			final Term[] newR = new Term[width];
+			for (int j = 0; j < width; j++) {
+				newR[j] = ite(greaterEqual, difference[j], shifted[j]);
+			}
+			r = newR;
+		}
+		return quotient ? q : r;
+	}
+
+	private Term[] signedDivide(final String function, final Term[] s, final Term[] t) {
+		final int width = s.length;
+		final Term signS = s[width - 1];
+		final Term signT = t[width - 1];
+		final Term[] absS = select(signS, negate(s), s);
+		final Term[] absT = select(signT, negate(t), t);
+		switch (function) {
+		case "bvsdiv": {
+			final Term[] q = divide(absS, absT, true);
+			return select(xor(signS, signT), negate(q), q);
+		}
+		case "bvsrem": {
+			final Term[] r = divide(absS, absT, false);
+			return select(signS, negate(r), r);
+		}
+		case "bvsmod": {
+			final Term[] u = divide(absS, absT, false);
+			final Term[] negU = negate(u);
+			Term isZero = mTheory.mTrue;
+			for (final Term bit : u) {
+				isZero = and(isZero, not(bit));
+			}
+			// s >= 0, t >= 0: u; s < 0, t >= 0: -u + t; s >= 0, t < 0: u + t; s < 0, t < 0: -u
+			final Term[] adjusted = select(signS, select(signT, negU, add(negU, t, mTheory.mFalse)),
+					select(signT, add(u, t, mTheory.mFalse), u));
+			return select(isZero, u, adjusted);
+		}
+		default:
+			throw new AssertionError();
+		}
+	}
+
+	/**
+	 * Barrel shifter. Bits of the shift distance that are too significant for the stages of the shifter make the
+	 * result constant.
+	 */
+	private Term[] shift(final String function, final Term[] a, final Term[] distance) {
+		final int width = a.length;
+		final Term fill = function == "bvashr" ? a[width - 1] : mTheory.mFalse;
+		Term[] bits = a;
+		int stage = 0;
+		for (; stage < distance.length && (1L << stage) < width; stage++) {
+			final int amount = 1 << stage;
+			final Term[] shifted = new Term[width];
+			for (int j = 0; j < width; j++) {
+				final int source = function == "bvshl" ? j - amount : j + amount;
+				shifted[j] = source >= 0 && source < width ? bits[source] : fill;
+			}
+			bits = select(distance[stage], shifted, bits);
+		}
+		Term overflow = mTheory.mFalse;
+		for (; stage < distance.length; stage++) {
+			overflow = or(overflow, distance[stage]);
+		}
+		final Term[] filled = new Term[width];
+		Arrays.fill(filled, fill);
+		return select(overflow, filled, bits);
+	}
+
+	private Term[] select(final Term cond, final Term[] a, final Term[] b) {
+		final Term[] bits = new Term[a.length];
+		for (int i = 0; i < a.length; i++) {
+			bits[i] = ite(cond, a[i], b[i]);
+		}
+		return bits;
+	}
+
+	private Term equal(final Term[] a, final Term[] b) {
+		Term result = mTheory.mTrue;
+		for (int i = 0; i < a.length; i++) {
+			result = and(result, not(xor(a[i], b[i])));
+		}
+		return result;
+	}
+
+	/**
+	 * Unsigned comparison, computed from the least significant bit: at the most significant bit where a and b differ,
+	 * a is smaller if b is set.
+	 */
+	private Term lessThan(final Term[] a, final Term[] b) {
+		Term result = mTheory.mFalse;
+		for (int i = 0; i < a.length; i++) {
+			result = ite(xor(a[i], b[i]), b[i], result);
+		}
+		return result;
+	}
+
+	private Term conjunction(final Term[] conjuncts) {
+		Term result = mTheory.mTrue;
+		for (final Term conjunct : conjuncts) {
+			result = and(result, conjunct);
+		}
+		return result;
+	}
+
+	/**
+	 * Get a fresh bit. The symbol of a bit that was popped is reused if the theory still declares it.
+	 */
+	private Term createBit() {
+		FunctionSymbol fsym;
+		do {
+			final String name = BIT_PREFIX + mBitCounter++;
+			fsym = mTheory.getFunction(name);
+			if (fsym == null) {
+				fsym = mTheory.declareInternalFunction(name, Script.EMPTY_SORT_ARRAY, mTheory.getBooleanSort(),
+						FunctionSymbol.UNINTERPRETEDINTERNAL);
+			}
+		} while (!isBitSymbol(fsym));
+		return mTheory.term(fsym);
+	}
+
+	private static boolean isNot(final Term term) {
+		return term instanceof ApplicationTerm
+				&& ((ApplicationTerm) term).getFunction().getName() == SMTLIBConstants.NOT;
+	}
+
+	private static Term getNegated(final Term term) {
+		return ((ApplicationTerm) term).getParameters()[0];
+	}
+
+	/**
+	 * Make sure that the condition of an ite-term is a literal, such that it can be used as input of the gates.
+	 */
+	private Term toLiteral(final Term formula) {
+		final Term atom = isNot(formula) ? getNegated(formula) : formula;
+		if (atom instanceof ApplicationTerm && ((ApplicationTerm) atom).getParameters().length == 0) {
+			return formula;
+		}
+		Term bit = mGates.get(formula);
+		if (bit == null) {
+			bit = createBit();
+			mGates.put(formula, bit);
+			mDefinitions.add(mTheory.term(SMTLIBConstants.EQUALS, bit, formula));
+		}
+		return bit;
+	}
+
+	private Term not(final Term a) {
+		if (a == mTheory.mTrue) {
+			return mTheory.mFalse;
+		}
+		if (a == mTheory.mFalse) {
+			return mTheory.mTrue;
+		}
+		if (isNot(a)) {
+			return getNegated(a);
+		}
+		return mTheory.term(SMTLIBConstants.NOT, a);
+	}
+
+	private Term and(final Term a, final Term b) {
+		if (a == mTheory.mFalse || b == mTheory.mFalse || a == not(b)) {
+			return mTheory.mFalse;
+		}
+		if (a == mTheory.mTrue || a == b) {
+			return b;
+		}
+		if (b == mTheory.mTrue) {
+			return a;
+		}
+		final Term gate = mTheory.term(SMTLIBConstants.AND, a, b);
+		Term bit = lookupGate(gate, mTheory.term(SMTLIBConstants.AND, b, a));
+		if (bit == null) {
+			bit = createGate(gate);
+			mDefinitions.add(clause(not(bit), a));
+			mDefinitions.add(clause(not(bit), b));
+			mDefinitions.add(clause(bit, not(a), not(b)));
+		}
+		return bit;
+	}
+
+	private Term or(final Term a, final Term b) {
+		return not(and(not(a), not(b)));
+	}
+
+	private Term xor(final Term a, final Term b) {
+		if (a == mTheory.mFalse) {
+			return b;
+		}
+		if (b == mTheory.mFalse) {
+			return a;
+		}
+		if (a == mTheory.mTrue) {
+			return not(b);
+		}
+		if (b == mTheory.mTrue) {
+			return not(a);
+		}
+		if (a == b) {
+			return mTheory.mFalse;
+		}
+		if (a == not(b)) {
+			return mTheory.mTrue;
+		}
+		if (isNot(a)) {
+			return not(xor(getNegated(a), b));
+		}
+		if (isNot(b)) {
+			return not(xor(a, getNegated(b)));
+		}
+		final Term gate = mTheory.term(SMTLIBConstants.XOR, a, b);
+		Term bit = lookupGate(gate, mTheory.term(SMTLIBConstants.XOR, b, a));
+		if (bit == null) {
+			bit = createGate(gate);
+			mDefinitions.add(clause(not(bit), a, b));
+			mDefinitions.add(clause(not(bit), not(a), not(b)));
+			mDefinitions.add(clause(bit, not(a), b));
+			mDefinitions.add(clause(bit, a, not(b)));
+		}
+		return bit;
+	}
+
+	private Term ite(final Term cond, final Term thenBit, final Term elseBit) {
+		if (cond == mTheory.mTrue || thenBit == elseBit) {
+			return thenBit;
+		}
+		if (cond == mTheory.mFalse) {
+			return elseBit;
+		}
+		if (isNot(cond)) {
+			return ite(getNegated(cond), elseBit, thenBit);
+		}
+		if (thenBit == mTheory.mTrue || thenBit == cond) {
+			return or(cond, elseBit);
+		}
+		if (thenBit == mTheory.mFalse || thenBit == not(cond)) {
+			return and(not(cond), elseBit);
+		}
+		if (elseBit == mTheory.mTrue || elseBit == not(cond)) {
+			return or(not(cond), thenBit);
+		}
+		if (elseBit == mTheory.mFalse || elseBit == cond) {
+			return and(cond, thenBit);
+		}
+		if (thenBit == not(elseBit)) {
+			return not(xor(cond, thenBit));
+		}
+		final Term gate = mTheory.term(SMTLIBConstants.ITE, cond, thenBit, elseBit);
+		Term bit = lookupGate(gate, null);
+		if (bit == null) {
+			bit = createGate(gate);
+			mDefinitions.add(clause(not(bit), not(cond), thenBit));
+			mDefinitions.add(clause(not(bit), cond, elseBit));
+			mDefinitions.add(clause(bit, not(cond), not(thenBit)));
+			mDefinitions.add(clause(bit, cond, not(elseBit)));
+			// redundant, but they allow to propagate the output if both inputs agree
+			mDefinitions.add(clause(not(bit), thenBit, elseBit));
+			mDefinitions.add(clause(bit, not(thenBit), not(elseBit)));
+		}
+		return bit;
+	}
+
+	private Term lookupGate(final Term gate, final Term symmetricGate) {
+		final Term bit = mGates.get(gate);
+		if (bit == null && symmetricGate != null) {
+			return mGates.get(symmetricGate);
+		}
+		return bit;
+	}
+
+	private Term createGate(final Term gate) {
+		final Term bit = createBit();
+		mGates.put(gate, bit);
+		return bit;
+	}
+
+	private Term clause(final Term... literals) {
+		return mTheory.term(SMTLIBConstants.OR, literals);
+	}
+}
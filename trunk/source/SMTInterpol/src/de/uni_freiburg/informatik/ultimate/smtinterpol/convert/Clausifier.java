@@ -24,6 +24,7 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -394,7 +395,7 @@ public class Clausifier {
 
 				final ApplicationTerm at = (ApplicationTerm) idx;
 				final ILiteral lit;
-				if (mLiteral.mTmpCtr <= Config.OCC_INLINE_THRESHOLD &&
+				if (mOccCounter.getCount(mLiteral) <= Config.OCC_INLINE_THRESHOLD &&
 						(positive ? (at.getFunction() == theory.mOr || at.getFunction() == theory.mImplies)
 								: at.getFunction() == theory.mAnd)) {
 					final Annotation rule = at.getFunction() == theory.mOr ? ProofConstants.AUX_OR_NEG
@@ -845,7 +846,8 @@ public class Clausifier {
 				if (mTerm instanceof ApplicationTerm) {
 					final ApplicationTerm at = (ApplicationTerm) mTerm;
 					if (at.getFunction().getName().equals("ite")
-							&& (at.mTmpCtr <= Config.OCC_INLINE_TERMITE_THRESHOLD || mConds.size() == 0)) {
+							&& (mOccCounter.getCount(at) <= Config.OCC_INLINE_TERMITE_THRESHOLD
+									|| mConds.size() == 0)) {
 						final Term c = at.getParameters()[0];
 						final Term t = at.getParameters()[1];
 						final Term e = at.getParameters()[2];
@@ -1284,6 +1286,7 @@ public class Clausifier {
 	private DataTypeTheory mDataTypeTheory;
 	private EprTheory mEprTheory;
 	private QuantifierTheory mQuantTheory;
+	private BitBlaster mBitBlaster;
 
 	/**
 	 * True, if the run function is already active.
@@ -2004,6 +2007,15 @@ public class Clausifier {
 		}
 	}
 
+	private void setupBitBlaster() {
+		if (mBitBlaster == null) {
+			mBitBlaster = new BitBlaster(mTheory);
+			if (!(mTracker instanceof NoopProofTracker)) {
+				mBitBlaster.disable("proof production");
+			}
+		}
+	}
+
 	public void setQuantifierOptions(final boolean isEprEnabled, final InstantiationMethod instMethod,
 			final boolean enableUnknownTermDawgs, final boolean propagateUnknownTerm,
 			final boolean propagateUnknownAux) {
@@ -2037,6 +2049,9 @@ public class Clausifier {
 		if (logic.isDatatype()) {
 			setupDataTypeTheory();
 		}
+		if (logic.isBitVector()) {
+			setupBitBlaster();
+		}
 	}
 
 	// TODO What do we have to do for quantifiers here?
@@ -2106,6 +2121,10 @@ public class Clausifier {
 		return mLASolver;
 	}
 
+	public BitBlaster getBitBlaster() {
+		return mBitBlaster;
+	}
+
 	public LogProxy getLogger() {
 		return mLogger;
 	}
@@ -2136,9 +2155,18 @@ public class Clausifier {
 			}
 		}
 		Term origFormula = mUnlet.unlet(f);
+		Term blastedFormula = origFormula;
+		if (mBitBlaster != null) {
+			try {
+				blastedFormula = mBitBlaster.blast(origFormula);
+			} finally {
+				// the gates are cached, hence their definitions are needed even if the formula is rejected
+				addDefinitions(mBitBlaster.getNewDefinitions());
+			}
+		}
 		Term simpFormula;
 		try {
-			simpFormula = mCompiler.transform(removeDoubleNot(origFormula));
+			simpFormula = mCompiler.transform(removeDoubleNot(blastedFormula));
 		} finally {
 			mCompiler.reset();
 		}
@@ -2161,6 +2189,28 @@ public class Clausifier {
 		// + " auxiliary atoms.");
 	}
 
+	/**
+	 * Add the clauses that define the auxiliary variables of the bit-blaster. They are not part of any named formula.
+	 */
+	private void addDefinitions(final List<Term> definitions) {
+		if (definitions.isEmpty()) {
+			return;
+		}
+		final Term conjunction = definitions.size() == 1 ? definitions.get(0)
+				: mTheory.term(SMTLIBConstants.AND, definitions.toArray(new Term[definitions.size()]));
+		Term simpFormula;
+		try {
+			simpFormula = mCompiler.transform(conjunction);
+		} finally {
+			mCompiler.reset();
+		}
+		simpFormula = mTracker.modusPonens(mTracker.asserted(conjunction), simpFormula);
+		mOccCounter.count(mTracker.getProvedTerm(simpFormula));
+		pushOperation(new AddAsAxiom(simpFormula, SourceAnnotation.EMPTY_SOURCE_ANNOT));
+		run();
+		mOccCounter.reset(simpFormula);
+	}
+
 	public void push() {
 		if (mEngine.inconsistent()) {
 			if (!mWarnedInconsistent) {
@@ -2176,6 +2226,9 @@ public class Clausifier {
 			mLiterals.beginScope();
 			mLATerms.beginScope();
 			mCCTerms.beginScope();
+			if (mBitBlaster != null) {
+				mBitBlaster.push();
+			}
 		}
 	}
 
@@ -2201,6 +2254,9 @@ public class Clausifier {
 			mLiterals.endScope();
 			mTermDataFlags.endScope();
 			mEqualities.endScope();
+			if (mBitBlaster != null) {
+				mBitBlaster.pop();
+			}
 		}
 		mStackLevel -= numpops;
 	}
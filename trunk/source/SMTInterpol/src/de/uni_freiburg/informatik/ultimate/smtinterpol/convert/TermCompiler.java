@@ -548,7 +548,7 @@ public class TermCompiler extends TermTransformer {
 				/* nothing to do */
 				break;
 			default:
-				if (fsym.isConstructor() || fsym.isSelector()) {
+				if (fsym.isConstructor() || fsym.isSelector() || BitBlaster.isBitSymbol(fsym)) {
 					break;
 				}
 				throw new UnsupportedOperationException("Unsupported internal function " + fsym.getName());
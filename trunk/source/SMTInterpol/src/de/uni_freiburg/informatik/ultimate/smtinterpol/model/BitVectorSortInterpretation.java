@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of SMTInterpol.
+ *
+ * SMTInterpol is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SMTInterpol is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SMTInterpol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_freiburg.informatik.ultimate.smtinterpol.model;
+
+import java.math.BigInteger;
+
+import de.uni_freiburg.informatik.ultimate.logic.ApplicationTerm;
+import de.uni_freiburg.informatik.ultimate.logic.ConstantTerm;
+import de.uni_freiburg.informatik.ultimate.logic.FunctionSymbol;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.Theory;
+
+/**
+ * Interpretation of a bit-vector sort. The model values are the binary constants of the sort, the value with index i is
+ * the binary representation of i.
+ */
+public class BitVectorSortInterpretation implements SortInterpretation {
+
+	private BigInteger mNextFresh = BigInteger.ZERO;
+
+	@Override
+	public Term getModelValue(final int index, final Sort sort) {
+		final BigInteger value = BigInteger.valueOf(index);
+		if (value.compareTo(mNextFresh) >= 0) {
+			mNextFresh = value.add(BigInteger.ONE);
+		}
+		return toTerm(value, sort);
+	}
+
+	@Override
+	public Term extendFresh(final Sort sort) {
+		final BigInteger value = mNextFresh;
+		if (value.bitLength() > getWidth(sort)) {
+			throw new IllegalStateException("No fresh value left in " + sort);
+		}
+		mNextFresh = mNextFresh.add(BigInteger.ONE);
+		return toTerm(value, sort);
+	}
+
+	@Override
+	public Term toSMTLIB(final Theory t, final Sort sort) {
+		throw new InternalError("Should never be called!");
+	}
+
+	public static boolean isBitVecSort(final Sort sort) {
+		final Sort realSort = sort.getRealSort();
+		return realSort.isInternal() && realSort.getName().equals("BitVec");
+	}
+
+	public static int getWidth(final Sort sort) {
+		return Integer.parseInt(sort.getRealSort().getIndices()[0]);
+	}
+
+	/**
+	 * Get the value of a bit-vector literal, i.e., a binary or hexadecimal constant or a term {@code (_ bvN w)}.
+	 *
+	 * @return the value or {@code null} if the term is not a bit-vector literal.
+	 */
+	public static BigInteger getValue(final Term term) {
+		if (term instanceof ConstantTerm) {
+			final Object value = ((ConstantTerm) term).getValue();
+			if (value instanceof BigInteger) {
+				return (BigInteger) value;
+			}
+			if (value instanceof String) {
+				final String literal = (String) value;
+				if (literal.startsWith("#b")) {
+					return new BigInteger(literal.substring(2), 2);
+				}
+				if (literal.startsWith("#x")) {
+					return new BigInteger(literal.substring(2), 16);
+				}
+			}
+		} else if (term instanceof ApplicationTerm && ((ApplicationTerm) term).getParameters().length == 0) {
+			final FunctionSymbol fsym = ((ApplicationTerm) term).getFunction();
+			if (fsym.isIntern() && fsym.getIndices() != null && fsym.getName().matches("bv\\d+")) {
+				return new BigInteger(fsym.getName().substring(2));
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Build the binary constant for a value modulo the width of the sort. The constant is unified, so two values are
+	 * equal if and only if their constants are identical.
+	 */
+	public static Term toTerm(final BigInteger value, final Sort sort) {
+		final int width = getWidth(sort);
+		final String digits = value.mod(BigInteger.ONE.shiftLeft(width)).toString(2);
+		final StringBuilder sb = new StringBuilder("#b");
+		for (int i = digits.length(); i < width; i++) {
+			sb.append('0');
+		}
+		sb.append(digits);
+		return sort.getTheory().constant(sb.toString(), sort);
+	}
+}
@@ -33,6 +33,7 @@ import de.uni_freiburg.informatik.ultimate.logic.Term;
 import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
 import de.uni_freiburg.informatik.ultimate.logic.Theory;
 import de.uni_freiburg.informatik.ultimate.smtinterpol.LogProxy;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.convert.BitBlaster;
 import de.uni_freiburg.informatik.ultimate.smtinterpol.convert.Clausifier;
 import de.uni_freiburg.informatik.ultimate.smtinterpol.dpll.BooleanVarAtom;
 import de.uni_freiburg.informatik.ultimate.smtinterpol.dpll.ITheory;
@@ -58,6 +59,8 @@ public class Model implements de.uni_freiburg.informatik.ultimate.logic.Model {
 
 	private final HashMap<Sort, ArraySortInterpretation> mArraySorts = new HashMap<>();
 
+	private final HashMap<Sort, BitVectorSortInterpretation> mBitVecSorts = new HashMap<>();
+
 	private final BoolSortInterpretation mBoolSort;
 
 	private final NumericSortInterpretation mNumSorts;
@@ -122,6 +125,9 @@ public class Model implements de.uni_freiburg.informatik.ultimate.logic.Model {
 		if (cc != null) {
 			cc.fillInModel(this, theory, ste, array);
 		}
+		if (clausifier.getBitBlaster() != null) {
+			clausifier.getBitBlaster().fillInModel(this);
+		}
 		if (!partial) {
 			for (final FunctionSymbol fs : theory.getDeclaredFunctions().values()) {
 				if (fs.getDefinition() == null && !fs.isIntern() && !mFuncVals.containsKey(fs)) {
@@ -266,7 +272,7 @@ public class Model implements de.uni_freiburg.informatik.ultimate.logic.Model {
 		final ModelFormatter mf = new ModelFormatter(mTheory, this);
 		for (final Map.Entry<FunctionSymbol, FunctionValue> me : mFuncVals.entrySet()) {
 			final FunctionSymbol fs = me.getKey();
-			if (!fs.isIntern() || fs.getDefinition() == null) {
+			if ((!fs.isIntern() || fs.getDefinition() == null) && !BitBlaster.isBitSymbol(fs)) {
 				mf.appendValue(fs, me.getValue(), mTheory);
 			}
 		}
@@ -306,6 +312,14 @@ public class Model implements de.uni_freiburg.informatik.ultimate.logic.Model {
 			}
 			return array;
 		}
+		if (BitVectorSortInterpretation.isBitVecSort(sort)) {
+			BitVectorSortInterpretation bitvec = mBitVecSorts.get(sort);
+			if (bitvec == null) {
+				bitvec = new BitVectorSortInterpretation();
+				mBitVecSorts.put(sort, bitvec);
+			}
+			return bitvec;
+		}
 		FiniteSortInterpretation res = mSorts.get(sort);
 		if (res == null) {
 			res = new FiniteSortInterpretation();
@@ -126,6 +126,11 @@ public class ModelEvaluator extends TermTransformer {
 			term = ((AnnotatedTerm) term).getSubterm();
 		}
 		if (term instanceof ConstantTerm) {
+			if (BitVectorSortInterpretation.isBitVecSort(term.getSort())) {
+				setResult(BitVectorSortInterpretation.toTerm(BitVectorSortInterpretation.getValue(term),
+						term.getSort()));
+				return;
+			}
 			if (!term.getSort().isNumericSort()) {
 				throw new InternalError("Don't know how to evaluate this: " + term);
 			}
@@ -463,11 +468,186 @@ public class ModelEvaluator extends TermTransformer {
 					mModel.provideSortInterpretation(fs.getParameterSorts()[0]);
 			return array.computeDiff(args[0], args[1], fs.getReturnSort());
 		}
+		default:
+			if (BitVectorSortInterpretation.isBitVecSort(fs.getReturnSort())
+					|| (args.length > 0 && BitVectorSortInterpretation.isBitVecSort(args[0].getSort()))) {
+				return interpretBitVector(fs, args);
+			}
+			throw new AssertionError("Unknown internal function " + fs.getName());
+		}
+	}
+
+	private Term interpretBitVector(final FunctionSymbol fs, final Term[] args) {
+		final Theory theory = mModel.getTheory();
+		final Sort sort = fs.getReturnSort();
+		if (args.length == 0) {
+			// a literal (_ bvN w)
+			final BigInteger value = BitVectorSortInterpretation.getValue(theory.term(fs));
+			if (value == null) {
+				throw new AssertionError("Unknown internal function " + fs.getName());
+			}
+			return BitVectorSortInterpretation.toTerm(value, sort);
+		}
+		final int width = BitVectorSortInterpretation.getWidth(args[0].getSort());
+		final BigInteger[] vals = new BigInteger[args.length];
+		for (int i = 0; i < args.length; i++) {
+			vals[i] = BitVectorSortInterpretation.getValue(args[i]);
+		}
+		switch (fs.getName()) {
+		case "bvnot":
+			return BitVectorSortInterpretation.toTerm(vals[0].not(), sort);
+		case "bvneg":
+			return BitVectorSortInterpretation.toTerm(vals[0].negate(), sort);
+		case "bvand":
+		case "bvor":
+		case "bvxor":
+		case "bvadd":
+		case "bvmul": {
+			BigInteger result = vals[0];
+			for (int i = 1; i < vals.length; i++) {
+				switch (fs.getName()) {
+				case "bvand":
+					result = result.and(vals[i]);
+					break;
+				case "bvor":
+					result = result.or(vals[i]);
+					break;
+				case "bvxor":
+					result = result.xor(vals[i]);
+					break;
+				case "bvadd":
+					result = result.add(vals[i]);
+					break;
+				default:
+					result = result.multiply(vals[i]).mod(BigInteger.ONE.shiftLeft(width));
+					break;
+				}
+			}
+			return BitVectorSortInterpretation.toTerm(result, sort);
+		}
+		case "bvnand":
+			return BitVectorSortInterpretation.toTerm(vals[0].and(vals[1]).not(), sort);
+		case "bvnor":
+			return BitVectorSortInterpretation.toTerm(vals[0].or(vals[1]).not(), sort);
+		case "bvxnor":
+			return BitVectorSortInterpretation.toTerm(vals[0].xor(vals[1]).not(), sort);
+		case "bvsub":
+			return BitVectorSortInterpretation.toTerm(vals[0].subtract(vals[1]), sort);
+		case "bvcomp":
+			return BitVectorSortInterpretation.toTerm(vals[0].equals(vals[1]) ? BigInteger.ONE : BigInteger.ZERO, sort);
+		case "bvudiv":
+			return BitVectorSortInterpretation.toTerm(
+					vals[1].signum() == 0 ? BigInteger.ONE.negate() : vals[0].divide(vals[1]), sort);
+		case "bvurem":
+			return BitVectorSortInterpretation.toTerm(vals[1].signum() == 0 ? vals[0] : vals[0].mod(vals[1]), sort);
+		case "bvsdiv": {
+			final BigInteger s = toSigned(vals[0], width);
+			final BigInteger t = toSigned(vals[1], width);
+			if (t.signum() == 0) {
+				return BitVectorSortInterpretation.toTerm(BigInteger.valueOf(s.signum() < 0 ? 1 : -1), sort);
+			}
+			// BigInteger.divide rounds towards zero like bvsdiv
+			return BitVectorSortInterpretation.toTerm(s.divide(t), sort);
+		}
+		case "bvsrem": {
+			final BigInteger t = toSigned(vals[1], width);
+			return BitVectorSortInterpretation.toTerm(
+					t.signum() == 0 ? vals[0] : toSigned(vals[0], width).remainder(t), sort);
+		}
+		case "bvsmod": {
+			final BigInteger t = toSigned(vals[1], width);
+			if (t.signum() == 0) {
+				return args[0];
+			}
+			// the remainder has the sign of the divisor
+			BigInteger result = toSigned(vals[0], width).mod(t.abs());
+			if (t.signum() < 0 && result.signum() != 0) {
+				result = result.add(t);
+			}
+			return BitVectorSortInterpretation.toTerm(result, sort);
+		}
+		case "bvshl":
+			return BitVectorSortInterpretation.toTerm(
+					vals[1].compareTo(BigInteger.valueOf(width)) >= 0 ? BigInteger.ZERO
+							: vals[0].shiftLeft(vals[1].intValue()), sort);
+		case "bvlshr":
+			return BitVectorSortInterpretation.toTerm(
+					vals[1].compareTo(BigInteger.valueOf(width)) >= 0 ? BigInteger.ZERO
+							: vals[0].shiftRight(vals[1].intValue()), sort);
+		case "bvashr":
+			return BitVectorSortInterpretation.toTerm(toSigned(vals[0], width)
+					.shiftRight(vals[1].min(BigInteger.valueOf(width)).intValue()), sort);
+		case "concat": {
+			BigInteger result = BigInteger.ZERO;
+			for (int i = 0; i < args.length; i++) {
+				result = result.shiftLeft(BitVectorSortInterpretation.getWidth(args[i].getSort())).or(vals[i]);
+			}
+			return BitVectorSortInterpretation.toTerm(result, sort);
+		}
+		case "extract":
+			return BitVectorSortInterpretation.toTerm(vals[0].shiftRight(Integer.parseInt(fs.getIndices()[1])), sort);
+		case "zero_extend":
+			return BitVectorSortInterpretation.toTerm(vals[0], sort);
+		case "sign_extend":
+			return BitVectorSortInterpretation.toTerm(toSigned(vals[0], width), sort);
+		case "repeat": {
+			BigInteger result = BigInteger.ZERO;
+			for (int i = 0; i < Integer.parseInt(fs.getIndices()[0]); i++) {
+				result = result.shiftLeft(width).or(vals[0]);
+			}
+			return BitVectorSortInterpretation.toTerm(result, sort);
+		}
+		case "rotate_left":
+		case "rotate_right": {
+			int distance = new BigInteger(fs.getIndices()[0]).mod(BigInteger.valueOf(width)).intValue();
+			if (fs.getName() == "rotate_right") {
+				distance = (width - distance) % width;
+			}
+			return BitVectorSortInterpretation.toTerm(
+					vals[0].shiftLeft(distance).or(vals[0].shiftRight(width - distance)), sort);
+		}
+		case "bvult":
+		case "bvule":
+		case "bvugt":
+		case "bvuge":
+		case "bvslt":
+		case "bvsle":
+		case "bvsgt":
+		case "bvsge": {
+			final boolean signed = fs.getName().startsWith("bvs");
+			for (int i = 0; i < vals.length - 1; i++) {
+				final int cmp = signed ? toSigned(vals[i], width).compareTo(toSigned(vals[i + 1], width))
+						: vals[i].compareTo(vals[i + 1]);
+				final boolean holds;
+				switch (fs.getName().substring(fs.getName().length() - 2)) {
+				case "lt":
+					holds = cmp < 0;
+					break;
+				case "le":
+					holds = cmp <= 0;
+					break;
+				case "gt":
+					holds = cmp > 0;
+					break;
+				default:
+					holds = cmp >= 0;
+					break;
+				}
+				if (!holds) {
+					return theory.mFalse;
+				}
+			}
+			return theory.mTrue;
+		}
 		default:
 			throw new AssertionError("Unknown internal function " + fs.getName());
 		}
 	}
 
+	private static BigInteger toSigned(final BigInteger value, final int width) {
+		return value.testBit(width - 1) ? value.subtract(BigInteger.ONE.shiftLeft(width)) : value;
+	}
+
 	private Rational rationalValue(final Term term) {
 		return (Rational) ((ConstantTerm) term).getValue();
 	}
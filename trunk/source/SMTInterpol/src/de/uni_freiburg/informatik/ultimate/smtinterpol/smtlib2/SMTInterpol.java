@@ -609,6 +609,14 @@ public class SMTInterpol extends NoopScript {
 	private void setupClausifier(final Logics logic) {
 		try {
 			final ProofMode proofMode = getProofMode();
+			final boolean justify = mSolverOptions.isProduceInterpolants() || proofMode == ProofMode.FULL
+					|| proofMode == ProofMode.LOWLEVEL;
+			if (justify && logic.isBitVector() && !logic.isUF() && !logic.isArray() && !logic.isArithmetic()
+					&& !logic.isDatatype()) {
+				// every formula of this logic would be rejected by the bit-blaster
+				throw new UnsupportedOperationException(
+						"Logic " + logic + " not supported together with interpolation or proof production");
+			}
 			mEngine = new DPLLEngine(mLogger, mCancel);
 			mClausifier = new Clausifier(getTheory(), mEngine, proofMode);
 			// This has to be before set-logic since we need to capture
@@ -619,6 +627,10 @@ public class SMTInterpol extends NoopScript {
 					getBooleanOption(SMTInterpolConstants.PROPAGATE_UNKNOWN_TERMS),
 					getBooleanOption(SMTInterpolConstants.PROPAGATE_UNKNOWN_AUX));
 			mClausifier.setLogic(logic);
+			if (mClausifier.getBitBlaster() != null && mSolverOptions.isProduceInterpolants()) {
+				// interpolation needs to know the partition of every clause, the gates have none
+				mClausifier.getBitBlaster().disable("interpolation");
+			}
 			final boolean produceAssignments = getBooleanOption(SMTLIBConstants.PRODUCE_ASSIGNMENTS);
 			mClausifier.setAssignmentProduction(produceAssignments);
 			mEngine.setProduceAssignments(produceAssignments);
@@ -0,0 +1,343 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of SMTInterpol.
+ *
+ * SMTInterpol is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SMTInterpol is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SMTInterpol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_freiburg.informatik.ultimate.smtinterpol.convert;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import de.uni_freiburg.informatik.ultimate.logic.Annotation;
+import de.uni_freiburg.informatik.ultimate.logic.FunctionSymbol;
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.Model;
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.DefaultLogger;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.SMTInterpol;
+
+/**
+ * Tests for the bit-blasting of quantifier-free bit-vector formulas. The operators are checked exhaustively on
+ * bit-vectors of width four against their definition in SMT-LIB.
+ */
+@RunWith(JUnit4.class)
+public class BitBlasterTest {
+
+	private static final int WIDTH = 4;
+	private static final int MASK = (1 << WIDTH) - 1;
+
+	private static final String[] OPERATORS = { "bvadd", "bvsub", "bvmul", "bvudiv", "bvurem", "bvsdiv", "bvsrem",
+		"bvsmod", "bvshl", "bvlshr", "bvashr", "bvand", "bvor", "bvxor", "bvnand", "bvnor", "bvxnor" };
+	private static final String[] PREDICATES =
+			{ "bvult", "bvule", "bvugt", "bvuge", "bvslt", "bvsle", "bvsgt", "bvsge" };
+
+	private final Script mScript;
+	private final Term mX;
+	private final Term mY;
+
+	public BitBlasterTest() {
+		mScript = new SMTInterpol(new DefaultLogger());
+		mScript.setOption(":produce-models", true);
+		mScript.setOption(":produce-unsat-cores", true);
+		mScript.setLogic(Logics.QF_BV);
+		final Sort bv = mScript.sort("BitVec", new String[] { String.valueOf(WIDTH) });
+		mScript.declareFun("x", Script.EMPTY_SORT_ARRAY, bv);
+		mScript.declareFun("y", Script.EMPTY_SORT_ARRAY, bv);
+		mX = mScript.term("x");
+		mY = mScript.term("y");
+	}
+
+	private static int signed(final int value) {
+		return value > MASK >> 1 ? value - MASK - 1 : value;
+	}
+
+	private static int apply(final String operator, final int a, final int b) {
+		switch (operator) {
+		case "bvadd":
+			return (a + b) & MASK;
+		case "bvsub":
+			return (a - b) & MASK;
+		case "bvmul":
+			return (a * b) & MASK;
+		case "bvudiv":
+			return b == 0 ? MASK : a / b;
+		case "bvurem":
+			return b == 0 ? a : a % b;
+		case "bvsdiv":
+			if (b == 0) {
+				return signed(a) < 0 ? 1 : MASK;
+			}
+			return (signed(a) / signed(b)) & MASK;
+		case "bvsrem":
+			return b == 0 ? a : (signed(a) % signed(b)) & MASK;
+		case "bvsmod":
+			return b == 0 ? a : Math.floorMod(signed(a), signed(b)) & MASK;
+		case "bvshl":
+			return b >= WIDTH ? 0 : (a << b) & MASK;
+		case "bvlshr":
+			return b >= WIDTH ? 0 : a >> b;
+		case "bvashr":
+			return (signed(a) >> Math.min(b, WIDTH)) & MASK;
+		case "bvand":
+			return a & b;
+		case "bvor":
+			return a | b;
+		case "bvxor":
+			return a ^ b;
+		case "bvnand":
+			return ~(a & b) & MASK;
+		case "bvnor":
+			return ~(a | b) & MASK;
+		case "bvxnor":
+			return ~(a ^ b) & MASK;
+		default:
+			throw new AssertionError(operator);
+		}
+	}
+
+	private static boolean holds(final String predicate, final int a, final int b) {
+		switch (predicate) {
+		case "bvult":
+			return a < b;
+		case "bvule":
+			return a <= b;
+		case "bvugt":
+			return a > b;
+		case "bvuge":
+			return a >= b;
+		case "bvslt":
+			return signed(a) < signed(b);
+		case "bvsle":
+			return signed(a) <= signed(b);
+		case "bvsgt":
+			return signed(a) > signed(b);
+		case "bvsge":
+			return signed(a) >= signed(b);
+		default:
+			throw new AssertionError(predicate);
+		}
+	}
+
+	private static String toBinary(final int value) {
+		final StringBuilder sb = new StringBuilder("#b");
+		for (int i = WIDTH - 1; i >= 0; i--) {
+			sb.append((value >> i) & 1);
+		}
+		return sb.toString();
+	}
+
+	private Term literal(final int value) {
+		return mScript.binary(toBinary(value));
+	}
+
+	private void assertValues(final int a, final int b) {
+		mScript.assertTerm(mScript.term("=", mX, literal(a)));
+		mScript.assertTerm(mScript.term("=", mY, literal(b)));
+	}
+
+	@Test
+	public void testOperators() {
+		for (final String operator : OPERATORS) {
+			for (int a = 0; a <= MASK; a++) {
+				for (int b = 0; b <= MASK; b++) {
+					mScript.push(1);
+					assertValues(a, b);
+					mScript.assertTerm(mScript.term("distinct", mScript.term(operator, mX, mY),
+							literal(apply(operator, a, b))));
+					Assert.assertEquals(operator + " " + a + " " + b, LBool.UNSAT, mScript.checkSat());
+					mScript.pop(1);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testPredicates() {
+		for (final String predicate : PREDICATES) {
+			for (int a = 0; a <= MASK; a++) {
+				for (int b = 0; b <= MASK; b++) {
+					mScript.push(1);
+					assertValues(a, b);
+					final Term atom = mScript.term(predicate, mX, mY);
+					mScript.assertTerm(holds(predicate, a, b) ? mScript.term("not", atom) : atom);
+					Assert.assertEquals(predicate + " " + a + " " + b, LBool.UNSAT, mScript.checkSat());
+					mScript.pop(1);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testModelEvaluation() {
+		for (int a = 0; a <= MASK; a += 3) {
+			for (int b = 0; b <= MASK; b++) {
+				mScript.push(1);
+				assertValues(a, b);
+				Assert.assertEquals(LBool.SAT, mScript.checkSat());
+				final Model model = mScript.getModel();
+				for (final String operator : OPERATORS) {
+					Assert.assertSame(operator + " " + a + " " + b, model.evaluate(literal(apply(operator, a, b))),
+							model.evaluate(mScript.term(operator, mX, mY)));
+				}
+				for (final String predicate : PREDICATES) {
+					Assert.assertSame(predicate + " " + a + " " + b,
+							holds(predicate, a, b) ? mScript.term("true") : mScript.term("false"),
+							model.evaluate(mScript.term(predicate, mX, mY)));
+				}
+				mScript.pop(1);
+			}
+		}
+	}
+
+	@Test
+	public void testStructural() {
+		final String[] one = { "1" };
+		final String[] five = { "5" };
+		final String[] zero = { "0" };
+		mScript.push(1);
+		mScript.assertTerm(mScript.term("=", mScript.term("concat", mX, mY), mScript.hexadecimal("#xa5")));
+		Assert.assertEquals(LBool.SAT, mScript.checkSat());
+		Assert.assertEquals("#b1010", mScript.getValue(new Term[] { mX }).get(mX).toString());
+		Assert.assertEquals("#b0101", mScript.getValue(new Term[] { mY }).get(mY).toString());
+		mScript.pop(1);
+		mScript.push(1);
+		mScript.assertTerm(mScript.term("distinct",
+				mScript.term("extract", new String[] { "7", "6" }, null, mScript.term("concat", mX, mY)),
+				mScript.term("extract", new String[] { "3", "2" }, null, mX)));
+		Assert.assertEquals(LBool.UNSAT, mScript.checkSat());
+		mScript.pop(1);
+		mScript.push(1);
+		mScript.assertTerm(mScript.term("distinct",
+				mScript.term("rotate_left", one, null, mScript.term("rotate_right", five, null, mX)),
+				mScript.term("rotate_right", zero, null, mX)));
+		Assert.assertEquals(LBool.UNSAT, mScript.checkSat());
+		mScript.pop(1);
+		mScript.push(1);
+		mScript.assertTerm(mScript.term("bvslt", mScript.term("sign_extend", new String[] { "4" }, null, mX),
+				mScript.term("zero_extend", new String[] { "4" }, null, mX)));
+		Assert.assertEquals(LBool.SAT, mScript.checkSat());
+		final Model model = mScript.getModel();
+		Assert.assertSame(mScript.term("true"), model.evaluate(mScript.term("bvslt", mX, literal(0))));
+		mScript.pop(1);
+	}
+
+	@Test
+	public void testUnsatCore() {
+		mScript.assertTerm(mScript.annotate(mScript.term("bvult", mScript.term("bvadd", mX, mY), literal(8)),
+				new Annotation(":named", "A")));
+		mScript.assertTerm(mScript.annotate(mScript.term("bvugt", mY, literal(1)), new Annotation(":named", "B")));
+		mScript.assertTerm(mScript.annotate(mScript.term("=", mScript.term("bvmul", mY, literal(3)), literal(15)),
+				new Annotation(":named", "C")));
+		mScript.assertTerm(mScript.annotate(mScript.term("bvuge", mX, literal(4)), new Annotation(":named", "D")));
+		mScript.assertTerm(mScript.annotate(mScript.term("bvult", mX, literal(6)), new Annotation(":named", "E")));
+		Assert.assertEquals(LBool.UNSAT, mScript.checkSat());
+		final HashSet<String> core = new HashSet<>();
+		for (final Term name : mScript.getUnsatCore()) {
+			core.add(name.toString());
+		}
+		Assert.assertEquals(new HashSet<>(Arrays.asList("A", "C", "D", "E")), core);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testInterpolationLogic() {
+		final Script script = new SMTInterpol(new DefaultLogger());
+		script.setOption(":produce-interpolants", true);
+		script.setLogic(Logics.QF_BV);
+	}
+
+	@Test
+	public void testInterpolationRejectsBitVectors() {
+		final Script script = new SMTInterpol(new DefaultLogger());
+		script.setOption(":produce-interpolants", true);
+		script.setLogic(Logics.ALL);
+		final Sort bv = script.sort("BitVec", new String[] { String.valueOf(WIDTH) });
+		script.declareFun("z", Script.EMPTY_SORT_ARRAY, bv);
+		script.declareFun("i", Script.EMPTY_SORT_ARRAY, script.sort("Int"));
+		try {
+			script.assertTerm(script.term("bvult", script.term("z"), script.binary("#b0001")));
+			Assert.fail("bit-vector atom accepted");
+		} catch (final SMTLIBException expected) {
+			// interpolants of bit-blasted formulas are not supported
+		}
+		final Term i = script.term("i");
+		script.assertTerm(script.annotate(script.term(">", i, script.numeral("0")), new Annotation(":named", "A")));
+		script.assertTerm(script.annotate(script.term("<", i, script.numeral("0")), new Annotation(":named", "B")));
+		Assert.assertEquals(LBool.UNSAT, script.checkSat());
+		Assert.assertEquals(1, script.getInterpolants(new Term[] { script.term("A"), script.term("B") }).length);
+	}
+
+	@Test
+	public void testProofRejectsBitVectors() {
+		final Script script = new SMTInterpol(new DefaultLogger());
+		script.setOption(":produce-proofs", true);
+		script.setLogic(Logics.QF_ABV);
+		final Sort bv = script.sort("BitVec", new String[] { String.valueOf(WIDTH) });
+		script.declareFun("z", Script.EMPTY_SORT_ARRAY, bv);
+		try {
+			script.assertTerm(script.term("bvult", script.term("z"), script.binary("#b0001")));
+			Assert.fail("bit-vector atom accepted");
+		} catch (final SMTLIBException expected) {
+			// proofs of bit-blasted formulas are not supported
+		}
+	}
+
+	@Test(expected = SMTLIBException.class)
+	public void testUninterpretedFunction() {
+		final Script script = new SMTInterpol(new DefaultLogger());
+		script.setLogic(Logics.QF_UFBV);
+		final Sort bv = script.sort("BitVec", new String[] { String.valueOf(WIDTH) });
+		script.declareFun("f", new Sort[] { bv }, bv);
+		script.declareFun("z", Script.EMPTY_SORT_ARRAY, bv);
+		script.assertTerm(script.term("=", script.term("f", script.term("z")), script.binary("#b0001")));
+	}
+
+	@Test
+	public void testBitsAreReused() {
+		final Script script = new SMTInterpol(new DefaultLogger());
+		script.setOption(":global-declarations", true);
+		script.setLogic(Logics.QF_BV);
+		final Sort bv = script.sort("BitVec", new String[] { String.valueOf(WIDTH) });
+		script.declareFun("z", Script.EMPTY_SORT_ARRAY, bv);
+		final Term z = script.term("z");
+		int bits = -1;
+		for (int value = 0; value <= MASK; value++) {
+			script.push(1);
+			script.assertTerm(script.term("=", script.term("bvmul", z, z), script.binary(toBinary(value))));
+			script.checkSat();
+			script.pop(1);
+			int count = 0;
+			for (final FunctionSymbol fsym : script.getTheory().getDeclaredFunctions().values()) {
+				if (BitBlaster.isBitSymbol(fsym)) {
+					count++;
+				}
+			}
+			if (bits >= 0) {
+				Assert.assertEquals(bits, count);
+			}
+			bits = count;
+		}
+		Assert.assertTrue(bits > 0);
+	}
+}
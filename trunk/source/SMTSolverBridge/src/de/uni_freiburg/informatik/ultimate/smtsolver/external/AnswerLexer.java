@@ -0,0 +1,512 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE SMTSolverBridge.
+ *
+ * The ULTIMATE SMTSolverBridge is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE SMTSolverBridge is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE SMTSolverBridge. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE SMTSolverBridge, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE SMTSolverBridge grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.smtsolver.external;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import com.github.jhoenicke.javacup.runtime.Scanner;
+import com.github.jhoenicke.javacup.runtime.SimpleSymbolFactory;
+import com.github.jhoenicke.javacup.runtime.Symbol;
+
+import de.uni_freiburg.informatik.ultimate.util.datastructures.UnifyHash;
+
+/**
+ * Lexer for the answers of an SMT solver. The lexer reads the answer in blocks from the underlying reader and scans the
+ * tokens directly in its buffer. Symbols, keywords, and bit-vector constants are looked up in a symbol table that lives
+ * as long as the lexer, so a symbol that the solver prints again, e.g., a constant in every model, does not create a
+ * new string. Numerals are converted without creating a string.
+ *
+ * The tokens are the predefined symbols and keywords of SMT-LIB and of the solvers we support, numerals, decimals,
+ * hexadecimals, binaries, strings with backslash escapes, quoted and simple symbols, and keywords. Every other character
+ * is returned as {@link LexerSymbols#error} token.
+ */
+class AnswerLexer implements Scanner {
+
+	private static final int BUFFER_SIZE = 8192;
+	private static final int MAX_LONG_DIGITS = 18;
+	/**
+	 * Symbols that are longer than this are not stored in the symbol table.
+	 */
+	private static final int MAX_INTERNED_LENGTH = 256;
+	/**
+	 * The maximal number of entries in the symbol table. If the table is full, new symbols are no longer stored.
+	 */
+	private static final int MAX_INTERNED_SYMBOLS = 1 << 16;
+
+	private static final String[] RESERVED_WORDS = { "_", "!", "as", "assert", "canceled", "check-sat",
+		"continued-execution", "DECIMAL", "declare-sort", "declare-fun", "define-sort", "define-fun", "error", "exists",
+		"exit", "false", "forall", "get-assertions", "get-assignment", "get-info", "get-interpolants", "get-model",
+		"get-option", "get-proof", "get-unsat-core", "get-value", "immediate-exit", "include", "incomplete",
+		"interpolants", "let", "logic", "none", "NUMERAL", "memout", "par", "pop", "push", "sat", "success",
+		"set-logic", "set-info", "set-option", "STRING", "theory", "true", "unknown", "unsupported", "unsat",
+		"simplify", "reset", "timed", "timeout", "asserted", "stdout", "stderr", ":named", ":pattern",
+		":sorts-description", ":sorts", ":funs", ":funs-description", ":definition", ":extensions", ":language",
+		":theories", ":notes", ":values", ":diagnostic-output-channel", ":regular-output-channel",
+		":expand-definitions", ":interactive-mode", ":print-success", ":verbosity", ":produce-assignments",
+		":produce-models", ":produce-proofs", ":produce-unsat-cores", ":random-seed", ":timeout",
+		":interpolant-check-mode", ":strong-simplifier", ":error-behavior", ":name", ":authors", ":version",
+		":status", ":reason-unknown", ":asserted", ":pivot" };
+	private static final int[] RESERVED_SYMBOLS = { LexerSymbols.UNDERSCORE, LexerSymbols.BANG, LexerSymbols.AS,
+		LexerSymbols.ASSERT, LexerSymbols.CANCELED, LexerSymbols.CHECKSAT, LexerSymbols.CONTINUEDEXECUTION,
+		LexerSymbols.DECIMALSYM, LexerSymbols.DECLARESORT, LexerSymbols.DECLAREFUN, LexerSymbols.DEFINESORT,
+		LexerSymbols.DEFINEFUN, LexerSymbols.ERRORSYM, LexerSymbols.EXISTS, LexerSymbols.EXIT, LexerSymbols.FALSE,
+		LexerSymbols.FORALL, LexerSymbols.GETASSERTIONS, LexerSymbols.GETASSIGNMENT, LexerSymbols.GETINFO,
+		LexerSymbols.GETINTERPOLANTS, LexerSymbols.GETMODEL, LexerSymbols.GETOPTION, LexerSymbols.GETPROOF,
+		LexerSymbols.GETUNSATCORE, LexerSymbols.GETVALUE, LexerSymbols.IMMEDIATEEXIT, LexerSymbols.INCLUDE,
+		LexerSymbols.INCOMPLETE, LexerSymbols.INTERPOLANTS, LexerSymbols.LET, LexerSymbols.LOGIC, LexerSymbols.NONE,
+		LexerSymbols.NUMERALSYM, LexerSymbols.MEMOUT, LexerSymbols.PAR, LexerSymbols.POP, LexerSymbols.PUSH,
+		LexerSymbols.SAT, LexerSymbols.SUCCESS, LexerSymbols.SETLOGIC, LexerSymbols.SETINFO, LexerSymbols.SETOPTION,
+		LexerSymbols.STRINGSYM, LexerSymbols.THEORY, LexerSymbols.TRUE, LexerSymbols.UNKNOWN, LexerSymbols.UNSUPPORTED,
+		LexerSymbols.UNSAT, LexerSymbols.SIMPLIFY, LexerSymbols.RESET, LexerSymbols.TIMED, LexerSymbols.TIMEOUT,
+		LexerSymbols.ASSERTED, LexerSymbols.STDOUT, LexerSymbols.STDERR, LexerSymbols.CNAMED, LexerSymbols.CPATTERN,
+		LexerSymbols.CSORTSDESCRIPTION, LexerSymbols.CSORTS, LexerSymbols.CFUNS, LexerSymbols.CFUNSDESCRIPTION,
+		LexerSymbols.CDEFINITION, LexerSymbols.CEXTENSIONS, LexerSymbols.CLANGUAGE, LexerSymbols.CTHEORIES,
+		LexerSymbols.CNOTES, LexerSymbols.CVALUES, LexerSymbols.CDIAGNOSTICOUTPUTCHANNEL,
+		LexerSymbols.CREGULAROUTPUTCHANNEL, LexerSymbols.CEXPANDDEFINITIONS, LexerSymbols.CINTERACTIVEMODE,
+		LexerSymbols.CPRINTSUCCESS, LexerSymbols.CVERBOSITY, LexerSymbols.CPRODUCEASSIGNMENTS,
+		LexerSymbols.CPRODUCEMODELS, LexerSymbols.CPRODUCEPROOFS, LexerSymbols.CPRODUCEUNSATCORES,
+		LexerSymbols.CRANDOMSEED, LexerSymbols.CTIMEOUT, LexerSymbols.CINTERPOLANTCHECKMODE,
+		LexerSymbols.CSTRONGSIMPLIFIER, LexerSymbols.CERRORBEHAVIOR, LexerSymbols.CNAME, LexerSymbols.CAUTHORS,
+		LexerSymbols.CVERSION, LexerSymbols.CSTATUS, LexerSymbols.CREASONUNKNOWN, LexerSymbols.CASSERTED,
+		LexerSymbols.CPIVOT };
+
+	/**
+	 * The ASCII characters that may start a simple symbol.
+	 */
+	private static final boolean[] SYMBOL_START = new boolean[128];
+	static {
+		for (char c = 'a'; c <= 'z'; c++) {
+			SYMBOL_START[c] = true;
+			SYMBOL_START[Character.toUpperCase(c)] = true;
+		}
+		for (final char c : "~!@$%^&*_+-=<>.?/".toCharArray()) {
+			SYMBOL_START[c] = true;
+		}
+	}
+
+	private final Reader mReader;
+	private final SimpleSymbolFactory mSymFactory = new SimpleSymbolFactory();
+	private final UnifyHash<BigInteger> mBigNumbers = new UnifyHash<>();
+
+	private char[] mBuffer = new char[BUFFER_SIZE];
+	private int mPos;
+	private int mLimit;
+	private boolean mEof;
+
+	/**
+	 * The current line (starting with 1) and column (starting with 0).
+	 */
+	private int mLine = 1;
+	private int mColumn;
+	private boolean mAfterCarriageReturn;
+
+	/**
+	 * The characters of the current token. Tokens are copied here as they may span several blocks of the input.
+	 */
+	private char[] mToken = new char[64];
+	private int mTokenLength;
+
+	/**
+	 * The symbol table, an open hash table with linear probing. For each symbol we store the number of the token if
+	 * it is a predefined symbol or keyword, and -1 otherwise.
+	 */
+	private String[] mSymbols = new String[256];
+	private int[] mSymbolTokens = new int[256];
+	private int mSymbolCount;
+
+	/**
+	 * Create a lexer for the answers read from a reader.
+	 *
+	 * @param reader
+	 *            the reader, it is read in blocks, so it does not need to be buffered.
+	 */
+	public AnswerLexer(final Reader reader) {
+		mReader = reader;
+		assert RESERVED_WORDS.length == RESERVED_SYMBOLS.length;
+		for (int i = 0; i < RESERVED_WORDS.length; i++) {
+			final String word = RESERVED_WORDS[i];
+			mTokenLength = 0;
+			for (int j = 0; j < word.length(); j++) {
+				appendToken(word.charAt(j));
+			}
+			final int slot = lookupToken(0);
+			mSymbols[slot] = word;
+			mSymbolTokens[slot] = RESERVED_SYMBOLS[i];
+			mSymbolCount++;
+		}
+		mTokenLength = 0;
+	}
+
+	/**
+	 * Make sure that the buffer contains at least the given number of characters unless the end of the input is
+	 * reached. The buffer grows if the characters do not fit.
+	 *
+	 * @return true if the buffer contains enough characters.
+	 */
+	private boolean fill(final int needed) throws IOException {
+		if (mLimit - mPos >= needed) {
+			return true;
+		}
+		if (mEof) {
+			return false;
+		}
+		final char[] target = needed > mBuffer.length ? new char[Math.max(needed, 2 * mBuffer.length)] : mBuffer;
+		System.arraycopy(mBuffer, mPos, target, 0, mLimit - mPos);
+		mBuffer = target;
+		mLimit -= mPos;
+		mPos = 0;
+		while (mLimit < needed) {
+			final int read = mReader.read(mBuffer, mLimit, mBuffer.length - mLimit);
+			if (read < 0) {
+				mEof = true;
+				return false;
+			}
+			mLimit += read;
+		}
+		return true;
+	}
+
+	/**
+	 * Look at a character without consuming it.
+	 *
+	 * @param offset
+	 *            the offset from the current position.
+	 * @return the character, or -1 at the end of the input.
+	 */
+	private int peek(final int offset) throws IOException {
+		return fill(offset + 1) ? mBuffer[mPos + offset] : -1;
+	}
+
+	/**
+	 * Consume the next character and update line and column.
+	 */
+	private char next() {
+		final char c = mBuffer[mPos++];
+		if (c == '\n') {
+			if (!mAfterCarriageReturn) {
+				mLine++;
+			}
+			mColumn = 0;
+		} else if (c == '\r') {
+			mLine++;
+			mColumn = 0;
+		} else {
+			mColumn++;
+		}
+		mAfterCarriageReturn = c == '\r';
+		return c;
+	}
+
+	private void appendToken(final char c) {
+		if (mTokenLength == mToken.length) {
+			final char[] larger = new char[2 * mToken.length];
+			System.arraycopy(mToken, 0, larger, 0, mTokenLength);
+			mToken = larger;
+		}
+		mToken[mTokenLength++] = c;
+	}
+
+	private static boolean isSymbolStart(final int c) {
+		return c < SYMBOL_START.length ? c >= 0 && SYMBOL_START[c] : Character.isLetter(c);
+	}
+
+	private static boolean isSymbolPart(final int c) {
+		return c < SYMBOL_START.length ? c >= 0 && (SYMBOL_START[c] || isDigit(c))
+				: Character.isLetter(c) || Character.isDigit(c);
+	}
+
+	private static boolean isDigit(final int c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isHexDigit(final int c) {
+		return isDigit(c) || c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F';
+	}
+
+	/**
+	 * Find the slot of the characters of the current token starting at the given offset in the symbol table. This is
+	 * either the slot that contains the symbol or the empty slot where it should be inserted.
+	 */
+	private int lookupToken(final int offset) {
+		int hash = 0;
+		for (int i = offset; i < mTokenLength; i++) {
+			hash = 31 * hash + mToken[i];
+		}
+		final int mask = mSymbols.length - 1;
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		while (true) {
+			final String symbol = mSymbols[slot];
+			if (symbol == null || tokenEquals(symbol, offset)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	private boolean tokenEquals(final String symbol, final int offset) {
+		if (symbol.length() != mTokenLength - offset) {
+			return false;
+		}
+		for (int i = offset; i < mTokenLength; i++) {
+			if (symbol.charAt(i - offset) != mToken[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get the string for the current token starting at the given offset from the symbol table, adding it if it is not
+	 * yet present.
+	 *
+	 * @return the slot of the symbol, or -1 if the symbol is not stored in the table.
+	 */
+	private int internToken(final int offset) {
+		if (mTokenLength - offset > MAX_INTERNED_LENGTH) {
+			return -1;
+		}
+		int slot = lookupToken(offset);
+		if (mSymbols[slot] == null) {
+			if (mSymbolCount >= MAX_INTERNED_SYMBOLS) {
+				return -1;
+			}
+			if (2 * (mSymbolCount + 1) > mSymbols.length) {
+				rehash();
+				slot = lookupToken(offset);
+			}
+			mSymbols[slot] = new String(mToken, offset, mTokenLength - offset);
+			mSymbolTokens[slot] = -1;
+			mSymbolCount++;
+		}
+		return slot;
+	}
+
+	private void rehash() {
+		final String[] oldSymbols = mSymbols;
+		final int[] oldTokens = mSymbolTokens;
+		mSymbols = new String[2 * oldSymbols.length];
+		mSymbolTokens = new int[2 * oldSymbols.length];
+		final int mask = mSymbols.length - 1;
+		for (int i = 0; i < oldSymbols.length; i++) {
+			final String symbol = oldSymbols[i];
+			if (symbol != null) {
+				final int hash = symbol.hashCode();
+				int slot = (hash ^ (hash >>> 16)) & mask;
+				while (mSymbols[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				mSymbols[slot] = symbol;
+				mSymbolTokens[slot] = oldTokens[i];
+			}
+		}
+	}
+
+	private String tokenString(final int offset) {
+		final int slot = internToken(offset);
+		return slot >= 0 ? mSymbols[slot] : new String(mToken, offset, mTokenLength - offset);
+	}
+
+	private Symbol symbol(final String name, final int type, final int line, final int column, final Object value) {
+		return mSymFactory.newSymbol(name, type, line, column, mLine, mColumn, value);
+	}
+
+	@Override
+	public Symbol next_token() throws IOException {
+		while (true) {
+			final int c = peek(0);
+			if (c < 0) {
+				return symbol("EOF", LexerSymbols.EOF, mLine, mColumn, null);
+			}
+			if (c == ' ' || c == '\t' || c == '\f' || c == '\r' || c == '\n') {
+				next();
+			} else if (c == ';') {
+				int d = c;
+				while (d >= 0 && d != '\r' && d != '\n') {
+					next();
+					d = peek(0);
+				}
+			} else {
+				break;
+			}
+		}
+		final int line = mLine;
+		final int column = mColumn;
+		mTokenLength = 0;
+		final char c = next();
+		switch (c) {
+		case '(':
+			return symbol("(", LexerSymbols.LPAR, line, column, null);
+		case ')':
+			return symbol(")", LexerSymbols.RPAR, line, column, null);
+		case '"':
+			return scanString(line, column);
+		case '|':
+			return scanQuotedSymbol(line, column);
+		case '#':
+			return scanBitVector(line, column);
+		case ':':
+			return scanKeyword(line, column);
+		default:
+			if (isDigit(c)) {
+				return scanNumber(c, line, column);
+			}
+			if (isSymbolStart(c)) {
+				appendToken(c);
+				while (isSymbolPart(peek(0))) {
+					appendToken(next());
+				}
+				final int slot = internToken(0);
+				if (slot < 0) {
+					final String name = new String(mToken, 0, mTokenLength);
+					return symbol(name, LexerSymbols.SYMBOL, line, column, name);
+				}
+				final String name = mSymbols[slot];
+				final int token = mSymbolTokens[slot];
+				return symbol(name, token >= 0 ? token : LexerSymbols.SYMBOL, line, column, name);
+			}
+			return error(String.valueOf(c), line, column);
+		}
+	}
+
+	private Symbol error(final String text, final int line, final int column) {
+		return symbol(text, LexerSymbols.error, line, column, text);
+	}
+
+	private Symbol scanString(final int line, final int column) throws IOException {
+		while (true) {
+			final int c = peek(0);
+			if (c < 0) {
+				// unterminated string, the parser reports the EOF
+				return symbol("EOF", LexerSymbols.EOF, mLine, mColumn, null);
+			}
+			next();
+			if (c == '"') {
+				final String value = new String(mToken, 0, mTokenLength);
+				return symbol("STRING", LexerSymbols.STRING, line, column, value);
+			}
+			if (c == '\\' && (peek(0) == '"' || peek(0) == '\\')) {
+				appendToken(next());
+			} else {
+				appendToken((char) c);
+			}
+		}
+	}
+
+	private Symbol scanQuotedSymbol(final int line, final int column) throws IOException {
+		// look for the closing bar first; if there is none, only the opening bar is an error
+		int length = 0;
+		int c;
+		while ((c = peek(length)) != '|') {
+			if (c < 0) {
+				return error("|", line, column);
+			}
+			length++;
+		}
+		for (int i = 0; i < length; i++) {
+			appendToken(next());
+		}
+		next();
+		final String name = tokenString(0);
+		return symbol(name, LexerSymbols.SYMBOL, line, column, name);
+	}
+
+	private Symbol scanBitVector(final int line, final int column) throws IOException {
+		final int kind = peek(0);
+		final boolean isHex = kind == 'x';
+		final int first = peek(1);
+		if (!(isHex ? isHexDigit(first) : kind == 'b' && (first == '0' || first == '1'))) {
+			return error("#", line, column);
+		}
+		appendToken('#');
+		appendToken(next());
+		int c;
+		while (isHex ? isHexDigit(c = peek(0)) : (c = peek(0)) == '0' || c == '1') {
+			appendToken(next());
+		}
+		final String value = tokenString(0);
+		return symbol(value, isHex ? LexerSymbols.HEXADECIMAL : LexerSymbols.BINARY, line, column, value);
+	}
+
+	private Symbol scanKeyword(final int line, final int column) throws IOException {
+		if (!isSymbolPart(peek(0))) {
+			return error(":", line, column);
+		}
+		appendToken(':');
+		while (isSymbolPart(peek(0))) {
+			appendToken(next());
+		}
+		final int slot = internToken(0);
+		if (slot < 0) {
+			final String name = new String(mToken, 0, mTokenLength);
+			return symbol(name, LexerSymbols.KEYWORD, line, column, name);
+		}
+		final String name = mSymbols[slot];
+		final int token = mSymbolTokens[slot];
+		return symbol(name, token >= 0 ? token : LexerSymbols.KEYWORD, line, column, name);
+	}
+
+	private Symbol scanNumber(final char first, final int line, final int column) throws IOException {
+		appendToken(first);
+		if (first != '0') {
+			while (isDigit(peek(0))) {
+				appendToken(next());
+			}
+		}
+		if (peek(0) == '.' && isDigit(peek(1))) {
+			appendToken(next());
+			while (isDigit(peek(0))) {
+				appendToken(next());
+			}
+			final BigDecimal value = new BigDecimal(mToken, 0, mTokenLength);
+			return symbol("DECIMAL", LexerSymbols.DECIMAL, line, column, value);
+		}
+		return symbol("NUMERAL", LexerSymbols.NUMERAL, line, column, convertNumeral());
+	}
+
+	private BigInteger convertNumeral() {
+		final BigInteger result;
+		if (mTokenLength <= MAX_LONG_DIGITS) {
+			long value = 0;
+			for (int i = 0; i < mTokenLength; i++) {
+				value = 10 * value + mToken[i] - '0';
+			}
+			result = BigInteger.valueOf(value);
+		} else {
+			result = new BigInteger(new String(mToken, 0, mTokenLength));
+		}
+		final int hash = result.hashCode();
+		for (final BigInteger integer : mBigNumbers.iterateHashCode(hash)) {
+			if (integer.equals(result)) {
+				return integer;
+			}
+		}
+		mBigNumbers.put(hash, result);
+		return result;
+	}
+}
@@ -41,7 +41,6 @@ import java.util.Map;
 
 import org.apache.commons.io.output.TeeOutputStream;
 
-import com.github.jhoenicke.javacup.runtime.SimpleSymbolFactory;
 import com.github.jhoenicke.javacup.runtime.Symbol;
 
 import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.ToolchainCanceledException;
@@ -58,6 +57,10 @@ import de.uni_freiburg.informatik.ultimate.logic.Term;
  * This class runs an external SMT solver. The main methods are <code>input</code>, which gives an input to the SMT
  * solver, and the <code>parse...</code> methods, which parse the output from the SMT solver.
  *
+ * Commands that contain terms can be given with {@link #inputWithTerm(String, Term, String)} and
+ * {@link #inputWithTerms(String, Term[], String)}, which print the command into a buffer that is reused for all
+ * commands and write it to the solver without creating a string.
+ *
  * @author Oday Jubran
  * @author Daniel Dietsch (dietsch@informatik.uni-freiburg.de)
  * @author Matthias Heizmann
@@ -65,7 +68,8 @@ import de.uni_freiburg.informatik.ultimate.logic.Term;
 class Executor {
 
 	private MonitoredProcess mProcess;
-	private Lexer mLexer;
+	private AnswerLexer mLexer;
+	private SharingTermPrinter mPrinter;
 
 	private BufferedWriter mWriter;
 	private InputStream mStdErr;
@@ -79,6 +83,14 @@ class Executor {
 	private final String mFullPathOfDumpedFile;
 
 	private static final String EOF_ERROR_MSG = "Received EOF on stdin.";
+	/**
+	 * The command buffer is replaced after a command that is larger than this, so that it does not keep the memory of
+	 * a single large command.
+	 */
+	private static final int MAX_KEPT_COMMAND_SIZE = 1 << 20;
+
+	private StringBuilder mCommand = new StringBuilder();
+	private char[] mCommandChars = new char[0];
 
 	/**
 	 *
@@ -125,9 +137,8 @@ class Executor {
 
 		mStdErr = mProcess.getErrorStream();
 
-		final SimpleSymbolFactory symfactory = new SimpleSymbolFactory();
-		mLexer = new Lexer(new InputStreamReader(stdout));
-		mLexer.setSymbolFactory(symfactory);
+		mLexer = new AnswerLexer(new InputStreamReader(stdout));
+		mPrinter = new SharingTermPrinter();
 
 		final OutputStream underlying;
 		if (mFullPathOfDumpedFile != null) {
@@ -149,16 +160,104 @@ class Executor {
 			mLogger.debug(getLogStringPrefix() + " " + in);
 		}
 		try {
-			// FIXME 2019-04-27 Matthias: Workaround for CVC4.
-			// It seems like CVC4 needs two line breaks after some set-info
-			// commands
-			mWriter.write(in + System.lineSeparator() + System.lineSeparator());
-			mWriter.flush();
+			mWriter.write(in);
+			finishInput();
+		} catch (final IOException e) {
+			throw convertIOException(e);
+		}
+	}
+
+	/**
+	 * Give a command that contains a term to the SMT solver. Applications that occur more than once in the term are
+	 * bound by a let.
+	 *
+	 * @param prefix
+	 *            the command up to the term, e.g., <code>"(assert "</code>.
+	 * @param term
+	 *            the term.
+	 * @param suffix
+	 *            the rest of the command after the term.
+	 */
+	public void inputWithTerm(final String prefix, final Term term, final String suffix) {
+		try {
+			mCommand.append(prefix);
+			mPrinter.appendShared(mCommand, term);
+			mCommand.append(suffix);
+			writeCommand();
 		} catch (final IOException e) {
 			throw convertIOException(e);
+		} finally {
+			clearCommand();
 		}
 	}
 
+	/**
+	 * Give a command that contains a list of terms to the SMT solver. The terms are separated by spaces and printed
+	 * without lets, e.g., because the solver repeats them in its answer.
+	 *
+	 * @param prefix
+	 *            the command up to the first term, e.g., <code>"(get-value ("</code>.
+	 * @param terms
+	 *            the terms.
+	 * @param suffix
+	 *            the rest of the command after the last term.
+	 */
+	public void inputWithTerms(final String prefix, final Term[] terms, final String suffix) {
+		try {
+			mCommand.append(prefix);
+			String sep = "";
+			for (final Term t : terms) {
+				mCommand.append(sep);
+				mPrinter.appendTerm(mCommand, t);
+				sep = " ";
+			}
+			mCommand.append(suffix);
+			writeCommand();
+		} catch (final IOException e) {
+			throw convertIOException(e);
+		} finally {
+			clearCommand();
+		}
+	}
+
+	/**
+	 * Write the command in the command buffer to the SMT solver.
+	 */
+	private void writeCommand() throws IOException {
+		final int length = mCommand.length();
+		if (mLogger.isDebugEnabled()) {
+			mLogger.debug(getLogStringPrefix() + " " + mCommand);
+		}
+		if (mCommandChars.length < length) {
+			mCommandChars = new char[Math.max(length, 2 * mCommandChars.length)];
+		}
+		mCommand.getChars(0, length, mCommandChars, 0);
+		mWriter.write(mCommandChars, 0, length);
+		finishInput();
+	}
+
+	/**
+	 * Clear the command buffer, also if printing or writing the command failed, such that no partial command is
+	 * prepended to the next one.
+	 */
+	private void clearCommand() {
+		if (mCommand.length() > MAX_KEPT_COMMAND_SIZE) {
+			mCommand = new StringBuilder();
+			mCommandChars = new char[0];
+		} else {
+			mCommand.setLength(0);
+		}
+	}
+
+	private void finishInput() throws IOException {
+		// FIXME 2019-04-27 Matthias: Workaround for CVC4.
+		// It seems like CVC4 needs two line breaks after some set-info
+		// commands
+		mWriter.write(System.lineSeparator());
+		mWriter.write(System.lineSeparator());
+		mWriter.flush();
+	}
+
 	public void exit() {
 		if (mProcess != null && mProcess.isRunning()) {
 			input("(exit)");
@@ -171,7 +270,7 @@ class Executor {
 		mProcess = null;
 	}
 
-	public static List<Symbol> parseSexpr(final Lexer lexer) throws IOException {
+	public static List<Symbol> parseSexpr(final AnswerLexer lexer) throws IOException {
 		final ArrayList<Symbol> result = new ArrayList<>();
 		int parenLevel = 0;
 		do {
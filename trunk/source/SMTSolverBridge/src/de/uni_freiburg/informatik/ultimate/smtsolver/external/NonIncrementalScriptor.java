@@ -256,7 +256,7 @@ public class NonIncrementalScriptor extends NoopScript {
 				throw new UnsupportedOperationException();
 			}
 		}
-		mExecutor.input(SmtCommandUtils.GetValueCommand.buildString(terms));
+		mExecutor.inputWithTerms("(get-value (", terms, "))");
 		return mExecutor.parseGetValueResult();
 	}
 
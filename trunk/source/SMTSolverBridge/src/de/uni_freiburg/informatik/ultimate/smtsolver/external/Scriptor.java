@@ -143,7 +143,7 @@ public class Scriptor extends NoopScript {
 
 	@Override
 	public LBool assertTerm(final Term term) throws SMTLIBException {
-		mExecutor.input(SmtCommandUtils.AssertCommand.buildString(term));
+		mExecutor.inputWithTerm("(assert ", term, ")");
 		mExecutor.parseSuccess();
 		mStatus = LBool.UNKNOWN;
 		return LBool.UNKNOWN;
@@ -184,7 +184,7 @@ public class Scriptor extends NoopScript {
 						+ " of sort " + t.getSort().getRealSort());
 			}
 		}
-		mExecutor.input(SmtCommandUtils.GetValueCommand.buildString(terms));
+		mExecutor.inputWithTerms("(get-value (", terms, "))");
 		return mExecutor.parseGetValueResult();
 	}
 
@@ -99,20 +99,6 @@ public class ScriptorWithGetInterpolants extends Scriptor {
 		return super.mExecutor;
 	}
 
-	private static String buildInterpolationCommand(final String initialCommand, final Term[] partition) {
-		final StringBuilder command = new StringBuilder();
-		final PrintTerm pt = new PrintTerm();
-		command.append(initialCommand);
-		String sep = "";
-		for (final Term t : partition) {
-			command.append(sep);
-			pt.append(command, t);
-			sep = " ";
-		}
-		command.append(")");
-		return command.toString();
-	}
-
 	private static String buildInterpolationCommand(final String initialCommand, final Term[] partition,
 			final int[] startOfSubtree) {
 		final StringBuilder command = new StringBuilder();
@@ -167,8 +153,7 @@ public class ScriptorWithGetInterpolants extends Scriptor {
 		}
 
 		private void sendInterpolationCommand(final Term[] partition) {
-			final String command = buildInterpolationCommand(CMD, partition);
-			getExecutor().input(command);
+			getExecutor().inputWithTerms(CMD, partition, ")");
 		}
 
 		private void sendInterpolationCommand(final Term[] partition, final int[] startOfSubtree) {
@@ -203,8 +188,7 @@ public class ScriptorWithGetInterpolants extends Scriptor {
 		}
 
 		private void sendInterpolationCommand(final Term[] partition) {
-			final String command = buildInterpolationCommand(CMD, partition);
-			getExecutor().input(command);
+			getExecutor().inputWithTerms(CMD, partition, ")");
 		}
 
 		private void sendInterpolationCommand(final Term[] partition, final int[] startOfSubtree) {
@@ -268,18 +252,7 @@ public class ScriptorWithGetInterpolants extends Scriptor {
 		}
 
 		private void sendInterpolationCommand(final Term[] partition) {
-			final StringBuilder command = new StringBuilder();
-			final PrintTerm pt = new PrintTerm();
-			command.append(CMD);
-			String sep = "";
-			for (final Term t : partition) {
-				command.append(sep);
-				pt.append(command, t);
-				sep = " ";
-			}
-			command.append("))");
-
-			getExecutor().input(command.toString());
+			getExecutor().inputWithTerms(CMD, partition, "))");
 		}
 
 		private void sendInterpolationCommand(final Term[] partition, final int[] startOfSubtree) {
@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE SMTSolverBridge.
+ *
+ * The ULTIMATE SMTSolverBridge is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE SMTSolverBridge is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE SMTSolverBridge. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE SMTSolverBridge, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE SMTSolverBridge grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.smtsolver.external;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.logic.AnnotatedTerm;
+import de.uni_freiburg.informatik.ultimate.logic.Annotation;
+import de.uni_freiburg.informatik.ultimate.logic.ApplicationTerm;
+import de.uni_freiburg.informatik.ultimate.logic.ConstantTerm;
+import de.uni_freiburg.informatik.ultimate.logic.FormulaLet;
+import de.uni_freiburg.informatik.ultimate.logic.FunctionSymbol;
+import de.uni_freiburg.informatik.ultimate.logic.PrintTerm;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
+
+/**
+ * Prints terms for an external solver. The printer is used for all commands of one solver session and memoizes the
+ * SMT-LIB representation of the function symbols it has printed.
+ *
+ * {@link #appendShared(Appendable, Term)} prints a quantifier-free term with a let for every application that occurs
+ * more than once. The lets are computed on the DAG of the term and printed directly, i.e., unlike
+ * {@link FormulaLet} this does not create the let terms and fresh variables in the theory. Annotations of the whole
+ * term, e.g., its name, are kept outside of the lets. Terms with binders or nested annotations are letted by
+ * {@link FormulaLet}.
+ */
+class SharingTermPrinter extends PrintTerm {
+
+	private static final String VARIABLE_PREFIX = ".cse";
+
+	private final Map<FunctionSymbol, String> mApplicationStrings = new HashMap<>();
+	private final Map<Term, String> mSharedNames = new HashMap<>();
+	/**
+	 * The shared term whose definition is currently printed.
+	 */
+	private Term mDefinition;
+
+	@Override
+	protected void walkTerm(final Term term) {
+		if (!mSharedNames.isEmpty() && term != mDefinition) {
+			final String name = mSharedNames.get(term);
+			if (name != null) {
+				mTodo.add(name);
+				return;
+			}
+		}
+		if (term instanceof ApplicationTerm) {
+			final ApplicationTerm appTerm = (ApplicationTerm) term;
+			final String func =
+					mApplicationStrings.computeIfAbsent(appTerm.getFunction(), FunctionSymbol::getApplicationString);
+			final Term[] args = appTerm.getParameters();
+			if (args.length == 0) {
+				mTodo.add(func);
+			} else {
+				mTodo.addLast(")");
+				for (int i = args.length - 1; i >= 0; i--) {
+					mTodo.addLast(args[i]);
+					mTodo.addLast(" ");
+				}
+				mTodo.add(func);
+				mTodo.add("(");
+			}
+		} else {
+			super.walkTerm(term);
+		}
+	}
+
+	/**
+	 * Print a term without introducing lets.
+	 */
+	public void appendTerm(final Appendable appender, final Term term) throws IOException {
+		try {
+			append(appender, term);
+		} catch (final RuntimeException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Print a term where every application that occurs more than once is bound by a let.
+	 */
+	public void appendShared(final Appendable appender, final Term term) throws IOException {
+		if (term instanceof AnnotatedTerm) {
+			final AnnotatedTerm annotated = (AnnotatedTerm) term;
+			appender.append("(! ");
+			appendShared(appender, annotated.getSubterm());
+			for (final Annotation annot : annotated.getAnnotations()) {
+				appender.append(' ').append(annot.getKey());
+				final Object value = annot.getValue();
+				if (value instanceof Term) {
+					appender.append(' ');
+					appendTerm(appender, (Term) value);
+				} else if (value instanceof Object[]) {
+					appender.append(' ');
+					append(appender, (Object[]) value);
+				} else if (value != null) {
+					appender.append(' ').append(value.toString());
+				}
+			}
+			appender.append(')');
+			return;
+		}
+		final Set<String> usedNames = new HashSet<>();
+		final List<List<Term>> levels = computeSharedTerms(term, usedNames);
+		if (levels == null) {
+			appendTerm(appender, new FormulaLet().let(term));
+			return;
+		}
+		try {
+			int counter = 0;
+			for (final List<Term> level : levels) {
+				appender.append("(let (");
+				for (final Term shared : level) {
+					String name;
+					do {
+						name = VARIABLE_PREFIX + counter++;
+					} while (usedNames.contains(name));
+					appender.append('(').append(name).append(' ');
+					mDefinition = shared;
+					appendTerm(appender, shared);
+					appender.append(')');
+					mSharedNames.put(shared, name);
+				}
+				appender.append(") ");
+			}
+			mDefinition = null;
+			appendTerm(appender, term);
+			for (int i = 0; i < levels.size(); i++) {
+				appender.append(')');
+			}
+		} finally {
+			mDefinition = null;
+			mSharedNames.clear();
+		}
+	}
+
+	private static boolean isShareable(final Term term) {
+		return term instanceof ApplicationTerm && ((ApplicationTerm) term).getParameters().length > 0;
+	}
+
+	/**
+	 * Compute the applications that occur more than once in a term. The shared terms are grouped by their nesting
+	 * depth, the definitions in one group only depend on shared terms of earlier groups.
+	 *
+	 * @param usedNames
+	 *            a set where the names of variables and constants that clash with the let variables are added.
+	 * @return the groups of shared terms, or null if the term contains binders or annotations.
+	 */
+	private static List<List<Term>> computeSharedTerms(final Term term, final Set<String> usedNames) {
+		final Map<Term, Integer> occurrences = new HashMap<>();
+		final ArrayDeque<Term> todo = new ArrayDeque<>();
+		todo.push(term);
+		while (!todo.isEmpty()) {
+			final Term current = todo.pop();
+			if (current instanceof ApplicationTerm) {
+				final ApplicationTerm appTerm = (ApplicationTerm) current;
+				final Term[] params = appTerm.getParameters();
+				if (params.length == 0) {
+					if (appTerm.getFunction().getName().startsWith(VARIABLE_PREFIX)) {
+						usedNames.add(appTerm.getFunction().getName());
+					}
+				} else if (occurrences.merge(appTerm, 1, Integer::sum) == 1) {
+					for (final Term param : params) {
+						todo.push(param);
+					}
+				}
+			} else if (current instanceof TermVariable) {
+				usedNames.add(((TermVariable) current).getName());
+			} else if (!(current instanceof ConstantTerm)) {
+				return null;
+			}
+		}
+
+		// compute the depth of every application bottom-up, shared terms increase the depth by one
+		final Map<Term, Integer> depths = new HashMap<>();
+		final List<List<Term>> levels = new ArrayList<>();
+		todo.push(term);
+		while (!todo.isEmpty()) {
+			final Term current = todo.peek();
+			if (!isShareable(current) || depths.containsKey(current)) {
+				todo.pop();
+				continue;
+			}
+			boolean ready = true;
+			int depth = 0;
+			for (final Term param : ((ApplicationTerm) current).getParameters()) {
+				if (isShareable(param)) {
+					final Integer childDepth = depths.get(param);
+					if (childDepth == null) {
+						todo.push(param);
+						ready = false;
+					} else if (ready) {
+						final boolean childShared = occurrences.get(param) > 1;
+						depth = Math.max(depth, childShared ? childDepth + 1 : childDepth);
+					}
+				}
+			}
+			if (ready) {
+				todo.pop();
+				depths.put(current, depth);
+				if (occurrences.get(current) > 1) {
+					while (levels.size() <= depth) {
+						levels.add(new ArrayList<>());
+					}
+					levels.get(depth).add(current);
+				}
+			}
+		}
+		return levels;
+	}
+}
@@ -30,7 +30,6 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.util.List;
 
-import com.github.jhoenicke.javacup.runtime.SimpleSymbolFactory;
 import com.github.jhoenicke.javacup.runtime.Symbol;
 
 import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
@@ -59,9 +58,7 @@ public class TermParseUtils {
 	 */
 	public static Term parseTerm(final Script script, final String string) {
 
-		final SimpleSymbolFactory symfactory = new SimpleSymbolFactory();
-		final Lexer lexer = new Lexer(new StringReader(string));
-		lexer.setSymbolFactory(symfactory);
+		final AnswerLexer lexer = new AnswerLexer(new StringReader(string));
 
 		// Workaround1: split input manually into s-expressions
 		final List<Symbol> sexpr;
@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE SMTSolverBridge.
+ *
+ * The ULTIMATE SMTSolverBridge is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE SMTSolverBridge is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE SMTSolverBridge. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE SMTSolverBridge, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE SMTSolverBridge grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.smtsolver.external;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.jhoenicke.javacup.runtime.Symbol;
+
+/**
+ * Checks the tokens that {@link AnswerLexer} returns for the answers of SMT solvers.
+ */
+public class AnswerLexerTest {
+
+	@Test
+	public void parentheses() throws IOException {
+		assertTokens("(())", LexerSymbols.LPAR, LexerSymbols.LPAR, LexerSymbols.RPAR, LexerSymbols.RPAR);
+	}
+
+	@Test
+	public void simpleSymbols() throws IOException {
+		final List<Symbol> tokens = lex("x |x| ~!@$%^&*_+-=<>.?/ a1.b2 \u00e4\u00df");
+		assertTypes(tokens, LexerSymbols.SYMBOL, LexerSymbols.SYMBOL, LexerSymbols.SYMBOL, LexerSymbols.SYMBOL,
+				LexerSymbols.SYMBOL);
+		assertValues(tokens, "x", "x", "~!@$%^&*_+-=<>.?/", "a1.b2", "\u00e4\u00df");
+	}
+
+	@Test
+	public void quotedSymbols() throws IOException {
+		final List<Symbol> tokens = lex("|a b| |(sat)| || |line\nbreak ;no comment| |sat|");
+		assertTypes(tokens, LexerSymbols.SYMBOL, LexerSymbols.SYMBOL, LexerSymbols.SYMBOL, LexerSymbols.SYMBOL,
+				LexerSymbols.SYMBOL);
+		assertValues(tokens, "a b", "(sat)", "", "line\nbreak ;no comment", "sat");
+	}
+
+	@Test
+	public void unterminatedQuotedSymbol() throws IOException {
+		final List<Symbol> tokens = lex("|abc");
+		assertTypes(tokens, LexerSymbols.error, LexerSymbols.SYMBOL);
+		assertValues(tokens, "|", "abc");
+	}
+
+	@Test
+	public void symbolsAreShared() throws IOException {
+		final List<Symbol> tokens = lex("(model (x 1) (x |x|))");
+		final List<Object> xs = new ArrayList<>();
+		for (final Symbol token : tokens) {
+			if ("x".equals(token.value)) {
+				xs.add(token.value);
+			}
+		}
+		Assert.assertEquals(3, xs.size());
+		Assert.assertSame(xs.get(0), xs.get(1));
+		Assert.assertSame(xs.get(0), xs.get(2));
+	}
+
+	@Test
+	public void strings() throws IOException {
+		final List<Symbol> tokens = lex("\"\" \"a b\" \"say \\\"hi\\\"\" \"back\\\\slash\" \"\\n\" \"(x)\"");
+		assertTypes(tokens, LexerSymbols.STRING, LexerSymbols.STRING, LexerSymbols.STRING, LexerSymbols.STRING,
+				LexerSymbols.STRING, LexerSymbols.STRING);
+		assertValues(tokens, "", "a b", "say \"hi\"", "back\\slash", "\\n", "(x)");
+	}
+
+	@Test
+	public void numerals() throws IOException {
+		final List<Symbol> tokens = lex("0 42 123456789012345678 1234567890123456789012345 007");
+		assertTypes(tokens, LexerSymbols.NUMERAL, LexerSymbols.NUMERAL, LexerSymbols.NUMERAL, LexerSymbols.NUMERAL,
+				LexerSymbols.NUMERAL, LexerSymbols.NUMERAL, LexerSymbols.NUMERAL);
+		assertValues(tokens, BigInteger.ZERO, BigInteger.valueOf(42), new BigInteger("123456789012345678"),
+				new BigInteger("1234567890123456789012345"), BigInteger.ZERO, BigInteger.ZERO,
+				BigInteger.valueOf(7));
+	}
+
+	@Test
+	public void decimals() throws IOException {
+		final List<Symbol> tokens = lex("0.5 12.250 3. 4.x");
+		assertTypes(tokens, LexerSymbols.DECIMAL, LexerSymbols.DECIMAL, LexerSymbols.NUMERAL, LexerSymbols.SYMBOL,
+				LexerSymbols.NUMERAL, LexerSymbols.SYMBOL);
+		assertValues(tokens, new BigDecimal("0.5"), new BigDecimal("12.250"), BigInteger.valueOf(3), ".",
+				BigInteger.valueOf(4), ".x");
+	}
+
+	@Test
+	public void bitVectors() throws IOException {
+		final List<Symbol> tokens = lex("#x0aF #b0110 #b2 #xg");
+		assertTypes(tokens, LexerSymbols.HEXADECIMAL, LexerSymbols.BINARY, LexerSymbols.error, LexerSymbols.SYMBOL,
+				LexerSymbols.error, LexerSymbols.SYMBOL);
+		assertValues(tokens, "#x0aF", "#b0110", "#", "b2", "#", "xg");
+	}
+
+	@Test
+	public void keywords() throws IOException {
+		final List<Symbol> tokens = lex(":named :my-keyword :reason-unknown :");
+		assertTypes(tokens, LexerSymbols.CNAMED, LexerSymbols.KEYWORD, LexerSymbols.CREASONUNKNOWN,
+				LexerSymbols.error);
+		assertValues(tokens, ":named", ":my-keyword", ":reason-unknown", ":");
+	}
+
+	@Test
+	public void reservedWords() throws IOException {
+		assertTokens("sat unsat unknown success unsupported error let _ ! as true false", LexerSymbols.SAT,
+				LexerSymbols.UNSAT, LexerSymbols.UNKNOWN, LexerSymbols.SUCCESS, LexerSymbols.UNSUPPORTED,
+				LexerSymbols.ERRORSYM, LexerSymbols.LET, LexerSymbols.UNDERSCORE, LexerSymbols.BANG, LexerSymbols.AS,
+				LexerSymbols.TRUE, LexerSymbols.FALSE);
+		// reserved words are case sensitive and only match whole symbols
+		assertTokens("SAT sat2 unsat!", LexerSymbols.SYMBOL, LexerSymbols.SYMBOL, LexerSymbols.SYMBOL);
+	}
+
+	@Test
+	public void comments() throws IOException {
+		final List<Symbol> tokens = lex("; a comment (\nsat ; unsat\r\n;\n  (x)");
+		assertTypes(tokens, LexerSymbols.SAT, LexerSymbols.LPAR, LexerSymbols.SYMBOL, LexerSymbols.RPAR);
+		Assert.assertEquals(2, tokens.get(0).left);
+		Assert.assertEquals(4, tokens.get(1).left);
+	}
+
+	@Test
+	public void invalidCharacters() throws IOException {
+		assertTokens("{x}", LexerSymbols.error, LexerSymbols.SYMBOL, LexerSymbols.error);
+	}
+
+	@Test
+	public void tokensAcrossBlocks() throws IOException {
+		final StringBuilder answer = new StringBuilder("((");
+		final StringBuilder longSymbol = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			longSymbol.append((char) ('a' + i % 26));
+		}
+		answer.append('|').append(longSymbol).append("| ").append(longSymbol).append(" 12345.678))");
+		final List<Symbol> tokens = lex(new OneCharacterReader(answer.toString()));
+		assertTypes(tokens, LexerSymbols.LPAR, LexerSymbols.LPAR, LexerSymbols.SYMBOL, LexerSymbols.SYMBOL,
+				LexerSymbols.DECIMAL, LexerSymbols.RPAR, LexerSymbols.RPAR);
+		assertValues(tokens.subList(2, 5), longSymbol.toString(), longSymbol.toString(), new BigDecimal("12345.678"));
+	}
+
+	private static void assertTokens(final String answer, final int... types) throws IOException {
+		assertTypes(lex(answer), types);
+	}
+
+	private static void assertTypes(final List<Symbol> tokens, final int... types) {
+		final int[] actual = new int[tokens.size()];
+		for (int i = 0; i < actual.length; i++) {
+			actual[i] = tokens.get(i).sym;
+		}
+		Assert.assertArrayEquals(types, actual);
+	}
+
+	private static void assertValues(final List<Symbol> tokens, final Object... values) {
+		Assert.assertEquals(values.length, tokens.size());
+		for (int i = 0; i < values.length; i++) {
+			Assert.assertEquals(values[i], tokens.get(i).value);
+		}
+	}
+
+	private static List<Symbol> lex(final String answer) throws IOException {
+		return lex(new StringReader(answer));
+	}
+
+	/**
+	 * @return the tokens without the final EOF token.
+	 */
+	private static List<Symbol> lex(final Reader reader) throws IOException {
+		final AnswerLexer lexer = new AnswerLexer(reader);
+		final List<Symbol> result = new ArrayList<>();
+		Symbol token = lexer.next_token();
+		while (token.sym != LexerSymbols.EOF) {
+			result.add(token);
+			token = lexer.next_token();
+		}
+		return result;
+	}
+
+	/**
+	 * A reader that returns at most one character per call, like a solver that writes its answer slowly.
+	 */
+	private static final class OneCharacterReader extends Reader {
+		private final String mContent;
+		private int mPos;
+
+		private OneCharacterReader(final String content) {
+			mContent = content;
+		}
+
+		@Override
+		public int read(final char[] cbuf, final int off, final int len) {
+			if (mPos == mContent.length()) {
+				return -1;
+			}
+			if (len == 0) {
+				return 0;
+			}
+			cbuf[off] = mContent.charAt(mPos++);
+			return 1;
+		}
+
+		@Override
+		public void close() {
+			// nothing to close
+		}
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE SMTSolverBridge.
+ *
+ * The ULTIMATE SMTSolverBridge is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE SMTSolverBridge is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE SMTSolverBridge. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE SMTSolverBridge, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE SMTSolverBridge grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.smtsolver.external;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger.LogLevel;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Measures how long a {@link Scriptor} needs to send terms to an external solver and to read its answers. The solver
+ * is a {@link StandInSolver} that answers immediately, so the times are the times of the communication.
+ *
+ * The benchmark asserts a bit-vector formula with a lot of sharing, like the formulas of unrolled program paths,
+ * checks it, and gets the values of all variables, in a given number of rounds. The first half of the rounds warms up
+ * the JVM and is not measured.
+ *
+ * USAGE: ScriptorBenchmark [variables [rounds]]. The class path must not contain spaces as it is passed to the
+ * command that starts the stand-in solver.
+ */
+public final class ScriptorBenchmark {
+
+	private static final int DEFAULT_VARIABLES = 200;
+	private static final int DEFAULT_ROUNDS = 200;
+	private static final int APPLICATIONS_PER_VARIABLE = 20;
+	private static final int LOCALITY = 8;
+
+	private ScriptorBenchmark() {
+		// only a main method
+	}
+
+	public static void main(final String[] args) throws IOException {
+		final int variables = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_VARIABLES;
+		final int rounds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROUNDS;
+		final String command = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java -cp "
+				+ System.getProperty("java.class.path") + " " + StandInSolver.class.getName();
+		final IUltimateServiceProvider services = UltimateMocks.createUltimateServiceProviderMock(LogLevel.WARN);
+		final Script script = new Scriptor(command, services.getLoggingService().getLogger("ScriptorBenchmark"),
+				services, "StandInSolver", null);
+		script.setLogic(Logics.QF_BV);
+		final Sort bv32 = script.sort("BitVec", new String[] { "32" });
+		final Term[] vars = new Term[variables];
+		for (int i = 0; i < variables; i++) {
+			script.declareFun("v" + i, new Sort[0], bv32);
+			vars[i] = script.term("v" + i);
+		}
+		final Term formula = script.term("=", createSharedTerm(script, vars), vars[0]);
+
+		long assertNanos = 0;
+		long getValueNanos = 0;
+		for (int round = 0; round < rounds; round++) {
+			if (round == rounds / 2) {
+				assertNanos = 0;
+				getValueNanos = 0;
+			}
+			script.push(1);
+			final long start = System.nanoTime();
+			script.assertTerm(formula);
+			final long asserted = System.nanoTime();
+			script.checkSat();
+			final long checked = System.nanoTime();
+			script.getValue(vars);
+			final long gotValues = System.nanoTime();
+			script.pop(1);
+			assertNanos += asserted - start;
+			getValueNanos += gotValues - checked;
+		}
+		script.exit();
+		final int measured = rounds - rounds / 2;
+		System.out.println(String.format("%d rounds with %d variables: assert %d ms, get-value %d ms", measured,
+				variables, assertNanos / 1_000_000, getValueNanos / 1_000_000));
+	}
+
+	/**
+	 * Build a term where every application uses one of the last applications and an arbitrary earlier term.
+	 */
+	private static Term createSharedTerm(final Script script, final Term[] vars) {
+		final Random random = new Random(3);
+		final List<Term> pool = new ArrayList<>(Arrays.asList(vars));
+		for (int i = 0; i < APPLICATIONS_PER_VARIABLE * vars.length; i++) {
+			final Term left = pool.get(pool.size() - 1 - random.nextInt(Math.min(pool.size(), LOCALITY)));
+			final Term right = pool.get(random.nextInt(pool.size()));
+			if (random.nextBoolean()) {
+				pool.add(script.term("bvadd", left, right));
+			} else {
+				pool.add(script.term("ite", script.term("bvult", left, right), script.term("bvmul", left, right),
+						right));
+			}
+		}
+		return pool.get(pool.size() - 1);
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE SMTSolverBridge.
+ *
+ * The ULTIMATE SMTSolverBridge is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE SMTSolverBridge is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE SMTSolverBridge. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE SMTSolverBridge, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE SMTSolverBridge grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.smtsolver.external;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.logic.Annotation;
+import de.uni_freiburg.informatik.ultimate.logic.FormulaUnLet;
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.SMTInterpol;
+import de.uni_freiburg.informatik.ultimate.test.mocks.ConsoleLogger;
+
+/**
+ * Prints terms with {@link SharingTermPrinter}, parses the output again, and checks that the result without lets is
+ * the original term.
+ */
+public class SharingTermPrinterTest {
+
+	private Script mScript;
+	private SharingTermPrinter mPrinter;
+	private Term mX;
+	private Term mY;
+
+	@Before
+	public void setUp() {
+		mScript = new SMTInterpol(new SmtInterpolLogProxyWrapper(new ConsoleLogger()));
+		mScript.setLogic(Logics.ALL);
+		final Sort intSort = mScript.sort("Int");
+		mScript.declareFun("x", new Sort[0], intSort);
+		mScript.declareFun("y", new Sort[0], intSort);
+		mScript.declareFun("f", new Sort[] { intSort, intSort }, intSort);
+		mScript.declareFun("p", new Sort[] { intSort }, mScript.sort("Bool"));
+		mX = mScript.term("x");
+		mY = mScript.term("y");
+		mPrinter = new SharingTermPrinter();
+	}
+
+	@Test
+	public void noSharing() throws IOException {
+		final Term term = mScript.term("p", mScript.term("f", mX, mScript.numeral("3")));
+		final String printed = assertRoundTrip(term);
+		Assert.assertFalse(printed, printed.contains("let"));
+	}
+
+	@Test
+	public void exponentialTree() throws IOException {
+		// the tree of this term has 2^40 leaves, only the DAG can be printed
+		Term term = mX;
+		for (int i = 0; i < 40; i++) {
+			term = mScript.term("f", term, term);
+		}
+		final String printed = assertRoundTrip(mScript.term("p", term));
+		Assert.assertTrue(printed, printed.length() < 2000);
+	}
+
+	@Test
+	public void randomDags() throws IOException {
+		final Random random = new Random(7);
+		for (int round = 0; round < 50; round++) {
+			final List<Term> pool = new ArrayList<>();
+			pool.add(mX);
+			pool.add(mY);
+			pool.add(mScript.numeral("1"));
+			for (int i = 0; i < 30; i++) {
+				final Term left = pool.get(random.nextInt(pool.size()));
+				final Term right = pool.get(random.nextInt(pool.size()));
+				switch (random.nextInt(3)) {
+				case 0:
+					pool.add(mScript.term("+", left, right));
+					break;
+				case 1:
+					pool.add(mScript.term("f", left, right));
+					break;
+				default:
+					pool.add(mScript.term("ite", mScript.term("<", left, right), left, right));
+					break;
+				}
+			}
+			final Term last = pool.get(pool.size() - 1);
+			assertRoundTrip(mScript.term("and", mScript.term("p", last), mScript.term("=", last, pool.get(5))));
+		}
+	}
+
+	@Test
+	public void sharedTermsInSharedTerms() throws IOException {
+		final Term shared = mScript.term("f", mX, mY);
+		final Term sharedTwice = mScript.term("+", shared, shared);
+		final Term term = mScript.term("and", mScript.term("p", sharedTwice),
+				mScript.term("=", sharedTwice, mScript.term("f", shared, sharedTwice)));
+		final String printed = assertRoundTrip(term);
+		Assert.assertTrue(printed, printed.startsWith("(let ((.cse0 (f x y))) (let ((.cse1 (+ .cse0 .cse0)))"));
+	}
+
+	@Test
+	public void nameClash() throws IOException {
+		mScript.declareFun(".cse0", new Sort[0], mScript.sort("Int"));
+		final Term clash = mScript.term(".cse0");
+		final Term shared = mScript.term("f", clash, mX);
+		final String printed =
+				assertRoundTrip(mScript.term("p", mScript.term("+", shared, shared, mScript.term("f", shared, clash))));
+		Assert.assertTrue(printed, printed.startsWith("(let ((.cse1 "));
+	}
+
+	@Test
+	public void annotationOutsideOfLets() throws IOException {
+		final Term shared = mScript.term("f", mX, mY);
+		// the theory does not define the name, parsing the term will
+		final Term term = mScript.getTheory().annotatedTerm(new Annotation[] { new Annotation(":named", "ip0") },
+				mScript.term("p", mScript.term("+", shared, shared)));
+		final String printed = assertRoundTrip(term);
+		Assert.assertTrue(printed, printed.startsWith("(! (let "));
+		Assert.assertTrue(printed, printed.endsWith(" :named ip0)"));
+	}
+
+	@Test
+	public void quantifiedTerm() throws IOException {
+		final TermVariable u = mScript.variable("u", mScript.sort("Int"));
+		final Term shared = mScript.term("f", u, mX);
+		final Term term = mScript.quantifier(Script.FORALL, new TermVariable[] { u },
+				mScript.term("p", mScript.term("+", shared, shared)));
+		assertRoundTrip(term);
+	}
+
+	@Test
+	public void printerIsReusable() throws IOException {
+		final Term shared = mScript.term("f", mX, mY);
+		assertRoundTrip(mScript.term("p", mScript.term("+", shared, shared)));
+		final Term other = mScript.term("f", mY, mX);
+		assertRoundTrip(mScript.term("p", mScript.term("+", shared, other)));
+		assertRoundTrip(mScript.term("p", mScript.term("+", other, other)));
+	}
+
+	private String assertRoundTrip(final Term term) throws IOException {
+		final StringBuilder sb = new StringBuilder();
+		mPrinter.appendShared(sb, term);
+		final String printed = sb.toString();
+		Assert.assertSame(printed, term, new FormulaUnLet().unlet(TermParseUtils.parseTerm(mScript, printed)));
+		return printed;
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE SMTSolverBridge.
+ *
+ * The ULTIMATE SMTSolverBridge is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE SMTSolverBridge is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE SMTSolverBridge. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE SMTSolverBridge, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE SMTSolverBridge grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.smtsolver.external;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * A process that reads SMT-LIB commands like an external solver but does not solve anything. It answers check-sat
+ * with sat, get-value with the value #x0000002a for every term, and every other command with success. It is used by
+ * {@link ScriptorBenchmark} to measure the cost of the communication with an external solver.
+ */
+public final class StandInSolver {
+
+	private StandInSolver() {
+		// only a main method
+	}
+
+	public static void main(final String[] args) throws IOException {
+		final Reader in = new BufferedReader(new InputStreamReader(System.in), 1 << 16);
+		final Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+		final StringBuilder command = new StringBuilder();
+		int depth = 0;
+		boolean inQuotedSymbol = false;
+		int c;
+		while ((c = in.read()) >= 0) {
+			if (depth == 0 && c != '(') {
+				continue;
+			}
+			command.append((char) c);
+			if (inQuotedSymbol) {
+				inQuotedSymbol = c != '|';
+			} else if (c == '|') {
+				inQuotedSymbol = true;
+			} else if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				depth--;
+				if (depth == 0) {
+					if (!answer(command.toString(), out)) {
+						return;
+					}
+					command.setLength(0);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return false if the command was exit.
+	 */
+	private static boolean answer(final String command, final Writer out) throws IOException {
+		if (command.startsWith("(check-sat")) {
+			out.write("sat\n");
+		} else if (command.startsWith("(exit")) {
+			out.flush();
+			return false;
+		} else if (command.startsWith("(get-value")) {
+			// the terms are the top-level elements of the list after get-value
+			final String terms = command.substring(command.indexOf('(', 1) + 1, command.length() - 2);
+			out.write('(');
+			int depth = 0;
+			int start = -1;
+			for (int i = 0; i <= terms.length(); i++) {
+				final char c = i < terms.length() ? terms.charAt(i) : ' ';
+				if (depth == 0 && c == ' ') {
+					if (start >= 0) {
+						out.write("(" + terms.substring(start, i) + " #x0000002a)\n");
+						start = -1;
+					}
+					continue;
+				}
+				if (start < 0) {
+					start = i;
+				}
+				if (c == '(') {
+					depth++;
+				} else if (c == ')') {
+					depth--;
+				}
+			}
+			out.write(")\n");
+		} else {
+			out.write("success\n");
+		}
+		out.flush();
+		return true;
+	}
+}
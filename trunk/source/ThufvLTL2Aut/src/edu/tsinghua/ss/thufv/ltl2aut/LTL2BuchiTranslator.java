@@ -0,0 +1,624 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE LTL2Aut plug-in.
+ *
+ * The ULTIMATE LTL2Aut plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE LTL2Aut plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE LTL2Aut plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE LTL2Aut plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE LTL2Aut plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package edu.tsinghua.ss.thufv.ltl2aut;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+import ast.BinaryTemporalOperator;
+import ast.ImpliesOp;
+import ast.UnaryTemporalOperator;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.VpAlphabet;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.DummyStateFactory;
+import de.uni_freiburg.informatik.ultimate.boogie.annotation.LTLPropertyCheck.CheckableExpression;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.AssumeStatement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.BinaryExpression;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.BooleanLiteral;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Expression;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Statement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.UnaryExpression;
+import de.uni_freiburg.informatik.ultimate.core.model.models.ILocation;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.ltl2aut.ast.AstNode;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.CodeBlock;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.CodeBlockFactory;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.StatementSequence.Origin;
+
+/**
+ * In-process translation of P4LTL formulas (given as the AST produced by ThufvSpecLang) into Büchi automata. This
+ * replaces the round trip through the external ltl2ba executable and the never claim parser.
+ *
+ * The translation follows the tableau construction of Gerth, Peled, Vardi and Wolper ("Simple on-the-fly automatic
+ * verification of linear temporal logic", PSTV 1995). The resulting generalized Büchi automaton is degeneralized with
+ * a round-robin counter over the acceptance sets. Every tableau node is labelled with the literals it has to satisfy;
+ * these labels become the letters (assume statements) of all transitions that enter the node, exactly like the
+ * options of a never claim do.
+ *
+ * The translation is done in two steps: the formula is first translated into a {@link SymbolicBuchiAutomaton} whose
+ * letters only mention the renamed atomic propositions (A, B, ...), which is then turned into a
+ * {@link INestedWordAutomaton} over {@link CodeBlock}s. The symbolic automaton does not depend on the program and can
+ * be stored in a {@link PropertyAutomatonCache}.
+ */
+public class LTL2BuchiTranslator {
+
+	private static final String INIT_STATE = "init";
+	private static final int INIT_ID = 0;
+
+	private final ILogger mLogger;
+	private final IUltimateServiceProvider mServices;
+	private final CodeBlockFactory mCodeblockFactory;
+	private final Map<String, String> mAtomRenaming;
+	private final Map<String, CheckableExpression> mAtomicPropositions;
+
+	private int mNextNodeId;
+
+	/**
+	 * @param atomRenaming
+	 *            Maps the string representation of each atomic proposition (e.g. <code>AP(drop)</code>) to the symbol
+	 *            that replaces it in the LTL property (e.g. <code>A</code>).
+	 * @param atomicPropositions
+	 *            Maps each symbol to the Boogie expression that it stands for.
+	 */
+	public LTL2BuchiTranslator(final IUltimateServiceProvider services, final ILogger logger,
+			final CodeBlockFactory cbf, final Map<String, String> atomRenaming,
+			final Map<String, CheckableExpression> atomicPropositions) {
+		mServices = services;
+		mLogger = logger;
+		mCodeblockFactory = cbf;
+		mAtomRenaming = atomRenaming;
+		mAtomicPropositions = atomicPropositions;
+	}
+
+	/**
+	 * Builds a Büchi automaton that accepts exactly the words satisfying <code>fairness && !liveness</code>.
+	 *
+	 * @param fairness
+	 *            the fairness constraint, may be null
+	 * @param liveness
+	 *            the property that should hold
+	 * @throws UnsupportedFormulaException
+	 *             if one of the formulas contains an operator or atomic proposition that cannot be translated
+	 */
+	public INestedWordAutomaton<CodeBlock, String> translateNegated(final AstNode fairness, final AstNode liveness)
+			throws UnsupportedFormulaException {
+		return toNestedWordAutomaton(translateNegatedSymbolic(fairness, liveness));
+	}
+
+	/**
+	 * Like {@link #translateNegated(AstNode, AstNode)}, but returns the automaton before its letters are turned into
+	 * {@link CodeBlock}s.
+	 */
+	public SymbolicBuchiAutomaton translateNegatedSymbolic(final AstNode fairness, final AstNode liveness)
+			throws UnsupportedFormulaException {
+		final LtlFormula negatedLiveness = toNnf(liveness, true);
+		final LtlFormula formula;
+		if (fairness == null) {
+			formula = negatedLiveness;
+		} else {
+			formula = LtlFormula.binary(Kind.AND, toNnf(fairness, false), negatedLiveness);
+		}
+		return translate(formula);
+	}
+
+	/**
+	 * Builds a Büchi automaton that accepts exactly the words satisfying the given formula.
+	 *
+	 * @throws UnsupportedFormulaException
+	 *             if the formula contains an operator or atomic proposition that cannot be translated
+	 */
+	public INestedWordAutomaton<CodeBlock, String> translate(final AstNode formula)
+			throws UnsupportedFormulaException {
+		return toNestedWordAutomaton(translate(toNnf(formula, false)));
+	}
+
+	private SymbolicBuchiAutomaton translate(final LtlFormula formula) {
+		final long start = System.nanoTime();
+		mNextNodeId = INIT_ID + 1;
+		final List<TableauNode> nodes = expand(formula);
+		final List<LtlFormula> untils = new ArrayList<>();
+		collectUntils(formula, untils);
+		final SymbolicBuchiAutomaton aut = degeneralize(nodes, untils);
+		mLogger.info(String.format("Translated %s in-process in %d ms: %d tableau nodes, %d acceptance sets, %s",
+				formula, (System.nanoTime() - start) / 1_000_000, nodes.size(), untils.size(), aut));
+		return aut;
+	}
+
+	/**
+	 * Replaces the letters of a symbolic automaton by assume statements over the Boogie expressions of the atomic
+	 * propositions. Transitions with the same letter share one {@link CodeBlock}.
+	 */
+	public INestedWordAutomaton<CodeBlock, String> toNestedWordAutomaton(final SymbolicBuchiAutomaton aut) {
+		final Map<Set<String>, CodeBlock> letters = new HashMap<>();
+		for (final Set<String> letter : aut.getLetters()) {
+			letters.put(letter, createLetter(letter));
+		}
+		final NestedWordAutomaton<CodeBlock, String> nwa = new NestedWordAutomaton<>(
+				new AutomataLibraryServices(mServices), new VpAlphabet<>(new HashSet<>(letters.values())),
+				new DummyStateFactory<String>());
+		for (final String state : aut.getStates()) {
+			nwa.addState(aut.isInitial(state), aut.isAccepting(state), state);
+		}
+		for (int i = 0; i < aut.getNumberOfTransitions(); ++i) {
+			nwa.addInternalTransition(aut.getTransitionSource(i), letters.get(aut.getTransitionLetter(i)),
+					aut.getTransitionTarget(i));
+		}
+		if (mLogger.isDebugEnabled()) {
+			mLogger.debug(String.format("Resulting automaton is:%n%s", nwa));
+		}
+		return nwa;
+	}
+
+	/**
+	 * Converts the P4LTL AST into negation normal form. Derived operators are replaced by until, release and next.
+	 */
+	private LtlFormula toNnf(final AstNode node, final boolean negate) throws UnsupportedFormulaException {
+		if (node instanceof BinaryTemporalOperator) {
+			final AstNode left = node.getOutgoingNodes().get(0);
+			final AstNode right = node.getOutgoingNodes().get(1);
+			switch (((BinaryTemporalOperator) node).getType()) {
+			case and:
+				return LtlFormula.binary(negate ? Kind.OR : Kind.AND, toNnf(left, negate), toNnf(right, negate));
+			case or:
+				return LtlFormula.binary(negate ? Kind.AND : Kind.OR, toNnf(left, negate), toNnf(right, negate));
+			case implies:
+				return toNnfImplies(left, right, negate);
+			case seq:
+				// a ; b is a && X <> b (see BinaryTemporalOperator#toString)
+				if (negate) {
+					return LtlFormula.binary(Kind.OR, toNnf(left, true), LtlFormula.next(
+							LtlFormula.binary(Kind.RELEASE, LtlFormula.FALSE, toNnf(right, true))));
+				}
+				return LtlFormula.binary(Kind.AND, toNnf(left, false),
+						LtlFormula.next(LtlFormula.binary(Kind.UNTIL, LtlFormula.TRUE, toNnf(right, false))));
+			case until:
+				return LtlFormula.binary(negate ? Kind.RELEASE : Kind.UNTIL, toNnf(left, negate),
+						toNnf(right, negate));
+			case release:
+				return LtlFormula.binary(negate ? Kind.UNTIL : Kind.RELEASE, toNnf(left, negate),
+						toNnf(right, negate));
+			default:
+				throw new UnsupportedFormulaException(
+						"Unknown binary temporal operator " + ((BinaryTemporalOperator) node).getType());
+			}
+		} else if (node instanceof ImpliesOp) {
+			return toNnfImplies(node.getOutgoingNodes().get(0), node.getOutgoingNodes().get(1), negate);
+		} else if (node instanceof UnaryTemporalOperator) {
+			final AstNode operand = node.getOutgoingNodes().get(0);
+			switch (((UnaryTemporalOperator) node).getType()) {
+			case always:
+				if (negate) {
+					return LtlFormula.binary(Kind.UNTIL, LtlFormula.TRUE, toNnf(operand, true));
+				}
+				return LtlFormula.binary(Kind.RELEASE, LtlFormula.FALSE, toNnf(operand, false));
+			case eventually:
+				if (negate) {
+					return LtlFormula.binary(Kind.RELEASE, LtlFormula.FALSE, toNnf(operand, true));
+				}
+				return LtlFormula.binary(Kind.UNTIL, LtlFormula.TRUE, toNnf(operand, false));
+			case next:
+				return LtlFormula.next(toNnf(operand, negate));
+			case neg:
+				return toNnf(operand, !negate);
+			default:
+				throw new UnsupportedFormulaException(String.format(
+						"%s is not a temporal operator, it should have been compiled away by ThufvSpecLang",
+						((UnaryTemporalOperator) node).getType()));
+			}
+		}
+		// everything else is instrumented as a boolean variable and occurs as AP(...) in the formula
+		final String atom = mAtomRenaming.get(node.toString());
+		if (atom == null || !mAtomicPropositions.containsKey(atom)) {
+			throw new UnsupportedFormulaException("No Boogie expression for atomic proposition " + node);
+		}
+		return LtlFormula.atom(atom, negate);
+	}
+
+	private LtlFormula toNnfImplies(final AstNode left, final AstNode right, final boolean negate)
+			throws UnsupportedFormulaException {
+		if (negate) {
+			return LtlFormula.binary(Kind.AND, toNnf(left, false), toNnf(right, true));
+		}
+		return LtlFormula.binary(Kind.OR, toNnf(left, true), toNnf(right, false));
+	}
+
+	/**
+	 * The GPVW expansion. Uses an explicit stack instead of recursion; nodes that agree on their old and next sets
+	 * are merged.
+	 */
+	private List<TableauNode> expand(final LtlFormula formula) {
+		final Map<NodeKey, TableauNode> finished = new LinkedHashMap<>();
+		final Deque<TableauNode> worklist = new ArrayDeque<>();
+		final TableauNode root = new TableauNode(mNextNodeId++);
+		root.mIncoming.add(INIT_ID);
+		root.mNew.add(formula);
+		worklist.push(root);
+
+		while (!worklist.isEmpty()) {
+			final TableauNode node = worklist.pop();
+			if (node.mNew.isEmpty()) {
+				final NodeKey key = new NodeKey(node.mOld, node.mNext);
+				final TableauNode existing = finished.get(key);
+				if (existing != null) {
+					existing.mIncoming.addAll(node.mIncoming);
+					continue;
+				}
+				finished.put(key, node);
+				final TableauNode successor = new TableauNode(mNextNodeId++);
+				successor.mIncoming.add(node.mId);
+				successor.mNew.addAll(node.mNext);
+				worklist.push(successor);
+				continue;
+			}
+
+			final LtlFormula current = node.mNew.iterator().next();
+			node.mNew.remove(current);
+			switch (current.mKind) {
+			case FALSE:
+				// contradiction, drop node
+				break;
+			case TRUE:
+			case AP:
+			case NOT_AP:
+				if (current.mKind != Kind.TRUE && node.mOld.contains(current.negateLiteral())) {
+					// contradiction, drop node
+					break;
+				}
+				node.mOld.add(current);
+				worklist.push(node);
+				break;
+			case AND:
+				node.mOld.add(current);
+				node.addNew(current.mLeft);
+				node.addNew(current.mRight);
+				worklist.push(node);
+				break;
+			case NEXT:
+				node.mOld.add(current);
+				node.mNext.add(current.mLeft);
+				worklist.push(node);
+				break;
+			case OR:
+			case UNTIL:
+			case RELEASE: {
+				final TableauNode other = node.copy(mNextNodeId++);
+				node.mOld.add(current);
+				other.mOld.add(current);
+				if (current.mKind == Kind.OR) {
+					node.addNew(current.mLeft);
+					other.addNew(current.mRight);
+				} else if (current.mKind == Kind.UNTIL) {
+					// a U b == b || (a && X(a U b))
+					node.addNew(current.mLeft);
+					node.mNext.add(current);
+					other.addNew(current.mRight);
+				} else {
+					// a R b == (a && b) || (b && X(a R b))
+					node.addNew(current.mRight);
+					node.mNext.add(current);
+					other.addNew(current.mLeft);
+					other.addNew(current.mRight);
+				}
+				worklist.push(other);
+				worklist.push(node);
+				break;
+			}
+			default:
+				throw new AssertionError("unknown kind " + current.mKind);
+			}
+		}
+		return new ArrayList<>(finished.values());
+	}
+
+	private static void collectUntils(final LtlFormula formula, final List<LtlFormula> untils) {
+		if (formula == null) {
+			return;
+		}
+		if (formula.mKind == Kind.UNTIL && !untils.contains(formula)) {
+			untils.add(formula);
+		}
+		collectUntils(formula.mLeft, untils);
+		collectUntils(formula.mRight, untils);
+	}
+
+	/**
+	 * Turns the generalized Büchi automaton given by the tableau nodes into a Büchi automaton. A state is a pair of a
+	 * tableau node and the index of the acceptance set we are waiting for. Only reachable states are constructed.
+	 */
+	private SymbolicBuchiAutomaton degeneralize(final List<TableauNode> nodes,
+			final List<LtlFormula> untils) {
+		final Map<Integer, List<TableauNode>> successors = new HashMap<>();
+		for (final TableauNode node : nodes) {
+			for (final Integer pred : node.mIncoming) {
+				successors.computeIfAbsent(pred, a -> new ArrayList<>()).add(node);
+			}
+		}
+		final int numberOfSets = untils.size();
+
+		final Set<String> states = new LinkedHashSet<>();
+		final Set<String> acceptingStates = new HashSet<>();
+		final List<String[]> transitions = new ArrayList<>();
+		final Map<String, Set<String>> stateLetters = new HashMap<>();
+		final Deque<int[]> worklist = new ArrayDeque<>();
+		final Map<Integer, TableauNode> id2node = new HashMap<>();
+		nodes.forEach(a -> id2node.put(a.mId, a));
+
+		states.add(INIT_STATE);
+		worklist.add(new int[] { INIT_ID, 0 });
+		while (!worklist.isEmpty()) {
+			final int[] current = worklist.poll();
+			final String source = getStateName(current[0], current[1], numberOfSets, id2node, untils);
+			final int nextCounter;
+			if (current[0] == INIT_ID || numberOfSets == 0) {
+				nextCounter = 0;
+			} else if (isInAcceptanceSet(id2node.get(current[0]), untils.get(current[1]))) {
+				nextCounter = (current[1] + 1) % numberOfSets;
+			} else {
+				nextCounter = current[1];
+			}
+			for (final TableauNode succ : successors.getOrDefault(current[0], Collections.emptyList())) {
+				final String target = getStateName(succ.mId, nextCounter, numberOfSets, id2node, untils);
+				if (states.add(target)) {
+					worklist.add(new int[] { succ.mId, nextCounter });
+					if (isAccepting(succ, nextCounter, numberOfSets, untils)) {
+						acceptingStates.add(target);
+					}
+				}
+				stateLetters.computeIfAbsent(target, a -> getLetter(succ));
+				transitions.add(new String[] { source, target });
+			}
+		}
+
+		final SymbolicBuchiAutomaton aut = new SymbolicBuchiAutomaton();
+		for (final String state : states) {
+			aut.addState(INIT_STATE.equals(state), acceptingStates.contains(state), state);
+		}
+		for (final String[] trans : transitions) {
+			aut.addTransition(trans[0], stateLetters.get(trans[1]), trans[1]);
+		}
+		return aut;
+	}
+
+	private static boolean isAccepting(final TableauNode node, final int counter, final int numberOfSets,
+			final List<LtlFormula> untils) {
+		return numberOfSets == 0 || counter == 0 && isInAcceptanceSet(node, untils.get(0));
+	}
+
+	private static boolean isInAcceptanceSet(final TableauNode node, final LtlFormula until) {
+		return !node.mOld.contains(until) || node.mOld.contains(until.mRight);
+	}
+
+	private static String getStateName(final int id, final int counter, final int numberOfSets,
+			final Map<Integer, TableauNode> id2node, final List<LtlFormula> untils) {
+		if (id == INIT_ID) {
+			return INIT_STATE;
+		}
+		final String name = "T" + id + "_" + counter;
+		if (isAccepting(id2node.get(id), counter, numberOfSets, untils)) {
+			// keep the naming convention of never claims
+			return "accept_" + name;
+		}
+		return name;
+	}
+
+	/**
+	 * The letter of a transition into a node is the conjunction of all literals of the node, in the syntax of
+	 * {@link SymbolicBuchiAutomaton}.
+	 */
+	private static Set<String> getLetter(final TableauNode node) {
+		final Set<String> literals = new TreeSet<>();
+		for (final LtlFormula f : node.mOld) {
+			if (f.mKind == Kind.AP || f.mKind == Kind.NOT_AP) {
+				literals.add(f.toString());
+			}
+		}
+		return literals;
+	}
+
+	private CodeBlock createLetter(final Set<String> literals) {
+		final ILocation loc = null;
+		final List<Statement> stmts = new ArrayList<>();
+		Expression conjunction = null;
+		for (final String literal : literals) {
+			final boolean negated = literal.startsWith(SymbolicBuchiAutomaton.NEGATION);
+			final String atom = negated ? literal.substring(SymbolicBuchiAutomaton.NEGATION.length()) : literal;
+			final CheckableExpression checkExpr = mAtomicPropositions.get(atom);
+			if (checkExpr == null) {
+				throw new IllegalArgumentException("No Boogie expression for atomic proposition " + atom);
+			}
+			if (checkExpr.getStatements() != null) {
+				stmts.addAll(checkExpr.getStatements());
+			}
+			Expression expr = checkExpr.getExpression();
+			if (negated) {
+				expr = new UnaryExpression(loc, UnaryExpression.Operator.LOGICNEG, expr);
+			}
+			conjunction = conjunction == null ? expr
+					: new BinaryExpression(loc, BinaryExpression.Operator.LOGICAND, conjunction, expr);
+		}
+		if (conjunction == null) {
+			conjunction = new BooleanLiteral(loc, true);
+		}
+		stmts.add(new AssumeStatement(loc, conjunction));
+		return mCodeblockFactory.constructStatementSequence(null, null, stmts, Origin.ASSERT);
+	}
+
+	private enum Kind {
+		TRUE, FALSE, AP, NOT_AP, AND, OR, NEXT, UNTIL, RELEASE
+	}
+
+	/**
+	 * Immutable LTL formula in negation normal form with structural equality.
+	 */
+	private static final class LtlFormula {
+		private static final LtlFormula TRUE = new LtlFormula(Kind.TRUE, null, null, null);
+		private static final LtlFormula FALSE = new LtlFormula(Kind.FALSE, null, null, null);
+
+		private final Kind mKind;
+		private final String mAtom;
+		private final LtlFormula mLeft;
+		private final LtlFormula mRight;
+		private final int mHash;
+
+		private LtlFormula(final Kind kind, final String atom, final LtlFormula left, final LtlFormula right) {
+			mKind = kind;
+			mAtom = atom;
+			mLeft = left;
+			mRight = right;
+			mHash = Objects.hash(kind, atom, left, right);
+		}
+
+		private static LtlFormula atom(final String atom, final boolean negated) {
+			return new LtlFormula(negated ? Kind.NOT_AP : Kind.AP, atom, null, null);
+		}
+
+		private static LtlFormula next(final LtlFormula operand) {
+			return new LtlFormula(Kind.NEXT, null, operand, null);
+		}
+
+		private static LtlFormula binary(final Kind kind, final LtlFormula left, final LtlFormula right) {
+			return new LtlFormula(kind, null, left, right);
+		}
+
+		private LtlFormula negateLiteral() {
+			assert mKind == Kind.AP || mKind == Kind.NOT_AP;
+			return atom(mAtom, mKind == Kind.AP);
+		}
+
+		@Override
+		public int hashCode() {
+			return mHash;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof LtlFormula)) {
+				return false;
+			}
+			final LtlFormula other = (LtlFormula) obj;
+			return mHash == other.mHash && mKind == other.mKind && Objects.equals(mAtom, other.mAtom)
+					&& Objects.equals(mLeft, other.mLeft) && Objects.equals(mRight, other.mRight);
+		}
+
+		@Override
+		public String toString() {
+			switch (mKind) {
+			case TRUE:
+				return "true";
+			case FALSE:
+				return "false";
+			case AP:
+				return mAtom;
+			case NOT_AP:
+				return SymbolicBuchiAutomaton.NEGATION + mAtom;
+			case NEXT:
+				return "X(" + mLeft + ")";
+			case AND:
+				return "(" + mLeft + " && " + mRight + ")";
+			case OR:
+				return "(" + mLeft + " || " + mRight + ")";
+			case UNTIL:
+				return "(" + mLeft + " U " + mRight + ")";
+			case RELEASE:
+				return "(" + mLeft + " R " + mRight + ")";
+			default:
+				throw new AssertionError("unknown kind " + mKind);
+			}
+		}
+	}
+
+	private static final class TableauNode {
+		private final int mId;
+		private final Set<Integer> mIncoming;
+		private final Set<LtlFormula> mNew;
+		private final Set<LtlFormula> mOld;
+		private final Set<LtlFormula> mNext;
+
+		private TableauNode(final int id) {
+			mId = id;
+			mIncoming = new LinkedHashSet<>();
+			mNew = new LinkedHashSet<>();
+			mOld = new HashSet<>();
+			mNext = new HashSet<>();
+		}
+
+		private TableauNode copy(final int id) {
+			final TableauNode rtr = new TableauNode(id);
+			rtr.mIncoming.addAll(mIncoming);
+			rtr.mNew.addAll(mNew);
+			rtr.mOld.addAll(mOld);
+			rtr.mNext.addAll(mNext);
+			return rtr;
+		}
+
+		private void addNew(final LtlFormula formula) {
+			if (!mOld.contains(formula)) {
+				mNew.add(formula);
+			}
+		}
+	}
+
+	private static final class NodeKey {
+		private final Set<LtlFormula> mOld;
+		private final Set<LtlFormula> mNext;
+
+		private NodeKey(final Set<LtlFormula> old, final Set<LtlFormula> next) {
+			mOld = old;
+			mNext = next;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * mOld.hashCode() + mNext.hashCode();
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof NodeKey)) {
+				return false;
+			}
+			final NodeKey other = (NodeKey) obj;
+			return mOld.equals(other.mOld) && mNext.equals(other.mNext);
+		}
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE LTL2Aut plug-in.
+ *
+ * The ULTIMATE LTL2Aut plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE LTL2Aut plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE LTL2Aut plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE LTL2Aut plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE LTL2Aut plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package edu.tsinghua.ss.thufv.ltl2aut;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.util.statistics.AbstractStatisticsDataProvider;
+import de.uni_freiburg.informatik.ultimate.util.statistics.IStatisticsDataProvider;
+import de.uni_freiburg.informatik.ultimate.util.statistics.KeyType;
+
+/**
+ * A content-addressed cache of translated property automata on disk. Each entry is stored in its own file whose name
+ * is the SHA-256 hash of the normalized LTL formula (after the atomic propositions were renamed to A, B, ...). The
+ * formula itself is stored in the file as well, so hash collisions are detected on lookup.
+ *
+ * The number of entries is bounded; when the bound is exceeded, the least recently used entries (by modification
+ * time, which is updated on every hit) are deleted. Entries are written to a temporary file first and then moved into
+ * place, so concurrent runs sharing one cache directory never see partially written entries.
+ *
+ * All I/O problems are logged and treated as cache misses; the cache never makes a translation fail.
+ */
+public class PropertyAutomatonCache {
+
+	private static final int FORMAT_VERSION = 1;
+	private static final String SUFFIX = ".nba";
+
+	private final ILogger mLogger;
+	private final Path mDirectory;
+	private final int mMaxEntries;
+	private final PropertyAutomatonCacheStatistics mStatistics = new PropertyAutomatonCacheStatistics();
+
+	public PropertyAutomatonCache(final ILogger logger, final Path directory, final int maxEntries) {
+		mLogger = logger;
+		mDirectory = directory;
+		mMaxEntries = maxEntries;
+	}
+
+	/**
+	 * @return the automaton stored for the given formula, or null if there is none
+	 */
+	public SymbolicBuchiAutomaton get(final String formula) {
+		final String key = normalize(formula);
+		final Path file = getFile(key);
+		if (!Files.isRegularFile(file)) {
+			mStatistics.mMisses++;
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != FORMAT_VERSION || !key.equals(in.readUTF())) {
+				mLogger.warn("Ignoring incompatible cache entry " + file);
+				mStatistics.mMisses++;
+				return null;
+			}
+			final SymbolicBuchiAutomaton rtr = SymbolicBuchiAutomaton.read(in);
+			Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+			mStatistics.mHits++;
+			mLogger.info(String.format("Found automaton for %s in cache %s: %s", key, mDirectory, rtr));
+			return rtr;
+		} catch (final IOException | RuntimeException e) {
+			mLogger.warn(String.format("Could not read cache entry %s: %s", file, e));
+			mStatistics.mMisses++;
+			return null;
+		}
+	}
+
+	public void put(final String formula, final SymbolicBuchiAutomaton aut) {
+		final String key = normalize(formula);
+		Path tmp = null;
+		try {
+			Files.createDirectories(mDirectory);
+			tmp = Files.createTempFile(mDirectory, "entry", ".tmp");
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+				out.writeInt(FORMAT_VERSION);
+				out.writeUTF(key);
+				aut.write(out);
+			}
+			final Path file = getFile(key);
+			try {
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (final AtomicMoveNotSupportedException e) {
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+			evict();
+		} catch (final IOException e) {
+			mLogger.warn(String.format("Could not write automaton for %s to cache %s: %s", key, mDirectory, e));
+		} finally {
+			// the temporary file is only left if writing or moving it failed
+			if (tmp != null) {
+				try {
+					Files.deleteIfExists(tmp);
+				} catch (final IOException e) {
+					mLogger.warn(String.format("Could not delete temporary cache file %s: %s", tmp, e));
+				}
+			}
+		}
+	}
+
+	private void evict() throws IOException {
+		final List<Path> entries = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(mDirectory, "*" + SUFFIX)) {
+			stream.forEach(entries::add);
+		}
+		if (entries.size() <= mMaxEntries) {
+			return;
+		}
+		entries.sort(Comparator.comparing(PropertyAutomatonCache::getLastModified));
+		for (int i = 0; i < entries.size() - mMaxEntries; ++i) {
+			Files.deleteIfExists(entries.get(i));
+			mLogger.debug("Evicted cache entry " + entries.get(i));
+		}
+	}
+
+	private static FileTime getLastModified(final Path file) {
+		try {
+			return Files.getLastModifiedTime(file);
+		} catch (final IOException e) {
+			// the entry was removed concurrently, evict it first
+			return FileTime.fromMillis(0);
+		}
+	}
+
+	private Path getFile(final String key) {
+		return mDirectory.resolve(sha256(key) + SUFFIX);
+	}
+
+	public IStatisticsDataProvider getStatistics() {
+		return mStatistics;
+	}
+
+	/**
+	 * Normalizes the whitespace of a formula, such that formulas that only differ in spacing share an entry.
+	 */
+	public static String normalize(final String formula) {
+		return formula.trim().replaceAll("\\s+", " ").replaceAll("\\( ", "(").replaceAll(" \\)", ")");
+	}
+
+	private static String sha256(final String str) {
+		try {
+			final byte[] digest = MessageDigest.getInstance("SHA-256").digest(str.getBytes(StandardCharsets.UTF_8));
+			final StringBuilder sb = new StringBuilder();
+			for (final byte b : digest) {
+				sb.append(String.format("%02x", b));
+			}
+			return sb.toString();
+		} catch (final NoSuchAlgorithmException e) {
+			throw new AssertionError("SHA-256 is always available", e);
+		}
+	}
+
+	private static final class PropertyAutomatonCacheStatistics extends AbstractStatisticsDataProvider {
+
+		private int mHits;
+		private int mMisses;
+
+		private PropertyAutomatonCacheStatistics() {
+			declare("Hits", () -> mHits, KeyType.COUNTER);
+			declare("Misses", () -> mMisses, KeyType.COUNTER);
+		}
+	}
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE LTL2Aut plug-in.
+ *
+ * The ULTIMATE LTL2Aut plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE LTL2Aut plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE LTL2Aut plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE LTL2Aut plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE LTL2Aut plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package edu.tsinghua.ss.thufv.ltl2aut;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A Büchi automaton whose letters are conjunctions of literals over the renamed atomic propositions (A, B, ...). It
+ * does not refer to the Boogie program and can therefore be written to and read from disk.
+ *
+ * A literal is either the name of an atomic proposition or its name prefixed with {@link #NEGATION}.
+ */
+public final class SymbolicBuchiAutomaton {
+
+	public static final String NEGATION = "!";
+
+	private final List<String> mStates;
+	private final Map<String, Integer> mStateIndices;
+	private final Set<String> mInitialStates;
+	private final Set<String> mAcceptingStates;
+	private final List<Set<String>> mLetters;
+	private final Map<Set<String>, Integer> mLetterIndices;
+	private final List<int[]> mTransitions;
+
+	public SymbolicBuchiAutomaton() {
+		mStates = new ArrayList<>();
+		mStateIndices = new HashMap<>();
+		mInitialStates = new LinkedHashSet<>();
+		mAcceptingStates = new LinkedHashSet<>();
+		mLetters = new ArrayList<>();
+		mLetterIndices = new HashMap<>();
+		mTransitions = new ArrayList<>();
+	}
+
+	public void addState(final boolean isInitial, final boolean isAccepting, final String state) {
+		if (mStateIndices.containsKey(state)) {
+			throw new IllegalArgumentException("State already exists: " + state);
+		}
+		mStateIndices.put(state, mStates.size());
+		mStates.add(state);
+		if (isInitial) {
+			mInitialStates.add(state);
+		}
+		if (isAccepting) {
+			mAcceptingStates.add(state);
+		}
+	}
+
+	public void addTransition(final String pred, final Set<String> letter, final String succ) {
+		final Integer letterIndex = mLetterIndices.computeIfAbsent(letter, a -> {
+			mLetters.add(Collections.unmodifiableSet(new LinkedHashSet<>(a)));
+			return mLetters.size() - 1;
+		});
+		mTransitions.add(new int[] { getStateIndex(pred), letterIndex, getStateIndex(succ) });
+	}
+
+	private int getStateIndex(final String state) {
+		final Integer rtr = mStateIndices.get(state);
+		if (rtr == null) {
+			throw new IllegalArgumentException("Unknown state: " + state);
+		}
+		return rtr;
+	}
+
+	public List<String> getStates() {
+		return Collections.unmodifiableList(mStates);
+	}
+
+	public boolean isInitial(final String state) {
+		return mInitialStates.contains(state);
+	}
+
+	public boolean isAccepting(final String state) {
+		return mAcceptingStates.contains(state);
+	}
+
+	public List<Set<String>> getLetters() {
+		return Collections.unmodifiableList(mLetters);
+	}
+
+	public int getNumberOfTransitions() {
+		return mTransitions.size();
+	}
+
+	public String getTransitionSource(final int i) {
+		return mStates.get(mTransitions.get(i)[0]);
+	}
+
+	public Set<String> getTransitionLetter(final int i) {
+		return mLetters.get(mTransitions.get(i)[1]);
+	}
+
+	public String getTransitionTarget(final int i) {
+		return mStates.get(mTransitions.get(i)[2]);
+	}
+
+	public void write(final DataOutputStream out) throws IOException {
+		out.writeInt(mStates.size());
+		for (final String state : mStates) {
+			out.writeUTF(state);
+			out.writeBoolean(mInitialStates.contains(state));
+			out.writeBoolean(mAcceptingStates.contains(state));
+		}
+		out.writeInt(mLetters.size());
+		for (final Set<String> letter : mLetters) {
+			out.writeInt(letter.size());
+			for (final String literal : letter) {
+				out.writeUTF(literal);
+			}
+		}
+		out.writeInt(mTransitions.size());
+		for (final int[] trans : mTransitions) {
+			out.writeInt(trans[0]);
+			out.writeInt(trans[1]);
+			out.writeInt(trans[2]);
+		}
+	}
+
+	public static SymbolicBuchiAutomaton read(final DataInputStream in) throws IOException {
+		final SymbolicBuchiAutomaton rtr = new SymbolicBuchiAutomaton();
+		final int numberOfStates = in.readInt();
+		for (int i = 0; i < numberOfStates; ++i) {
+			final String state = in.readUTF();
+			final boolean isInitial = in.readBoolean();
+			final boolean isAccepting = in.readBoolean();
+			rtr.addState(isInitial, isAccepting, state);
+		}
+		final int numberOfLetters = in.readInt();
+		final List<Set<String>> letters = new ArrayList<>(numberOfLetters);
+		for (int i = 0; i < numberOfLetters; ++i) {
+			final int size = in.readInt();
+			final Set<String> letter = new LinkedHashSet<>();
+			for (int j = 0; j < size; ++j) {
+				letter.add(in.readUTF());
+			}
+			letters.add(letter);
+		}
+		final int numberOfTransitions = in.readInt();
+		for (int i = 0; i < numberOfTransitions; ++i) {
+			final int source = in.readInt();
+			final int letter = in.readInt();
+			final int target = in.readInt();
+			if (source < 0 || source >= numberOfStates || target < 0 || target >= numberOfStates || letter < 0
+					|| letter >= numberOfLetters) {
+				throw new IOException("Malformed transition " + source + " " + letter + " " + target);
+			}
+			rtr.addTransition(rtr.mStates.get(source), letters.get(letter), rtr.mStates.get(target));
+		}
+		return rtr;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s states, %s accepting, %s letters, %s transitions", mStates.size(),
+				mAcceptingStates.size(), mLetters.size(), mTransitions.size());
+	}
+}
@@ -28,8 +28,11 @@
 package edu.tsinghua.ss.thufv.ltl2aut;
 
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.regex.Matcher;
@@ -56,18 +59,24 @@ import de.uni_freiburg.informatik.ultimate.boogie.ast.Unit;
 import de.uni_freiburg.informatik.ultimate.boogie.parser.BoogieSymbolFactory;
 import de.uni_freiburg.informatik.ultimate.boogie.preprocessor.PreprocessorAnnotation;
 import de.uni_freiburg.informatik.ultimate.boogie.symboltable.BoogieSymbolTable;
+import de.uni_freiburg.informatik.ultimate.core.lib.results.StatisticsResult;
 import de.uni_freiburg.informatik.ultimate.core.model.models.IElement;
 import de.uni_freiburg.informatik.ultimate.core.model.models.ModelType;
 import de.uni_freiburg.informatik.ultimate.core.model.observers.IUnmanagedObserver;
+import de.uni_freiburg.informatik.ultimate.core.model.preferences.IPreferenceProvider;
 import de.uni_freiburg.informatik.ultimate.core.model.results.IResult;
 import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
 import de.uni_freiburg.informatik.ultimate.core.model.services.IToolchainStorage;
 import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
 import de.uni_freiburg.informatik.ultimate.ltl2aut.ast.AstNode;
+import de.uni_freiburg.informatik.ultimate.ltl2aut.never2nwa.LTLPropertyBatch;
 import de.uni_freiburg.informatik.ultimate.ltl2aut.never2nwa.NWAContainer;
 import de.uni_freiburg.informatik.ultimate.ltl2aut.never2nwa.Never2Automaton;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.CodeBlock;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.CodeBlockFactory;
+import de.uni_freiburg.informatik.ultimate.util.statistics.StatisticsData;
+import edu.tsinghua.ss.thufv.ltl2aut.preferences.PreferenceInitializer;
+import edu.tsinghua.ss.thufv.ltl2aut.preferences.PreferenceInitializer.LTLTranslation;
 import edu.tsinghua.ss.thufv.specLang.PropertyContainer;
 import edu.tsinghua.ss.thufv.specLang.PropertyContainer.VerificationProperty;
 
@@ -82,10 +91,11 @@ import edu.tsinghua.ss.thufv.specLang.PropertyContainer.VerificationProperty;
 public class ThufvLTL2AutObserver implements IUnmanagedObserver {
 	private final ILogger logger;
 	private final IUltimateServiceProvider services;
-	private VerificationProperty property;
+	private List<VerificationProperty> properties;
 	
 	private BoogieSymbolTable symbolTable;
 	private NWAContainer result;
+	private PropertyAutomatonCache automatonCache;
 	
 	private static final String ALPHABET = "ABCDEHIJKLMNOPQTYZ";
 	
@@ -108,7 +118,7 @@ public class ThufvLTL2AutObserver implements IUnmanagedObserver {
 	public boolean process(final IElement root) throws IOException {
 		if(root instanceof PropertyContainer) {
 			logger.debug("Found PropertyContainer");
-			property = (VerificationProperty)((PropertyContainer) root).getPayload();
+			properties = ((PropertyContainer) root).getProperties();
 			return false;
 		}
 		if (root instanceof Unit) {
@@ -125,9 +135,22 @@ public class ThufvLTL2AutObserver implements IUnmanagedObserver {
 
 	@Override
 	public void finish() throws IOException, AutomataOperationCanceledException {
-		if (property != null && symbolTable != null) {
+		if (properties != null && symbolTable != null) {
 			try {
-				result = getPropertyAut(property);
+				final List<NWAContainer> containers = new ArrayList<>(properties.size());
+				for (final VerificationProperty property : properties) {
+					containers.add(getPropertyAut(property));
+				}
+				result = containers.get(0);
+				if (containers.size() > 1) {
+					// the remaining properties are checked against the same program after the first one
+					new LTLPropertyBatch(containers.subList(1, containers.size())).annotate(result);
+				}
+				if (automatonCache != null) {
+					final StatisticsData stat = new StatisticsData();
+					stat.aggregateBenchmarkData(automatonCache.getStatistics());
+					reportResult(new StatisticsResult<>(Activator.PLUGIN_ID, "PropertyAutomatonCacheStatistics", stat));
+				}
 			} catch (Throwable e) {
 				logger.fatal("LTL2Aut encountered an error while transforming the NeverClaim to a NestedWordAutomaton");
 				throw new RuntimeException(e);
@@ -146,17 +169,56 @@ public class ThufvLTL2AutObserver implements IUnmanagedObserver {
 			propString = "! ( " + property.getLiveness() + ")";
 		}
 		
-		LTL2BAExecutor ltl2ba = new LTL2BAExecutor(services);
 		final CodeBlockFactory cbf = CodeBlockFactory.getFactory(services.getStorage());
 		
-		LTLPropertyCheck check = createCheckFromPropertyString(propString);
-		INestedWordAutomaton<CodeBlock, String> aut = getLTLAut(ltl2ba, cbf, check, false);
+		final Map<String, CheckableExpression> apIrs = collectAtomicPropositions(propString);
+		LTLPropertyCheck check = createCheckFromPropertyString(propString, apIrs);
+		INestedWordAutomaton<CodeBlock, String> aut = null;
+		final IPreferenceProvider prefs = services.getPreferenceProvider(Activator.PLUGIN_ID);
+		final LTLTranslation translation =
+				prefs.getEnum(PreferenceInitializer.LABEL_LTL_TRANSLATION, LTLTranslation.class);
+		if (translation == LTLTranslation.IN_PROCESS && property.hasAst()) {
+			try {
+				aut = translateInProcess(property, check, apIrs, cbf, prefs);
+			} catch (final UnsupportedFormulaException e) {
+				logger.warn(String.format("Cannot translate %s in-process, using LTL*BA instead: %s",
+						check.getLTL2BALTLProperty(), e.getMessage()));
+			}
+		}
+		if (aut == null) {
+			final long start = System.nanoTime();
+			aut = getLTLAut(new LTL2BAExecutor(services), cbf, check, false);
+			logger.info(String.format("Translated %s with LTL*BA in %d ms: %s", check.getLTL2BALTLProperty(),
+					(System.nanoTime() - start) / 1_000_000, aut.sizeInformation()));
+		}
 		
 		NWAContainer container = new NWAContainer(aut);
 		check.annotate(container);
 		return container;
 	}
 	
+	private INestedWordAutomaton<CodeBlock, String> translateInProcess(final VerificationProperty property,
+			final LTLPropertyCheck check, final Map<String, CheckableExpression> apIrs, final CodeBlockFactory cbf,
+			final IPreferenceProvider prefs) throws UnsupportedFormulaException {
+		final LTL2BuchiTranslator translator = new LTL2BuchiTranslator(services, logger, cbf,
+				getAtomRenaming(apIrs), check.getCheckableAtomicPropositions());
+		final String cacheDir = prefs.getString(PreferenceInitializer.LABEL_AUTOMATON_CACHE_DIR);
+		if (cacheDir == null || cacheDir.isEmpty()) {
+			return translator.translateNegated(property.getFairnessAst(), property.getLivenessAst());
+		}
+		if (automatonCache == null) {
+			// one cache for all properties, such that its statistics cover the whole run
+			automatonCache = new PropertyAutomatonCache(logger, Paths.get(cacheDir),
+					prefs.getInt(PreferenceInitializer.LABEL_AUTOMATON_CACHE_SIZE));
+		}
+		SymbolicBuchiAutomaton symbolicAut = automatonCache.get(check.getLTL2BALTLProperty());
+		if (symbolicAut == null) {
+			symbolicAut = translator.translateNegatedSymbolic(property.getFairnessAst(), property.getLivenessAst());
+			automatonCache.put(check.getLTL2BALTLProperty(), symbolicAut);
+		}
+		return translator.toNestedWordAutomaton(symbolicAut);
+	}
+
 	public INestedWordAutomaton<CodeBlock, String> getLTLAut(LTL2BAExecutor ltl2ba, CodeBlockFactory cbf, LTLPropertyCheck check, boolean negate) throws Throwable {
 		//LTLPropertyCheck check = createCheckFromPropertyString(property);
 		AstNode livenessNode = ltl2ba.ltl2Ast(check.getLTL2BALTLProperty(), negate);
@@ -166,32 +228,52 @@ public class ThufvLTL2AutObserver implements IUnmanagedObserver {
 		return nwa;
 	}
 	
-	private LTLPropertyCheck createCheckFromPropertyString(final String ltlProperty) throws Throwable {
+	private LTLPropertyCheck createCheckFromPropertyString(final String ltlProperty,
+			final Map<String, CheckableExpression> apIrs) throws Throwable {
+		// we need to rename the AP(...) expressions to symbols s.t. ltl2ba does not get confused
+		final Map<String, CheckableExpression> irs = new LinkedHashMap<>();
+		String newLtlProperty = ltlProperty;
+		for (final Entry<String, String> entry : getAtomRenaming(apIrs).entrySet()) {
+			final String freshSymbol = entry.getValue();
+			newLtlProperty = newLtlProperty.replaceAll(Pattern.quote(entry.getKey()), freshSymbol);
+			irs.put(freshSymbol, apIrs.get(entry.getKey()));
+		}
+
+		return new LTLPropertyCheck(newLtlProperty, irs, null);
+	}
+
+	/**
+	 * Maps each AP(...) to the symbol that replaces it in the LTL property; the i-th atomic proposition (in order of
+	 * occurrence) is renamed to {@link #getAPSymbol(int)}.
+	 */
+	private static Map<String, String> getAtomRenaming(final Map<String, CheckableExpression> apIrs) {
+		final Map<String, String> rtr = new LinkedHashMap<>();
+		int i = 0;
+		for (final String ap : apIrs.keySet()) {
+			rtr.put(ap, getAPSymbol(i));
+			++i;
+		}
+		return rtr;
+	}
+
+	/**
+	 * Maps each AP(...) occurring in the property string to the Boogie expression it stands for.
+	 */
+	private Map<String, CheckableExpression> collectAtomicPropositions(final String ltlProperty) {
 		final Map<String, CheckableExpression> apIrs = new LinkedHashMap<>();
 		final Pattern pattern = Pattern.compile("AP\\((.*?)\\)");
 		final Matcher matcher = pattern.matcher(ltlProperty);
 
 		while (matcher.find()) {
 			final String key = matcher.group(0);
-			final CheckableExpression expr = createCheckableExpression(matcher.group(1));
-			apIrs.put(key, expr);
+			if (!apIrs.containsKey(key)) {
+				apIrs.put(key, createCheckableExpression(matcher.group(1)));
+			}
 		}
 		if (apIrs.isEmpty()) {
 			throw new IllegalArgumentException("No atomic propositions in " + ltlProperty);
 		}
-
-		// we need to rename the AP(...) expressions to symbols s.t. ltl2ba does not get confused
-		final Map<String, CheckableExpression> irs = new LinkedHashMap<>();
-		String newLtlProperty = ltlProperty;
-		int i = 0;
-		for (final Entry<String, CheckableExpression> entry : apIrs.entrySet()) {
-			final String freshSymbol = getAPSymbol(i);
-			++i;
-			newLtlProperty = newLtlProperty.replaceAll(Pattern.quote(entry.getKey()), freshSymbol);
-			irs.put(freshSymbol, entry.getValue());
-		}
-
-		return new LTLPropertyCheck(newLtlProperty, irs, null);
+		return apIrs;
 	}
 
 	private CheckableExpression createCheckableExpression(final String expr) {
@@ -30,6 +30,7 @@ package edu.tsinghua.ss.thufv.ltl2aut.preferences;
 import de.uni_freiburg.informatik.ultimate.core.lib.preferences.UltimatePreferenceInitializer;
 import de.uni_freiburg.informatik.ultimate.core.model.preferences.PreferenceType;
 import de.uni_freiburg.informatik.ultimate.core.model.preferences.UltimatePreferenceItem;
+import de.uni_freiburg.informatik.ultimate.core.model.preferences.UltimatePreferenceItem.IUltimatePreferenceItemValidator;
 import edu.tsinghua.ss.thufv.ltl2aut.Activator;
 
 /**
@@ -39,13 +40,43 @@ import edu.tsinghua.ss.thufv.ltl2aut.Activator;
  */
 public class PreferenceInitializer extends UltimatePreferenceInitializer {
 
+	public enum LTLTranslation {
+		/**
+		 * Run the external LTL*BA executable configured in the LTL2Aut plug-in and parse its never claim.
+		 */
+		EXTERNAL_LTL2BA,
+		/**
+		 * Translate the P4LTL AST directly with {@link edu.tsinghua.ss.thufv.ltl2aut.LTL2BuchiTranslator}.
+		 */
+		IN_PROCESS
+	}
+
+	public static final String LABEL_LTL_TRANSLATION = "LTL to Buchi automaton translation";
+	public static final LTLTranslation DEF_LTL_TRANSLATION = LTLTranslation.IN_PROCESS;
+
+	public static final String LABEL_AUTOMATON_CACHE_DIR = "Directory of the property automaton cache";
+	public static final String DEF_AUTOMATON_CACHE_DIR = "";
+	private static final String DESC_AUTOMATON_CACHE_DIR =
+			"Translated property automata are stored in this directory and reused by later runs with the same "
+					+ "LTL property (up to the names of the atomic propositions). Leave empty to disable the cache. "
+					+ "Only used with the in-process translation.";
+
+	public static final String LABEL_AUTOMATON_CACHE_SIZE = "Maximal number of cached property automata";
+	public static final int DEF_AUTOMATON_CACHE_SIZE = 256;
+
 	public PreferenceInitializer() {
 		super(Activator.PLUGIN_ID, Activator.PLUGIN_NAME);
 	}
 
 	@Override
 	protected UltimatePreferenceItem<?>[] initDefaultPreferences() {
-		return new UltimatePreferenceItem<?>[0];
+		return new UltimatePreferenceItem<?>[] {
+				new UltimatePreferenceItem<>(LABEL_LTL_TRANSLATION, DEF_LTL_TRANSLATION, PreferenceType.Combo,
+						LTLTranslation.values()),
+				new UltimatePreferenceItem<>(LABEL_AUTOMATON_CACHE_DIR, DEF_AUTOMATON_CACHE_DIR,
+						DESC_AUTOMATON_CACHE_DIR, PreferenceType.Directory),
+				new UltimatePreferenceItem<>(LABEL_AUTOMATON_CACHE_SIZE, DEF_AUTOMATON_CACHE_SIZE,
+						PreferenceType.Integer, IUltimatePreferenceItemValidator.ONLY_POSITIVE_NON_ZERO), };
 	}
 
 }
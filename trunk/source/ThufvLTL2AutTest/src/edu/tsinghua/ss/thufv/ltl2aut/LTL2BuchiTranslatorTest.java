@@ -0,0 +1,414 @@
+package edu.tsinghua.ss.thufv.ltl2aut;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import ast.BinaryTemporalOperator;
+import ast.BinaryTemporalType;
+import ast.ImpliesOp;
+import ast.UnaryTemporalOperator;
+import ast.UnaryTemporalType;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INwaOutgoingLetterAndTransitionProvider;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.VpAlphabet;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.BuchiIntersect;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.BuchiIsEmpty;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.BuchiIsEquivalent;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi.BuchiIsEquivalent.TestMode;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.boogie.annotation.LTLPropertyCheck.CheckableExpression;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.BooleanLiteral;
+import de.uni_freiburg.informatik.ultimate.core.lib.models.annotation.DefaultLocation;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.ltl2aut.Lexer;
+import de.uni_freiburg.informatik.ultimate.ltl2aut.Parser;
+import de.uni_freiburg.informatik.ultimate.ltl2aut.ast.AstNode;
+import de.uni_freiburg.informatik.ultimate.ltl2aut.ast.BinaryOperator;
+import de.uni_freiburg.informatik.ultimate.ltl2aut.ast.BinaryType;
+import de.uni_freiburg.informatik.ultimate.ltl2aut.ast.BoolLiteral;
+import de.uni_freiburg.informatik.ultimate.ltl2aut.ast.LabeledBlock;
+import de.uni_freiburg.informatik.ultimate.ltl2aut.ast.Name;
+import de.uni_freiburg.informatik.ultimate.ltl2aut.ast.Not;
+import de.uni_freiburg.informatik.ultimate.ltl2aut.ast.OptionStatement;
+import de.uni_freiburg.informatik.ultimate.ltl2aut.ast.SkipStatement;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Compares the automata of {@link LTL2BuchiTranslator} with the never claims of ltl2ba. Both automata are expanded
+ * into Büchi automata over the valuations of the atomic propositions. For a few fixed formulas both automata have to
+ * accept the same language. Random formulas are checked without complementation: for a formula f the automaton of
+ * one translator for f and the automaton of the other translator for !f have to be disjoint, and both translators
+ * have to agree on the emptiness of f.
+ *
+ * The ltl2ba executable is taken from the system property <code>ltl2ba</code> or from the release scripts; the
+ * comparison is skipped if it is not there.
+ */
+public class LTL2BuchiTranslatorTest {
+
+	private static final String LTL2BA_PROPERTY = "ltl2ba";
+	private static final String LTL2BA_DEFAULT = "../../../releaseScripts/default/adds/ltl2ba";
+	private static final String[] ATOMS = { "A", "B", "C" };
+
+	private IUltimateServiceProvider mServices;
+	private ILogger mLogger;
+	private Map<String, String> mAtomRenaming;
+	private Map<String, CheckableExpression> mAtomicPropositions;
+
+	@Before
+	public void setUp() {
+		mServices = UltimateMocks.createUltimateServiceProviderMock();
+		mLogger = mServices.getLoggingService().getLogger(Activator.PLUGIN_ID);
+		mAtomRenaming = new HashMap<>();
+		mAtomicPropositions = new HashMap<>();
+		for (int i = 0; i < ATOMS.length; ++i) {
+			mAtomRenaming.put(atom(i).mAst.toString(), ATOMS[i]);
+			mAtomicPropositions.put(ATOMS[i],
+					new CheckableExpression(new BooleanLiteral(new DefaultLocation(), true), null));
+		}
+	}
+
+	@Test
+	public void fixedFormulas() throws Exception {
+		final File ltl2ba = getLtl2ba();
+		final Formula a = atom(0);
+		final Formula b = atom(1);
+		assertSameLanguage(ltl2ba, null, always(implies(a, eventually(b))));
+		assertSameLanguage(ltl2ba, null, until(a, b));
+		assertSameLanguage(ltl2ba, null, release(a, b));
+		assertSameLanguage(ltl2ba, null, seq(a, b));
+		assertSameLanguage(ltl2ba, null, next(not(a)));
+		assertSameLanguage(ltl2ba, null, impliesOp(a, b));
+		assertSameLanguage(ltl2ba, always(eventually(a)), eventually(always(b)));
+		// the negation is unsatisfiable
+		assertSameLanguage(ltl2ba, null, or(a, not(a)));
+		assertSameLanguage(ltl2ba, null, and(a, not(a)));
+	}
+
+	@Test
+	public void randomFormulas() throws Exception {
+		final File ltl2ba = getLtl2ba();
+		final Random random = new Random(42);
+		for (int i = 0; i < 150; ++i) {
+			final int atoms = 2 + random.nextInt(2);
+			final Formula fairness = random.nextInt(4) == 0 ? randomFormula(random, atoms, 2) : null;
+			assertCrossCheck(ltl2ba, fairness, randomFormula(random, atoms, 3));
+		}
+	}
+
+	@Test(expected = UnsupportedFormulaException.class)
+	public void unsupportedOperator() throws UnsupportedFormulaException {
+		createTranslator().translateNegatedSymbolic(null,
+				new UnaryTemporalOperator(UnaryTemporalType.old, atom(0).mAst));
+	}
+
+	@Test(expected = UnsupportedFormulaException.class)
+	public void unknownAtomicProposition() throws UnsupportedFormulaException {
+		createTranslator().translateNegatedSymbolic(null, until(atom(0), new Formula(new Name("AP(q)"), "q")).mAst);
+	}
+
+	private LTL2BuchiTranslator createTranslator() {
+		return new LTL2BuchiTranslator(mServices, mLogger, null, mAtomRenaming, mAtomicPropositions);
+	}
+
+	private void assertSameLanguage(final File ltl2ba, final Formula fairness, final Formula liveness)
+			throws IOException, InterruptedException, AutomataLibraryException, UnsupportedFormulaException {
+		final Formula formula = negate(fairness, liveness);
+		final NestedWordAutomaton<String, String> ours = translate(fairness, liveness);
+		final NestedWordAutomaton<String, String> expected = translate(ltl2ba, formula.mLtl2Ba);
+		Assert.assertTrue(formula.mLtl2Ba, new BuchiIsEquivalent<>(new AutomataLibraryServices(mServices),
+				new StringFactory(), ours, expected, TestMode.COMPLETE).getResult());
+	}
+
+	private void assertCrossCheck(final File ltl2ba, final Formula fairness, final Formula liveness)
+			throws IOException, InterruptedException, AutomataLibraryException, UnsupportedFormulaException {
+		final Formula formula = negate(fairness, liveness);
+		final NestedWordAutomaton<String, String> ours = translate(fairness, liveness);
+		final NestedWordAutomaton<String, String> oursNegated = translate(null, formula);
+		final NestedWordAutomaton<String, String> theirs = translate(ltl2ba, formula.mLtl2Ba);
+		final NestedWordAutomaton<String, String> theirsNegated = translate(ltl2ba, "!" + formula.mLtl2Ba);
+		Assert.assertTrue(formula.mLtl2Ba, isEmpty(intersect(ours, theirsNegated)));
+		Assert.assertTrue(formula.mLtl2Ba, isEmpty(intersect(theirs, oursNegated)));
+		Assert.assertEquals(formula.mLtl2Ba, isEmpty(theirs), isEmpty(ours));
+	}
+
+	/**
+	 * @return the formula <code>fairness && !liveness</code> that {@link LTL2BuchiTranslator#translateNegated} and
+	 *         {@link LTL2BuchiTranslator#translateNegatedSymbolic} translate
+	 */
+	private static Formula negate(final Formula fairness, final Formula liveness) {
+		return fairness == null ? not(liveness) : and(fairness, not(liveness));
+	}
+
+	private NestedWordAutomaton<String, String> translate(final Formula fairness, final Formula liveness)
+			throws UnsupportedFormulaException {
+		return expand(
+				createTranslator().translateNegatedSymbolic(fairness == null ? null : fairness.mAst, liveness.mAst));
+	}
+
+	private NestedWordAutomaton<String, String> translate(final File ltl2ba, final String formula)
+			throws IOException, InterruptedException {
+		final String neverClaim = runLtl2ba(ltl2ba, formula);
+		if (neverClaim.contains("false;")) {
+			// ltl2ba writes an empty never claim that the never claim parser does not accept
+			final NestedWordAutomaton<String, String> empty = createValuationAutomaton();
+			empty.addState(true, false, "T0_init");
+			return empty;
+		}
+		return expand(parseNeverClaim(neverClaim));
+	}
+
+	private boolean isEmpty(final INwaOutgoingLetterAndTransitionProvider<String, String> aut)
+			throws AutomataOperationCanceledException {
+		return new BuchiIsEmpty<>(new AutomataLibraryServices(mServices), aut).getResult();
+	}
+
+	private INwaOutgoingLetterAndTransitionProvider<String, String> intersect(
+			final NestedWordAutomaton<String, String> fst, final NestedWordAutomaton<String, String> snd)
+			throws AutomataLibraryException {
+		return new BuchiIntersect<>(new AutomataLibraryServices(mServices), new StringFactory(), fst, snd).getResult();
+	}
+
+	private static File getLtl2ba() {
+		final File ltl2ba = new File(System.getProperty(LTL2BA_PROPERTY, LTL2BA_DEFAULT));
+		Assume.assumeTrue("ltl2ba not found at " + ltl2ba.getAbsolutePath(), ltl2ba.canExecute());
+		return ltl2ba;
+	}
+
+	private static String runLtl2ba(final File ltl2ba, final String formula) throws IOException, InterruptedException {
+		final Process process =
+				new ProcessBuilder(ltl2ba.getAbsolutePath(), "-f", formula).redirectErrorStream(true).start();
+		final String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+		Assert.assertEquals(output, 0, process.waitFor());
+		return output;
+	}
+
+	private static AstNode parseNeverClaim(final String neverClaim) {
+		try {
+			return (AstNode) new Parser(new Lexer(new StringReader(neverClaim))).parse().value;
+		} catch (final Exception e) {
+			throw new AssertionError("Cannot parse never claim " + neverClaim, e);
+		}
+	}
+
+	private NestedWordAutomaton<String, String> createValuationAutomaton() {
+		final Set<String> letters = new HashSet<>();
+		for (int valuation = 0; valuation < 1 << ATOMS.length; ++valuation) {
+			letters.add(Integer.toString(valuation));
+		}
+		return new NestedWordAutomaton<>(new AutomataLibraryServices(mServices), new VpAlphabet<>(letters),
+				new StringFactory());
+	}
+
+	private static boolean holds(final int valuation, final int atom) {
+		return (valuation & (1 << atom)) != 0;
+	}
+
+	/**
+	 * A transition of the symbolic automaton is taken for every valuation that satisfies all literals of its letter.
+	 */
+	private NestedWordAutomaton<String, String> expand(final SymbolicBuchiAutomaton aut) {
+		final NestedWordAutomaton<String, String> nwa = createValuationAutomaton();
+		for (final String state : aut.getStates()) {
+			nwa.addState(aut.isInitial(state), aut.isAccepting(state), state);
+		}
+		for (int i = 0; i < aut.getNumberOfTransitions(); ++i) {
+			for (int valuation = 0; valuation < 1 << ATOMS.length; ++valuation) {
+				if (satisfies(valuation, aut.getTransitionLetter(i))) {
+					nwa.addInternalTransition(aut.getTransitionSource(i), Integer.toString(valuation),
+							aut.getTransitionTarget(i));
+				}
+			}
+		}
+		return nwa;
+	}
+
+	private static boolean satisfies(final int valuation, final Set<String> literals) {
+		for (final String literal : literals) {
+			final boolean negated = literal.startsWith(SymbolicBuchiAutomaton.NEGATION);
+			final String atom = negated ? literal.substring(SymbolicBuchiAutomaton.NEGATION.length()) : literal;
+			if (holds(valuation, Arrays.asList(ATOMS).indexOf(atom)) == negated) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Expands a never claim of ltl2ba: <code>accept_all: skip</code> loops on every letter, states whose name ends
+	 * with <code>init</code> are initial and states whose name starts with <code>accept</code> are accepting.
+	 */
+	private NestedWordAutomaton<String, String> expand(final AstNode neverClaim) {
+		final NestedWordAutomaton<String, String> nwa = createValuationAutomaton();
+		final List<LabeledBlock> blocks = new ArrayList<>();
+		for (final AstNode child : neverClaim.getOutgoingNodes()) {
+			blocks.add((LabeledBlock) child);
+		}
+		for (final LabeledBlock block : blocks) {
+			final String state = ((Name) block.getValue()).getIdent();
+			nwa.addState(state.endsWith("init"), state.startsWith("accept"), state);
+		}
+		for (final LabeledBlock block : blocks) {
+			final String state = ((Name) block.getValue()).getIdent();
+			final AstNode body = block.getOutgoingNodes().get(0);
+			if (body instanceof SkipStatement) {
+				for (int valuation = 0; valuation < 1 << ATOMS.length; ++valuation) {
+					nwa.addInternalTransition(state, Integer.toString(valuation), state);
+				}
+				continue;
+			}
+			for (final AstNode option : body.getOutgoingNodes()) {
+				final AstNode condition = ((OptionStatement) option).getCondition();
+				final AstNode gotoStatement = option.getOutgoingNodes().get(0);
+				final String target = ((Name) gotoStatement.getOutgoingNodes().get(0)).getIdent();
+				for (int valuation = 0; valuation < 1 << ATOMS.length; ++valuation) {
+					if (evaluate(valuation, condition)) {
+						nwa.addInternalTransition(state, Integer.toString(valuation), target);
+					}
+				}
+			}
+		}
+		return nwa;
+	}
+
+	private static boolean evaluate(final int valuation, final AstNode condition) {
+		if (condition instanceof BoolLiteral) {
+			return ((BoolLiteral) condition).getValue();
+		} else if (condition instanceof Not) {
+			return !evaluate(valuation, condition.getOutgoingNodes().get(0));
+		} else if (condition instanceof Name) {
+			final String atom = ((Name) condition).getIdent().toUpperCase();
+			return holds(valuation, Arrays.asList(ATOMS).indexOf(atom));
+		} else if (condition instanceof BinaryOperator) {
+			final boolean isAnd = ((BinaryOperator) condition).getType() == BinaryType.and;
+			for (final AstNode operand : condition.getOutgoingNodes()) {
+				if (evaluate(valuation, operand) != isAnd) {
+					return !isAnd;
+				}
+			}
+			return isAnd;
+		}
+		throw new AssertionError("Unexpected condition " + condition);
+	}
+
+	private static Formula randomFormula(final Random random, final int atoms, final int depth) {
+		if (depth == 0) {
+			return atom(random.nextInt(atoms));
+		}
+		final Formula left = randomFormula(random, atoms, random.nextInt(depth));
+		final Formula right = randomFormula(random, atoms, random.nextInt(depth));
+		switch (random.nextInt(11)) {
+		case 0:
+			return not(left);
+		case 1:
+			return and(left, right);
+		case 2:
+			return or(left, right);
+		case 3:
+			return implies(left, right);
+		case 4:
+			return impliesOp(left, right);
+		case 5:
+			return next(left);
+		case 6:
+			return always(left);
+		case 7:
+			return eventually(left);
+		case 8:
+			return until(left, right);
+		case 9:
+			return release(left, right);
+		default:
+			return seq(left, right);
+		}
+	}
+
+	private static Formula atom(final int i) {
+		return new Formula(new Name("AP(p" + i + ")"), ATOMS[i].toLowerCase());
+	}
+
+	private static Formula not(final Formula f) {
+		return unary(UnaryTemporalType.neg, "!", f);
+	}
+
+	private static Formula next(final Formula f) {
+		return unary(UnaryTemporalType.next, "X ", f);
+	}
+
+	private static Formula always(final Formula f) {
+		return unary(UnaryTemporalType.always, "[] ", f);
+	}
+
+	private static Formula eventually(final Formula f) {
+		return unary(UnaryTemporalType.eventually, "<> ", f);
+	}
+
+	private static Formula and(final Formula l, final Formula r) {
+		return binary(BinaryTemporalType.and, "&&", l, r);
+	}
+
+	private static Formula or(final Formula l, final Formula r) {
+		return binary(BinaryTemporalType.or, "||", l, r);
+	}
+
+	private static Formula implies(final Formula l, final Formula r) {
+		return binary(BinaryTemporalType.implies, "->", l, r);
+	}
+
+	private static Formula until(final Formula l, final Formula r) {
+		return binary(BinaryTemporalType.until, "U", l, r);
+	}
+
+	private static Formula release(final Formula l, final Formula r) {
+		return binary(BinaryTemporalType.release, "V", l, r);
+	}
+
+	private static Formula seq(final Formula l, final Formula r) {
+		return new Formula(new BinaryTemporalOperator(BinaryTemporalType.seq, l.mAst, r.mAst),
+				"(" + l.mLtl2Ba + " && X <> " + r.mLtl2Ba + ")");
+	}
+
+	private static Formula impliesOp(final Formula l, final Formula r) {
+		return new Formula(new ImpliesOp(l.mAst, r.mAst), "(" + l.mLtl2Ba + " -> " + r.mLtl2Ba + ")");
+	}
+
+	private static Formula unary(final UnaryTemporalType type, final String op, final Formula f) {
+		return new Formula(new UnaryTemporalOperator(type, f.mAst), "(" + op + f.mLtl2Ba + ")");
+	}
+
+	private static Formula binary(final BinaryTemporalType type, final String op, final Formula l, final Formula r) {
+		return new Formula(new BinaryTemporalOperator(type, l.mAst, r.mAst),
+				"(" + l.mLtl2Ba + " " + op + " " + r.mLtl2Ba + ")");
+	}
+
+	/**
+	 * A formula as P4LTL AST and in the syntax of ltl2ba.
+	 */
+	private static final class Formula {
+		private final AstNode mAst;
+		private final String mLtl2Ba;
+
+		private Formula(final AstNode ast, final String ltl2Ba) {
+			mAst = ast;
+			mLtl2Ba = ltl2Ba;
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package edu.tsinghua.ss.thufv.ltl2aut;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Stores automata in a {@link PropertyAutomatonCache} and checks the lookups and the counted hits and misses.
+ */
+public class PropertyAutomatonCacheTest {
+
+	private ILogger mLogger;
+	private Path mDirectory;
+
+	@Before
+	public void setUp() throws IOException {
+		mLogger = UltimateMocks.createUltimateServiceProviderMock().getLoggingService().getLogger(Activator.PLUGIN_ID);
+		mDirectory = Files.createTempDirectory("automatonCache");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		try (Stream<Path> files = Files.walk(mDirectory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+		}
+	}
+
+	@Test
+	public void hitsAndMisses() {
+		final PropertyAutomatonCache cache = new PropertyAutomatonCache(mLogger, mDirectory, 10);
+		Assert.assertNull(cache.get("! ( [](A) )"));
+		cache.put("! ( [](A) )", createAutomaton());
+
+		final SymbolicBuchiAutomaton read = cache.get("!  ( [](A)\t)");
+		Assert.assertNotNull(read);
+		assertSameAutomaton(createAutomaton(), read);
+		Assert.assertNull(cache.get("! ( [](B) )"));
+
+		Assert.assertEquals(1, cache.getStatistics().getValue("Hits"));
+		Assert.assertEquals(2, cache.getStatistics().getValue("Misses"));
+	}
+
+	@Test
+	public void leastRecentlyUsedIsEvicted() throws InterruptedException {
+		final PropertyAutomatonCache cache = new PropertyAutomatonCache(mLogger, mDirectory, 2);
+		cache.put("A", createAutomaton());
+		// modification times may have a resolution of one second
+		Thread.sleep(1100);
+		cache.put("B", createAutomaton());
+		Thread.sleep(1100);
+		Assert.assertNotNull(cache.get("A"));
+		cache.put("C", createAutomaton());
+
+		Assert.assertNotNull(cache.get("A"));
+		Assert.assertNull(cache.get("B"));
+		Assert.assertNotNull(cache.get("C"));
+	}
+
+	@Test
+	public void failedWriteLeavesNoTemporaryFile() throws IOException {
+		final PropertyAutomatonCache cache = new PropertyAutomatonCache(mLogger, mDirectory, 10);
+		cache.put("A", createAutomaton());
+		final Path entry;
+		try (Stream<Path> files = Files.list(mDirectory)) {
+			entry = files.findFirst().get();
+		}
+		// a non-empty directory in place of the entry makes moving the new entry there fail
+		Files.delete(entry);
+		Files.createDirectories(entry.resolve("blocker"));
+		cache.put("A", createAutomaton());
+
+		Assert.assertNull(cache.get("A"));
+		try (Stream<Path> files = Files.list(mDirectory)) {
+			Assert.assertEquals(1, files.count());
+		}
+	}
+
+	private static void assertSameAutomaton(final SymbolicBuchiAutomaton expected,
+			final SymbolicBuchiAutomaton actual) {
+		Assert.assertEquals(expected.getStates(), actual.getStates());
+		for (final String state : expected.getStates()) {
+			Assert.assertEquals(expected.isInitial(state), actual.isInitial(state));
+			Assert.assertEquals(expected.isAccepting(state), actual.isAccepting(state));
+		}
+		Assert.assertEquals(expected.getNumberOfTransitions(), actual.getNumberOfTransitions());
+		for (int i = 0; i < expected.getNumberOfTransitions(); ++i) {
+			Assert.assertEquals(expected.getTransitionSource(i), actual.getTransitionSource(i));
+			Assert.assertEquals(expected.getTransitionLetter(i), actual.getTransitionLetter(i));
+			Assert.assertEquals(expected.getTransitionTarget(i), actual.getTransitionTarget(i));
+		}
+	}
+
+	private static SymbolicBuchiAutomaton createAutomaton() {
+		final SymbolicBuchiAutomaton aut = new SymbolicBuchiAutomaton();
+		aut.addState(true, false, "init");
+		aut.addState(false, true, "accept");
+		aut.addTransition("init", Set.of(), "init");
+		aut.addTransition("init", Set.of(SymbolicBuchiAutomaton.NEGATION + "A"), "accept");
+		aut.addTransition("accept", Set.of(), "accept");
+		return aut;
+	}
+}
@@ -39,11 +39,14 @@ public class ExtendedComparativeOperator extends AstNode {
 		}
 
 		// It should be guarded by Jflex and Javacup that it is an header equation: header = mask
-		if(getOutgoingNodes().get(1) instanceof IPMask)
+		// Only the mask high bits of the header are extracted and compared to the prefix
+		AstNode right = getOutgoingNodes().get(1);
+		if(right instanceof IPMask || right instanceof IPPrefixSet)
 		{
-			IPMask mask = (IPMask) getOutgoingNodes().get(1);
-			String maskString = "[32:" + mask.getLSB() + "]";
-			return getOutgoingNodes().get(0).toString() + maskString + op + getOutgoingNodes().get(1).toString() + maskString;
+			String field = getOutgoingNodes().get(0).toString();
+			String match = right instanceof IPMask ? ((IPMask) right).toPrefixEquality(field)
+					: ((IPPrefixSet) right).toDisjunction(field);
+			return type == ExtendedComparativeType.neq ? "!(" + match + ")" : "(" + match + ")";
 		}
 		
 		return getOutgoingNodes().get(0).toString() + op + getOutgoingNodes().get(1).toString();
@@ -37,6 +37,16 @@ public class IPMask extends AstNode {
         
         assert validate(): "Not a valid ip string for " + ipString;
     }
+
+    /**
+     * Creates the IPMask that matches all addresses whose <code>mask</code> high bits are <code>prefix</code>.
+     */
+    IPMask(long prefix, int mask) {
+        this.mask = mask;
+        this.ipAddress = mask == 0 ? 0 : prefix << (32 - mask);
+        this.ipString = ((ipAddress >>> 24) & 0xff) + "." + ((ipAddress >>> 16) & 0xff) + "."
+                + ((ipAddress >>> 8) & 0xff) + "." + (ipAddress & 0xff);
+    }
     
     /**
      * Returns the long description of the corresponding ip string.
@@ -61,14 +71,36 @@ public class IPMask extends AstNode {
     }
     
     /**
-     * Returns a boogie description of this object.
+     * Returns a boogie description of the prefix of this object, i.e. the bit vector of its mask high bits.
      */
     public String toString() {
         StringBuffer sb = new StringBuffer();
-        sb.append(Long.toString(ipAddress)).append("bv32");
+        sb.append(Long.toString(getPrefix())).append("bv").append(mask);
         return sb.toString();
     }
 
+    /**
+     * Returns the boogie condition that the 32 bit field matches this prefix. Only the high bits of the field are
+     * extracted and compared to the already shifted prefix, so the solver never has to reason about the low bits.
+     * @param field the boogie name of the field.
+     */
+    public String toPrefixEquality(String field) {
+        if (mask == 0) {
+            return "true";
+        }
+        if (mask == 32) {
+            return field + "==" + ipAddress + "bv32";
+        }
+        return field + "[32:" + getLSB() + "]==" + toString();
+    }
+
+    /**
+     * Judges whether every address matched by other is also matched by this object.
+     */
+    public boolean covers(IPMask other) {
+        return mask <= other.mask && getPrefix() == (mask == 0 ? 0 : other.ipAddress >>> getLSB());
+    }
+
     /**
      * Gets the ip address given as long.
      * @return the value given as long.
@@ -101,4 +133,12 @@ public class IPMask extends AstNode {
     public int getLSB() {
         return 32-mask;
     }
+
+    /**
+     * Gets the mask high bits of ip, i.e. the ip shifted by its least significant bit.
+     * @return the prefix of ip.
+     */
+    public long getPrefix() {
+        return mask == 0 ? 0 : ipAddress >>> getLSB();
+    }
 }
@@ -0,0 +1,201 @@
+package ast;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import de.uni_freiburg.informatik.ultimate.ltl2aut.ast.AstNode;
+import de.uni_freiburg.informatik.ultimate.ltl2aut.ast.Name;
+
+/**
+ * Represents a set of ip prefixes that are matched on the same field, e.g. the union of the prefixes of
+ * match(f=a/m) || match(f=b/n).
+ *
+ * The set is kept in the form of a compressed prefix trie: prefixes that are covered by a shorter prefix are dropped
+ * and two sibling prefixes are merged into their parent, so the boogie description only contains the prefixes that
+ * are actually needed.
+ */
+public class IPPrefixSet extends AstNode {
+
+	private final List<IPMask> prefixes;
+
+	public IPPrefixSet(Collection<IPMask> masks) {
+		this.prefixes = normalize(masks);
+	}
+
+	public IPPrefixSet(AstNode node) {
+		this(toMasks(node));
+	}
+
+	private static List<IPMask> toMasks(AstNode node) {
+		if (node instanceof IPPrefixSet) {
+			return ((IPPrefixSet) node).getPrefixes();
+		}
+		List<IPMask> masks = new ArrayList<IPMask>();
+		masks.add((IPMask) node);
+		return masks;
+	}
+
+	private static List<IPMask> normalize(Collection<IPMask> masks) {
+		// level i of the trie holds the prefixes with i mask bits
+		Map<Integer, Set<Long>> levels = new TreeMap<Integer, Set<Long>>();
+		for (IPMask m : masks) {
+			levels.computeIfAbsent(m.getMask(), k -> new TreeSet<Long>()).add(m.getPrefix());
+		}
+		// drop the prefixes that are covered by a shorter one
+		for (Map.Entry<Integer, Set<Long>> level : levels.entrySet()) {
+			int mask = level.getKey();
+			level.getValue().removeIf(prefix -> {
+				for (int i = 0; i < mask; i++) {
+					Set<Long> shorter = levels.get(i);
+					if (shorter != null && shorter.contains(i == 0 ? 0 : prefix >>> (mask - i))) {
+						return true;
+					}
+				}
+				return false;
+			});
+		}
+		// merge siblings bottom up, the parent may again have a sibling on the next level
+		for (int mask = 32; mask > 0; mask--) {
+			Set<Long> level = levels.get(mask);
+			if (level == null) {
+				continue;
+			}
+			for (Long prefix : new ArrayList<Long>(level)) {
+				long sibling = prefix ^ 1;
+				if ((prefix & 1) == 0 && level.contains(sibling)) {
+					level.remove(prefix);
+					level.remove(sibling);
+					levels.computeIfAbsent(mask - 1, k -> new TreeSet<Long>()).add(prefix >>> 1);
+				}
+			}
+		}
+		List<IPMask> rtr = new ArrayList<IPMask>();
+		for (Map.Entry<Integer, Set<Long>> level : levels.entrySet()) {
+			for (Long prefix : level.getValue()) {
+				rtr.add(new IPMask(prefix, level.getKey()));
+			}
+		}
+		rtr.sort(Comparator.comparingLong(IPMask::getIPAddress).thenComparingInt(IPMask::getMask));
+		return rtr;
+	}
+
+	/**
+	 * Returns the set of addresses that are matched by this set and by other.
+	 */
+	public IPPrefixSet intersect(IPPrefixSet other) {
+		// two prefixes either are disjoint or one of them covers the other
+		List<IPMask> masks = new ArrayList<IPMask>();
+		for (IPMask a : prefixes) {
+			for (IPMask b : other.prefixes) {
+				if (a.covers(b)) {
+					masks.add(b);
+				} else if (b.covers(a)) {
+					masks.add(a);
+				}
+			}
+		}
+		return new IPPrefixSet(masks);
+	}
+
+	public IPPrefixSet union(IPPrefixSet other) {
+		List<IPMask> masks = new ArrayList<IPMask>(prefixes);
+		masks.addAll(other.prefixes);
+		return new IPPrefixSet(masks);
+	}
+
+	/**
+	 * Returns the boogie condition that the 32 bit field matches one of the prefixes.
+	 * @param field the boogie name of the field.
+	 */
+	public String toDisjunction(String field) {
+		if (prefixes.isEmpty()) {
+			return "false";
+		}
+		if (prefixes.size() == 1) {
+			return prefixes.get(0).toPrefixEquality(field);
+		}
+		StringBuilder sb = new StringBuilder("( ");
+		for (int i = 0; i < prefixes.size(); i++) {
+			if (i > 0) {
+				sb.append(" || ");
+			}
+			sb.append(prefixes.get(i).toPrefixEquality(field));
+		}
+		return sb.append(" )").toString();
+	}
+
+	/**
+	 * Returns the prefixes in the set, ordered by address.
+	 */
+	public List<IPMask> getPrefixes() {
+		return new ArrayList<IPMask>(prefixes);
+	}
+
+	/**
+	 * Returns a description of the prefixes that can be used in identifiers.
+	 */
+	@Override
+	public String toString() {
+		if (prefixes.isEmpty()) {
+			return "none";
+		}
+		StringBuilder sb = new StringBuilder();
+		for (IPMask m : prefixes) {
+			if (sb.length() > 0) {
+				sb.append('_');
+			}
+			sb.append(m.toString());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the prefix match of eq if it matches a header against an ip prefix, null otherwise.
+	 */
+	static AstNode getPrefixMatch(AstNode eq) {
+		if (!(eq instanceof ExtendedComparativeOperator)
+				|| ((ExtendedComparativeOperator) eq).getType() != ExtendedComparativeType.eq) {
+			return null;
+		}
+		AstNode right = eq.getOutgoingNodes().get(1);
+		if (right instanceof IPMask || right instanceof IPPrefixSet) {
+			return right;
+		}
+		return null;
+	}
+
+	private static AstNode getSinglePrefixMatch(AstNode t) {
+		if (!(t instanceof Predicate) || ((Predicate) t).getType() != PredicateType.match) {
+			return null;
+		}
+		Arguments args = ((Predicate) t).getArgs();
+		if (args == null || args.getArgs().size() != 1) {
+			return null;
+		}
+		return args.getArgs().get(0);
+	}
+
+	/**
+	 * Builds t1 || t2. If both are prefix matches of the same field, they are merged into one match predicate of the
+	 * union of their prefixes, such that only one atomic proposition has to be instrumented for them.
+	 */
+	public static AstNode mergeDisjunction(AstNode t1, AstNode t2) throws Exception {
+		AstNode eq1 = getSinglePrefixMatch(t1);
+		AstNode eq2 = getSinglePrefixMatch(t2);
+		if (eq1 != null && eq2 != null && getPrefixMatch(eq1) != null && getPrefixMatch(eq2) != null) {
+			AstNode field = eq1.getOutgoingNodes().get(0);
+			if (field.toString().equals(eq2.getOutgoingNodes().get(0).toString())) {
+				IPPrefixSet union = new IPPrefixSet(getPrefixMatch(eq1)).union(new IPPrefixSet(getPrefixMatch(eq2)));
+				return new Predicate(PredicateType.match, new Arguments(
+						new ExtendedComparativeOperator(ExtendedComparativeType.eq, new Name(field.toString()), union)));
+			}
+		}
+		return new BinaryTemporalOperator(BinaryTemporalType.or, t1, t2);
+	}
+}
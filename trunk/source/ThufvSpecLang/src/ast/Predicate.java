@@ -52,7 +52,43 @@ public class Predicate extends AstNode {
 			}
 			this.args.setArgs(newArgs);
 		}
+		else if(this.type == PredicateType.match)
+		{
+			mergePrefixMatches();
+		}
     }
+
+	// match(f=a/m, f=b/n) => match(f=<intersection of a/m and b/n>), at most one prefix match per field remains
+	private void mergePrefixMatches() {
+		ArrayList<AstNode> newArgs = new ArrayList<AstNode> ();
+		Map<String, Integer> fieldPos = new HashMap<String, Integer> ();
+		boolean merged = false;
+		for (AstNode arg : this.args.getArgs())
+		{
+			AstNode prefix = IPPrefixSet.getPrefixMatch(arg);
+			if (prefix == null)
+			{
+				newArgs.add(arg);
+				continue;
+			}
+			String field = arg.getOutgoingNodes().get(0).toString();
+			Integer pos = fieldPos.get(field);
+			if (pos == null)
+			{
+				fieldPos.put(field, newArgs.size());
+				newArgs.add(arg);
+				continue;
+			}
+			IPPrefixSet prev = new IPPrefixSet(IPPrefixSet.getPrefixMatch(newArgs.get(pos)));
+			newArgs.set(pos, new ExtendedComparativeOperator(ExtendedComparativeType.eq, new Name(field),
+					prev.intersect(new IPPrefixSet(prefix))));
+			merged = true;
+		}
+		if (merged)
+		{
+			this.args.setArgs(newArgs);
+		}
+	}
     
 	public Predicate(final PredicateType type) throws Exception {
 		this.type = type;
@@ -119,6 +155,11 @@ public class Predicate extends AstNode {
 					for (AstNode arg: args.getArgs())
 					{
 						ExtendedComparativeOperator eq = (ExtendedComparativeOperator) arg;
+						if(eq.getType() == ExtendedComparativeType.neq)
+						{
+							// match(h!=v) must not share its name with match(h=v)
+							identifier += "not_";
+						}
 						for(AstNode eq_oprand: eq.getOutgoingNodes())
 						{
 							identifier += normalizeString(eq_oprand.toString()) + "_";
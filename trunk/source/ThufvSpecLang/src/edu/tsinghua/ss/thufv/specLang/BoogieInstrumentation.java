@@ -0,0 +1,150 @@
+package edu.tsinghua.ss.thufv.specLang;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Body;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Declaration;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Statement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Unit;
+
+/**
+ * Collects the declarations and statements that the instrumentation adds to a Boogie unit and applies them in one
+ * pass, instead of copying the declaration array or the statement array of a body for every single addition.
+ *
+ * Positions in a body always refer to the statements the body had when it was first instrumented. Statements can be
+ * added at the front or at the back of the statements that were already added at the same position.
+ */
+final class BoogieInstrumentation {
+	private final Unit unit;
+	private final Deque<Declaration> prependedDecs = new ArrayDeque<>();
+	private final List<Declaration> appendedDecs = new ArrayList<>();
+	private final Map<Body, BodyInstrumentation> bodies = new IdentityHashMap<>();
+
+	BoogieInstrumentation(Unit unit) {
+		this.unit = unit;
+	}
+
+	/**
+	 * Adds a declaration in front of all declarations (including the ones that were prepended before).
+	 */
+	void prependDeclaration(Declaration dec) {
+		prependedDecs.addFirst(dec);
+	}
+
+	void appendDeclaration(Declaration dec) {
+		appendedDecs.add(dec);
+	}
+
+	BodyInstrumentation getBody(Body b) {
+		return bodies.computeIfAbsent(b, BodyInstrumentation::new);
+	}
+
+	/**
+	 * Writes all collected additions to the unit and its bodies.
+	 */
+	void apply() {
+		for (BodyInstrumentation b : bodies.values()) {
+			b.apply();
+		}
+		bodies.clear();
+		if (prependedDecs.isEmpty() && appendedDecs.isEmpty()) {
+			return;
+		}
+		Declaration[] decs = unit.getDeclarations();
+		List<Declaration> new_decs = new ArrayList<>(prependedDecs.size() + decs.length + appendedDecs.size());
+		new_decs.addAll(prependedDecs);
+		for (Declaration d : decs) {
+			new_decs.add(d);
+		}
+		new_decs.addAll(appendedDecs);
+		unit.setDeclarations(new_decs.toArray(new Declaration[new_decs.size()]));
+		prependedDecs.clear();
+		appendedDecs.clear();
+	}
+
+	static final class BodyInstrumentation {
+		private final Body body;
+		private final Statement[] stmts;
+		// gaps.get(i) holds the statements added in front of stmts[i], the last one those added after all stmts
+		private final List<Deque<Statement>> gaps;
+		private int added;
+
+		private BodyInstrumentation(Body body) {
+			this.body = body;
+			this.stmts = body.getBlock();
+			this.gaps = new ArrayList<>(stmts.length + 1);
+			for (int i = 0; i <= stmts.length; i++) {
+				gaps.add(null);
+			}
+		}
+
+		/**
+		 * @return the statements of the body before the instrumentation
+		 */
+		Statement[] getStatements() {
+			return stmts;
+		}
+
+		/**
+		 * Adds statements in front of the original statement at the given index, before all statements that were
+		 * already added there.
+		 */
+		void addFirst(int index, Statement[] to_add) {
+			Deque<Statement> gap = getGap(index);
+			for (int i = to_add.length - 1; i >= 0; i--) {
+				gap.addFirst(to_add[i]);
+			}
+			added += to_add.length;
+		}
+
+		/**
+		 * Adds statements in front of the original statement at the given index, after all statements that were
+		 * already added there. An index equal to the number of statements adds them at the end of the body.
+		 */
+		void addLast(int index, Statement[] to_add) {
+			Deque<Statement> gap = getGap(index);
+			for (Statement s : to_add) {
+				gap.addLast(s);
+			}
+			added += to_add.length;
+		}
+
+		private Deque<Statement> getGap(int index) {
+			if (index < 0 || index > stmts.length) {
+				throw new IndexOutOfBoundsException("Cannot add statements at " + index + " to a body with "
+						+ stmts.length + " statements");
+			}
+			Deque<Statement> gap = gaps.get(index);
+			if (gap == null) {
+				gap = new ArrayDeque<>();
+				gaps.set(index, gap);
+			}
+			return gap;
+		}
+
+		private void apply() {
+			if (added == 0) {
+				return;
+			}
+			Statement[] new_stmts = new Statement[stmts.length + added];
+			int j = 0;
+			for (int i = 0; i <= stmts.length; i++) {
+				Deque<Statement> gap = gaps.get(i);
+				if (gap != null) {
+					for (Statement s : gap) {
+						new_stmts[j++] = s;
+					}
+				}
+				if (i < stmts.length) {
+					new_stmts[j++] = stmts[i];
+				}
+			}
+			body.setBlock(new_stmts);
+		}
+	}
+}
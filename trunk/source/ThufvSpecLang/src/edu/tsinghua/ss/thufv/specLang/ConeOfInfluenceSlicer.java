@@ -0,0 +1,604 @@
+package edu.tsinghua.ss.thufv.specLang;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.boogie.DeclarationInformation;
+import de.uni_freiburg.informatik.ultimate.boogie.DeclarationInformation.StorageClass;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.ArrayLHS;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.AssignmentStatement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.AssumeStatement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.AtomicStatement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Body;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.BooleanLiteral;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.BoogieASTNode;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.CallStatement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Declaration;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Expression;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.GeneratedBoogieAstVisitor;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.HavocStatement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.IdentifierExpression;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.IfStatement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Label;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.LeftHandSide;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.ModifiesSpecification;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Procedure;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Specification;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Statement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.StructLHS;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Unit;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.VarList;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.VariableDeclaration;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.VariableLHS;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.WhileStatement;
+import de.uni_freiburg.informatik.ultimate.core.model.models.ModelUtils;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.util.csv.ICsvProvider;
+import de.uni_freiburg.informatik.ultimate.util.csv.ICsvProviderProvider;
+import de.uni_freiburg.informatik.ultimate.util.csv.SimpleCsvProvider;
+
+/**
+ * Removes the assignments and havocs of a Boogie unit that cannot influence the given variables (the variables that
+ * are instrumented for the property or that occur in its atomic propositions), together with the declarations of the
+ * variables that are no longer used afterwards.
+ *
+ * The analysis is flow-insensitive. A variable is relevant if it is one of the given variables, occurs in a condition
+ * (assume, assert, if, while, contracts) or flows into a relevant variable by an assignment or a call. Conditions are
+ * always kept, so every path of the sliced program is a path of the original program and vice versa; both only differ
+ * in the values of irrelevant variables. A removed statement is replaced by {@code assume true}, hence every path
+ * also keeps its number of statements. This matters if every statement is a step of the property, where removing
+ * statements would change the meaning of next.
+ *
+ * Unlike {@link ModSetAnalyzer}, which only knows which globals a procedure may write, this needs the def-use
+ * relation between variables, so the dependencies are collected here.
+ */
+public class ConeOfInfluenceSlicer implements ICsvProviderProvider<Integer> {
+	private static final String SEPARATOR = "#";
+
+	private final ILogger mLogger;
+	private final Unit mUnit;
+	private final Set<String> mGlobals;
+	// in and out parameters of each procedure (of the declaration and of the implementation, if the names differ)
+	private final Map<String, List<Set<String>>> mInParams;
+	private final Map<String, List<Set<String>>> mOutParams;
+	private final Map<String, Set<String>> mDependencies;
+	private final Set<String> mRelevant;
+
+	private int mUnslicedStatements;
+	private int mRemovedStatements;
+	private int mUnslicedGlobals;
+	private int mSlicedGlobals;
+	private int mUnslicedLocals;
+	private int mSlicedLocals;
+
+	public ConeOfInfluenceSlicer(ILogger logger, Unit unit) {
+		mLogger = logger;
+		mUnit = unit;
+		mGlobals = new HashSet<String>();
+		mInParams = new HashMap<String, List<Set<String>>>();
+		mOutParams = new HashMap<String, List<Set<String>>>();
+		mDependencies = new HashMap<String, Set<String>>();
+		mRelevant = new HashSet<String>();
+	}
+
+	/**
+	 * Slices the unit in place.
+	 *
+	 * @param propertyVariables
+	 *            the global variables the property depends on; names that are no global variable are ignored
+	 */
+	public void slice(Collection<String> propertyVariables) {
+		for (final Declaration decl : mUnit.getDeclarations()) {
+			if (decl instanceof VariableDeclaration) {
+				for (final VarList vl : ((VariableDeclaration) decl).getVariables()) {
+					for (final String id : vl.getIdentifiers()) {
+						mGlobals.add(id);
+					}
+				}
+			} else if (decl instanceof Procedure) {
+				collectParameters((Procedure) decl);
+			}
+		}
+		mUnslicedGlobals = mGlobals.size();
+
+		final Deque<String> worklist = new ArrayDeque<String>();
+		for (final String var : propertyVariables) {
+			if (mGlobals.contains(var) && mRelevant.add(var)) {
+				worklist.add(var);
+			}
+		}
+		for (final Declaration decl : mUnit.getDeclarations()) {
+			if (decl instanceof VariableDeclaration) {
+				for (final VarList vl : ((VariableDeclaration) decl).getVariables()) {
+					if (vl.getWhereClause() != null) {
+						markRelevant(getVariables(null, vl.getWhereClause()), worklist);
+					}
+				}
+			} else if (decl instanceof Procedure) {
+				collectDependencies((Procedure) decl, worklist);
+			}
+		}
+		while (!worklist.isEmpty()) {
+			final Set<String> deps = mDependencies.get(worklist.removeFirst());
+			if (deps != null) {
+				markRelevant(deps, worklist);
+			}
+		}
+
+		final List<Procedure> impls = new ArrayList<Procedure>();
+		for (final Declaration decl : mUnit.getDeclarations()) {
+			if (decl instanceof Procedure && ((Procedure) decl).getBody() != null) {
+				impls.add((Procedure) decl);
+			}
+		}
+		for (final Procedure proc : impls) {
+			final Body body = proc.getBody();
+			mUnslicedStatements += countStatements(body.getBlock());
+			body.setBlock(sliceStatements(proc.getIdentifier(), body.getBlock()));
+		}
+		removeUnusedVariables(impls);
+		mLogger.info(String.format("Sliced program w.r.t. %s relevant variables: %s", mRelevant.size(), toString()));
+	}
+
+	private void collectParameters(Procedure proc) {
+		addParameters(mInParams, proc.getIdentifier(), proc.getInParams());
+		addParameters(mOutParams, proc.getIdentifier(), proc.getOutParams());
+	}
+
+	private static void addParameters(Map<String, List<Set<String>>> map, String proc, VarList[] params) {
+		final List<Set<String>> sets = map.computeIfAbsent(proc, a -> new ArrayList<Set<String>>());
+		int i = 0;
+		for (final VarList vl : params) {
+			for (final String id : vl.getIdentifiers()) {
+				if (sets.size() <= i) {
+					sets.add(new HashSet<String>());
+				}
+				sets.get(i).add(proc + SEPARATOR + id);
+				i++;
+			}
+		}
+	}
+
+	private void collectDependencies(Procedure proc, Deque<String> worklist) {
+		final String pname = proc.getIdentifier();
+		// implementation and declaration may name the parameters differently
+		for (final Set<String> aliases : mInParams.get(pname)) {
+			for (final String alias : aliases) {
+				addDependencies(alias, aliases);
+			}
+		}
+		for (final Set<String> aliases : mOutParams.get(pname)) {
+			for (final String alias : aliases) {
+				addDependencies(alias, aliases);
+			}
+		}
+		if (proc.getSpecification() != null) {
+			for (final Specification spec : proc.getSpecification()) {
+				if (!(spec instanceof ModifiesSpecification)) {
+					markRelevant(getVariables(pname, spec), worklist);
+				}
+			}
+		}
+		if (proc.getBody() != null) {
+			collectDependencies(pname, proc.getBody().getBlock(), worklist);
+		}
+	}
+
+	private void collectDependencies(String pname, Statement[] stmts, Deque<String> worklist) {
+		for (final Statement stmt : stmts) {
+			if (stmt instanceof AssignmentStatement) {
+				final AssignmentStatement assign = (AssignmentStatement) stmt;
+				for (int i = 0; i < assign.getLhs().length; i++) {
+					final LeftHandSide lhs = assign.getLhs()[i];
+					final Set<String> reads = getVariables(pname, assign.getRhs()[i]);
+					// indices and the old value of an updated array are read as well
+					reads.addAll(getVariables(pname, lhs));
+					final VariableLHS base = getBaseVariable(lhs);
+					if (base == null) {
+						// we do not know what is written, the statement is kept
+						markRelevant(reads, worklist);
+						continue;
+					}
+					for (final String var : getVariables(pname, base)) {
+						addDependencies(var, reads);
+					}
+				}
+			} else if (stmt instanceof CallStatement) {
+				final CallStatement call = (CallStatement) stmt;
+				final List<Set<String>> inParams = mInParams.get(call.getMethodName());
+				final List<Set<String>> outParams = mOutParams.get(call.getMethodName());
+				for (int i = 0; i < call.getArguments().length; i++) {
+					final Set<String> reads = getVariables(pname, call.getArguments()[i]);
+					if (inParams == null || i >= inParams.size()) {
+						markRelevant(reads, worklist);
+						continue;
+					}
+					for (final String param : inParams.get(i)) {
+						addDependencies(param, reads);
+					}
+				}
+				for (int i = 0; i < call.getLhs().length; i++) {
+					for (final String var : getVariables(pname, call.getLhs()[i])) {
+						if (outParams == null || i >= outParams.size()) {
+							markRelevant(Set.of(var), worklist);
+							continue;
+						}
+						addDependencies(var, outParams.get(i));
+					}
+				}
+			} else if (stmt instanceof IfStatement) {
+				final IfStatement ifs = (IfStatement) stmt;
+				markRelevant(getVariables(pname, ifs.getCondition()), worklist);
+				collectDependencies(pname, ifs.getThenPart(), worklist);
+				collectDependencies(pname, ifs.getElsePart(), worklist);
+			} else if (stmt instanceof WhileStatement) {
+				final WhileStatement ws = (WhileStatement) stmt;
+				markRelevant(getVariables(pname, ws.getCondition()), worklist);
+				for (final Specification inv : ws.getInvariants()) {
+					markRelevant(getVariables(pname, inv), worklist);
+				}
+				collectDependencies(pname, ws.getBody(), worklist);
+			} else if (stmt instanceof AtomicStatement) {
+				collectDependencies(pname, ((AtomicStatement) stmt).getBody(), worklist);
+			} else if (!(stmt instanceof HavocStatement)) {
+				// assume, assert, fork, join, ...: everything that occurs is relevant
+				markRelevant(getVariables(pname, stmt), worklist);
+			}
+		}
+	}
+
+	private void addDependencies(String var, Set<String> reads) {
+		mDependencies.computeIfAbsent(var, a -> new HashSet<String>()).addAll(reads);
+	}
+
+	private void markRelevant(Set<String> vars, Deque<String> worklist) {
+		for (final String var : vars) {
+			if (mRelevant.add(var)) {
+				worklist.add(var);
+			}
+		}
+	}
+
+	/**
+	 * @return the variable that is written by the left hand side, or null if the kind of left hand side is unknown
+	 */
+	private static VariableLHS getBaseVariable(LeftHandSide lhs) {
+		LeftHandSide current = lhs;
+		while (!(current instanceof VariableLHS)) {
+			if (current instanceof ArrayLHS) {
+				current = ((ArrayLHS) current).getArray();
+			} else if (current instanceof StructLHS) {
+				current = ((StructLHS) current).getStruct();
+			} else {
+				return null;
+			}
+		}
+		return (VariableLHS) current;
+	}
+
+	private boolean isRelevant(String pname, LeftHandSide lhs) {
+		final VariableLHS base = getBaseVariable(lhs);
+		if (base == null) {
+			return true;
+		}
+		for (final String var : getVariables(pname, base)) {
+			if (mRelevant.contains(var)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private Statement[] sliceStatements(String pname, Statement[] stmts) {
+		final List<Statement> rtr = new ArrayList<Statement>(stmts.length);
+		for (final Statement stmt : stmts) {
+			if (stmt instanceof AssignmentStatement) {
+				boolean relevant = false;
+				for (final LeftHandSide lhs : ((AssignmentStatement) stmt).getLhs()) {
+					relevant |= isRelevant(pname, lhs);
+				}
+				if (relevant) {
+					rtr.add(stmt);
+				} else {
+					rtr.add(removed(stmt));
+				}
+			} else if (stmt instanceof HavocStatement) {
+				final List<VariableLHS> vars = new ArrayList<VariableLHS>();
+				for (final VariableLHS var : ((HavocStatement) stmt).getIdentifiers()) {
+					if (isRelevant(pname, var)) {
+						vars.add(var);
+					}
+				}
+				if (vars.size() == ((HavocStatement) stmt).getIdentifiers().length) {
+					rtr.add(stmt);
+				} else if (!vars.isEmpty()) {
+					rtr.add(copy(stmt, new HavocStatement(stmt.getLoc(), vars.toArray(new VariableLHS[vars.size()]))));
+				} else {
+					rtr.add(removed(stmt));
+				}
+			} else if (stmt instanceof IfStatement) {
+				final IfStatement ifs = (IfStatement) stmt;
+				rtr.add(copy(stmt, new IfStatement(stmt.getLoc(), ifs.getCondition(),
+						sliceStatements(pname, ifs.getThenPart()), sliceStatements(pname, ifs.getElsePart()))));
+			} else if (stmt instanceof WhileStatement) {
+				final WhileStatement ws = (WhileStatement) stmt;
+				rtr.add(copy(stmt, new WhileStatement(stmt.getLoc(), ws.getCondition(), ws.getInvariants(),
+						sliceStatements(pname, ws.getBody()))));
+			} else if (stmt instanceof AtomicStatement) {
+				rtr.add(copy(stmt,
+						new AtomicStatement(stmt.getLoc(), sliceStatements(pname, ((AtomicStatement) stmt).getBody()))));
+			} else {
+				rtr.add(stmt);
+			}
+		}
+		return rtr.toArray(new Statement[rtr.size()]);
+	}
+
+	/**
+	 * @return the statement that replaces a removed statement, s.t. the number of statements on each path is kept
+	 */
+	private Statement removed(Statement stmt) {
+		mRemovedStatements++;
+		return copy(stmt, new AssumeStatement(stmt.getLoc(), new BooleanLiteral(stmt.getLoc(), true)));
+	}
+
+	private static <T extends BoogieASTNode> T copy(BoogieASTNode oldNode, T newNode) {
+		ModelUtils.copyAnnotations(oldNode, newNode);
+		return newNode;
+	}
+
+	/**
+	 * Removes the declarations of the variables that no longer occur in the program (except in modifies clauses) and
+	 * that the property does not depend on.
+	 */
+	private void removeUnusedVariables(List<Procedure> impls) {
+		final Set<String> used = new HashSet<String>(mRelevant);
+		for (final Declaration decl : mUnit.getDeclarations()) {
+			if (decl instanceof Procedure) {
+				final Procedure proc = (Procedure) decl;
+				if (proc.getSpecification() != null) {
+					for (final Specification spec : proc.getSpecification()) {
+						if (!(spec instanceof ModifiesSpecification)) {
+							used.addAll(getVariables(proc.getIdentifier(), spec));
+						}
+					}
+				}
+				if (proc.getBody() != null) {
+					for (final Statement stmt : proc.getBody().getBlock()) {
+						used.addAll(getVariables(proc.getIdentifier(), stmt));
+					}
+				}
+			} else if (decl instanceof VariableDeclaration) {
+				for (final VarList vl : ((VariableDeclaration) decl).getVariables()) {
+					if (vl.getWhereClause() != null) {
+						used.addAll(getVariables(null, vl.getWhereClause()));
+					}
+				}
+			}
+		}
+
+		for (final Procedure proc : impls) {
+			final Body body = proc.getBody();
+			final String prefix = proc.getIdentifier() + SEPARATOR;
+			mUnslicedLocals += countVariables(Arrays.asList(body.getLocalVars()));
+			body.setLocalVars(removeUnusedVariables(body.getLocalVars(), prefix, used));
+			mSlicedLocals += countVariables(Arrays.asList(body.getLocalVars()));
+		}
+
+		final List<Declaration> decls = new ArrayList<Declaration>();
+		for (final Declaration decl : mUnit.getDeclarations()) {
+			if (decl instanceof VariableDeclaration) {
+				final VariableDeclaration[] remaining =
+						removeUnusedVariables(new VariableDeclaration[] { (VariableDeclaration) decl }, "", used);
+				if (remaining.length > 0) {
+					decls.add(remaining[0]);
+				}
+				continue;
+			}
+			if (decl instanceof Procedure && ((Procedure) decl).getSpecification() != null) {
+				final Procedure proc = (Procedure) decl;
+				final List<Specification> specs = new ArrayList<Specification>();
+				for (final Specification spec : proc.getSpecification()) {
+					if (!(spec instanceof ModifiesSpecification)) {
+						specs.add(spec);
+						continue;
+					}
+					final List<VariableLHS> vars = new ArrayList<VariableLHS>();
+					for (final VariableLHS var : ((ModifiesSpecification) spec).getIdentifiers()) {
+						if (used.contains(var.getIdentifier())) {
+							vars.add(var);
+						}
+					}
+					if (vars.size() == ((ModifiesSpecification) spec).getIdentifiers().length) {
+						specs.add(spec);
+					} else if (!vars.isEmpty()) {
+						specs.add(copy(spec, new ModifiesSpecification(spec.getLoc(), spec.isFree(),
+								vars.toArray(new VariableLHS[vars.size()]))));
+					}
+				}
+				if (specs.size() != proc.getSpecification().length) {
+					proc.setSpecification(specs.toArray(new Specification[specs.size()]));
+				}
+			}
+			decls.add(decl);
+		}
+		mSlicedGlobals = countVariables(decls);
+		mUnit.setDeclarations(decls.toArray(new Declaration[decls.size()]));
+	}
+
+	private static VariableDeclaration[] removeUnusedVariables(VariableDeclaration[] decls, String prefix,
+			Set<String> used) {
+		final List<VariableDeclaration> rtr = new ArrayList<VariableDeclaration>();
+		for (final VariableDeclaration decl : decls) {
+			final List<VarList> varLists = new ArrayList<VarList>();
+			boolean changed = false;
+			for (final VarList vl : decl.getVariables()) {
+				final List<String> ids = new ArrayList<String>();
+				for (final String id : vl.getIdentifiers()) {
+					if (used.contains(prefix + id)) {
+						ids.add(id);
+					}
+				}
+				if (ids.size() == vl.getIdentifiers().length) {
+					varLists.add(vl);
+				} else {
+					changed = true;
+					if (!ids.isEmpty()) {
+						varLists.add(new VarList(vl.getLoc(), ids.toArray(new String[ids.size()]), vl.getType(),
+								vl.getWhereClause()));
+					}
+				}
+			}
+			if (!changed) {
+				rtr.add(decl);
+			} else if (!varLists.isEmpty()) {
+				rtr.add(copy(decl, new VariableDeclaration(decl.getLoc(), decl.getAttributes(),
+						varLists.toArray(new VarList[varLists.size()]))));
+			}
+		}
+		return rtr.toArray(new VariableDeclaration[rtr.size()]);
+	}
+
+	private static int countVariables(List<? extends Declaration> decls) {
+		int rtr = 0;
+		for (final Declaration decl : decls) {
+			if (decl instanceof VariableDeclaration) {
+				for (final VarList vl : ((VariableDeclaration) decl).getVariables()) {
+					rtr += vl.getIdentifiers().length;
+				}
+			}
+		}
+		return rtr;
+	}
+
+	private static int countStatements(Statement[] stmts) {
+		int rtr = 0;
+		for (final Statement stmt : stmts) {
+			if (stmt instanceof Label) {
+				continue;
+			}
+			rtr++;
+			if (stmt instanceof IfStatement) {
+				rtr += countStatements(((IfStatement) stmt).getThenPart());
+				rtr += countStatements(((IfStatement) stmt).getElsePart());
+			} else if (stmt instanceof WhileStatement) {
+				rtr += countStatements(((WhileStatement) stmt).getBody());
+			} else if (stmt instanceof AtomicStatement) {
+				rtr += countStatements(((AtomicStatement) stmt).getBody());
+			}
+		}
+		return rtr;
+	}
+
+	/**
+	 * @return the keys of all variables that occur in the node; globals are identified by their name, all other
+	 *         variables by their procedure and their name
+	 */
+	private Set<String> getVariables(String pname, BoogieASTNode node) {
+		final Set<String> rtr = new HashSet<String>();
+		final GeneratedBoogieAstVisitor visitor = new GeneratedBoogieAstVisitor() {
+			@Override
+			public boolean visit(IdentifierExpression node) {
+				addVariable(pname, node.getIdentifier(), node.getDeclarationInformation(), rtr);
+				return true;
+			}
+
+			@Override
+			public boolean visit(VariableLHS node) {
+				addVariable(pname, node.getIdentifier(), node.getDeclarationInformation(), rtr);
+				return true;
+			}
+		};
+		if (node instanceof Statement) {
+			((Statement) node).accept(visitor);
+		} else if (node instanceof Expression) {
+			((Expression) node).accept(visitor);
+		} else if (node instanceof LeftHandSide) {
+			((LeftHandSide) node).accept(visitor);
+		} else if (node instanceof Specification) {
+			((Specification) node).accept(visitor);
+		}
+		return rtr;
+	}
+
+	private void addVariable(String pname, String id, DeclarationInformation info, Set<String> vars) {
+		if (info == null) {
+			// instrumented code without declaration information: over-approximate
+			if (mGlobals.contains(id)) {
+				vars.add(id);
+			}
+			if (pname != null) {
+				vars.add(pname + SEPARATOR + id);
+			}
+		} else if (info.getStorageClass() == StorageClass.GLOBAL) {
+			vars.add(id);
+		} else if (info.getStorageClass() != StorageClass.QUANTIFIED && pname != null) {
+			vars.add(pname + SEPARATOR + id);
+		}
+	}
+
+	@Override
+	public ICsvProvider<Integer> createCsvProvider() {
+		final List<String> columnTitles = new ArrayList<String>();
+		columnTitles.add("Unsliced Statements");
+		columnTitles.add("Sliced Statements");
+		columnTitles.add("Unsliced Globals");
+		columnTitles.add("Sliced Globals");
+		columnTitles.add("Unsliced Locals");
+		columnTitles.add("Sliced Locals");
+
+		final List<Integer> row = new ArrayList<Integer>();
+		row.add(mUnslicedStatements);
+		row.add(getSlicedStatements());
+		row.add(mUnslicedGlobals);
+		row.add(mSlicedGlobals);
+		row.add(mUnslicedLocals);
+		row.add(mSlicedLocals);
+
+		final SimpleCsvProvider<Integer> rtr = new SimpleCsvProvider<Integer>(columnTitles);
+		rtr.addRow(row);
+		return rtr;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s of %s statements, %s of %s global variables, %s of %s local variables remain",
+				getSlicedStatements(), mUnslicedStatements, mSlicedGlobals, mUnslicedGlobals, mSlicedLocals,
+				mUnslicedLocals);
+	}
+
+	public int getUnslicedStatements() {
+		return mUnslicedStatements;
+	}
+
+	/**
+	 * @return the number of statements that were not replaced by {@code assume true}
+	 */
+	public int getSlicedStatements() {
+		return mUnslicedStatements - mRemovedStatements;
+	}
+
+	public int getUnslicedGlobals() {
+		return mUnslicedGlobals;
+	}
+
+	public int getSlicedGlobals() {
+		return mSlicedGlobals;
+	}
+
+	public int getUnslicedLocals() {
+		return mUnslicedLocals;
+	}
+
+	public int getSlicedLocals() {
+		return mSlicedLocals;
+	}
+}
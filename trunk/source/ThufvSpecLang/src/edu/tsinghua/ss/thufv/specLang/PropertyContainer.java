@@ -1,10 +1,14 @@
 package edu.tsinghua.ss.thufv.specLang;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import de.uni_freiburg.informatik.ultimate.core.model.models.IElement;
 import de.uni_freiburg.informatik.ultimate.core.model.models.IPayload;
 import de.uni_freiburg.informatik.ultimate.core.model.models.annotation.IAnnotations;
+import de.uni_freiburg.informatik.ultimate.ltl2aut.ast.AstNode;
 
 public class PropertyContainer implements IElement {
 	private static final long serialVersionUID = -9201814281168356656L;
@@ -13,12 +17,20 @@ public class PropertyContainer implements IElement {
 		private static final long serialVersionUID = -340874972143576373L;
 		private String fairness;
 		private String liveness;
+		private AstNode fairnessAst;
+		private AstNode livenessAst;
 		
 		public VerificationProperty(String fairness, String liveness) {
 			this.fairness = fairness;
 			this.liveness = liveness;
 		}
 		
+		public VerificationProperty(String fairness, String liveness, AstNode fairnessAst, AstNode livenessAst) {
+			this(fairness, liveness);
+			this.fairnessAst = fairnessAst;
+			this.livenessAst = livenessAst;
+		}
+		
 		public String getLiveness() {
 			return liveness;
 		}
@@ -34,6 +46,24 @@ public class PropertyContainer implements IElement {
 		public boolean hasFairness() {
 			return fairness != null;
 		}
+		
+		/**
+		 * @return the instrumented P4LTL AST of the liveness property, or null if only the string is known
+		 */
+		public AstNode getLivenessAst() {
+			return livenessAst;
+		}
+		
+		/**
+		 * @return the instrumented P4LTL AST of the fairness constraint, or null if there is none
+		 */
+		public AstNode getFairnessAst() {
+			return fairnessAst;
+		}
+		
+		public boolean hasAst() {
+			return livenessAst != null && (fairness == null || fairnessAst != null);
+		}
 
 		@Override
 		public Map<String, IAnnotations> getAnnotations() {
@@ -47,15 +77,38 @@ public class PropertyContainer implements IElement {
 	}
 	
 	private VerificationProperty prop;
+	private List<VerificationProperty> props;
 	
 	public PropertyContainer(String livenessProp) {
-		prop = new VerificationProperty(null, livenessProp);
+		this(new VerificationProperty(null, livenessProp));
 	}
 	
 	public PropertyContainer(String fairnessProp, String livenessProp) {
-		prop = new VerificationProperty(fairnessProp, livenessProp);
+		this(new VerificationProperty(fairnessProp, livenessProp));
+	}
+	
+	public PropertyContainer(String fairnessProp, String livenessProp, AstNode fairnessAst, AstNode livenessAst) {
+		this(new VerificationProperty(fairnessProp, livenessProp, fairnessAst, livenessAst));
+	}
+	
+	private PropertyContainer(VerificationProperty property) {
+		this(Collections.singletonList(property));
+	}
+	
+	/**
+	 * Batch mode: all properties are checked against the same (instrumented) program.
+	 */
+	public PropertyContainer(List<VerificationProperty> properties) {
+		if (properties.isEmpty()) {
+			throw new IllegalArgumentException("No properties");
+		}
+		props = Collections.unmodifiableList(new ArrayList<>(properties));
+		prop = props.get(0);
 	}
 
+	/**
+	 * @return the first property
+	 */
 	@Override
 	public IPayload getPayload() {
 		return prop;
@@ -65,5 +118,12 @@ public class PropertyContainer implements IElement {
 	public boolean hasPayload() {
 		return prop != null;
 	}
+	
+	/**
+	 * @return all properties in the order in which they were specified
+	 */
+	public List<VerificationProperty> getProperties() {
+		return props;
+	}
 
 }
@@ -37,6 +37,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
@@ -97,6 +98,7 @@ import de.uni_freiburg.informatik.ultimate.boogie.preprocessor.PreprocessorAnnot
 import de.uni_freiburg.informatik.ultimate.boogie.symboltable.BoogieSymbolTable;
 import de.uni_freiburg.informatik.ultimate.boogie.type.BoogiePrimitiveType;
 import de.uni_freiburg.informatik.ultimate.boogie.type.BoogieType;
+import de.uni_freiburg.informatik.ultimate.core.lib.results.StatisticsResult;
 import de.uni_freiburg.informatik.ultimate.core.model.models.IBoogieType;
 import de.uni_freiburg.informatik.ultimate.core.model.models.IElement;
 import de.uni_freiburg.informatik.ultimate.core.model.models.ILocation;
@@ -106,7 +108,9 @@ import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
 import de.uni_freiburg.informatik.ultimate.core.model.services.IToolchainStorage;
 import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
 import de.uni_freiburg.informatik.ultimate.ltl2aut.ast.AstNode;
+import de.uni_freiburg.informatik.ultimate.ltl2aut.ast.Name;
 import de.uni_freiburg.informatik.ultimate.ltl2aut.preferences.PreferenceInitializer;
+import edu.tsinghua.ss.thufv.specLang.BoogieInstrumentation.BodyInstrumentation;
 import edu.tsinghua.ss.thufv.specLang.parse.SpecLangLexer;
 import edu.tsinghua.ss.thufv.specLang.parse.SpecLangParser;
 import edu.tsinghua.ss.thufv.specLang.parse.P4LTLLexer;
@@ -145,6 +149,11 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 	private PropertyContainer result;
 	private int currentEvent;
 	private boolean inFairness;
+	// Boogie names of the predicates that already have a global variable (shared between all properties of a batch)
+	private final Set<String> instrumentedPredicates = new HashSet<>();
+	private BoogieInstrumentation instrumentation;
+	// global variables added by the instrumentation
+	private final Set<String> instrumentedVariables = new HashSet<>();
 	
 	public ThufvSpecLangObserver(final IUltimateServiceProvider services) {
 		mServices = services;
@@ -158,6 +167,8 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 		symbolTable = null;
 		property = null;
 		prog = null;
+		instrumentedPredicates.clear();
+		instrumentedVariables.clear();
 	}
 
 	@Override
@@ -170,12 +181,19 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 		String[] specification = this.getLTLPropertyString();
 		String[] fairness_constraint = this.extractFairnessPropertyFromInputFile();
 		String[] ltlVarsAndTypes = this.extractLTLVariablesFromInputFile();
-		mLogger.info("P4LTL Spec is: " + specification[0]);
-		specification[0] = compileP4LTLToLTL(specification[0], ltlVarsAndTypes);
+		// all properties are instrumented into the same program, the user defined variables are added only once
+		AstNode[] specAsts = new AstNode[specification.length];
+		for (int i = 0; i < specification.length; i++) {
+			mLogger.info("P4LTL Spec is: " + specification[i]);
+			specAsts[i] = compileP4LTLToAst(specification[i], i == 0 ? ltlVarsAndTypes : new String[0]);
+			specification[i] = specAsts[i].toString();
+		}
+		AstNode fairnessAst = null;
 		if (!fairness_constraint[0].equals(""))
 		{
 			mLogger.info("P4LTL Fairness Spec is: " + fairness_constraint[0]);
-			fairness_constraint[0] = compileP4LTLToLTL(fairness_constraint[0], new String[0]);
+			fairnessAst = compileP4LTLToAst(fairness_constraint[0], new String[0]);
+			fairness_constraint[0] = fairnessAst.toString();
 		}
 		// Replace solidity variables with boogie variables (for both accesses and sums)
 //		TreeMap<String, String> sum_map = this.get_sol_var_map("sum");
@@ -190,33 +208,71 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 //		this.inFairness = false;
 //		instrument2(specAst, ltlvars);
 //		specification[0] = compileLTLPlusToLTL(specAst, specification[0]);
-		if (!fairness_constraint[0].equals("")) {
+		final String fairness = fairness_constraint[0].equals("") ? null : fairness_constraint[0];
+//		if (fairness != null) {
 //			this.inFairness = true;
 //			AstNode fairAst = ltlPlus2Ast(fairness_constraint[0]);
 //			instrument2(fairAst, new String[0]);
 //			fairness_constraint[0] = compileLTLPlusToLTL(fairAst, fairness_constraint[0]);
-			result = new PropertyContainer(fairness_constraint[0], specification[0]);
+//		}
+		final List<PropertyContainer.VerificationProperty> properties = new ArrayList<>();
+		for (int i = 0; i < specification.length; i++) {
+			properties.add(new PropertyContainer.VerificationProperty(fairness, specification[i], fairnessAst,
+					specAsts[i]));
+		}
+		if (properties.size() > 1) {
+			mLogger.info("Batch mode: checking " + properties.size() + " properties against the same program");
 		}
-		else {
-			result = new PropertyContainer(specification[0]);
+		if (mServices.getPreferenceProvider(Activator.PLUGIN_ID).getBoolean(
+				edu.tsinghua.ss.thufv.specLang.preferences.PreferenceInitializer.LABEL_SLICE_PROGRAM)) {
+			sliceProgram(specAsts, fairnessAst);
 		}
+		result = new PropertyContainer(properties);
 		
 		// This does not actually appear to be necessary, but I'll keep it in for now
 		// this.updateModifies();	
-		if (specification.length > 1) {
-			throw new UnsupportedOperationException(
-					"We currently support only one LTL property at a time, but found " + specification.length);
-		} 
 	}
 	
-	// complie P4LTL 2 LTL, and instrument user defined vars =
-	private String compileP4LTLToLTL(String p4ltl, String[] ltlVarsAndTypes) throws Exception {
+	// slice w.r.t. the instrumented variables and the variables in the atomic propositions of all properties
+	private void sliceProgram(AstNode[] specAsts, AstNode fairnessAst) {
+		Set<String> vars = new HashSet<>(instrumentedVariables);
+		for (AstNode spec : specAsts) {
+			collectPropertyVariables(spec, vars);
+		}
+		if (fairnessAst != null) {
+			collectPropertyVariables(fairnessAst, vars);
+		}
+		ConeOfInfluenceSlicer slicer = new ConeOfInfluenceSlicer(mLogger, unit);
+		slicer.slice(vars);
+		mServices.getResultService().reportResult(Activator.PLUGIN_ID,
+				new StatisticsResult<>(Activator.PLUGIN_ID, "Slicing w.r.t. the property", slicer));
+	}
+	
+	// the Boogie names that occur in the compiled formula: identifiers and instrumented predicates
+	static void collectPropertyVariables(AstNode node, Set<String> vars) {
+		if (node instanceof Name) {
+			vars.add(((Name) node).getIdent());
+		} else if (node instanceof Predicate) {
+			vars.add(((Predicate) node).getBoogieName());
+			// the arguments of a predicate are not always its outgoing nodes
+			if (((Predicate) node).getArgs() != null) {
+				for (AstNode arg : ((Predicate) node).getArgs().getArgs()) {
+					collectPropertyVariables(arg, vars);
+				}
+			}
+		}
+		for (AstNode child : node.getOutgoingNodes()) {
+			collectPropertyVariables(child, vars);
+		}
+	}
+	
+	// complie P4LTL 2 LTL, and instrument user defined vars; the AST is kept s.t. ltl2aut can translate it directly
+	private AstNode compileP4LTLToAst(String p4ltl, String[] ltlVarsAndTypes) throws Exception {
 		mLogger.info("Compiling formula: " + p4ltl);
 		AstNode p4ltlAst = p4ltl2Ast(p4ltl);
 		instrumentBoogie(p4ltlAst, ltlVarsAndTypes);	// TODO: set a new method for freevars
-		String regular_ltl = p4ltlAst.toString();
-		mLogger.info("Compiled to formula: " + regular_ltl);
-		return regular_ltl;
+		mLogger.info("Compiled to formula: " + p4ltlAst.toString());
+		return p4ltlAst;
 	}
 
 	private AstNode p4ltl2Ast(String p4ltl) throws Exception {
@@ -235,6 +291,7 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 	
 	private void instrumentBoogie(AstNode p4ltlAst, String[] ltlVarsAndTypes) throws Exception {
 		Unit newProg = unit;
+		instrumentation = new BoogieInstrumentation(newProg);
 		ArrayList<Predicate> predicates = this.getPredicates(p4ltlAst, new ArrayList<Predicate>());
 		for(int i = 0; i < predicates.size(); ++i)
 		{
@@ -245,6 +302,11 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 				case fwd:
 				case valid_after:
 				case valid_before:
+					if (!instrumentedPredicates.add(predicate.getBoogieName())) {
+						predicates.remove(i); i--;
+						mLogger.info("Already instrumented " + predicate.getBoogieName());
+						break;
+					}
 					addGlobalVar(predicate.getBoogieName(), "bool", newProg);
 					mLogger.info("Add global declaration: " + predicate.getBoogieName());
 					
@@ -366,9 +428,7 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 			VarList outParam = new VarList(iloc, new String[0], primitiveType); 
 			FunctionDeclaration functionDecl = new FunctionDeclaration(iloc, new Attribute[] {bvOpAttr}, bitOpIdentifier, new String[0], inParams, outParam);
 			// add to symbol table and new prog
-			Declaration[] new_decs = copyToBiggerDec(newProg.getDeclarations());
-			new_decs[0] = functionDecl;
-			newProg.setDeclarations(new_decs);
+			instrumentation.prependDeclaration(functionDecl);
 			symbolTable.addProcedureOrFunction(bitOpIdentifier, functionDecl);
 			mLogger.info("Add BitVec operation function: " + functionDecl);
 		}
@@ -387,18 +447,12 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 			
 			CallStatement call = new CallStatement(iloc, false, new VariableLHS[0], "mainProcedure", new Expression[0]);
 			Statement[] call_block = {call};
-			Statement[] block = this.addStatementArrays(b.getBlock(), call_block, b.getBlock().length);
-			b.setBlock(block);
+			instrumentation.getBody(b).addLast(b.getBlock().length, call_block);
 			Procedure p_body = new Procedure(iloc, new Attribute[0], "ULTIMATE.start", new String[0], new VarList[0], new VarList[0], null, b);
-			Declaration[] decs = newProg.getDeclarations();
-			Declaration[] new_decs = new Declaration[decs.length+2];
-			for (int i = 0; i < decs.length; i++) {
-				new_decs[i] = decs[i];
-			}
-			new_decs[decs.length] = p_nobody;
-			new_decs[decs.length+1] = p_body;
-			newProg.setDeclarations(new_decs);
+			instrumentation.appendDeclaration(p_nobody);
+			instrumentation.appendDeclaration(p_body);
 		}
+		instrumentation.apply();
 	}
 	
 	private Procedure fetchProcedure(String name) {
@@ -513,7 +567,6 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 	
 	private void instrumentVariableIncrement(Procedure p, Body b, Fsum f) throws Exception {
 		String pname = p.getIdentifier();
-		Statement[] stmts = b.getBlock();
 		AstNode constraint = f.getConstraint(p);
 		String param_name = this.fetchParamNameAtIndex(p, f.getArgNum());
 		Statement increment = this.buildIncrement(f.getVarName(), param_name, pname);
@@ -527,17 +580,15 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 		} 
 		Statement[] assns = additions.toArray(new Statement[additions.size()]);
 		if (f.getFunc().getName().equals("send__success")) {
-			stmts = this.addToStmts2(stmts, assns, "success", pname, "send");				
+			this.addToStmts2(instrumentation.getBody(b), assns, "success", pname, "send");				
 		} else {
-			stmts = this.addToStmts2(stmts, assns, "success", pname, "");	
+			this.addToStmts2(instrumentation.getBody(b), assns, "success", pname, "");	
 		}		
-		b.setBlock(stmts);
 	}
 	
 	private void instrumentVariableSet(Procedure p, Body b, Event e) throws Exception {
 		if (b != null) {
 			String pname = p.getIdentifier();
-			Statement[] stmts = b.getBlock();
 			AstNode constraint = e.getConstraint(p);
 			ArrayList<String> real_args = e.getRealArgs(p);
 			ArrayList<AstNode> e_args = e.getFunc().getArgs().getArgs();
@@ -548,22 +599,25 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 			Statement dumpFlag = this.buildAssignment("revert", new IdentifierExpression(iloc, "revert_hold"));
 			if (constraint != null || this.isWildcardAddition(pname, e.getOp())) {
 				Statement[] ifstmt = this.buildIfStatementWithGoto(constraint, e.getName(), pname, real_args, e_args, p, b, e.getOp());
-				Statement[] revertFlag = {saveFlag, revertFalse, dumpFlag};
-				ifstmt = this.addStatementArrays(revertFlag, ifstmt, 2);				
-				stmts = this.addToStmts2(stmts, ifstmt, place, pname, ename);
+				ArrayList<Statement> revertFlag = new ArrayList<Statement>(ifstmt.length + 3);
+				revertFlag.add(saveFlag);
+				revertFlag.add(revertFalse);
+				Collections.addAll(revertFlag, ifstmt);
+				revertFlag.add(dumpFlag);
+				this.addToStmts2(instrumentation.getBody(b), revertFlag.toArray(new Statement[revertFlag.size()]), place, pname, ename);
 			} else {
 				Statement assnTrue = this.buildAssignment(e.getName(), "true");
 				Statement assnFalse = this.buildAssignment(e.getName(), "false");
 				Statement[] assns = {saveFlag, revertFalse, assnTrue, assnFalse, dumpFlag};
-				stmts = this.addToStmts2(stmts, assns, place, pname, ename);
+				this.addToStmts2(instrumentation.getBody(b), assns, place, pname, ename);
 			}
-			b.setBlock(stmts);
 		}		
 	}
 	
 	private void instrumentVariableSet(Procedure p, Body b, Predicate predicate) throws Exception {
 		if (b != null) {
-			Statement[] stmts = b.getBlock();
+			BodyInstrumentation body = instrumentation.getBody(b);
+			Statement[] stmts = body.getStatements();
 			String predicateName = predicate.getBoogieName();
 			switch (predicate.getType()) {
 				case modify:
@@ -587,7 +641,7 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 						predicate.getType() == PredicateType.valid_after)
 					{
 						// the last stmt is `return;`
-						stmts = this.addStatementArrays(stmts, assignStmts, stmts.length-1);
+						body.addLast(stmts.length-1, assignStmts);
 					}
 					else if(predicate.getType() == PredicateType.match ||
 							predicate.getType() == PredicateType.valid_before)
@@ -606,15 +660,13 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 							}
 						}
 						assert index != -1 : "Cannot locate `_parser_` function";
-						stmts = this.addStatementArrays(stmts, assignStmts, index);
+						body.addFirst(index, assignStmts);
 					}
 					break;
 	
 				default:
 					break;
 			}
-			
-			b.setBlock(stmts);
 		}		
 	}
 	
@@ -635,27 +687,21 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 	}
 	
 	private void initGlobalVar(Body b, Event e) throws Exception {
-		Statement[] stmts = b.getBlock();
 		Statement assnFalse = this.buildAssignment(e.getName(), "false");
 		Statement[] assns = {assnFalse};
-		stmts = this.addToStmts2(stmts, assns, "begin", "", "");
-		b.setBlock(stmts);
+		this.addToStmts2(instrumentation.getBody(b), assns, "begin", "", "");
 	}
 	
 	private void initGlobalVar(Body b, Fsum f) throws Exception {
-		Statement[] stmts = b.getBlock();
 		Statement assnFalse = this.zeroInit(f.getVarName());
 		Statement[] assns = {assnFalse};
-		stmts = this.addToStmts2(stmts, assns, "begin", "", "");
-		b.setBlock(stmts);
+		this.addToStmts2(instrumentation.getBody(b), assns, "begin", "", "");
 	}
 	
 	private void initGlobalVar(Body b, Predicate p) throws Exception {
-		Statement[] stmts = b.getBlock();
 		Statement assnFalse = this.buildAssignment(p.getBoogieName(), "false");
 		Statement[] assns = {assnFalse};
-		stmts = this.addToStmts2(stmts, assns, "begin", "", "");
-		b.setBlock(stmts);
+		this.addToStmts2(instrumentation.getBody(b), assns, "begin", "", "");
 	}
 	
 	private BoogieType stringToType(String ltltype) {		
@@ -672,13 +718,11 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 	}
 	
 	private void havocGlobalVar(Body b, String ltlvar, String ltltype) throws Exception {
-		Statement[] stmts = b.getBlock();
 		DeclarationInformation decinf = new DeclarationInformation(DeclarationInformation.StorageClass.GLOBAL, null);
 		VariableLHS[] vars = {new VariableLHS(iloc, this.stringToType(ltltype), ltlvar, decinf)};
 		Statement havocVar = new HavocStatement(iloc, vars);
 		Statement[] havocs = {havocVar};
-		stmts = this.addToStmts2(stmts, havocs, "begin", "", "");
-		b.setBlock(stmts);		
+		this.addToStmts2(instrumentation.getBody(b), havocs, "begin", "", "");
 	}
 	
 	private String fetchCorralChoice() {
@@ -779,6 +823,7 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 	private void instrument2(AstNode ltlplus, String[] ltlVarsAndTypes) throws Exception {
 		// TODO: figure out how to properly copy unit
 		Unit newProg = unit;
+		instrumentation = new BoogieInstrumentation(newProg);
 		ArrayList<Event> events = this.getEvents(ltlplus, new ArrayList<Event>());
 		boolean setUltimateStart = false;
 		
@@ -946,18 +991,12 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 			}
 			CallStatement call = new CallStatement(iloc, false, new VariableLHS[0], "main", new Expression[0]);
 			Statement[] call_block = {call};
-			Statement[] block = this.addStatementArrays(b.getBlock(), call_block, b.getBlock().length);
-			b.setBlock(block);
+			instrumentation.getBody(b).addLast(b.getBlock().length, call_block);
 			Procedure p_body = new Procedure(iloc, new Attribute[0], "ULTIMATE.start", new String[0], new VarList[0], new VarList[0], null, b);
-			Declaration[] decs = newProg.getDeclarations();
-			Declaration[] new_decs = new Declaration[decs.length+2];
-			for (int i = 0; i < decs.length; i++) {
-				new_decs[i] = decs[i];
-			}
-			new_decs[decs.length] = p_nobody;
-			new_decs[decs.length+1] = p_body;
-			newProg.setDeclarations(new_decs);
+			instrumentation.appendDeclaration(p_nobody);
+			instrumentation.appendDeclaration(p_body);
 		}
+		instrumentation.apply();
 	}
 
 	private Procedure parseStringToProcedure (String expr) {
@@ -1191,8 +1230,9 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 			VariableDeclaration[] func_call_var_decs = this.getFunctionCallVarDecs(constraint);
 			if (func_call_var_decs.length > 0) {
 				VariableDeclaration[] old_var_decs = b.getLocalVars();
-				VariableDeclaration[] new_var_decs = this.addVarDecArrays(func_call_var_decs, old_var_decs, func_call_var_decs.length-1);
-				b.setLocalVars(new_var_decs);
+				ArrayList<VariableDeclaration> new_var_decs = new ArrayList<VariableDeclaration>(Arrays.asList(func_call_var_decs));
+				new_var_decs.addAll(func_call_var_decs.length-1, Arrays.asList(old_var_decs));
+				b.setLocalVars(new_var_decs.toArray(new VariableDeclaration[new_var_decs.size()]));
 			}
 		}
 				
@@ -1225,11 +1265,10 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 		Statement falseLabel = new Label(iloc, labels[1]);
 		Statement assumeFalse = new AssumeStatement(iloc, new UnaryExpression(iloc, UnaryExpression.Operator.LOGICNEG, expr));
 		Statement endLabel = new Label(iloc, end_labels[0]);
-		Statement[] stmts = {gotoSplit, trueLabel, assumeTrue, body[0], body[1], gotoEnd, falseLabel, assumeFalse, endLabel};
-		if (func_call_var_assns.length > 0) {
-			stmts = this.addStatementArrays(func_call_var_assns, stmts, func_call_var_assns.length);
-		}
-		return stmts;
+		ArrayList<Statement> stmts = new ArrayList<Statement>(func_call_var_assns.length + 9);
+		Collections.addAll(stmts, func_call_var_assns);
+		Collections.addAll(stmts, gotoSplit, trueLabel, assumeTrue, body[0], body[1], gotoEnd, falseLabel, assumeFalse, endLabel);
+		return stmts.toArray(new Statement[stmts.size()]);
 	}
 	
 	private AssignmentStatement buildAssignment(String var, IdentifierExpression val) {
@@ -1263,8 +1302,8 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 		return a;
 	}
 	
-	private Statement[] wildcardAddToStmts(Statement[] stmts, Statement[] stmts_to_add, String place, String pname, String ename) throws Exception {
-		Statement[] new_stmts = stmts;
+	private void wildcardAddToStmts(BodyInstrumentation body, Statement[] stmts_to_add, String place, String pname, String ename) throws Exception {
+		Statement[] stmts = body.getStatements();
 		if (place.equals("call")) {
 			int index = -1;
 			for (int i = 0; i < stmts.length; i++) {
@@ -1274,29 +1313,29 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 					break;
 				}
 			} 
-			new_stmts = this.addStatementArrays(new_stmts, stmts_to_add, index);			
+			body.addLast(index, stmts_to_add);
 		} else if (place.equals("success")) {
-			new_stmts = this.addStatementArrays(new_stmts, stmts_to_add, stmts.length-1);
+			body.addLast(stmts.length-1, stmts_to_add);
 		} else if (place.equals("fail")) {
-			new_stmts = this.addStatementArrays(new_stmts, stmts_to_add, stmts.length-1);
+			body.addLast(stmts.length-1, stmts_to_add);
 		} else {
 			throw new Exception("Event "+place+" not handled for wildcards!");			
 		}
-		return new_stmts;
 	}
-	private Statement[] addToStmts2(Statement[] stmts, Statement[] stmts_to_add, String place, String pname, String ename) throws Exception {
+	private void addToStmts2(BodyInstrumentation body, Statement[] stmts_to_add, String place, String pname, String ename) throws Exception {
 		if (pname.startsWith("CorralChoice") && !place.equals("inv")) {
-			return this.wildcardAddToStmts(stmts, stmts_to_add, place, pname, ename);
+			this.wildcardAddToStmts(body, stmts_to_add, place, pname, ename);
+			return;
 		}
-		Statement[] new_stmts = stmts;
+		Statement[] stmts = body.getStatements();
 		if (place.equals("begin") || place.equals("call")) {
-			new_stmts = this.addStatementArrays(new_stmts, stmts_to_add, 0);
+			body.addFirst(0, stmts_to_add);
 		} else if (place.equals("inv")) {
-			new_stmts = this.addStatementArrays(new_stmts, stmts_to_add, stmts.length-1);
+			body.addLast(stmts.length-1, stmts_to_add);
 		} else if (place.equals("success")) {
 			// TODO: replace substring lookup with something more concrete
 			if (ename.indexOf("send") != -1) {
-				new_stmts = this.addStatementArrays(new_stmts, stmts_to_add, new_stmts.length-1);				
+				body.addLast(stmts.length-1, stmts_to_add);
 			} else {
 				int index = -1;
 				for (int i = 0; i < stmts.length; i++) {
@@ -1308,7 +1347,7 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 						}
 					}
 				}
-				new_stmts = this.addStatementArrays(new_stmts, stmts_to_add, index);
+				body.addFirst(index, stmts_to_add);
 			}
 		} else if (place.equals("fail") || place.equals("callSuccess")) {
 			// TODO: handle send?
@@ -1317,7 +1356,7 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 				post = "__success";
 			}
 			if (ename.indexOf("send") != -1) {
-				new_stmts = this.addStatementArrays(new_stmts, stmts_to_add, new_stmts.length-1);
+				body.addLast(stmts.length-1, stmts_to_add);
 			} else {
 				int index = -1;
 				for (int i = 0; i < stmts.length; i++) {
@@ -1329,44 +1368,9 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 						}
 					}
 				} 
-				new_stmts = this.addStatementArrays(new_stmts, stmts_to_add, index);
+				body.addLast(index, stmts_to_add);
 			}
 		}
-		return new_stmts;
-	}
-	
-	private VariableDeclaration[] addVarDecArrays(VariableDeclaration[] vars1, VariableDeclaration[] vars2, int index) {
-		return (VariableDeclaration[]) addArrays(vars1, vars2, new VariableDeclaration[vars1.length+vars2.length], index);
-	}
-	
-	private Statement[] addStatementArrays(Statement[] stmts1, Statement[] stmts2, int index) {
-		return (Statement[]) addArrays(stmts1, stmts2, new Statement[stmts1.length+stmts2.length], index);	
-	}
-	
-	private Object[] addArrays(Object[] arr1, Object[] arr2, Object[] new_arr, int index) {		
-		for (int i = 0; i < index; i++) {
-			new_arr[i] = arr1[i];
-		}
-		
-		for (int j = 0; j < arr2.length; j++) {
-			new_arr[j+index] = arr2[j];
-		}
-		
-		for (int k = index; k < arr1.length; k++) {
-			new_arr[k+arr2.length] = arr1[k];
-		}
-		
-		return new_arr;
-	}
-	
-	private Declaration[] copyToBiggerDec(Declaration[] decs) {
-		Declaration[] new_decs = new Declaration[decs.length+1];
-		
-		for (int i = 0; i < decs.length; i++) {
-			new_decs[i+1] = decs[i];
-		}		
-		
-		return new_decs;
 	}
 	
 	private Unit addGlobalVar(String name, String type, Unit newProg) {
@@ -1379,9 +1383,8 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 		VarList vars = new VarList(iloc, var_names, pt);
 		VarList[] varss = {vars};
 		VariableDeclaration var = new VariableDeclaration(iloc, new Attribute[0], varss);
-		Declaration[] new_decs = copyToBiggerDec(newProg.getDeclarations());
-		new_decs[0] = var;
-		newProg.setDeclarations(new_decs);
+		instrumentation.prependDeclaration(var);
+		instrumentedVariables.add(name);
 		symbolTable.addGlobalVariable(name, var);
 		return newProg;
 	}
@@ -1604,6 +1607,25 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 	}
 
 
+	/**
+	 * @return the contents of all lines containing the marker, in the order of the file
+	 */
+	public List<String> extractAllFromInputFile(String marker) throws IOException {
+		final List<String> ret = new ArrayList<>();
+		try (BufferedReader br = new BufferedReader(new FileReader(inputFile))) {
+			String line;
+			while ((line = br.readLine()) != null) {
+				if (line.contains(marker)) {
+					ret.add(line.replaceFirst("//", "").replaceAll(marker, "").trim());
+				}
+			}
+		} catch (final IOException e) {
+			mLogger.error("Error while reading " + inputFile + ": " + e);
+			throw e;
+		}
+		return ret;
+	}
+
 	public String extractFromInputFile(String marker) throws IOException {
 		BufferedReader br;
 		String line = null;
@@ -1636,8 +1658,10 @@ public class ThufvSpecLangObserver implements IUnmanagedObserver {
 	}
 	
 	private String[] extractPropertyFromInputFile() throws IOException {
-		String[] properties = {extractFromInputFile(LTL_MARKER)};
-		return properties;
+		// every #LTLProperty block is checked (batch mode)
+		final List<String> properties = extractAllFromInputFile(LTL_MARKER);
+		properties.removeIf(String::isEmpty);
+		return properties.toArray(new String[properties.size()]);
 	}
 	
 	private String[] extractFairnessPropertyFromInputFile() throws IOException {
@@ -223,7 +223,7 @@ parser.done_parsing();
               int t1left = t1$.left;
               int t1right = t1$.right;
               AstNode t1 = (AstNode) t1$.value;
- RESULT = new BinaryTemporalOperator(BinaryTemporalType.or, t1, t2); 
+ RESULT = IPPrefixSet.mergeDisjunction(t1, t2); 
               return parser.getSymbolFactory().newSymbol("texpr", 1, t1$, t2$, RESULT);
             }
 
@@ -43,6 +43,12 @@ public class PreferenceInitializer extends UltimatePreferenceInitializer {
 	
 	public static final boolean DEF_PROPERTYFROMFILE = true;
 
+	public static final String LABEL_SLICE_PROGRAM = "Slice program w.r.t. property";
+	public static final boolean DEF_SLICE_PROGRAM = false;
+	private static final String DESC_SLICE_PROGRAM = "Replace the assignments of the instrumented program that "
+			+ "cannot influence the property by assume true and remove the unused variables before the control flow "
+			+ "graph is built.";
+
 	public PreferenceInitializer() {
 		super(Activator.PLUGIN_ID, Activator.PLUGIN_NAME);
 	}
@@ -52,6 +58,8 @@ public class PreferenceInitializer extends UltimatePreferenceInitializer {
 		return new UltimatePreferenceItem<?>[] {
 			new UltimatePreferenceItem<>(LABEL_PROPERTYFROMFILE, DEF_PROPERTYFROMFILE,
 					PreferenceType.Boolean),
+			new UltimatePreferenceItem<>(LABEL_SLICE_PROGRAM, DEF_SLICE_PROGRAM, DESC_SLICE_PROGRAM,
+					PreferenceType.Boolean),
 		};
 	}
 
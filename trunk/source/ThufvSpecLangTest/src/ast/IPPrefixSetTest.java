@@ -0,0 +1,92 @@
+package ast;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.ltl2aut.ast.AstNode;
+import edu.tsinghua.ss.thufv.specLang.parse.P4LTLLexer;
+import edu.tsinghua.ss.thufv.specLang.parse.P4LTLParser;
+
+/**
+ * Normalizes sets of ip prefixes and checks the boogie conditions that are generated for prefix matches.
+ */
+public class IPPrefixSetTest {
+
+	@Test
+	public void shortestAndLongestPrefix() {
+		Assert.assertEquals("true", new IPMask("0.0.0.0/0").toPrefixEquality("dst"));
+		Assert.assertEquals("dst==167772161bv32", new IPMask("10.0.0.1/32").toPrefixEquality("dst"));
+		Assert.assertEquals("true", set("0.0.0.0/0", "10.0.0.0/8").toDisjunction("dst"));
+	}
+
+	@Test
+	public void extractStrings() {
+		Assert.assertEquals("dst[32:24]==10bv8", new IPMask("10.0.0.0/8").toPrefixEquality("dst"));
+		Assert.assertEquals("dst[32:8]==12625921bv24", new IPMask("192.168.1.0/24").toPrefixEquality("dst"));
+		Assert.assertEquals("( dst[32:24]==10bv8 || dst[32:16]==49320bv16 )",
+				set("192.168.0.0/16", "10.0.0.0/8").toDisjunction("dst"));
+	}
+
+	@Test
+	public void siblingsAreMergedIntoParent() {
+		assertPrefixes(set("10.0.0.0/9", "10.128.0.0/9"), "10.0.0.0/8");
+		// the merged parent is merged again with its own sibling
+		assertPrefixes(set("10.0.0.0/8", "11.0.0.0/9", "11.128.0.0/9"), "10.0.0.0/7");
+		// no siblings
+		assertPrefixes(set("10.128.0.0/9", "11.0.0.0/9"), "10.128.0.0/9", "11.0.0.0/9");
+	}
+
+	@Test
+	public void coveredPrefixIsDropped() {
+		assertPrefixes(set("10.1.0.0/16", "10.0.0.0/8"), "10.0.0.0/8");
+		assertPrefixes(set("10.1.2.3/32", "0.0.0.0/0"), "0.0.0.0/0");
+		assertPrefixes(set("10.0.0.0/8").union(set("10.1.0.0/16", "11.1.0.0/16")), "10.0.0.0/8", "11.1.0.0/16");
+	}
+
+	@Test
+	public void intersection() {
+		assertPrefixes(set("10.0.0.0/8").intersect(set("10.1.0.0/16", "11.0.0.0/8")), "10.1.0.0/16");
+		final IPPrefixSet empty = set("10.0.0.0/8").intersect(set("11.0.0.0/8"));
+		Assert.assertTrue(empty.getPrefixes().isEmpty());
+		Assert.assertEquals("false", empty.toDisjunction("dst"));
+	}
+
+	@Test
+	public void parsedMatches() throws Exception {
+		Assert.assertEquals("(dst[32:24]==10bv8)",
+				condition(parse("match(dst = 10.0.0.0/9) || match(dst = 10.128.0.0/9)")));
+		Assert.assertEquals("(dst[32:16]==2561bv16)",
+				condition(parse("match(dst = 10.0.0.0/8, dst = 10.1.0.0/16)")));
+		Assert.assertEquals("(false)", condition(parse("match(dst = 10.0.0.0/8, dst = 11.0.0.0/8)")));
+		Assert.assertEquals("!(dst[32:24]==10bv8)", condition(parse("match(dst != 10.0.0.0/8)")));
+		Assert.assertEquals("!(dst==167772161bv32)", condition(parse("match(dst != 10.0.0.1/32)")));
+		// prefixes of different fields are not merged
+		Assert.assertTrue(
+				parse("match(dst = 10.0.0.0/9) || match(src = 10.128.0.0/9)") instanceof BinaryTemporalOperator);
+	}
+
+	private static IPPrefixSet set(final String... prefixes) {
+		return new IPPrefixSet(Arrays.stream(prefixes).map(IPMask::new).collect(Collectors.toList()));
+	}
+
+	private static void assertPrefixes(final IPPrefixSet set, final String... expected) {
+		final List<IPMask> prefixes = set.getPrefixes();
+		Assert.assertEquals(expected.length, prefixes.size());
+		for (int i = 0; i < expected.length; i++) {
+			Assert.assertEquals(expected[i], prefixes.get(i).getIPString() + "/" + prefixes.get(i).getMask());
+		}
+	}
+
+	private static String condition(final AstNode match) {
+		return ((Predicate) match).getArgs().getArgs().get(0).toString();
+	}
+
+	private static AstNode parse(final String formula) throws Exception {
+		return (AstNode) new P4LTLParser(new P4LTLLexer(new StringReader(formula))).parse().value;
+	}
+}
@@ -0,0 +1,147 @@
+package edu.tsinghua.ss.thufv.specLang;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+import de.uni_freiburg.informatik.ultimate.boogie.ast.AssumeStatement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Body;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.BooleanLiteral;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Declaration;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Statement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Unit;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.VariableDeclaration;
+import de.uni_freiburg.informatik.ultimate.core.lib.models.annotation.DefaultLocation;
+import de.uni_freiburg.informatik.ultimate.core.model.models.ILocation;
+import edu.tsinghua.ss.thufv.specLang.BoogieInstrumentation.BodyInstrumentation;
+
+/**
+ * Compares {@link BoogieInstrumentation} with copying the statement array for every addition, which is what the
+ * instrumentation did before. Both strategies add blocks of three statements alternately in front of and after
+ * random statements of a synthetic body, and the results are checked to be identical.
+ *
+ * USAGE: BoogieInstrumentationBenchmark [statements insertions]. Without arguments a small body, like the largest
+ * one of examples/P4LTL, and a large body are measured.
+ */
+public final class BoogieInstrumentationBenchmark {
+
+	private static final ILocation LOC = new DefaultLocation();
+	private static final int STATEMENTS_PER_INSERTION = 3;
+	private static final int REPETITIONS = 5;
+
+	private BoogieInstrumentationBenchmark() {
+		// only a main method
+	}
+
+	public static void main(final String[] args) {
+		if (args.length == 2) {
+			run(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+		} else {
+			run(400, 200);
+			run(20000, 5000);
+		}
+	}
+
+	private static void run(final int statements, final int insertions) {
+		final Statement[] original = new Statement[statements];
+		for (int i = 0; i < statements; i++) {
+			original[i] = statement();
+		}
+		final Random random = new Random(5);
+		final int[] indices = new int[insertions];
+		final Statement[][] additions = new Statement[insertions][];
+		for (int i = 0; i < insertions; i++) {
+			indices[i] = random.nextInt(statements + 1);
+			additions[i] = new Statement[STATEMENTS_PER_INSERTION];
+			for (int j = 0; j < STATEMENTS_PER_INSERTION; j++) {
+				additions[i][j] = statement();
+			}
+		}
+
+		Statement[] copied = null;
+		Statement[] collected = null;
+		long copyNanos = Long.MAX_VALUE;
+		long collectNanos = Long.MAX_VALUE;
+		long copyBytes = 0;
+		long collectBytes = 0;
+		for (int rep = 0; rep < REPETITIONS; rep++) {
+			long bytes = allocatedBytes();
+			long start = System.nanoTime();
+			copied = copyArrays(original, indices, additions);
+			copyNanos = Math.min(copyNanos, System.nanoTime() - start);
+			copyBytes = allocatedBytes() - bytes;
+
+			bytes = allocatedBytes();
+			start = System.nanoTime();
+			collected = collect(original, indices, additions);
+			collectNanos = Math.min(collectNanos, System.nanoTime() - start);
+			collectBytes = allocatedBytes() - bytes;
+		}
+		if (!Arrays.equals(copied, collected)) {
+			throw new AssertionError("The strategies produce different statements");
+		}
+		System.out.println(String.format(
+				"%d statements, %d insertions: array copy %.1f ms and %d KB, BoogieInstrumentation %.1f ms and %d KB",
+				statements, insertions, copyNanos / 1e6, copyBytes / 1024, collectNanos / 1e6, collectBytes / 1024));
+	}
+
+	private static Statement[] copyArrays(final Statement[] original, final int[] indices,
+			final Statement[][] additions) {
+		Statement[] stmts = original;
+		for (int i = 0; i < indices.length; i++) {
+			final int pos;
+			if (i % 2 == 0) {
+				pos = indices[i] == 0 ? 0 : indexOf(stmts, original[indices[i] - 1]) + 1;
+			} else {
+				pos = indices[i] == original.length ? stmts.length : indexOf(stmts, original[indices[i]]);
+			}
+			final Statement[] added = additions[i];
+			final Statement[] new_stmts = new Statement[stmts.length + added.length];
+			System.arraycopy(stmts, 0, new_stmts, 0, pos);
+			System.arraycopy(added, 0, new_stmts, pos, added.length);
+			System.arraycopy(stmts, pos, new_stmts, pos + added.length, stmts.length - pos);
+			stmts = new_stmts;
+		}
+		return stmts;
+	}
+
+	private static Statement[] collect(final Statement[] original, final int[] indices,
+			final Statement[][] additions) {
+		final Body body = new Body(LOC, new VariableDeclaration[0], original);
+		final BoogieInstrumentation instrumentation = new BoogieInstrumentation(new Unit(LOC, new Declaration[0]));
+		final BodyInstrumentation bodyInstrumentation = instrumentation.getBody(body);
+		for (int i = 0; i < indices.length; i++) {
+			if (i % 2 == 0) {
+				bodyInstrumentation.addFirst(indices[i], additions[i]);
+			} else {
+				bodyInstrumentation.addLast(indices[i], additions[i]);
+			}
+		}
+		instrumentation.apply();
+		return body.getBlock();
+	}
+
+	private static int indexOf(final Statement[] stmts, final Statement stmt) {
+		for (int i = 0; i < stmts.length; i++) {
+			if (stmts[i] == stmt) {
+				return i;
+			}
+		}
+		throw new AssertionError("statement not found");
+	}
+
+	private static Statement statement() {
+		return new AssumeStatement(LOC, new BooleanLiteral(LOC, true));
+	}
+
+	/**
+	 * @return the bytes allocated by the current thread so far, or 0 if the JVM does not provide it.
+	 */
+	private static long allocatedBytes() {
+		final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,158 @@
+package edu.tsinghua.ss.thufv.specLang;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.boogie.ast.AssumeStatement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Attribute;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Body;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.BooleanLiteral;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Declaration;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.PrimitiveType;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Statement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Unit;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.VarList;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.VariableDeclaration;
+import de.uni_freiburg.informatik.ultimate.core.lib.models.annotation.DefaultLocation;
+import de.uni_freiburg.informatik.ultimate.core.model.models.ILocation;
+import edu.tsinghua.ss.thufv.specLang.BoogieInstrumentation.BodyInstrumentation;
+
+/**
+ * Checks that {@link BoogieInstrumentation} adds statements and declarations at the same positions as inserting them
+ * one by one into the arrays.
+ */
+public class BoogieInstrumentationTest {
+
+	private static final ILocation LOC = new DefaultLocation();
+
+	@Test
+	public void orderWithinOneGap() {
+		final Statement[] original = statements(2);
+		final Body body = body(original);
+		final BoogieInstrumentation instrumentation = new BoogieInstrumentation(new Unit(LOC, new Declaration[0]));
+		final BodyInstrumentation bodyInstrumentation = instrumentation.getBody(body);
+		final Statement[] first = statements(2);
+		final Statement[] second = statements(1);
+		final Statement[] third = statements(1);
+		final Statement[] last = statements(1);
+		bodyInstrumentation.addLast(1, first);
+		bodyInstrumentation.addFirst(1, second);
+		bodyInstrumentation.addLast(1, third);
+		bodyInstrumentation.addLast(2, last);
+		Assert.assertSame(original, bodyInstrumentation.getStatements());
+		Assert.assertSame(bodyInstrumentation, instrumentation.getBody(body));
+		instrumentation.apply();
+		Assert.assertArrayEquals(new Statement[] { original[0], second[0], first[0], first[1], third[0], original[1],
+			last[0] }, body.getBlock());
+	}
+
+	@Test
+	public void randomInsertions() {
+		final Random random = new Random(11);
+		for (int round = 0; round < 200; round++) {
+			final Statement[] original = statements(random.nextInt(10));
+			final Body body = body(original);
+			final BoogieInstrumentation instrumentation = new BoogieInstrumentation(new Unit(LOC, new Declaration[0]));
+			final List<Statement> expected = new ArrayList<>(Arrays.asList(original));
+			for (int i = random.nextInt(30); i > 0; i--) {
+				final int index = random.nextInt(original.length + 1);
+				final Statement[] toAdd = statements(1 + random.nextInt(3));
+				if (random.nextBoolean()) {
+					instrumentation.getBody(body).addFirst(index, toAdd);
+					final int pos = index == 0 ? 0 : indexOf(expected, original[index - 1]) + 1;
+					expected.addAll(pos, Arrays.asList(toAdd));
+				} else {
+					instrumentation.getBody(body).addLast(index, toAdd);
+					final int pos = index == original.length ? expected.size() : indexOf(expected, original[index]);
+					expected.addAll(pos, Arrays.asList(toAdd));
+				}
+			}
+			instrumentation.apply();
+			Assert.assertArrayEquals(expected.toArray(), body.getBlock());
+		}
+	}
+
+	@Test
+	public void bodyWithoutAdditionsIsUnchanged() {
+		final Statement[] original = statements(3);
+		final Body body = body(original);
+		final BoogieInstrumentation instrumentation = new BoogieInstrumentation(new Unit(LOC, new Declaration[0]));
+		instrumentation.getBody(body).addFirst(0, new Statement[0]);
+		instrumentation.apply();
+		Assert.assertSame(original, body.getBlock());
+	}
+
+	@Test
+	public void applyTwice() {
+		final Statement[] original = statements(1);
+		final Body body = body(original);
+		final BoogieInstrumentation instrumentation = new BoogieInstrumentation(new Unit(LOC, new Declaration[0]));
+		final Statement[] first = statements(1);
+		instrumentation.getBody(body).addFirst(0, first);
+		instrumentation.apply();
+		// the second pass refers to the statements after the first pass
+		final Statement[] second = statements(1);
+		instrumentation.getBody(body).addLast(1, second);
+		instrumentation.apply();
+		Assert.assertArrayEquals(new Statement[] { first[0], second[0], original[0] }, body.getBlock());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void indexAfterEnd() {
+		final Body body = body(statements(2));
+		new BoogieInstrumentation(new Unit(LOC, new Declaration[0])).getBody(body).addLast(3, statements(1));
+	}
+
+	@Test
+	public void declarations() {
+		final Declaration[] original = declarations(2);
+		final Unit unit = new Unit(LOC, original);
+		final BoogieInstrumentation instrumentation = new BoogieInstrumentation(unit);
+		final Declaration[] added = declarations(4);
+		instrumentation.appendDeclaration(added[0]);
+		instrumentation.prependDeclaration(added[1]);
+		instrumentation.prependDeclaration(added[2]);
+		instrumentation.appendDeclaration(added[3]);
+		instrumentation.apply();
+		Assert.assertArrayEquals(new Declaration[] { added[2], added[1], original[0], original[1], added[0],
+			added[3] }, unit.getDeclarations());
+
+		instrumentation.apply();
+		Assert.assertEquals(6, unit.getDeclarations().length);
+	}
+
+	private static int indexOf(final List<Statement> stmts, final Statement stmt) {
+		for (int i = 0; i < stmts.size(); i++) {
+			if (stmts.get(i) == stmt) {
+				return i;
+			}
+		}
+		throw new AssertionError("statement not found");
+	}
+
+	private static Body body(final Statement[] stmts) {
+		return new Body(LOC, new VariableDeclaration[0], stmts);
+	}
+
+	private static Statement[] statements(final int count) {
+		final Statement[] result = new Statement[count];
+		for (int i = 0; i < count; i++) {
+			result[i] = new AssumeStatement(LOC, new BooleanLiteral(LOC, true));
+		}
+		return result;
+	}
+
+	private static Declaration[] declarations(final int count) {
+		final Declaration[] result = new Declaration[count];
+		for (int i = 0; i < count; i++) {
+			final VarList vars = new VarList(LOC, new String[] { "v" + i }, new PrimitiveType(LOC, "int"));
+			result[i] = new VariableDeclaration(LOC, new Attribute[0], new VarList[] { vars });
+		}
+		return result;
+	}
+}
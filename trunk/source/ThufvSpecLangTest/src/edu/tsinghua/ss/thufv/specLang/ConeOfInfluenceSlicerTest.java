@@ -0,0 +1,161 @@
+package edu.tsinghua.ss.thufv.specLang;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.boogie.ast.AssignmentStatement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.AssumeStatement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Attribute;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.BinaryExpression;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Body;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.BooleanLiteral;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Declaration;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Expression;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.HavocStatement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.IdentifierExpression;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.IntegerLiteral;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.LeftHandSide;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.PrimitiveType;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Procedure;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Specification;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Statement;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.Unit;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.VarList;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.VariableDeclaration;
+import de.uni_freiburg.informatik.ultimate.boogie.ast.VariableLHS;
+import de.uni_freiburg.informatik.ultimate.core.lib.models.annotation.DefaultLocation;
+import de.uni_freiburg.informatik.ultimate.core.model.models.ILocation;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.ltl2aut.ast.AstNode;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+import edu.tsinghua.ss.thufv.specLang.parse.P4LTLLexer;
+import edu.tsinghua.ss.thufv.specLang.parse.P4LTLParser;
+
+/**
+ * Slices small programs and checks which statements and variables remain, and that every path keeps its length.
+ */
+public class ConeOfInfluenceSlicerTest {
+
+	private static final ILocation LOC = new DefaultLocation();
+
+	private ILogger mLogger;
+
+	@Before
+	public void setUp() {
+		mLogger = UltimateMocks.createUltimateServiceProviderMock().getLoggingService().getLogger(Activator.PLUGIN_ID);
+	}
+
+	/**
+	 * Under the SingleStatement encoding every statement is a step, so the statement that makes X(match(x = y)) true
+	 * has to stay at the same position.
+	 */
+	@Test
+	public void nextPropertyKeepsSteps() throws Exception {
+		final Set<String> vars = new HashSet<>();
+		ThufvSpecLangObserver.collectPropertyVariables(parse("X(match(x = y))"), vars);
+		Assert.assertTrue(vars.containsAll(Arrays.asList("x", "y", "match_x_y")));
+
+		final Statement setZ = assign("z", literal(1));
+		final Statement setX = assign("x", id("y"));
+		final Statement havocZ = new HavocStatement(LOC, new VariableLHS[] { lhs("z") });
+		final Statement resetX = assign("x", literal(0));
+		final Unit unit = program(new String[] { "x", "y", "z", "match_x_y" }, setZ, setX, havocZ, resetX);
+
+		final ConeOfInfluenceSlicer slicer = new ConeOfInfluenceSlicer(mLogger, unit);
+		slicer.slice(vars);
+
+		final Statement[] block = getMain(unit).getBody().getBlock();
+		Assert.assertEquals(4, block.length);
+		assertAssumeTrue(block[0]);
+		Assert.assertSame(setX, block[1]);
+		assertAssumeTrue(block[2]);
+		Assert.assertSame(resetX, block[3]);
+		Assert.assertEquals(4, slicer.getUnslicedStatements());
+		Assert.assertEquals(2, slicer.getSlicedStatements());
+		Assert.assertEquals(4, slicer.getUnslicedGlobals());
+		Assert.assertEquals(3, slicer.getSlicedGlobals());
+	}
+
+	@Test
+	public void conditionsAndDependenciesAreKept() {
+		// z occurs in a condition, w only flows into u, and u is never read
+		final Statement setZ = assign("z", id("w"));
+		final Statement setW = assign("w", literal(1));
+		final Statement setU = assign("u", id("x"));
+		final Statement assume =
+				new AssumeStatement(LOC, new BinaryExpression(LOC, BinaryExpression.Operator.COMPGT, id("z"), literal(0)));
+		final Unit unit = program(new String[] { "x", "z", "w", "u" }, setW, setZ, setU, assume);
+
+		new ConeOfInfluenceSlicer(mLogger, unit).slice(Arrays.asList("x"));
+
+		final Statement[] block = getMain(unit).getBody().getBlock();
+		Assert.assertSame(setW, block[0]);
+		Assert.assertSame(setZ, block[1]);
+		assertAssumeTrue(block[2]);
+		Assert.assertSame(assume, block[3]);
+	}
+
+	@Test
+	public void havocKeepsRelevantVariables() {
+		final Statement havoc = new HavocStatement(LOC, new VariableLHS[] { lhs("x"), lhs("z") });
+		final Unit unit = program(new String[] { "x", "z" }, havoc);
+
+		new ConeOfInfluenceSlicer(mLogger, unit).slice(Arrays.asList("x"));
+
+		final Statement[] block = getMain(unit).getBody().getBlock();
+		Assert.assertEquals(1, block.length);
+		Assert.assertTrue(block[0] instanceof HavocStatement);
+		final VariableLHS[] havocked = ((HavocStatement) block[0]).getIdentifiers();
+		Assert.assertEquals(1, havocked.length);
+		Assert.assertEquals("x", havocked[0].getIdentifier());
+	}
+
+	private static AstNode parse(final String formula) throws Exception {
+		return (AstNode) new P4LTLParser(new P4LTLLexer(new StringReader(formula))).parse().value;
+	}
+
+	private static Unit program(final String[] globals, final Statement... body) {
+		final VarList vars = new VarList(LOC, globals, new PrimitiveType(LOC, "int"));
+		final Declaration globalDecl = new VariableDeclaration(LOC, new Attribute[0], new VarList[] { vars });
+		final Procedure main = new Procedure(LOC, new Attribute[0], "main", new String[0], new VarList[0],
+				new VarList[0], new Specification[0], new Body(LOC, new VariableDeclaration[0], body));
+		return new Unit(LOC, new Declaration[] { globalDecl, main });
+	}
+
+	private static Procedure getMain(final Unit unit) {
+		for (final Declaration decl : unit.getDeclarations()) {
+			if (decl instanceof Procedure) {
+				return (Procedure) decl;
+			}
+		}
+		throw new AssertionError("no procedure");
+	}
+
+	private static void assertAssumeTrue(final Statement stmt) {
+		Assert.assertTrue(stmt instanceof AssumeStatement);
+		final Expression formula = ((AssumeStatement) stmt).getFormula();
+		Assert.assertTrue(formula instanceof BooleanLiteral && ((BooleanLiteral) formula).getValue());
+	}
+
+	private static Statement assign(final String var, final Expression value) {
+		return new AssignmentStatement(LOC, new LeftHandSide[] { lhs(var) }, new Expression[] { value });
+	}
+
+	private static VariableLHS lhs(final String var) {
+		return new VariableLHS(LOC, var);
+	}
+
+	private static Expression id(final String var) {
+		return new IdentifierExpression(LOC, var);
+	}
+
+	private static Expression literal(final int value) {
+		return new IntegerLiteral(LOC, Integer.toString(value));
+	}
+}
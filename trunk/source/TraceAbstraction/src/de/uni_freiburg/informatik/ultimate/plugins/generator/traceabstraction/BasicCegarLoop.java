@@ -186,7 +186,8 @@ public abstract class BasicCegarLoop<L extends IIcfgTransition<?>, A extends IAu
 		}
 
 		mStoreFloydHoareAutomata = taPrefs.getFloydHoareAutomataReuse() != FloydHoareAutomataReuse.NONE;
-		mHaf = new HoareAnnotationFragments<>(mLogger, hoareAnnotationLocs, mPref.getHoareAnnotationPositions());
+		mHaf = new HoareAnnotationFragments<>(mLogger, hoareAnnotationLocs, mPref.getHoareAnnotationPositions(),
+				computeHoareAnnotation && mPref.spillHoareAnnotationDeadContexts() ? getServices().getStorage() : null);
 		mStateFactoryForRefinement = stateFactoryForRefinement;
 
 		mPredicateFactoryInterpolantAutomata = new PredicateFactoryForInterpolantAutomata(
@@ -357,6 +358,7 @@ public abstract class BasicCegarLoop<L extends IIcfgTransition<?>, A extends IAu
 		final int max = HistogramOfIterable.getMaxOfVisualizationArray(sortedHistogram);
 		mCegarLoopBenchmark.reportPathProgramHistogramMaximum(max);
 		mCegarLoopBenchmark.stop(CegarLoopStatisticsDefinitions.OverallTime.toString());
+		mHaf.close();
 
 	}
 
@@ -27,6 +27,9 @@
  */
 package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction;
 
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -43,12 +46,14 @@ import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.oldapi
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.oldapi.IOpWithDelayedDeadEndRemoval.UpDownEntry;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingCallTransition;
 import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IToolchainStorage;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IAction;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IcfgLocation;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.IPredicate;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.SPredicate;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.UnknownState;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.preferences.TraceAbstractionPreferenceInitializer.HoareAnnotationPositions;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.IntArraySpillFile;
 import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.HashRelation;
 
 /**
@@ -76,12 +81,31 @@ public class HoareAnnotationFragments<LETTER extends IAction> {
 
 	private final HashRelation<IcfgLocation, IPredicate> mProgPoint2StatesWithEmptyContext = new HashRelation<>();
 
+	/**
+	 * If not null, the states of dead contexts are not kept on the heap but written to this file. Dead contexts are
+	 * only needed again when the Hoare annotation is composed after the last iteration. Only the relation is written;
+	 * the program points and predicates are shared with other fragments and stay on the heap, the file refers to them
+	 * by their index in {@link #mSpilledLocations} and {@link #mSpilledPredicates}.
+	 */
+	private final IntArraySpillFile mSpillFile;
+	private final IToolchainStorage mStorage;
+	private final String mSpillFileKey;
+	private boolean mSpillFileClosed;
+	private final Map<IPredicate, Long> mSpilledDeadContexts = new HashMap<>();
+	private final List<IcfgLocation> mSpilledLocations = new ArrayList<>();
+	private final Map<IcfgLocation, Integer> mSpilledLocation2Index = new HashMap<>();
+	private final List<IPredicate> mSpilledPredicates = new ArrayList<>();
+	private final Map<IPredicate, Integer> mSpilledPredicate2Index = new HashMap<>();
+
 	private final Set<? extends IcfgLocation> mHoareAnnotationPositions;
 
 	private final HoareAnnotationPositions mHoareAnnotationPos;
 
 	Map<IPredicate, HashRelation<IcfgLocation, IPredicate>> getDeadContexts2ProgPoint2Preds() {
-		return mDeadContexts2ProgPoint2Preds;
+		if (mSpillFile == null) {
+			return mDeadContexts2ProgPoint2Preds;
+		}
+		return new SpilledDeadContexts();
 	}
 
 	Map<IPredicate, HashRelation<IcfgLocation, IPredicate>> getLiveContexts2ProgPoint2Preds() {
@@ -98,9 +122,55 @@ public class HoareAnnotationFragments<LETTER extends IAction> {
 
 	public HoareAnnotationFragments(final ILogger logger, final Set<? extends IcfgLocation> hoareAnnotationLocations,
 			final HoareAnnotationPositions hoareAnnotationPos) {
+		this(logger, hoareAnnotationLocations, hoareAnnotationPos, null);
+	}
+
+	/**
+	 * @param storage
+	 *            if not null, the states of dead contexts are written to a memory-mapped temporary file instead of
+	 *            being kept on the heap; the file is deleted by {@link #close()}, or when the storage is cleared at the
+	 *            end of the toolchain if the CEGAR loop does not finish
+	 */
+	public HoareAnnotationFragments(final ILogger logger, final Set<? extends IcfgLocation> hoareAnnotationLocations,
+			final HoareAnnotationPositions hoareAnnotationPos, final IToolchainStorage storage) {
 		mLogger = logger;
 		mHoareAnnotationPositions = hoareAnnotationLocations;
 		mHoareAnnotationPos = hoareAnnotationPos;
+		IntArraySpillFile spillFile = null;
+		if (storage != null) {
+			try {
+				spillFile = new IntArraySpillFile("hoareAnnotationFragments");
+			} catch (final IOException e) {
+				mLogger.warn("Unable to create spill file, keeping all Hoare annotation fragments on the heap: " + e);
+			}
+		}
+		mSpillFile = spillFile;
+		if (mSpillFile == null) {
+			mStorage = null;
+			mSpillFileKey = null;
+		} else {
+			mStorage = storage;
+			mSpillFileKey = getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(this));
+			mStorage.putStorable(mSpillFileKey, this::close);
+		}
+	}
+
+	/**
+	 * Release the spill file of the dead contexts (if any). The dead contexts are not available afterwards.
+	 */
+	public void close() {
+		if (mSpillFile == null || mSpillFileClosed) {
+			return;
+		}
+		mSpillFileClosed = true;
+		mStorage.removeStorable(mSpillFileKey);
+		mLogger.info("Spilled " + mSpillFile.getNumberOfRecords() + " dead contexts of Hoare annotation fragments ("
+				+ mSpillFile.getBytesWritten() + " bytes)");
+		try {
+			mSpillFile.close();
+		} catch (final IOException e) {
+			mLogger.warn("Unable to close spill file: " + e);
+		}
 	}
 
 	/**
@@ -140,8 +210,7 @@ public class HoareAnnotationFragments<LETTER extends IAction> {
 			final IPredicate oldContext = contextHrPair.getKey();
 			final List<IPredicate> newContexts = update.getNewPredicates(oldContext);
 			if (newContexts == null) {
-				assert !mDeadContexts2ProgPoint2Preds.containsKey(oldContext);
-				mDeadContexts2ProgPoint2Preds.put(oldContext, contextHrPair.getValue());
+				addDeadContext(oldContext, contextHrPair.getValue());
 			} else {
 				final IPredicate oldEntry = mContext2Entry.get(oldContext);
 				mContext2Entry.remove(oldContext);
@@ -167,6 +236,112 @@ public class HoareAnnotationFragments<LETTER extends IAction> {
 		}
 	}
 
+	private void addDeadContext(final IPredicate context, final HashRelation<IcfgLocation, IPredicate> pp2preds) {
+		assert !mDeadContexts2ProgPoint2Preds.containsKey(context) && !mSpilledDeadContexts.containsKey(context);
+		if (mSpillFile == null) {
+			mDeadContexts2ProgPoint2Preds.put(context, pp2preds);
+		} else {
+			mSpilledDeadContexts.put(context, spill(pp2preds));
+		}
+	}
+
+	/**
+	 * Write a relation to the spill file. The record contains for each program point its index, the number of its
+	 * predicates, and the indices of the predicates.
+	 */
+	private long spill(final HashRelation<IcfgLocation, IPredicate> pp2preds) {
+		final int[] record = new int[2 * pp2preds.getDomain().size() + pp2preds.size()];
+		int i = 0;
+		for (final IcfgLocation pp : pp2preds.getDomain()) {
+			final Set<IPredicate> preds = pp2preds.getImage(pp);
+			record[i++] = getIndex(pp, mSpilledLocations, mSpilledLocation2Index);
+			record[i++] = preds.size();
+			for (final IPredicate pred : preds) {
+				record[i++] = getIndex(pred, mSpilledPredicates, mSpilledPredicate2Index);
+			}
+		}
+		return mSpillFile.write(record);
+	}
+
+	private HashRelation<IcfgLocation, IPredicate> load(final long handle) {
+		final int[] record = mSpillFile.read(handle);
+		final HashRelation<IcfgLocation, IPredicate> result = new HashRelation<>();
+		int i = 0;
+		while (i < record.length) {
+			final IcfgLocation pp = mSpilledLocations.get(record[i++]);
+			final int numberOfPreds = record[i++];
+			for (int j = 0; j < numberOfPreds; j++) {
+				result.addPair(pp, mSpilledPredicates.get(record[i++]));
+			}
+		}
+		return result;
+	}
+
+	private static <E> int getIndex(final E elem, final List<E> elems, final Map<E, Integer> elem2Index) {
+		final Integer index = elem2Index.get(elem);
+		if (index != null) {
+			return index;
+		}
+		elems.add(elem);
+		elem2Index.put(elem, elems.size() - 1);
+		return elems.size() - 1;
+	}
+
+	/**
+	 * Read-only view of the spilled dead contexts that reads the states of a context from the spill file only when
+	 * they are accessed.
+	 */
+	private final class SpilledDeadContexts extends AbstractMap<IPredicate, HashRelation<IcfgLocation, IPredicate>> {
+
+		@Override
+		public boolean containsKey(final Object key) {
+			return mSpilledDeadContexts.containsKey(key);
+		}
+
+		@Override
+		public HashRelation<IcfgLocation, IPredicate> get(final Object key) {
+			final Long handle = mSpilledDeadContexts.get(key);
+			return handle == null ? null : load(handle);
+		}
+
+		@Override
+		public Set<IPredicate> keySet() {
+			return Collections.unmodifiableSet(mSpilledDeadContexts.keySet());
+		}
+
+		@Override
+		public int size() {
+			return mSpilledDeadContexts.size();
+		}
+
+		@Override
+		public Set<Entry<IPredicate, HashRelation<IcfgLocation, IPredicate>>> entrySet() {
+			return new AbstractSet<>() {
+				@Override
+				public Iterator<Entry<IPredicate, HashRelation<IcfgLocation, IPredicate>>> iterator() {
+					final Iterator<Entry<IPredicate, Long>> it = mSpilledDeadContexts.entrySet().iterator();
+					return new Iterator<>() {
+						@Override
+						public boolean hasNext() {
+							return it.hasNext();
+						}
+
+						@Override
+						public Entry<IPredicate, HashRelation<IcfgLocation, IPredicate>> next() {
+							final Entry<IPredicate, Long> entry = it.next();
+							return new SimpleImmutableEntry<>(entry.getKey(), load(entry.getValue()));
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return mSpilledDeadContexts.size();
+				}
+			};
+		}
+	}
+
 	/**
 	 * Get the unique call successor of a state newContext. Return null if there is no call successor. Throw exception
 	 * if call successor is not unique.
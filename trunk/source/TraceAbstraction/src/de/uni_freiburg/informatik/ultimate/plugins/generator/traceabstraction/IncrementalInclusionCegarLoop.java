@@ -318,7 +318,7 @@ public class IncrementalInclusionCegarLoop<L extends IIcfgTransition<?>> extends
 		for (final IHoareTripleChecker htc : mHoareTripleChecker) {
 			mCegarLoopBenchmark.addEdgeCheckerData(htc.getStatistics());
 		}
-
+		mHaf.close();
 	}
 
 }
@@ -44,6 +44,7 @@ import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimi
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.IMinimizationStateFactory;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.MinimizeDfaHopcroftArrays;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.MinimizeDfaHopcroftLists;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.MinimizeNwaBisimulationIncremental;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.MinimizeNwaCombinator;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.MinimizeNwaCombinator.MinimizationMethods;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.MinimizeNwaMaxSat2;
@@ -55,6 +56,7 @@ import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimi
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.MinimizeSevpa;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.ShrinkNwa;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.maxsat.arrays.MinimizeNwaMaxSAT;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.parallel.MinimizeNwaBisimulationParallel;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.delayed.BuchiReduce;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.delayed.nwa.ReduceNwaDelayedSimulation;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.direct.nwa.ReduceNwaDirectSimulation;
@@ -106,7 +108,31 @@ public class AutomataMinimization<LCS, LCSP extends IPredicate, LETTER> {
 			final Collection<INwaOutgoingLetterAndTransitionProvider<LETTER, IPredicate>> storedRawInterpolantAutomata,
 			final INestedWordAutomaton<LETTER, IPredicate> interpolAutomaton, final int minimizationTimeout,
 			final PredicateFactoryResultChecking resultCheckPredFac, final Function<LCSP, LCS> lcsProvider,
-			final boolean initialPartitionSeparatesFinalsAndNonfinals) throws AutomataMinimizationTimeout {
+			final boolean initialPartitionSeparatesFinalsAndNonfinals, final int minimizationThreads)
+			throws AutomataMinimizationTimeout {
+		this(services, operand, minimization, computeOldState2NewStateMapping, iteration, predicateFactoryRefinement,
+				minimizeEveryKthIteration, storedRawInterpolantAutomata, interpolAutomaton, minimizationTimeout,
+				resultCheckPredFac, lcsProvider, initialPartitionSeparatesFinalsAndNonfinals, null, minimizationThreads);
+	}
+
+	/**
+	 * @param previousPartition
+	 *            partition of the states of the operand that stem from the same state of the previous abstraction;
+	 *            only used by {@link Minimization#NWA_BISIMULATION_INCREMENTAL} ({@code null} if not available)
+	 * @param minimizationThreads
+	 *            number of threads; only used by {@link Minimization#NWA_BISIMULATION_PARALLEL}
+	 */
+	public <SF extends IMinimizationStateFactory<IPredicate> & INwaInclusionStateFactory<IPredicate>>
+		AutomataMinimization(
+			final IUltimateServiceProvider services, final INestedWordAutomaton<LETTER, IPredicate> operand,
+			final Minimization minimization, final boolean computeOldState2NewStateMapping, final int iteration,
+			final SF predicateFactoryRefinement, final int minimizeEveryKthIteration,
+			final Collection<INwaOutgoingLetterAndTransitionProvider<LETTER, IPredicate>> storedRawInterpolantAutomata,
+			final INestedWordAutomaton<LETTER, IPredicate> interpolAutomaton, final int minimizationTimeout,
+			final PredicateFactoryResultChecking resultCheckPredFac, final Function<LCSP, LCS> lcsProvider,
+			final boolean initialPartitionSeparatesFinalsAndNonfinals,
+			final PartitionBackedSetOfPairs<IPredicate> previousPartition, final int minimizationThreads)
+			throws AutomataMinimizationTimeout {
 
 		mServices = services;
 		mLogger = services.getLoggingService().getLogger(Activator.PLUGIN_ID);
@@ -121,8 +147,8 @@ public class AutomataMinimization<LCS, LCSP extends IPredicate, LETTER> {
 		try {
 			mMinimizationResult = doMinimizationOperation(operand, minimization, computeOldState2NewStateMapping,
 					iteration, predicateFactoryRefinement, minimizeEveryKthIteration, storedRawInterpolantAutomata,
-					interpolAutomaton, minimizationTimeout, partition, autServices,
-					initialPartitionSeparatesFinalsAndNonfinals);
+					interpolAutomaton, minimizationTimeout, partition, previousPartition, autServices,
+					initialPartitionSeparatesFinalsAndNonfinals, minimizationThreads);
 			// postprocessing after minimization
 			final IDoubleDeckerAutomaton<LETTER, IPredicate> newAbstraction;
 			if (mMinimizationResult.wasNewAutomatonBuilt()) {
@@ -188,8 +214,9 @@ public class AutomataMinimization<LCS, LCSP extends IPredicate, LETTER> {
 			final SF predicateFactoryRefinement, final int minimizeEveryKthIteration,
 			final Collection<INwaOutgoingLetterAndTransitionProvider<LETTER, IPredicate>> storedRawInterpolantAutomata,
 			final INestedWordAutomaton<LETTER, IPredicate> interpolAutomaton, final int minimizationTimeout,
-			final PartitionBackedSetOfPairs<IPredicate> partition, final AutomataLibraryServices autServices,
-			final boolean initialPartitionSeparatesFinalsAndNonfinals)
+			final PartitionBackedSetOfPairs<IPredicate> partition,
+			final PartitionBackedSetOfPairs<IPredicate> previousPartition, final AutomataLibraryServices autServices,
+			final boolean initialPartitionSeparatesFinalsAndNonfinals, final int minimizationThreads)
 			throws AutomataOperationCanceledException, AssertionError {
 
 		final MinimizationResult minimizationResult;
@@ -207,6 +234,18 @@ public class AutomataMinimization<LCS, LCSP extends IPredicate, LETTER> {
 							0, false, false, true, initialPartitionSeparatesFinalsAndNonfinals));
 			break;
 		}
+		case NWA_BISIMULATION_PARALLEL: {
+			minimizationResult = new MinimizationResult(true, true,
+					new MinimizeNwaBisimulationParallel<>(autServices, predicateFactoryRefinement, operand, partition,
+							computeOldState2NewStateMapping, minimizationThreads));
+			break;
+		}
+		case NWA_BISIMULATION_INCREMENTAL: {
+			minimizationResult = new MinimizationResult(true, true,
+					new MinimizeNwaBisimulationIncremental<>(autServices, predicateFactoryRefinement, operand,
+							partition, previousPartition, computeOldState2NewStateMapping));
+			break;
+		}
 		case NWA_COMBINATOR_PATTERN: {
 			final AbstractMinimizeNwa<LETTER, IPredicate> minNwa = new MinimizeNwaPattern<>(autServices,
 					predicateFactoryRefinement, (IDoubleDeckerAutomaton<LETTER, IPredicate>) operand, partition,
@@ -170,7 +170,7 @@ public class CegarLoopForPetriNet<L extends IIcfgTransition<?>>
 			PetriNetUnfolder<L, IPredicate> unf;
 			try {
 				unf = new PetriNetUnfolder<>(new AutomataLibraryServices(getServices()), mAbstraction, eventOrder,
-						cutOffSameTrans, true);
+						cutOffSameTrans, true, mPref.unfoldingThreads());
 			} catch (final PetriNetNot1SafeException e) {
 				throw new UnsupportedOperationException(e.getMessage());
 			} finally {
@@ -314,7 +314,7 @@ public class CegarLoopForPetriNet<L extends IIcfgTransition<?>>
 				final boolean cutOffSameTrans = mPref.cutOffRequiresSameTransition();
 				final EventOrderEnum eventOrder = mPref.eventOrder();
 				unf = new PetriNetUnfolder<>(new AutomataLibraryServices(getServices()), mAbstraction, eventOrder,
-						cutOffSameTrans, false);
+						cutOffSameTrans, false, mPref.unfoldingThreads());
 			} catch (final PetriNetNot1SafeException e) {
 				throw new UnsupportedOperationException(e.getMessage());
 			} catch (final AutomataOperationCanceledException aoce) {
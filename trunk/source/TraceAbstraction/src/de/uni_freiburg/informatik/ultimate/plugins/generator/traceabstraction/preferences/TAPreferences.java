@@ -76,6 +76,7 @@ public final class TAPreferences {
 	@Reflected(excluded = true)
 	private final IPreferenceProvider mPrefs;
 	private final HoareAnnotationPositions mHoareAnnotationPositions;
+	private final boolean mHoareSpillDeadContexts;
 	private final boolean mDumpOnlyReuseAutomata;
 	private final int mLimitTraceHistogram;
 	private final int mErrorLocTimeLimit;
@@ -127,6 +128,10 @@ public final class TAPreferences {
 		mHoareAnnotationPositions = mPrefs.getEnum(TraceAbstractionPreferenceInitializer.LABEL_HOARE_POSITIONS,
 				TraceAbstractionPreferenceInitializer.DEF_HOARE_POSITIONS, HoareAnnotationPositions.class);
 
+		mHoareSpillDeadContexts =
+				mPrefs.getBoolean(TraceAbstractionPreferenceInitializer.LABEL_HOARE_SPILL_DEAD_CONTEXTS,
+						TraceAbstractionPreferenceInitializer.DEF_HOARE_SPILL_DEAD_CONTEXTS);
+
 		mInterpolation = mPrefs.getEnum(TraceAbstractionPreferenceInitializer.LABEL_INTERPOLATED_LOCS,
 				InterpolationTechnique.class);
 
@@ -348,6 +353,10 @@ public final class TAPreferences {
 		return mHoareAnnotationPositions;
 	}
 
+	public boolean spillHoareAnnotationDeadContexts() {
+		return mHoareSpillDeadContexts;
+	}
+
 	public static boolean separateViolationCheck() {
 		return SEPARATE_VIOLATION_CHECK;
 	}
@@ -356,6 +365,14 @@ public final class TAPreferences {
 		return mPrefs.getBoolean(TraceAbstractionPreferenceInitializer.LABEL_CUTOFF);
 	}
 
+	public int unfoldingThreads() {
+		return mPrefs.getInt(TraceAbstractionPreferenceInitializer.LABEL_UNFOLDING_THREADS);
+	}
+
+	public int minimizationThreads() {
+		return mPrefs.getInt(TraceAbstractionPreferenceInitializer.LABEL_MINIMIZATION_THREADS);
+	}
+
 	public boolean unfoldingToNet() {
 		return mPrefs.getBoolean(TraceAbstractionPreferenceInitializer.LABEL_BACKFOLDING);
 	}
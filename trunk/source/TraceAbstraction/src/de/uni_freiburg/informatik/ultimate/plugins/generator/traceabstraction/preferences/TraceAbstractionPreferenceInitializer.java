@@ -153,7 +153,12 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 	public static final String LABEL_HOARE =
 			"Compute Hoare Annotation of negated interpolant automaton, abstraction and CFG";
 	public static final String LABEL_HOARE_POSITIONS = "Positions where we compute the Hoare Annotation";
+	public static final String LABEL_HOARE_SPILL_DEAD_CONTEXTS =
+			"Write Hoare Annotation fragments of dead contexts to a temporary file";
 	public static final String LABEL_SEPARATE_SOLVER = "Use separate solver for trace checks";
+	public static final String LABEL_SOLVER_POOL_SIZE = "Number of idle external solvers kept for trace checks";
+	public static final String LABEL_SOLVER_POOL_IDLE_TIMEOUT = "Idle timeout of pooled external solvers";
+	public static final String LABEL_SATISFIABILITY_CACHE = "Cache satisfiability results of trace checks";
 	public static final String LABEL_INTERPOLATED_LOCS = "Compute Interpolants along a Counterexample";
 	public static final String LABEL_NONLINEAR_CONSTRAINTS_IN_PATHINVARIANTS =
 			"Use nonlinear constraints in PathInvariants";
@@ -175,6 +180,8 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 	public static final String LABEL_CONCURRENCY = "Automaton type used in concurrency analysis";
 	public static final String LABEL_CONFIGURATION_ORDER = "Order on configurations for Petri net unfoldings";
 	public static final String LABEL_CUTOFF = "cut-off requires same transition";
+	public static final String LABEL_UNFOLDING_THREADS = "Number of threads for Petri net unfoldings";
+	public static final String LABEL_MINIMIZATION_THREADS = "Number of threads for parallel minimization";
 	public static final String LABEL_BACKFOLDING = "Use backfolding";
 	public static final String LABEL_ASSERT_CODEBLOCKS_INCREMENTALLY = "Assert CodeBlocks";
 	public static final String LABEL_UNSAT_CORES = "Use unsat cores";
@@ -234,7 +241,11 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 	public static final int DEF_WATCHITERATION = 1_000_000;
 	public static final boolean DEF_HOARE = false;
 	public static final HoareAnnotationPositions DEF_HOARE_POSITIONS = HoareAnnotationPositions.All;
+	public static final boolean DEF_HOARE_SPILL_DEAD_CONTEXTS = false;
 	public static final boolean DEF_SEPARATE_SOLVER = true;
+	public static final int DEF_SOLVER_POOL_SIZE = 4;
+	public static final int DEF_SOLVER_POOL_IDLE_TIMEOUT = 60;
+	public static final boolean DEF_SATISFIABILITY_CACHE = true;
 	public static final SolverMode DEF_SOLVER = SolverMode.Internal_SMTInterpol;
 	public static final String DEF_EXTERNAL_SOLVER_COMMAND = RcfgPreferenceInitializer.Z3_DEFAULT;
 	public static final InterpolationTechnique DEF_INTERPOLANTS = InterpolationTechnique.ForwardPredicates;
@@ -261,6 +272,8 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 	// public static final boolean DEF_ALL_ERRORS_AT_ONCE = false;
 
 	public static final boolean DEF_CUTOFF = false;
+	public static final int DEF_UNFOLDING_THREADS = 1;
+	public static final int DEF_MINIMIZATION_THREADS = 4;
 	public static final boolean DEF_BACKFOLDING = false;
 	public static final EventOrderEnum DEF_CONFIGURATION_ORDER = EventOrderEnum.ERV;
 	public static final boolean DEF_SIMPLIFY_CODE_BLOCKS = false;
@@ -296,6 +309,26 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 					+ "the set of reusable interpolant automata.";
 	private static final String DESC_FLOYD_HOARE_AUTOMATA_REUSE_ENHANCEMENT =
 			"Specifies how to compute successors on-demand for re-use interpolant automata.";
+	private static final String DESC_UNFOLDING_THREADS =
+			"Number of threads that search co-sets for the possible extensions of a Petri net unfolding. Events are "
+					+ "still added in the order on configurations, hence the unfolding does not depend on this number.";
+	private static final String DESC_MINIMIZATION_THREADS = "Number of threads that compute the signatures of the "
+			+ "states in the parallel bisimulation minimization. The result does not depend on this number.";
+	private static final String DESC_SOLVER_POOL_SIZE =
+			"External solvers of trace checks are kept after the trace check and reused by trace checks of later "
+					+ "iterations with the same solver settings instead of starting a new solver process. This is the "
+					+ "maximal number of idle solvers that are kept. 0 disables the reuse of external solvers.";
+	private static final String DESC_SOLVER_POOL_IDLE_TIMEOUT =
+			"Time in seconds after which an idle pooled external solver is exited. A pooled solver that is still in use "
+					+ "after this time is exited as well.";
+	private static final String DESC_SATISFIABILITY_CACHE =
+			"Answer satisfiability checks of trace checks from a cache shared by all solvers of the toolchain if the "
+					+ "same formulas were already checked up to renaming. The solver still checks the formulas before "
+					+ "a model, unsat core, or interpolants are computed.";
+	private static final String DESC_HOARE_SPILL_DEAD_CONTEXTS =
+			"Fragments of the Hoare Annotation whose context was removed from the abstraction are only needed after "
+					+ "the last iteration. If enabled, they are written to a memory-mapped temporary file in a compact "
+					+ "binary encoding and read again on demand instead of being kept on the heap.";
 
 	private static final String DESC_STOP_AFTER_FIRST_VIOLATION =
 			"Stop the analysis after the first violation was found.";
@@ -453,11 +486,20 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 				new UltimatePreferenceItem<>(LABEL_HOARE, DEF_HOARE, PreferenceType.Boolean),
 				new UltimatePreferenceItem<>(LABEL_HOARE_POSITIONS, DEF_HOARE_POSITIONS, PreferenceType.Combo,
 						HoareAnnotationPositions.values()),
+				new UltimatePreferenceItem<>(LABEL_HOARE_SPILL_DEAD_CONTEXTS, DEF_HOARE_SPILL_DEAD_CONTEXTS,
+						DESC_HOARE_SPILL_DEAD_CONTEXTS, PreferenceType.Boolean),
 
 				new UltimatePreferenceItem<>(LABEL_USE_PREDICATE_TRIE_BASED_PREDICATE_UNIFIER,
 						DEF_USE_PREDICATE_TRIE_BASED_PREDICATE_UNIFIER, DESC_USE_PREDICATE_TRIE_BASED_PREDICATE_UNIFIER,
 						PreferenceType.Boolean),
 				new UltimatePreferenceItem<>(LABEL_SEPARATE_SOLVER, DEF_SEPARATE_SOLVER, PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_SOLVER_POOL_SIZE, DEF_SOLVER_POOL_SIZE, DESC_SOLVER_POOL_SIZE,
+						PreferenceType.Integer, new IUltimatePreferenceItemValidator.IntegerValidator(0, 1_000)),
+				new UltimatePreferenceItem<>(LABEL_SOLVER_POOL_IDLE_TIMEOUT, DEF_SOLVER_POOL_IDLE_TIMEOUT,
+						DESC_SOLVER_POOL_IDLE_TIMEOUT, PreferenceType.Integer,
+						IUltimatePreferenceItemValidator.ONLY_POSITIVE),
+				new UltimatePreferenceItem<>(LABEL_SATISFIABILITY_CACHE, DEF_SATISFIABILITY_CACHE,
+						DESC_SATISFIABILITY_CACHE, PreferenceType.Boolean),
 				new UltimatePreferenceItem<>(RcfgPreferenceInitializer.LABEL_SOLVER, DEF_SOLVER, PreferenceType.Combo,
 						SolverMode.values()),
 				new UltimatePreferenceItem<>(RcfgPreferenceInitializer.LABEL_FAKE_NON_INCREMENTAL_SCRIPT,
@@ -526,11 +568,16 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 				new UltimatePreferenceItem<>(LABEL_DIFFERENCE_SENWA, DEF_DIFFERENCE_SENWA, PreferenceType.Boolean),
 				new UltimatePreferenceItem<>(LABEL_MINIMIZE, Minimization.MINIMIZE_SEVPA, PreferenceType.Combo,
 						Minimization.values()),
+				new UltimatePreferenceItem<>(LABEL_MINIMIZATION_THREADS, DEF_MINIMIZATION_THREADS,
+						DESC_MINIMIZATION_THREADS, PreferenceType.Integer,
+						new IUltimatePreferenceItemValidator.IntegerValidator(1, 1_000)),
 				new UltimatePreferenceItem<>(LABEL_CONCURRENCY, DEF_CONCURRENCY, PreferenceType.Combo,
 						Concurrency.values()),
 				new UltimatePreferenceItem<>(LABEL_CONFIGURATION_ORDER, DEF_CONFIGURATION_ORDER, PreferenceType.Combo,
 						EventOrderEnum.values()),
 				new UltimatePreferenceItem<>(LABEL_CUTOFF, DEF_CUTOFF, PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_UNFOLDING_THREADS, DEF_UNFOLDING_THREADS, DESC_UNFOLDING_THREADS,
+						PreferenceType.Integer, new IUltimatePreferenceItemValidator.IntegerValidator(1, 1_000)),
 				new UltimatePreferenceItem<>(LABEL_BACKFOLDING, DEF_BACKFOLDING, PreferenceType.Boolean),
 				/* Petri LBE settings */
 				new UltimatePreferenceItem<>(LABEL_PETRI_LBE_ONESHOT, DEF_PETRI_LBE_ONESHOT, PreferenceType.Boolean),
@@ -634,6 +681,7 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 		NWA_OVERAPPROXIMATION, NWA_COMBINATOR_MULTI_DEFAULT, NWA_COMBINATOR_MULTI_SIMULATION, DELAYED_SIMULATION,
 		FAIR_SIMULATION_WITH_SCC, FAIR_SIMULATION_WITHOUT_SCC, FAIR_DIRECT_SIMULATION, RAQ_DELAYED_SIMULATION,
 		RAQ_DELAYED_SIMULATION_B, FULLMULTIPEBBLE_DELAYED_SIMULATION, FULLMULTIPEBBLE_DIRECT_SIMULATION,
+		NWA_BISIMULATION_PARALLEL, NWA_BISIMULATION_INCREMENTAL,
 	}
 
 	/**
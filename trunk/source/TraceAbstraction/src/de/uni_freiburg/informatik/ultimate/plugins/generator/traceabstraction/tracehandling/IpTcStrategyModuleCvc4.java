@@ -76,9 +76,8 @@ public class IpTcStrategyModuleCvc4<LETTER extends IIcfgTransition<?>> extends I
 	protected ManagedScript constructManagedScript() {
 		final long timeout = computeTimeout(mTimeoutInMillis);
 		final SolverSettings solverSettings = mPrefs.constructSolverSettings(mTaskIdentifier)
-				.setUseExternalSolver(ExternalSolver.CVC4, timeout)
-				.setSolverMode(SolverMode.External_ModelsAndUnsatCoreMode);
-		return createExternalManagedScript(solverSettings);
+				.setUseExternalSolver(ExternalSolver.CVC4).setSolverMode(SolverMode.External_ModelsAndUnsatCoreMode);
+		return createExternalManagedScript(solverSettings, ExternalSolver.CVC4, timeout);
 	}
 
 	@Override
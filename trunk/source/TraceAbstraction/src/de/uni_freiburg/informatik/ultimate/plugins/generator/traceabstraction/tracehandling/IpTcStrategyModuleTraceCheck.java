@@ -38,8 +38,10 @@ import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.taskidentifier.
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.tracehandling.RefinementEngineStatisticsGenerator;
 import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.tracehandling.RefinementEngineStatisticsGenerator.RefinementEngineStatisticsDefinitions;
 import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.ManagedScript;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.solverbuilder.SolverBuilder.ExternalSolver;
 import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.solverbuilder.SolverBuilder.SolverSettings;
 import de.uni_freiburg.informatik.ultimate.lib.tracecheckerutils.singletracecheck.TraceCheck;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling.SolverPool.SolverPoolStatistics;
 
 /**
  * Base class for all {@link IpTcStrategyModuleBase} implementations that create an {@link IInterpolatingTraceCheck}
@@ -60,6 +62,7 @@ public abstract class IpTcStrategyModuleTraceCheck<T extends IInterpolatingTrace
 	protected final IPredicate mPrecondition;
 	protected final IPredicate mPostcondition;
 	protected final PredicateFactory mPredicateFactory;
+	private SolverPoolStatistics mSolverPoolStatistics;
 
 	public IpTcStrategyModuleTraceCheck(final TaskIdentifier taskIdentifier, final IUltimateServiceProvider services,
 			final TaCheckAndRefinementPreferences<LETTER> prefs, final IRun<LETTER, ?> counterExample,
@@ -80,11 +83,33 @@ public abstract class IpTcStrategyModuleTraceCheck<T extends IInterpolatingTrace
 	@Override
 	public void aggregateStatistics(final RefinementEngineStatisticsGenerator stats) {
 		stats.addStatistics(RefinementEngineStatisticsDefinitions.TRACE_CHECK, getOrConstruct().getStatistics());
+		stats.addStatistics(RefinementEngineStatisticsDefinitions.SOLVER_POOL, mSolverPoolStatistics);
 	}
 
+	/**
+	 * Create a {@link ManagedScript} for the given settings where all symbols of the program are declared. External
+	 * solvers are taken from the {@link SolverPool} if possible.
+	 */
 	protected ManagedScript createExternalManagedScript(final SolverSettings solverSettings) {
-		return mPrefs.getIcfgContainer().getCfgSmtToolkit().createFreshManagedScript(mServices, solverSettings,
-				getSolverName());
+		return createExternalManagedScript(solverSettings, null, -1);
+	}
+
+	/**
+	 * Create a {@link ManagedScript} like {@link #createExternalManagedScript(SolverSettings)} and set the timeout of
+	 * the solver.
+	 *
+	 * @param solverSettings
+	 *            The settings, the solver command must not contain a timeout.
+	 * @param solver
+	 *            The external solver that the settings use.
+	 * @param timeout
+	 *            The timeout of each check in milliseconds or -1 if there is no timeout.
+	 */
+	protected ManagedScript createExternalManagedScript(final SolverSettings solverSettings,
+			final ExternalSolver solver, final long timeout) {
+		mSolverPoolStatistics = new SolverPoolStatistics();
+		return mPrefs.getSolverPool().getManagedScript(mPrefs.getIcfgContainer().getCfgSmtToolkit(), solverSettings,
+				solver, timeout, getSolverName(), mSolverPoolStatistics);
 	}
 
 	/**
@@ -75,10 +75,9 @@ public class IpTcStrategyModuleZ3<LETTER extends IIcfgTransition<?>> extends IpT
 	@Override
 	protected ManagedScript constructManagedScript() {
 		final long timeout = computeTimeout(mTimeoutInMillis);
-		final SolverSettings solverSettings =
-				mPrefs.constructSolverSettings(mTaskIdentifier).setUseExternalSolver(ExternalSolver.Z3, timeout)
-						.setSolverMode(SolverMode.External_ModelsAndUnsatCoreMode);
-		return createExternalManagedScript(solverSettings);
+		final SolverSettings solverSettings = mPrefs.constructSolverSettings(mTaskIdentifier)
+				.setUseExternalSolver(ExternalSolver.Z3).setSolverMode(SolverMode.External_ModelsAndUnsatCoreMode);
+		return createExternalManagedScript(solverSettings, ExternalSolver.Z3, timeout);
 	}
 
 	@Override
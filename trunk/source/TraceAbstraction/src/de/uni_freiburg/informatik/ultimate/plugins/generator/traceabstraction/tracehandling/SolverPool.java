@@ -0,0 +1,302 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE TraceAbstraction plug-in.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE TraceAbstraction plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE TraceAbstraction plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE TraceAbstraction plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IStorable;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IToolchainStorage;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.CfgSmtToolkit;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.ManagedScript;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.solverbuilder.SolverBuilder.ExternalSolver;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.solverbuilder.SolverBuilder.SolverSettings;
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
+import de.uni_freiburg.informatik.ultimate.util.statistics.AbstractStatisticsDataProvider;
+import de.uni_freiburg.informatik.ultimate.util.statistics.KeyType;
+
+/**
+ * Keeps the external SMT solvers of trace checks alive and hands them out again to trace checks of later refinement
+ * iterations instead of starting a new solver process and declaring all symbols of the program again.
+ *
+ * A solver is handed out again if it was created for the same {@link CfgSmtToolkit} with equivalent
+ * {@link SolverSettings}, if its {@link ManagedScript} is not locked, and if it was last handed out for another solver
+ * id, i.e., to a trace check of another iteration. Trace checks assert their formulas inside a push/pop scope and
+ * unlock the solver when they are done, hence an unlocked solver again only contains the symbols and axioms of the
+ * program. Solvers that are never unlocked, e.g., because they crashed, are never handed out again.
+ *
+ * The timeout of a check is not part of the solver settings, it is set by an option every time a solver is handed out.
+ * Hence solvers can be reused although the timeout usually depends on the remaining time.
+ *
+ * At most a fixed number of idle solvers is kept, and solvers that were idle or locked for longer than a timeout are
+ * exited. Internal solvers and solvers whose script is dumped are not pooled.
+ */
+public final class SolverPool implements IStorable {
+
+	private static int sCounter;
+
+	private final IUltimateServiceProvider mServices;
+	private final ILogger mLogger;
+	private final IScriptConstructor mScriptConstructor;
+	private final LongSupplier mClock;
+	private final int mMaxIdleSolvers;
+	private final long mIdleTimeoutInNanos;
+	private final List<PooledSolver> mSolvers = new LinkedList<>();
+	private final String mKey;
+	private IToolchainStorage mStorage;
+
+	/**
+	 * @param maxIdleSolvers
+	 *            The maximal number of idle solvers that are kept. 0 disables the pool.
+	 * @param idleTimeoutInSeconds
+	 *            The time after which an idle solver is exited.
+	 */
+	public SolverPool(final IUltimateServiceProvider services, final ILogger logger, final int maxIdleSolvers,
+			final long idleTimeoutInSeconds) {
+		this(services, logger, maxIdleSolvers, idleTimeoutInSeconds,
+				(toolkit, settings, solverId) -> toolkit.createFreshManagedScript(services, settings, solverId),
+				System::nanoTime);
+	}
+
+	/**
+	 * @param scriptConstructor
+	 *            Creates the solvers.
+	 * @param clock
+	 *            The current time in nanoseconds.
+	 */
+	SolverPool(final IUltimateServiceProvider services, final ILogger logger, final int maxIdleSolvers,
+			final long idleTimeoutInSeconds, final IScriptConstructor scriptConstructor, final LongSupplier clock) {
+		mServices = services;
+		mLogger = logger;
+		mScriptConstructor = scriptConstructor;
+		mClock = clock;
+		mMaxIdleSolvers = maxIdleSolvers;
+		mIdleTimeoutInNanos = TimeUnit.SECONDS.toNanos(idleTimeoutInSeconds);
+		mKey = getClass().getSimpleName() + sCounter++;
+	}
+
+	/**
+	 * Get a {@link ManagedScript} for a trace check, either a pooled one or a new one that is created by
+	 * {@link CfgSmtToolkit#createFreshManagedScript(IUltimateServiceProvider, SolverSettings, String)}.
+	 *
+	 * @param solverSettings
+	 *            The settings of the solver. The solver command must not contain a timeout.
+	 * @param solver
+	 *            The external solver that the command of the settings starts, it determines how the timeout is set.
+	 * @param timeout
+	 *            The timeout of each check in milliseconds or -1 if there is no timeout.
+	 * @param statistics
+	 *            Statistics that record whether the solver was taken from the pool.
+	 */
+	public ManagedScript getManagedScript(final CfgSmtToolkit toolkit, final SolverSettings solverSettings,
+			final ExternalSolver solver, final long timeout, final String solverId,
+			final SolverPoolStatistics statistics) {
+		if (mMaxIdleSolvers == 0 || !isPoolable(solverSettings)) {
+			final ManagedScript script = mScriptConstructor.create(toolkit, solverSettings, solverId);
+			setTimeout(script, solver, timeout);
+			return script;
+		}
+		final List<Object> settingsKey = computeSettingsKey(solverSettings, timeout);
+		final long now = mClock.getAsLong();
+		removeStaleSolvers(now, statistics);
+
+		final PooledSolver pooled = findIdleSolver(toolkit, settingsKey, solverId);
+		if (pooled != null) {
+			pooled.handOut(solverId, now);
+			// keep the id of the solver up to date in its logs
+			pooled.mScript.getScript().setInfo(":ultimate-id", solverId);
+			setTimeout(pooled.mScript, solver, timeout);
+			statistics.mHits++;
+			mLogger.debug("Reusing pooled solver for %s", solverId);
+			return pooled.mScript;
+		}
+
+		final ManagedScript script = mScriptConstructor.create(toolkit, solverSettings, solverId);
+		setTimeout(script, solver, timeout);
+		final PooledSolver pooledSolver = new PooledSolver(toolkit, settingsKey, script);
+		// adds the solver to the pool
+		pooledSolver.handOut(solverId, now);
+		statistics.mMisses++;
+		if (mStorage == null) {
+			mStorage = mServices.getStorage();
+			mStorage.putStorable(mKey, this);
+		}
+		return script;
+	}
+
+	private PooledSolver findIdleSolver(final CfgSmtToolkit toolkit, final List<Object> settingsKey,
+			final String solverId) {
+		for (final PooledSolver solver : mSolvers) {
+			if (solver.mToolkit == toolkit && solver.mSettingsKey.equals(settingsKey) && !solver.mScript.isLocked()
+					&& !solver.mSolverId.equals(solverId)) {
+				return solver;
+			}
+		}
+		return null;
+	}
+
+	private static void setTimeout(final ManagedScript script, final ExternalSolver solver, final long timeout) {
+		if (timeout == -1) {
+			return;
+		}
+		if (solver.getTimeoutOption() == null) {
+			throw new UnsupportedOperationException("Cannot set a timeout for " + solver);
+		}
+		script.getScript().setOption(solver.getTimeoutOption(), timeout);
+	}
+
+	/**
+	 * Exit solvers that were idle for too long and all but the most recently used idle solvers. Solvers that are still
+	 * locked after the timeout were not released by their trace check, e.g., because it crashed, they are exited as
+	 * well.
+	 */
+	private void removeStaleSolvers(final long now, final SolverPoolStatistics statistics) {
+		int idleSolvers = 0;
+		for (final PooledSolver solver : mSolvers) {
+			if (!solver.mScript.isLocked()) {
+				idleSolvers++;
+			}
+		}
+		final Iterator<PooledSolver> iter = mSolvers.iterator();
+		while (iter.hasNext()) {
+			final PooledSolver solver = iter.next();
+			if (solver.mScript.isLocked()) {
+				if (now - solver.mLastUse > mIdleTimeoutInNanos) {
+					iter.remove();
+					exit(solver);
+					statistics.mExited++;
+				} else {
+					solver.mLastSeenLocked = now;
+				}
+				continue;
+			}
+			// the solver was unlocked at some point after it was last seen locked
+			final long idleSince = Math.max(solver.mLastUse, solver.mLastSeenLocked);
+			// solvers are ordered by their last use, hence the first idle solvers are the least recently used
+			if (idleSolvers > mMaxIdleSolvers || now - idleSince > mIdleTimeoutInNanos) {
+				iter.remove();
+				idleSolvers--;
+				exit(solver);
+				statistics.mExited++;
+			}
+		}
+	}
+
+	private void exit(final PooledSolver solver) {
+		try {
+			solver.mScript.getScript().exit();
+		} catch (final SMTLIBException e) {
+			// the solver may have crashed already
+			mLogger.warn("Exiting pooled solver %s failed: %s", solver.mSolverId, e.getMessage());
+		}
+	}
+
+	private static boolean isPoolable(final SolverSettings settings) {
+		return settings.useExternalSolver() && !settings.dumpSmtScriptToFile()
+				&& !settings.dumpFeatureExtractionVector() && !settings.dumpUnsatCoreTrackBenchmark()
+				&& !settings.dumpMainTrackBenchmark();
+	}
+
+	/**
+	 * The key does not contain the timeout, since it is set whenever a solver is handed out. It only records whether
+	 * there is a timeout at all, because a timeout cannot be unset.
+	 */
+	private static List<Object> computeSettingsKey(final SolverSettings settings, final long timeout) {
+		return Arrays.asList(settings.getCommandExternalSolver(), settings.getSolverMode(),
+				settings.getSolverLogics(), settings.fakeNonIncrementalScript(), settings.getExternalInterpolator(),
+				settings.useDiffWrapper(), settings.getAdditionalOptions(), settings.getSolverLogger(), timeout == -1);
+	}
+
+	@Override
+	public void destroy() {
+		for (final PooledSolver solver : mSolvers) {
+			exit(solver);
+		}
+		mSolvers.clear();
+		if (mStorage != null) {
+			mStorage.removeStorable(mKey);
+			mStorage = null;
+		}
+	}
+
+	/**
+	 * Creates a solver where all symbols of a {@link CfgSmtToolkit} are declared.
+	 */
+	@FunctionalInterface
+	interface IScriptConstructor {
+		ManagedScript create(CfgSmtToolkit toolkit, SolverSettings settings, String solverId);
+	}
+
+	private final class PooledSolver {
+		private final CfgSmtToolkit mToolkit;
+		private final List<Object> mSettingsKey;
+		private final ManagedScript mScript;
+		private String mSolverId;
+		private long mLastUse;
+		private long mLastSeenLocked;
+
+		private PooledSolver(final CfgSmtToolkit toolkit, final List<Object> settingsKey, final ManagedScript script) {
+			mToolkit = toolkit;
+			mSettingsKey = settingsKey;
+			mScript = script;
+		}
+
+		private void handOut(final String solverId, final long now) {
+			mSolverId = solverId;
+			mLastUse = now;
+			// move to the end of the list, i.e., keep the list ordered by last use
+			mSolvers.remove(this);
+			mSolvers.add(this);
+		}
+	}
+
+	/**
+	 * Statistics of the solvers that one trace check requested from a {@link SolverPool}. The hit rate of the pool is
+	 * the number of hits divided by the number of hits and misses.
+	 */
+	public static final class SolverPoolStatistics extends AbstractStatisticsDataProvider {
+
+		public static final String HITS = "PooledSolverHits";
+		public static final String MISSES = "PooledSolverMisses";
+		public static final String EXITED = "PooledSolversExited";
+
+		private int mHits;
+		private int mMisses;
+		private int mExited;
+
+		public SolverPoolStatistics() {
+			declare(HITS, () -> mHits, KeyType.COUNTER);
+			declare(MISSES, () -> mMisses, KeyType.COUNTER);
+			declare(EXITED, () -> mExited, KeyType.COUNTER);
+		}
+	}
+}
@@ -95,7 +95,9 @@ public class TaCheckAndRefinementPreferences<LETTER extends IIcfgTransition<?>>
 	private final boolean mCompressDumpedScript;
 	private final Map<String, String> mAdditionalSolverOptions;
 	private final boolean mUseMinimalUnsatCoreEnumerationForSmtInterpol;
+	private final boolean mUseSatisfiabilityCache;
 	private final RefinementStrategy mAcceleratedInterpolationRefinementStrategy;
+	private final SolverPool mSolverPool;
 
 	/**
 	 * Constructor from existing trace abstraction and Ultimate preferences.
@@ -170,6 +172,11 @@ public class TaCheckAndRefinementPreferences<LETTER extends IIcfgTransition<?>>
 				TraceAbstractionPreferenceInitializer.LABEL_USE_MINIMAL_UNSAT_CORE_ENUMERATION_FOR_SMTINTERPOL);
 		mAdditionalSolverOptions =
 				ultimatePrefs.getKeyValueMap(TraceAbstractionPreferenceInitializer.LABEL_ADDITIONAL_SMT_OPTIONS);
+		mUseSatisfiabilityCache =
+				ultimatePrefs.getBoolean(TraceAbstractionPreferenceInitializer.LABEL_SATISFIABILITY_CACHE);
+		mSolverPool = new SolverPool(services, services.getLoggingService().getLogger(Activator.PLUGIN_ID),
+				ultimatePrefs.getInt(TraceAbstractionPreferenceInitializer.LABEL_SOLVER_POOL_SIZE),
+				ultimatePrefs.getInt(TraceAbstractionPreferenceInitializer.LABEL_SOLVER_POOL_IDLE_TIMEOUT));
 	}
 
 	private String getFeatureVectorsDumpPath() {
@@ -324,7 +331,8 @@ public class TaCheckAndRefinementPreferences<LETTER extends IIcfgTransition<?>>
 				.setUseExternalSolver(getUseSeparateSolverForTracechecks(), getCommandExternalSolver(),
 						getLogicForExternalSolver())
 				.setSolverMode(getSolverMode()).setAdditionalOptions(getAdditionalSolverOptions())
-				.setUseMinimalUnsatCoreEnumerationForSmtInterpol(getUseMinimalUnsatCoreEnumerationForSmtInterpol());
+				.setUseMinimalUnsatCoreEnumerationForSmtInterpol(getUseMinimalUnsatCoreEnumerationForSmtInterpol())
+				.setUseSatisfiabilityCache(mUseSatisfiabilityCache);
 	}
 
 	private boolean getUseMinimalUnsatCoreEnumerationForSmtInterpol() {
@@ -335,6 +343,13 @@ public class TaCheckAndRefinementPreferences<LETTER extends IIcfgTransition<?>>
 		return mAdditionalSolverOptions;
 	}
 
+	/**
+	 * @return The pool of external solvers that trace checks of all iterations share.
+	 */
+	public SolverPool getSolverPool() {
+		return mSolverPool;
+	}
+
 	public static class TaAssertCodeBlockOrder extends AssertCodeBlockOrder {
 
 		public TaAssertCodeBlockOrder(final AssertCodeBlockOrderType assertCodeBlockOrderType,
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE TraceAbstraction plug-in.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE TraceAbstraction plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE TraceAbstraction plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE TraceAbstraction plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IToolchainStorage;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IcfgEdge;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.IcfgLocation;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.cfg.structure.debugidentifiers.StringDebugIdentifier;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.IPredicate;
+import de.uni_freiburg.informatik.ultimate.lib.modelcheckerutils.smt.predicates.UnknownState;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.preferences.TraceAbstractionPreferenceInitializer.HoareAnnotationPositions;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.HashRelation;
+
+/**
+ * Fills {@link HoareAnnotationFragments} that keep the dead contexts on the heap and ones that spill them to a file
+ * with the same double deckers, and checks that the spilled dead contexts are reloaded unchanged.
+ */
+public class HoareAnnotationFragmentsTest {
+
+	private static final String PROC = "main";
+
+	private IUltimateServiceProvider mServices;
+	private ILogger mLogger;
+	private int mSerial;
+
+	@Before
+	public void setUp() {
+		mServices = UltimateMocks.createUltimateServiceProviderMock();
+		mLogger = mServices.getLoggingService().getLogger(getClass());
+	}
+
+	@Test
+	public void spilledDeadContextsAreUnchanged() {
+		final HoareAnnotationFragments<IcfgEdge> heap =
+				new HoareAnnotationFragments<>(mLogger, Collections.emptySet(), HoareAnnotationPositions.All);
+		final HoareAnnotationFragments<IcfgEdge> spilled = new HoareAnnotationFragments<>(mLogger,
+				Collections.emptySet(), HoareAnnotationPositions.All, mServices.getStorage());
+		final List<IcfgLocation> locations = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			locations.add(new IcfgLocation(new StringDebugIdentifier("l" + i), PROC));
+		}
+		final IPredicate emptyStack = createState(null);
+		final Random random = new Random(42);
+		// contexts become dead in two updates, the second one spills into the same file
+		for (int update = 0; update < 2; update++) {
+			for (int context = 0; context < 20; context++) {
+				final IPredicate down = createState(locations.get(random.nextInt(locations.size())));
+				for (int i = random.nextInt(10); i >= 0; i--) {
+					final IPredicate up = createState(locations.get(random.nextInt(locations.size())));
+					heap.addDoubleDecker(down, up, emptyStack);
+					spilled.addDoubleDecker(down, up, emptyStack);
+				}
+			}
+			// no state of the old abstraction is in the new one
+			heap.updateOnMinimization(Collections.emptyMap(), null);
+			spilled.updateOnMinimization(Collections.emptyMap(), null);
+		}
+
+		final Map<IPredicate, HashRelation<IcfgLocation, IPredicate>> expected = heap.getDeadContexts2ProgPoint2Preds();
+		final Map<IPredicate, HashRelation<IcfgLocation, IPredicate>> actual =
+				spilled.getDeadContexts2ProgPoint2Preds();
+		Assert.assertEquals(40, expected.size());
+		Assert.assertEquals(expected.keySet(), actual.keySet());
+		for (final IPredicate context : expected.keySet()) {
+			Assert.assertEquals(expected.get(context), actual.get(context));
+		}
+		Assert.assertEquals(expected, new HashMap<>(actual));
+		Assert.assertTrue(spilled.getLiveContexts2ProgPoint2Preds().isEmpty());
+		spilled.close();
+	}
+
+	@Test
+	public void closeUnregistersSpillFile() {
+		final IToolchainStorage storage = mServices.getStorage();
+		final HoareAnnotationFragments<IcfgEdge> spilled = new HoareAnnotationFragments<>(mLogger,
+				Collections.emptySet(), HoareAnnotationPositions.All, storage);
+		Assert.assertEquals(1, storage.keys().size());
+
+		spilled.close();
+		Assert.assertTrue(storage.keys().isEmpty());
+		spilled.close();
+	}
+
+	@Test
+	public void clearingTheStorageClosesSpillFile() {
+		final IToolchainStorage storage = mServices.getStorage();
+		final HoareAnnotationFragments<IcfgEdge> spilled = new HoareAnnotationFragments<>(mLogger,
+				Collections.emptySet(), HoareAnnotationPositions.All, storage);
+
+		// the CEGAR loop was canceled before it closed the fragments
+		storage.clear();
+		Assert.assertTrue(storage.keys().isEmpty());
+		spilled.close();
+	}
+
+	@Test
+	public void heapFragmentsAreNotRegistered() {
+		final HoareAnnotationFragments<IcfgEdge> heap =
+				new HoareAnnotationFragments<>(mLogger, Collections.emptySet(), HoareAnnotationPositions.All);
+		Assert.assertTrue(mServices.getStorage().keys().isEmpty());
+		heap.close();
+	}
+
+	private IPredicate createState(final IcfgLocation location) {
+		return new UnknownState(location, mSerial++, null) {
+			// constructor is protected
+		};
+	}
+}
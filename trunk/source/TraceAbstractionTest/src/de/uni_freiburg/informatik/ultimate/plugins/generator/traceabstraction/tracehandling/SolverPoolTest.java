@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2022 University of Freiburg
+ *
+ * This file is part of the ULTIMATE TraceAbstraction plug-in.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE TraceAbstraction plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE TraceAbstraction plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE TraceAbstraction plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.ManagedScript;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.solverbuilder.SolverBuilder;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.solverbuilder.SolverBuilder.ExternalSolver;
+import de.uni_freiburg.informatik.ultimate.lib.smtlibutils.solverbuilder.SolverBuilder.SolverSettings;
+import de.uni_freiburg.informatik.ultimate.logic.NoopScript;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling.SolverPool.SolverPoolStatistics;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Checks when a {@link SolverPool} hands out a pooled solver again, and when it exits pooled solvers. The solvers are
+ * scripts that only record their timeout and whether they were exited.
+ */
+public class SolverPoolTest {
+
+	private static final long IDLE_TIMEOUT_IN_SECONDS = 60;
+	private static final SolverSettings Z3 =
+			SolverBuilder.constructSolverSettings().setUseExternalSolver(ExternalSolver.Z3);
+
+	private IUltimateServiceProvider mServices;
+	private final List<RecordingScript> mCreated = new ArrayList<>();
+	private long mNow;
+
+	@Before
+	public void setUp() {
+		mServices = UltimateMocks.createUltimateServiceProviderMock();
+		mCreated.clear();
+		mNow = 0;
+	}
+
+	private SolverPool createPool(final int maxIdleSolvers) {
+		return new SolverPool(mServices, mServices.getLoggingService().getLogger(getClass()), maxIdleSolvers,
+				IDLE_TIMEOUT_IN_SECONDS, (toolkit, settings, solverId) -> {
+					final RecordingScript script = new RecordingScript();
+					mCreated.add(script);
+					return new ManagedScript(mServices, script);
+				}, () -> mNow);
+	}
+
+	private static RecordingScript getScript(final ManagedScript script) {
+		return (RecordingScript) script.getScript();
+	}
+
+	private void advanceBeyondIdleTimeout() {
+		mNow += TimeUnit.SECONDS.toNanos(IDLE_TIMEOUT_IN_SECONDS) + 1;
+	}
+
+	@Test
+	public void handOutIdleSolver() {
+		final SolverPool pool = createPool(4);
+		final SolverPoolStatistics statistics = new SolverPoolStatistics();
+		final ManagedScript first = pool.getManagedScript(null, Z3, ExternalSolver.Z3, 1000, "1", statistics);
+		Assert.assertEquals(1000L, getScript(first).mTimeout);
+		// the timeout differs, but the solver is reused and gets the new timeout
+		final ManagedScript second = pool.getManagedScript(null, Z3, ExternalSolver.Z3, 500, "2", statistics);
+		Assert.assertSame(first, second);
+		Assert.assertEquals(500L, getScript(second).mTimeout);
+		Assert.assertEquals(1, statistics.getValue(SolverPoolStatistics.HITS));
+		Assert.assertEquals(1, statistics.getValue(SolverPoolStatistics.MISSES));
+		Assert.assertEquals(1, mCreated.size());
+	}
+
+	@Test
+	public void noHandOutOfLockedOrIncompatibleSolvers() {
+		final SolverPool pool = createPool(4);
+		final SolverPoolStatistics statistics = new SolverPoolStatistics();
+		final ManagedScript first = pool.getManagedScript(null, Z3, ExternalSolver.Z3, 1000, "1", statistics);
+		final Object owner = new Object();
+		first.lock(owner);
+		final ManagedScript second = pool.getManagedScript(null, Z3, ExternalSolver.Z3, 1000, "2", statistics);
+		Assert.assertNotSame(first, second);
+		first.unlock(owner);
+		// the same trace check does not get its solver again
+		Assert.assertSame(second, pool.getManagedScript(null, Z3, ExternalSolver.Z3, 1000, "1", statistics));
+		// a solver with a timeout cannot be handed out for a check without a timeout
+		final ManagedScript noTimeout = pool.getManagedScript(null, Z3, ExternalSolver.Z3, -1, "3", statistics);
+		Assert.assertNotSame(first, noTimeout);
+		Assert.assertNull(getScript(noTimeout).mTimeout);
+		Assert.assertEquals(1, statistics.getValue(SolverPoolStatistics.HITS));
+		Assert.assertEquals(3, statistics.getValue(SolverPoolStatistics.MISSES));
+	}
+
+	@Test
+	public void evictLeastRecentlyUsed() {
+		final SolverPool pool = createPool(1);
+		final SolverPoolStatistics statistics = new SolverPoolStatistics();
+		final Object owner = new Object();
+		final ManagedScript first = pool.getManagedScript(null, Z3, ExternalSolver.Z3, 1000, "1", statistics);
+		first.lock(owner);
+		mNow++;
+		final ManagedScript second = pool.getManagedScript(null, Z3, ExternalSolver.Z3, 1000, "2", statistics);
+		first.unlock(owner);
+		mNow++;
+		// two idle solvers but only one is kept, the first one was used least recently
+		final ManagedScript third = pool.getManagedScript(null, Z3, ExternalSolver.Z3, 1000, "3", statistics);
+		Assert.assertTrue(getScript(first).mExited);
+		Assert.assertSame(second, third);
+		Assert.assertFalse(getScript(second).mExited);
+		Assert.assertEquals(1, statistics.getValue(SolverPoolStatistics.EXITED));
+	}
+
+	@Test
+	public void exitAfterIdleTimeout() {
+		final SolverPool pool = createPool(4);
+		final SolverPoolStatistics statistics = new SolverPoolStatistics();
+		final Object owner = new Object();
+		final ManagedScript idle = pool.getManagedScript(null, Z3, ExternalSolver.Z3, 1000, "1", statistics);
+		final ManagedScript locked = pool.getManagedScript(null, Z3, ExternalSolver.Z3, 1000, "1", statistics);
+		locked.lock(owner);
+		advanceBeyondIdleTimeout();
+		final ManagedScript fresh = pool.getManagedScript(null, Z3, ExternalSolver.Z3, 1000, "2", statistics);
+		// the solver that was never released is exited as well
+		Assert.assertTrue(getScript(idle).mExited);
+		Assert.assertTrue(getScript(locked).mExited);
+		Assert.assertNotSame(idle, fresh);
+		Assert.assertNotSame(locked, fresh);
+		Assert.assertEquals(2, statistics.getValue(SolverPoolStatistics.EXITED));
+		pool.destroy();
+		Assert.assertTrue(getScript(fresh).mExited);
+	}
+
+	private static final class RecordingScript extends NoopScript {
+		private Object mTimeout;
+		private boolean mExited;
+
+		@Override
+		public void setOption(final String opt, final Object value) {
+			if (ExternalSolver.Z3.getTimeoutOption().equals(opt)) {
+				mTimeout = value;
+			}
+		}
+
+		@Override
+		public void exit() {
+			mExited = true;
+		}
+	}
+}
@@ -88,6 +88,8 @@ public class AutomataMinimizationTestSuite extends UltimateTestSuite {
 	private static final String[] SETTINGS = {
 			"AutomataScript/minimizeSevpa.epf",
 			"AutomataScript/shrinkNwa.epf",
+			"AutomataScript/minimizeNwaBisimulationParallel.epf",
+			"AutomataScript/minimizeNwaBisimulationIncremental.epf",
 			"AutomataScript/minimizeNwaPmaxSatDirectBi.epf",
 			"AutomataScript/minimizeNwaPmaxSatDirect.epf",
 			"AutomataScript/reduceNwaDirectSimulation.epf",
@@ -133,6 +135,8 @@ public class AutomataMinimizationTestSuite extends UltimateTestSuite {
 			"minimizeNwaPmaxSatDirect",
 			"minimizeSevpa",
 			"shrinkNwa",
+			"minimizeNwaBisimulationParallel",
+			"minimizeNwaBisimulationIncremental",
 			"reduceNwaDirectSimulation",
 			"reduceNwaDirectSimulationB",
 			"reduceNwaDelayedSimulation",
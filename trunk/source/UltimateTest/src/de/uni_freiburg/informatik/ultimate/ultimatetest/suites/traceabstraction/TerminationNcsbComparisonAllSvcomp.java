@@ -168,6 +168,7 @@ public class TerminationNcsbComparisonAllSvcomp extends AbstractBuchiAutomizerTe
 			"buchiAutomizer/ncsb/SUNFLOWER-INTSET_LAZY2.epf",
 			"buchiAutomizer/ncsb/INTSET_LAZY3.epf",
 			"buchiAutomizer/ncsb/SUNFLOWER-INTSET_LAZY3.epf",
+			"buchiAutomizer/ncsb/INTSET_BITSET.epf",
 			"buchiAutomizer/ncsb/ORIGINAL.epf",
 			"buchiAutomizer/ncsb/SUNFLOWER-ORIGINAL.epf",
 	};